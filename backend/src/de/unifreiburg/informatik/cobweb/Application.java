@@ -36,6 +36,7 @@ import de.unifreiburg.informatik.cobweb.routing.server.RoutingServer;
 import de.unifreiburg.informatik.cobweb.searching.name.server.NameSearchServer;
 import de.unifreiburg.informatik.cobweb.searching.nearest.server.NearestSearchServer;
 import de.unifreiburg.informatik.cobweb.util.CleanUtil;
+import de.unifreiburg.informatik.cobweb.util.http.HttpServer;
 
 /**
  * The whole application. Supports various commands, see the documentation of
@@ -55,10 +56,24 @@ public final class Application {
    * Path to the configuration of the logger.
    */
   private static final Path LOGGER_CONFIG = Paths.get("res", "logging", "logConfig.xml");
+  /**
+   * The lane of the HTTP server which answers routing requests.
+   */
+  private static final String ROUTING_LANE = "routing";
+  /**
+   * The lane of the HTTP server which answers name and nearest search requests,
+   * such that they do not queue behind routing requests.
+   */
+  private static final String SEARCH_LANE = "search";
   /**
    * Parsed argument data used to determine the commands to use.
    */
   private final CommandData mCommandData;
+  /**
+   * The factory generating the algorithms used to answer routing requests, or
+   * <code>null</code> if not initialized.
+   */
+  private ShortestPathComputationFactory mComputationFactory;
   /**
    * Provides the configuration of the application.
    */
@@ -71,6 +86,10 @@ public final class Application {
    * Database to use for storing meta data.
    */
   private ADatabase mDatabase;
+  /**
+   * Server which offers the REST APIs of all services on a single port.
+   */
+  private HttpServer mHttpServer;
   /**
    * Logger to use for logging.
    */
@@ -182,8 +201,11 @@ public final class Application {
       mLogger.info("Shutting down application");
     }
     try {
-      if (mRoutingServer != null) {
-        mRoutingServer.shutdown();
+      if (mHttpServer != null) {
+        mHttpServer.shutdown();
+      }
+      if (mComputationFactory != null) {
+        mComputationFactory.shutdown();
       }
       if (mDatabase != null) {
         mDatabase.shutdown();
@@ -209,9 +231,7 @@ public final class Application {
       mLogger.info("Starting application");
       switch (mCommandData.getCommand()) {
         case START:
-          mRoutingServer.start();
-          mNameSearchServer.start();
-          mNearestSearchServer.start();
+          mHttpServer.start();
           break;
         case CLEAN:
           CleanUtil.clean(mConfig, mConfig);
@@ -306,6 +326,7 @@ public final class Application {
       initializeRouting();
       initializeNameSearch();
       initializeNearestSearch();
+      initializeServer();
     }
 
     final Instant initEndTime = Instant.now();
@@ -363,8 +384,7 @@ public final class Application {
    */
   private void initializeNearestSearch() {
     mLogger.info("Initializing nearest search");
-    mNearestSearchServer = new NearestSearchServer(mConfig, mNearestNeighborComputation, mDatabase);
-    mNearestSearchServer.initialize();
+    mNearestSearchServer = new NearestSearchServer(mNearestNeighborComputation, mDatabase);
   }
 
   /**
@@ -376,10 +396,26 @@ public final class Application {
     mLogger.info("Initializing routing");
 
     final IGetNodeById<ICoreNode> nodeProvider = mRoutingModel.getNodeProvider();
-    final ShortestPathComputationFactory computationFactory = mRoutingModel.createShortestPathComputationFactory();
+    mComputationFactory = mRoutingModel.createShortestPathComputationFactory();
+
+    mRoutingServer = new RoutingServer(nodeProvider, mComputationFactory, mDatabase, mConfig);
+  }
 
-    mRoutingServer = new RoutingServer(mConfig, nodeProvider, computationFactory, mDatabase);
-    mRoutingServer.initialize();
+  /**
+   * Initializes the HTTP server which offers the REST APIs of the routing, name
+   * search and nearest search servers on a single port. The servers must be
+   * initialized before. Routing and search requests are answered on separate
+   * lanes of bounded size.
+   */
+  private void initializeServer() {
+    mLogger.info("Initializing HTTP server");
+    mHttpServer = new HttpServer(mConfig.getServerPort());
+    mHttpServer.addLane(ROUTING_LANE, mConfig.getRoutingThreads(), mConfig.getRoutingQueueCapacity());
+    mHttpServer.addLane(SEARCH_LANE, mConfig.getSearchThreads(), mConfig.getSearchQueueCapacity());
+    mRoutingServer.register(mHttpServer, ROUTING_LANE);
+    mNameSearchServer.register(mHttpServer, SEARCH_LANE);
+    mNearestSearchServer.register(mHttpServer, SEARCH_LANE);
+    mHttpServer.initialize();
   }
 
   /**
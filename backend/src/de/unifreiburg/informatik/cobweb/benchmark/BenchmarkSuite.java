@@ -16,6 +16,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -266,6 +267,7 @@ public final class BenchmarkSuite implements IQueryNodeProvider {
     } catch (final IOException e) {
       e.printStackTrace();
     } finally {
+      mFactory.shutdown();
       try {
         flushLinesBuffer();
       } catch (final IOException e) {
@@ -350,7 +352,8 @@ public final class BenchmarkSuite implements IQueryNodeProvider {
     BenchmarkSuite.cleanup();
 
     final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> baseLineComputation;
-    if (mModel.getMode() == ERoutingModelMode.GRAPH_WITH_TIMETABLE) {
+    if (mModel.getMode() == ERoutingModelMode.GRAPH_WITH_TIMETABLE
+        || mModel.getMode() == ERoutingModelMode.TIME_DEPENDENT_GRAPH) {
       // Measuring Hybrid
       LOGGER.info("Measuring Hybrid");
       writeLine("#Hybrid");
@@ -405,7 +408,8 @@ public final class BenchmarkSuite implements IQueryNodeProvider {
     BenchmarkSuite.cleanup();
 
     final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> restrictedComputation;
-    if (mModel.getMode() == ERoutingModelMode.GRAPH_WITH_TIMETABLE) {
+    if (mModel.getMode() == ERoutingModelMode.GRAPH_WITH_TIMETABLE
+        || mModel.getMode() == ERoutingModelMode.TIME_DEPENDENT_GRAPH) {
       // Measuring Hybrid
       LOGGER.info("Measuring Hybrid");
       writeLine("#Hybrid");
@@ -548,45 +552,57 @@ public final class BenchmarkSuite implements IQueryNodeProvider {
       queries.add(new Pair<>(getQueryNode(), getQueryNode()));
     }
 
-    if (mModel.getMode() == ERoutingModelMode.GRAPH_WITH_TIMETABLE) {
-      // Measure CSA
-      LOGGER.info("Measuring CSA");
-      writeLine("#CSA");
-      writeLine("DepTime(HH:mm)\tTime(ns)");
-      final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> computation = mFactory.createAlgorithmCsa();
+    if (mModel.getMode() == ERoutingModelMode.GRAPH_WITH_TIMETABLE
+        || mModel.getMode() == ERoutingModelMode.TIME_DEPENDENT_GRAPH) {
+      // Measure CSA, compared to RAPTOR, trip-based routing and the time-dependent Dijkstra if available
+      final Map<String, IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>>> nameToComputation =
+          new LinkedHashMap<>();
+      nameToComputation.put("CSA", mFactory.createAlgorithmCsa());
+      nameToComputation.put("RAPTOR", mFactory.createAlgorithmRaptor());
+      nameToComputation.put("Trip-Based", mFactory.createAlgorithmTripBased());
+      if (mModel.getMode() == ERoutingModelMode.TIME_DEPENDENT_GRAPH) {
+        nameToComputation.put("Time-dependent Dijkstra", mFactory.createAlgorithmTimeDependentDijkstra());
+      }
       final IAccessNodeComputation<ICoreNode, ICoreNode> accessNodeComputation = mFactory.getAccessNodeComputation();
-      // For every departure time point
-      int stepCounter = 0;
-      for (int depTime = startDepTime; depTime <= endDepTime; depTime += UNI_MODAL_TIME_DEPENDENT_DEP_TIME_STEPS) {
-        // Average over selected queries
-        final long[] durationsNanos = new long[queries.size()];
-        int averagingCounter = 0;
-        for (final Pair<ICoreNode, ICoreNode> query : queries) {
-          final ICoreNode sourceRoad = query.getFirst();
-          final ICoreNode destinationRoad = query.getSecond();
-          final ICoreNode sourceAccess = accessNodeComputation.computeAccessNodes(sourceRoad).iterator().next();
-          final ICoreNode destinationAccess =
-              accessNodeComputation.computeAccessNodes(destinationRoad).iterator().next();
-          final TransitNode sourceAccessQuery =
-              new TransitNode(sourceAccess.getId(), sourceAccess.getLatitude(), sourceAccess.getLongitude(), depTime);
-
-          // Measure the query
-          final long startTime = System.nanoTime();
-          computation.computeShortestPath(sourceAccessQuery, destinationAccess);
-          final long endTime = System.nanoTime();
-          final long duration = endTime - startTime;
-          durationsNanos[averagingCounter] = duration;
-          averagingCounter++;
-        }
-
-        final long durationNanosAverage = (long) Arrays.stream(durationsNanos).average().getAsDouble();
-        final String formattedDepTime = LocalTime.ofSecondOfDay(depTime).format(DateTimeFormatter.ofPattern("HH:mm"));
-        writeLine(formattedDepTime + "\t" + durationNanosAverage);
-
-        if (stepCounter % 8 == 0) {
-          LOGGER.info("Steps to go: " + (amountOfSteps - stepCounter));
+      for (final Entry<String, IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>>> nameAndComputation
+          : nameToComputation.entrySet()) {
+        LOGGER.info("Measuring " + nameAndComputation.getKey());
+        writeLine("#" + nameAndComputation.getKey());
+        writeLine("DepTime(HH:mm)\tTime(ns)");
+        final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> computation = nameAndComputation.getValue();
+        // For every departure time point
+        int stepCounter = 0;
+        for (int depTime = startDepTime; depTime <= endDepTime; depTime += UNI_MODAL_TIME_DEPENDENT_DEP_TIME_STEPS) {
+          // Average over selected queries
+          final long[] durationsNanos = new long[queries.size()];
+          int averagingCounter = 0;
+          for (final Pair<ICoreNode, ICoreNode> query : queries) {
+            final ICoreNode sourceRoad = query.getFirst();
+            final ICoreNode destinationRoad = query.getSecond();
+            final ICoreNode sourceAccess = accessNodeComputation.computeAccessNodes(sourceRoad).iterator().next();
+            final ICoreNode destinationAccess =
+                accessNodeComputation.computeAccessNodes(destinationRoad).iterator().next();
+            final TransitNode sourceAccessQuery =
+                new TransitNode(sourceAccess.getId(), sourceAccess.getLatitude(), sourceAccess.getLongitude(), depTime);
+
+            // Measure the query
+            final long startTime = System.nanoTime();
+            computation.computeShortestPath(sourceAccessQuery, destinationAccess);
+            final long endTime = System.nanoTime();
+            final long duration = endTime - startTime;
+            durationsNanos[averagingCounter] = duration;
+            averagingCounter++;
+          }
+
+          final long durationNanosAverage = (long) Arrays.stream(durationsNanos).average().getAsDouble();
+          final String formattedDepTime = LocalTime.ofSecondOfDay(depTime).format(DateTimeFormatter.ofPattern("HH:mm"));
+          writeLine(formattedDepTime + "\t" + durationNanosAverage);
+
+          if (stepCounter % 8 == 0) {
+            LOGGER.info("Steps to go: " + (amountOfSteps - stepCounter));
+          }
+          stepCounter++;
         }
-        stepCounter++;
       }
     } else if (mModel.getMode() == ERoutingModelMode.LINK_GRAPH) {
       // Measure Time-dependent ALT
@@ -689,6 +705,7 @@ public final class BenchmarkSuite implements IQueryNodeProvider {
     algorithmsWithName.add(new Pair<>(mFactory.createAlgorithmDijkstra(), "Dijkstra"));
     algorithmsWithName.add(new Pair<>(mFactory.createAlgorithmAStarAsTheCrowFlies(), "A-star (as-the-crow-flies)"));
     algorithmsWithName.add(new Pair<>(mFactory.createAlgorithmAlt(), "ALT"));
+    algorithmsWithName.add(new Pair<>(mFactory.createAlgorithmBidirectionalAlt(), "Bidirectional ALT"));
 
     for (final Pair<IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>>,
         String> algorithmWithName : algorithmsWithName) {
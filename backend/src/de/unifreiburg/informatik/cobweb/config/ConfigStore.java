@@ -20,7 +20,7 @@ import de.unifreiburg.informatik.cobweb.routing.model.ERoutingModelMode;
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
 public final class ConfigStore implements IConfigProvider, IParseConfigProvider, IRoutingConfigProvider,
-    INameSearchConfigProvider, IDatabaseConfigProvider, INearestSearchConfigProvider {
+    INameSearchConfigProvider, IDatabaseConfigProvider, IServerConfigProvider {
   /**
    * The logger to use for logging.
    */
@@ -59,6 +59,11 @@ public final class ConfigStore implements IConfigProvider, IParseConfigProvider,
     return mSettings;
   }
 
+  @Override
+  public int getAmountOfActiveLandmarks() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_AMOUNT_OF_ACTIVE_LANDMARKS));
+  }
+
   @Override
   public int getAmountOfLandmarks() {
     return Integer.valueOf(getSetting(ConfigUtil.KEY_AMOUNT_OF_LANDMARKS));
@@ -89,6 +94,11 @@ public final class ConfigStore implements IConfigProvider, IParseConfigProvider,
     return Paths.get(getSetting(ConfigUtil.KEY_GRAPH_CACHE_INFO));
   }
 
+  @Override
+  public Path getLandmarkCache() {
+    return Paths.get(getSetting(ConfigUtil.KEY_LANDMARK_CACHE));
+  }
+
   @Override
   public Path getGtfsDirectory() {
     return Paths.get(getSetting(ConfigUtil.KEY_GTFS_DIRECTORY));
@@ -110,23 +120,43 @@ public final class ConfigStore implements IConfigProvider, IParseConfigProvider,
   }
 
   @Override
-  public int getNameSearchServerPort() {
-    return Integer.valueOf(getSetting(ConfigUtil.KEY_NAME_SEARCH_SERVER_PORT));
+  public Path getOsmDirectory() {
+    return Paths.get(getSetting(ConfigUtil.KEY_OSM_DIRECTORY));
   }
 
   @Override
-  public int getNearestSearchServerPort() {
-    return Integer.valueOf(getSetting(ConfigUtil.KEY_NEAREST_SEARCH_SERVER_PORT));
+  public Path getOsmRoadFilter() {
+    return Paths.get(getSetting(ConfigUtil.KEY_OSM_ROAD_FILTER));
   }
 
   @Override
-  public Path getOsmDirectory() {
-    return Paths.get(getSetting(ConfigUtil.KEY_OSM_DIRECTORY));
+  public int getRouteBatchDeadline() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_ROUTE_BATCH_DEADLINE));
   }
 
   @Override
-  public Path getOsmRoadFilter() {
-    return Paths.get(getSetting(ConfigUtil.KEY_OSM_ROAD_FILTER));
+  public int getRouteBatchLimit() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_ROUTE_BATCH_LIMIT));
+  }
+
+  @Override
+  public int getRouteCacheBucket() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_ROUTE_CACHE_BUCKET));
+  }
+
+  @Override
+  public int getRouteCacheSize() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_ROUTE_CACHE_SIZE));
+  }
+
+  @Override
+  public int getRouteCacheTimeToLive() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_ROUTE_CACHE_TIME_TO_LIVE));
+  }
+
+  @Override
+  public int getRoutingDeadline() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_ROUTING_DEADLINE));
   }
 
   @Override
@@ -135,8 +165,32 @@ public final class ConfigStore implements IConfigProvider, IParseConfigProvider,
   }
 
   @Override
-  public int getRoutingServerPort() {
-    return Integer.valueOf(getSetting(ConfigUtil.KEY_ROUTING_SERVER_PORT));
+  public int getRoutingQueueCapacity() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_ROUTING_QUEUE_CAPACITY));
+  }
+
+  @Override
+  public int getRoutingThreads() {
+    final int threads = Integer.valueOf(getSetting(ConfigUtil.KEY_ROUTING_THREADS));
+    if (threads <= 0) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+    return threads;
+  }
+
+  @Override
+  public int getSearchQueueCapacity() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_SEARCH_QUEUE_CAPACITY));
+  }
+
+  @Override
+  public int getSearchThreads() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_SEARCH_THREADS));
+  }
+
+  @Override
+  public int getServerPort() {
+    return Integer.valueOf(getSetting(ConfigUtil.KEY_SERVER_PORT));
   }
 
   @Override
@@ -148,11 +202,21 @@ public final class ConfigStore implements IConfigProvider, IParseConfigProvider,
     return value;
   }
 
+  @Override
+  public Path getStopToRoadNodeCache() {
+    return Paths.get(getSetting(ConfigUtil.KEY_STOP_TO_ROAD_NODE_CACHE));
+  }
+
   @Override
   public int getTransferDelay() {
     return Integer.valueOf(getSetting(ConfigUtil.KEY_TRANSFER_DELAY));
   }
 
+  @Override
+  public Path getTripTransfersCache() {
+    return Paths.get(getSetting(ConfigUtil.KEY_TRIP_TRANSFERS_CACHE));
+  }
+
   /**
    * Resets all settings of the store to their default values.
    */
@@ -166,6 +230,11 @@ public final class ConfigStore implements IConfigProvider, IParseConfigProvider,
     mSettings.put(key, value);
   }
 
+  @Override
+  public boolean useContractionHierarchies() {
+    return Boolean.valueOf(getSetting(ConfigUtil.KEY_USE_CONTRACTION_HIERARCHIES));
+  }
+
   @Override
   public boolean useExternalDb() {
     return Boolean.valueOf(getSetting(ConfigUtil.KEY_USE_EXTERNAL_DB));
@@ -176,6 +245,16 @@ public final class ConfigStore implements IConfigProvider, IParseConfigProvider,
     return Boolean.valueOf(getSetting(ConfigUtil.KEY_USE_GRAPH_CACHE));
   }
 
+  @Override
+  public boolean useParallelHybridQueries() {
+    return Boolean.valueOf(getSetting(ConfigUtil.KEY_USE_PARALLEL_HYBRID_QUERIES));
+  }
+
+  @Override
+  public boolean useStopReachTables() {
+    return Boolean.valueOf(getSetting(ConfigUtil.KEY_USE_STOP_REACH_TABLES));
+  }
+
   /**
    * Gets the default value stored for the given key or <code>null</code> if there
    * is no.
@@ -194,6 +273,21 @@ public final class ConfigStore implements IConfigProvider, IParseConfigProvider,
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Loading default settings");
     }
+    // Server settings
+    mDefaultSettings.put(ConfigUtil.KEY_SERVER_PORT, String.valueOf(ConfigUtil.VALUE_SERVER_PORT));
+    mDefaultSettings.put(ConfigUtil.KEY_ROUTING_THREADS, String.valueOf(ConfigUtil.VALUE_ROUTING_THREADS));
+    mDefaultSettings.put(ConfigUtil.KEY_ROUTING_QUEUE_CAPACITY,
+        String.valueOf(ConfigUtil.VALUE_ROUTING_QUEUE_CAPACITY));
+    mDefaultSettings.put(ConfigUtil.KEY_ROUTING_DEADLINE, String.valueOf(ConfigUtil.VALUE_ROUTING_DEADLINE));
+    mDefaultSettings.put(ConfigUtil.KEY_ROUTE_CACHE_SIZE, String.valueOf(ConfigUtil.VALUE_ROUTE_CACHE_SIZE));
+    mDefaultSettings.put(ConfigUtil.KEY_ROUTE_CACHE_TIME_TO_LIVE,
+        String.valueOf(ConfigUtil.VALUE_ROUTE_CACHE_TIME_TO_LIVE));
+    mDefaultSettings.put(ConfigUtil.KEY_ROUTE_CACHE_BUCKET, String.valueOf(ConfigUtil.VALUE_ROUTE_CACHE_BUCKET));
+    mDefaultSettings.put(ConfigUtil.KEY_ROUTE_BATCH_LIMIT, String.valueOf(ConfigUtil.VALUE_ROUTE_BATCH_LIMIT));
+    mDefaultSettings.put(ConfigUtil.KEY_ROUTE_BATCH_DEADLINE, String.valueOf(ConfigUtil.VALUE_ROUTE_BATCH_DEADLINE));
+    mDefaultSettings.put(ConfigUtil.KEY_SEARCH_THREADS, String.valueOf(ConfigUtil.VALUE_SEARCH_THREADS));
+    mDefaultSettings.put(ConfigUtil.KEY_SEARCH_QUEUE_CAPACITY, String.valueOf(ConfigUtil.VALUE_SEARCH_QUEUE_CAPACITY));
+
     // Database settings
     mDefaultSettings.put(ConfigUtil.KEY_JDBC_URL, ConfigUtil.VALUE_JDBC_URL);
     mDefaultSettings.put(ConfigUtil.KEY_INIT_DB_SCRIPT, ConfigUtil.VALUE_INIT_DB_SCRIPT.toString());
@@ -209,7 +303,9 @@ public final class ConfigStore implements IConfigProvider, IParseConfigProvider,
     mDefaultSettings.put(ConfigUtil.KEY_GRAPH_CACHE, ConfigUtil.VALUE_GRAPH_CACHE.toString());
     mDefaultSettings.put(ConfigUtil.KEY_USE_GRAPH_CACHE, String.valueOf(ConfigUtil.VALUE_USE_GRAPH_CACHE));
     mDefaultSettings.put(ConfigUtil.KEY_GRAPH_CACHE_INFO, ConfigUtil.VALUE_GRAPH_CACHE_INFO.toString());
-    mDefaultSettings.put(ConfigUtil.KEY_ROUTING_SERVER_PORT, String.valueOf(ConfigUtil.VALUE_ROUTING_SERVER_PORT));
+    mDefaultSettings.put(ConfigUtil.KEY_LANDMARK_CACHE, ConfigUtil.VALUE_LANDMARK_CACHE.toString());
+    mDefaultSettings.put(ConfigUtil.KEY_STOP_TO_ROAD_NODE_CACHE, ConfigUtil.VALUE_STOP_TO_ROAD_NODE_CACHE.toString());
+    mDefaultSettings.put(ConfigUtil.KEY_TRIP_TRANSFERS_CACHE, ConfigUtil.VALUE_TRIP_TRANSFERS_CACHE.toString());
     mDefaultSettings.put(ConfigUtil.KEY_OSM_ROAD_FILTER, ConfigUtil.VALUE_OSM_ROAD_FILTER.toString());
     mDefaultSettings.put(ConfigUtil.KEY_ROUTING_MODEL_MODE, ConfigUtil.VALUE_ROUTING_MODEL_MODE);
     mDefaultSettings.put(ConfigUtil.KEY_ACCESS_NODES_MAXIMUM, String.valueOf(ConfigUtil.VALUE_ACCESS_NODES_MAXIMUM));
@@ -218,16 +314,17 @@ public final class ConfigStore implements IConfigProvider, IParseConfigProvider,
     mDefaultSettings.put(ConfigUtil.KEY_ABORT_TRAVEL_TIME_TO_ACCESS_NODES,
         String.valueOf(ConfigUtil.VALUE_ABORT_TRAVEL_TIME_TO_ACCESS_NODES));
     mDefaultSettings.put(ConfigUtil.KEY_AMOUNT_OF_LANDMARKS, String.valueOf(ConfigUtil.VALUE_AMOUNT_OF_LANDMARKS));
+    mDefaultSettings.put(ConfigUtil.KEY_AMOUNT_OF_ACTIVE_LANDMARKS,
+        String.valueOf(ConfigUtil.VALUE_AMOUNT_OF_ACTIVE_LANDMARKS));
+    mDefaultSettings.put(ConfigUtil.KEY_USE_CONTRACTION_HIERARCHIES,
+        String.valueOf(ConfigUtil.VALUE_USE_CONTRACTION_HIERARCHIES));
+    mDefaultSettings.put(ConfigUtil.KEY_USE_PARALLEL_HYBRID_QUERIES,
+        String.valueOf(ConfigUtil.VALUE_USE_PARALLEL_HYBRID_QUERIES));
+    mDefaultSettings.put(ConfigUtil.KEY_USE_STOP_REACH_TABLES, String.valueOf(ConfigUtil.VALUE_USE_STOP_REACH_TABLES));
 
     // Name search settings
-    mDefaultSettings.put(ConfigUtil.KEY_NAME_SEARCH_SERVER_PORT,
-        String.valueOf(ConfigUtil.VALUE_NAME_SEARCH_SERVER_PORT));
     mDefaultSettings.put(ConfigUtil.KEY_NAME_SEARCH_SERVER_MATCH_LIMIT,
         String.valueOf(ConfigUtil.VALUE_NAME_SEARCH_SERVER_MATCH_LIMIT));
-
-    // Nearest search settings
-    mDefaultSettings.put(ConfigUtil.KEY_NEAREST_SEARCH_SERVER_PORT,
-        String.valueOf(ConfigUtil.VALUE_NEAREST_SEARCH_SERVER_PORT));
   }
 
 }
@@ -20,6 +20,11 @@ final class ConfigUtil {
    * use when transferring from a road node to a transit stop.
    */
   static final String KEY_ACCESS_NODES_MAXIMUM = "accessNodesMaximum";
+  /**
+   * Name of the key that stores the amount of active landmarks to select per
+   * query for the landmark heuristic.
+   */
+  static final String KEY_AMOUNT_OF_ACTIVE_LANDMARKS = "amountOfActiveLandmarks";
   /**
    * Name of the key that stores the amount of landmarks to use for the landmark
    * heuristic.
@@ -52,6 +57,10 @@ final class ConfigUtil {
    * data are stored.
    */
   static final String KEY_GTFS_DIRECTORY = "gtfsDirectory";
+  /**
+   * Name of the key that stores the path to the landmark cache.
+   */
+  static final String KEY_LANDMARK_CACHE = "landmarkCache";
   /**
    * Name of the key that stores the path to the SQL script to execute when
    * initializing the external database.
@@ -67,14 +76,6 @@ final class ConfigUtil {
    * server should send.
    */
   static final String KEY_NAME_SEARCH_SERVER_MATCH_LIMIT = "nameSearchServerMatchLimit";
-  /**
-   * Name of the key that stores the port the name search server should use.
-   */
-  static final String KEY_NAME_SEARCH_SERVER_PORT = "nameSearchServerPort";
-  /**
-   * Name of the key that stores the port the nearest search server should use.
-   */
-  static final String KEY_NEAREST_SEARCH_SERVER_PORT = "nearestSearchServerPort";
   /**
    * Name of the key that stores the path to the directory where all OSM input
    * data are stored.
@@ -85,19 +86,85 @@ final class ConfigUtil {
    * ways in OSM data.
    */
   static final String KEY_OSM_ROAD_FILTER = "osmRoadFilter";
+  /**
+   * Name of the key that stores the time in milliseconds a batch of routing
+   * requests may take before its unanswered requests are given up.
+   */
+  static final String KEY_ROUTE_BATCH_DEADLINE = "routeBatchDeadline";
+  /**
+   * Name of the key that stores the maximal amount of routing requests in a
+   * batch.
+   */
+  static final String KEY_ROUTE_BATCH_LIMIT = "routeBatchLimit";
+  /**
+   * Name of the key that stores the size in milliseconds of the departure time
+   * buckets of the route cache. Requests departing in the same bucket share
+   * their response.
+   */
+  static final String KEY_ROUTE_CACHE_BUCKET = "routeCacheBucket";
+  /**
+   * Name of the key that stores the maximal amount of responses held by the
+   * route cache.
+   */
+  static final String KEY_ROUTE_CACHE_SIZE = "routeCacheSize";
+  /**
+   * Name of the key that stores the time in milliseconds a response stays in
+   * the route cache.
+   */
+  static final String KEY_ROUTE_CACHE_TIME_TO_LIVE = "routeCacheTimeToLive";
+  /**
+   * Name of the key that stores the time in milliseconds a routing request may
+   * take before its computation is stopped.
+   */
+  static final String KEY_ROUTING_DEADLINE = "routingDeadline";
   /**
    * Name of the key that stores the mode to use for the routing model.
    */
   static final String KEY_ROUTING_MODEL_MODE = "routingModelMode";
   /**
-   * Name of the key that stores the port the routing server should use.
+   * Name of the key that stores the amount of routing requests that may wait
+   * for a free routing thread before further requests are rejected.
    */
-  static final String KEY_ROUTING_SERVER_PORT = "routingServerPort";
+  static final String KEY_ROUTING_QUEUE_CAPACITY = "routingQueueCapacity";
+  /**
+   * Name of the key that stores the amount of threads that answer routing
+   * requests.
+   */
+  static final String KEY_ROUTING_THREADS = "routingThreads";
+  /**
+   * Name of the key that stores the amount of name and nearest search requests
+   * that may wait for a free search thread before further requests are
+   * rejected.
+   */
+  static final String KEY_SEARCH_QUEUE_CAPACITY = "searchQueueCapacity";
+  /**
+   * Name of the key that stores the amount of threads that answer name and
+   * nearest search requests.
+   */
+  static final String KEY_SEARCH_THREADS = "searchThreads";
+  /**
+   * Name of the key that stores the port the server offering the REST APIs
+   * should use.
+   */
+  static final String KEY_SERVER_PORT = "serverPort";
+  /**
+   * Name of the key that stores the path to the stop to road node cache.
+   */
+  static final String KEY_STOP_TO_ROAD_NODE_CACHE = "stopToRoadNodeCache";
   /**
    * Name of the key that stores the amount in seconds a transfer at the same
    * stop takes.
    */
   static final String KEY_TRANSFER_DELAY = "transferDelay";
+  /**
+   * Name of the key that stores the path to the trip transfer cache.
+   */
+  static final String KEY_TRIP_TRANSFERS_CACHE = "tripTransfersCache";
+  /**
+   * Name of the key that stores whether or not contraction hierarchies should
+   * be used for road-only routing.
+   */
+  static final String KEY_USE_CONTRACTION_HIERARCHIES = "useContractionHierarchies";
   /**
    * Name of the key that stores whether the external or an internal in-memory
    * database should be used.
@@ -107,6 +174,16 @@ final class ConfigUtil {
    * Name of the key that stores whether or not the graph cache should be used.
    */
   static final String KEY_USE_GRAPH_CACHE = "useGraphCache";
+  /**
+   * Name of the key that stores whether or not independent phases of hybrid
+   * queries should be computed concurrently.
+   */
+  static final String KEY_USE_PARALLEL_HYBRID_QUERIES = "useParallelHybridQueries";
+  /**
+   * Name of the key that stores whether or not the paths between road nodes and
+   * nearby stops should be precomputed.
+   */
+  static final String KEY_USE_STOP_REACH_TABLES = "useStopReachTables";
   /**
    * Default travel time in seconds after which to abort shortest path
    * computation to access nodes.
@@ -117,6 +194,11 @@ final class ConfigUtil {
    * from a road node to a transit stop.
    */
   static final int VALUE_ACCESS_NODES_MAXIMUM = 3;
+  /**
+   * Default amount of active landmarks to select per query for the landmark
+   * heuristic.
+   */
+  static final int VALUE_AMOUNT_OF_ACTIVE_LANDMARKS = 4;
   /**
    * Default maximal amount of landmarks to use for the landmark heuristic.
    */
@@ -146,6 +228,10 @@ final class ConfigUtil {
    * Default path to the directory that contains all GTFS data.
    */
   static final Path VALUE_GTFS_DIRECTORY = Paths.get("res", "input", "gtfs");
+  /**
+   * Default path to the landmark cache.
+   */
+  static final Path VALUE_LANDMARK_CACHE = Paths.get("res", "cache", "graph", "landmarks.bin");
   /**
    * Default path to the SQL script that is executed when initializing the
    * external database.
@@ -159,14 +245,6 @@ final class ConfigUtil {
    * Default maximal amount of matches the name search server sends.
    */
   static final int VALUE_NAME_SEARCH_SERVER_MATCH_LIMIT = 1_000;
-  /**
-   * Default port to use by the name search server.
-   */
-  static final int VALUE_NAME_SEARCH_SERVER_PORT = 2846;
-  /**
-   * Default port to use by the nearest search server.
-   */
-  static final int VALUE_NEAREST_SEARCH_SERVER_PORT = 2847;
   /**
    * Default path to the directory that contains all OSM data.
    */
@@ -175,18 +253,77 @@ final class ConfigUtil {
    * Default path to the filter file used to filter road ways in OSM data.
    */
   static final Path VALUE_OSM_ROAD_FILTER = Paths.get("res", "filter", "osm", "road.filter");
+  /**
+   * Default time in milliseconds a batch of routing requests may take before
+   * its unanswered requests are given up.
+   */
+  static final int VALUE_ROUTE_BATCH_DEADLINE = 30_000;
+  /**
+   * Default maximal amount of routing requests in a batch.
+   */
+  static final int VALUE_ROUTE_BATCH_LIMIT = 1_000;
+  /**
+   * Default size in milliseconds of the departure time buckets of the route
+   * cache.
+   */
+  static final int VALUE_ROUTE_CACHE_BUCKET = 60_000;
+  /**
+   * Default maximal amount of responses held by the route cache,
+   * <code>0</code> disables caching.
+   */
+  static final int VALUE_ROUTE_CACHE_SIZE = 10_000;
+  /**
+   * Default time in milliseconds a response stays in the route cache.
+   */
+  static final int VALUE_ROUTE_CACHE_TIME_TO_LIVE = 600_000;
+  /**
+   * Default time in milliseconds a routing request may take before its
+   * computation is stopped.
+   */
+  static final int VALUE_ROUTING_DEADLINE = 10_000;
   /**
    * The default mode to use for the routing model.
    */
   static final String VALUE_ROUTING_MODEL_MODE = "GRAPH_WITH_TIMETABLE";
   /**
-   * Default port to use by the routing server.
+   * Default amount of routing requests that may wait for a free routing thread.
+   */
+  static final int VALUE_ROUTING_QUEUE_CAPACITY = 64;
+  /**
+   * Default amount of threads that answer routing requests, <code>0</code>
+   * uses one thread per available processor.
+   */
+  static final int VALUE_ROUTING_THREADS = 0;
+  /**
+   * Default amount of name and nearest search requests that may wait for a free
+   * search thread.
    */
-  static final int VALUE_ROUTING_SERVER_PORT = 2845;
+  static final int VALUE_SEARCH_QUEUE_CAPACITY = 256;
+  /**
+   * Default amount of threads that answer name and nearest search requests.
+   */
+  static final int VALUE_SEARCH_THREADS = 2;
+  /**
+   * Default port to use by the server offering the REST APIs.
+   */
+  static final int VALUE_SERVER_PORT = 2845;
+  /**
+   * Default path to the stop to road node cache.
+   */
+  static final Path VALUE_STOP_TO_ROAD_NODE_CACHE = Paths.get("res", "cache", "graph", "stopToRoadNode.bin");
   /**
    * Default amount in seconds a transfer at the same stop takes.
    */
   static final int VALUE_TRANSFER_DELAY = 180;
+  /**
+   * Default path to the trip transfer cache.
+   */
+  static final Path VALUE_TRIP_TRANSFERS_CACHE = Paths.get("res", "cache", "graph", "tripTransfers.bin");
+  /**
+   * Whether or not contraction hierarchies should be used for road-only
+   * routing.
+   */
+  static final boolean VALUE_USE_CONTRACTION_HIERARCHIES = true;
   /**
    * Whether an external or an internal in-memory database should be used.
    */
@@ -195,6 +332,16 @@ final class ConfigUtil {
    * Whether or not the graph cache should be used.
    */
   static final boolean VALUE_USE_GRAPH_CACHE = true;
+  /**
+   * Whether or not independent phases of hybrid queries should be computed
+   * concurrently.
+   */
+  static final boolean VALUE_USE_PARALLEL_HYBRID_QUERIES = true;
+  /**
+   * Whether or not the paths between road nodes and nearby stops should be
+   * precomputed.
+   */
+  static final boolean VALUE_USE_STOP_REACH_TABLES = true;
 
   /**
    * Utility class. No implementation.
@@ -14,11 +14,4 @@ public interface INameSearchConfigProvider {
    * @return The maximal amount of matches to send
    */
   int getMatchLimit();
-
-  /**
-   * Gets the port used by the name search server.
-   *
-   * @return The port used by the name search server
-   */
-  int getNameSearchServerPort();
 }
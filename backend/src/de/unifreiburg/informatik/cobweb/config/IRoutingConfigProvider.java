@@ -28,6 +28,15 @@ public interface IRoutingConfigProvider {
    */
   int getAccessNodesMaximum();
 
+  /**
+   * Gets the amount of active landmarks to select per query for the landmark
+   * heuristic. Only the active landmarks are evaluated during a query.
+   *
+   * @return The amount of active landmarks, <code>0</code> if all landmarks
+   *         are used
+   */
+  int getAmountOfActiveLandmarks();
+
   /**
    * Gets the amount of landmarks to use for the landmark heuristic.
    *
@@ -60,6 +69,14 @@ public interface IRoutingConfigProvider {
    */
   Path getGraphCacheInfo();
 
+  /**
+   * Gets the path to the landmark cache. Is used to persist the distances of
+   * the landmark heuristic for the graph in the graph cache.
+   *
+   * @return The path to the landmark cache
+   */
+  Path getLandmarkCache();
+
   /**
    * Gets the path to the filter used to filter OSM roads.
    *
@@ -75,11 +92,13 @@ public interface IRoutingConfigProvider {
   ERoutingModelMode getRoutingModelMode();
 
   /**
-   * Gets the port used by the routing server.
+   * Gets the path to the stop to road node cache. Is used to persist the road
+   * nodes nearest to the stops of the timetable for the graph in the graph
+   * cache.
    *
-   * @return The port used by the routing server
+   * @return The path to the stop to road node cache
    */
-  int getRoutingServerPort();
+  Path getStopToRoadNodeCache();
 
   /**
    * Gets the amount in seconds a transfer at the same stop takes.
@@ -88,6 +107,24 @@ public interface IRoutingConfigProvider {
    */
   int getTransferDelay();
 
+  /**
+   * Gets the path to the trip transfer cache. Is used to persist the
+   * precomputed transfers between the trips of the timetable for trip-based
+   * routing.
+   *
+   * @return The path to the trip transfer cache
+   */
+  Path getTripTransfersCache();
+
+  /**
+   * Whether or not contraction hierarchies should be used for road-only
+   * routing.
+   *
+   * @return <code>True</code> if contraction hierarchies should be used,
+   *         <code>false</code> otherwise
+   */
+  boolean useContractionHierarchies();
+
   /**
    * Whether or not the graph cache should be used.
    *
@@ -95,4 +132,22 @@ public interface IRoutingConfigProvider {
    *         otherwise
    */
   boolean useGraphCache();
+
+  /**
+   * Whether or not independent phases of hybrid queries, like the paths to and
+   * from access nodes, should be computed concurrently.
+   *
+   * @return <code>True</code> if the phases should be computed concurrently,
+   *         <code>false</code> if sequentially
+   */
+  boolean useParallelHybridQueries();
+
+  /**
+   * Whether or not the walking paths between road nodes and nearby stops should
+   * be precomputed, such that hybrid queries only need to look them up.
+   *
+   * @return <code>True</code> if the paths should be precomputed,
+   *         <code>false</code> if they should be computed on every query
+   */
+  boolean useStopReachTables();
 }
@@ -0,0 +1,93 @@
+package de.unifreiburg.informatik.cobweb.config;
+
+/**
+ * Interface for classes that provide configuration settings of the server
+ * which offers the REST APIs.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public interface IServerConfigProvider {
+  /**
+   * Gets the time a batch of routing requests may take before its unanswered
+   * requests are given up.
+   *
+   * @return The time in milliseconds
+   */
+  int getRouteBatchDeadline();
+
+  /**
+   * Gets the maximal amount of routing requests in a batch.
+   *
+   * @return The maximal amount of requests in a batch
+   */
+  int getRouteBatchLimit();
+
+  /**
+   * Gets the size of the departure time buckets of the route cache. Requests
+   * departing in the same bucket share their response.
+   *
+   * @return The size of the buckets in milliseconds, must be positive
+   */
+  int getRouteCacheBucket();
+
+  /**
+   * Gets the maximal amount of responses held by the route cache.
+   *
+   * @return The maximal amount of responses, <code>0</code> disables caching
+   */
+  int getRouteCacheSize();
+
+  /**
+   * Gets the time a response stays in the route cache.
+   *
+   * @return The time in milliseconds
+   */
+  int getRouteCacheTimeToLive();
+
+  /**
+   * Gets the time a routing request may take before its computation is
+   * stopped.
+   *
+   * @return The time in milliseconds
+   */
+  int getRoutingDeadline();
+
+  /**
+   * Gets the amount of routing requests that may wait for a free routing
+   * thread before further requests are rejected.
+   *
+   * @return The capacity of the routing queue
+   */
+  int getRoutingQueueCapacity();
+
+  /**
+   * Gets the amount of threads that answer routing requests.
+   *
+   * @return The amount of routing threads
+   */
+  int getRoutingThreads();
+
+  /**
+   * Gets the amount of name and nearest search requests that may wait for a
+   * free search thread before further requests are rejected.
+   *
+   * @return The capacity of the search queue
+   */
+  int getSearchQueueCapacity();
+
+  /**
+   * Gets the amount of threads that answer name and nearest search requests.
+   * They run separate from the routing threads, such that searches do not
+   * queue behind routing requests.
+   *
+   * @return The amount of search threads
+   */
+  int getSearchThreads();
+
+  /**
+   * Gets the port used by the server which offers the REST APIs.
+   *
+   * @return The port used by the server
+   */
+  int getServerPort();
+}
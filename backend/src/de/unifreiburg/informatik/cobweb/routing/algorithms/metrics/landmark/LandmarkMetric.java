@@ -1,9 +1,20 @@
 package de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,17 +22,29 @@ import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.IMetric;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IShortestPathComputation;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IGraph;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.INode;
-import de.unifreiburg.informatik.cobweb.util.collections.NestedDoubleMap;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
 
 /**
  * Implements the a metric for nodes by using landmarks.<br>
  * <br>
  * Given two objects it approximates the distance by comparing shortest paths
  * from the objects to the landmarks. The distance depends on the underlying
- * distance model of the graph, i.e. the format used by the edge cost.
+ * distance model of the graph, i.e. the format used by the edge cost.<br>
+ * <br>
+ * The distances are stored in a compact {@link LandmarkTable} addressed by node
+ * index. If the graph is a {@link StaticRoadGraph} its node indices are used
+ * and the table can be persisted to a file, which is memory-mapped instead of
+ * recomputed on subsequent creations for the same graph.<br>
+ * <br>
+ * If an amount of active landmarks is set, only the landmarks selected by
+ * {@link #selectActiveLandmarks(Collection, INode)} are used for distances to
+ * the destination of the current query of a thread. This reduces the cost of
+ * evaluating the metric while keeping the benefit of a large set of landmarks.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  * @param <N> The type of the nodes and landmarks
@@ -34,19 +57,79 @@ public final class LandmarkMetric<N extends INode, E extends IEdge<N>, G extends
    */
   private static final Logger LOGGER = LoggerFactory.getLogger(LandmarkMetric.class);
   /**
-   * Landmarks to use for computing the metric.
+   * Index used to encode that a node is not contained in the graph.
    */
-  private Collection<N> mLandmarks;
+  private static final int NO_INDEX = -1;
+
   /**
-   * Nested map that connects landmarks to all other nodes and the corresponding
-   * shortest path distance.
+   * Attempts to read a landmark table from the given file.
+   *
+   * @param landmarkCache The file to read from
+   * @param fingerprint   The fingerprint of the graph the table must belong to
+   * @return The table or an empty optional if the file does not exist, could
+   *         not be read or belongs to a different graph
    */
-  private final NestedDoubleMap<N, N> mLandmarkToNodeDistance;
+  private static Optional<LandmarkTable> readTable(final Path landmarkCache, final long fingerprint) {
+    if (!Files.isRegularFile(landmarkCache)) {
+      return Optional.empty();
+    }
+    try {
+      final Optional<LandmarkTable> table = LandmarkTable.read(landmarkCache, fingerprint);
+      if (!table.isPresent()) {
+        LOGGER.info("Landmark cache is outdated, recomputing: {}", landmarkCache);
+      }
+      return table;
+    } catch (final IOException e) {
+      LOGGER.error("Error while reading landmark cache, recomputing", e);
+      return Optional.empty();
+    }
+  }
+
   /**
-   * Nested map that connects all nodes to the landmarks and the corresponding
-   * shortest path distance.
+   * Attempts to write the given landmark table to the given file. Errors are
+   * logged, the table stays usable.
+   *
+   * @param table         The table to write
+   * @param landmarkCache The file to write to
+   * @param fingerprint   The fingerprint of the graph the table belongs to
    */
-  private final NestedDoubleMap<N, N> mNodeToLandmarkDistance;
+  private static void writeTable(final LandmarkTable table, final Path landmarkCache, final long fingerprint) {
+    LOGGER.info("Writing landmark cache: {}", landmarkCache);
+    try {
+      final Path parent = landmarkCache.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      table.write(landmarkCache, fingerprint);
+    } catch (final IOException e) {
+      LOGGER.error("Error while writing landmark cache", e);
+    }
+  }
+
+  /**
+   * The landmarks selected for the current query of each thread.
+   */
+  private final ThreadLocal<ActiveLandmarks> mActiveLandmarks;
+  /**
+   * The amount of landmarks to select per query, <code>0</code> if all
+   * landmarks are used.
+   */
+  private int mAmountOfActiveLandmarks;
+  /**
+   * Table connecting nodes to their index, or <code>null</code> if the indices
+   * of {@link #mStaticGraph} are used.
+   */
+  private final MutableObjectIntMap<N> mNodeToIndex;
+  /**
+   * The graph the metric is defined on if it is a {@link StaticRoadGraph},
+   * <code>null</code> otherwise.
+   */
+  private final StaticRoadGraph mStaticGraph;
+  /**
+   * Table with the shortest path distances between the landmarks and all
+   * nodes.
+   */
+  private final LandmarkTable mTable;
 
   /**
    * Creates a new landmark metric that uses the given amount of landmarks
@@ -64,40 +147,92 @@ public final class LandmarkMetric<N extends INode, E extends IEdge<N>, G extends
    * @param landmarkProvider The provider to use for generation of the landmarks
    */
   public LandmarkMetric(final int amount, final G graph, final ILandmarkProvider<N> landmarkProvider) {
-    // TODO Evaluate whether double can be exchanged by float for distances to
-    // optimize space
-    mLandmarkToNodeDistance = new NestedDoubleMap<>(amount);
-    mNodeToLandmarkDistance = new NestedDoubleMap<>(graph.size());
-    mNodeToLandmarkDistance.setNestedInitialCapacity(amount);
+    this(amount, graph, landmarkProvider, null);
+  }
 
-    initialize(amount, graph, landmarkProvider, new Dijkstra<>(graph));
+  /**
+   * Creates a new landmark metric that uses the given amount of landmarks
+   * produced by the given provider and persists its distances to the given
+   * file.<br>
+   * <br>
+   * If the file contains distances computed for the same graph and amount of
+   * landmarks before, they are memory-mapped and the landmark provider is not
+   * used. Otherwise the distances are computed and written to the file. The
+   * file is only used if the graph is a {@link StaticRoadGraph}, its content is
+   * bound to the node indices of the graph.
+   *
+   * @param amount           The amount of landmarks to use
+   * @param graph            The graph to define the metric on
+   * @param landmarkProvider The provider to use for generation of the landmarks
+   * @param landmarkCache    The file to persist the distances to, or
+   *                         <code>null</code> if they should not be persisted
+   */
+  public LandmarkMetric(final int amount, final G graph, final ILandmarkProvider<N> landmarkProvider,
+      final Path landmarkCache) {
+    mActiveLandmarks = ThreadLocal.withInitial(ActiveLandmarks::new);
+    if (graph instanceof StaticRoadGraph) {
+      mStaticGraph = (StaticRoadGraph) graph;
+      mNodeToIndex = null;
+    } else {
+      mStaticGraph = null;
+      mNodeToIndex = new ObjectIntHashMap<>(graph.size());
+      for (final N node : graph.getNodes()) {
+        mNodeToIndex.put(node, mNodeToIndex.size());
+      }
+    }
+
+    if (landmarkCache == null || mStaticGraph == null) {
+      mTable = computeTable(amount, graph, landmarkProvider);
+      return;
+    }
+
+    final long fingerprint = mStaticGraph.getFingerprint();
+    final int expectedAmount = Math.max(0, Math.min(amount, graph.size()));
+    final Optional<LandmarkTable> cachedTable = LandmarkMetric.readTable(landmarkCache, fingerprint);
+    if (cachedTable.isPresent() && cachedTable.get().getAmountOfLandmarks() == expectedAmount) {
+      LOGGER.info("Using landmark cache: {}", landmarkCache);
+      mTable = cachedTable.get();
+      return;
+    }
+
+    mTable = computeTable(amount, graph, landmarkProvider);
+    LandmarkMetric.writeTable(mTable, landmarkCache, fingerprint);
   }
 
   /**
    * Approximates the distance between the given two nodes by comparing shortest
    * paths from the nodes to the landmarks. The distance depends on the
    * underlying distance model of the graph, i.e. the format used by the edge
-   * cost.
+   * cost.<br>
+   * <br>
+   * If the current thread selected active landmarks for the second node, only
+   * those are compared.
    */
   @Override
   public double distance(final N first, final N second) {
+    final int firstIndex = getIndexOfNode(first);
+    final int secondIndex = getIndexOfNode(second);
+    if (firstIndex == NO_INDEX || secondIndex == NO_INDEX) {
+      return 0.0;
+    }
+
     double greatestDistance = 0.0;
-    for (final N landmark : mLandmarks) {
-      // Ignore the landmark if anyone can not reach it
-      if (!mNodeToLandmarkDistance.contains(first, landmark) || !mNodeToLandmarkDistance.contains(second, landmark)
-          || !mLandmarkToNodeDistance.contains(landmark, second)
-          || !mLandmarkToNodeDistance.contains(landmark, first)) {
-        continue;
+    if (mAmountOfActiveLandmarks > 0) {
+      final ActiveLandmarks activeLandmarks = mActiveLandmarks.get();
+      if (activeLandmarks.mDestinationIndex == secondIndex) {
+        for (int i = 0; i < activeLandmarks.mAmount; i++) {
+          final double distance = getLowerBound(activeLandmarks.mLandmarks[i], firstIndex, secondIndex);
+          if (distance > greatestDistance) {
+            greatestDistance = distance;
+          }
+        }
+        return greatestDistance;
       }
+    }
 
-      final double firstToLandmark = mNodeToLandmarkDistance.get(first, landmark);
-      final double secondToLandmark = mNodeToLandmarkDistance.get(second, landmark);
-      final double landmarkToSecond = mLandmarkToNodeDistance.get(landmark, second);
-      final double landmarkToFirst = mLandmarkToNodeDistance.get(landmark, first);
-
-      final double landmarkBehindDestination = firstToLandmark - secondToLandmark;
-      final double landmarkBeforeSource = landmarkToSecond - landmarkToFirst;
-      final double distance = Math.max(landmarkBehindDestination, landmarkBeforeSource);
+    final int amountOfLandmarks = mTable.getAmountOfLandmarks();
+    for (int landmark = 0; landmark < amountOfLandmarks; landmark++) {
+      final double distance = getLowerBound(landmark, firstIndex, secondIndex);
       if (distance > greatestDistance) {
         greatestDistance = distance;
       }
@@ -107,48 +242,222 @@ public final class LandmarkMetric<N extends INode, E extends IEdge<N>, G extends
   }
 
   /**
-   * Initializes this metric. It generates landmarks using the given provider
-   * and computes shortest path distances from the landmarks to all nodes and
-   * vice versa.<br>
+   * Selects the active landmarks for a query of the current thread from the
+   * given sources to the given destination.<br>
    * <br>
-   * Depending on the size of the graph and the amount of landmarks this method
-   * may take a while.
+   * The landmarks giving the greatest lower bounds for the distance between
+   * any source and the destination are selected. Afterwards
+   * {@link #distance(INode, INode)} only uses the selected landmarks for
+   * distances to the destination, when called from the current thread. The
+   * selection stays fixed until the next call, which keeps the metric monotone
+   * during a query. Does nothing if no amount of active landmarks is set.
+   *
+   * @param sources     The sources of the query
+   * @param destination The destination of the query
+   */
+  public void selectActiveLandmarks(final Collection<N> sources, final N destination) {
+    final int amountOfLandmarks = mTable.getAmountOfLandmarks();
+    if (mAmountOfActiveLandmarks <= 0 || mAmountOfActiveLandmarks >= amountOfLandmarks) {
+      return;
+    }
+    final ActiveLandmarks activeLandmarks = mActiveLandmarks.get();
+    activeLandmarks.mDestinationIndex = NO_INDEX;
+    final int destinationIndex = getIndexOfNode(destination);
+    if (destinationIndex == NO_INDEX) {
+      return;
+    }
+
+    // Compute the bound of each landmark, for the best source
+    if (activeLandmarks.mBounds.length < amountOfLandmarks) {
+      activeLandmarks.mBounds = new double[amountOfLandmarks];
+      activeLandmarks.mLandmarks = new int[amountOfLandmarks];
+    }
+    final double[] bounds = activeLandmarks.mBounds;
+    Arrays.fill(bounds, 0, amountOfLandmarks, 0.0);
+    for (final N source : sources) {
+      final int sourceIndex = getIndexOfNode(source);
+      if (sourceIndex == NO_INDEX) {
+        continue;
+      }
+      for (int landmark = 0; landmark < amountOfLandmarks; landmark++) {
+        bounds[landmark] = Math.max(bounds[landmark], getLowerBound(landmark, sourceIndex, destinationIndex));
+      }
+    }
+
+    // Select the landmarks with the greatest bounds, the amount is small
+    for (int i = 0; i < mAmountOfActiveLandmarks; i++) {
+      int bestLandmark = 0;
+      for (int landmark = 1; landmark < amountOfLandmarks; landmark++) {
+        if (bounds[landmark] > bounds[bestLandmark]) {
+          bestLandmark = landmark;
+        }
+      }
+      activeLandmarks.mLandmarks[i] = bestLandmark;
+      bounds[bestLandmark] = Double.NEGATIVE_INFINITY;
+    }
+    activeLandmarks.mAmount = mAmountOfActiveLandmarks;
+    activeLandmarks.mDestinationIndex = destinationIndex;
+  }
+
+  /**
+   * Sets the amount of active landmarks to select per query using
+   * {@link #selectActiveLandmarks(Collection, INode)}. Must not be changed
+   * while queries are running.
+   *
+   * @param amountOfActiveLandmarks The amount of active landmarks, <code>0</code>
+   *                                if all landmarks should be used
+   */
+  public void setAmountOfActiveLandmarks(final int amountOfActiveLandmarks) {
+    mAmountOfActiveLandmarks = amountOfActiveLandmarks;
+  }
+
+  /**
+   * Computes the landmark table. It generates landmarks using the given
+   * provider and computes shortest path distances from the landmarks to all
+   * nodes and vice versa.<br>
+   * <br>
+   * The shortest path computations of all landmarks and both directions run in
+   * parallel, each writing its own slots of the table. Distances to the
+   * landmarks are computed on a {@link ReversedGraph} view, the graph itself is
+   * not reversed. Depending on the size of the graph and the amount of
+   * landmarks this method may take a while.
    *
    * @param amount           The amount of landmarks to generate
    * @param graph            The graph to operate on
    * @param landmarkProvider The provider to use to generate landmarks
-   * @param computation      The algorithm to use for computing shortest paths
+   * @return The computed table
    */
-  private void initialize(final int amount, final G graph, final ILandmarkProvider<N> landmarkProvider,
-      final IShortestPathComputation<N, E> computation) {
-    if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("Computing landmarks");
-    }
-    mLandmarks = landmarkProvider.getLandmarks(amount);
+  private LandmarkTable computeTable(final int amount, final G graph, final ILandmarkProvider<N> landmarkProvider) {
+    final Instant start = Instant.now();
+    final Collection<N> landmarks = landmarkProvider.getLandmarks(amount);
+    final int amountOfLandmarks = landmarks.size();
+    final int amountOfNodes = graph.size();
 
-    // Compute distances from landmarks to all other nodes
+    // Fail instead of silently overflowing for tables that do not fit an array
+    final int tableSize = Math.multiplyExact(amountOfNodes, amountOfLandmarks);
+    final float[] landmarkToNode = new float[tableSize];
+    final float[] nodeToLandmark = new float[tableSize];
+    Arrays.fill(landmarkToNode, Float.POSITIVE_INFINITY);
+    Arrays.fill(nodeToLandmark, Float.POSITIVE_INFINITY);
+
+    // Compute distances from landmarks to all other nodes and from all nodes to
+    // landmarks
     if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("Computing distances from {} landmarks to {} nodes", mLandmarks.size(), graph.size());
+      LOGGER.debug("Computing distances between {} landmarks and {} nodes", amountOfLandmarks, amountOfNodes);
+    }
+    final IShortestPathComputation<N, E> forwardComputation = new Dijkstra<>(graph);
+    final IShortestPathComputation<N, E> backwardComputation = new Dijkstra<>(new ReversedGraph<>(graph));
+    final int[] landmarkIndices = new int[amountOfLandmarks];
+    final List<Runnable> tasks = new ArrayList<>(2 * amountOfLandmarks);
+    int landmarkIndex = 0;
+    for (final N landmark : landmarks) {
+      landmarkIndices[landmarkIndex] = getIndexOfNode(landmark);
+      final int column = landmarkIndex;
+      tasks.add(
+          () -> computeLandmarkDistances(forwardComputation, landmark, column, amountOfLandmarks, landmarkToNode));
+      tasks.add(
+          () -> computeLandmarkDistances(backwardComputation, landmark, column, amountOfLandmarks, nodeToLandmark));
+      landmarkIndex++;
     }
-    for (final N landmark : mLandmarks) {
-      final Map<N, ? extends IHasPathCost> nodeToDistance = computation.computeShortestPathCostsReachable(landmark);
-      mLandmarkToNodeDistance.setNestedInitialCapacity(nodeToDistance.size());
-      for (final Entry<N, ? extends IHasPathCost> entry : nodeToDistance.entrySet()) {
-        mLandmarkToNodeDistance.put(landmark, entry.getKey(), entry.getValue().getPathCost());
+    tasks.parallelStream().forEach(Runnable::run);
+
+    final Instant end = Instant.now();
+    LOGGER.info("Landmark distances took: {}", Duration.between(start, end));
+    return new LandmarkTable(landmarkIndices, amountOfNodes, LandmarkTable.wrapTable(landmarkToNode),
+        LandmarkTable.wrapTable(nodeToLandmark));
+  }
+
+  /**
+   * Computes the shortest path distances from the given landmark to all nodes
+   * or from all nodes to the given landmark and stores them in the given
+   * table. Can be called concurrently for different landmarks since each
+   * landmark only writes its own slots.
+   *
+   * @param computation       The algorithm to use for computing shortest paths,
+   *                          operating on the reversed graph if distances to
+   *                          the landmark are computed
+   * @param landmark          The landmark
+   * @param landmarkIndex     The index of the landmark
+   * @param amountOfLandmarks The amount of landmarks
+   * @param distances         The table to store the distances in, indexed by
+   *                          <code>node * amountOfLandmarks + landmark</code>
+   */
+  private void computeLandmarkDistances(final IShortestPathComputation<N, E> computation, final N landmark,
+      final int landmarkIndex, final int amountOfLandmarks, final float[] distances) {
+    final Map<N, ? extends IHasPathCost> nodeToDistance = computation.computeShortestPathCostsReachable(landmark);
+    for (final Entry<N, ? extends IHasPathCost> entry : nodeToDistance.entrySet()) {
+      final int nodeIndex = getIndexOfNode(entry.getKey());
+      if (nodeIndex == NO_INDEX) {
+        continue;
       }
+      distances[nodeIndex * amountOfLandmarks + landmarkIndex] = (float) entry.getValue().getPathCost();
     }
+  }
 
-    // Compute distances from all nodes to landmarks
-    if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("Computing distances from {} nodes to {} landmarks", graph.size(), mLandmarks.size());
+  /**
+   * Gets the lower bound for the distance between the given nodes given by
+   * the given landmark, using the triangle inequality.
+   *
+   * @param landmark    The index of the landmark
+   * @param firstIndex  The index of the first node
+   * @param secondIndex The index of the second node
+   * @return The lower bound, <code>0.0</code> if any of the nodes and the
+   *         landmark are not connected
+   */
+  private double getLowerBound(final int landmark, final int firstIndex, final int secondIndex) {
+    final float firstToLandmark = mTable.getNodeToLandmark(firstIndex, landmark);
+    final float secondToLandmark = mTable.getNodeToLandmark(secondIndex, landmark);
+    final float landmarkToSecond = mTable.getLandmarkToNode(landmark, secondIndex);
+    final float landmarkToFirst = mTable.getLandmarkToNode(landmark, firstIndex);
+
+    // Ignore the landmark if anyone can not reach it
+    if (firstToLandmark == Float.POSITIVE_INFINITY || secondToLandmark == Float.POSITIVE_INFINITY
+        || landmarkToSecond == Float.POSITIVE_INFINITY || landmarkToFirst == Float.POSITIVE_INFINITY) {
+      return 0.0;
     }
-    graph.reverse();
-    for (final N landmark : mLandmarks) {
-      final Map<N, ? extends IHasPathCost> nodeToDistance = computation.computeShortestPathCostsReachable(landmark);
-      for (final Entry<N, ? extends IHasPathCost> entry : nodeToDistance.entrySet()) {
-        mNodeToLandmarkDistance.put(entry.getKey(), landmark, entry.getValue().getPathCost());
-      }
+
+    final double landmarkBehindDestination = (double) firstToLandmark - secondToLandmark;
+    final double landmarkBeforeSource = (double) landmarkToSecond - landmarkToFirst;
+    return Math.max(landmarkBehindDestination, landmarkBeforeSource);
+  }
+
+  /**
+   * Gets the index of the given node in the landmark table.
+   *
+   * @param node The node in question
+   * @return The index of the node or {@link #NO_INDEX} if the graph does not
+   *         contain the node
+   */
+  private int getIndexOfNode(final N node) {
+    if (mStaticGraph != null) {
+      return mStaticGraph.getIndexOfNode((ICoreNode) node);
     }
-    graph.reverse();
+    return mNodeToIndex.getIfAbsent(node, NO_INDEX);
+  }
+
+  /**
+   * The landmarks selected for the current query of a thread.
+   *
+   * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+   */
+  private static final class ActiveLandmarks {
+    /**
+     * The amount of selected landmarks.
+     */
+    private int mAmount;
+    /**
+     * Buffer for the bounds of all landmarks, used during selection.
+     */
+    private double[] mBounds = new double[0];
+    /**
+     * The index of the destination the landmarks were selected for or
+     * {@link LandmarkMetric#NO_INDEX} if no landmarks are selected.
+     */
+    private int mDestinationIndex = NO_INDEX;
+    /**
+     * The indices of the selected landmarks, only the first {@link #mAmount}
+     * entries are valid.
+     */
+    private int[] mLandmarks = new int[0];
   }
 }
@@ -0,0 +1,327 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Compact table of the shortest path distances between landmarks and all nodes
+ * of a graph.<br>
+ * <br>
+ * Nodes and landmarks are addressed by dense indices. Distances are stored as
+ * <code>float</code> in two tables, one for distances from the landmarks to the
+ * nodes and one for distances from the nodes to the landmarks. Both tables are
+ * laid out node by node, i.e. the distances of one node to all landmarks are
+ * adjacent, which is the access pattern of {@link LandmarkMetric}.
+ * {@link Float#POSITIVE_INFINITY} encodes that the node and the landmark are not
+ * connected.<br>
+ * <br>
+ * Tables can be written to a versioned binary file using
+ * {@link #write(Path, long)}. A written file is loaded by
+ * {@link #read(Path, long)} which memory-maps it instead of copying it to the
+ * heap. Since a single mapping is limited to 2 GB, the tables are held in
+ * chunks of {@link #CHUNK_FLOATS} distances and indexed by <code>long</code>.
+ * The table is immutable after creation and can be read concurrently.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+final class LandmarkTable {
+  /**
+   * The amount of distances per chunk of a table, a power of two.
+   */
+  private static final int CHUNK_FLOATS = 1 << 28;
+  /**
+   * Mask that extracts the position within its chunk from a table index.
+   */
+  private static final long CHUNK_MASK = CHUNK_FLOATS - 1;
+  /**
+   * The amount of bits to shift a table index by to get its chunk.
+   */
+  private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_FLOATS);
+  /**
+   * The amount of bytes of the file header. Magic number, version, fingerprint,
+   * amount of nodes and amount of landmarks.
+   */
+  private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+  /**
+   * The magic number identifying landmark table files.
+   */
+  private static final int MAGIC = 0x4C4D4B54;
+  /**
+   * The amount of bytes to buffer when writing a table to a file.
+   */
+  private static final int WRITE_BUFFER_BYTES = 1 << 16;
+  /**
+   * The version of the file format. Increase on incompatible changes.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Writes the content of the given buffer to the given channel and clears the
+   * buffer afterwards.
+   *
+   * @param buffer  The buffer to write, ready for writing into it
+   * @param channel The channel to write to
+   * @throws IOException If an I/O exception occurred while writing
+   */
+  private static void flush(final ByteBuffer buffer, final FileChannel channel) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Gets the distance at the given index of the given table.
+   *
+   * @param table The chunks of the table
+   * @param index The index of the distance in the table
+   * @return The distance
+   */
+  private static float get(final FloatBuffer[] table, final long index) {
+    return table[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+  }
+
+  /**
+   * Maps a table of the given size from the given file position in chunks of
+   * {@link #CHUNK_FLOATS} distances.
+   *
+   * @param channel   The channel of the file to map
+   * @param position  The position of the table in the file
+   * @param tableSize The amount of distances of the table
+   * @return The chunks of the mapped table
+   * @throws IOException If an I/O exception occurred while mapping the file
+   */
+  private static FloatBuffer[] mapTable(final FileChannel channel, final long position, final long tableSize)
+      throws IOException {
+    final FloatBuffer[] chunks = new FloatBuffer[(int) ((tableSize + CHUNK_FLOATS - 1) >>> CHUNK_SHIFT)];
+    for (int i = 0; i < chunks.length; i++) {
+      final long chunkStart = (long) i << CHUNK_SHIFT;
+      final long chunkSize = Math.min(CHUNK_FLOATS, tableSize - chunkStart);
+      chunks[i] = channel.map(MapMode.READ_ONLY, position + chunkStart * Float.BYTES, chunkSize * Float.BYTES)
+          .asFloatBuffer();
+    }
+    return chunks;
+  }
+
+  /**
+   * Reads a table from the given file written by {@link #write(Path, long)}.
+   * The distances are memory-mapped in chunks, not copied to the heap.
+   *
+   * @param path        The file to read from
+   * @param fingerprint The fingerprint of the graph the table must belong to
+   * @return The table or an empty optional if the file does not belong to the
+   *         given fingerprint or has an unknown format
+   * @throws IOException If an I/O exception occurred while reading the file or
+   *                     if its landmarks are too many to be mapped
+   */
+  static Optional<LandmarkTable> read(final Path path, final long fingerprint) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES) {
+        return Optional.empty();
+      }
+      final ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_BYTES);
+      if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getLong() != fingerprint) {
+        return Optional.empty();
+      }
+      final int amountOfNodes = header.getInt();
+      final int amountOfLandmarks = header.getInt();
+      final long landmarkBytes = (long) amountOfLandmarks * Integer.BYTES;
+      final long tableSize = (long) amountOfNodes * amountOfLandmarks;
+      final long expectedBytes = HEADER_BYTES + landmarkBytes + 2 * tableSize * Float.BYTES;
+      if (amountOfNodes < 0 || amountOfLandmarks < 0 || channel.size() != expectedBytes) {
+        return Optional.empty();
+      }
+      if (landmarkBytes > Integer.MAX_VALUE) {
+        throw new IOException("Too many landmarks to map: " + amountOfLandmarks);
+      }
+
+      final int[] landmarks = new int[amountOfLandmarks];
+      channel.map(MapMode.READ_ONLY, HEADER_BYTES, landmarkBytes).asIntBuffer().get(landmarks);
+      final long landmarkToNodePosition = HEADER_BYTES + landmarkBytes;
+      final FloatBuffer[] landmarkToNode = LandmarkTable.mapTable(channel, landmarkToNodePosition, tableSize);
+      final FloatBuffer[] nodeToLandmark =
+          LandmarkTable.mapTable(channel, landmarkToNodePosition + tableSize * Float.BYTES, tableSize);
+      return Optional.of(new LandmarkTable(landmarks, amountOfNodes, landmarkToNode, nodeToLandmark));
+    }
+  }
+
+  /**
+   * Wraps the given distances into a table of chunks with
+   * {@link #CHUNK_FLOATS} distances. The distances are not copied.
+   *
+   * @param distances The distances to wrap
+   * @return The chunks of the table
+   */
+  static FloatBuffer[] wrapTable(final float[] distances) {
+    final FloatBuffer[] chunks = new FloatBuffer[(int) (((long) distances.length + CHUNK_FLOATS - 1) >>> CHUNK_SHIFT)];
+    for (int i = 0; i < chunks.length; i++) {
+      final int chunkStart = i << CHUNK_SHIFT;
+      chunks[i] = FloatBuffer.wrap(distances, chunkStart, Math.min(CHUNK_FLOATS, distances.length - chunkStart))
+          .slice();
+    }
+    return chunks;
+  }
+
+  /**
+   * Writes the given table to the given channel.
+   *
+   * @param table   The chunks of the table to write
+   * @param buffer  The buffer to use for writing, empty and ready for writing
+   * @param channel The channel to write to
+   * @throws IOException If an I/O exception occurred while writing
+   */
+  private static void writeTable(final FloatBuffer[] table, final ByteBuffer buffer, final FileChannel channel)
+      throws IOException {
+    for (final FloatBuffer chunk : table) {
+      final int size = chunk.limit();
+      for (int i = 0; i < size; i++) {
+        if (buffer.remaining() < Float.BYTES) {
+          LandmarkTable.flush(buffer, channel);
+        }
+        buffer.putFloat(chunk.get(i));
+      }
+    }
+  }
+
+  /**
+   * The amount of landmarks.
+   */
+  private final int mAmountOfLandmarks;
+  /**
+   * The amount of nodes.
+   */
+  private final int mAmountOfNodes;
+  /**
+   * The chunks of the distances from the landmarks to the nodes, indexed by
+   * <code>node * amountOfLandmarks + landmark</code>.
+   */
+  private final FloatBuffer[] mLandmarkToNode;
+  /**
+   * The node indices of the landmarks, indexed by landmark index.
+   */
+  private final int[] mLandmarks;
+  /**
+   * The chunks of the distances from the nodes to the landmarks, indexed by
+   * <code>node * amountOfLandmarks + landmark</code>.
+   */
+  private final FloatBuffer[] mNodeToLandmark;
+
+  /**
+   * Creates a new table using the given data.
+   *
+   * @param landmarks      The node indices of the landmarks, indexed by
+   *                       landmark index
+   * @param amountOfNodes  The amount of nodes
+   * @param landmarkToNode The chunks of the distances from the landmarks to
+   *                       the nodes, indexed by <code>node *
+   *                       amountOfLandmarks + landmark</code>, see
+   *                       {@link #wrapTable(float[])}
+   * @param nodeToLandmark The chunks of the distances from the nodes to the
+   *                       landmarks, indexed by <code>node *
+   *                       amountOfLandmarks + landmark</code>, see
+   *                       {@link #wrapTable(float[])}
+   */
+  LandmarkTable(final int[] landmarks, final int amountOfNodes, final FloatBuffer[] landmarkToNode,
+      final FloatBuffer[] nodeToLandmark) {
+    mLandmarks = landmarks;
+    mAmountOfLandmarks = landmarks.length;
+    mAmountOfNodes = amountOfNodes;
+    mLandmarkToNode = landmarkToNode;
+    mNodeToLandmark = nodeToLandmark;
+  }
+
+  /**
+   * Gets the amount of landmarks.
+   *
+   * @return The amount of landmarks
+   */
+  int getAmountOfLandmarks() {
+    return mAmountOfLandmarks;
+  }
+
+  /**
+   * Gets the amount of nodes.
+   *
+   * @return The amount of nodes
+   */
+  int getAmountOfNodes() {
+    return mAmountOfNodes;
+  }
+
+  /**
+   * Gets the node index of the given landmark.
+   *
+   * @param landmark The index of the landmark
+   * @return The index of the node of the landmark
+   */
+  int getLandmark(final int landmark) {
+    return mLandmarks[landmark];
+  }
+
+  /**
+   * Gets the shortest path distance from the given landmark to the given node.
+   *
+   * @param landmark The index of the landmark
+   * @param node     The index of the node
+   * @return The distance or {@link Float#POSITIVE_INFINITY} if the node can not
+   *         be reached from the landmark
+   */
+  float getLandmarkToNode(final int landmark, final int node) {
+    return LandmarkTable.get(mLandmarkToNode, (long) node * mAmountOfLandmarks + landmark);
+  }
+
+  /**
+   * Gets the shortest path distance from the given node to the given landmark.
+   *
+   * @param node     The index of the node
+   * @param landmark The index of the landmark
+   * @return The distance or {@link Float#POSITIVE_INFINITY} if the landmark can
+   *         not be reached from the node
+   */
+  float getNodeToLandmark(final int node, final int landmark) {
+    return LandmarkTable.get(mNodeToLandmark, (long) node * mAmountOfLandmarks + landmark);
+  }
+
+  /**
+   * Writes this table to the given file in a versioned binary format, replacing
+   * the file if it exists. Tables already read from the file are not affected.
+   * Use {@link #read(Path, long)} to read it.
+   *
+   * @param path        The file to write to
+   * @param fingerprint The fingerprint of the graph the table belongs to
+   * @throws IOException If an I/O exception occurred while writing the file
+   */
+  void write(final Path path, final long fingerprint) throws IOException {
+    // Write to a temporary file first, a table mapped from the file must not
+    // observe the change
+    final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+      buffer.putInt(MAGIC);
+      buffer.putInt(VERSION);
+      buffer.putLong(fingerprint);
+      buffer.putInt(mAmountOfNodes);
+      buffer.putInt(mAmountOfLandmarks);
+      for (final int landmark : mLandmarks) {
+        if (buffer.remaining() < Integer.BYTES) {
+          LandmarkTable.flush(buffer, channel);
+        }
+        buffer.putInt(landmark);
+      }
+      LandmarkTable.writeTable(mLandmarkToNode, buffer, channel);
+      LandmarkTable.writeTable(mNodeToLandmark, buffer, channel);
+      LandmarkTable.flush(buffer, channel);
+    }
+    Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -2,14 +2,19 @@ package de.unifreiburg.informatik.cobweb.routing.algorithms.nearestneighbor;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.eclipse.collections.impl.block.factory.Comparators;
 import org.eclipse.collections.impl.list.mutable.FastList;
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
 
 import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.IMetric;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ISpatial;
@@ -26,7 +31,13 @@ import de.unifreiburg.informatik.cobweb.routing.model.graph.ISpatial;
  * </ul>
  * Modified version from
  * <a href="https://github.com/loehndorf/covertree">GitHub: Loehndorf -
- * CoverTree</a>.
+ * CoverTree</a>.<br>
+ * <br>
+ * The tree is thread-safe. Nearest neighbor queries using
+ * {@link #getNearestNeighbor(ISpatial)},
+ * {@link #getKNearestNeighbors(ISpatial, int)} and
+ * {@link #getNeighborhood(ISpatial, double)} do not modify the tree and can
+ * run concurrently, all other operations are exclusive.
  *
  * @author Nils Loehndorf
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
@@ -68,6 +79,11 @@ public final class CoverTree<E extends ISpatial> implements INearestNeighborComp
    * are respected.
    */
   private boolean mHasBounds;
+  /**
+   * Lock guarding the structure of the tree. Operations which modify nodes
+   * acquire the write lock.
+   */
+  private final ReadWriteLock mLock = new ReentrantReadWriteLock();
   /**
    * The maximal latitude, only effective if {@link #mHasBounds} is set to
    * <code>true</code>.
@@ -217,141 +233,189 @@ public final class CoverTree<E extends ISpatial> implements INearestNeighborComp
   }
 
   @Override
-  public synchronized Collection<E> getKNearestNeighbors(final E point, final int k) {
-    if (size() == 0 || k == 0) {
-      return Collections.emptyList();
-    }
+  public Collection<E> getKNearestNeighbors(final E point, final int k) {
+    mLock.readLock().lock();
+    try {
+      if (size() == 0 || k == 0) {
+        return Collections.emptyList();
+      }
+
+      final PriorityQueue<Double> minDists = new PriorityQueue<>(k, Comparators.reverseNaturalOrder());
 
-    final PriorityQueue<Double> minDists = new PriorityQueue<>(k, Comparators.reverseNaturalOrder());
-
-    final List<Node<E>> candidates = CoverTree.createList();
-    candidates.add(mRootNode);
-    mRootNode.setDistance(distance(mRootNode, point));
-    minDists.add(mRootNode.getDistance());
-    for (int level = mMaxLevel; level > mMinLevel; level--) {
-      final List<Node<E>> nextCandidates = CoverTree.createList();
-      for (final Node<E> candidate : candidates) {
-        for (final Node<E> child : candidate.getChildren()) {
-          // Do not compute distances twice
-          if (!areAtSameLocation(candidate, child)) {
-            child.setDistance(distance(child, point));
-            // Remember the element if not collected enough already or better
-            // than current greatest minimal distance
-            if (minDists.size() < k) {
-              minDists.add(child.getDistance());
-            } else if (child.getDistance() < minDists.peek()) {
-              // Throw away current greatest minimal distance to make place for
-              // the closer child
-              minDists.remove();
-              minDists.add(child.getDistance());
+      // Distances are kept local to the query, the tree is not modified
+      final List<Node<E>> candidates = CoverTree.createList();
+      final DoubleArrayList candidateDistances = new DoubleArrayList();
+      final double rootDistance = distance(mRootNode, point);
+      candidates.add(mRootNode);
+      candidateDistances.add(rootDistance);
+      minDists.add(rootDistance);
+      for (int level = mMaxLevel; level > mMinLevel; level--) {
+        final List<Node<E>> nextCandidates = CoverTree.createList();
+        final DoubleArrayList nextCandidateDistances = new DoubleArrayList();
+        for (int i = 0; i < candidates.size(); i++) {
+          final Node<E> candidate = candidates.get(i);
+          for (final Node<E> child : candidate.getChildren()) {
+            // Do not compute distances twice
+            final double childDistance;
+            if (!areAtSameLocation(candidate, child)) {
+              childDistance = distance(child, point);
+              // Remember the element if not collected enough already or better
+              // than current greatest minimal distance
+              if (minDists.size() < k) {
+                minDists.add(childDistance);
+              } else if (childDistance < minDists.peek()) {
+                // Throw away current greatest minimal distance to make place for
+                // the closer child
+                minDists.remove();
+                minDists.add(childDistance);
+              }
+            } else {
+              childDistance = candidateDistances.get(i);
             }
-          } else {
-            child.setDistance(candidate.getDistance());
+            nextCandidates.add(child);
+            nextCandidateDistances.add(childDistance);
           }
-          nextCandidates.add(child);
         }
-      }
 
-      candidates.clear();
+        candidates.clear();
+        candidateDistances.clear();
 
-      // Create a set of nearest neighbor candidates
-      final double greatestMinDist = minDists.peek();
-      for (final Node<E> nextCandidate : nextCandidates) {
-        if (nextCandidate.getDistance() < greatestMinDist + Math.pow(mBase, level)) {
-          candidates.add(nextCandidate);
+        // Create a set of nearest neighbor candidates
+        final double greatestMinDist = minDists.peek();
+        for (int i = 0; i < nextCandidates.size(); i++) {
+          final double nextCandidateDistance = nextCandidateDistances.get(i);
+          if (nextCandidateDistance < greatestMinDist + Math.pow(mBase, level)) {
+            candidates.add(nextCandidates.get(i));
+            candidateDistances.add(nextCandidateDistance);
+          }
         }
       }
-    }
 
-    // Check the remaining candidates and transform to the elements
-    final double greatestMinDist = minDists.peek();
-    return candidates.stream().filter(candidate -> candidate.getDistance() <= greatestMinDist).sorted()
-        .map(Node::getElement).collect(Collectors.toList());
+      // Check the remaining candidates and transform to the elements, ordered
+      // ascending in their distance
+      final double greatestMinDist = minDists.peek();
+      return IntStream.range(0, candidates.size()).filter(i -> candidateDistances.get(i) <= greatestMinDist)
+          .boxed().sorted(Comparator.comparingDouble(candidateDistances::get))
+          .map(i -> candidates.get(i).getElement()).collect(Collectors.toList());
+    } finally {
+      mLock.readLock().unlock();
+    }
   }
 
   @Override
-  public synchronized Optional<E> getNearestNeighbor(final E point) {
-    if (size() == 0) {
-      return Optional.empty();
-    }
+  public Optional<E> getNearestNeighbor(final E point) {
+    mLock.readLock().lock();
+    try {
+      if (size() == 0) {
+        return Optional.empty();
+      }
 
-    final List<Node<E>> candidates = CoverTree.createList();
-    candidates.add(mRootNode);
-    double minDist = distance(mRootNode, point);
-    mRootNode.setDistance(minDist);
-    for (int level = mMaxLevel; level > mMinLevel; level--) {
-      final List<Node<E>> nextCandidates = CoverTree.createList();
-      for (final Node<E> candidate : candidates) {
-        for (final Node<E> child : candidate.getChildren()) {
-          // Do not compute distances twice
-          if (!areAtSameLocation(candidate, child)) {
-            child.setDistance(distance(child, point));
-            // The minimum distance can be recorded here
-            if (child.getDistance() < minDist) {
-              minDist = child.getDistance();
+      // Distances are kept local to the query, the tree is not modified
+      final List<Node<E>> candidates = CoverTree.createList();
+      final DoubleArrayList candidateDistances = new DoubleArrayList();
+      double minDist = distance(mRootNode, point);
+      candidates.add(mRootNode);
+      candidateDistances.add(minDist);
+      for (int level = mMaxLevel; level > mMinLevel; level--) {
+        final List<Node<E>> nextCandidates = CoverTree.createList();
+        final DoubleArrayList nextCandidateDistances = new DoubleArrayList();
+        for (int i = 0; i < candidates.size(); i++) {
+          final Node<E> candidate = candidates.get(i);
+          for (final Node<E> child : candidate.getChildren()) {
+            // Do not compute distances twice
+            final double childDistance;
+            if (!areAtSameLocation(candidate, child)) {
+              childDistance = distance(child, point);
+              // The minimum distance can be recorded here
+              if (childDistance < minDist) {
+                minDist = childDistance;
+              }
+            } else {
+              childDistance = candidateDistances.get(i);
             }
-          } else {
-            child.setDistance(candidate.getDistance());
+            nextCandidates.add(child);
+            nextCandidateDistances.add(childDistance);
           }
-          nextCandidates.add(child);
         }
-      }
 
-      candidates.clear();
+        candidates.clear();
+        candidateDistances.clear();
 
-      // Create a set of nearest neighbor candidates
-      for (final Node<E> nextCandidate : nextCandidates) {
-        if (nextCandidate.getDistance() < minDist + Math.pow(mBase, level)) {
-          candidates.add(nextCandidate);
+        // Create a set of nearest neighbor candidates
+        for (int i = 0; i < nextCandidates.size(); i++) {
+          final double nextCandidateDistance = nextCandidateDistances.get(i);
+          if (nextCandidateDistance < minDist + Math.pow(mBase, level)) {
+            candidates.add(nextCandidates.get(i));
+            candidateDistances.add(nextCandidateDistance);
+          }
         }
       }
-    }
 
-    for (final Node<E> candidate : candidates) {
-      if (candidate.getDistance() == minDist) {
-        return Optional.of(candidate.getElement());
+      for (int i = 0; i < candidates.size(); i++) {
+        if (candidateDistances.get(i) == minDist) {
+          return Optional.of(candidates.get(i).getElement());
+        }
       }
-    }
 
-    return Optional.empty();
+      return Optional.empty();
+    } finally {
+      mLock.readLock().unlock();
+    }
   }
 
   @Override
-  public synchronized Collection<E> getNeighborhood(final E point, final double range) {
-    if (size() == 0) {
-      return Collections.emptyList();
-    }
+  public Collection<E> getNeighborhood(final E point, final double range) {
+    mLock.readLock().lock();
+    try {
+      if (size() == 0) {
+        return Collections.emptyList();
+      }
 
-    final List<Node<E>> candidates = CoverTree.createList();
-    candidates.add(mRootNode);
-    mRootNode.setDistance(distance(mRootNode, point));
-    for (int level = mMaxLevel; level > mMinLevel; level--) {
-      final List<Node<E>> nextCandidates = CoverTree.createList();
-      for (final Node<E> candidate : candidates) {
-        for (final Node<E> child : candidate.getChildren()) {
-          // Do not compute distances twice
-          if (!areAtSameLocation(candidate, child)) {
-            child.setDistance(distance(child, point));
-          } else {
-            child.setDistance(candidate.getDistance());
+      // Distances are kept local to the query, the tree is not modified
+      final List<Node<E>> candidates = CoverTree.createList();
+      final DoubleArrayList candidateDistances = new DoubleArrayList();
+      candidates.add(mRootNode);
+      candidateDistances.add(distance(mRootNode, point));
+      for (int level = mMaxLevel; level > mMinLevel; level--) {
+        final List<Node<E>> nextCandidates = CoverTree.createList();
+        final DoubleArrayList nextCandidateDistances = new DoubleArrayList();
+        for (int i = 0; i < candidates.size(); i++) {
+          final Node<E> candidate = candidates.get(i);
+          for (final Node<E> child : candidate.getChildren()) {
+            // Do not compute distances twice
+            if (!areAtSameLocation(candidate, child)) {
+              nextCandidateDistances.add(distance(child, point));
+            } else {
+              nextCandidateDistances.add(candidateDistances.get(i));
+            }
+            nextCandidates.add(child);
           }
-          nextCandidates.add(child);
         }
-      }
 
-      candidates.clear();
+        candidates.clear();
+        candidateDistances.clear();
 
-      // Create a set of nearest neighbor candidates
-      for (final Node<E> nextCandidate : nextCandidates) {
-        if (nextCandidate.getDistance() < range + Math.pow(mBase, level)) {
-          candidates.add(nextCandidate);
+        // Create a set of nearest neighbor candidates
+        for (int i = 0; i < nextCandidates.size(); i++) {
+          final double nextCandidateDistance = nextCandidateDistances.get(i);
+          if (nextCandidateDistance < range + Math.pow(mBase, level)) {
+            candidates.add(nextCandidates.get(i));
+            candidateDistances.add(nextCandidateDistance);
+          }
         }
       }
-    }
 
-    // Check the remaining candidates and transform to the elements
-    return candidates.stream().filter(candidate -> candidate.getDistance() <= range).map(Node::getElement)
-        .collect(Collectors.toList());
+      // Check the remaining candidates and transform to the elements
+      final List<E> neighborhood = CoverTree.createList();
+      for (int i = 0; i < candidates.size(); i++) {
+        if (candidateDistances.get(i) <= range) {
+          neighborhood.add(candidates.get(i).getElement());
+        }
+      }
+      return neighborhood;
+    } finally {
+      mLock.readLock().unlock();
+    }
   }
 
   /**
@@ -360,109 +424,114 @@ public final class CoverTree<E extends ISpatial> implements INearestNeighborComp
    * @param element The element to insert
    * @return If the element was inserted
    */
-  public synchronized boolean insert(final E element) {
-    if (mHasBounds) {
-      // Elements outside of the bounding box will not be added to the tree
-      final float latitude = element.getLatitude();
-      final float longitude = element.getLongitude();
-      if (latitude > mMaxLat || latitude < mMinLat || longitude > mMaxLong || longitude < mMinLong) {
-        return false;
+  public boolean insert(final E element) {
+    mLock.writeLock().lock();
+    try {
+      if (mHasBounds) {
+        // Elements outside of the bounding box will not be added to the tree
+        final float latitude = element.getLatitude();
+        final float longitude = element.getLongitude();
+        if (latitude > mMaxLat || latitude < mMinLat || longitude > mMaxLong || longitude < mMinLong) {
+          return false;
+        }
       }
-    }
 
-    // If this is the first node make it the root node
-    if (mRootNode == null) {
-      mRootNode = new Node<>(null, element);
-      incNodes(mMaxLevel);
-      return true;
-    }
+      // If this is the first node make it the root node
+      if (mRootNode == null) {
+        mRootNode = new Node<>(null, element);
+        incNodes(mMaxLevel);
+        return true;
+      }
 
-    // Do not add if the new node is identical to the root node
-    mRootNode.setDistance(distance(mRootNode, element));
-    if (mRootNode.getDistance() == 0.0) {
-      return false;
-    }
+      // Do not add if the new node is identical to the root node
+      mRootNode.setDistance(distance(mRootNode, element));
+      if (mRootNode.getDistance() == 0.0) {
+        return false;
+      }
 
-    // If the node lies outside the cover of the root node and its descendants
-    // then insert the node above the root node
-    if (mRootNode.getDistance() > Math.pow(mBase, mMaxLevel + 1)) {
-      insertAtRoot(element);
-      return true;
-    }
+      // If the node lies outside the cover of the root node and its descendants
+      // then insert the node above the root node
+      if (mRootNode.getDistance() > Math.pow(mBase, mMaxLevel + 1)) {
+        insertAtRoot(element);
+        return true;
+      }
 
-    // Usually insertion begins here
-    List<Node<E>> coverset = CoverTree.createList();
-    // The initial cover-set contains only the root node
-    coverset.add(mRootNode);
-    int level = mMaxLevel;
-    // The root node does not have a parent
-    Node<E> parent = null;
-    int parentLevel = mMaxLevel;
-    while (true) {
-      boolean parentFound = true;
-      final List<Node<E>> candidates = CoverTree.createList();
-      for (final Node<E> node : coverset) {
-        for (final Node<E> child : node.getChildren()) {
-          if (!areAtSameLocation(node, child)) {
-            // Do not compute distance twice
-            child.setDistance(distance(child, element));
-            // Do not add if node is already contained in the tree
-            if (child.getDistance() == 0.0) {
-              return false;
+      // Usually insertion begins here
+      List<Node<E>> coverset = CoverTree.createList();
+      // The initial cover-set contains only the root node
+      coverset.add(mRootNode);
+      int level = mMaxLevel;
+      // The root node does not have a parent
+      Node<E> parent = null;
+      int parentLevel = mMaxLevel;
+      while (true) {
+        boolean parentFound = true;
+        final List<Node<E>> candidates = CoverTree.createList();
+        for (final Node<E> node : coverset) {
+          for (final Node<E> child : node.getChildren()) {
+            if (!areAtSameLocation(node, child)) {
+              // Do not compute distance twice
+              child.setDistance(distance(child, element));
+              // Do not add if node is already contained in the tree
+              if (child.getDistance() == 0.0) {
+                return false;
+              }
+            } else {
+              child.setDistance(node.getDistance());
+            }
+
+            if (child.getDistance() < Math.pow(mBase, level)) {
+              candidates.add(child);
+              parentFound = false;
             }
-          } else {
-            child.setDistance(node.getDistance());
           }
+        }
 
-          if (child.getDistance() < Math.pow(mBase, level)) {
-            candidates.add(child);
-            parentFound = false;
+        // If the children of the cover-set are further away the 2^level then an
+        // element of the cover-set is the parent of the new node
+        if (parentFound) {
+          break;
+        }
+
+        // Select one node of the cover-set as the parent of the node
+        for (final Node<E> node : coverset) {
+          if (node.getDistance() < Math.pow(mBase, level)) {
+            parent = node;
+            parentLevel = level;
+            break;
           }
         }
+        // Set all nodes as the new cover-set
+        level--;
+        coverset = candidates;
       }
 
-      // If the children of the cover-set are further away the 2^level then an
-      // element of the cover-set is the parent of the new node
-      if (parentFound) {
-        break;
+      // If the point is a sibling of the root node, then the cover of the root
+      // node is increased
+      if (parent == null) {
+        insertAtRoot(element);
+        return true;
       }
 
-      // Select one node of the cover-set as the parent of the node
-      for (final Node<E> node : coverset) {
-        if (node.getDistance() < Math.pow(mBase, level)) {
-          parent = node;
-          parentLevel = level;
-          break;
+      if (parentLevel - 1 < mMinLevel) {
+        // If the maximum size is reached and this would only increase the depth
+        // of the tree then stop
+        if (parentLevel - 1 < mMaxMinLevel) {
+          return false;
         }
+        mMinLevel = parentLevel - 1;
       }
-      // Set all nodes as the new cover-set
-      level--;
-      coverset = candidates;
-    }
 
-    // If the point is a sibling of the root node, then the cover of the root
-    // node is increased
-    if (parent == null) {
-      insertAtRoot(element);
+      // Otherwise add child to the tree
+      final Node<E> newNode = new Node<>(parent, element);
+      parent.addChild(newNode);
+      // Record distance to parent node and add to the sorted set of nodes where
+      // distance is used for sorting (needed for removal)
+      incNodes(parentLevel - 1);
       return true;
+    } finally {
+      mLock.writeLock().unlock();
     }
-
-    if (parentLevel - 1 < mMinLevel) {
-      // If the maximum size is reached and this would only increase the depth
-      // of the tree then stop
-      if (parentLevel - 1 < mMaxMinLevel) {
-        return false;
-      }
-      mMinLevel = parentLevel - 1;
-    }
-
-    // Otherwise add child to the tree
-    final Node<E> newNode = new Node<>(parent, element);
-    parent.addChild(newNode);
-    // Record distance to parent node and add to the sorted set of nodes where
-    // distance is used for sorting (needed for removal)
-    incNodes(parentLevel - 1);
-    return true;
   }
 
   /**
@@ -476,22 +545,27 @@ public final class CoverTree<E extends ISpatial> implements INearestNeighborComp
    * @return If the element was added
    */
   public boolean insert(final E element, final int level) {
-    final boolean inserted = insert(element);
-    // only do this if there are more than two levels
-    if (mMaxLevel - mMinLevel > 2) {
-      // remove lowest cover if the cover before has a sufficient number of
-      // nodes
-      if (size(mMinLevel + 1) >= level) {
-        removeLowestCover();
-        // do not accept new nodes at the minimum level
-        mMaxMinLevel = mMinLevel + 1;
-      }
-      // remove redundant nodes from the minimum level
-      if (size(mMinLevel) >= 2 * level) {
-        removeNodes(level);
+    mLock.writeLock().lock();
+    try {
+      final boolean inserted = insert(element);
+      // only do this if there are more than two levels
+      if (mMaxLevel - mMinLevel > 2) {
+        // remove lowest cover if the cover before has a sufficient number of
+        // nodes
+        if (size(mMinLevel + 1) >= level) {
+          removeLowestCover();
+          // do not accept new nodes at the minimum level
+          mMaxMinLevel = mMinLevel + 1;
+        }
+        // remove redundant nodes from the minimum level
+        if (size(mMinLevel) >= 2 * level) {
+          removeNodes(level);
+        }
       }
+      return inserted;
+    } finally {
+      mLock.writeLock().unlock();
     }
-    return inserted;
   }
 
   /**
@@ -702,76 +776,81 @@ public final class CoverTree<E extends ISpatial> implements INearestNeighborComp
    * @param numCenters The amount of elements to keep
    * @return The cover-set
    */
-  private synchronized List<Node<E>> removeNodes(final int numCenters) {
-    List<Node<E>> coverset = CoverTree.createList();
-    coverset.add(mRootNode);
-    for (int level = mMaxLevel; level > mMinLevel + 1; level--) {
-      final List<Node<E>> nextCoverset = CoverTree.createList();
-      for (final Node<E> node : coverset) {
-        nextCoverset.addAll(node.getChildren());
+  private List<Node<E>> removeNodes(final int numCenters) {
+    mLock.writeLock().lock();
+    try {
+      List<Node<E>> coverset = CoverTree.createList();
+      coverset.add(mRootNode);
+      for (int level = mMaxLevel; level > mMinLevel + 1; level--) {
+        final List<Node<E>> nextCoverset = CoverTree.createList();
+        for (final Node<E> node : coverset) {
+          nextCoverset.addAll(node.getChildren());
+        }
+        coverset = nextCoverset;
       }
-      coverset = nextCoverset;
-    }
 
-    final int missing = numCenters - coverset.size();
-    if (missing < 0) {
-      throw new AssertionError("Negative missing=" + missing + " in coverset");
-    }
-
-    // Successively pick the node with the largest distance to the cover-set and
-    // add it to the cover-set
-    final LinkedList<Node<E>> candidates = new LinkedList<>();
-    for (final Node<E> node : coverset) {
-      for (final Node<E> child : node.getChildren()) {
-        if (!areAtSameLocation(node, child)) {
-          candidates.add(child);
-        }
+      final int missing = numCenters - coverset.size();
+      if (missing < 0) {
+        throw new AssertionError("Negative missing=" + missing + " in coverset");
       }
-    }
 
-    // Only add candidates when the cover-set is yet smaller then the number of
-    // desired centers
-    if (coverset.size() < numCenters) {
-      // Compute the distance of all candidates to their parents and uncles
-      for (final Node<E> node : candidates) {
-        double minDist = Double.POSITIVE_INFINITY;
-        for (final Node<E> uncle : node.getParent().getParent().getChildren()) {
-          final double dist = distance(node, uncle);
-          if (dist < minDist) {
-            minDist = dist;
+      // Successively pick the node with the largest distance to the cover-set and
+      // add it to the cover-set
+      final LinkedList<Node<E>> candidates = new LinkedList<>();
+      for (final Node<E> node : coverset) {
+        for (final Node<E> child : node.getChildren()) {
+          if (!areAtSameLocation(node, child)) {
+            candidates.add(child);
           }
         }
-        node.setDistance(minDist);
-        if (minDist == Double.POSITIVE_INFINITY) {
-          throw new AssertionError("Infinite distance in k centers computation");
-        }
       }
 
-      do {
-        Collections.sort(candidates);
-        final Node<E> nextNode = candidates.removeLast();
-        coverset.add(nextNode);
-        // Update the distance of all candidates in the neighborhood of
-        // the new node
-        for (final Node<E> uncle : nextNode.getParent().getParent().getChildren()) {
-          if (uncle != nextNode) {
-            final double dist = distance(nextNode, uncle);
-            if (dist < nextNode.getDistance()) {
-              nextNode.setDistance(dist);
+      // Only add candidates when the cover-set is yet smaller then the number of
+      // desired centers
+      if (coverset.size() < numCenters) {
+        // Compute the distance of all candidates to their parents and uncles
+        for (final Node<E> node : candidates) {
+          double minDist = Double.POSITIVE_INFINITY;
+          for (final Node<E> uncle : node.getParent().getParent().getChildren()) {
+            final double dist = distance(node, uncle);
+            if (dist < minDist) {
+              minDist = dist;
             }
           }
+          node.setDistance(minDist);
+          if (minDist == Double.POSITIVE_INFINITY) {
+            throw new AssertionError("Infinite distance in k centers computation");
+          }
         }
-      } while (coverset.size() < numCenters);
-    }
 
-    // Finally remove all nodes that have not been selected from the tree to
-    // avoid confusing the nearest neighbor computation
-    for (final Node<E> node : candidates) {
-      node.getParent().removeChild(node);
-      decNodes(mMinLevel);
-    }
+        do {
+          Collections.sort(candidates);
+          final Node<E> nextNode = candidates.removeLast();
+          coverset.add(nextNode);
+          // Update the distance of all candidates in the neighborhood of
+          // the new node
+          for (final Node<E> uncle : nextNode.getParent().getParent().getChildren()) {
+            if (uncle != nextNode) {
+              final double dist = distance(nextNode, uncle);
+              if (dist < nextNode.getDistance()) {
+                nextNode.setDistance(dist);
+              }
+            }
+          }
+        } while (coverset.size() < numCenters);
+      }
+
+      // Finally remove all nodes that have not been selected from the tree to
+      // avoid confusing the nearest neighbor computation
+      for (final Node<E> node : candidates) {
+        node.getParent().removeChild(node);
+        decNodes(mMinLevel);
+      }
 
-    return coverset;
+      return coverset;
+    } finally {
+      mLock.writeLock().unlock();
+    }
   }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
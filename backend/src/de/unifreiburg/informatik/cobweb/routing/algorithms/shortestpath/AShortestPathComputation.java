@@ -2,6 +2,7 @@ package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -69,4 +70,25 @@ public abstract class AShortestPathComputation<N extends INode, E extends IEdge<
     return computeShortestPathCostsReachable(Collections.singletonList(source));
   }
 
+  /**
+   * Computes the shortest paths from the given sources to each of the given
+   * destinations.<br>
+   * <br>
+   * The base implementation computes one shortest path per destination using
+   * {@link #computeShortestPath(Collection, INode)}. Implementations are
+   * allowed to override this method in order to settle all destinations in a
+   * single search.
+   */
+  @Override
+  public Map<N, IPath<N, E>> computeShortestPaths(final Collection<N> sources, final Collection<N> destinations) {
+    final Map<N, IPath<N, E>> destinationToPath = new HashMap<>(destinations.size());
+    for (final N destination : destinations) {
+      if (destinationToPath.containsKey(destination)) {
+        continue;
+      }
+      computeShortestPath(sources, destination).ifPresent(path -> destinationToPath.put(destination, path));
+    }
+    return destinationToPath;
+  }
+
 }
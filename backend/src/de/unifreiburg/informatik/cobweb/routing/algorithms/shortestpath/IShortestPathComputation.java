@@ -111,4 +111,19 @@ public interface IShortestPathComputation<N extends INode, E extends IEdge<N>> {
    *         shortest path
    */
   Map<N, ? extends IHasPathCost> computeShortestPathCostsReachable(N source);
+
+  /**
+   * Computes the shortest paths from the given sources to each of the given
+   * destinations.<br>
+   * <br>
+   * The shortest path from multiple sources is the minimal shortest path for
+   * all source nodes individually. Implementations may settle all destinations
+   * in a single search.
+   *
+   * @param sources      The sources to compute the shortest paths from
+   * @param destinations The destinations to compute the shortest paths to
+   * @return A map which connects the reachable destinations to their shortest
+   *         path
+   */
+  Map<N, IPath<N, E>> computeShortestPaths(Collection<N> sources, Collection<N> destinations);
 }
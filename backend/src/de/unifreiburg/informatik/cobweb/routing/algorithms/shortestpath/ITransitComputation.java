@@ -0,0 +1,37 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+
+/**
+ * Interface for algorithms that are able to compute shortest paths on transit
+ * data. Nodes are stops at a given time, identified by the ID of the stop.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public interface ITransitComputation extends IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> {
+  /**
+   * Computes the shortest path from the given sources to the best of the given
+   * destinations, in a single search. A destination is best if the arrival
+   * time at it plus its egress duration is minimal.<br>
+   * <br>
+   * Each source starts at its own time, the times of further sources are
+   * interpreted to be not before the time of the first source.
+   *
+   * @param sources                     The sources to start from, must not be
+   *                                    empty and must have a time
+   * @param destinationToEgressDuration Map connecting the destinations to the
+   *                                    duration, in seconds, needed after
+   *                                    arriving at them
+   * @return The shortest path from a source to the best destination, or an
+   *         empty optional if no destination is reachable. The path does not
+   *         contain the egress duration.
+   */
+  Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(Collection<ICoreNode> sources,
+      Map<ICoreNode, Integer> destinationToEgressDuration);
+}
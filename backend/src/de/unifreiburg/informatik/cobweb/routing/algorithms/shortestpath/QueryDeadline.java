@@ -0,0 +1,114 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Utility class which bounds the time a query may take. The deadline is bound
+ * to the thread executing the query.<br>
+ * <br>
+ * Long running loops of shortest path computations check the deadline every
+ * {@link #CHECK_INTERVAL} iterations and stop early once it has expired. The
+ * results computed so far are then incomplete, a query should thus check
+ * {@link #isExpired()} after computation and discard them if so.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class QueryDeadline {
+  /**
+   * The amount of iterations after which long running loops check the deadline.
+   * Must be a power of two.
+   */
+  public static final int CHECK_INTERVAL = 1 << 10;
+  /**
+   * Value indicating that the current thread has no deadline.
+   */
+  public static final long NO_DEADLINE = Long.MAX_VALUE;
+  /**
+   * The deadline of the query executed by the current thread, in nanoseconds as
+   * given by {@link System#nanoTime()}.
+   */
+  private static final ThreadLocal<long[]> DEADLINE = ThreadLocal.withInitial(() -> new long[] { NO_DEADLINE });
+
+  /**
+   * Binds the deadline of the current thread to the given phase of a query. The
+   * resulting supplier executes the phase with the deadline bound to the thread
+   * executing it, for example a thread of an executor.
+   *
+   * @param       <T> The type of the result of the phase
+   * @param phase The phase to bind the deadline to
+   * @return A supplier executing the phase with the deadline of the current
+   *         thread
+   */
+  public static <T> Supplier<T> bind(final Supplier<T> phase) {
+    final long deadline = QueryDeadline.getDeadline();
+    if (deadline == NO_DEADLINE) {
+      return phase;
+    }
+    return () -> {
+      final long previousDeadline = QueryDeadline.getDeadline();
+      QueryDeadline.setDeadline(deadline);
+      try {
+        return phase.get();
+      } finally {
+        QueryDeadline.setDeadline(previousDeadline);
+      }
+    };
+  }
+
+  /**
+   * Removes the deadline of the current thread.
+   */
+  public static void clear() {
+    QueryDeadline.setDeadline(NO_DEADLINE);
+  }
+
+  /**
+   * Gets the deadline of the current thread.
+   *
+   * @return The deadline in nanoseconds as given by {@link System#nanoTime()} or
+   *         {@link #NO_DEADLINE} if the thread has none
+   */
+  public static long getDeadline() {
+    return DEADLINE.get()[0];
+  }
+
+  /**
+   * Whether the deadline of the current thread has expired.
+   *
+   * @return <code>True</code> if the deadline has expired, <code>false</code> if
+   *         not or if the thread has no deadline
+   */
+  public static boolean isExpired() {
+    final long deadline = QueryDeadline.getDeadline();
+    return deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0;
+  }
+
+  /**
+   * Sets the deadline of the current thread.
+   *
+   * @param deadline The deadline in nanoseconds as given by
+   *                 {@link System#nanoTime()} or {@link #NO_DEADLINE} to remove
+   *                 it
+   */
+  public static void setDeadline(final long deadline) {
+    DEADLINE.get()[0] = deadline;
+  }
+
+  /**
+   * Sets the deadline of the current thread to expire after the given timeout,
+   * starting now.
+   *
+   * @param timeout The timeout in milliseconds, must not be negative
+   */
+  public static void start(final long timeout) {
+    QueryDeadline.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+  }
+
+  /**
+   * Utility class. No implementation.
+   */
+  private QueryDeadline() {
+
+  }
+}
@@ -1,6 +1,24 @@
 package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.AsTheCrowFliesMetric;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.IMetric;
@@ -8,7 +26,11 @@ import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark.ILan
 import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark.LandmarkMetric;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark.RandomLandmarks;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.nearestneighbor.INearestNeighborComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch.ContractionHierarchy;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch.ContractionHierarchyQuery;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScan;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ProfileConnectionScan;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.BidirectionalAlt;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.AStarModule;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.AbortAfterModule;
@@ -17,11 +39,20 @@ import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.TransitModule;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.HybridRoadTimetable;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.IAccessNodeComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.StopReachTable;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor.Raptor;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor.RaptorTimetable;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.timedependent.TimeDependentDijkstra;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased.TripBasedRouting;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased.TripTransfers;
 import de.unifreiburg.informatik.cobweb.routing.model.ERoutingModelMode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TimeDependentGraph;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
 
 /**
@@ -33,6 +64,89 @@ import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
 public final class ShortestPathComputationFactory {
+  /**
+   * The road transportation modes to create contraction hierarchies for.
+   */
+  private static final ETransportationMode[] HIERARCHY_MODES =
+      { ETransportationMode.CAR, ETransportationMode.BIKE, ETransportationMode.FOOT };
+  /**
+   * Logger used for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(ShortestPathComputationFactory.class);
+  /**
+   * The road transportation modes to create stop reach tables for. Reach of
+   * faster modes within the same travel time grows too large to be tabulated.
+   */
+  private static final ETransportationMode[] REACH_TABLE_MODES = { ETransportationMode.FOOT };
+
+  /**
+   * Creates the contraction hierarchies of the given graph for all road
+   * transportation modes in parallel.
+   *
+   * @param graph The graph to contract
+   * @return The contraction hierarchies per road transportation mode
+   */
+  private static Map<ETransportationMode, ContractionHierarchy> createHierarchies(final StaticRoadGraph graph) {
+    final Instant hierarchyStart = Instant.now();
+    final Map<ETransportationMode, ContractionHierarchy> hierarchies = Arrays.stream(HIERARCHY_MODES).parallel()
+        .collect(Collectors.toMap(Function.identity(), mode -> ContractionHierarchy.of(graph, mode),
+            (first, second) -> first, () -> new EnumMap<>(ETransportationMode.class)));
+    final Instant hierarchyEnd = Instant.now();
+    LOGGER.info("Contraction hierarchies took: {}", Duration.between(hierarchyStart, hierarchyEnd));
+    return hierarchies;
+  }
+
+  /**
+   * Creates the route based layout of the given timetable used by RAPTOR.
+   *
+   * @param table The timetable to create the layout of
+   * @return The created layout
+   */
+  private static RaptorTimetable createRaptorTimetable(final Timetable table) {
+    final Instant layoutStart = Instant.now();
+    final RaptorTimetable raptorTable = RaptorTimetable.of(table.freeze());
+    final Instant layoutEnd = Instant.now();
+    LOGGER.info("RAPTOR timetable took: {}, {}", Duration.between(layoutStart, layoutEnd), raptorTable);
+    return raptorTable;
+  }
+
+  /**
+   * Creates the time-dependent graph of the given timetable.
+   *
+   * @param table The timetable to create the graph of
+   * @return The created graph
+   */
+  private static TimeDependentGraph createTimeDependentGraph(final Timetable table) {
+    final Instant graphStart = Instant.now();
+    final TimeDependentGraph graph = TimeDependentGraph.of(table.freeze());
+    final Instant graphEnd = Instant.now();
+    LOGGER.info("Time-dependent graph took: {}, {}", Duration.between(graphStart, graphEnd), graph);
+    return graph;
+  }
+
+  /**
+   * Creates the stop reach tables of the given graph and the timetable of this
+   * factory for all road transportation modes in {@link #REACH_TABLE_MODES}.
+   * The tables are bounded by the travel time to access nodes.
+   *
+   * @param graph The graph containing the road nodes
+   * @return The stop reach tables per road transportation mode
+   */
+  private Map<ETransportationMode, StopReachTable> createReachTables(final StaticRoadGraph graph) {
+    final Instant reachStart = Instant.now();
+    final Map<ETransportationMode, StopReachTable> reachTables = new EnumMap<>(ETransportationMode.class);
+    for (final ETransportationMode mode : REACH_TABLE_MODES) {
+      // The stops of a table are already processed in parallel
+      final StopReachTable reachTable =
+          StopReachTable.of(graph, mTable, mStopToNearestRoadNode, mode, mAbortTravelTimeToAccessNodes);
+      LOGGER.info("Stop reach table for {} has {} entries", mode, reachTable.getAmountOfEntries());
+      reachTables.put(mode, reachTable);
+    }
+    final Instant reachEnd = Instant.now();
+    LOGGER.info("Stop reach tables took: {}", Duration.between(reachStart, reachEnd));
+    return reachTables;
+  }
+
   /**
    * The travel time in seconds after which to abort shortest path computation
    * to access nodes.
@@ -42,6 +156,11 @@ public final class ShortestPathComputationFactory {
    * Object to use for computing access nodes. Or <code>null</code> if not used.
    */
   private final IAccessNodeComputation<ICoreNode, ICoreNode> mAccessNodeComputation;
+  /**
+   * The amount of active landmarks to select per query for the landmark
+   * heuristic, <code>0</code> if all landmarks are used.
+   */
+  private final int mAmountOfActiveLandmarks;
   /**
    * The amount of landmarks to use for the landmark heuristic.
    */
@@ -54,6 +173,16 @@ public final class ShortestPathComputationFactory {
    * The graph to route on.
    */
   private final IGraph<ICoreNode, ICoreEdge<ICoreNode>> mGraph;
+  /**
+   * The contraction hierarchies of the graph per road transportation mode.
+   * Empty if contraction hierarchies are not used.
+   */
+  private Map<ETransportationMode, ContractionHierarchy> mHierarchies;
+  /**
+   * The file to persist the distances of the landmark heuristic to, or
+   * <code>null</code> if they are not persisted.
+   */
+  private final Path mLandmarkCache;
   /**
    * The metric to use for the {@link AStarModule} module.
    */
@@ -63,21 +192,64 @@ public final class ShortestPathComputationFactory {
    * choose.
    */
   private final ERoutingModelMode mMode;
+  /**
+   * The route based layout of the timetable used by RAPTOR, or
+   * <code>null</code> if not created yet. Created lazily on first use.
+   */
+  private RaptorTimetable mRaptorTimetable;
+  /**
+   * The precomputed paths between road nodes and nearby stops per road
+   * transportation mode. Empty if stop reach tables are not used.
+   */
+  private Map<ETransportationMode, StopReachTable> mReachTables;
   /**
    * Object to use for retrieving the nearest road node to a given stop, or
    * <code>null</code> if not used.
    */
   private final INearestNeighborComputation<ICoreNode> mStopToNearestRoadNode;
+  /**
+   * The shared work-stealing pool to compute independent phases of hybrid
+   * queries on, or <code>null</code> if they are computed sequentially.
+   * Released by {@link #shutdown()}.
+   */
+  private final ForkJoinPool mQueryPhasePool;
   /**
    * The timetable to use for transit data, or <code>null</code> if not used.
    */
   private final Timetable mTable;
+  /**
+   * The time-dependent graph of the timetable, or <code>null</code> if not
+   * used according to the mode.
+   */
+  private TimeDependentGraph mTimeDependentGraph;
+  /**
+   * The precomputed transfers between the trips of the timetable used by
+   * trip-based routing, or <code>null</code> if not created yet. Created
+   * lazily on first use.
+   */
+  private TripTransfers mTripTransfers;
+  /**
+   * The file to persist the transfers between the trips of the timetable to,
+   * or <code>null</code> if they should not be persisted.
+   */
+  private final Path mTripTransfersCache;
+  /**
+   * Whether or not contraction hierarchies should be used for road-only
+   * routing.
+   */
+  private final boolean mUseContractionHierarchies;
+  /**
+   * Whether or not the paths between road nodes and nearby stops should be
+   * precomputed for hybrid routing.
+   */
+  private final boolean mUseStopReachTables;
 
   /**
    * Creates a new shortest path computation factory which generates algorithms
    * for the given graph.<br>
    * <br>
-   * Use {@link #initialize()} after creation.
+   * Use {@link #initialize()} after creation and {@link #shutdown()} when
+   * finished using the factory.
    *
    * @param graph                        The graph to route on
    * @param table                        The timetable to route on, or
@@ -93,11 +265,38 @@ public final class ShortestPathComputationFactory {
    *                                     access nodes
    * @param amountOfLandmarks            The amount of landmarks to use for the
    *                                     landmark heuristic
+   * @param amountOfActiveLandmarks      The amount of active landmarks to
+   *                                     select per query for the landmark
+   *                                     heuristic, <code>0</code> if all
+   *                                     landmarks should be used
+   * @param landmarkCache                The file to persist the distances of
+   *                                     the landmark heuristic to, or
+   *                                     <code>null</code> if they should not be
+   *                                     persisted
+   * @param tripTransfersCache           The file to persist the transfers
+   *                                     between the trips of the timetable
+   *                                     to, or <code>null</code> if they
+   *                                     should not be persisted
+   * @param useContractionHierarchies    Whether or not contraction hierarchies
+   *                                     should be used for road-only routing.
+   *                                     Only supported if the graph is a
+   *                                     {@link StaticRoadGraph}.
+   * @param useParallelHybridQueries     Whether or not independent phases of
+   *                                     hybrid queries should be computed
+   *                                     concurrently on a shared work-stealing
+   *                                     pool
+   * @param useStopReachTables           Whether or not the paths between road
+   *                                     nodes and nearby stops should be
+   *                                     precomputed for hybrid routing. Only
+   *                                     supported if the graph is a
+   *                                     {@link StaticRoadGraph}.
    */
   public ShortestPathComputationFactory(final IGraph<ICoreNode, ICoreEdge<ICoreNode>> graph, final Timetable table,
       final IAccessNodeComputation<ICoreNode, ICoreNode> accessNodeComputation,
       final INearestNeighborComputation<ICoreNode> stopToNearestRoadNode, final ERoutingModelMode mode,
-      final int abortTravelTimeToAccessNodes, final int amountOfLandmarks) {
+      final int abortTravelTimeToAccessNodes, final int amountOfLandmarks, final int amountOfActiveLandmarks,
+      final Path landmarkCache, final Path tripTransfersCache, final boolean useContractionHierarchies,
+      final boolean useParallelHybridQueries, final boolean useStopReachTables) {
     mGraph = graph;
     mTable = table;
     mAccessNodeComputation = accessNodeComputation;
@@ -105,6 +304,18 @@ public final class ShortestPathComputationFactory {
     mMode = mode;
     mAbortTravelTimeToAccessNodes = abortTravelTimeToAccessNodes;
     mAmountOfLandmarks = amountOfLandmarks;
+    mAmountOfActiveLandmarks = amountOfActiveLandmarks;
+    mLandmarkCache = landmarkCache;
+    mTripTransfersCache = tripTransfersCache;
+    mUseContractionHierarchies = useContractionHierarchies;
+    mUseStopReachTables = useStopReachTables;
+    mHierarchies = Collections.emptyMap();
+    mReachTables = Collections.emptyMap();
+    if (useParallelHybridQueries && mode != ERoutingModelMode.LINK_GRAPH) {
+      mQueryPhasePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    } else {
+      mQueryPhasePool = null;
+    }
   }
 
   /**
@@ -134,6 +345,7 @@ public final class ShortestPathComputationFactory {
       final Set<ETransportationMode> modes) {
     switch (mMode) {
       case GRAPH_WITH_TIMETABLE:
+      case TIME_DEPENDENT_GRAPH:
         return createAlgorithmHybridRoadTimetable(depTime, modes);
       case LINK_GRAPH:
         return createAlgorithmLinkGraph(depTime, modes);
@@ -163,6 +375,33 @@ public final class ShortestPathComputationFactory {
     return ModuleDijkstra.of(mGraph, AStarModule.of(metric));
   }
 
+  /**
+   * Creates an instance of the bidirectional ALT algorithm, which searches from
+   * source and destination simultaneously using the landmarks heuristic.
+   *
+   * @return The created algorithm
+   */
+  public IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> createAlgorithmBidirectionalAlt() {
+    return new BidirectionalAlt<>(mGraph, mMetric);
+  }
+
+  /**
+   * Creates an instance of a bidirectional query on the contraction hierarchy
+   * of the given road transportation mode.
+   *
+   * @param mode The road transportation mode
+   * @return The created algorithm or <code>null</code> if there is no
+   *         hierarchy for the given mode
+   */
+  public IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>>
+      createAlgorithmContractionHierarchy(final ETransportationMode mode) {
+    final ContractionHierarchy hierarchy = mHierarchies.get(mode);
+    if (hierarchy == null) {
+      return null;
+    }
+    return new ContractionHierarchyQuery((StaticRoadGraph) mGraph, hierarchy);
+  }
+
   /**
    * Creates an instance of Connection Scan algorithm.
    *
@@ -183,18 +422,55 @@ public final class ShortestPathComputationFactory {
 
   /**
    * Creates an instance of an algorithm for a hybrid approach connecting road
-   * and timetable models.
+   * and timetable models. Transit is routed by the time-dependent Dijkstra if
+   * the mode is {@link ERoutingModelMode#TIME_DEPENDENT_GRAPH}, else by the
+   * Connection Scan algorithm.
    *
    * @param depTime The departure time in milliseconds since epoch
    * @param modes   The transportation mode restrictions
    * @return The created algorithm
    */
-  public IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>>
-      createAlgorithmHybridRoadTimetable(final long depTime, final Set<ETransportationMode> modes) {
-    return new HybridRoadTimetable(ModuleDijkstra.of(mGraph, AStarModule.of(mMetric), MultiModalModule.of(modes)),
-        ModuleDijkstra.of(mGraph, AStarModule.of(mMetric), AbortAfterModule.of(mAbortTravelTimeToAccessNodes),
+  public HybridRoadTimetable createAlgorithmHybridRoadTimetable(final long depTime,
+      final Set<ETransportationMode> modes) {
+    // Use the contraction hierarchy for routing purely on the road if the
+    // modes reduce to a single road mode
+    IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> roadComputation = null;
+    final Set<ETransportationMode> roadModes = modes.stream().filter(mHierarchies::containsKey)
+        .collect(Collectors.toCollection(() -> EnumSet.noneOf(ETransportationMode.class)));
+    if (roadModes.size() == 1) {
+      roadComputation = createAlgorithmContractionHierarchy(roadModes.iterator().next());
+    }
+    if (roadComputation == null) {
+      roadComputation = ModuleDijkstra.of(mGraph, AStarModule.of(mMetric), MultiModalModule.of(modes));
+    }
+
+    // Use the reach table for paths to and from access nodes if the modes
+    // reduce to a single road mode apart from transit
+    StopReachTable reachTable = null;
+    final Set<ETransportationMode> accessModes = modes.stream().filter(mode -> mode != ETransportationMode.TRAM)
+        .collect(Collectors.toCollection(() -> EnumSet.noneOf(ETransportationMode.class)));
+    if (accessModes.size() == 1) {
+      reachTable = mReachTables.get(accessModes.iterator().next());
+    }
+
+    // Transit only uses the connections running at the date of departure
+    final LocalDate date = LocalDateTime.ofInstant(Instant.ofEpochMilli(depTime), ZoneId.systemDefault()).toLocalDate();
+
+    final ITransitComputation transitComputation;
+    if (mTimeDependentGraph != null) {
+      transitComputation = new TimeDependentDijkstra(mTable, mTimeDependentGraph, date);
+    } else {
+      transitComputation = new ConnectionScan(mTable, date);
+    }
+
+    // Access nodes are settled by one-to-many searches, which have no single
+    // goal to direct to
+    return new HybridRoadTimetable(roadComputation,
+        ModuleDijkstra.of(mGraph, AbortAfterModule.of(mAbortTravelTimeToAccessNodes), MultiModalModule.of(modes)),
+        ModuleDijkstra.of(new ReversedGraph<>(mGraph), AbortAfterModule.of(mAbortTravelTimeToAccessNodes),
             MultiModalModule.of(modes)),
-        new ConnectionScan(mTable), mAccessNodeComputation, mStopToNearestRoadNode, modes, depTime);
+        transitComputation, new ProfileConnectionScan(mTable, date), mAccessNodeComputation,
+        mStopToNearestRoadNode, reachTable, modes, depTime, mQueryPhasePool);
   }
 
   /**
@@ -209,6 +485,16 @@ public final class ShortestPathComputationFactory {
     return ModuleDijkstra.of(mGraph, AStarModule.of(mMetric), TransitModule.of(depTime), MultiModalModule.of(modes));
   }
 
+  /**
+   * Creates an instance of the profile Connection Scan algorithm, which
+   * computes departure time profiles for ranges of departure times.
+   *
+   * @return The created algorithm
+   */
+  public ProfileConnectionScan createAlgorithmProfileCsa() {
+    return new ProfileConnectionScan(mTable);
+  }
+
   /**
    * Creates an instance of a time-dependent ALT algorithm.
    *
@@ -219,6 +505,46 @@ public final class ShortestPathComputationFactory {
     return ModuleDijkstra.of(mGraph, AStarModule.of(mMetric), TransitModule.of(depTime));
   }
 
+  /**
+   * Creates an instance of the round-based RAPTOR algorithm on the timetable.
+   * The route based layout of the timetable is created on first use and
+   * shared by all instances.
+   *
+   * @return The created algorithm
+   */
+  public IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> createAlgorithmRaptor() {
+    return new Raptor(mTable, getRaptorTimetable());
+  }
+
+  /**
+   * Creates an instance of the time-dependent Dijkstra algorithm on the
+   * time-dependent graph of the timetable. Only available if the mode is
+   * {@link ERoutingModelMode#TIME_DEPENDENT_GRAPH}.
+   *
+   * @return The created algorithm
+   * @throws IllegalStateException If the time-dependent graph was not built,
+   *                               since the mode is a different one
+   */
+  public IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> createAlgorithmTimeDependentDijkstra()
+      throws IllegalStateException {
+    if (mTimeDependentGraph == null) {
+      throw new IllegalStateException("The time-dependent graph is only built in the mode "
+          + ERoutingModelMode.TIME_DEPENDENT_GRAPH + ", but the mode is: " + mMode);
+    }
+    return new TimeDependentDijkstra(mTable, mTimeDependentGraph);
+  }
+
+  /**
+   * Creates an instance of the trip-based routing algorithm on the timetable.
+   * The transfers between the trips are precomputed on first use, or read from
+   * the cache, and shared by all instances.
+   *
+   * @return The created algorithm
+   */
+  public IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> createAlgorithmTripBased() {
+    return new TripBasedRouting(mTable, getTripTransfers());
+  }
+
   /**
    * Gets the access node computation used by this factory.
    *
@@ -241,11 +567,80 @@ public final class ShortestPathComputationFactory {
   }
 
   /**
-   * Initializes the factory. Must be used prior to usage.
+   * Initializes the factory. Must be used prior to usage.<br>
+   * <br>
+   * Contraction hierarchies, stop reach tables, the time-dependent graph and
+   * landmarks are computed concurrently, none of them modifies the graph.
    */
   public void initialize() {
+    final CompletableFuture<Map<ETransportationMode, ContractionHierarchy>> hierarchies;
+    if (mUseContractionHierarchies && mGraph instanceof StaticRoadGraph) {
+      hierarchies = CompletableFuture.supplyAsync(() -> createHierarchies((StaticRoadGraph) mGraph));
+    } else {
+      hierarchies = CompletableFuture.completedFuture(Collections.emptyMap());
+    }
+    final CompletableFuture<Map<ETransportationMode, StopReachTable>> reachTables;
+    if (mUseStopReachTables && mMode != ERoutingModelMode.LINK_GRAPH && mGraph instanceof StaticRoadGraph) {
+      reachTables = CompletableFuture.supplyAsync(() -> createReachTables((StaticRoadGraph) mGraph));
+    } else {
+      reachTables = CompletableFuture.completedFuture(Collections.emptyMap());
+    }
+    final CompletableFuture<TimeDependentGraph> timeDependentGraph;
+    if (mMode == ERoutingModelMode.TIME_DEPENDENT_GRAPH) {
+      timeDependentGraph = CompletableFuture.supplyAsync(() -> createTimeDependentGraph(mTable));
+    } else {
+      timeDependentGraph = CompletableFuture.completedFuture(null);
+    }
+
     final ILandmarkProvider<ICoreNode> landmarkProvider = new RandomLandmarks<>(mGraph);
-    mMetric = new LandmarkMetric<>(mAmountOfLandmarks, mGraph, landmarkProvider);
+    final LandmarkMetric<ICoreNode, ICoreEdge<ICoreNode>, IGraph<ICoreNode, ICoreEdge<ICoreNode>>> landmarkMetric =
+        new LandmarkMetric<>(mAmountOfLandmarks, mGraph, landmarkProvider, mLandmarkCache);
+    landmarkMetric.setAmountOfActiveLandmarks(mAmountOfActiveLandmarks);
+    mMetric = landmarkMetric;
     mBaseComputation = ModuleDijkstra.of(mGraph, AStarModule.of(mMetric));
+
+    mHierarchies = hierarchies.join();
+    mReachTables = reachTables.join();
+    mTimeDependentGraph = timeDependentGraph.join();
+  }
+
+  /**
+   * Shuts the factory down, releasing the pool hybrid queries compute their
+   * phases on. Phases which were already started are still completed.
+   * Algorithms created by the factory should not be used anymore afterwards.
+   */
+  public void shutdown() {
+    if (mQueryPhasePool != null) {
+      mQueryPhasePool.shutdown();
+    }
+  }
+
+  /**
+   * Gets the route based layout of the timetable used by RAPTOR, creating it
+   * if not done yet.
+   *
+   * @return The route based layout of the timetable
+   */
+  private synchronized RaptorTimetable getRaptorTimetable() {
+    if (mRaptorTimetable == null) {
+      mRaptorTimetable = ShortestPathComputationFactory.createRaptorTimetable(mTable);
+    }
+    return mRaptorTimetable;
+  }
+
+  /**
+   * Gets the precomputed transfers between the trips of the timetable used by
+   * trip-based routing, creating them if not done yet.
+   *
+   * @return The precomputed transfers
+   */
+  private synchronized TripTransfers getTripTransfers() {
+    if (mTripTransfers == null) {
+      final Instant transfersStart = Instant.now();
+      mTripTransfers = TripTransfers.of(getRaptorTimetable(), mTripTransfersCache);
+      final Instant transfersEnd = Instant.now();
+      LOGGER.info("Trip transfers took: {}, {}", Duration.between(transfersStart, transfersEnd), mTripTransfers);
+    }
+    return mTripTransfers;
   }
 }
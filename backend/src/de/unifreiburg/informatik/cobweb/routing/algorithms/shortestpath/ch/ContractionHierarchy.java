@@ -0,0 +1,289 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+
+/**
+ * Contraction hierarchy of a {@link StaticRoadGraph} for a single
+ * transportation mode.<br>
+ * <br>
+ * The hierarchy consists of arcs, which are either original edges of the graph
+ * or shortcuts that represent two other arcs. Every node has a list of
+ * <i>upward</i> arcs, outgoing arcs leading to nodes of higher rank, and a list
+ * of <i>downward</i> arcs, incoming arcs coming from nodes of higher rank. Both
+ * lists are stored in compressed sparse row layout indexed by the node index
+ * of the graph.<br>
+ * <br>
+ * Use {@link #of(StaticRoadGraph, ETransportationMode)} to create instances and
+ * {@link ContractionHierarchyQuery} to query them.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ContractionHierarchy {
+  /**
+   * Value used for the children of arcs that represent original edges.
+   */
+  static final int NO_CHILD = -1;
+
+  /**
+   * Contracts the given graph for the given transportation mode. Only edges
+   * allowing the mode are considered, using their cost for the mode.
+   *
+   * @param graph The graph to contract, must not be reversed
+   * @param mode  The transportation mode to contract the graph for
+   * @return The resulting hierarchy
+   */
+  public static ContractionHierarchy of(final StaticRoadGraph graph, final ETransportationMode mode) {
+    return new ContractionHierarchyBuilder(graph, mode).build();
+  }
+
+  /**
+   * The destination node index of each arc, indexed by arc.
+   */
+  private final int[] mArcDestinations;
+  /**
+   * The original edge index of each arc, indexed by arc, or
+   * {@link #NO_CHILD} if the arc is a shortcut.
+   */
+  private final int[] mArcEdges;
+  /**
+   * The first arc represented by each shortcut, indexed by arc, or
+   * {@link #NO_CHILD} if the arc is an original edge.
+   */
+  private final int[] mArcFirstChildren;
+  /**
+   * The second arc represented by each shortcut, indexed by arc, or
+   * {@link #NO_CHILD} if the arc is an original edge.
+   */
+  private final int[] mArcSecondChildren;
+  /**
+   * The source node index of each arc, indexed by arc.
+   */
+  private final int[] mArcSources;
+  /**
+   * The cost of each arc, indexed by arc. Measured in seconds.
+   */
+  private final float[] mArcWeights;
+  /**
+   * The downward arcs of all nodes, grouped by node in the order given by
+   * {@link #mDownOffsets}.
+   */
+  private final int[] mDownArcs;
+  /**
+   * The offsets into {@link #mDownArcs} per node index.
+   */
+  private final int[] mDownOffsets;
+  /**
+   * The transportation mode the hierarchy was created for.
+   */
+  private final ETransportationMode mMode;
+  /**
+   * The upward arcs of all nodes, grouped by node in the order given by
+   * {@link #mUpOffsets}.
+   */
+  private final int[] mUpArcs;
+  /**
+   * The offsets into {@link #mUpArcs} per node index.
+   */
+  private final int[] mUpOffsets;
+
+  /**
+   * Creates a new contraction hierarchy with the given data. Use
+   * {@link #of(StaticRoadGraph, ETransportationMode)} to create instances.
+   *
+   * @param mode              The transportation mode of the hierarchy
+   * @param arcSources        The source node index per arc
+   * @param arcDestinations   The destination node index per arc
+   * @param arcWeights        The cost per arc
+   * @param arcEdges          The original edge index per arc
+   * @param arcFirstChildren  The first child per arc
+   * @param arcSecondChildren The second child per arc
+   * @param upOffsets         The offsets of the upward arcs per node
+   * @param upArcs            The upward arcs
+   * @param downOffsets       The offsets of the downward arcs per node
+   * @param downArcs          The downward arcs
+   */
+  ContractionHierarchy(final ETransportationMode mode, final int[] arcSources, final int[] arcDestinations,
+      final float[] arcWeights, final int[] arcEdges, final int[] arcFirstChildren, final int[] arcSecondChildren,
+      final int[] upOffsets, final int[] upArcs, final int[] downOffsets, final int[] downArcs) {
+    mMode = mode;
+    mArcSources = arcSources;
+    mArcDestinations = arcDestinations;
+    mArcWeights = arcWeights;
+    mArcEdges = arcEdges;
+    mArcFirstChildren = arcFirstChildren;
+    mArcSecondChildren = arcSecondChildren;
+    mUpOffsets = upOffsets;
+    mUpArcs = upArcs;
+    mDownOffsets = downOffsets;
+    mDownArcs = downArcs;
+  }
+
+  /**
+   * Gets the amount of arcs, including shortcuts.
+   *
+   * @return The amount of arcs
+   */
+  public int getAmountOfArcs() {
+    return mArcWeights.length;
+  }
+
+  /**
+   * Gets the amount of nodes of the hierarchy.
+   *
+   * @return The amount of nodes
+   */
+  public int getAmountOfNodes() {
+    return mUpOffsets.length - 1;
+  }
+
+  /**
+   * Gets the transportation mode the hierarchy was created for.
+   *
+   * @return The transportation mode
+   */
+  public ETransportationMode getMode() {
+    return mMode;
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("ContractionHierarchy [mode=");
+    builder.append(mMode);
+    builder.append(", nodes=");
+    builder.append(getAmountOfNodes());
+    builder.append(", arcs=");
+    builder.append(getAmountOfArcs());
+    builder.append("]");
+    return builder.toString();
+  }
+
+  /**
+   * Gets the destination node index of the given arc.
+   *
+   * @param arc The arc
+   * @return The destination node index
+   */
+  int getArcDestination(final int arc) {
+    return mArcDestinations[arc];
+  }
+
+  /**
+   * Gets the original edge index of the given arc.
+   *
+   * @param arc The arc
+   * @return The original edge index or {@link #NO_CHILD} if the arc is a
+   *         shortcut
+   */
+  int getArcEdge(final int arc) {
+    return mArcEdges[arc];
+  }
+
+  /**
+   * Gets the first arc represented by the given shortcut.
+   *
+   * @param arc The arc
+   * @return The first child or {@link #NO_CHILD} if the arc is an original edge
+   */
+  int getArcFirstChild(final int arc) {
+    return mArcFirstChildren[arc];
+  }
+
+  /**
+   * Gets the second arc represented by the given shortcut.
+   *
+   * @param arc The arc
+   * @return The second child or {@link #NO_CHILD} if the arc is an original
+   *         edge
+   */
+  int getArcSecondChild(final int arc) {
+    return mArcSecondChildren[arc];
+  }
+
+  /**
+   * Gets the source node index of the given arc.
+   *
+   * @param arc The arc
+   * @return The source node index
+   */
+  int getArcSource(final int arc) {
+    return mArcSources[arc];
+  }
+
+  /**
+   * Gets the cost of the given arc.
+   *
+   * @param arc The arc
+   * @return The cost, measured in seconds
+   */
+  double getArcWeight(final int arc) {
+    return mArcWeights[arc];
+  }
+
+  /**
+   * Gets the downward arc at the given position.
+   *
+   * @param position The position, between {@link #getDownBegin(int)} and
+   *                 {@link #getDownEnd(int)} of a node
+   * @return The arc
+   */
+  int getDownArc(final int position) {
+    return mDownArcs[position];
+  }
+
+  /**
+   * Gets the first position of the downward arcs of the given node.
+   *
+   * @param node The node index
+   * @return The first position, inclusive
+   */
+  int getDownBegin(final int node) {
+    return mDownOffsets[node];
+  }
+
+  /**
+   * Gets the last position of the downward arcs of the given node.
+   *
+   * @param node The node index
+   * @return The last position, exclusive
+   */
+  int getDownEnd(final int node) {
+    return mDownOffsets[node + 1];
+  }
+
+  /**
+   * Gets the upward arc at the given position.
+   *
+   * @param position The position, between {@link #getUpBegin(int)} and
+   *                 {@link #getUpEnd(int)} of a node
+   * @return The arc
+   */
+  int getUpArc(final int position) {
+    return mUpArcs[position];
+  }
+
+  /**
+   * Gets the first position of the upward arcs of the given node.
+   *
+   * @param node The node index
+   * @return The first position, inclusive
+   */
+  int getUpBegin(final int node) {
+    return mUpOffsets[node];
+  }
+
+  /**
+   * Gets the last position of the upward arcs of the given node.
+   *
+   * @param node The node index
+   * @return The last position, exclusive
+   */
+  int getUpEnd(final int node) {
+    return mUpOffsets[node + 1];
+  }
+}
@@ -0,0 +1,435 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch;
+
+import java.util.Arrays;
+
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+import de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap;
+
+/**
+ * Builder which creates a {@link ContractionHierarchy} by contracting all
+ * nodes of a {@link StaticRoadGraph} one after another.<br>
+ * <br>
+ * Nodes are contracted in the order of their priority, which is the edge
+ * difference plus the amount of already contracted neighbors. Priorities are
+ * updated lazily, i.e. recomputed when a node is about to be contracted. When
+ * contracting a node, a shortcut is inserted for every pair of neighbors whose
+ * shortest path leads over the node. This is decided by a local witness
+ * search, which is bounded in the amount of settled nodes. A bounded search may
+ * miss witnesses, which only leads to superfluous shortcuts.<br>
+ * <br>
+ * A builder can only be used once and is not thread-safe.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+final class ContractionHierarchyBuilder {
+  /**
+   * The maximal amount of nodes a witness search settles.
+   */
+  private static final int WITNESS_SETTLE_LIMIT = 64;
+
+  /**
+   * The destination node index of each arc.
+   */
+  private final IntArrayList mArcDestinations;
+  /**
+   * The original edge index of each arc or
+   * {@link ContractionHierarchy#NO_CHILD}.
+   */
+  private final IntArrayList mArcEdges;
+  /**
+   * The first child of each arc or {@link ContractionHierarchy#NO_CHILD}.
+   */
+  private final IntArrayList mArcFirstChildren;
+  /**
+   * The second child of each arc or {@link ContractionHierarchy#NO_CHILD}.
+   */
+  private final IntArrayList mArcSecondChildren;
+  /**
+   * The source node index of each arc.
+   */
+  private final IntArrayList mArcSources;
+  /**
+   * The cost of each arc.
+   */
+  private final DoubleArrayList mArcWeights;
+  /**
+   * The amount of contracted neighbors of each node.
+   */
+  private final int[] mContractedNeighbors;
+  /**
+   * The downward arcs of each contracted node, indexed by node.
+   */
+  private final int[][] mDownArcs;
+  /**
+   * The graph to contract.
+   */
+  private final StaticRoadGraph mGraph;
+  /**
+   * The incoming arcs of each uncontracted node, only containing arcs from
+   * uncontracted nodes. <code>null</code> for contracted nodes.
+   */
+  private final IntArrayList[] mIncomingArcs;
+  /**
+   * The transportation mode to contract the graph for.
+   */
+  private final ETransportationMode mMode;
+  /**
+   * The outgoing arcs of each uncontracted node, only containing arcs to
+   * uncontracted nodes. <code>null</code> for contracted nodes.
+   */
+  private final IntArrayList[] mOutgoingArcs;
+  /**
+   * The upward arcs of each contracted node, indexed by node.
+   */
+  private final int[][] mUpArcs;
+  /**
+   * The tentative distances of the witness search, indexed by node.
+   */
+  private final double[] mWitnessDistances;
+  /**
+   * The active nodes of the witness search.
+   */
+  private final IndexedMinHeap mWitnessHeap;
+  /**
+   * The current timestamp of the witness search.
+   */
+  private int mWitnessStamp;
+  /**
+   * The timestamp of each node, entries of {@link #mWitnessDistances} are only
+   * valid if the timestamp matches {@link #mWitnessStamp}.
+   */
+  private final int[] mWitnessStamps;
+
+  /**
+   * Creates a new builder which contracts the given graph for the given mode.
+   *
+   * @param graph The graph to contract, must not be reversed
+   * @param mode  The transportation mode to contract the graph for
+   */
+  ContractionHierarchyBuilder(final StaticRoadGraph graph, final ETransportationMode mode) {
+    mGraph = graph;
+    mMode = mode;
+    final int amountOfNodes = graph.size();
+
+    mArcSources = new IntArrayList(graph.getAmountOfEdges());
+    mArcDestinations = new IntArrayList(graph.getAmountOfEdges());
+    mArcWeights = new DoubleArrayList(graph.getAmountOfEdges());
+    mArcEdges = new IntArrayList(graph.getAmountOfEdges());
+    mArcFirstChildren = new IntArrayList(graph.getAmountOfEdges());
+    mArcSecondChildren = new IntArrayList(graph.getAmountOfEdges());
+
+    mIncomingArcs = new IntArrayList[amountOfNodes];
+    mOutgoingArcs = new IntArrayList[amountOfNodes];
+    mUpArcs = new int[amountOfNodes][];
+    mDownArcs = new int[amountOfNodes][];
+    mContractedNeighbors = new int[amountOfNodes];
+
+    mWitnessDistances = new double[amountOfNodes];
+    mWitnessStamps = new int[amountOfNodes];
+    mWitnessHeap = new IndexedMinHeap(amountOfNodes);
+  }
+
+  /**
+   * Contracts all nodes and builds the resulting hierarchy.
+   *
+   * @return The resulting hierarchy
+   */
+  ContractionHierarchy build() {
+    final int amountOfNodes = mGraph.size();
+    for (int node = 0; node < amountOfNodes; node++) {
+      mIncomingArcs[node] = new IntArrayList(2);
+      mOutgoingArcs[node] = new IntArrayList(2);
+    }
+    addOriginalArcs();
+
+    // Initial priorities
+    final IndexedMinHeap queue = new IndexedMinHeap(amountOfNodes);
+    for (int node = 0; node < amountOfNodes; node++) {
+      queue.add(node, computePriority(node));
+    }
+
+    // Contract by priority, with lazy updates
+    while (!queue.isEmpty()) {
+      final int node = queue.poll();
+      final double priority = computePriority(node);
+      if (!queue.isEmpty() && priority > queue.getKey(queue.peek())) {
+        queue.add(node, priority);
+        continue;
+      }
+      contract(node);
+    }
+
+    return createHierarchy();
+  }
+
+  /**
+   * Adds an arc with the given data.
+   *
+   * @param source      The source node index
+   * @param destination The destination node index
+   * @param weight      The cost of the arc
+   * @param edge        The original edge index or
+   *                    {@link ContractionHierarchy#NO_CHILD}
+   * @param firstChild  The first child or {@link ContractionHierarchy#NO_CHILD}
+   * @param secondChild The second child or
+   *                    {@link ContractionHierarchy#NO_CHILD}
+   */
+  private void addArc(final int source, final int destination, final double weight, final int edge,
+      final int firstChild, final int secondChild) {
+    final int arc = mArcWeights.size();
+    mArcSources.add(source);
+    mArcDestinations.add(destination);
+    mArcWeights.add(weight);
+    mArcEdges.add(edge);
+    mArcFirstChildren.add(firstChild);
+    mArcSecondChildren.add(secondChild);
+    mOutgoingArcs[source].add(arc);
+    mIncomingArcs[destination].add(arc);
+  }
+
+  /**
+   * Adds an arc for every edge of the graph which allows the transportation
+   * mode. Of parallel edges only the cheapest is kept, loops are ignored.
+   */
+  private void addOriginalArcs() {
+    final int amountOfNodes = mGraph.size();
+    for (int node = 0; node < amountOfNodes; node++) {
+      final int end = mGraph.getOutgoingEnd(node);
+      for (int position = mGraph.getOutgoingBegin(node); position < end; position++) {
+        final int edge = mGraph.getOutgoingEdgeAt(position);
+        if (!mGraph.hasEdgeMode(edge, mMode)) {
+          continue;
+        }
+        final int destination = mGraph.getEdgeDestination(edge);
+        if (destination == node) {
+          continue;
+        }
+        final double weight = mGraph.getEdgeCost(edge, mMode);
+
+        final int parallelArc = findArc(node, destination);
+        if (parallelArc == ContractionHierarchy.NO_CHILD) {
+          addArc(node, destination, weight, edge, ContractionHierarchy.NO_CHILD, ContractionHierarchy.NO_CHILD);
+        } else if (weight < mArcWeights.get(parallelArc)) {
+          // Replace the more expensive parallel edge
+          mArcWeights.set(parallelArc, weight);
+          mArcEdges.set(parallelArc, edge);
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the priority of the given uncontracted node.
+   *
+   * @param node The node
+   * @return The priority, smaller values are contracted first
+   */
+  private double computePriority(final int node) {
+    final int shortcuts = contractHelper(node, true);
+    final int edgeDifference = shortcuts - mIncomingArcs[node].size() - mOutgoingArcs[node].size();
+    return edgeDifference + mContractedNeighbors[node];
+  }
+
+  /**
+   * Contracts the given node. Inserts necessary shortcuts and removes the node
+   * from the remaining graph.
+   *
+   * @param node The node to contract
+   */
+  private void contract(final int node) {
+    contractHelper(node, false);
+
+    final IntArrayList incomingArcs = mIncomingArcs[node];
+    final IntArrayList outgoingArcs = mOutgoingArcs[node];
+    // All remaining neighbors are contracted later, i.e. have a higher rank
+    mUpArcs[node] = outgoingArcs.toArray();
+    mDownArcs[node] = incomingArcs.toArray();
+
+    for (int i = 0; i < incomingArcs.size(); i++) {
+      final int arc = incomingArcs.get(i);
+      final int neighbor = mArcSources.get(arc);
+      mOutgoingArcs[neighbor].remove(arc);
+      mContractedNeighbors[neighbor]++;
+    }
+    for (int i = 0; i < outgoingArcs.size(); i++) {
+      final int arc = outgoingArcs.get(i);
+      final int neighbor = mArcDestinations.get(arc);
+      mIncomingArcs[neighbor].remove(arc);
+      mContractedNeighbors[neighbor]++;
+    }
+
+    mIncomingArcs[node] = null;
+    mOutgoingArcs[node] = null;
+  }
+
+  /**
+   * Determines the shortcuts necessary to contract the given node and
+   * optionally inserts them.
+   *
+   * @param node     The node to contract
+   * @param simulate Whether the shortcuts should only be counted or also be
+   *                 inserted
+   * @return The amount of necessary shortcuts
+   */
+  private int contractHelper(final int node, final boolean simulate) {
+    final IntArrayList incomingArcs = mIncomingArcs[node];
+    final IntArrayList outgoingArcs = mOutgoingArcs[node];
+    int shortcuts = 0;
+
+    for (int i = 0; i < incomingArcs.size(); i++) {
+      final int incomingArc = incomingArcs.get(i);
+      final int source = mArcSources.get(incomingArc);
+      final double incomingWeight = mArcWeights.get(incomingArc);
+
+      // Maximal cost of paths over the node, bounds the witness search
+      double maxWeight = Double.NEGATIVE_INFINITY;
+      for (int j = 0; j < outgoingArcs.size(); j++) {
+        final int outgoingArc = outgoingArcs.get(j);
+        if (mArcDestinations.get(outgoingArc) != source) {
+          maxWeight = Math.max(maxWeight, incomingWeight + mArcWeights.get(outgoingArc));
+        }
+      }
+      if (maxWeight == Double.NEGATIVE_INFINITY) {
+        continue;
+      }
+
+      witnessSearch(source, node, maxWeight);
+
+      for (int j = 0; j < outgoingArcs.size(); j++) {
+        final int outgoingArc = outgoingArcs.get(j);
+        final int destination = mArcDestinations.get(outgoingArc);
+        if (destination == source) {
+          continue;
+        }
+        final double weight = incomingWeight + mArcWeights.get(outgoingArc);
+        if (getWitnessDistance(destination) <= weight) {
+          continue;
+        }
+
+        shortcuts++;
+        if (!simulate) {
+          addArc(source, destination, weight, ContractionHierarchy.NO_CHILD, incomingArc, outgoingArc);
+        }
+      }
+    }
+    return shortcuts;
+  }
+
+  /**
+   * Creates the hierarchy out of the contracted nodes.
+   *
+   * @return The created hierarchy
+   */
+  private ContractionHierarchy createHierarchy() {
+    final int amountOfNodes = mGraph.size();
+    final int[] upOffsets = new int[amountOfNodes + 1];
+    final int[] downOffsets = new int[amountOfNodes + 1];
+    for (int node = 0; node < amountOfNodes; node++) {
+      upOffsets[node + 1] = upOffsets[node] + mUpArcs[node].length;
+      downOffsets[node + 1] = downOffsets[node] + mDownArcs[node].length;
+    }
+    final int[] upArcs = new int[upOffsets[amountOfNodes]];
+    final int[] downArcs = new int[downOffsets[amountOfNodes]];
+    for (int node = 0; node < amountOfNodes; node++) {
+      System.arraycopy(mUpArcs[node], 0, upArcs, upOffsets[node], mUpArcs[node].length);
+      System.arraycopy(mDownArcs[node], 0, downArcs, downOffsets[node], mDownArcs[node].length);
+    }
+
+    final double[] weights = mArcWeights.toArray();
+    final float[] arcWeights = new float[weights.length];
+    for (int arc = 0; arc < weights.length; arc++) {
+      arcWeights[arc] = (float) weights[arc];
+    }
+
+    return new ContractionHierarchy(mMode, mArcSources.toArray(), mArcDestinations.toArray(), arcWeights,
+        mArcEdges.toArray(), mArcFirstChildren.toArray(), mArcSecondChildren.toArray(), upOffsets, upArcs,
+        downOffsets, downArcs);
+  }
+
+  /**
+   * Finds an arc from the given source to the given destination.
+   *
+   * @param source      The source node index
+   * @param destination The destination node index
+   * @return The arc or {@link ContractionHierarchy#NO_CHILD} if there is none
+   */
+  private int findArc(final int source, final int destination) {
+    final IntArrayList outgoingArcs = mOutgoingArcs[source];
+    for (int i = 0; i < outgoingArcs.size(); i++) {
+      final int arc = outgoingArcs.get(i);
+      if (mArcDestinations.get(arc) == destination) {
+        return arc;
+      }
+    }
+    return ContractionHierarchy.NO_CHILD;
+  }
+
+  /**
+   * Gets the distance to the given node found by the last witness search.
+   *
+   * @param node The node
+   * @return The distance or {@link Double#POSITIVE_INFINITY} if the node was
+   *         not reached
+   */
+  private double getWitnessDistance(final int node) {
+    if (mWitnessStamps[node] != mWitnessStamp) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return mWitnessDistances[node];
+  }
+
+  /**
+   * Computes distances from the given source in the remaining graph, ignoring
+   * the given node. The search is bounded by the given distance and
+   * {@link #WITNESS_SETTLE_LIMIT}. Distances of reached but unsettled nodes are
+   * upper bounds, which is sufficient for witnesses.
+   *
+   * @param source      The source of the search
+   * @param ignoredNode The node to ignore
+   * @param maxDistance The distance after which to stop
+   */
+  private void witnessSearch(final int source, final int ignoredNode, final double maxDistance) {
+    mWitnessStamp++;
+    if (mWitnessStamp == Integer.MAX_VALUE) {
+      Arrays.fill(mWitnessStamps, 0);
+      mWitnessStamp = 1;
+    }
+    mWitnessHeap.clear();
+
+    mWitnessStamps[source] = mWitnessStamp;
+    mWitnessDistances[source] = 0.0;
+    mWitnessHeap.add(source, 0.0);
+
+    int settled = 0;
+    while (!mWitnessHeap.isEmpty()) {
+      final int node = mWitnessHeap.poll();
+      final double distance = mWitnessDistances[node];
+      settled++;
+      if (distance > maxDistance || settled > WITNESS_SETTLE_LIMIT) {
+        break;
+      }
+
+      final IntArrayList outgoingArcs = mOutgoingArcs[node];
+      for (int i = 0; i < outgoingArcs.size(); i++) {
+        final int arc = outgoingArcs.get(i);
+        final int destination = mArcDestinations.get(arc);
+        if (destination == ignoredNode) {
+          continue;
+        }
+        final double tentativeDistance = distance + mArcWeights.get(arc);
+        if (mWitnessStamps[destination] != mWitnessStamp) {
+          mWitnessStamps[destination] = mWitnessStamp;
+          mWitnessDistances[destination] = tentativeDistance;
+          mWitnessHeap.add(destination, tentativeDistance);
+        } else if (mWitnessHeap.contains(destination) && tentativeDistance < mWitnessDistances[destination]) {
+          mWitnessDistances[destination] = tentativeDistance;
+          mWitnessHeap.decreaseKey(destination, tentativeDistance);
+        }
+      }
+    }
+  }
+}
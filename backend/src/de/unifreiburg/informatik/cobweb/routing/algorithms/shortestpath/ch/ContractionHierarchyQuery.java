@@ -0,0 +1,264 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.AShortestPathComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EmptyPath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+
+/**
+ * Bidirectional shortest path query on a {@link ContractionHierarchy}.<br>
+ * <br>
+ * The forward search starts at the sources and only relaxes upward arcs, the
+ * backward search starts at the destination and only relaxes downward arcs
+ * reversely. Both meet at the node of highest rank on the shortest path. The
+ * computation stops a search direction once its smallest tentative distance
+ * exceeds the best path found so far. Shortcuts of the resulting path are
+ * unpacked recursively into the original edges of the graph.<br>
+ * <br>
+ * Each thread reuses a pair of search spaces for its queries. Only
+ * point-to-point queries are supported,
+ * {@link #computeShortestPathCostsReachable(Collection)} is not.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ContractionHierarchyQuery extends AShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> {
+  /**
+   * Value used to encode that a node has no index.
+   */
+  private static final int NO_INDEX = -1;
+  /**
+   * The search spaces of each thread, the forward search space followed by the
+   * backward search space.
+   */
+  private static final ThreadLocal<SearchSpace[]> SEARCH_SPACES =
+      ThreadLocal.withInitial(() -> new SearchSpace[] { new SearchSpace(), new SearchSpace() });
+
+  /**
+   * The graph the hierarchy belongs to.
+   */
+  private final StaticRoadGraph mGraph;
+  /**
+   * The hierarchy to query.
+   */
+  private final ContractionHierarchy mHierarchy;
+
+  /**
+   * Creates a new query on the given hierarchy.
+   *
+   * @param graph     The graph the hierarchy belongs to
+   * @param hierarchy The hierarchy to query
+   */
+  public ContractionHierarchyQuery(final StaticRoadGraph graph, final ContractionHierarchy hierarchy) {
+    mGraph = graph;
+    mHierarchy = hierarchy;
+  }
+
+  @Override
+  public Collection<ICoreNode> computeSearchSpace(final Collection<ICoreNode> sources, final ICoreNode destination) {
+    final SearchSpace[] searchSpaces = SEARCH_SPACES.get();
+    final SearchSpace forward = searchSpaces[0];
+    final SearchSpace backward = searchSpaces[1];
+    computeShortestPathHelper(forward, backward, sources, destination);
+
+    final Collection<ICoreNode> searchSpace =
+        new ArrayList<>(forward.getAmountOfVisited() + backward.getAmountOfVisited());
+    for (int i = 0; i < forward.getAmountOfVisited(); i++) {
+      searchSpace.add(mGraph.getNode(forward.getVisited(i)));
+    }
+    for (int i = 0; i < backward.getAmountOfVisited(); i++) {
+      searchSpace.add(mGraph.getNode(backward.getVisited(i)));
+    }
+    return searchSpace;
+  }
+
+  @Override
+  public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
+      final ICoreNode destination) {
+    if (sources.contains(destination)) {
+      return Optional.of(new EmptyPath<>(destination));
+    }
+
+    final SearchSpace[] searchSpaces = SEARCH_SPACES.get();
+    final SearchSpace forward = searchSpaces[0];
+    final SearchSpace backward = searchSpaces[1];
+    final int meetingNode = computeShortestPathHelper(forward, backward, sources, destination);
+    if (meetingNode == NO_INDEX) {
+      return Optional.empty();
+    }
+
+    // Collect the arcs from the sources to the meeting node and from there to
+    // the destination
+    final IntArrayList arcs = new IntArrayList();
+    int node = meetingNode;
+    while (forward.getParentArc(node) != NO_INDEX) {
+      final int arc = forward.getParentArc(node);
+      arcs.add(arc);
+      node = mHierarchy.getArcSource(arc);
+    }
+    arcs.reverseThis();
+    node = meetingNode;
+    while (backward.getParentArc(node) != NO_INDEX) {
+      final int arc = backward.getParentArc(node);
+      arcs.add(arc);
+      node = mHierarchy.getArcDestination(arc);
+    }
+
+    // Unpack shortcuts into original edges
+    final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path = new EdgePath<>();
+    final IntArrayList stack = new IntArrayList();
+    for (int i = 0; i < arcs.size(); i++) {
+      stack.add(arcs.get(i));
+      while (!stack.isEmpty()) {
+        final int arc = stack.removeAtIndex(stack.size() - 1);
+        final int edge = mHierarchy.getArcEdge(arc);
+        if (edge != ContractionHierarchy.NO_CHILD) {
+          path.addEdge(mGraph.getEdge(edge), mHierarchy.getArcWeight(arc));
+          continue;
+        }
+        // Process the first child first
+        stack.add(mHierarchy.getArcSecondChild(arc));
+        stack.add(mHierarchy.getArcFirstChild(arc));
+      }
+    }
+    return Optional.of(path);
+  }
+
+  @Override
+  public Optional<Double> computeShortestPathCost(final Collection<ICoreNode> sources, final ICoreNode destination) {
+    if (sources.contains(destination)) {
+      return Optional.of(0.0);
+    }
+
+    final SearchSpace[] searchSpaces = SEARCH_SPACES.get();
+    final SearchSpace forward = searchSpaces[0];
+    final SearchSpace backward = searchSpaces[1];
+    final int meetingNode = computeShortestPathHelper(forward, backward, sources, destination);
+    if (meetingNode == NO_INDEX) {
+      return Optional.empty();
+    }
+    return Optional.of(forward.getDistance(meetingNode) + backward.getDistance(meetingNode));
+  }
+
+  /**
+   * Not supported, a contraction hierarchy is only able to answer
+   * point-to-point queries.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public Map<ICoreNode, ? extends IHasPathCost> computeShortestPathCostsReachable(final Collection<ICoreNode> sources)
+      throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Gets the hierarchy this query operates on.
+   *
+   * @return The hierarchy
+   */
+  public ContractionHierarchy getHierarchy() {
+    return mHierarchy;
+  }
+
+  /**
+   * Computes the shortest path from the given sources to the given destination
+   * using the given search spaces.
+   *
+   * @param forward     The search space of the forward search
+   * @param backward    The search space of the backward search
+   * @param sources     The sources to compute the shortest path from
+   * @param destination The destination to compute the shortest path to
+   * @return The index of the node where the shortest path meets or
+   *         <code>-1</code> if there is no path
+   */
+  private int computeShortestPathHelper(final SearchSpace forward, final SearchSpace backward,
+      final Collection<ICoreNode> sources, final ICoreNode destination) {
+    final int amountOfNodes = mHierarchy.getAmountOfNodes();
+    forward.begin(amountOfNodes);
+    backward.begin(amountOfNodes);
+
+    for (final ICoreNode source : sources) {
+      final int sourceIndex = mGraph.getIndexOfNode(source);
+      if (sourceIndex != NO_INDEX && !forward.isVisited(sourceIndex)) {
+        forward.visit(sourceIndex, 0.0, NO_INDEX);
+      }
+    }
+    final int destinationIndex = mGraph.getIndexOfNode(destination);
+    if (destinationIndex != NO_INDEX) {
+      backward.visit(destinationIndex, 0.0, NO_INDEX);
+    }
+
+    double bestDistance = Double.POSITIVE_INFINITY;
+    int meetingNode = NO_INDEX;
+    while (true) {
+      final boolean forwardActive = forward.hasActiveNodes() && forward.getSmallestDistance() < bestDistance;
+      final boolean backwardActive = backward.hasActiveNodes() && backward.getSmallestDistance() < bestDistance;
+      if (!forwardActive && !backwardActive) {
+        break;
+      }
+
+      final boolean isForward =
+          forwardActive && (!backwardActive || forward.getSmallestDistance() <= backward.getSmallestDistance());
+      final SearchSpace current;
+      final SearchSpace other;
+      if (isForward) {
+        current = forward;
+        other = backward;
+      } else {
+        current = backward;
+        other = forward;
+      }
+
+      final int node = current.settleNext();
+      final double distance = current.getDistance(node);
+      if (other.isVisited(node)) {
+        final double pathDistance = distance + other.getDistance(node);
+        if (pathDistance < bestDistance) {
+          bestDistance = pathDistance;
+          meetingNode = node;
+        }
+      }
+
+      if (isForward) {
+        final int end = mHierarchy.getUpEnd(node);
+        for (int position = mHierarchy.getUpBegin(node); position < end; position++) {
+          final int arc = mHierarchy.getUpArc(position);
+          current.relax(mHierarchy.getArcDestination(arc), distance + mHierarchy.getArcWeight(arc), arc);
+        }
+      } else {
+        final int end = mHierarchy.getDownEnd(node);
+        for (int position = mHierarchy.getDownBegin(node); position < end; position++) {
+          final int arc = mHierarchy.getDownArc(position);
+          current.relax(mHierarchy.getArcSource(arc), distance + mHierarchy.getArcWeight(arc), arc);
+        }
+      }
+    }
+
+    // Nodes reached by both searches but not settled by both may also connect
+    // them
+    for (int i = 0; i < forward.getAmountOfVisited(); i++) {
+      final int node = forward.getVisited(i);
+      if (!backward.isVisited(node)) {
+        continue;
+      }
+      final double pathDistance = forward.getDistance(node) + backward.getDistance(node);
+      if (pathDistance < bestDistance) {
+        bestDistance = pathDistance;
+        meetingNode = node;
+      }
+    }
+
+    return meetingNode;
+  }
+}
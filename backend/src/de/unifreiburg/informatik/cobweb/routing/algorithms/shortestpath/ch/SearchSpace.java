@@ -0,0 +1,206 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch;
+
+import java.util.Arrays;
+
+import de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap;
+
+/**
+ * Reusable search space of one direction of a {@link ContractionHierarchyQuery}.
+ * <br>
+ * <br>
+ * Stores the tentative distance and parent arc of every visited node in arrays
+ * indexed by node index. Instead of clearing the arrays between queries, every
+ * query uses a new timestamp, entries are only valid if their timestamp matches
+ * the current one. The search space is not thread-safe.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+final class SearchSpace {
+  /**
+   * The initial capacity of the arrays.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * The heap of active nodes, keyed by tentative distance.
+   */
+  private final IndexedMinHeap mActiveNodes;
+  /**
+   * The amount of nodes visited in the current query.
+   */
+  private int mAmountOfVisited;
+  /**
+   * The current timestamp, entries with this timestamp are valid.
+   */
+  private int mCurrentStamp;
+  /**
+   * The tentative distance of each node, indexed by node index.
+   */
+  private double[] mDistances;
+  /**
+   * The arc that lead to each node, indexed by node index.
+   */
+  private int[] mParentArcs;
+  /**
+   * The timestamp of each node, indexed by node index.
+   */
+  private int[] mStamps;
+  /**
+   * The indices of all nodes visited in the current query, in the order they
+   * were visited.
+   */
+  private int[] mVisited;
+
+  /**
+   * Creates a new initially empty search space.
+   */
+  SearchSpace() {
+    mActiveNodes = new IndexedMinHeap(INITIAL_CAPACITY);
+    mDistances = new double[INITIAL_CAPACITY];
+    mParentArcs = new int[INITIAL_CAPACITY];
+    mStamps = new int[INITIAL_CAPACITY];
+    mVisited = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Begins a new query. Invalidates all entries of the previous query.
+   *
+   * @param capacity The amount of nodes of the hierarchy
+   */
+  void begin(final int capacity) {
+    if (capacity > mStamps.length) {
+      mDistances = Arrays.copyOf(mDistances, capacity);
+      mParentArcs = Arrays.copyOf(mParentArcs, capacity);
+      mStamps = Arrays.copyOf(mStamps, capacity);
+      mActiveNodes.ensureCapacity(capacity);
+    }
+    mActiveNodes.clear();
+    mAmountOfVisited = 0;
+
+    mCurrentStamp++;
+    if (mCurrentStamp == Integer.MAX_VALUE) {
+      // Timestamps overflow, reset them once
+      Arrays.fill(mStamps, 0);
+      mCurrentStamp = 1;
+    }
+  }
+
+  /**
+   * Gets the amount of nodes visited in the current query.
+   *
+   * @return The amount of visited nodes
+   */
+  int getAmountOfVisited() {
+    return mAmountOfVisited;
+  }
+
+  /**
+   * Gets the tentative distance of the given visited node.
+   *
+   * @param node The index of the node
+   * @return The tentative distance
+   */
+  double getDistance(final int node) {
+    return mDistances[node];
+  }
+
+  /**
+   * Gets the arc that lead to the given visited node.
+   *
+   * @param node The index of the node
+   * @return The parent arc or <code>-1</code> if the node has no parent
+   */
+  int getParentArc(final int node) {
+    return mParentArcs[node];
+  }
+
+  /**
+   * Gets the smallest tentative distance of all active nodes.
+   *
+   * @return The smallest tentative distance, there must be active nodes
+   */
+  double getSmallestDistance() {
+    return mActiveNodes.getKey(mActiveNodes.peek());
+  }
+
+  /**
+   * Gets the index of the visited node at the given position of the visiting
+   * order.
+   *
+   * @param position The position, less than {@link #getAmountOfVisited()}
+   * @return The index of the node
+   */
+  int getVisited(final int position) {
+    return mVisited[position];
+  }
+
+  /**
+   * Whether or not there are active nodes.
+   *
+   * @return <code>True</code> if there are active nodes, <code>false</code>
+   *         otherwise
+   */
+  boolean hasActiveNodes() {
+    return !mActiveNodes.isEmpty();
+  }
+
+  /**
+   * Whether or not the given node was visited in the current query.
+   *
+   * @param node The index of the node
+   * @return <code>True</code> if the node was visited, <code>false</code>
+   *         otherwise
+   */
+  boolean isVisited(final int node) {
+    return mStamps[node] == mCurrentStamp;
+  }
+
+  /**
+   * Relaxes the given node. Visits it if it was not visited yet or improves its
+   * distance if the given distance is smaller and the node is not settled yet.
+   *
+   * @param node      The index of the node
+   * @param distance  The tentative distance using the given arc
+   * @param parentArc The arc that leads to the node
+   */
+  void relax(final int node, final double distance, final int parentArc) {
+    if (!isVisited(node)) {
+      visit(node, distance, parentArc);
+      return;
+    }
+    if (distance < mDistances[node] && mActiveNodes.contains(node)) {
+      mDistances[node] = distance;
+      mParentArcs[node] = parentArc;
+      mActiveNodes.decreaseKey(node, distance);
+    }
+  }
+
+  /**
+   * Removes the active node with the smallest tentative distance and thereby
+   * settles it.
+   *
+   * @return The index of the settled node
+   */
+  int settleNext() {
+    return mActiveNodes.poll();
+  }
+
+  /**
+   * Visits the given node for the first time and makes it active.
+   *
+   * @param node      The index of the node
+   * @param distance  The tentative distance
+   * @param parentArc The arc that leads to the node or <code>-1</code>
+   */
+  void visit(final int node, final double distance, final int parentArc) {
+    mStamps[node] = mCurrentStamp;
+    mDistances[node] = distance;
+    mParentArcs[node] = parentArc;
+    if (mAmountOfVisited == mVisited.length) {
+      mVisited = Arrays.copyOf(mVisited, mAmountOfVisited + (mAmountOfVisited >> 1) + 1);
+    }
+    mVisited[mAmountOfVisited] = node;
+    mAmountOfVisited++;
+    mActiveNodes.add(node, distance);
+  }
+}
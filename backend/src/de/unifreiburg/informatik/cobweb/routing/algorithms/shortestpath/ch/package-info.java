@@ -0,0 +1,8 @@
+/**
+ * Contains the Contraction Hierarchies speedup technique for road networks. That
+ * is a preprocessing step which contracts nodes in order of importance and
+ * inserts shortcut edges, and a bidirectional query on the resulting hierarchy.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch;
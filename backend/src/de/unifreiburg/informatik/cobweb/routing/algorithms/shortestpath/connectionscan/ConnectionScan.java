@@ -5,14 +5,15 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 
@@ -22,25 +23,51 @@ import org.slf4j.LoggerFactory;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.AShortestPathComputation;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ITransitComputation;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.PathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.QueryDeadline;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
-import de.unifreiburg.informatik.cobweb.routing.model.graph.IHasId;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.IHasTime;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitNode;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Connection;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Footpath;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenFrequencies;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Trip;
+import de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap;
 
 /**
  * Implementation of the Connection-Scan algorithm that is able to compute
  * shortest paths on a given timetable. A timetable represents a transit
  * network.<br>
  * <br>
+ * The algorithm scans the {@link FrozenTimetable} of the timetable. The scan
+ * only reads primitive arrays and does not allocate, journey pointers are
+ * represented by connection and footpath indices. The state of a scan is kept
+ * in a workspace reused by each thread, which is reset by timestamps and by
+ * the stops reached before instead of clearing.<br>
+ * <br>
+ * If a date is given, only connections whose service runs at that date are
+ * scanned, connections after midnight use the services of the following day.
+ * The running services are resolved once per query, connections of other
+ * services are skipped by a single array lookup.<br>
+ * <br>
+ * Runs of frequency based trips are not stored as connections. The scan
+ * enumerates them lazily from their templates and merges them into the
+ * ordered connections, keeping the next run of every frequency connection in a
+ * heap.<br>
+ * <br>
+ * Every source is relaxed at its own time. By
+ * {@link #computeShortestPath(Collection, Map)} the algorithm also routes to
+ * several destinations at once, each with an additional egress duration. A
+ * single scan thereby replaces one scan per pair of source and
+ * destination.<br>
+ * <br>
  * For details refer to:
  * <ul>
  * <li><code>Connection Scan Algorithm</code> - Dibbelt J., Pajor T., Strasser B.
@@ -50,7 +77,8 @@ import de.unifreiburg.informatik.cobweb.routing.model.timetable.Trip;
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
-public final class ConnectionScan extends AShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> {
+public final class ConnectionScan extends AShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>>
+    implements ITransitComputation {
   /**
    * Logger used for logging.
    */
@@ -59,6 +87,11 @@ public final class ConnectionScan extends AShortestPathComputation<ICoreNode, IC
    * Amount of seconds of a day.
    */
   private static final int SECONDS_OF_DAY = 24 * 60 * 60;
+  /**
+   * The workspace of each thread, reused for all computations of the thread.
+   */
+  private static final ThreadLocal<ConnectionScanWorkspace> WORKSPACES =
+      ThreadLocal.withInitial(ConnectionScanWorkspace::new);
 
   /**
    * Creates and adds an edge from the given source to destination to the given
@@ -100,6 +133,19 @@ public final class ConnectionScan extends AShortestPathComputation<ICoreNode, IC
     return arrTime - depTime;
   }
 
+  /**
+   * Extracts the starting time of the given sources. That is the time of the
+   * first source, the times of further sources are interpreted to be not
+   * before it.
+   *
+   * @param sources The sources to extract the time from, must not be empty
+   * @return The extracted time
+   * @throws IllegalArgumentException If the first source has no time
+   */
+  private static int extractStartingTime(final Collection<ICoreNode> sources) throws IllegalArgumentException {
+    return ConnectionScan.extractTime(sources.iterator().next());
+  }
+
   /**
    * Extracts the time from the given node.
    *
@@ -107,7 +153,7 @@ public final class ConnectionScan extends AShortestPathComputation<ICoreNode, IC
    * @return The extracted time
    * @throws IllegalArgumentException If the given node has no time
    */
-  private static final int extractStartingTime(final ICoreNode node) throws IllegalArgumentException {
+  private static final int extractTime(final ICoreNode node) throws IllegalArgumentException {
     if (!(node instanceof IHasTime)) {
       throw new IllegalArgumentException();
     }
@@ -126,31 +172,57 @@ public final class ConnectionScan extends AShortestPathComputation<ICoreNode, IC
    *         argument, if it was already after the threshold, or shifted by the
    *         amount of seconds of one whole day.
    */
-  private static int validateTimeBeforeAfter(final int time, final int threshold) {
+  static int validateTimeBeforeAfter(final int time, final int threshold) {
     if (time < threshold) {
       return time + SECONDS_OF_DAY;
     }
     return time;
   }
 
+  /**
+   * The date to route at or <code>null</code> if all connections should be
+   * considered running every day.
+   */
+  private final LocalDate mDate;
+  /**
+   * The frozen view of the timetable, used for scanning.
+   */
+  private final FrozenTimetable mFrozenTable;
   /**
    * The timetable data to route on.
    */
   private final Timetable mTable;
 
   /**
-   * Creates a new connection scan algorithm.
+   * Creates a new connection scan algorithm which considers all connections
+   * running every day.
    *
    * @param table The timetable data to route on
    */
   public ConnectionScan(final Timetable table) {
+    this(table, null);
+  }
+
+  /**
+   * Creates a new connection scan algorithm which only considers connections
+   * running at the given date.
+   *
+   * @param table The timetable data to route on
+   * @param date  The date to route at, i.e. the date of the departure times of
+   *              the queries, or <code>null</code> if all connections should
+   *              be considered running every day
+   */
+  public ConnectionScan(final Timetable table, final LocalDate date) {
     mTable = table;
+    mDate = date;
+    mFrozenTable = table.freeze();
   }
 
   @Override
   public Collection<ICoreNode> computeSearchSpace(final Collection<ICoreNode> sources, final ICoreNode destination) {
-    final int startingTime = ConnectionScan.extractStartingTime(sources.iterator().next());
-    final ConnectionScanResult result = computeShortestPathHelper(sources, destination, startingTime);
+    final int startingTime = ConnectionScan.extractStartingTime(sources);
+    final ConnectionScanResult result =
+        computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
 
     // Collect all visited stops
     final Collection<ICoreNode> searchSpace = new ArrayList<>();
@@ -171,109 +243,59 @@ public final class ConnectionScan extends AShortestPathComputation<ICoreNode, IC
   @Override
   public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
       final ICoreNode destination) {
-    final int startingTime = ConnectionScan.extractStartingTime(sources.iterator().next());
-    final ConnectionScanResult result = computeShortestPathHelper(sources, destination, startingTime);
-    final int[] stopToArrTime = result.getStopToArrTime();
-
+    final int startingTime = ConnectionScan.extractStartingTime(sources);
+    final ConnectionScanResult result =
+        computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
     // Not reachable
-    if (stopToArrTime[destination.getId()] == Integer.MAX_VALUE) {
+    if (result.getStopToArrTime()[destination.getId()] == Integer.MAX_VALUE) {
       return Optional.empty();
     }
 
-    // Construct path
-    final JourneyPointer[] stopToJourney = result.getStopToJourney();
-    final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path = new EdgePath<>(true);
-    int currentStopId = destination.getId();
-    TransitNode currentDestination = createNodeForStop(currentStopId, stopToArrTime[currentStopId]);
-
-    // Backtrack journey pointers from destination to source. Stop when the
-    // initial pointer was found, i.e. a pointer only containing an initial
-    // footpath.
-    // TODO CSA is likely to have a bug, sometimes the pointer induce
-    // a loop which should not be possible. Remove the loop detection after
-    // investigating the issue. Current guess: Induced by footpaths not obeying
-    // the triangle inequality (i.e. its cheaper to visit an already visited
-    // stop again for a cheap footpath than using a direct footpath). This was
-    // fixed in the current version. Check if the issue remains.
-    final Set<Integer> visitedStopsLoopDetection = new LinkedHashSet<>();
-    while (stopToJourney[currentStopId].getEnterConnection() != null) {
-      // TODO Loop detection from here ...
-      if (visitedStopsLoopDetection.contains(currentStopId)) {
-        // Loop detected
-        final Path dumpPath = Paths.get("bugDump.dmp");
-        LOGGER.info("Bug: Detected a loop, aborting computation and returning empty path.");
-        LOGGER.info("Bug data dumped to: " + dumpPath.toAbsolutePath());
-        final List<String> dumpLines = new ArrayList<>();
-        dumpLines.add("#-----------------------------------------------------------------");
-        dumpLines.add("#Bug dump, detected a loop in CSA path extraction.");
-        dumpLines.add("#Query from " + sources + " to " + destination + " with depTime at " + startingTime);
-        dumpLines.add(
-            "#Visited stops in extraction " + visitedStopsLoopDetection + ", visiting " + currentStopId + " again");
-        dumpLines.add("#Relevant journey pointers:");
-        for (final int visitedStop : visitedStopsLoopDetection) {
-          dumpLines.add("\t" + visitedStop + " -> " + stopToJourney[visitedStop]);
-        }
-        dumpLines.add("\t" + currentStopId + " -> " + stopToJourney[currentStopId]);
-        dumpLines.add("#Complete journey pointer dump:");
-        for (int i = 0; i < stopToJourney.length; i++) {
-          dumpLines.add("\t" + i + " -> " + stopToJourney[i]);
-        }
-        try {
-          Files.write(dumpPath, dumpLines, StandardOpenOption.CREATE, StandardOpenOption.APPEND,
-              StandardOpenOption.WRITE);
-        } catch (final IOException e) {
-          e.printStackTrace();
-        }
-        return Optional.empty();
-      }
-      visitedStopsLoopDetection.add(currentStopId);
-      // TODO ... to here
-
-      final JourneyPointer pointer = stopToJourney[currentStopId];
-      final Trip trip = mTable.getTrip(pointer.getExitConnection().getTripId());
-      final Connection exitConnection = pointer.getExitConnection();
-      final Connection enterConnection = pointer.getEnterConnection();
-
-      // Departure of footpath, arrival of trip exit
-      final TransitNode tripPartArr = createNodeForStop(exitConnection.getArrStopId(),
-          ConnectionScan.validateTimeBeforeAfter(exitConnection.getArrTime(), startingTime));
-      ConnectionScan.addEdgeToPath(path, tripPartArr, currentDestination, true);
+    return extractPath(result, destination.getId(), sources, startingTime);
+  }
 
-      // Add the trip
-      TransitNode currentConnectionArr = tripPartArr;
-      final int exitIndex = exitConnection.getSequenceIndex();
-      final int enterIndex = enterConnection.getSequenceIndex();
-      // Traverse the used part of the sequence reversely
-      for (int i = exitIndex; i >= enterIndex; i--) {
-        final Connection connection = trip.getConnectionAtSequenceIndex(i);
+  @Override
+  public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
+      final Map<ICoreNode, Integer> destinationToEgressDuration) {
+    final int[] stopToEgressDuration = new int[mFrozenTable.getAmountOfStops()];
+    Arrays.fill(stopToEgressDuration, Integer.MAX_VALUE);
+    for (final Entry<ICoreNode, Integer> destination : destinationToEgressDuration.entrySet()) {
+      final int stopId = destination.getKey().getId();
+      stopToEgressDuration[stopId] = Math.min(stopToEgressDuration[stopId], destination.getValue().intValue());
+    }
 
-        final TransitNode connectionDep = createNodeForStop(connection.getDepStopId(),
-            ConnectionScan.validateTimeBeforeAfter(connection.getDepTime(), startingTime));
-        ConnectionScan.addEdgeToPath(path, connectionDep, currentConnectionArr, false);
+    final int startingTime = ConnectionScan.extractStartingTime(sources);
+    final ConnectionScanResult result = computeShortestPathHelper(sources, stopToEgressDuration, startingTime);
 
-        // Prepare next connection of the trip
-        currentConnectionArr = connectionDep;
+    // Choose the best reachable destination
+    final int[] stopToArrTime = result.getStopToArrTime();
+    int bestDestinationStop = ConnectionScanResult.NO_INDEX;
+    long bestTargetTime = Long.MAX_VALUE;
+    for (final ICoreNode destination : destinationToEgressDuration.keySet()) {
+      final int stopId = destination.getId();
+      if (stopToArrTime[stopId] == Integer.MAX_VALUE) {
+        continue;
+      }
+      final long targetTime = (long) stopToArrTime[stopId] + stopToEgressDuration[stopId];
+      if (targetTime < bestTargetTime) {
+        bestTargetTime = targetTime;
+        bestDestinationStop = stopId;
       }
-
-      // Prepare next journey pointer
-      currentStopId = enterConnection.getDepStopId();
-      currentDestination = currentConnectionArr;
     }
 
-    // Add the initial footpath from the source to the first connection. This
-    // also handles the special case were the shortest path only consists of a
-    // direct footpath between the source and destination.
-    final Footpath initialFootpath = stopToJourney[currentStopId].getFootpath();
-    final TransitNode sourceNode = createNodeForStop(initialFootpath.getDepStopId(), startingTime);
-    ConnectionScan.addEdgeToPath(path, sourceNode, currentDestination, true);
+    // Not reachable
+    if (bestDestinationStop == ConnectionScanResult.NO_INDEX) {
+      return Optional.empty();
+    }
 
-    return Optional.of(path);
+    return extractPath(result, bestDestinationStop, sources, startingTime);
   }
 
   @Override
   public Optional<Double> computeShortestPathCost(final Collection<ICoreNode> sources, final ICoreNode destination) {
-    final int startingTime = ConnectionScan.extractStartingTime(sources.iterator().next());
-    final ConnectionScanResult result = computeShortestPathHelper(sources, destination, startingTime);
+    final int startingTime = ConnectionScan.extractStartingTime(sources);
+    final ConnectionScanResult result =
+        computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
 
     final int arrTime = result.getStopToArrTime()[destination.getId()];
 
@@ -288,7 +310,7 @@ public final class ConnectionScan extends AShortestPathComputation<ICoreNode, IC
   @Override
   public Map<ICoreNode, ? extends IHasPathCost> computeShortestPathCostsReachable(final Collection<ICoreNode> sources) {
 
-    final int startingTime = ConnectionScan.extractStartingTime(sources.iterator().next());
+    final int startingTime = ConnectionScan.extractStartingTime(sources);
     final ConnectionScanResult result = computeShortestPathHelper(sources, null, startingTime);
 
     // Collect all reachable stops
@@ -312,94 +334,267 @@ public final class ConnectionScan extends AShortestPathComputation<ICoreNode, IC
    * Helper method to compute shortest paths from the given sources to a
    * possible destination.
    *
-   * @param sources         The sources to start computation from, must not be
-   *                        empty.
-   * @param pathDestination The destination to route to or <code>null</code> if
-   *                        routing to all reachable stops is desired
-   * @param startingTime    The time to start routing at in seconds since
-   *                        midnight
-   * @return An object containing the results of the algorithm
+   * @param sources              The sources to start computation from, must
+   *                             not be empty. Each source starts at its own
+   *                             time.
+   * @param stopToEgressDuration An array mapping the destination stops to the
+   *                             duration needed after arriving at them and
+   *                             all other stops to {@link Integer#MAX_VALUE},
+   *                             or <code>null</code> if routing to all
+   *                             reachable stops is desired
+   * @param startingTime         The time to start routing at in seconds since
+   *                             midnight, the times of all sources must not
+   *                             be before it
+   * @return An object containing the results of the algorithm, only valid
+   *         until the next computation of the current thread begins
    */
   private ConnectionScanResult computeShortestPathHelper(final Collection<ICoreNode> sources,
-      final ICoreNode pathDestination, final int startingTime) {
-    final Integer destinationStop;
-    if (pathDestination == null) {
-      destinationStop = null;
+      final int[] stopToEgressDuration, final int startingTime) {
+    // Earliest time at which any destination is finished, including its egress
+    long targetTime = Long.MAX_VALUE;
+
+    // Initialize data-structures, runs of frequency based trips are used like
+    // trips, identified after the trips of the timetable
+    final FrozenFrequencies frequencies = mFrozenTable.getFrequencies();
+    final int amountOfTrips = mFrozenTable.getAmountOfTrips();
+    final int amountOfFrequencyConnections = frequencies.getAmountOfConnections();
+    final ConnectionScanWorkspace workspace = WORKSPACES.get();
+    workspace.begin(mFrozenTable.getAmountOfStops(), amountOfTrips + frequencies.getAmountOfRuns(),
+        amountOfFrequencyConnections);
+
+    // Relax all initial footpaths, each source at its own time
+    for (final ICoreNode source : sources) {
+      final int sourceTime = ConnectionScan.validateTimeBeforeAfter(ConnectionScan.extractTime(source), startingTime);
+      final int footpathEnd = mFrozenTable.getFootpathEnd(source.getId());
+      for (int footpath = mFrozenTable.getFootpathBegin(source.getId()); footpath < footpathEnd; footpath++) {
+        // Only use footpath if it improves the arrival time at the destination
+        final int footpathArrStopId = mFrozenTable.getFootpathArrStopId(footpath);
+        final int footpathTime = sourceTime + mFrozenTable.getFootpathDuration(footpath);
+        if (footpathTime >= workspace.getArrTime(footpathArrStopId)) {
+          continue;
+        }
+        // Add an initial footpath as journey pointer
+        workspace.setJourneyPointer(footpathArrStopId, footpathTime, ConnectionScanResult.NO_INDEX,
+            ConnectionScanResult.NO_INDEX, footpath);
+        if (stopToEgressDuration != null && stopToEgressDuration[footpathArrStopId] != Integer.MAX_VALUE) {
+          targetTime = Math.min(targetTime, (long) footpathTime + stopToEgressDuration[footpathArrStopId]);
+        }
+      }
+    }
+
+    // Resolve the services running at the date and the day after
+    final boolean[] activeServices = mFrozenTable.getActiveServices(mDate);
+    final boolean[] nextDayActiveServices;
+    if (mDate == null) {
+      nextDayActiveServices = activeServices;
     } else {
-      destinationStop = pathDestination.getId();
+      nextDayActiveServices = mFrozenTable.getActiveServices(mDate.plusDays(1));
     }
 
-    // Initialize data-structures
-    final int[] stopToTentativeArrTime = new int[mTable.getGreatestStopId() + 1];
-    Arrays.fill(stopToTentativeArrTime, Integer.MAX_VALUE);
-    final Connection[] tripToEarliestReachableConnection = new Connection[mTable.getGreatestTripId() + 1];
-    final JourneyPointer[] stopToJourney = new JourneyPointer[mTable.getGreatestStopId() + 1];
-
-    // Relax all initial footpaths
-    sources.stream().map(IHasId::getId).flatMap(mTable::getOutgoingFootpaths).forEach(footpath -> {
-      // Only use footpath if it improves the arrival time at the destination
-      final int footpathArrStopId = footpath.getArrStopId();
-      final int footpathTime = startingTime + footpath.getDuration();
-      if (footpathTime >= stopToTentativeArrTime[footpathArrStopId]) {
-        return;
+    // Runs of frequency based trips are enumerated lazily, the heap contains
+    // the next run of every frequency connection keyed by its departure
+    final IndexedMinHeap nextFrequencyRuns = workspace.getNextFrequencyRuns();
+    for (int frequencyConnection = 0; frequencyConnection < amountOfFrequencyConnections; frequencyConnection++) {
+      final int position = frequencies.getFirstPosition(frequencyConnection, startingTime);
+      final int endPosition = frequencies.getEndPosition(frequencyConnection, position);
+      if (position >= endPosition) {
+        continue;
       }
-      stopToTentativeArrTime[footpathArrStopId] = footpathTime;
-      // Add an initial footpath as journey pointer
-      stopToJourney[footpathArrStopId] = new JourneyPointer(null, null, footpath);
-    });
+      workspace.setPosition(frequencyConnection, position, endPosition);
+      nextFrequencyRuns.add(frequencyConnection,
+          frequencies.getDepTime(frequencyConnection) + frequencies.getShift(frequencyConnection, position));
+    }
 
     // Process all connections ordered starting from the first after the
-    // starting time
-    final Iterator<Connection> connections = mTable.getConnectionsStartingSince(startingTime);
-    while (connections.hasNext()) {
-      final Connection connection = connections.next();
-      final int depTime = ConnectionScan.validateTimeBeforeAfter(connection.getDepTime(), startingTime);
-      final int depStopId = connection.getDepStopId();
-      final int arrTime = ConnectionScan.validateTimeBeforeAfter(connection.getArrTime(), startingTime);
-      final int arrStopId = connection.getArrStopId();
-      final int tripId = connection.getTripId();
-
-      // Arrived at destination before this connection. The connection can thus
-      // not improve the time anymore and since connections are processed
+    // starting time, merged with the frequency runs
+    final int amountOfConnections = mFrozenTable.getAmountOfConnections();
+    final int firstConnection = mFrozenTable.getConnectionIndexStartingSince(startingTime);
+    int amountOfScannedConnections = 0;
+    int amountOfIterations = 0;
+    while (amountOfScannedConnections < amountOfConnections || !nextFrequencyRuns.isEmpty()) {
+      // End the scan if the deadline of the query has expired
+      amountOfIterations++;
+      if ((amountOfIterations & QueryDeadline.CHECK_INTERVAL - 1) == 0 && QueryDeadline.isExpired()) {
+        break;
+      }
+
+      int connection = ConnectionScanResult.NO_INDEX;
+      int depTime = Integer.MAX_VALUE;
+      if (amountOfScannedConnections < amountOfConnections) {
+        // Continue with the connections of the next day after the last one
+        connection = firstConnection + amountOfScannedConnections;
+        if (connection >= amountOfConnections) {
+          connection -= amountOfConnections;
+        }
+        depTime = ConnectionScan.validateTimeBeforeAfter(mFrozenTable.getDepTime(connection), startingTime);
+      }
+
+      // Choose whichever departs first, the connection or the next run
+      final boolean isFrequencyRun =
+          !nextFrequencyRuns.isEmpty() && nextFrequencyRuns.getKey(nextFrequencyRuns.peek()) < depTime;
+      final int tripId;
+      final int depStopId;
+      final int arrStopId;
+      final int arrTime;
+      final boolean isActive;
+      int frequencyConnection = ConnectionScanResult.NO_INDEX;
+      int shift = 0;
+      if (isFrequencyRun) {
+        frequencyConnection = nextFrequencyRuns.poll();
+        final int position = workspace.getPosition(frequencyConnection);
+        shift = frequencies.getShift(frequencyConnection, position);
+        depTime = frequencies.getDepTime(frequencyConnection) + shift;
+        arrTime = frequencies.getArrTime(frequencyConnection) + shift;
+        depStopId = frequencies.getDepStopId(frequencyConnection);
+        arrStopId = frequencies.getArrStopId(frequencyConnection);
+        tripId = amountOfTrips + frequencies.getRunIndex(frequencyConnection, position);
+        if (frequencies.isAtDayAfter(frequencyConnection, position)) {
+          isActive = nextDayActiveServices[frequencies.getServiceIndex(frequencyConnection)];
+        } else {
+          isActive = activeServices[frequencies.getServiceIndex(frequencyConnection)];
+        }
+
+        // Enumerate the next run of the frequency connection
+        final int nextPosition = position + 1;
+        final int endPosition = workspace.getEndPosition(frequencyConnection);
+        if (nextPosition < endPosition) {
+          workspace.setPosition(frequencyConnection, nextPosition, endPosition);
+          nextFrequencyRuns.add(frequencyConnection,
+              frequencies.getDepTime(frequencyConnection) + frequencies.getShift(frequencyConnection, nextPosition));
+        }
+      } else {
+        amountOfScannedConnections++;
+        arrTime = ConnectionScan.validateTimeBeforeAfter(mFrozenTable.getArrTime(connection), startingTime);
+        depStopId = mFrozenTable.getDepStopId(connection);
+        arrStopId = mFrozenTable.getArrStopId(connection);
+        tripId = mFrozenTable.getTripId(connection);
+        if (mFrozenTable.getDepTime(connection) < startingTime) {
+          isActive = nextDayActiveServices[mFrozenTable.getServiceIndex(connection)];
+        } else {
+          isActive = activeServices[mFrozenTable.getServiceIndex(connection)];
+        }
+      }
+      // Skip connections not running at their day, connections departing
+      // before the start run at the day after
+      if (!isActive) {
+        continue;
+      }
+
+      // Finished at a destination before this connection. The connection can
+      // thus not improve the time anymore and since connections are processed
       // ordered the algorithm has finished.
-      if (destinationStop != null && stopToTentativeArrTime[destinationStop] <= depTime) {
+      if (targetTime <= depTime) {
         break;
       }
 
-      if (tripToEarliestReachableConnection[tripId] == null) {
+      int enterConnection = workspace.getEarliestReachableConnection(tripId);
+      if (enterConnection == ConnectionScanResult.NO_INDEX) {
         // Only process connections that can be taken due to a previous arrival
         // at the departure stop before the departure time
-        if (stopToTentativeArrTime[depStopId] > depTime) {
+        if (workspace.getArrTime(depStopId) > depTime) {
           continue;
         }
 
         // Trip is used for the first time
-        tripToEarliestReachableConnection[tripId] = connection;
+        if (isFrequencyRun) {
+          connection = workspace.recordFrequencyRun(frequencyConnection, shift);
+        }
+        enterConnection = connection;
+        workspace.setEarliestReachableConnection(tripId, enterConnection);
       }
 
       // Do not relax if connection does not improve arrival time at this stop
-      if (arrTime >= stopToTentativeArrTime[arrStopId]) {
+      if (arrTime >= workspace.getArrTime(arrStopId)) {
         continue;
       }
+      if (isFrequencyRun && connection == ConnectionScanResult.NO_INDEX) {
+        connection = workspace.recordFrequencyRun(frequencyConnection, shift);
+      }
 
       // Relax all outgoing footpaths
-      mTable.getOutgoingFootpaths(arrStopId).forEach(footpath -> {
-        final int footpathArrStopId = footpath.getArrStopId();
-        final int footpathTime = arrTime + footpath.getDuration();
+      final int footpathEnd = mFrozenTable.getFootpathEnd(arrStopId);
+      for (int footpath = mFrozenTable.getFootpathBegin(arrStopId); footpath < footpathEnd; footpath++) {
+        final int footpathArrStopId = mFrozenTable.getFootpathArrStopId(footpath);
+        final int footpathTime = arrTime + mFrozenTable.getFootpathDuration(footpath);
 
         // Only use footpath if it improves the arrival time at the destination
-        if (footpathTime >= stopToTentativeArrTime[footpathArrStopId]) {
-          return;
+        if (footpathTime >= workspace.getArrTime(footpathArrStopId)) {
+          continue;
         }
 
         // Take this footpath
-        stopToTentativeArrTime[footpathArrStopId] = footpathTime;
-        stopToJourney[footpathArrStopId] =
-            new JourneyPointer(tripToEarliestReachableConnection[tripId], connection, footpath);
-      });
+        workspace.setJourneyPointer(footpathArrStopId, footpathTime, enterConnection, connection, footpath);
+        if (stopToEgressDuration != null && stopToEgressDuration[footpathArrStopId] != Integer.MAX_VALUE) {
+          targetTime = Math.min(targetTime, (long) footpathTime + stopToEgressDuration[footpathArrStopId]);
+        }
+      }
+    }
+
+    return workspace.createResult();
+  }
+
+  /**
+   * Creates a connection object for the given journey pointer connection of
+   * the given result.
+   *
+   * @param result     The result containing the journey pointer
+   * @param connection The index of the connection or a recorded frequency run
+   * @return The created connection
+   */
+  private Connection createConnection(final ConnectionScanResult result, final int connection) {
+    if (ConnectionScanResult.isFrequencyRun(connection)) {
+      final int frequencyRun = ConnectionScanResult.toFrequencyRun(connection);
+      final int frequencyConnection = result.getFrequencyRunToConnection()[frequencyRun];
+      final int shift = result.getFrequencyRunToShift()[frequencyRun];
+      final FrozenFrequencies frequencies = mFrozenTable.getFrequencies();
+      return new Connection(frequencies.getTripId(frequencyConnection),
+          frequencies.getSequenceIndex(frequencyConnection), frequencies.getDepStopId(frequencyConnection),
+          frequencies.getArrStopId(frequencyConnection), frequencies.getDepTime(frequencyConnection) + shift,
+          frequencies.getArrTime(frequencyConnection) + shift);
+    }
+    return new Connection(mFrozenTable.getTripId(connection), mFrozenTable.getSequenceIndex(connection),
+        mFrozenTable.getDepStopId(connection), mFrozenTable.getArrStopId(connection),
+        mFrozenTable.getDepTime(connection), mFrozenTable.getArrTime(connection));
+  }
+
+  /**
+   * Creates a journey pointer object for the given stop of the given result.
+   * Intended for debugging purpose only.
+   *
+   * @param result The result containing the journey pointer
+   * @param stopId The ID of the stop to create the pointer for
+   * @return The created journey pointer or <code>null</code> if the stop has
+   *         no journey pointer
+   */
+  private JourneyPointer createJourneyPointer(final ConnectionScanResult result, final int stopId) {
+    final int footpathIndex = result.getStopToFootpath()[stopId];
+    if (footpathIndex == ConnectionScanResult.NO_INDEX) {
+      return null;
     }
+    final Footpath footpath = new Footpath(mFrozenTable.getFootpathDepStopId(footpathIndex),
+        mFrozenTable.getFootpathArrStopId(footpathIndex), mFrozenTable.getFootpathDuration(footpathIndex));
 
-    return new ConnectionScanResult(stopToTentativeArrTime, stopToJourney);
+    final int enterConnection = result.getStopToEnterConnection()[stopId];
+    if (enterConnection == ConnectionScanResult.NO_INDEX) {
+      return new JourneyPointer(null, null, footpath);
+    }
+    return new JourneyPointer(createConnection(result, enterConnection),
+        createConnection(result, result.getStopToExitConnection()[stopId]), footpath);
+  }
+
+  /**
+   * Creates an array mapping stops to their egress duration, for routing to
+   * the given destination only.
+   *
+   * @param destination The destination to route to
+   * @return An array mapping the destination to an egress duration of
+   *         <code>0</code> and all other stops to {@link Integer#MAX_VALUE}
+   */
+  private int[] createEgressDurations(final ICoreNode destination) {
+    final int[] stopToEgressDuration = new int[mFrozenTable.getAmountOfStops()];
+    Arrays.fill(stopToEgressDuration, Integer.MAX_VALUE);
+    stopToEgressDuration[destination.getId()] = 0;
+    return stopToEgressDuration;
   }
 
   /**
@@ -413,4 +608,124 @@ public final class ConnectionScan extends AShortestPathComputation<ICoreNode, IC
     final Stop stop = mTable.getStop(stopId);
     return new TransitNode(stopId, stop.getLatitude(), stop.getLongitude(), time);
   }
+
+  /**
+   * Extracts the shortest path to the given destination from the given result
+   * by backtracking its journey pointers.
+   *
+   * @param result          The result to extract the path from
+   * @param destinationStop The ID of the destination stop, must be reachable
+   * @param sources         The sources the result was computed for
+   * @param startingTime    The time the computation started at in seconds
+   *                        since midnight
+   * @return The extracted path or an empty optional if the journey pointers
+   *         are inconsistent
+   */
+  private Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> extractPath(final ConnectionScanResult result,
+      final int destinationStop, final Collection<ICoreNode> sources, final int startingTime) {
+    final int[] stopToArrTime = result.getStopToArrTime();
+
+    // Construct path
+    final int[] stopToEnterConnection = result.getStopToEnterConnection();
+    final int[] stopToExitConnection = result.getStopToExitConnection();
+    final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path = new EdgePath<>(true);
+    int currentStopId = destinationStop;
+    TransitNode currentDestination = createNodeForStop(currentStopId, stopToArrTime[currentStopId]);
+
+    // Backtrack journey pointers from destination to source. Stop when the
+    // initial pointer was found, i.e. a pointer only containing an initial
+    // footpath.
+    // TODO CSA is likely to have a bug, sometimes the pointer induce
+    // a loop which should not be possible. Remove the loop detection after
+    // investigating the issue. Current guess: Induced by footpaths not obeying
+    // the triangle inequality (i.e. its cheaper to visit an already visited
+    // stop again for a cheap footpath than using a direct footpath). This was
+    // fixed in the current version. Check if the issue remains.
+    final Set<Integer> visitedStopsLoopDetection = new LinkedHashSet<>();
+    while (stopToEnterConnection[currentStopId] != ConnectionScanResult.NO_INDEX) {
+      // TODO Loop detection from here ...
+      if (visitedStopsLoopDetection.contains(currentStopId)) {
+        // Loop detected
+        final Path dumpPath = Paths.get("bugDump.dmp");
+        LOGGER.info("Bug: Detected a loop, aborting computation and returning empty path.");
+        LOGGER.info("Bug data dumped to: " + dumpPath.toAbsolutePath());
+        final List<String> dumpLines = new ArrayList<>();
+        dumpLines.add("#-----------------------------------------------------------------");
+        dumpLines.add("#Bug dump, detected a loop in CSA path extraction.");
+        dumpLines.add("#Query from " + sources + " to " + destinationStop + " with depTime at " + startingTime);
+        dumpLines.add(
+            "#Visited stops in extraction " + visitedStopsLoopDetection + ", visiting " + currentStopId + " again");
+        dumpLines.add("#Relevant journey pointers:");
+        for (final int visitedStop : visitedStopsLoopDetection) {
+          dumpLines.add("\t" + visitedStop + " -> " + createJourneyPointer(result, visitedStop));
+        }
+        dumpLines.add("\t" + currentStopId + " -> " + createJourneyPointer(result, currentStopId));
+        dumpLines.add("#Complete journey pointer dump:");
+        for (int i = 0; i < stopToEnterConnection.length; i++) {
+          dumpLines.add("\t" + i + " -> " + createJourneyPointer(result, i));
+        }
+        try {
+          Files.write(dumpPath, dumpLines, StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+              StandardOpenOption.WRITE);
+        } catch (final IOException e) {
+          e.printStackTrace();
+        }
+        return Optional.empty();
+      }
+      visitedStopsLoopDetection.add(currentStopId);
+      // TODO ... to here
+
+      final int exitPointer = stopToExitConnection[currentStopId];
+      final Connection exitConnection = createConnection(result, exitPointer);
+      final Connection enterConnection = createConnection(result, stopToEnterConnection[currentStopId]);
+      final Trip trip = mTable.getTrip(exitConnection.getTripId());
+      // Runs of frequencies are already shifted to the day they run at, the
+      // template connections of their trip are shifted the same
+      final boolean isFrequencyRun = ConnectionScanResult.isFrequencyRun(exitPointer);
+      int shift = 0;
+      if (isFrequencyRun) {
+        shift = result.getFrequencyRunToShift()[ConnectionScanResult.toFrequencyRun(exitPointer)];
+      }
+
+      // Departure of footpath, arrival of trip exit
+      final TransitNode tripPartArr = createNodeForStop(exitConnection.getArrStopId(),
+          ConnectionScan.validateTimeBeforeAfter(exitConnection.getArrTime(), startingTime));
+      ConnectionScan.addEdgeToPath(path, tripPartArr, currentDestination, true);
+
+      // Add the trip
+      TransitNode currentConnectionArr = tripPartArr;
+      // Traverse the used part of the sequence reversely
+      for (int i = exitConnection.getSequenceIndex(); i >= enterConnection.getSequenceIndex(); i--) {
+        final Connection connection = trip.getConnectionAtSequenceIndex(i);
+
+        final int depTime;
+        if (isFrequencyRun) {
+          depTime = connection.getDepTime() + shift;
+        } else {
+          depTime = ConnectionScan.validateTimeBeforeAfter(connection.getDepTime(), startingTime);
+        }
+        final TransitNode connectionDep = createNodeForStop(connection.getDepStopId(), depTime);
+        ConnectionScan.addEdgeToPath(path, connectionDep, currentConnectionArr, false);
+
+        // Prepare next connection of the trip
+        currentConnectionArr = connectionDep;
+      }
+
+      // Prepare next journey pointer
+      currentStopId = enterConnection.getDepStopId();
+      currentDestination = currentConnectionArr;
+    }
+
+    // Add the initial footpath from the source to the first connection. This
+    // also handles the special case were the shortest path only consists of a
+    // direct footpath between the source and destination. Sources may start
+    // at different times, the time of this source is thus derived from the
+    // initial footpath.
+    final int initialFootpath = result.getStopToFootpath()[currentStopId];
+    final TransitNode sourceNode = createNodeForStop(mFrozenTable.getFootpathDepStopId(initialFootpath),
+        stopToArrTime[currentStopId] - mFrozenTable.getFootpathDuration(initialFootpath));
+    ConnectionScan.addEdgeToPath(path, sourceNode, currentDestination, true);
+
+    return Optional.of(path);
+  }
 }
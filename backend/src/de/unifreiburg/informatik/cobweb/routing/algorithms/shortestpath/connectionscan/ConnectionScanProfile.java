@@ -0,0 +1,384 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+/**
+ * Container that contains the results of a profile connection scan
+ * computation. That is, for every stop the Pareto-optimal pairs of departure
+ * time at the stop and earliest arrival time at the destination.<br>
+ * <br>
+ * The profile of a stop is stored ordered descending in departure time, and
+ * thus also descending in arrival time. All times are in seconds since
+ * midnight of the day the departure range starts at. Times of the next day
+ * exceed the amount of seconds of one day.<br>
+ * <br>
+ * Every entry has a journey pointer, consisting of the footpath to the first
+ * connection and the connections used to enter and exit its trip. They are
+ * encoded like the journey pointers of a {@link ConnectionScanResult}, runs of
+ * frequency based trips are recorded by the profile.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ConnectionScanProfile {
+  /**
+   * List mapping recorded frequency runs to the index of their frequency
+   * connection.
+   */
+  private final IntArrayList mFrequencyRunToConnection;
+  /**
+   * List mapping recorded frequency runs to the shift of the template times of
+   * their frequency connection, in seconds.
+   */
+  private final IntArrayList mFrequencyRunToShift;
+  /**
+   * The last departure time of the range the profile was computed for, in
+   * seconds since midnight, inclusive.
+   */
+  private final int mRangeEnd;
+  /**
+   * The first departure time of the range the profile was computed for, in
+   * seconds since midnight, inclusive.
+   */
+  private final int mRangeStart;
+  /**
+   * An array mapping stops by their IDs to the arrival times of their profile,
+   * or <code>null</code> if the profile is empty.
+   */
+  private final IntArrayList[] mStopToArrTimes;
+  /**
+   * An array mapping stops by their IDs to the departure times of their
+   * profile, or <code>null</code> if the profile is empty.
+   */
+  private final IntArrayList[] mStopToDepTimes;
+  /**
+   * An array mapping stops by their IDs to the connections used to enter the
+   * trips of their profile, or <code>null</code> if the profile is empty.
+   */
+  private final IntArrayList[] mStopToEnterConnections;
+  /**
+   * An array mapping stops by their IDs to the connections used to exit the
+   * trips of their profile, or <code>null</code> if the profile is empty.
+   */
+  private final IntArrayList[] mStopToExitConnections;
+  /**
+   * An array mapping stops by their IDs to the footpaths used to reach the
+   * first connection of their profile, or <code>null</code> if the profile is
+   * empty.
+   */
+  private final IntArrayList[] mStopToFootpaths;
+  /**
+   * An array mapping stops by their IDs to the duration of walking to the
+   * destination in seconds, or {@link Integer#MAX_VALUE} if there is no
+   * footpath.
+   */
+  private final int[] mStopToWalkingDuration;
+  /**
+   * An array mapping stops by their IDs to the footpath used for walking to
+   * the destination, or {@link ConnectionScanResult#NO_INDEX} if there is
+   * none.
+   */
+  private final int[] mStopToWalkingFootpath;
+
+  /**
+   * Creates a new, initially empty, profile container.
+   *
+   * @param amountOfStops The amount of stop IDs
+   * @param rangeStart    The first departure time of the range, in seconds
+   *                      since midnight, inclusive
+   * @param rangeEnd      The last departure time of the range, in seconds since
+   *                      midnight, inclusive
+   */
+  ConnectionScanProfile(final int amountOfStops, final int rangeStart, final int rangeEnd) {
+    mRangeStart = rangeStart;
+    mRangeEnd = rangeEnd;
+    mStopToDepTimes = new IntArrayList[amountOfStops];
+    mStopToArrTimes = new IntArrayList[amountOfStops];
+    mStopToEnterConnections = new IntArrayList[amountOfStops];
+    mStopToExitConnections = new IntArrayList[amountOfStops];
+    mStopToFootpaths = new IntArrayList[amountOfStops];
+    mStopToWalkingDuration = new int[amountOfStops];
+    mStopToWalkingFootpath = new int[amountOfStops];
+    mFrequencyRunToConnection = new IntArrayList();
+    mFrequencyRunToShift = new IntArrayList();
+  }
+
+  /**
+   * Gets the earliest arrival time at the destination when departing at the
+   * given stop not before the given time, using at least one connection.
+   *
+   * @param stopId  The ID of the stop to depart at
+   * @param depTime The time to depart at, in seconds since midnight
+   * @return The earliest arrival time at the destination, in seconds since
+   *         midnight, or {@link Integer#MAX_VALUE} if not reachable
+   */
+  public int getEarliestArrTime(final int stopId, final int depTime) {
+    final int entry = getEntry(stopId, depTime);
+    if (entry == ConnectionScanResult.NO_INDEX) {
+      return Integer.MAX_VALUE;
+    }
+    return mStopToArrTimes[stopId].get(entry);
+  }
+
+  /**
+   * Gets the Pareto-optimal journeys departing at the given stop within the
+   * departure range. Journeys which are not faster than walking to the
+   * destination directly are not included.
+   *
+   * @param stopId The ID of the stop to depart at
+   * @return The profile entries, ordered ascending in departure time
+   */
+  public List<ProfileEntry> getProfile(final int stopId) {
+    final List<ProfileEntry> profile = new ArrayList<>();
+    final IntArrayList depTimes = mStopToDepTimes[stopId];
+    if (depTimes == null) {
+      return profile;
+    }
+    final int walkingDuration = mStopToWalkingDuration[stopId];
+    for (int i = depTimes.size() - 1; i >= 0; i--) {
+      final int depTime = depTimes.get(i);
+      if (depTime < mRangeStart) {
+        continue;
+      }
+      if (depTime > mRangeEnd) {
+        break;
+      }
+      final int arrTime = mStopToArrTimes[stopId].get(i);
+      if (walkingDuration != Integer.MAX_VALUE && arrTime - depTime >= walkingDuration) {
+        continue;
+      }
+      profile.add(new ProfileEntry(depTime, arrTime));
+    }
+    return profile;
+  }
+
+  /**
+   * Gets the duration of walking from the given stop to the destination
+   * directly.
+   *
+   * @param stopId The ID of the stop
+   * @return The walking duration in seconds, or {@link Integer#MAX_VALUE} if
+   *         there is no footpath to the destination
+   */
+  public int getWalkingDuration(final int stopId) {
+    return mStopToWalkingDuration[stopId];
+  }
+
+  /**
+   * Adds the given pair to the profile of the given stop, unless it is
+   * dominated by an existing entry. Entries dominated by the pair are removed.
+   *
+   * @param stopId          The ID of the stop
+   * @param depTime         The departure time at the stop, in seconds since
+   *                        midnight
+   * @param arrTime         The arrival time at the destination, in seconds
+   *                        since midnight
+   * @param enterConnection The journey pointer connection used to enter the
+   *                        trip
+   * @param exitConnection  The journey pointer connection used to exit the
+   *                        trip
+   * @param footpath        The footpath used to reach the enter connection
+   */
+  void addEntry(final int stopId, final int depTime, final int arrTime, final int enterConnection,
+      final int exitConnection, final int footpath) {
+    if (getEarliestArrTime(stopId, depTime) <= arrTime) {
+      return;
+    }
+
+    IntArrayList depTimes = mStopToDepTimes[stopId];
+    if (depTimes == null) {
+      depTimes = new IntArrayList();
+      mStopToDepTimes[stopId] = depTimes;
+      mStopToArrTimes[stopId] = new IntArrayList();
+      mStopToEnterConnections[stopId] = new IntArrayList();
+      mStopToExitConnections[stopId] = new IntArrayList();
+      mStopToFootpaths[stopId] = new IntArrayList();
+    }
+    final IntArrayList arrTimes = mStopToArrTimes[stopId];
+    final IntArrayList enterConnections = mStopToEnterConnections[stopId];
+    final IntArrayList exitConnections = mStopToExitConnections[stopId];
+    final IntArrayList footpaths = mStopToFootpaths[stopId];
+
+    // Entries departing not after the pair are at the end, usually there are
+    // none since entries are added descending in departure time
+    int position = depTimes.size();
+    while (position > 0 && depTimes.get(position - 1) <= depTime) {
+      position--;
+    }
+    // Remove the entries dominated by the pair
+    while (position < depTimes.size() && arrTimes.get(position) >= arrTime) {
+      depTimes.removeAtIndex(position);
+      arrTimes.removeAtIndex(position);
+      enterConnections.removeAtIndex(position);
+      exitConnections.removeAtIndex(position);
+      footpaths.removeAtIndex(position);
+    }
+    depTimes.addAtIndex(position, depTime);
+    arrTimes.addAtIndex(position, arrTime);
+    enterConnections.addAtIndex(position, enterConnection);
+    exitConnections.addAtIndex(position, exitConnection);
+    footpaths.addAtIndex(position, footpath);
+  }
+
+  /**
+   * Gets the arrival time at the destination of the given entry.
+   *
+   * @param stopId The ID of the stop of the entry
+   * @param entry  The index of the entry
+   * @return The arrival time, in seconds since midnight
+   * @see #getEntry(int, int)
+   */
+  int getArrTime(final int stopId, final int entry) {
+    return mStopToArrTimes[stopId].get(entry);
+  }
+
+  /**
+   * Gets the departure time at the stop of the given entry.
+   *
+   * @param stopId The ID of the stop of the entry
+   * @param entry  The index of the entry
+   * @return The departure time, in seconds since midnight
+   * @see #getEntry(int, int)
+   */
+  int getDepTime(final int stopId, final int entry) {
+    return mStopToDepTimes[stopId].get(entry);
+  }
+
+  /**
+   * Gets the journey pointer connection used to enter the trip of the given
+   * entry.
+   *
+   * @param stopId The ID of the stop of the entry
+   * @param entry  The index of the entry
+   * @return The journey pointer connection
+   * @see #getEntry(int, int)
+   */
+  int getEnterConnection(final int stopId, final int entry) {
+    return mStopToEnterConnections[stopId].get(entry);
+  }
+
+  /**
+   * Gets the entry of the given stop arriving earliest at the destination when
+   * departing not before the given time.
+   *
+   * @param stopId  The ID of the stop to depart at
+   * @param depTime The time to depart at, in seconds since midnight
+   * @return The index of the entry or {@link ConnectionScanResult#NO_INDEX} if
+   *         there is none
+   */
+  int getEntry(final int stopId, final int depTime) {
+    final IntArrayList depTimes = mStopToDepTimes[stopId];
+    if (depTimes == null) {
+      return ConnectionScanResult.NO_INDEX;
+    }
+    // The last entry departing not before the time arrives earliest
+    for (int i = depTimes.size() - 1; i >= 0; i--) {
+      if (depTimes.get(i) >= depTime) {
+        return i;
+      }
+    }
+    return ConnectionScanResult.NO_INDEX;
+  }
+
+  /**
+   * Gets the journey pointer connection used to exit the trip of the given
+   * entry.
+   *
+   * @param stopId The ID of the stop of the entry
+   * @param entry  The index of the entry
+   * @return The journey pointer connection
+   * @see #getEntry(int, int)
+   */
+  int getExitConnection(final int stopId, final int entry) {
+    return mStopToExitConnections[stopId].get(entry);
+  }
+
+  /**
+   * Gets the footpath used to reach the enter connection of the given entry.
+   *
+   * @param stopId The ID of the stop of the entry
+   * @param entry  The index of the entry
+   * @return The index of the footpath
+   * @see #getEntry(int, int)
+   */
+  int getFootpath(final int stopId, final int entry) {
+    return mStopToFootpaths[stopId].get(entry);
+  }
+
+  /**
+   * Gets the index of the frequency connection of the given recorded run.
+   *
+   * @param frequencyRun The index of the recorded frequency run
+   * @return The index of the frequency connection
+   * @see ConnectionScanResult#toFrequencyRun(int)
+   */
+  int getFrequencyRunConnection(final int frequencyRun) {
+    return mFrequencyRunToConnection.get(frequencyRun);
+  }
+
+  /**
+   * Gets the shift of the template times of the given recorded run.
+   *
+   * @param frequencyRun The index of the recorded frequency run
+   * @return The shift in seconds
+   * @see ConnectionScanResult#toFrequencyRun(int)
+   */
+  int getFrequencyRunShift(final int frequencyRun) {
+    return mFrequencyRunToShift.get(frequencyRun);
+  }
+
+  /**
+   * Gets the first departure time of the range the profile was computed for.
+   * Times of journey pointers are relative to it.
+   *
+   * @return The start of the range, in seconds since midnight
+   */
+  int getRangeStart() {
+    return mRangeStart;
+  }
+
+  /**
+   * Gets the footpath used for walking from the given stop to the
+   * destination.
+   *
+   * @param stopId The ID of the stop
+   * @return The index of the footpath, or {@link ConnectionScanResult#NO_INDEX}
+   *         if there is none
+   */
+  int getWalkingFootpath(final int stopId) {
+    return mStopToWalkingFootpath[stopId];
+  }
+
+  /**
+   * Records the given run of a frequency connection, such that it can be
+   * referenced by journey pointers.
+   *
+   * @param frequencyConnection The index of the frequency connection
+   * @param shift               The shift of the run in seconds
+   * @return The journey pointer connection referencing the recorded run
+   * @see ConnectionScanResult#toConnection(int)
+   */
+  int recordFrequencyRun(final int frequencyConnection, final int shift) {
+    mFrequencyRunToConnection.add(frequencyConnection);
+    mFrequencyRunToShift.add(shift);
+    return ConnectionScanResult.toConnection(mFrequencyRunToConnection.size() - 1);
+  }
+
+  /**
+   * Sets the walk from the given stop to the destination directly.
+   *
+   * @param stopId          The ID of the stop
+   * @param walkingDuration The walking duration in seconds, or
+   *                        {@link Integer#MAX_VALUE} if there is no footpath
+   *                        to the destination
+   * @param footpath        The footpath used for walking, or
+   *                        {@link ConnectionScanResult#NO_INDEX} if there is
+   *                        none
+   */
+  void setWalk(final int stopId, final int walkingDuration, final int footpath) {
+    mStopToWalkingDuration[stopId] = walkingDuration;
+    mStopToWalkingFootpath[stopId] = footpath;
+  }
+}
@@ -2,34 +2,165 @@ package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connect
 
 /**
  * POJO that contains the results of a connection scan algorithm computation.
- * That is, it contains shortest path information.
+ * That is, it contains shortest path information.<br>
+ * <br>
+ * Journey pointers are stored as indices into the
+ * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable
+ * FrozenTimetable} the computation ran on. A stop which was reached by an
+ * initial footpath only has {@link #NO_INDEX} as enter and exit connection.<br>
+ * <br>
+ * Connections of runs of frequency based trips have no index in the
+ * timetable. Instead, the used runs are recorded by the computation, and
+ * journey pointers to them are encoded as negative values below
+ * {@link #NO_INDEX}, see {@link #isFrequencyRun(int)}.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
 public final class ConnectionScanResult {
+  /**
+   * Index used to encode that no connection or footpath is present.
+   */
+  public static final int NO_INDEX = -1;
+
+  /**
+   * Whether or not the given journey pointer connection refers to a recorded
+   * run of a frequency connection.
+   *
+   * @param connection The journey pointer connection
+   * @return <code>True</code> if the pointer refers to a frequency run,
+   *         <code>false</code> if it is a connection index or
+   *         {@link #NO_INDEX}
+   */
+  public static boolean isFrequencyRun(final int connection) {
+    return connection < NO_INDEX;
+  }
+
+  /**
+   * Encodes the given index of a recorded frequency run as journey pointer
+   * connection.
+   *
+   * @param frequencyRun The index of the recorded frequency run
+   * @return The journey pointer connection
+   */
+  public static int toConnection(final int frequencyRun) {
+    return NO_INDEX - 1 - frequencyRun;
+  }
+
+  /**
+   * Decodes the index of the recorded frequency run from the given journey
+   * pointer connection.
+   *
+   * @param connection The journey pointer connection, must refer to a frequency
+   *                   run
+   * @return The index of the recorded frequency run
+   */
+  public static int toFrequencyRun(final int connection) {
+    return NO_INDEX - 1 - connection;
+  }
+
+  /**
+   * An array mapping recorded frequency runs to the index of their frequency
+   * connection.
+   */
+  private final int[] mFrequencyRunToConnection;
+  /**
+   * An array mapping recorded frequency runs to the shift of the template
+   * times of their frequency connection, in seconds.
+   */
+  private final int[] mFrequencyRunToShift;
   /**
    * An array mapping stops by their IDs to the earliest arrival time in seconds
    * since midnight.
    */
   private final int[] mStopToArrTime;
   /**
-   * An array mapping stops by their IDs to their journey pointers which are
-   * used to construct shortest paths by backtracking.
+   * An array mapping stops by their IDs to the index of the connection used to
+   * enter the trip of their journey pointer.
+   */
+  private final int[] mStopToEnterConnection;
+  /**
+   * An array mapping stops by their IDs to the index of the connection used to
+   * exit the trip of their journey pointer.
+   */
+  private final int[] mStopToExitConnection;
+  /**
+   * An array mapping stops by their IDs to the index of the footpath used after
+   * exiting the trip of their journey pointer.
    */
-  private final JourneyPointer[] mStopToJourney;
+  private final int[] mStopToFootpath;
 
   /**
    * Creates a new connection scan results container.
    *
-   * @param stopToArrTime An array mapping stops by their IDs to the earliest
-   *                      arrival time in seconds since midnight
-   * @param stopToJourney An array mapping stops by their IDs to their journey
-   *                      pointers which are used to construct shortest paths by
-   *                      backtracking
+   * @param stopToArrTime         An array mapping stops by their IDs to the
+   *                              earliest arrival time in seconds since
+   *                              midnight
+   * @param stopToEnterConnection An array mapping stops by their IDs to the
+   *                              index of the connection used to enter the trip
+   * @param stopToExitConnection  An array mapping stops by their IDs to the
+   *                              index of the connection used to exit the trip
+   * @param stopToFootpath        An array mapping stops by their IDs to the
+   *                              index of the footpath used after exiting the
+   *                              trip
    */
-  public ConnectionScanResult(final int[] stopToArrTime, final JourneyPointer[] stopToJourney) {
+  public ConnectionScanResult(final int[] stopToArrTime, final int[] stopToEnterConnection,
+      final int[] stopToExitConnection, final int[] stopToFootpath) {
+    this(stopToArrTime, stopToEnterConnection, stopToExitConnection, stopToFootpath, new int[0], new int[0]);
+  }
+
+  /**
+   * Creates a new connection scan results container with recorded frequency
+   * runs.
+   *
+   * @param stopToArrTime            An array mapping stops by their IDs to the
+   *                                 earliest arrival time in seconds since
+   *                                 midnight
+   * @param stopToEnterConnection    An array mapping stops by their IDs to the
+   *                                 index of the connection used to enter the
+   *                                 trip
+   * @param stopToExitConnection     An array mapping stops by their IDs to the
+   *                                 index of the connection used to exit the
+   *                                 trip
+   * @param stopToFootpath           An array mapping stops by their IDs to the
+   *                                 index of the footpath used after exiting
+   *                                 the trip
+   * @param frequencyRunToConnection An array mapping recorded frequency runs
+   *                                 to the index of their frequency connection
+   * @param frequencyRunToShift      An array mapping recorded frequency runs
+   *                                 to the shift of the template times of
+   *                                 their frequency connection
+   */
+  public ConnectionScanResult(final int[] stopToArrTime, final int[] stopToEnterConnection,
+      final int[] stopToExitConnection, final int[] stopToFootpath, final int[] frequencyRunToConnection,
+      final int[] frequencyRunToShift) {
     mStopToArrTime = stopToArrTime;
-    mStopToJourney = stopToJourney;
+    mStopToEnterConnection = stopToEnterConnection;
+    mStopToExitConnection = stopToExitConnection;
+    mStopToFootpath = stopToFootpath;
+    mFrequencyRunToConnection = frequencyRunToConnection;
+    mFrequencyRunToShift = frequencyRunToShift;
+  }
+
+  /**
+   * Gets an array mapping recorded frequency runs to the index of their
+   * frequency connection.
+   *
+   * @return The array mapping frequency runs to frequency connections
+   * @see #toFrequencyRun(int)
+   */
+  public int[] getFrequencyRunToConnection() {
+    return mFrequencyRunToConnection;
+  }
+
+  /**
+   * Gets an array mapping recorded frequency runs to the shift of the template
+   * times of their frequency connection.
+   *
+   * @return The array mapping frequency runs to shifts in seconds
+   * @see #toFrequencyRun(int)
+   */
+  public int[] getFrequencyRunToShift() {
+    return mFrequencyRunToShift;
   }
 
   /**
@@ -43,12 +174,35 @@ public final class ConnectionScanResult {
   }
 
   /**
-   * Gets an array mapping stops by their IDs to their journey pointers which
-   * are used to construct shortest paths by backtracking.
+   * Gets an array mapping stops by their IDs to the index of the connection
+   * used to enter the trip of their journey pointer.
+   *
+   * @return The array mapping stops to enter connections, {@link #NO_INDEX} if
+   *         not present
+   */
+  public int[] getStopToEnterConnection() {
+    return mStopToEnterConnection;
+  }
+
+  /**
+   * Gets an array mapping stops by their IDs to the index of the connection
+   * used to exit the trip of their journey pointer.
+   *
+   * @return The array mapping stops to exit connections, {@link #NO_INDEX} if
+   *         not present
+   */
+  public int[] getStopToExitConnection() {
+    return mStopToExitConnection;
+  }
+
+  /**
+   * Gets an array mapping stops by their IDs to the index of the footpath used
+   * after exiting the trip of their journey pointer.
    *
-   * @return The array mapping stops to their journey pointers
+   * @return The array mapping stops to footpaths, {@link #NO_INDEX} if not
+   *         present
    */
-  public JourneyPointer[] getStopToJourney() {
-    return mStopToJourney;
+  public int[] getStopToFootpath() {
+    return mStopToFootpath;
   }
 }
@@ -0,0 +1,303 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan;
+
+import java.util.Arrays;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap;
+
+/**
+ * Reusable workspace for a single {@link ConnectionScan} computation.<br>
+ * <br>
+ * Trips, including the runs of frequency based trips, are referred to by their
+ * <code>int</code> identifiers. The earliest reachable connection of every
+ * trip is stored in an array indexed by those identifiers. Instead of
+ * clearing it between computations, every computation uses a new timestamp,
+ * entries are only valid if their timestamp matches the current one.<br>
+ * <br>
+ * The journey pointers of the stops are stored in arrays indexed by stop ID,
+ * which are handed out as part of the {@link ConnectionScanResult}. Only the
+ * stops reached by the previous computation are reset when beginning a new
+ * one. The result is thus only valid until the next computation begins.<br>
+ * <br>
+ * The workspace is not thread-safe and is intended to be reused by a single
+ * thread for many computations.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+final class ConnectionScanWorkspace {
+  /**
+   * The initial capacity of the arrays.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * The current timestamp, entries with this timestamp are valid.
+   */
+  private int mCurrentStamp;
+  /**
+   * An array mapping frequency connections to the end of their positions in
+   * the current computation.
+   */
+  private int[] mFrequencyConnectionToEndPosition;
+  /**
+   * An array mapping frequency connections to the position of their next run
+   * in the current computation.
+   */
+  private int[] mFrequencyConnectionToPosition;
+  /**
+   * A list mapping recorded frequency runs to the index of their frequency
+   * connection.
+   */
+  private final IntArrayList mFrequencyRunToConnection;
+  /**
+   * A list mapping recorded frequency runs to their shift, in seconds.
+   */
+  private final IntArrayList mFrequencyRunToShift;
+  /**
+   * The heap containing the next run of every frequency connection, keyed by
+   * its departure time.
+   */
+  private final IndexedMinHeap mNextFrequencyRuns;
+  /**
+   * The IDs of all stops reached in the current computation.
+   */
+  private final IntArrayList mReachedStops;
+  /**
+   * An array mapping stops by their IDs to the earliest arrival time in seconds
+   * since midnight, or {@link Integer#MAX_VALUE} if not reached.
+   */
+  private int[] mStopToArrTime;
+  /**
+   * An array mapping stops by their IDs to the journey pointer connection used
+   * to enter the trip of their journey pointer.
+   */
+  private int[] mStopToEnterConnection;
+  /**
+   * An array mapping stops by their IDs to the journey pointer connection used
+   * to exit the trip of their journey pointer.
+   */
+  private int[] mStopToExitConnection;
+  /**
+   * An array mapping stops by their IDs to the index of the footpath of their
+   * journey pointer.
+   */
+  private int[] mStopToFootpath;
+  /**
+   * The timestamp of each trip, indexed by trip identifier.
+   */
+  private int[] mTripStamps;
+  /**
+   * The journey pointer connection at which each trip is reachable first,
+   * indexed by trip identifier.
+   */
+  private int[] mTripToEarliestReachableConnection;
+
+  /**
+   * Creates a new initially empty workspace.
+   */
+  ConnectionScanWorkspace() {
+    mFrequencyConnectionToEndPosition = new int[INITIAL_CAPACITY];
+    mFrequencyConnectionToPosition = new int[INITIAL_CAPACITY];
+    mFrequencyRunToConnection = new IntArrayList();
+    mFrequencyRunToShift = new IntArrayList();
+    mNextFrequencyRuns = new IndexedMinHeap(INITIAL_CAPACITY);
+    mReachedStops = new IntArrayList();
+    mStopToArrTime = new int[0];
+    mStopToEnterConnection = new int[0];
+    mStopToExitConnection = new int[0];
+    mStopToFootpath = new int[0];
+    mTripStamps = new int[INITIAL_CAPACITY];
+    mTripToEarliestReachableConnection = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Begins a new computation. Invalidates all entries and the result of the
+   * previous computation.
+   *
+   * @param amountOfStops                The amount of stops of the timetable
+   * @param amountOfTrips                The amount of trip identifiers,
+   *                                     including the runs of frequency based
+   *                                     trips
+   * @param amountOfFrequencyConnections The amount of frequency connections
+   */
+  void begin(final int amountOfStops, final int amountOfTrips, final int amountOfFrequencyConnections) {
+    if (mStopToArrTime.length == amountOfStops) {
+      for (int i = 0; i < mReachedStops.size(); i++) {
+        resetStop(mReachedStops.get(i));
+      }
+    } else {
+      mStopToArrTime = new int[amountOfStops];
+      mStopToEnterConnection = new int[amountOfStops];
+      mStopToExitConnection = new int[amountOfStops];
+      mStopToFootpath = new int[amountOfStops];
+      for (int stopId = 0; stopId < amountOfStops; stopId++) {
+        resetStop(stopId);
+      }
+    }
+    mReachedStops.clear();
+
+    if (mTripStamps.length < amountOfTrips) {
+      final int capacity = Math.max(amountOfTrips, 2 * mTripStamps.length);
+      mTripStamps = Arrays.copyOf(mTripStamps, capacity);
+      mTripToEarliestReachableConnection = Arrays.copyOf(mTripToEarliestReachableConnection, capacity);
+    }
+    mCurrentStamp++;
+    if (mCurrentStamp == Integer.MAX_VALUE) {
+      // Timestamps overflow, reset them once
+      Arrays.fill(mTripStamps, 0);
+      mCurrentStamp = 1;
+    }
+
+    if (mFrequencyConnectionToPosition.length < amountOfFrequencyConnections) {
+      mFrequencyConnectionToEndPosition = new int[amountOfFrequencyConnections];
+      mFrequencyConnectionToPosition = new int[amountOfFrequencyConnections];
+    }
+    mNextFrequencyRuns.clear();
+    mNextFrequencyRuns.ensureCapacity(amountOfFrequencyConnections);
+    mFrequencyRunToConnection.clear();
+    mFrequencyRunToShift.clear();
+  }
+
+  /**
+   * Creates the result of the current computation. The result is only valid
+   * until the next computation begins.
+   *
+   * @return The result of the current computation
+   */
+  ConnectionScanResult createResult() {
+    return new ConnectionScanResult(mStopToArrTime, mStopToEnterConnection, mStopToExitConnection, mStopToFootpath,
+        mFrequencyRunToConnection.toArray(), mFrequencyRunToShift.toArray());
+  }
+
+  /**
+   * Gets the earliest arrival time at the given stop.
+   *
+   * @param stopId The ID of the stop
+   * @return The earliest arrival time in seconds since midnight or
+   *         {@link Integer#MAX_VALUE} if the stop was not reached
+   */
+  int getArrTime(final int stopId) {
+    return mStopToArrTime[stopId];
+  }
+
+  /**
+   * Gets the journey pointer connection at which the given trip is reachable
+   * first.
+   *
+   * @param tripId The identifier of the trip
+   * @return The journey pointer connection or
+   *         {@link ConnectionScanResult#NO_INDEX} if the trip was not reached
+   */
+  int getEarliestReachableConnection(final int tripId) {
+    if (mTripStamps[tripId] != mCurrentStamp) {
+      return ConnectionScanResult.NO_INDEX;
+    }
+    return mTripToEarliestReachableConnection[tripId];
+  }
+
+  /**
+   * Gets the end of the positions of the given frequency connection.
+   *
+   * @param frequencyConnection The index of the frequency connection
+   * @return The end of the positions, exclusive
+   */
+  int getEndPosition(final int frequencyConnection) {
+    return mFrequencyConnectionToEndPosition[frequencyConnection];
+  }
+
+  /**
+   * Gets the heap containing the next run of every frequency connection, keyed
+   * by its departure time.
+   *
+   * @return The heap of the next frequency runs
+   */
+  IndexedMinHeap getNextFrequencyRuns() {
+    return mNextFrequencyRuns;
+  }
+
+  /**
+   * Gets the position of the next run of the given frequency connection.
+   *
+   * @param frequencyConnection The index of the frequency connection
+   * @return The position of the next run
+   */
+  int getPosition(final int frequencyConnection) {
+    return mFrequencyConnectionToPosition[frequencyConnection];
+  }
+
+  /**
+   * Records the given run of a frequency connection, such that it can be
+   * referenced by journey pointers.
+   *
+   * @param frequencyConnection The index of the frequency connection
+   * @param shift               The shift of the run in seconds
+   * @return The journey pointer connection referencing the recorded run
+   * @see ConnectionScanResult#toConnection(int)
+   */
+  int recordFrequencyRun(final int frequencyConnection, final int shift) {
+    mFrequencyRunToConnection.add(frequencyConnection);
+    mFrequencyRunToShift.add(shift);
+    return ConnectionScanResult.toConnection(mFrequencyRunToConnection.size() - 1);
+  }
+
+  /**
+   * Sets the journey pointer connection at which the given trip is reachable
+   * first.
+   *
+   * @param tripId     The identifier of the trip
+   * @param connection The journey pointer connection
+   */
+  void setEarliestReachableConnection(final int tripId, final int connection) {
+    mTripStamps[tripId] = mCurrentStamp;
+    mTripToEarliestReachableConnection[tripId] = connection;
+  }
+
+  /**
+   * Sets the journey pointer of the given stop, improving its earliest arrival
+   * time.
+   *
+   * @param stopId          The ID of the stop
+   * @param arrTime         The arrival time in seconds since midnight
+   * @param enterConnection The journey pointer connection used to enter the
+   *                        trip or {@link ConnectionScanResult#NO_INDEX}
+   * @param exitConnection  The journey pointer connection used to exit the trip
+   *                        or {@link ConnectionScanResult#NO_INDEX}
+   * @param footpath        The index of the footpath used to reach the stop
+   */
+  void setJourneyPointer(final int stopId, final int arrTime, final int enterConnection, final int exitConnection,
+      final int footpath) {
+    if (mStopToArrTime[stopId] == Integer.MAX_VALUE) {
+      mReachedStops.add(stopId);
+    }
+    mStopToArrTime[stopId] = arrTime;
+    mStopToEnterConnection[stopId] = enterConnection;
+    mStopToExitConnection[stopId] = exitConnection;
+    mStopToFootpath[stopId] = footpath;
+  }
+
+  /**
+   * Sets the position of the next run and the end of the positions of the
+   * given frequency connection.
+   *
+   * @param frequencyConnection The index of the frequency connection
+   * @param position            The position of the next run
+   * @param endPosition         The end of the positions, exclusive
+   */
+  void setPosition(final int frequencyConnection, final int position, final int endPosition) {
+    mFrequencyConnectionToPosition[frequencyConnection] = position;
+    mFrequencyConnectionToEndPosition[frequencyConnection] = endPosition;
+  }
+
+  /**
+   * Resets the given stop to be not reached.
+   *
+   * @param stopId The ID of the stop
+   */
+  private void resetStop(final int stopId) {
+    mStopToArrTime[stopId] = Integer.MAX_VALUE;
+    mStopToEnterConnection[stopId] = ConnectionScanResult.NO_INDEX;
+    mStopToExitConnection[stopId] = ConnectionScanResult.NO_INDEX;
+    mStopToFootpath[stopId] = ConnectionScanResult.NO_INDEX;
+  }
+}
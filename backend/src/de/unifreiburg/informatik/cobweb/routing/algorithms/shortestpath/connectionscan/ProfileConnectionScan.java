@@ -0,0 +1,535 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.QueryDeadline;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitNode;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Connection;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenFrequencies;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Trip;
+import de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap;
+
+/**
+ * Implementation of the profile variant of the Connection-Scan algorithm. It
+ * computes, for a given destination and a range of departure times, the
+ * Pareto-optimal pairs of departure and arrival time for all stops of a
+ * timetable.<br>
+ * <br>
+ * Connections are scanned only once, descending in their departure time. A
+ * single scan thus answers the earliest arrival queries for all departure
+ * times of the range, instead of running {@link ConnectionScan} once per
+ * departure time. The semantics of footpaths are the same as for
+ * {@link ConnectionScan}, i.e. transfers, including the first boarding and the
+ * final arrival, use a footpath. Likewise, only connections whose service runs
+ * at the given date, or the day after for connections after midnight, are
+ * scanned. Runs of frequency based trips are enumerated lazily, merged into
+ * the descending scan.<br>
+ * <br>
+ * Like {@link ConnectionScan}, the scan may route to several destinations at
+ * once, each finishing after its own egress duration. The entries of the
+ * profile carry journey pointers, {@link #extractPath(ConnectionScanProfile,
+ * int, int)} builds the journey of an entry from them without another
+ * scan.<br>
+ * <br>
+ * For details refer to:
+ * <ul>
+ * <li><code>Connection Scan Algorithm</code> - Dibbelt J., Pajor T., Strasser B.
+ * and Wagner D. - 2017 -
+ * <a href="https://arxiv.org/abs/1703.05997">arxiv.org/abs/1703.05997</a></li>
+ * </ul>
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ProfileConnectionScan {
+  /**
+   * Adds an edge from the given source to destination to the given path. The
+   * cost of the edge is determined by the time difference of both nodes.
+   *
+   * @param path        The path to add the edge to
+   * @param source      The source node of the edge
+   * @param destination The destination node of the edge
+   * @param walkByFoot  <code>True</code> if the transportation mode of the edge is
+   *                    by foot, <code>false</code> if by tram.
+   */
+  private static void addEdgeToPath(final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path, final TransitNode source,
+      final TransitNode destination, final boolean walkByFoot) {
+    final double cost = destination.getTime() - source.getTime();
+    final ICoreEdge<ICoreNode> edge;
+    if (walkByFoot) {
+      edge = new FootpathTransitEdge<>(0, source, destination, cost);
+    } else {
+      edge = new TransitEdge<>(0, source, destination, cost);
+    }
+    path.addEdge(edge, cost);
+  }
+
+  /**
+   * Shifts the given time of a connection of the trip of a journey pointer to
+   * the day the trip runs at.
+   *
+   * @param time           The time to shift, in seconds since midnight
+   * @param isFrequencyRun Whether the trip is a run of a frequency
+   * @param shift          The shift of the run in seconds, if it is one
+   * @param rangeStart     The start of the scan, in seconds since midnight
+   * @return The shifted time, in seconds since midnight
+   */
+  private static int shiftTime(final int time, final boolean isFrequencyRun, final int shift, final int rangeStart) {
+    if (isFrequencyRun) {
+      return time + shift;
+    }
+    return ConnectionScan.validateTimeBeforeAfter(time, rangeStart);
+  }
+
+  /**
+   * The date to route at or <code>null</code> if all connections should be
+   * considered running every day.
+   */
+  private final LocalDate mDate;
+  /**
+   * The frozen view of the timetable, used for scanning.
+   */
+  private final FrozenTimetable mFrozenTable;
+  /**
+   * The timetable data to route on, used to construct paths.
+   */
+  private final Timetable mTable;
+
+  /**
+   * Creates a new profile connection scan algorithm which considers all
+   * connections running every day.
+   *
+   * @param table The timetable data to route on
+   */
+  public ProfileConnectionScan(final Timetable table) {
+    this(table, null);
+  }
+
+  /**
+   * Creates a new profile connection scan algorithm which only considers
+   * connections running at the given date.
+   *
+   * @param table The timetable data to route on
+   * @param date  The date to route at, i.e. the date of the departure time
+   *              ranges, or <code>null</code> if all connections should be
+   *              considered running every day
+   */
+  public ProfileConnectionScan(final Timetable table, final LocalDate date) {
+    mTable = table;
+    mDate = date;
+    mFrozenTable = table.freeze();
+  }
+
+  /**
+   * Computes the profiles of all stops to the given destination for the given
+   * range of departure times.<br>
+   * <br>
+   * Connections departing up to one day after the start of the range are
+   * considered, like for {@link ConnectionScan}.
+   *
+   * @param destination The destination stop to route to
+   * @param rangeStart  The first departure time of the range, in seconds since
+   *                    midnight, inclusive
+   * @param rangeEnd    The last departure time of the range, in seconds since
+   *                    midnight, inclusive. Must not be before the start, but
+   *                    may exceed the amount of seconds of one day.
+   * @return The profiles of all stops
+   */
+  public ConnectionScanProfile computeProfile(final ICoreNode destination, final int rangeStart,
+      final int rangeEnd) {
+    return computeProfile(Collections.singletonMap(destination, 0), rangeStart, rangeEnd, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Computes the profiles of all stops to the given destinations for the given
+   * range of departure times. A destination is reached after its egress
+   * duration, the arrival times of the profiles include it.<br>
+   * <br>
+   * Only connections departing before the given latest arrival time, and not
+   * later than one day after the start of the range, are scanned. Journeys
+   * arriving after the latest arrival time are thus not part of the profiles.
+   *
+   * @param destinationToEgressDuration Map connecting the destination stops to
+   *                                    route to with the duration needed to
+   *                                    finish from them, in seconds
+   * @param rangeStart                  The first departure time of the range,
+   *                                    in seconds since midnight, inclusive
+   * @param rangeEnd                    The last departure time of the range,
+   *                                    in seconds since midnight, inclusive.
+   *                                    Must not be before the start, but may
+   *                                    exceed the amount of seconds of one
+   *                                    day.
+   * @param latestArrTime               The latest arrival time of interest,
+   *                                    in seconds since midnight, or
+   *                                    {@link Integer#MAX_VALUE} to scan all
+   *                                    connections of the day
+   * @return The profiles of all stops
+   */
+  public ConnectionScanProfile computeProfile(final Map<ICoreNode, Integer> destinationToEgressDuration,
+      final int rangeStart, final int rangeEnd, final int latestArrTime) {
+    final int amountOfStops = mFrozenTable.getAmountOfStops();
+    final ConnectionScanProfile profile = new ConnectionScanProfile(amountOfStops, rangeStart, rangeEnd);
+
+    // Walking durations to the destinations, including their egress
+    final int[] stopToWalkingDuration = new int[amountOfStops];
+    Arrays.fill(stopToWalkingDuration, Integer.MAX_VALUE);
+    final int[] stopToWalkingFootpath = new int[amountOfStops];
+    Arrays.fill(stopToWalkingFootpath, ConnectionScanResult.NO_INDEX);
+    for (final Entry<ICoreNode, Integer> destination : destinationToEgressDuration.entrySet()) {
+      final int destinationStop = destination.getKey().getId();
+      final int egressDuration = destination.getValue().intValue();
+      final int incomingEnd = mFrozenTable.getIncomingFootpathEnd(destinationStop);
+      for (int position = mFrozenTable.getIncomingFootpathBegin(destinationStop); position < incomingEnd;
+          position++) {
+        final int footpath = mFrozenTable.getIncomingFootpathAt(position);
+        final int depStopId = mFrozenTable.getFootpathDepStopId(footpath);
+        final int walkingDuration = mFrozenTable.getFootpathDuration(footpath) + egressDuration;
+        if (walkingDuration < stopToWalkingDuration[depStopId]) {
+          stopToWalkingDuration[depStopId] = walkingDuration;
+          stopToWalkingFootpath[depStopId] = footpath;
+        }
+      }
+    }
+    for (int stopId = 0; stopId < amountOfStops; stopId++) {
+      profile.setWalk(stopId, stopToWalkingDuration[stopId], stopToWalkingFootpath[stopId]);
+    }
+
+    // Runs of frequency based trips are enumerated lazily, descending from the
+    // last run departing before the latest arrival. The heap contains the next
+    // run of every frequency connection keyed by its negated departure.
+    final FrozenFrequencies frequencies = mFrozenTable.getFrequencies();
+    final int amountOfFrequencyConnections = frequencies.getAmountOfConnections();
+    final int[] frequencyConnectionToPosition = new int[amountOfFrequencyConnections];
+    final int[] frequencyConnectionToFirstPosition = new int[amountOfFrequencyConnections];
+    final IndexedMinHeap nextFrequencyRuns = new IndexedMinHeap(amountOfFrequencyConnections);
+    for (int frequencyConnection = 0; frequencyConnection < amountOfFrequencyConnections; frequencyConnection++) {
+      final int firstPosition = frequencies.getFirstPosition(frequencyConnection, rangeStart);
+      final int lastPosition = getEndPositionBefore(frequencyConnection, firstPosition, latestArrTime) - 1;
+      if (lastPosition < firstPosition) {
+        continue;
+      }
+      frequencyConnectionToPosition[frequencyConnection] = lastPosition;
+      frequencyConnectionToFirstPosition[frequencyConnection] = firstPosition;
+      nextFrequencyRuns.add(frequencyConnection,
+          -(frequencies.getDepTime(frequencyConnection) + frequencies.getShift(frequencyConnection, lastPosition)));
+    }
+
+    // Runs are used like trips, identified after the trips of the timetable
+    final int amountOfTrips = mFrozenTable.getAmountOfTrips();
+    final int[] tripToArrTime = new int[amountOfTrips + frequencies.getAmountOfRuns()];
+    Arrays.fill(tripToArrTime, Integer.MAX_VALUE);
+    final int[] tripToExitConnection = new int[tripToArrTime.length];
+
+    // Resolve the services running at the date and the day after
+    final boolean[] activeServices = mFrozenTable.getActiveServices(mDate);
+    final boolean[] nextDayActiveServices;
+    if (mDate == null) {
+      nextDayActiveServices = activeServices;
+    } else {
+      nextDayActiveServices = mFrozenTable.getActiveServices(mDate.plusDays(1));
+    }
+
+    // Process the connections of the day following the range start which
+    // depart before the latest arrival, ordered descending in departure time,
+    // merged with the frequency runs
+    final int amountOfConnections = mFrozenTable.getAmountOfConnections();
+    final int firstConnection = mFrozenTable.getConnectionIndexStartingSince(rangeStart);
+    int amountOfRemainingConnections = countConnectionsBefore(firstConnection, rangeStart, latestArrTime);
+    int amountOfIterations = 0;
+    while (amountOfRemainingConnections > 0 || !nextFrequencyRuns.isEmpty()) {
+      // End the scan if the deadline of the query has expired
+      amountOfIterations++;
+      if ((amountOfIterations & QueryDeadline.CHECK_INTERVAL - 1) == 0 && QueryDeadline.isExpired()) {
+        break;
+      }
+
+      int connection = ConnectionScanResult.NO_INDEX;
+      int depTime = Integer.MIN_VALUE;
+      if (amountOfRemainingConnections > 0) {
+        connection = firstConnection + amountOfRemainingConnections - 1;
+        if (connection >= amountOfConnections) {
+          connection -= amountOfConnections;
+        }
+        depTime = ConnectionScan.validateTimeBeforeAfter(mFrozenTable.getDepTime(connection), rangeStart);
+      }
+
+      // Choose whichever departs last, the connection or the next run
+      final boolean isFrequencyRun =
+          !nextFrequencyRuns.isEmpty() && -nextFrequencyRuns.getKey(nextFrequencyRuns.peek()) > depTime;
+      final int arrTime;
+      final int arrStopId;
+      final int depStopId;
+      final int tripId;
+      final boolean isActive;
+      int frequencyConnection = ConnectionScanResult.NO_INDEX;
+      int shift = 0;
+      if (isFrequencyRun) {
+        frequencyConnection = nextFrequencyRuns.poll();
+        final int position = frequencyConnectionToPosition[frequencyConnection];
+        shift = frequencies.getShift(frequencyConnection, position);
+        depTime = frequencies.getDepTime(frequencyConnection) + shift;
+        arrTime = frequencies.getArrTime(frequencyConnection) + shift;
+        arrStopId = frequencies.getArrStopId(frequencyConnection);
+        depStopId = frequencies.getDepStopId(frequencyConnection);
+        tripId = amountOfTrips + frequencies.getRunIndex(frequencyConnection, position);
+        if (frequencies.isAtDayAfter(frequencyConnection, position)) {
+          isActive = nextDayActiveServices[frequencies.getServiceIndex(frequencyConnection)];
+        } else {
+          isActive = activeServices[frequencies.getServiceIndex(frequencyConnection)];
+        }
+
+        // Enumerate the previous run of the frequency connection
+        final int previousPosition = position - 1;
+        if (previousPosition >= frequencyConnectionToFirstPosition[frequencyConnection]) {
+          frequencyConnectionToPosition[frequencyConnection] = previousPosition;
+          nextFrequencyRuns.add(frequencyConnection, -(frequencies.getDepTime(frequencyConnection)
+              + frequencies.getShift(frequencyConnection, previousPosition)));
+        }
+      } else {
+        amountOfRemainingConnections--;
+        arrTime = ConnectionScan.validateTimeBeforeAfter(mFrozenTable.getArrTime(connection), rangeStart);
+        arrStopId = mFrozenTable.getArrStopId(connection);
+        depStopId = mFrozenTable.getDepStopId(connection);
+        tripId = mFrozenTable.getTripId(connection);
+        if (mFrozenTable.getDepTime(connection) < rangeStart) {
+          isActive = nextDayActiveServices[mFrozenTable.getServiceIndex(connection)];
+        } else {
+          isActive = activeServices[mFrozenTable.getServiceIndex(connection)];
+        }
+      }
+      // Skip connections not running at their day, connections departing
+      // before the start run at the day after
+      if (!isActive) {
+        continue;
+      }
+
+      // Exit and walk to the destination or transfer, unless staying seated is
+      // not slower
+      int bestArrTime = tripToArrTime[tripId];
+      int exitArrTime = profile.getEarliestArrTime(arrStopId, arrTime);
+      final int walkingDuration = stopToWalkingDuration[arrStopId];
+      if (walkingDuration != Integer.MAX_VALUE) {
+        exitArrTime = Math.min(exitArrTime, arrTime + walkingDuration);
+      }
+      if (exitArrTime < bestArrTime) {
+        // Runs of frequencies referenced by journey pointers are recorded
+        if (isFrequencyRun) {
+          connection = profile.recordFrequencyRun(frequencyConnection, shift);
+        }
+        bestArrTime = exitArrTime;
+        tripToExitConnection[tripId] = connection;
+      }
+      if (bestArrTime == Integer.MAX_VALUE) {
+        continue;
+      }
+      tripToArrTime[tripId] = bestArrTime;
+      if (isFrequencyRun && connection == ConnectionScanResult.NO_INDEX) {
+        connection = profile.recordFrequencyRun(frequencyConnection, shift);
+      }
+
+      // Stops from which the connection can be reached by foot
+      final int footpathEnd = mFrozenTable.getIncomingFootpathEnd(depStopId);
+      for (int position = mFrozenTable.getIncomingFootpathBegin(depStopId); position < footpathEnd; position++) {
+        final int footpath = mFrozenTable.getIncomingFootpathAt(position);
+        profile.addEntry(mFrozenTable.getFootpathDepStopId(footpath),
+            depTime - mFrozenTable.getFootpathDuration(footpath), bestArrTime, connection,
+            tripToExitConnection[tripId], footpath);
+      }
+    }
+
+    return profile;
+  }
+
+  /**
+   * Extracts the journey of the given profile which arrives earliest when
+   * departing at the given stop not before the given time. The journey is
+   * built from the journey pointers of the profile, it starts at the given
+   * stop and time and ends at the destination the journey walks to.
+   *
+   * @param profile    The profile to extract the journey from, computed by
+   *                   this algorithm
+   * @param sourceStop The ID of the stop to depart at
+   * @param depTime    The time to depart at, in seconds since midnight
+   * @return The path of the journey or an empty optional if the stop has no
+   *         journey departing not before the time
+   */
+  public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> extractPath(final ConnectionScanProfile profile,
+      final int sourceStop, final int depTime) {
+    int entry = profile.getEntry(sourceStop, depTime);
+    if (entry == ConnectionScanResult.NO_INDEX) {
+      return Optional.empty();
+    }
+    final int rangeStart = profile.getRangeStart();
+
+    // Follow the journey pointers from the source to the destination. A
+    // journey uses less trips than there are stops, otherwise the pointers
+    // induce a loop.
+    final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path = new EdgePath<>();
+    int currentStopId = sourceStop;
+    TransitNode currentSource = createNodeForStop(sourceStop, depTime);
+    for (int amountOfTrips = 0; amountOfTrips < mFrozenTable.getAmountOfStops(); amountOfTrips++) {
+      final int exitPointer = profile.getExitConnection(currentStopId, entry);
+      final Connection exitConnection = createConnection(profile, exitPointer);
+      final Connection enterConnection = createConnection(profile, profile.getEnterConnection(currentStopId, entry));
+      final Trip trip = mTable.getTrip(exitConnection.getTripId());
+      // Runs of frequencies are already shifted to the day they run at, the
+      // template connections of their trip are shifted the same
+      final boolean isFrequencyRun = ConnectionScanResult.isFrequencyRun(exitPointer);
+      int shift = 0;
+      if (isFrequencyRun) {
+        shift = profile.getFrequencyRunShift(ConnectionScanResult.toFrequencyRun(exitPointer));
+      }
+
+      // Walk to the trip, including waiting for it
+      final Connection firstConnection = trip.getConnectionAtSequenceIndex(enterConnection.getSequenceIndex());
+      TransitNode tripPartArr = createNodeForStop(firstConnection.getDepStopId(),
+          ProfileConnectionScan.shiftTime(firstConnection.getDepTime(), isFrequencyRun, shift, rangeStart));
+      ProfileConnectionScan.addEdgeToPath(path, currentSource, tripPartArr, true);
+
+      // Add the used part of the trip, connections end at the departure of
+      // their successor to include the dwell time
+      for (int i = enterConnection.getSequenceIndex(); i <= exitConnection.getSequenceIndex(); i++) {
+        final TransitNode connectionArr;
+        if (i < exitConnection.getSequenceIndex()) {
+          final Connection nextConnection = trip.getConnectionAtSequenceIndex(i + 1);
+          connectionArr = createNodeForStop(nextConnection.getDepStopId(),
+              ProfileConnectionScan.shiftTime(nextConnection.getDepTime(), isFrequencyRun, shift, rangeStart));
+        } else {
+          connectionArr = createNodeForStop(exitConnection.getArrStopId(), ProfileConnectionScan
+              .shiftTime(trip.getConnectionAtSequenceIndex(i).getArrTime(), isFrequencyRun, shift, rangeStart));
+        }
+        ProfileConnectionScan.addEdgeToPath(path, tripPartArr, connectionArr, false);
+        tripPartArr = connectionArr;
+      }
+
+      // Walk to the destination or continue with the next journey
+      currentStopId = exitConnection.getArrStopId();
+      final int arrTime = tripPartArr.getTime();
+      final int walkingDuration = profile.getWalkingDuration(currentStopId);
+      entry = profile.getEntry(currentStopId, arrTime);
+      if (walkingDuration != Integer.MAX_VALUE && (entry == ConnectionScanResult.NO_INDEX
+          || arrTime + walkingDuration <= profile.getArrTime(currentStopId, entry))) {
+        final int footpath = profile.getWalkingFootpath(currentStopId);
+        final TransitNode destinationNode = createNodeForStop(mFrozenTable.getFootpathArrStopId(footpath),
+            arrTime + mFrozenTable.getFootpathDuration(footpath));
+        ProfileConnectionScan.addEdgeToPath(path, tripPartArr, destinationNode, true);
+        return Optional.of(path);
+      }
+      if (entry == ConnectionScanResult.NO_INDEX) {
+        break;
+      }
+      currentSource = tripPartArr;
+    }
+
+    // The journey pointers are inconsistent
+    return Optional.empty();
+  }
+
+  /**
+   * Counts the connections, in the order they are scanned when starting at the
+   * given connection, which depart before the given time.
+   *
+   * @param firstConnection The index of the first connection departing not
+   *                        before the start
+   * @param rangeStart      The start of the scan, in seconds since midnight
+   * @param latestDepTime   The time to count departures before, in seconds
+   *                        since midnight
+   * @return The amount of connections departing before the time
+   */
+  private int countConnectionsBefore(final int firstConnection, final int rangeStart, final int latestDepTime) {
+    final int amountOfConnections = mFrozenTable.getAmountOfConnections();
+    // Connections are ordered ascending in their validated departure time
+    int low = 0;
+    int high = amountOfConnections;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      int connection = firstConnection + middle;
+      if (connection >= amountOfConnections) {
+        connection -= amountOfConnections;
+      }
+      if (ConnectionScan.validateTimeBeforeAfter(mFrozenTable.getDepTime(connection), rangeStart) < latestDepTime) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Creates a connection object for the given journey pointer connection of
+   * the given profile.
+   *
+   * @param profile    The profile containing the journey pointer
+   * @param connection The index of the connection or a recorded frequency run
+   * @return The created connection
+   */
+  private Connection createConnection(final ConnectionScanProfile profile, final int connection) {
+    if (ConnectionScanResult.isFrequencyRun(connection)) {
+      final int frequencyRun = ConnectionScanResult.toFrequencyRun(connection);
+      final int frequencyConnection = profile.getFrequencyRunConnection(frequencyRun);
+      final int shift = profile.getFrequencyRunShift(frequencyRun);
+      final FrozenFrequencies frequencies = mFrozenTable.getFrequencies();
+      return new Connection(frequencies.getTripId(frequencyConnection),
+          frequencies.getSequenceIndex(frequencyConnection), frequencies.getDepStopId(frequencyConnection),
+          frequencies.getArrStopId(frequencyConnection), frequencies.getDepTime(frequencyConnection) + shift,
+          frequencies.getArrTime(frequencyConnection) + shift);
+    }
+    return new Connection(mFrozenTable.getTripId(connection), mFrozenTable.getSequenceIndex(connection),
+        mFrozenTable.getDepStopId(connection), mFrozenTable.getArrStopId(connection),
+        mFrozenTable.getDepTime(connection), mFrozenTable.getArrTime(connection));
+  }
+
+  /**
+   * Creates and returns a node for the given stop at the given time.
+   *
+   * @param stopId The ID of the stop to create a node for
+   * @param time   The time at the stop to create a node for
+   * @return The created node
+   */
+  private TransitNode createNodeForStop(final int stopId, final int time) {
+    final Stop stop = mTable.getStop(stopId);
+    return new TransitNode(stopId, stop.getLatitude(), stop.getLongitude(), time);
+  }
+
+  /**
+   * Gets the position after the last run of the given frequency connection,
+   * enumerated when starting at the given position, which departs before the
+   * given time.
+   *
+   * @param frequencyConnection The index of the frequency connection
+   * @param firstPosition       The position the enumeration starts at
+   * @param latestDepTime       The time to enumerate departures before, in
+   *                            seconds since midnight
+   * @return The last position, exclusive
+   */
+  private int getEndPositionBefore(final int frequencyConnection, final int firstPosition,
+      final int latestDepTime) {
+    final FrozenFrequencies frequencies = mFrozenTable.getFrequencies();
+    final int depTime = frequencies.getDepTime(frequencyConnection);
+    // Runs are enumerated ascending in their departure time
+    int low = firstPosition;
+    int high = frequencies.getEndPosition(frequencyConnection, firstPosition);
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (depTime + frequencies.getShift(frequencyConnection, middle) < latestDepTime) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,98 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan;
+
+/**
+ * POJO that represents an entry of a departure time profile. That is a
+ * departure time at a stop together with the earliest arrival time at the
+ * destination when departing not before it.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ProfileEntry {
+  /**
+   * The earliest arrival time at the destination, in seconds since midnight.
+   */
+  private final int mArrTime;
+  /**
+   * The departure time, in seconds since midnight.
+   */
+  private final int mDepTime;
+
+  /**
+   * Creates a new profile entry.
+   *
+   * @param depTime The departure time, in seconds since midnight
+   * @param arrTime The earliest arrival time at the destination, in seconds
+   *                since midnight
+   */
+  public ProfileEntry(final int depTime, final int arrTime) {
+    mDepTime = depTime;
+    mArrTime = arrTime;
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#equals(java.lang.Object)
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (!(obj instanceof ProfileEntry)) {
+      return false;
+    }
+    final ProfileEntry other = (ProfileEntry) obj;
+    if (mArrTime != other.mArrTime) {
+      return false;
+    }
+    if (mDepTime != other.mDepTime) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Gets the earliest arrival time at the destination.
+   *
+   * @return The arrival time, in seconds since midnight
+   */
+  public int getArrTime() {
+    return mArrTime;
+  }
+
+  /**
+   * Gets the departure time.
+   *
+   * @return The departure time, in seconds since midnight
+   */
+  public int getDepTime() {
+    return mDepTime;
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + mArrTime;
+    result = prime * result + mDepTime;
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("ProfileEntry [depTime=");
+    builder.append(mDepTime);
+    builder.append(", arrTime=");
+    builder.append(mArrTime);
+    builder.append("]");
+    return builder.toString();
+  }
+}
@@ -0,0 +1,517 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.IMetric;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.AShortestPathComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EmptyPath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.INode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+
+/**
+ * Implementation of the bidirectional ALT algorithm, that is A-star using
+ * landmarks, searching from the sources and from the destination
+ * simultaneously.<br>
+ * <br>
+ * Both searches use the average of the forward and the backward potential
+ * given by the metric. The averaged potentials are consistent for both
+ * directions at once, which allows to stop the computation as soon as the
+ * smallest keys of both searches together exceed the length of the best path
+ * seen so far. The backward search follows incoming edges and does not reverse
+ * the graph.<br>
+ * <br>
+ * The metric is typically a landmark metric, but any metric that gives lower
+ * bounds of shortest path distances and is consistent can be used. Only
+ * point-to-point queries are supported,
+ * {@link #computeShortestPathCostsReachable(Collection)} is not.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ * @param <N> Type of the node
+ * @param <E> Type of the edge
+ */
+public final class BidirectionalAlt<N extends INode, E extends IEdge<N>> extends AShortestPathComputation<N, E> {
+  /**
+   * Value used to encode that a node has no index.
+   */
+  private static final int NO_INDEX = -1;
+  /**
+   * The workspaces of each thread, the workspace of the forward search followed
+   * by the workspace of the backward search.
+   */
+  private static final ThreadLocal<DijkstraWorkspace[]> WORKSPACES =
+      ThreadLocal.withInitial(() -> new DijkstraWorkspace[] { new DijkstraWorkspace(), new DijkstraWorkspace() });
+
+  /**
+   * The graph to operate on.
+   */
+  private final IGraph<N, E> mGraph;
+  /**
+   * The metric providing lower bounds of shortest path distances.
+   */
+  private final IMetric<N> mMetric;
+  /**
+   * The graph to operate on if it provides dense node and edge indices,
+   * <code>null</code> otherwise.
+   */
+  private final StaticRoadGraph mStaticGraph;
+
+  /**
+   * Creates a new bidirectional ALT instance which operates on the given graph.
+   *
+   * @param graph  The graph to operate on
+   * @param metric The metric providing lower bounds of shortest path distances,
+   *               typically a landmark metric
+   */
+  public BidirectionalAlt(final IGraph<N, E> graph, final IMetric<N> metric) {
+    mGraph = graph;
+    mMetric = metric;
+    if (graph instanceof StaticRoadGraph) {
+      mStaticGraph = (StaticRoadGraph) graph;
+    } else {
+      mStaticGraph = null;
+    }
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.
+   * IShortestPathComputation# computeSearchSpace(java.util.Collection,
+   * de.unifreiburg.informatik.cobweb.routing.model.graph.INode)
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public Collection<N> computeSearchSpace(final Collection<N> sources, final N destination) {
+    final Search search = new Search(sources, destination);
+    try {
+      search.run();
+      final Collection<N> searchSpace =
+          new ArrayList<>(search.mForward.getAmountOfVisited() + search.mBackward.getAmountOfVisited());
+      for (int i = 0; i < search.mForward.getAmountOfVisited(); i++) {
+        searchSpace.add((N) search.mForward.getNode(search.mForward.getVisited(i)));
+      }
+      for (int i = 0; i < search.mBackward.getAmountOfVisited(); i++) {
+        searchSpace.add((N) search.mBackward.getNode(search.mBackward.getVisited(i)));
+      }
+      return searchSpace;
+    } finally {
+      search.end();
+    }
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.
+   * IShortestPathComputation# computeShortestPath(java.util.Collection,
+   * de.unifreiburg.informatik.cobweb.routing.model.graph.INode)
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public Optional<IPath<N, E>> computeShortestPath(final Collection<N> sources, final N destination) {
+    final Search search = new Search(sources, destination);
+    try {
+      search.run();
+      if (search.mMeetingForward == NO_INDEX) {
+        return Optional.empty();
+      }
+
+      final DijkstraWorkspace forward = search.mForward;
+      final DijkstraWorkspace backward = search.mBackward;
+      if (forward.getParent(search.mMeetingForward) == DijkstraWorkspace.NO_PARENT
+          && backward.getParent(search.mMeetingBackward) == DijkstraWorkspace.NO_PARENT) {
+        // Destination is already a source node
+        return Optional.of(new EmptyPath<>(destination));
+      }
+
+      // Follow the forward pointers from the meeting node to one of the sources
+      final List<E> forwardEdges = new ArrayList<>();
+      final List<Double> forwardCosts = new ArrayList<>();
+      int currentIndex = search.mMeetingForward;
+      int parentIndex = forward.getParent(currentIndex);
+      while (parentIndex != DijkstraWorkspace.NO_PARENT) {
+        forwardEdges.add((E) forward.getParentEdge(currentIndex));
+        forwardCosts.add(forward.getDistance(currentIndex) - forward.getDistance(parentIndex));
+        currentIndex = parentIndex;
+        parentIndex = forward.getParent(currentIndex);
+      }
+      Collections.reverse(forwardEdges);
+      Collections.reverse(forwardCosts);
+
+      final EdgePath<N, E> path = new EdgePath<>();
+      for (int i = 0; i < forwardEdges.size(); i++) {
+        path.addEdge(forwardEdges.get(i), forwardCosts.get(i));
+      }
+
+      // Follow the backward pointers from the meeting node to the destination
+      currentIndex = search.mMeetingBackward;
+      parentIndex = backward.getParent(currentIndex);
+      while (parentIndex != DijkstraWorkspace.NO_PARENT) {
+        path.addEdge((E) backward.getParentEdge(currentIndex),
+            backward.getDistance(currentIndex) - backward.getDistance(parentIndex));
+        currentIndex = parentIndex;
+        parentIndex = backward.getParent(currentIndex);
+      }
+      return Optional.of(path);
+    } finally {
+      search.end();
+    }
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.
+   * IShortestPathComputation# computeShortestPathCost(java.util.Collection,
+   * de.unifreiburg.informatik.cobweb.routing.model.graph.INode)
+   */
+  @Override
+  public Optional<Double> computeShortestPathCost(final Collection<N> sources, final N destination) {
+    final Search search = new Search(sources, destination);
+    try {
+      search.run();
+      if (search.mMeetingForward == NO_INDEX) {
+        return Optional.empty();
+      }
+      return Optional.of(search.mBestDistance);
+    } finally {
+      search.end();
+    }
+  }
+
+  /**
+   * Not supported, the bidirectional search needs a destination.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public Map<N, ? extends IHasPathCost> computeShortestPathCostsReachable(final Collection<N> sources)
+      throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Acquires the workspaces for a computation of the current thread. The
+   * workspaces must be released by {@link DijkstraWorkspace#end()} after the
+   * computation.
+   *
+   * @return The workspace of the forward search followed by the workspace of
+   *         the backward search
+   */
+  private DijkstraWorkspace[] acquireWorkspaces() {
+    DijkstraWorkspace[] workspaces = WORKSPACES.get();
+    if (workspaces[0].isInUse()) {
+      // Nested computation on the same thread, can not share the workspaces
+      workspaces = new DijkstraWorkspace[] { new DijkstraWorkspace(), new DijkstraWorkspace() };
+    }
+    final int fixedCapacity;
+    if (mStaticGraph == null) {
+      fixedCapacity = 0;
+    } else {
+      fixedCapacity = mStaticGraph.size();
+    }
+    workspaces[0].begin(fixedCapacity);
+    workspaces[1].begin(fixedCapacity);
+    return workspaces;
+  }
+
+  /**
+   * Gets the index of the given node in the given workspace. Uses the index
+   * provided by the graph, if present.
+   *
+   * @param workspace The workspace to get the index in
+   * @param node      The node to get the index of
+   * @param assign    Whether or not to assign a new index to the node if it
+   *                  has none yet
+   * @return The index of the node or <code>-1</code> if it has none and was
+   *         not assigned one
+   */
+  private int getIndex(final DijkstraWorkspace workspace, final N node, final boolean assign) {
+    if (mStaticGraph != null && node instanceof ICoreNode) {
+      final int index = mStaticGraph.getIndexOfNode((ICoreNode) node);
+      if (index != NO_INDEX) {
+        return index;
+      }
+    }
+    if (assign) {
+      return workspace.getForeignIndex(node);
+    }
+    return workspace.findForeignIndex(node);
+  }
+
+  /**
+   * A single bidirectional search from the sources to the destination.
+   *
+   * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+   */
+  private final class Search {
+    /**
+     * The workspace of the backward search.
+     */
+    private final DijkstraWorkspace mBackward;
+    /**
+     * The length of the shortest path seen so far.
+     */
+    private double mBestDistance;
+    /**
+     * The destination of the search.
+     */
+    private final N mDestination;
+    /**
+     * The workspace of the forward search.
+     */
+    private final DijkstraWorkspace mForward;
+    /**
+     * The index of the node where the shortest path seen so far meets, in the
+     * backward workspace.
+     */
+    private int mMeetingBackward;
+    /**
+     * The index of the node where the shortest path seen so far meets, in the
+     * forward workspace, or <code>-1</code> if no path was seen yet.
+     */
+    private int mMeetingForward;
+    /**
+     * The sources of the search.
+     */
+    private final Collection<N> mSources;
+
+    /**
+     * Creates a new search from the given sources to the given destination.
+     * Acquires workspaces, which must be released by {@link #end()}.
+     *
+     * @param sources     The sources of the search
+     * @param destination The destination of the search
+     */
+    Search(final Collection<N> sources, final N destination) {
+      mSources = sources;
+      mDestination = destination;
+      final DijkstraWorkspace[] workspaces = acquireWorkspaces();
+      mForward = workspaces[0];
+      mBackward = workspaces[1];
+      mBestDistance = Double.POSITIVE_INFINITY;
+      mMeetingForward = NO_INDEX;
+      mMeetingBackward = NO_INDEX;
+    }
+
+    /**
+     * Releases the workspaces of the search.
+     */
+    void end() {
+      mForward.end();
+      mBackward.end();
+    }
+
+    /**
+     * Runs the search. Afterwards the meeting node and the best distance are
+     * set if the destination is reachable.
+     */
+    void run() {
+      // Sources are initial active nodes of the forward search, the destination
+      // of the backward search
+      for (final N source : mSources) {
+        final int sourceIndex = getIndex(mForward, source, true);
+        if (mForward.isVisited(sourceIndex)) {
+          continue;
+        }
+        mForward.visit(sourceIndex, source, DijkstraWorkspace.NO_PARENT, null, 0.0, getPotential(source));
+      }
+      final int destinationIndex = getIndex(mBackward, mDestination, true);
+      mBackward.visit(destinationIndex, mDestination, DijkstraWorkspace.NO_PARENT, null, 0.0,
+          -getPotential(mDestination));
+      updateBestDistance(mBackward, mForward, false, destinationIndex, mDestination, 0.0);
+
+      // Alternate between both searches, always continuing the one with the
+      // smaller key. Stop once both keys together can not improve the best
+      // path anymore.
+      while (true) {
+        final double forwardKey = getSmallestKey(mForward);
+        final double backwardKey = getSmallestKey(mBackward);
+        if (forwardKey + backwardKey >= mBestDistance) {
+          break;
+        }
+
+        if (forwardKey <= backwardKey) {
+          settleAndRelax(mForward, mBackward, true);
+        } else {
+          settleAndRelax(mBackward, mForward, false);
+        }
+      }
+    }
+
+    /**
+     * Gets the averaged potential of the given node, used as estimate by the
+     * forward search. The backward search uses the negated value.
+     *
+     * @param node The node to get the potential of
+     * @return The potential of the node
+     */
+    private double getPotential(final N node) {
+      double distanceFromSources = Double.POSITIVE_INFINITY;
+      for (final N source : mSources) {
+        distanceFromSources = Math.min(distanceFromSources, mMetric.distance(source, node));
+      }
+      if (distanceFromSources == Double.POSITIVE_INFINITY) {
+        distanceFromSources = 0.0;
+      }
+      return (mMetric.distance(node, mDestination) - distanceFromSources) / 2;
+    }
+
+    /**
+     * Gets the smallest key of all active nodes of the given workspace.
+     *
+     * @param workspace The workspace of the search
+     * @return The smallest key or {@link Double#POSITIVE_INFINITY} if there are
+     *         no active nodes
+     */
+    private double getSmallestKey(final DijkstraWorkspace workspace) {
+      if (!workspace.hasActiveNodes()) {
+        return Double.POSITIVE_INFINITY;
+      }
+      return workspace.getSmallestKey();
+    }
+
+    /**
+     * Relaxes the given edge.
+     *
+     * @param current           The workspace of the search relaxing the edge
+     * @param other             The workspace of the opposite search
+     * @param isForward         Whether the relaxing search is the forward
+     *                          search
+     * @param index             The index of the settled node
+     * @param tentativeDistance The tentative distance of the settled node
+     * @param edge              The edge to relax
+     * @param neighbor          The node reached by the edge
+     * @param neighborIndex     The index of the reached node or <code>-1</code>
+     *                          if not known yet
+     */
+    private void relaxEdge(final DijkstraWorkspace current, final DijkstraWorkspace other, final boolean isForward,
+        final int index, final double tentativeDistance, final E edge, final N neighbor, final int neighborIndex) {
+      final int destinationIndex;
+      if (neighborIndex == NO_INDEX) {
+        destinationIndex = getIndex(current, neighbor, true);
+      } else {
+        destinationIndex = neighborIndex;
+      }
+      if (current.isSettled(destinationIndex)) {
+        return;
+      }
+
+      final double distance = tentativeDistance + edge.getCost();
+      if (!current.isVisited(destinationIndex)) {
+        final double potential = getPotential(neighbor);
+        current.visit(destinationIndex, neighbor, index, edge, distance, isForward ? potential : -potential);
+      } else if (distance < current.getDistance(destinationIndex)) {
+        current.improve(destinationIndex, index, edge, distance);
+      } else {
+        return;
+      }
+      updateBestDistance(current, other, isForward, destinationIndex, neighbor, distance);
+    }
+
+    /**
+     * Settles the next node of the given search and relaxes its edges.
+     *
+     * @param current   The workspace of the search to advance
+     * @param other     The workspace of the opposite search
+     * @param isForward Whether the search to advance is the forward search
+     */
+    @SuppressWarnings("unchecked")
+    private void settleAndRelax(final DijkstraWorkspace current, final DijkstraWorkspace other,
+        final boolean isForward) {
+      final int index = current.settleNext();
+      final double tentativeDistance = current.getDistance(index);
+
+      if (mStaticGraph != null && index < mStaticGraph.size()) {
+        final int end;
+        int position;
+        if (isForward) {
+          position = mStaticGraph.getOutgoingBegin(index);
+          end = mStaticGraph.getOutgoingEnd(index);
+        } else {
+          position = mStaticGraph.getIncomingBegin(index);
+          end = mStaticGraph.getIncomingEnd(index);
+        }
+        for (; position < end; position++) {
+          final int edgeIndex;
+          final int neighborIndex;
+          if (isForward) {
+            edgeIndex = mStaticGraph.getOutgoingEdgeAt(position);
+            neighborIndex = mStaticGraph.getEdgeDestination(edgeIndex);
+          } else {
+            edgeIndex = mStaticGraph.getIncomingEdgeAt(position);
+            neighborIndex = mStaticGraph.getEdgeSource(edgeIndex);
+          }
+          relaxEdge(current, other, isForward, index, tentativeDistance, (E) mStaticGraph.getEdge(edgeIndex),
+              (N) mStaticGraph.getNode(neighborIndex), neighborIndex);
+        }
+        return;
+      }
+
+      final N node = (N) current.getNode(index);
+      final Iterator<E> edges;
+      if (isForward) {
+        edges = mGraph.getOutgoingEdges(node).iterator();
+      } else {
+        edges = mGraph.getIncomingEdges(node).iterator();
+      }
+      while (edges.hasNext()) {
+        final E edge = edges.next();
+        final N neighbor;
+        if (isForward) {
+          neighbor = edge.getDestination();
+        } else {
+          neighbor = edge.getSource();
+        }
+        relaxEdge(current, other, isForward, index, tentativeDistance, edge, neighbor, NO_INDEX);
+      }
+    }
+
+    /**
+     * Updates the best path seen so far if the given node, just reached by one
+     * search, was also reached by the opposite search.
+     *
+     * @param current   The workspace of the search that reached the node
+     * @param other     The workspace of the opposite search
+     * @param isForward Whether the search that reached the node is the forward
+     *                  search
+     * @param index     The index of the node in the current workspace
+     * @param node      The node
+     * @param distance  The tentative distance of the node in the current search
+     */
+    private void updateBestDistance(final DijkstraWorkspace current, final DijkstraWorkspace other,
+        final boolean isForward, final int index, final N node, final double distance) {
+      final int otherIndex;
+      if (index < current.getFixedCapacity()) {
+        otherIndex = index;
+      } else {
+        otherIndex = getIndex(other, node, false);
+      }
+      if (otherIndex == NO_INDEX || !other.isVisited(otherIndex)) {
+        return;
+      }
+
+      final double pathDistance = distance + other.getDistance(otherIndex);
+      if (pathDistance >= mBestDistance) {
+        return;
+      }
+      mBestDistance = pathDistance;
+      if (isForward) {
+        mMeetingForward = index;
+        mMeetingBackward = otherIndex;
+      } else {
+        mMeetingForward = otherIndex;
+        mMeetingBackward = index;
+      }
+    }
+  }
+}
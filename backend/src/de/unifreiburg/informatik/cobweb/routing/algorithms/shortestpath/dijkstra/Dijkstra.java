@@ -1,20 +1,26 @@
 package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
-import java.util.PriorityQueue;
-import java.util.stream.Stream;
+
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
 
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.AShortestPathComputation;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EmptyPath;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.QueryDeadline;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IGraph;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.INode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
 
 /**
  * Implementation of Dijkstras algorithm that is able to compute shortest paths
@@ -26,25 +32,126 @@ import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
  * <br>
  * Subclasses can override {@link #considerEdgeForRelaxation(IEdge, INode)} and
  * {@link #getEstimatedDistance(INode, INode)} to speedup the algorithm by
- * giving it a sense of goal direction or exploiting precomputed knowledge.
+ * giving it a sense of goal direction or exploiting precomputed knowledge.<br>
+ * <br>
+ * Edges of a {@link StaticRoadGraph} are relaxed by their index, using
+ * {@link #considerEdgeForRelaxation(StaticRoadGraph, int, INode)} and
+ * {@link #provideEdgeCost(StaticRoadGraph, int, double)}, and settled nodes are
+ * checked by {@link #shouldAbort(int, double)}. For subclasses those delegate
+ * to the hooks taking edge objects and tentative distance containers, unless
+ * the subclass opts in to overriding the index hooks itself by using
+ * {@link #Dijkstra(IGraph, boolean)}. Instances of this class and such
+ * subclasses create no objects per edge or settled node.<br>
+ * <br>
+ * Each thread reuses a workspace for its computations. The workspace stores
+ * tentative distances and parents in arrays indexed by node and keeps active
+ * nodes in an indexed heap with decrease-key, it is reset by timestamps instead
+ * of clearing. Dense node indices are taken from the graph if it is a
+ * {@link StaticRoadGraph}, otherwise they are assigned on demand.<br>
+ * <br>
+ * If the graph is a {@link ReversedGraph} the computation follows the edges of
+ * the underlying graph backwards, i.e. it computes shortest paths to the
+ * sources instead of from them. Resulting paths lead from the destination to
+ * one of the sources in the underlying graph, which is not modified.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  * @param <N> Type of the node
  * @param <E> Type of the edge
  */
 public class Dijkstra<N extends INode, E extends IEdge<N>> extends AShortestPathComputation<N, E> {
+  /**
+   * Value used to encode that a node has no index.
+   */
+  private static final int NO_INDEX = -1;
+  /**
+   * The workspace of each thread, reused for all computations of the thread.
+   */
+  private static final ThreadLocal<DijkstraWorkspace> WORKSPACES = ThreadLocal.withInitial(DijkstraWorkspace::new);
+
+  /**
+   * Acquires a workspace for a computation of the current thread. The
+   * workspace must be released by {@link DijkstraWorkspace#end()} after the
+   * computation.
+   *
+   * @param fixedCapacity The amount of node indices provided by the graph
+   * @return The workspace to use
+   */
+  private static DijkstraWorkspace acquireWorkspace(final int fixedCapacity) {
+    DijkstraWorkspace workspace = WORKSPACES.get();
+    if (workspace.isInUse()) {
+      // Nested computation on the same thread, can not share the workspace
+      workspace = new DijkstraWorkspace();
+    }
+    workspace.begin(fixedCapacity);
+    return workspace;
+  }
+
   /**
    * The graph to operate on.
    */
   private final IGraph<N, E> mGraph;
+  /**
+   * Whether or not the graph is a {@link ReversedGraph} whose edges are
+   * followed backwards.
+   */
+  private final boolean mIsBackward;
+  /**
+   * Whether or not the hooks working on indices delegate to the hooks taking
+   * edge objects and tentative distance containers.
+   */
+  private final boolean mIsDelegatingHooks;
+  /**
+   * The graph to operate on, or the graph underlying the reversed view, if it
+   * provides dense node and edge indices, <code>null</code> otherwise.
+   */
+  private final StaticRoadGraph mStaticGraph;
 
   /**
-   * Creates a new Dijkstra instance which operates on the given graph.
+   * Creates a new Dijkstra instance which operates on the given graph.<br>
+   * <br>
+   * For subclasses the hooks working on indices delegate to the hooks taking
+   * edge objects and tentative distance containers, see
+   * {@link #Dijkstra(IGraph, boolean)}.
    *
    * @param graph The graph to operate on
    */
   public Dijkstra(final IGraph<N, E> graph) {
+    this(graph, false);
+  }
+
+  /**
+   * Creates a new Dijkstra instance which operates on the given graph.<br>
+   * <br>
+   * Subclasses which override the hooks working on indices, consistent to the
+   * hooks taking edge objects and tentative distance containers, may opt in to
+   * have only them called for a {@link StaticRoadGraph}. Those are
+   * {@link #considerEdgeForRelaxation(StaticRoadGraph, int, INode)},
+   * {@link #provideEdgeCost(StaticRoadGraph, int, double)},
+   * {@link #shouldAbort(int, double)} and
+   * {@link #isAbortingOnTentativeDistances()}.
+   *
+   * @param graph             The graph to operate on
+   * @param isUsingIndexHooks Whether or not the subclass overrides the hooks
+   *                          working on indices itself. If <code>false</code>
+   *                          they delegate to the hooks taking edge objects
+   *                          and tentative distance containers, unless this
+   *                          is an instance of this class.
+   */
+  protected Dijkstra(final IGraph<N, E> graph, final boolean isUsingIndexHooks) {
     mGraph = graph;
+    mIsBackward = graph instanceof ReversedGraph;
+    final IGraph<N, E> indexedGraph;
+    if (mIsBackward) {
+      indexedGraph = ((ReversedGraph<N, E>) graph).getGraph();
+    } else {
+      indexedGraph = graph;
+    }
+    if (indexedGraph instanceof StaticRoadGraph) {
+      mStaticGraph = (StaticRoadGraph) indexedGraph;
+    } else {
+      mStaticGraph = null;
+    }
+    mIsDelegatingHooks = !isUsingIndexHooks && getClass() != Dijkstra.class;
   }
 
   /*
@@ -66,39 +173,24 @@ public class Dijkstra<N extends INode, E extends IEdge<N>> extends AShortestPath
    */
   @Override
   public Optional<IPath<N, E>> computeShortestPath(final Collection<N> sources, final N destination) {
-    final Map<N, TentativeDistance<N, E>> nodeToDistance = computeShortestPathCostHelper(sources, destination);
-    final TentativeDistance<N, E> destinationDistance = nodeToDistance.get(destination);
-
-    // Destination is not reachable from the given sources
-    if (destinationDistance == null) {
-      return Optional.empty();
-    }
+    final DijkstraWorkspace workspace = acquireWorkspace(getFixedCapacity());
+    try {
+      final int destinationIndex = computeShortestPathHelper(workspace, sources, destination, null);
 
-    final E parentEdge = destinationDistance.getParentEdge();
-    // Destination is already a source node
-    if (parentEdge == null) {
-      return Optional.of(new EmptyPath<>(destination));
-    }
+      // Destination is not reachable from the given sources
+      if (!workspace.isSettled(destinationIndex)) {
+        return Optional.empty();
+      }
 
-    // Build the path reversely by following the pointers from the destination
-    // to one of the sources
-    final EdgePath<N, E> path = new EdgePath<>(true);
-    TentativeDistance<N, E> currentDistanceContainer = destinationDistance;
-    E currentEdge = parentEdge;
-    while (currentEdge != null) {
-      // Add the edge
-      final double distance = currentDistanceContainer.getTentativeDistance();
-      final N parent = currentEdge.getSource();
-      final TentativeDistance<N, E> parentDistanceContainer = nodeToDistance.get(parent);
-      final double parentDistance = parentDistanceContainer.getTentativeDistance();
-
-      path.addEdge(currentEdge, distance - parentDistance);
+      // Destination is already a source node
+      if (workspace.getParent(destinationIndex) == DijkstraWorkspace.NO_PARENT) {
+        return Optional.of(new EmptyPath<>(destination));
+      }
 
-      // Prepare next round
-      currentEdge = parentDistanceContainer.getParentEdge();
-      currentDistanceContainer = parentDistanceContainer;
+      return Optional.of(extractPath(workspace, destinationIndex));
+    } finally {
+      workspace.end();
     }
-    return Optional.of(path);
   }
 
   /*
@@ -109,8 +201,16 @@ public class Dijkstra<N extends INode, E extends IEdge<N>> extends AShortestPath
    */
   @Override
   public Optional<Double> computeShortestPathCost(final Collection<N> sources, final N destination) {
-    final Map<N, TentativeDistance<N, E>> nodeToDistance = computeShortestPathCostHelper(sources, destination);
-    return Optional.ofNullable(nodeToDistance.get(destination)).map(TentativeDistance::getTentativeDistance);
+    final DijkstraWorkspace workspace = acquireWorkspace(getFixedCapacity());
+    try {
+      final int destinationIndex = computeShortestPathHelper(workspace, sources, destination, null);
+      if (!workspace.isSettled(destinationIndex)) {
+        return Optional.empty();
+      }
+      return Optional.of(workspace.getDistance(destinationIndex));
+    } finally {
+      workspace.end();
+    }
   }
 
   /*
@@ -125,30 +225,42 @@ public class Dijkstra<N extends INode, E extends IEdge<N>> extends AShortestPath
   }
 
   /**
-   * Creates a tentative distance container for the given node.<br>
+   * Computes the shortest paths from the given sources to each of the given
+   * destinations.<br>
    * <br>
-   * If the <code>pathDestination</code> is not <code>null</code> the container will
-   * also include an estimated distance from the node to the destination. This
-   * is computed using {@link #getEstimatedDistance(INode, INode)}.
-   *
-   * @param node              The node to create the container for
-   * @param parentEdge        The parent edge that lead to that node, used for
-   *                          shortest path construction by backtracking
-   * @param tentativeDistance The tentative distance from the source to that
-   *                          node, i.e. the total cost of backtracking the
-   *                          given parent edges to the source
-   * @param pathDestination   The destination of the shortest path computation
-   *                          or <code>null</code> if not present
-   * @return A tentative distance container for the given node
+   * All destinations are settled by a single search without goal direction,
+   * which ends as soon as the last destination was settled. The paths are then
+   * extracted from the shared shortest path tree.
    */
-  private TentativeDistance<N, E> createDistance(final N node, final E parentEdge, final double tentativeDistance,
-      final N pathDestination) {
-    if (pathDestination == null) {
-      return new TentativeDistance<>(node, parentEdge, tentativeDistance);
+  @Override
+  public Map<N, IPath<N, E>> computeShortestPaths(final Collection<N> sources, final Collection<N> destinations) {
+    if (destinations.isEmpty()) {
+      return Collections.emptyMap();
     }
+    final DijkstraWorkspace workspace = acquireWorkspace(getFixedCapacity());
+    try {
+      final IntHashSet remainingDestinations = new IntHashSet(destinations.size());
+      for (final N destination : destinations) {
+        remainingDestinations.add(getIndex(workspace, destination));
+      }
+      computeShortestPathHelper(workspace, sources, null, remainingDestinations);
 
-    final double estimatedDistance = getEstimatedDistance(node, pathDestination);
-    return new TentativeDistance<>(node, parentEdge, tentativeDistance, estimatedDistance);
+      final Map<N, IPath<N, E>> destinationToPath = new HashMap<>(destinations.size());
+      for (final N destination : destinations) {
+        final int destinationIndex = getIndex(workspace, destination);
+        if (!workspace.isSettled(destinationIndex)) {
+          continue;
+        }
+        if (workspace.getParent(destinationIndex) == DijkstraWorkspace.NO_PARENT) {
+          destinationToPath.put(destination, new EmptyPath<>(destination));
+        } else {
+          destinationToPath.put(destination, extractPath(workspace, destinationIndex));
+        }
+      }
+      return destinationToPath;
+    } finally {
+      workspace.end();
+    }
   }
 
   /**
@@ -162,97 +274,31 @@ public class Dijkstra<N extends INode, E extends IEdge<N>> extends AShortestPath
    * @param sources         The sources to compute the shortest path from
    * @param pathDestination The destination to compute the shortest path to or
    *                        <code>null</code> if not present
-   * @return A map connecting all visited nodes to their tentative distance
+   * @return A map connecting all settled nodes to their tentative distance
    *         container. The container represent the shortest path from the
    *         sources to that given node as destination.
    */
   protected Map<N, TentativeDistance<N, E>> computeShortestPathCostHelper(final Collection<N> sources,
       final N pathDestination) {
-    // TODO Evaluate if maps should be exchanged against IdMap if Dijkstra is
-    // about to settle all reachable nodes. Note that node IDs may have gaps
-    // since the set of reachable nodes is in general not equal to all nodes of
-    // the graph.
-    final Map<N, TentativeDistance<N, E>> nodeToDistance = new HashMap<>(sources.size());
-    final Map<N, TentativeDistance<N, E>> nodeToSettledDistance = new HashMap<>(sources.size());
-    final PriorityQueue<TentativeDistance<N, E>> activeNodes = new PriorityQueue<>(sources.size());
-
-    // Sources are initial active nodes
-    for (final N source : sources) {
-      // Create a container for the node
-      final TentativeDistance<N, E> distance = createDistance(source, null, 0.0, pathDestination);
-      // Put the distance as active node
-      nodeToDistance.put(source, distance);
-      activeNodes.add(distance);
-    }
-
-    // Poll and settle all active nodes
-    while (!activeNodes.isEmpty()) {
-      final TentativeDistance<N, E> distance = activeNodes.poll();
-      final N node = distance.getNode();
-      final double tentativeDistance = distance.getTentativeDistance();
-
-      // Skip the element if the node was already settled before. In that case
-      // there was a better path to this node around and this path was
-      // abandoned.
-      if (nodeToSettledDistance.containsKey(node)) {
-        continue;
-      }
-
-      // Settle the current node
-      nodeToSettledDistance.put(node, distance);
-
-      // End the algorithm if destination was settled or a subclass
-      // implementation demands it
-      if ((pathDestination != null && node.equals(pathDestination)) || shouldAbort(distance)) {
-        break;
-      }
-
-      // Relax all outgoing edges
-      provideEdgesToRelax(distance).forEach(edge -> {
-        // Skip the edge if it should not be considered
-        if (!considerEdgeForRelaxation(edge, pathDestination)) {
-          return;
-        }
-
-        final N destination = edge.getDestination();
-        final double tentativeEdgeDistance = tentativeDistance + provideEdgeCost(edge, tentativeDistance);
-
-        // Check if the destination is visited for the first time
-        TentativeDistance<N, E> destinationDistance = nodeToDistance.get(destination);
-        if (destinationDistance == null) {
-          // Create a container for the destination
-          destinationDistance = createDistance(destination, edge, tentativeEdgeDistance, pathDestination);
-
-          // Put the distance as active node
-          nodeToDistance.put(destination, destinationDistance);
-          activeNodes.add(destinationDistance);
-
-          // Relaxation has finished
-          return;
+    final DijkstraWorkspace workspace = acquireWorkspace(getFixedCapacity());
+    try {
+      computeShortestPathHelper(workspace, sources, pathDestination, null);
+
+      // Collect the settled nodes
+      final int amountOfVisited = workspace.getAmountOfVisited();
+      final Map<N, TentativeDistance<N, E>> nodeToSettledDistance = new HashMap<>(amountOfVisited);
+      for (int i = 0; i < amountOfVisited; i++) {
+        final int index = workspace.getVisited(i);
+        if (!workspace.isSettled(index)) {
+          continue;
         }
-
-        // Destination is not visited for the first time
-        // Don't relax if the node was already settled
-        if (nodeToSettledDistance.containsKey(destination)) {
-          return;
-        }
-
-        // Don't relax if the edge does not improve the distance to this
-        // destination
-        if (tentativeEdgeDistance >= destinationDistance.getTentativeDistance()) {
-          return;
-        }
-
-        // Improve the distance by replacing the old container with a new one
-        // representing the path taken by this edge
-        destinationDistance = createDistance(destination, edge, tentativeEdgeDistance, pathDestination);
-        // Replace the old distance by the new one and set as active
-        nodeToDistance.put(destination, destinationDistance);
-        activeNodes.add(destinationDistance);
-      });
+        final TentativeDistance<N, E> distance = createDistance(workspace, index);
+        nodeToSettledDistance.put(distance.getNode(), distance);
+      }
+      return nodeToSettledDistance;
+    } finally {
+      workspace.end();
     }
-
-    return nodeToSettledDistance;
   }
 
   /**
@@ -273,6 +319,31 @@ public class Dijkstra<N extends INode, E extends IEdge<N>> extends AShortestPath
     return true;
   }
 
+  /**
+   * Whether or not the given edge of the static graph should be considered for
+   * relaxation. The algorithm will ignore the edge and not follow it if this
+   * method returns <code>false</code>.<br>
+   * <br>
+   * The base delegates to {@link #considerEdgeForRelaxation(IEdge, INode)}
+   * for subclasses which do not opt in to the hooks working on indices,
+   * creating the edge object only in that case.
+   *
+   * @param graph           The static graph the edge belongs to
+   * @param edgeIndex       The index of the edge in the graph
+   * @param pathDestination The destination of the shortest path computation or
+   *                        <code>null</code> if not present
+   * @return <code>True</code> if the edge should be considered, <code>false</code>
+   *         otherwise
+   */
+  @SuppressWarnings("unchecked")
+  protected boolean considerEdgeForRelaxation(final StaticRoadGraph graph, final int edgeIndex,
+      final N pathDestination) {
+    if (!mIsDelegatingHooks) {
+      return true;
+    }
+    return considerEdgeForRelaxation((E) graph.getEdge(edgeIndex), pathDestination);
+  }
+
   /**
    * Gets an estimate about the shortest path distance from the given node to
    * the destination of the shortest path computation.<br>
@@ -291,6 +362,37 @@ public class Dijkstra<N extends INode, E extends IEdge<N>> extends AShortestPath
     return 0.0;
   }
 
+  /**
+   * Whether or not {@link #shouldAbort(TentativeDistance)} needs to be called
+   * for settled nodes, in addition to {@link #shouldAbort(int, double)}. The
+   * tentative distance containers are only created if this is the case.<br>
+   * <br>
+   * The base returns <code>true</code> for subclasses which do not opt in to
+   * the hooks working on indices.
+   *
+   * @return <code>True</code> if the method needs to be called,
+   *         <code>false</code> otherwise
+   */
+  protected boolean isAbortingOnTentativeDistances() {
+    return mIsDelegatingHooks;
+  }
+
+  /**
+   * Prepares a shortest path computation from the given sources to the given
+   * destination. The method is called once before the computation starts.<br>
+   * <br>
+   * Dijkstras algorithm needs no preparation. Extending classes may use the
+   * method to adapt their estimates to the query.
+   *
+   * @param sources         The sources of the shortest path computation
+   * @param pathDestination The destination of the shortest path computation
+   */
+  @SuppressWarnings("unused")
+  protected void prepareQuery(final Collection<N> sources, final N pathDestination) {
+    // Dijkstras algorithm needs no preparation.
+    // This method may be used by extending classes to improve performance.
+  }
+
   /**
    * Provides the cost of a given edge.<br>
    * <br>
@@ -307,19 +409,46 @@ public class Dijkstra<N extends INode, E extends IEdge<N>> extends AShortestPath
   }
 
   /**
-   * Generates a stream of edges to process for relaxation.<br>
+   * Provides the cost of the given edge of the static graph.<br>
    * <br>
-   * The base are all outgoing edges of the given node. Implementations are
-   * allowed to override this method in order to further filter the stream.
-   * Additionally, the method {@link #considerEdgeForRelaxation(IEdge, INode)}
-   * will be called on each element of this stream.
+   * The base is the result of {@link StaticRoadGraph#getEdgeCost(int)}. For
+   * subclasses which do not opt in to the hooks working on indices the base
+   * delegates to {@link #provideEdgeCost(IEdge, double)} instead, creating the
+   * edge object only in that case.
    *
-   * @param tentativeDistance The tentative distance wrapper of the node to
-   *                          relax edges of
-   * @return Stream of edges to process for relaxation
+   * @param graph             The static graph the edge belongs to
+   * @param edgeIndex         The index of the edge in the graph
+   * @param tentativeDistance The current tentative distance when relaxing this
+   *                          edge
+   * @return The cost of the edge
    */
-  protected Stream<E> provideEdgesToRelax(final TentativeDistance<N, E> tentativeDistance) {
-    return mGraph.getOutgoingEdges(tentativeDistance.getNode());
+  @SuppressWarnings("unchecked")
+  protected double provideEdgeCost(final StaticRoadGraph graph, final int edgeIndex,
+      final double tentativeDistance) {
+    if (!mIsDelegatingHooks) {
+      return graph.getEdgeCost(edgeIndex);
+    }
+    return provideEdgeCost((E) graph.getEdge(edgeIndex), tentativeDistance);
+  }
+
+  /**
+   * Whether or not the algorithm should abort computation of the shortest path.
+   * The method is called right after the given node has been settled, before
+   * {@link #shouldAbort(TentativeDistance)}.
+   *
+   * @param index             The index of the node that was settled, the index
+   *                          of the node in the static graph if the graph
+   *                          provides dense node indices
+   * @param tentativeDistance The tentative distance of the node that was
+   *                          settled
+   * @return <code>True</code> if the computation should be aborted, <code>false</code>
+   *         if not
+   */
+  @SuppressWarnings("unused")
+  protected boolean shouldAbort(final int index, final double tentativeDistance) {
+    // Dijkstras algorithm only aborts if the target was settled.
+    // This method may be used by extending classes to abort earlier.
+    return false;
   }
 
   /**
@@ -339,4 +468,295 @@ public class Dijkstra<N extends INode, E extends IEdge<N>> extends AShortestPath
     return false;
   }
 
+  /**
+   * Computes the shortest path from the given sources to the given destination
+   * and to all other nodes that were visited in the mean time. The results are
+   * stored in the given workspace.
+   *
+   * @param workspace             The workspace to use for the computation
+   * @param sources               The sources to compute the shortest path
+   *                              from
+   * @param pathDestination       The destination to compute the shortest path
+   *                              to or <code>null</code> if not present
+   * @param remainingDestinations The indices of further destinations, the
+   *                              computation ends once all of them are
+   *                              settled. Settled indices are removed from the
+   *                              set. May be <code>null</code> if not present.
+   * @return The index of the destination in the workspace or <code>-1</code>
+   *         if not present
+   */
+  private int computeShortestPathHelper(final DijkstraWorkspace workspace, final Collection<N> sources,
+      final N pathDestination, final IntHashSet remainingDestinations) {
+    final int destinationIndex;
+    if (pathDestination == null) {
+      destinationIndex = NO_INDEX;
+    } else {
+      destinationIndex = getIndex(workspace, pathDestination);
+      prepareQuery(sources, pathDestination);
+    }
+
+    // Sources are initial active nodes
+    for (final N source : sources) {
+      final int sourceIndex = getIndex(workspace, source);
+      if (workspace.isVisited(sourceIndex)) {
+        continue;
+      }
+      workspace.visit(sourceIndex, source, DijkstraWorkspace.NO_PARENT, null, 0.0,
+          getEstimate(source, pathDestination));
+    }
+
+    // Poll and settle all active nodes
+    final boolean isAbortingOnTentativeDistances = isAbortingOnTentativeDistances();
+    int amountOfSettled = 0;
+    while (workspace.hasActiveNodes()) {
+      final int index = workspace.settleNext();
+      final double tentativeDistance = workspace.getDistance(index);
+
+      // End the algorithm if destination was settled or a subclass
+      // implementation demands it
+      if (index == destinationIndex || shouldAbort(index, tentativeDistance)
+          || isAbortingOnTentativeDistances && shouldAbort(createDistance(workspace, index))) {
+        break;
+      }
+      // End the algorithm if the deadline of the query has expired
+      amountOfSettled++;
+      if ((amountOfSettled & QueryDeadline.CHECK_INTERVAL - 1) == 0 && QueryDeadline.isExpired()) {
+        break;
+      }
+      // End the algorithm if all of multiple destinations were settled
+      if (remainingDestinations != null && remainingDestinations.remove(index)
+          && remainingDestinations.isEmpty()) {
+        break;
+      }
+
+      // Relax all outgoing edges
+      if (mStaticGraph != null && index < mStaticGraph.size() && mIsBackward) {
+        final int end = mStaticGraph.getIncomingEnd(index);
+        for (int position = mStaticGraph.getIncomingBegin(index); position < end; position++) {
+          final int edgeIndex = mStaticGraph.getIncomingEdgeAt(position);
+          relaxStaticEdge(workspace, index, tentativeDistance, edgeIndex, mStaticGraph.getEdgeSource(edgeIndex),
+              pathDestination);
+        }
+      } else if (mStaticGraph != null && index < mStaticGraph.size()) {
+        final int end = mStaticGraph.getOutgoingEnd(index);
+        for (int position = mStaticGraph.getOutgoingBegin(index); position < end; position++) {
+          final int edgeIndex = mStaticGraph.getOutgoingEdgeAt(position);
+          relaxStaticEdge(workspace, index, tentativeDistance, edgeIndex,
+              mStaticGraph.getEdgeDestination(edgeIndex), pathDestination);
+        }
+      } else {
+        @SuppressWarnings("unchecked")
+        final N node = (N) workspace.getNode(index);
+        final Iterator<E> edges = mGraph.getOutgoingEdges(node).iterator();
+        while (edges.hasNext()) {
+          relaxEdge(workspace, index, tentativeDistance, edges.next(), NO_INDEX, pathDestination);
+        }
+      }
+    }
+
+    return destinationIndex;
+  }
+
+  /**
+   * Creates a tentative distance container for the given visited node.
+   *
+   * @param workspace The workspace containing the node
+   * @param index     The index of the node in the workspace
+   * @return A tentative distance container for the given node
+   */
+  @SuppressWarnings("unchecked")
+  private TentativeDistance<N, E> createDistance(final DijkstraWorkspace workspace, final int index) {
+    return new TentativeDistance<>((N) workspace.getNode(index), getParentEdge(workspace, index),
+        workspace.getDistance(index), workspace.getEstimate(index));
+  }
+
+  /**
+   * Extracts the shortest path to the given settled node, which is not a
+   * source, by following the parent pointers of the given workspace.
+   *
+   * @param workspace        The workspace of the computation
+   * @param destinationIndex The index of the settled node in the workspace
+   * @return The shortest path to the node
+   */
+  private IPath<N, E> extractPath(final DijkstraWorkspace workspace, final int destinationIndex) {
+    // Build the path reversely by following the pointers from the destination
+    // to one of the sources. When following edges backwards, this already is
+    // the order of the edges in the underlying graph.
+    final EdgePath<N, E> path = new EdgePath<>(!mIsBackward);
+    int currentIndex = destinationIndex;
+    int parentIndex = workspace.getParent(currentIndex);
+    while (parentIndex != DijkstraWorkspace.NO_PARENT) {
+      final E currentEdge = getParentEdge(workspace, currentIndex);
+      path.addEdge(currentEdge, workspace.getDistance(currentIndex) - workspace.getDistance(parentIndex));
+
+      // Prepare next round
+      currentIndex = parentIndex;
+      parentIndex = workspace.getParent(currentIndex);
+    }
+    return path;
+  }
+
+  /**
+   * Gets an estimate about the shortest path distance from the given node to
+   * the destination, using {@link #getEstimatedDistance(INode, INode)}.
+   *
+   * @param node            The node to estimate the distance from
+   * @param pathDestination The destination to estimate the distance to or
+   *                        <code>null</code> if not present
+   * @return An estimate about the shortest path distance, <code>0.0</code> if
+   *         there is no destination
+   */
+  private double getEstimate(final N node, final N pathDestination) {
+    if (pathDestination == null) {
+      return 0.0;
+    }
+    return getEstimatedDistance(node, pathDestination);
+  }
+
+  /**
+   * Gets the amount of node indices provided by the graph.
+   *
+   * @return The amount of node indices provided by the graph
+   */
+  private int getFixedCapacity() {
+    if (mStaticGraph == null) {
+      return 0;
+    }
+    return mStaticGraph.size();
+  }
+
+  /**
+   * Gets the index of the given node in the given workspace. Uses the index
+   * provided by the graph, if present.
+   *
+   * @param workspace The workspace to get the index in
+   * @param node      The node to get the index of
+   * @return The index of the node
+   */
+  private int getIndex(final DijkstraWorkspace workspace, final N node) {
+    if (mStaticGraph != null && node instanceof ICoreNode) {
+      final int index = mStaticGraph.getIndexOfNode((ICoreNode) node);
+      if (index != NO_INDEX) {
+        return index;
+      }
+    }
+    return workspace.getForeignIndex(node);
+  }
+
+  /**
+   * Gets the edge that lead to the given visited node. Edges of the static
+   * graph, which are stored by their index, are created on demand.
+   *
+   * @param workspace The workspace containing the node
+   * @param index     The index of the node in the workspace
+   * @return The parent edge or <code>null</code> if the node has no parent
+   */
+  @SuppressWarnings("unchecked")
+  private E getParentEdge(final DijkstraWorkspace workspace, final int index) {
+    final int edgeIndex = workspace.getParentEdgeIndex(index);
+    if (edgeIndex != DijkstraWorkspace.NO_EDGE) {
+      return (E) mStaticGraph.getEdge(edgeIndex);
+    }
+    return (E) workspace.getParentEdge(index);
+  }
+
+  /**
+   * Relaxes the given edge.
+   *
+   * @param workspace         The workspace of the computation
+   * @param sourceIndex       The index of the settled source of the edge
+   * @param tentativeDistance The tentative distance of the source
+   * @param edge              The edge to relax
+   * @param destinationIndex  The index of the destination of the edge or
+   *                          <code>-1</code> if not known yet
+   * @param pathDestination   The destination of the shortest path computation
+   *                          or <code>null</code> if not present
+   */
+  private void relaxEdge(final DijkstraWorkspace workspace, final int sourceIndex, final double tentativeDistance,
+      final E edge, final int destinationIndex, final N pathDestination) {
+    // Skip the edge if it should not be considered
+    if (!considerEdgeForRelaxation(edge, pathDestination)) {
+      return;
+    }
+
+    final N destination;
+    if (mIsBackward) {
+      destination = edge.getSource();
+    } else {
+      destination = edge.getDestination();
+    }
+    final int index;
+    if (destinationIndex == NO_INDEX) {
+      index = getIndex(workspace, destination);
+    } else {
+      index = destinationIndex;
+    }
+
+    // Check if the destination is visited for the first time
+    if (!workspace.isVisited(index)) {
+      final double tentativeEdgeDistance = tentativeDistance + provideEdgeCost(edge, tentativeDistance);
+      workspace.visit(index, destination, sourceIndex, edge, tentativeEdgeDistance,
+          getEstimate(destination, pathDestination));
+      return;
+    }
+
+    // Don't relax if the node was already settled
+    if (!workspace.isActive(index)) {
+      return;
+    }
+
+    // Don't relax if the edge does not improve the distance to this
+    // destination
+    final double tentativeEdgeDistance = tentativeDistance + provideEdgeCost(edge, tentativeDistance);
+    if (tentativeEdgeDistance >= workspace.getDistance(index)) {
+      return;
+    }
+    workspace.improve(index, sourceIndex, edge, tentativeEdgeDistance);
+  }
+
+  /**
+   * Relaxes the given edge of the static graph. Works on indices only, without
+   * creating an edge object.
+   *
+   * @param workspace         The workspace of the computation
+   * @param sourceIndex       The index of the settled source of the edge
+   * @param tentativeDistance The tentative distance of the source
+   * @param edgeIndex         The index of the edge to relax
+   * @param destinationIndex  The index of the destination of the edge
+   * @param pathDestination   The destination of the shortest path computation
+   *                          or <code>null</code> if not present
+   */
+  private void relaxStaticEdge(final DijkstraWorkspace workspace, final int sourceIndex,
+      final double tentativeDistance, final int edgeIndex, final int destinationIndex, final N pathDestination) {
+    // Skip the edge if it should not be considered
+    if (!considerEdgeForRelaxation(mStaticGraph, edgeIndex, pathDestination)) {
+      return;
+    }
+
+    // Check if the destination is visited for the first time
+    if (!workspace.isVisited(destinationIndex)) {
+      @SuppressWarnings("unchecked")
+      final N destination = (N) mStaticGraph.getNode(destinationIndex);
+      final double tentativeEdgeDistance =
+          tentativeDistance + provideEdgeCost(mStaticGraph, edgeIndex, tentativeDistance);
+      workspace.visit(destinationIndex, destination, sourceIndex, edgeIndex, tentativeEdgeDistance,
+          getEstimate(destination, pathDestination));
+      return;
+    }
+
+    // Don't relax if the node was already settled
+    if (!workspace.isActive(destinationIndex)) {
+      return;
+    }
+
+    // Don't relax if the edge does not improve the distance to this
+    // destination
+    final double tentativeEdgeDistance =
+        tentativeDistance + provideEdgeCost(mStaticGraph, edgeIndex, tentativeDistance);
+    if (tentativeEdgeDistance >= workspace.getDistance(destinationIndex)) {
+      return;
+    }
+    workspace.improve(destinationIndex, sourceIndex, edgeIndex, tentativeEdgeDistance);
+  }
+
 }
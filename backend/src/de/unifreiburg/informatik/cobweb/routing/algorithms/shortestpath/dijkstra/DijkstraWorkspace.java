@@ -0,0 +1,463 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra;
+
+import java.util.Arrays;
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap;
+
+/**
+ * Reusable workspace for a single {@link Dijkstra} computation.<br>
+ * <br>
+ * Nodes are referred to by <code>int</code> indices. The workspace stores the
+ * tentative distance, estimate and parent of every visited node in arrays
+ * indexed by those indices and maintains the active nodes in an
+ * {@link IndexedMinHeap}. Parent edges are either stored as objects or, for
+ * graphs providing dense edge indices, only by their index. Instead of
+ * clearing the arrays between computations, every computation uses a new
+ * timestamp, entries are only valid if their timestamp matches the current
+ * one.<br>
+ * <br>
+ * Indices below the fixed capacity given to {@link #begin(int)} are provided by
+ * the caller, for example the dense node indices of a graph. Indices for other
+ * nodes are assigned on demand by {@link #getForeignIndex(Object)}.<br>
+ * <br>
+ * The workspace is not thread-safe and is intended to be reused by a single
+ * thread for many computations.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+final class DijkstraWorkspace {
+  /**
+   * Value used for the parent edge index of nodes whose parent edge is not
+   * given by an index.
+   */
+  static final int NO_EDGE = -1;
+  /**
+   * Value used for the parent of nodes which have no parent.
+   */
+  static final int NO_PARENT = -1;
+  /**
+   * The initial capacity of the arrays.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+  /**
+   * Value used to encode that a node has no index assigned.
+   */
+  private static final int NO_INDEX = -1;
+
+  /**
+   * The heap of active nodes, keyed by tentative distance plus estimate.
+   */
+  private final IndexedMinHeap mActiveNodes;
+  /**
+   * The amount of nodes visited in the current computation.
+   */
+  private int mAmountOfVisited;
+  /**
+   * The current timestamp, entries with this timestamp are valid.
+   */
+  private int mCurrentStamp;
+  /**
+   * The tentative distance of each node, indexed by node index.
+   */
+  private double[] mDistances;
+  /**
+   * The estimated distance to the destination of each node, indexed by node
+   * index.
+   */
+  private double[] mEstimates;
+  /**
+   * The amount of indices provided by the caller in the current computation.
+   */
+  private int mFixedCapacity;
+  /**
+   * Map connecting nodes that do not have a fixed index to their assigned
+   * index.
+   */
+  private final ObjectIntHashMap<Object> mForeignNodeToIndex;
+  /**
+   * Whether or not the workspace is currently used by a computation.
+   */
+  private boolean mInUse;
+  /**
+   * The next index to assign to a node without fixed index.
+   */
+  private int mNextForeignIndex;
+  /**
+   * The node of each index, indexed by node index.
+   */
+  private Object[] mNodes;
+  /**
+   * The index of the edge that lead to each node or {@link #NO_EDGE}, indexed
+   * by node index.
+   */
+  private int[] mParentEdgeIndices;
+  /**
+   * The edge that lead to each node, indexed by node index.
+   */
+  private Object[] mParentEdges;
+  /**
+   * The index of the parent node of each node, indexed by node index.
+   */
+  private int[] mParents;
+  /**
+   * The timestamp of each node, indexed by node index.
+   */
+  private int[] mStamps;
+  /**
+   * The indices of all nodes visited in the current computation, in the order
+   * they were visited.
+   */
+  private int[] mVisited;
+
+  /**
+   * Creates a new initially empty workspace.
+   */
+  DijkstraWorkspace() {
+    mActiveNodes = new IndexedMinHeap(INITIAL_CAPACITY);
+    mForeignNodeToIndex = new ObjectIntHashMap<>();
+    mDistances = new double[INITIAL_CAPACITY];
+    mEstimates = new double[INITIAL_CAPACITY];
+    mNodes = new Object[INITIAL_CAPACITY];
+    mParentEdgeIndices = new int[INITIAL_CAPACITY];
+    mParentEdges = new Object[INITIAL_CAPACITY];
+    mParents = new int[INITIAL_CAPACITY];
+    mStamps = new int[INITIAL_CAPACITY];
+    mVisited = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Begins a new computation. Invalidates all entries of the previous
+   * computation.
+   *
+   * @param fixedCapacity The amount of indices that are provided by the caller,
+   *                      indices for other nodes are assigned after this range
+   */
+  void begin(final int fixedCapacity) {
+    mInUse = true;
+    ensureCapacity(fixedCapacity);
+    mFixedCapacity = fixedCapacity;
+    mNextForeignIndex = fixedCapacity;
+    if (!mForeignNodeToIndex.isEmpty()) {
+      mForeignNodeToIndex.clear();
+    }
+    mAmountOfVisited = 0;
+
+    mCurrentStamp++;
+    if (mCurrentStamp == Integer.MAX_VALUE) {
+      // Timestamps overflow, reset them once
+      Arrays.fill(mStamps, 0);
+      mCurrentStamp = 1;
+    }
+  }
+
+  /**
+   * Ends the current computation. Releases references to nodes and edges of the
+   * computation.
+   */
+  void end() {
+    mActiveNodes.clear();
+    for (int i = 0; i < mAmountOfVisited; i++) {
+      final int index = mVisited[i];
+      mNodes[index] = null;
+      mParentEdges[index] = null;
+    }
+    mInUse = false;
+  }
+
+  /**
+   * Gets the amount of nodes visited in the current computation.
+   *
+   * @return The amount of visited nodes
+   */
+  int getAmountOfVisited() {
+    return mAmountOfVisited;
+  }
+
+  /**
+   * Gets the tentative distance of the given visited node.
+   *
+   * @param index The index of the node
+   * @return The tentative distance
+   */
+  double getDistance(final int index) {
+    return mDistances[index];
+  }
+
+  /**
+   * Gets the estimated distance to the destination of the given visited node.
+   *
+   * @param index The index of the node
+   * @return The estimated distance
+   */
+  double getEstimate(final int index) {
+    return mEstimates[index];
+  }
+
+  /**
+   * Finds the index of the given node which has no fixed index. Does not
+   * assign a new index if the node was not seen before in the current
+   * computation.
+   *
+   * @param node The node to find the index of
+   * @return The index of the node or <code>-1</code> if the node has no index
+   *         assigned
+   */
+  int findForeignIndex(final Object node) {
+    return mForeignNodeToIndex.getIfAbsent(node, NO_INDEX);
+  }
+
+  /**
+   * Gets the amount of indices provided by the caller in the current
+   * computation. Indices below this value are fixed.
+   *
+   * @return The amount of fixed indices
+   */
+  int getFixedCapacity() {
+    return mFixedCapacity;
+  }
+
+  /**
+   * Gets the index of the given node which has no fixed index. Assigns a new
+   * index if the node was not seen before in the current computation.
+   *
+   * @param node The node to get the index of
+   * @return The index of the node
+   */
+  int getForeignIndex(final Object node) {
+    final int index = mForeignNodeToIndex.getIfAbsent(node, NO_INDEX);
+    if (index != NO_INDEX) {
+      return index;
+    }
+    final int newIndex = mNextForeignIndex;
+    mNextForeignIndex++;
+    ensureCapacity(mNextForeignIndex);
+    mForeignNodeToIndex.put(node, newIndex);
+    return newIndex;
+  }
+
+  /**
+   * Gets the given visited node.
+   *
+   * @param index The index of the node
+   * @return The node
+   */
+  Object getNode(final int index) {
+    return mNodes[index];
+  }
+
+  /**
+   * Gets the parent index of the given visited node.
+   *
+   * @param index The index of the node
+   * @return The index of the parent or {@link #NO_PARENT}
+   */
+  int getParent(final int index) {
+    return mParents[index];
+  }
+
+  /**
+   * Gets the edge that lead to the given visited node.
+   *
+   * @param index The index of the node
+   * @return The parent edge or <code>null</code> if the node has no parent or
+   *         the edge is given by its index, see
+   *         {@link #getParentEdgeIndex(int)}
+   */
+  Object getParentEdge(final int index) {
+    return mParentEdges[index];
+  }
+
+  /**
+   * Gets the index of the edge that lead to the given visited node.
+   *
+   * @param index The index of the node
+   * @return The index of the parent edge or {@link #NO_EDGE} if the node has
+   *         no parent or the edge is given as object, see
+   *         {@link #getParentEdge(int)}
+   */
+  int getParentEdgeIndex(final int index) {
+    return mParentEdgeIndices[index];
+  }
+
+  /**
+   * Gets the smallest key, tentative distance plus estimate, of all active
+   * nodes.
+   *
+   * @return The smallest key, there must be active nodes
+   */
+  double getSmallestKey() {
+    return mActiveNodes.getKey(mActiveNodes.peek());
+  }
+
+  /**
+   * Gets the index of the visited node at the given position of the visiting
+   * order.
+   *
+   * @param position The position, less than {@link #getAmountOfVisited()}
+   * @return The index of the node
+   */
+  int getVisited(final int position) {
+    return mVisited[position];
+  }
+
+  /**
+   * Whether or not there are active nodes.
+   *
+   * @return <code>True</code> if there are active nodes, <code>false</code>
+   *         otherwise
+   */
+  boolean hasActiveNodes() {
+    return !mActiveNodes.isEmpty();
+  }
+
+  /**
+   * Improves the distance of the given active node.
+   *
+   * @param index      The index of the node
+   * @param parent     The index of the new parent
+   * @param parentEdge The new parent edge
+   * @param distance   The new tentative distance, less than the current
+   */
+  void improve(final int index, final int parent, final Object parentEdge, final double distance) {
+    mDistances[index] = distance;
+    mParents[index] = parent;
+    mParentEdges[index] = parentEdge;
+    mParentEdgeIndices[index] = NO_EDGE;
+    mActiveNodes.decreaseKey(index, distance + mEstimates[index]);
+  }
+
+  /**
+   * Improves the distance of the given active node. The parent edge is given
+   * by its index.
+   *
+   * @param index           The index of the node
+   * @param parent          The index of the new parent
+   * @param parentEdgeIndex The index of the new parent edge
+   * @param distance        The new tentative distance, less than the current
+   */
+  void improve(final int index, final int parent, final int parentEdgeIndex, final double distance) {
+    improve(index, parent, null, distance);
+    mParentEdgeIndices[index] = parentEdgeIndex;
+  }
+
+  /**
+   * Whether or not the given node is currently active, i.e. visited but not
+   * settled.
+   *
+   * @param index The index of the node
+   * @return <code>True</code> if the node is active, <code>false</code>
+   *         otherwise
+   */
+  boolean isActive(final int index) {
+    return mActiveNodes.contains(index);
+  }
+
+  /**
+   * Whether or not the given node was settled in the current computation.
+   *
+   * @param index The index of the node
+   * @return <code>True</code> if the node was settled, <code>false</code>
+   *         otherwise
+   */
+  boolean isSettled(final int index) {
+    return isVisited(index) && !mActiveNodes.contains(index);
+  }
+
+  /**
+   * Whether or not the workspace is currently used by a computation.
+   *
+   * @return <code>True</code> if the workspace is in use, <code>false</code>
+   *         otherwise
+   */
+  boolean isInUse() {
+    return mInUse;
+  }
+
+  /**
+   * Whether or not the given node was visited in the current computation.
+   *
+   * @param index The index of the node
+   * @return <code>True</code> if the node was visited, <code>false</code>
+   *         otherwise
+   */
+  boolean isVisited(final int index) {
+    return mStamps[index] == mCurrentStamp;
+  }
+
+  /**
+   * Removes the active node with the smallest tentative distance plus estimate
+   * and thereby settles it.
+   *
+   * @return The index of the settled node
+   */
+  int settleNext() {
+    return mActiveNodes.poll();
+  }
+
+  /**
+   * Visits the given node for the first time and makes it active.
+   *
+   * @param index      The index of the node
+   * @param node       The node
+   * @param parent     The index of the parent or {@link #NO_PARENT}
+   * @param parentEdge The parent edge or <code>null</code>
+   * @param distance   The tentative distance
+   * @param estimate   The estimated distance to the destination
+   */
+  void visit(final int index, final Object node, final int parent, final Object parentEdge, final double distance,
+      final double estimate) {
+    mStamps[index] = mCurrentStamp;
+    mNodes[index] = node;
+    mParents[index] = parent;
+    mParentEdges[index] = parentEdge;
+    mParentEdgeIndices[index] = NO_EDGE;
+    mDistances[index] = distance;
+    mEstimates[index] = estimate;
+    if (mAmountOfVisited == mVisited.length) {
+      mVisited = Arrays.copyOf(mVisited, mAmountOfVisited + (mAmountOfVisited >> 1) + 1);
+    }
+    mVisited[mAmountOfVisited] = index;
+    mAmountOfVisited++;
+    mActiveNodes.add(index, distance + estimate);
+  }
+
+  /**
+   * Visits the given node for the first time and makes it active. The parent
+   * edge is given by its index.
+   *
+   * @param index           The index of the node
+   * @param node            The node
+   * @param parent          The index of the parent
+   * @param parentEdgeIndex The index of the parent edge
+   * @param distance        The tentative distance
+   * @param estimate        The estimated distance to the destination
+   */
+  void visit(final int index, final Object node, final int parent, final int parentEdgeIndex, final double distance,
+      final double estimate) {
+    visit(index, node, parent, null, distance, estimate);
+    mParentEdgeIndices[index] = parentEdgeIndex;
+  }
+
+  /**
+   * Ensures that all index based arrays can hold the given amount of indices.
+   *
+   * @param capacity The capacity to ensure
+   */
+  private void ensureCapacity(final int capacity) {
+    final int currentCapacity = mStamps.length;
+    if (capacity <= currentCapacity) {
+      return;
+    }
+    final int newCapacity = Math.max(capacity, currentCapacity + (currentCapacity >> 1));
+    mDistances = Arrays.copyOf(mDistances, newCapacity);
+    mEstimates = Arrays.copyOf(mEstimates, newCapacity);
+    mNodes = Arrays.copyOf(mNodes, newCapacity);
+    mParentEdgeIndices = Arrays.copyOf(mParentEdgeIndices, newCapacity);
+    mParentEdges = Arrays.copyOf(mParentEdges, newCapacity);
+    mParents = Arrays.copyOf(mParents, newCapacity);
+    mStamps = Arrays.copyOf(mStamps, newCapacity);
+    mActiveNodes.ensureCapacity(newCapacity);
+  }
+}
@@ -1,8 +1,10 @@
 package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules;
 
+import java.util.Collection;
 import java.util.OptionalDouble;
 
 import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.IMetric;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark.LandmarkMetric;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.INode;
 
@@ -60,4 +62,27 @@ public final class AStarModule<N extends INode, E extends IEdge<N>> implements I
     return OptionalDouble.of(mMetric.distance(node, pathDestination));
   }
 
+  /**
+   * Gets the heuristic metric used by this module.
+   *
+   * @return The heuristic metric
+   */
+  IMetric<N> getMetric() {
+    return mMetric;
+  }
+
+  /**
+   * Prepares a shortest path computation from the given sources to the given
+   * destination.<br>
+   * <br>
+   * If the metric is a {@link LandmarkMetric}, its active landmarks are
+   * selected for the query.
+   */
+  @Override
+  public void prepareQuery(final Collection<N> sources, final N pathDestination) {
+    if (mMetric instanceof LandmarkMetric) {
+      ((LandmarkMetric<N, ?, ?>) mMetric).selectActiveLandmarks(sources, pathDestination);
+    }
+  }
+
 }
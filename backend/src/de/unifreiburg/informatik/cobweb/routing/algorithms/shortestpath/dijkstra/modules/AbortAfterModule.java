@@ -48,6 +48,15 @@ public final class AbortAfterModule<N extends INode, E extends IEdge<N>> impleme
     mRange = range;
   }
 
+  /**
+   * Gets the range after which to abort.
+   *
+   * @return The range in travel time measured in <code>seconds</code>
+   */
+  double getRange() {
+    return mRange;
+  }
+
   @Override
   public boolean shouldAbort(final TentativeDistance<N, E> tentativeDistance) {
     return tentativeDistance.getTentativeDistance() > mRange;
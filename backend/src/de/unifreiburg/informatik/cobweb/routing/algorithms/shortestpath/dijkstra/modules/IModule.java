@@ -1,5 +1,6 @@
 package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules;
 
+import java.util.Collection;
 import java.util.OptionalDouble;
 
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.TentativeDistance;
@@ -48,6 +49,19 @@ public interface IModule<N extends INode, E extends IEdge<N>> {
     return OptionalDouble.empty();
   }
 
+  /**
+   * Prepares a shortest path computation from the given sources to the given
+   * destination. The method is called once before the computation starts, it
+   * may be called concurrently for different computations.
+   *
+   * @param sources         The sources of the shortest path computation
+   * @param pathDestination The destination of the shortest path computation
+   */
+  default void prepareQuery(@SuppressWarnings("unused") final Collection<N> sources,
+      @SuppressWarnings("unused") final N pathDestination) {
+    // Modules need no preparation by default
+  }
+
   /**
    * Provides the cost of a given edge.<br>
    * <br>
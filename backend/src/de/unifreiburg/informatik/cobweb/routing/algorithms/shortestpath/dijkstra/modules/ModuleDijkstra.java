@@ -1,7 +1,7 @@
 package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules;
 
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.OptionalDouble;
 import java.util.Set;
 
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra;
@@ -9,6 +9,7 @@ import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IGraph;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.INode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
 
 /**
  * A Dijkstra algorithm for shortest path computation that can be modified by
@@ -16,7 +17,11 @@ import de.unifreiburg.informatik.cobweb.routing.model.graph.INode;
  * <br>
  * Use {@link #addModule(IModule)} and {@link #removeModule(IModule)} to
  * register and unregister modules. Alternatively use the factory method
- * {@link #of(IGraph, IModule...)} for convenient instance creation.
+ * {@link #of(IGraph, IModule...)} for convenient instance creation.<br>
+ * <br>
+ * Whenever the modules change they are compiled into a
+ * {@link ModulePipeline}, which is used during computation. Modules should
+ * hence not be changed while computations are running.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  * @param <N> Type of the nodes
@@ -49,6 +54,10 @@ public final class ModuleDijkstra<N extends INode, E extends IEdge<N>> extends D
    * The modules to use.
    */
   private final Set<IModule<N, E>> mModules;
+  /**
+   * The modules compiled into a single strategy.
+   */
+  private ModulePipeline<N, E> mPipeline;
 
   /**
    * Creates a new module Dijkstra instance routing on the given graph.
@@ -56,8 +65,9 @@ public final class ModuleDijkstra<N extends INode, E extends IEdge<N>> extends D
    * @param graph The graph to route on
    */
   public ModuleDijkstra(final IGraph<N, E> graph) {
-    super(graph);
+    super(graph, true);
     mModules = new HashSet<>();
+    mPipeline = ModulePipeline.compile(mModules);
   }
 
   /**
@@ -67,6 +77,7 @@ public final class ModuleDijkstra<N extends INode, E extends IEdge<N>> extends D
    */
   public void addModule(final IModule<N, E> module) {
     mModules.add(module);
+    mPipeline = ModulePipeline.compile(mModules);
   }
 
   /**
@@ -76,6 +87,7 @@ public final class ModuleDijkstra<N extends INode, E extends IEdge<N>> extends D
    */
   public void removeModule(final IModule<N, E> module) {
     mModules.remove(module);
+    mPipeline = ModulePipeline.compile(mModules);
   }
 
   /**
@@ -91,14 +103,22 @@ public final class ModuleDijkstra<N extends INode, E extends IEdge<N>> extends D
   protected boolean considerEdgeForRelaxation(final E edge, final N pathDestination) {
     // Ignore the base, it always considers all edges
     // Ask all modules and accumulate with logical and
-    for (final IModule<N, E> module : mModules) {
-      final boolean consider = module.considerEdgeForRelaxation(edge, pathDestination);
-      if (!consider) {
-        return false;
-      }
-    }
+    return mPipeline.considerEdgeForRelaxation(edge, pathDestination);
+  }
 
-    return true;
+  /**
+   * Whether or not the given edge of the static graph should be considered for
+   * relaxation.<br>
+   * <br>
+   * This will be the case if no module rejects it, see
+   * {@link #considerEdgeForRelaxation(IEdge, INode)}. The edge object is only
+   * created for modules that override
+   * {@link IModule#considerEdgeForRelaxation(IEdge, INode)}.
+   */
+  @Override
+  protected boolean considerEdgeForRelaxation(final StaticRoadGraph graph, final int edgeIndex,
+      final N pathDestination) {
+    return mPipeline.considerEdgeForRelaxation(graph, edgeIndex, pathDestination);
   }
 
   /**
@@ -112,17 +132,39 @@ public final class ModuleDijkstra<N extends INode, E extends IEdge<N>> extends D
   @Override
   protected double getEstimatedDistance(final N node, final N pathDestination) {
     // Choose greatest estimate
-    final OptionalDouble maxEstimate =
-        mModules.stream().map(module -> module.getEstimatedDistance(node, pathDestination))
-            .filter(OptionalDouble::isPresent).mapToDouble(OptionalDouble::getAsDouble).max();
-    if (maxEstimate.isPresent()) {
-      return maxEstimate.getAsDouble();
+    final double maxEstimate = mPipeline.getEstimatedDistance(node, pathDestination);
+    if (maxEstimate != ModulePipeline.NO_VALUE) {
+      return maxEstimate;
     }
 
     // Fallback to base implementation
     return super.getEstimatedDistance(node, pathDestination);
   }
 
+  /**
+   * Whether or not {@link #shouldAbort(TentativeDistance)} needs to be called
+   * for settled nodes.<br>
+   * <br>
+   * This is only the case if a module overrides
+   * {@link IModule#shouldAbort(TentativeDistance)}.
+   */
+  @Override
+  protected boolean isAbortingOnTentativeDistances() {
+    return mPipeline.hasAbortModules();
+  }
+
+  /**
+   * Prepares a shortest path computation from the given sources to the given
+   * destination.<br>
+   * <br>
+   * Therefore, {@link IModule#prepareQuery(Collection, INode)} is called on all
+   * modules.
+   */
+  @Override
+  protected void prepareQuery(final Collection<N> sources, final N pathDestination) {
+    mPipeline.prepareQuery(sources, pathDestination);
+  }
+
   /**
    * Provides the cost of a given edge.<br>
    * <br>
@@ -133,16 +175,48 @@ public final class ModuleDijkstra<N extends INode, E extends IEdge<N>> extends D
   @Override
   protected double provideEdgeCost(final E edge, final double tentativeDistance) {
     // Choose greatest cost
-    final OptionalDouble maxEdgeCost = mModules.stream().map(module -> module.provideEdgeCost(edge, tentativeDistance))
-        .filter(OptionalDouble::isPresent).mapToDouble(OptionalDouble::getAsDouble).max();
-    if (maxEdgeCost.isPresent()) {
-      return maxEdgeCost.getAsDouble();
+    final double maxEdgeCost = mPipeline.provideEdgeCost(edge, tentativeDistance);
+    if (maxEdgeCost != ModulePipeline.NO_VALUE) {
+      return maxEdgeCost;
     }
 
     // Fallback to base implementation
     return super.provideEdgeCost(edge, tentativeDistance);
   }
 
+  /**
+   * Provides the cost of the given edge of the static graph.<br>
+   * <br>
+   * The cost is chosen like by {@link #provideEdgeCost(IEdge, double)}, falling
+   * back to {@link StaticRoadGraph#getEdgeCost(int)}. The edge object is only
+   * created for modules that override
+   * {@link IModule#provideEdgeCost(IEdge, double)}.
+   */
+  @Override
+  protected double provideEdgeCost(final StaticRoadGraph graph, final int edgeIndex,
+      final double tentativeDistance) {
+    // Choose greatest cost
+    final double maxEdgeCost = mPipeline.provideEdgeCost(graph, edgeIndex, tentativeDistance);
+    if (maxEdgeCost != ModulePipeline.NO_VALUE) {
+      return maxEdgeCost;
+    }
+
+    // Fallback to the cost stored in the graph
+    return graph.getEdgeCost(edgeIndex);
+  }
+
+  /**
+   * Whether or not the algorithm should abort computation of the shortest path.
+   * The method is called right after the given node has been settled.<br>
+   * <br>
+   * This will be the case if the tentative distance exceeds the range of an
+   * {@link AbortAfterModule}.
+   */
+  @Override
+  protected boolean shouldAbort(final int index, final double tentativeDistance) {
+    return mPipeline.shouldAbort(tentativeDistance);
+  }
+
   /**
    * Whether or not the algorithm should abort computation of the shortest path.
    * The method is called right after the given node has been settled.<br>
@@ -160,14 +234,7 @@ public final class ModuleDijkstra<N extends INode, E extends IEdge<N>> extends D
   protected boolean shouldAbort(final TentativeDistance<N, E> tentativeDistance) {
     // Ignore the base, it never aborts computation
     // Ask all modules and accumulate with logical or
-    for (final IModule<N, E> module : mModules) {
-      final boolean abort = module.shouldAbort(tentativeDistance);
-      if (abort) {
-        return true;
-      }
-    }
-
-    return false;
+    return mPipeline.shouldAbort(tentativeDistance);
   }
 
 }
@@ -0,0 +1,387 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalDouble;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.IMetric;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.TentativeDistance;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.INode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+
+/**
+ * A combination of {@link IModule}s compiled into a single strategy, used by
+ * {@link ModuleDijkstra}.<br>
+ * <br>
+ * The modules {@link AStarModule}, {@link AbortAfterModule},
+ * {@link MultiModalModule} and {@link TransitModule} are resolved into typed
+ * fields once, when the pipeline is compiled. Their methods are then called
+ * directly, without streams, boxing into {@link OptionalDouble} or other
+ * allocations per edge. Other modules, and further modules of an already
+ * resolved type, are called through the generic {@link IModule} interface.
+ * Hooks of those modules are only called if the module overrides them.<br>
+ * <br>
+ * Edges of a {@link StaticRoadGraph} can be processed by their index. Edge
+ * objects are then only created for generic modules that inspect edges.<br>
+ * <br>
+ * Results follow the rules of {@link ModuleDijkstra}: the greatest estimate
+ * and the greatest edge cost are chosen, an edge is only considered if all
+ * modules consider it and computation is aborted if any module demands it.
+ * Missing values are encoded as {@link #NO_VALUE}. Use
+ * {@link #compile(Collection)} to create instances.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ * @param <N> Type of the nodes
+ * @param <E> Type of the edges
+ */
+final class ModulePipeline<N extends INode, E extends IEdge<N>> {
+  /**
+   * Value encoding that no module provided a value.
+   */
+  static final double NO_VALUE = Double.NEGATIVE_INFINITY;
+
+  /**
+   * Compiles the given modules into a pipeline.
+   *
+   * @param       <N> Type of the nodes
+   * @param       <E> Type of the edges
+   * @param modules The modules to compile
+   * @return The compiled pipeline
+   */
+  static <N extends INode, E extends IEdge<N>> ModulePipeline<N, E> compile(final Collection<IModule<N, E>> modules) {
+    AStarModule<N, E> astarModule = null;
+    AbortAfterModule<N, E> abortAfterModule = null;
+    MultiModalModule<N, E> multiModalModule = null;
+    TransitModule<N, E> transitModule = null;
+    final List<IModule<N, E>> genericModules = new ArrayList<>();
+
+    for (final IModule<N, E> module : modules) {
+      if (module instanceof AStarModule && astarModule == null) {
+        astarModule = (AStarModule<N, E>) module;
+      } else if (module instanceof AbortAfterModule && abortAfterModule == null) {
+        abortAfterModule = (AbortAfterModule<N, E>) module;
+      } else if (module instanceof MultiModalModule && multiModalModule == null) {
+        multiModalModule = (MultiModalModule<N, E>) module;
+      } else if (module instanceof TransitModule && transitModule == null) {
+        transitModule = (TransitModule<N, E>) module;
+      } else {
+        genericModules.add(module);
+      }
+    }
+
+    return new ModulePipeline<>(astarModule, abortAfterModule, multiModalModule, transitModule,
+        ModulePipeline.createModuleArray(genericModules));
+  }
+
+  /**
+   * Creates an array containing the given modules.
+   *
+   * @param         <N> Type of the nodes
+   * @param         <E> Type of the edges
+   * @param modules The modules to put into the array
+   * @return The created array
+   */
+  @SuppressWarnings("unchecked")
+  private static <N extends INode, E extends IEdge<N>> IModule<N, E>[]
+      createModuleArray(final List<IModule<N, E>> modules) {
+    return modules.toArray((IModule<N, E>[]) new IModule<?, ?>[modules.size()]);
+  }
+
+  /**
+   * Gets the given modules which override the given method of {@link IModule}.
+   *
+   * @param                <N> Type of the nodes
+   * @param                <E> Type of the edges
+   * @param modules        The modules to filter
+   * @param name           The name of the method
+   * @param parameterTypes The erased parameter types of the method
+   * @return An array containing the modules which override the method
+   */
+  private static <N extends INode, E extends IEdge<N>> IModule<N, E>[] filterOverriding(
+      final IModule<N, E>[] modules, final String name, final Class<?>... parameterTypes) {
+    final List<IModule<N, E>> overridingModules = new ArrayList<>(modules.length);
+    for (final IModule<N, E> module : modules) {
+      try {
+        if (!module.getClass().getMethod(name, parameterTypes).isDefault()) {
+          overridingModules.add(module);
+        }
+      } catch (final NoSuchMethodException e) {
+        // Can not happen since the interface declares the method
+        throw new AssertionError(e);
+      }
+    }
+    return ModulePipeline.createModuleArray(overridingModules);
+  }
+
+  /**
+   * Generic modules which override {@link IModule#shouldAbort(TentativeDistance)}.
+   */
+  private final IModule<N, E>[] mAbortModules;
+  /**
+   * The range after which to abort computation, in travel time measured in
+   * <code>seconds</code>. {@link Double#POSITIVE_INFINITY} if computation is
+   * not aborted.
+   */
+  private final double mAbortRange;
+  /**
+   * The A-Star module or <code>null</code> if not present.
+   */
+  private final AStarModule<N, E> mAstarModule;
+  /**
+   * Generic modules which override {@link IModule#provideEdgeCost(IEdge, double)}.
+   */
+  private final IModule<N, E>[] mEdgeCostModules;
+  /**
+   * Generic modules which override
+   * {@link IModule#considerEdgeForRelaxation(IEdge, INode)}.
+   */
+  private final IModule<N, E>[] mEdgeFilterModules;
+  /**
+   * Modules that are not resolved into typed fields.
+   */
+  private final IModule<N, E>[] mGenericModules;
+  /**
+   * The heuristic metric of the A-Star module or <code>null</code> if not
+   * present.
+   */
+  private final IMetric<N> mMetric;
+  /**
+   * The multi-modal module or <code>null</code> if not present.
+   */
+  private final MultiModalModule<N, E> mMultiModalModule;
+  /**
+   * The transit module or <code>null</code> if not present.
+   */
+  private final TransitModule<N, E> mTransitModule;
+
+  /**
+   * Creates a new pipeline using the given modules. Use
+   * {@link #compile(Collection)} to create instances.
+   *
+   * @param astarModule      The A-Star module or <code>null</code>
+   * @param abortAfterModule The abort after module or <code>null</code>
+   * @param multiModalModule The multi-modal module or <code>null</code>
+   * @param transitModule    The transit module or <code>null</code>
+   * @param genericModules   Modules that are not resolved into typed fields
+   */
+  private ModulePipeline(final AStarModule<N, E> astarModule, final AbortAfterModule<N, E> abortAfterModule,
+      final MultiModalModule<N, E> multiModalModule, final TransitModule<N, E> transitModule,
+      final IModule<N, E>[] genericModules) {
+    mAstarModule = astarModule;
+    if (astarModule == null) {
+      mMetric = null;
+    } else {
+      mMetric = astarModule.getMetric();
+    }
+    if (abortAfterModule == null) {
+      mAbortRange = Double.POSITIVE_INFINITY;
+    } else {
+      mAbortRange = abortAfterModule.getRange();
+    }
+    mMultiModalModule = multiModalModule;
+    mTransitModule = transitModule;
+    mGenericModules = genericModules;
+    mAbortModules = ModulePipeline.filterOverriding(genericModules, "shouldAbort", TentativeDistance.class);
+    mEdgeCostModules = ModulePipeline.filterOverriding(genericModules, "provideEdgeCost", IEdge.class, double.class);
+    mEdgeFilterModules =
+        ModulePipeline.filterOverriding(genericModules, "considerEdgeForRelaxation", IEdge.class, INode.class);
+  }
+
+  /**
+   * Whether or not the given edge should be considered for relaxation. That is
+   * the case if all modules consider it.
+   *
+   * @param edge            The edge in question
+   * @param pathDestination The destination of the shortest path computation or
+   *                        <code>null</code> if not present
+   * @return <code>True</code> if the edge should be considered, <code>false</code>
+   *         otherwise
+   */
+  boolean considerEdgeForRelaxation(final E edge, final N pathDestination) {
+    if (mMultiModalModule != null && !mMultiModalModule.considerEdgeForRelaxation(edge, pathDestination)) {
+      return false;
+    }
+    for (final IModule<N, E> module : mEdgeFilterModules) {
+      if (!module.considerEdgeForRelaxation(edge, pathDestination)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Whether or not the given edge of a static graph should be considered for
+   * relaxation. That is the case if all modules consider it.
+   *
+   * @param graph           The graph the edge belongs to
+   * @param edgeIndex       The index of the edge in the graph
+   * @param pathDestination The destination of the shortest path computation or
+   *                        <code>null</code> if not present
+   * @return <code>True</code> if the edge should be considered, <code>false</code>
+   *         otherwise
+   */
+  boolean considerEdgeForRelaxation(final StaticRoadGraph graph, final int edgeIndex, final N pathDestination) {
+    if (mMultiModalModule != null && !mMultiModalModule.considerEdgeForRelaxation(graph, edgeIndex)) {
+      return false;
+    }
+    if (mEdgeFilterModules.length == 0) {
+      return true;
+    }
+    @SuppressWarnings("unchecked")
+    final E edge = (E) graph.getEdge(edgeIndex);
+    for (final IModule<N, E> module : mEdgeFilterModules) {
+      if (!module.considerEdgeForRelaxation(edge, pathDestination)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the greatest estimate of all modules about the shortest path distance
+   * from the given node to the destination of the shortest path computation.
+   *
+   * @param node            The node to estimate the distance from
+   * @param pathDestination The destination to estimate the distance to
+   * @return The greatest estimate or {@link #NO_VALUE} if no module provides
+   *         an estimate
+   */
+  double getEstimatedDistance(final N node, final N pathDestination) {
+    double estimate = NO_VALUE;
+    if (mMetric != null) {
+      estimate = mMetric.distance(node, pathDestination);
+    }
+    for (final IModule<N, E> module : mGenericModules) {
+      final OptionalDouble moduleEstimate = module.getEstimatedDistance(node, pathDestination);
+      if (moduleEstimate.isPresent() && moduleEstimate.getAsDouble() > estimate) {
+        estimate = moduleEstimate.getAsDouble();
+      }
+    }
+    return estimate;
+  }
+
+  /**
+   * Whether or not there are modules that need the tentative distance
+   * container of settled nodes in order to decide if the computation should be
+   * aborted.
+   *
+   * @return <code>True</code> if there are such modules, <code>false</code>
+   *         otherwise
+   */
+  boolean hasAbortModules() {
+    return mAbortModules.length != 0;
+  }
+
+  /**
+   * Prepares a shortest path computation from the given sources to the given
+   * destination on all modules.
+   *
+   * @param sources         The sources of the shortest path computation
+   * @param pathDestination The destination of the shortest path computation
+   */
+  void prepareQuery(final Collection<N> sources, final N pathDestination) {
+    if (mAstarModule != null) {
+      mAstarModule.prepareQuery(sources, pathDestination);
+    }
+    for (final IModule<N, E> module : mGenericModules) {
+      module.prepareQuery(sources, pathDestination);
+    }
+  }
+
+  /**
+   * Provides the greatest cost of all modules for the given edge.
+   *
+   * @param edge              The edge whose cost to provide
+   * @param tentativeDistance The current tentative distance when relaxing the
+   *                          edge
+   * @return The greatest cost or {@link #NO_VALUE} if no module provides a
+   *         cost
+   */
+  double provideEdgeCost(final E edge, final double tentativeDistance) {
+    double cost = NO_VALUE;
+    if (mMultiModalModule != null) {
+      cost = mMultiModalModule.computeEdgeCost(edge);
+    }
+    if (mTransitModule != null) {
+      cost = Math.max(cost, mTransitModule.computeEdgeCost(edge, tentativeDistance));
+    }
+    for (final IModule<N, E> module : mEdgeCostModules) {
+      final OptionalDouble moduleCost = module.provideEdgeCost(edge, tentativeDistance);
+      if (moduleCost.isPresent() && moduleCost.getAsDouble() > cost) {
+        cost = moduleCost.getAsDouble();
+      }
+    }
+    return cost;
+  }
+
+  /**
+   * Provides the greatest cost of all modules for the given edge of a static
+   * graph.<br>
+   * <br>
+   * The transit module is skipped, it only adjusts link edges into a transit
+   * graph, which are never part of a static graph.
+   *
+   * @param graph             The graph the edge belongs to
+   * @param edgeIndex         The index of the edge in the graph
+   * @param tentativeDistance The current tentative distance when relaxing the
+   *                          edge
+   * @return The greatest cost or {@link #NO_VALUE} if no module provides a
+   *         cost
+   */
+  double provideEdgeCost(final StaticRoadGraph graph, final int edgeIndex, final double tentativeDistance) {
+    double cost = NO_VALUE;
+    if (mMultiModalModule != null) {
+      cost = mMultiModalModule.computeEdgeCost(graph, edgeIndex);
+    }
+    if (mEdgeCostModules.length == 0) {
+      return cost;
+    }
+    @SuppressWarnings("unchecked")
+    final E edge = (E) graph.getEdge(edgeIndex);
+    for (final IModule<N, E> module : mEdgeCostModules) {
+      final OptionalDouble moduleCost = module.provideEdgeCost(edge, tentativeDistance);
+      if (moduleCost.isPresent() && moduleCost.getAsDouble() > cost) {
+        cost = moduleCost.getAsDouble();
+      }
+    }
+    return cost;
+  }
+
+  /**
+   * Whether or not the computation should be aborted after settling a node with
+   * the given tentative distance. Only checks the abort range, modules that
+   * need the tentative distance container are asked by
+   * {@link #shouldAbort(TentativeDistance)}.
+   *
+   * @param tentativeDistance The tentative distance of the node that was
+   *                          settled
+   * @return <code>True</code> if the computation should be aborted,
+   *         <code>false</code> if not
+   */
+  boolean shouldAbort(final double tentativeDistance) {
+    return tentativeDistance > mAbortRange;
+  }
+
+  /**
+   * Whether or not the computation should be aborted. That is the case if any
+   * module demands it.
+   *
+   * @param tentativeDistance The tentative distance wrapper of the node that
+   *                          was settled
+   * @return <code>True</code> if the computation should be aborted,
+   *         <code>false</code> if not
+   */
+  boolean shouldAbort(final TentativeDistance<N, E> tentativeDistance) {
+    if (tentativeDistance.getTentativeDistance() > mAbortRange) {
+      return true;
+    }
+    for (final IModule<N, E> module : mAbortModules) {
+      if (module.shouldAbort(tentativeDistance)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -1,6 +1,5 @@
 package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules;
 
-import java.util.Collections;
 import java.util.EnumSet;
 import java.util.OptionalDouble;
 import java.util.Set;
@@ -11,6 +10,7 @@ import de.unifreiburg.informatik.cobweb.routing.model.graph.IHasTransportationMo
 import de.unifreiburg.informatik.cobweb.routing.model.graph.INode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.SpeedTransportationModeComparator;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.road.IRoadEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
 
 /**
  * Module for a {@link ModuleDijkstra} that dynamically provides the correct
@@ -46,12 +46,13 @@ public final class MultiModalModule<N extends INode, E extends IEdge<N>> impleme
    * The transportation mode restrictions. Only modes listed in the set are
    * allowed to be taken by the routing.
    */
-  private final Set<ETransportationMode> mModes;
+  private final ETransportationMode[] mModes;
   /**
-   * Comparator to be used to determine the fastest available transportation
-   * mode.
+   * The transportation mode restrictions that have a typical speed, ordered
+   * descending by their speed. Used to determine the fastest available
+   * transportation mode.
    */
-  private final SpeedTransportationModeComparator mSpeedComparator;
+  private final ETransportationMode[] mModesBySpeed;
 
   /**
    * Creates a multi-modal module instance with the given transportation mode
@@ -63,8 +64,10 @@ public final class MultiModalModule<N extends INode, E extends IEdge<N>> impleme
    *              efficiency.
    */
   public MultiModalModule(final Set<ETransportationMode> modes) {
-    mModes = modes;
-    mSpeedComparator = new SpeedTransportationModeComparator();
+    mModes = modes.toArray(new ETransportationMode[modes.size()]);
+    // The comparator only knows modes with a typical speed
+    mModesBySpeed = modes.stream().filter(mode -> mode != ETransportationMode.IRRELEVANT)
+        .sorted(new SpeedTransportationModeComparator().reversed()).toArray(ETransportationMode[]::new);
   }
 
   /**
@@ -82,7 +85,31 @@ public final class MultiModalModule<N extends INode, E extends IEdge<N>> impleme
     }
     final Set<ETransportationMode> edgeModes = ((IHasTransportationMode) edge).getTransportationModes();
     // Consider edge if it has any mode in common with the mode restrictions
-    return mModes.stream().anyMatch(edgeModes::contains);
+    for (final ETransportationMode mode : mModes) {
+      if (edgeModes.contains(mode)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Whether or not the given edge of a static graph should be considered for
+   * relaxation. Equivalent to {@link #considerEdgeForRelaxation(IEdge, INode)}
+   * for the edge object, but works on the edge index.
+   *
+   * @param graph     The graph the edge belongs to
+   * @param edgeIndex The index of the edge in the graph
+   * @return <code>True</code> if the edge has any mode in common with the mode
+   *         restrictions, <code>false</code> otherwise
+   */
+  boolean considerEdgeForRelaxation(final StaticRoadGraph graph, final int edgeIndex) {
+    for (final ETransportationMode mode : mModes) {
+      if (graph.hasEdgeMode(edgeIndex, mode)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
@@ -94,54 +121,85 @@ public final class MultiModalModule<N extends INode, E extends IEdge<N>> impleme
    */
   @Override
   public OptionalDouble provideEdgeCost(final E edge, final double tentativeDistance) {
-    // Only interested in edges that have transportation modes
-    if (!(edge instanceof IHasTransportationMode)) {
+    final double cost = computeEdgeCost(edge);
+    if (cost == ModulePipeline.NO_VALUE) {
       return OptionalDouble.empty();
     }
-
-    final Set<ETransportationMode> edgeModes = ((IHasTransportationMode) edge).getTransportationModes();
-    return computeEdgeCost(edge, edgeModes);
+    return OptionalDouble.of(cost);
   }
 
   /**
    * Computes the cost of the given edge when taken with the fastest
    * transportation mode available after applying the transportation mode
-   * restrictions.
+   * restrictions. The method does not allocate.
    *
-   * @param edge      The edge in question
-   * @param edgeModes The transportation modes with which the edge can be taken.
-   *                  If possible pass an {@link EnumSet} of a similar efficient
-   *                  set for efficiency.
+   * @param edge The edge in question
    * @return The cost of the given edge when taken with the fastest available
-   *         mode, in seconds interpreted as travel time.
+   *         mode, in seconds interpreted as travel time. Or
+   *         {@link ModulePipeline#NO_VALUE} if the cost of the edge needs no
+   *         adjustment.
    */
-  private OptionalDouble computeEdgeCost(final E edge, final Set<ETransportationMode> edgeModes) {
+  double computeEdgeCost(final E edge) {
+    // Only interested in edges that have transportation modes
+    if (!(edge instanceof IHasTransportationMode)) {
+      return ModulePipeline.NO_VALUE;
+    }
+    final ETransportationMode mode = findAdjustingMode(((IHasTransportationMode) edge).getTransportationModes());
+    if (mode == null || !(edge instanceof IRoadEdge)) {
+      return ModulePipeline.NO_VALUE;
+    }
+    // Recompute using the given mode
+    return ((IRoadEdge) edge).getCost(mode);
+  }
+
+  /**
+   * Computes the cost of the given edge of a static graph when taken with the
+   * fastest transportation mode available after applying the transportation
+   * mode restrictions. Equivalent to {@link #computeEdgeCost(IEdge)} for the
+   * edge object, but works on the edge index.
+   *
+   * @param graph     The graph the edge belongs to
+   * @param edgeIndex The index of the edge in the graph
+   * @return The cost of the given edge when taken with the fastest available
+   *         mode, in seconds interpreted as travel time. Or
+   *         {@link ModulePipeline#NO_VALUE} if the cost of the edge needs no
+   *         adjustment.
+   */
+  double computeEdgeCost(final StaticRoadGraph graph, final int edgeIndex) {
+    final ETransportationMode mode = findAdjustingMode(graph.getEdgeModes(edgeIndex));
+    if (mode == null) {
+      return ModulePipeline.NO_VALUE;
+    }
+    return graph.getEdgeCost(edgeIndex, mode);
+  }
+
+  /**
+   * Finds the transportation mode whose cost to use for an edge with the given
+   * modes. That is the fastest mode available after applying the restrictions.
+   *
+   * @param edgeModes The modes of the edge
+   * @return The mode to use or <code>null</code> if the cost of the edge needs
+   *         no adjustment
+   */
+  private ETransportationMode findAdjustingMode(final Set<ETransportationMode> edgeModes) {
     // No adjustment needed if edge only supports one mode, the cost is then
     // correct already
     if (edgeModes.size() == 1) {
-      return OptionalDouble.empty();
+      return null;
     }
 
     // Pick the fastest mode that is available after applying the restrictions
-    final Set<ETransportationMode> availableModes = EnumSet.copyOf(edgeModes);
-    availableModes.retainAll(mModes);
-    if (availableModes.isEmpty()) {
-      return OptionalDouble.empty();
-    }
-    final ETransportationMode fastestMode = Collections.max(availableModes, mSpeedComparator);
-
-    // Edge cost is already laid out for car or tram (depending on road or
-    // transit edge)
-    if (fastestMode == ETransportationMode.CAR || fastestMode == ETransportationMode.TRAM) {
-      return OptionalDouble.empty();
+    for (final ETransportationMode mode : mModesBySpeed) {
+      if (edgeModes.contains(mode)) {
+        // Edge cost is already laid out for car or tram (depending on road or
+        // transit edge)
+        if (mode == ETransportationMode.CAR || mode == ETransportationMode.TRAM) {
+          return null;
+        }
+        return mode;
+      }
     }
-    if (edge instanceof IRoadEdge) {
-      final IRoadEdge asRoadEdge = (IRoadEdge) edge;
-      // Recompute using the given mode
-      return OptionalDouble.of(asRoadEdge.getCost(fastestMode));
-    }
-
-    return OptionalDouble.empty();
+    return null;
   }
 
 }
@@ -1,11 +1,10 @@
 package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
 
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.INode;
@@ -26,6 +25,14 @@ import de.unifreiburg.informatik.cobweb.util.RoutingUtil;
  * @param <E> Type of the edges
  */
 public final class TransitModule<N extends INode, E extends IEdge<N>> implements IModule<N, E> {
+  /**
+   * Amount of nanoseconds of a day.
+   */
+  private static final long NANOS_OF_DAY = TimeUnit.DAYS.toNanos(1);
+  /**
+   * Amount of nanoseconds of a second.
+   */
+  private static final long NANOS_OF_SECOND = TimeUnit.SECONDS.toNanos(1);
   /**
    * Amount of seconds of a day.
    */
@@ -45,42 +52,10 @@ public final class TransitModule<N extends INode, E extends IEdge<N>> implements
   }
 
   /**
-   * Computes the time in seconds when the given connection is available again
-   * with respect to the departure and travel time.
-   *
-   * @param depTime        The departure time in milliseconds since epoch, i.e.
-   *                       the time when routing starts at the source node
-   * @param travelTime     The travel time in seconds, i.e. offset to the
-   *                       departure time
-   * @param connectionTime The time of the day when this connection is
-   *                       available, in seconds since midnight. Is allowed to
-   *                       overflow a day as this is irrelevant for the
-   *                       connection at the given day.
-   * @return The time in seconds when the given connection is available again
-   */
-  private static double computeWaitTime(final long depTime, final double travelTime, final int connectionTime) {
-    // Get the date time at which the edge is relaxed
-    final LocalDateTime departure = LocalDateTime.ofInstant(Instant.ofEpochMilli(depTime), ZoneId.systemDefault());
-    final LocalDateTime relaxDateTime = departure.plusNanos(RoutingUtil.secondsToNanos(travelTime));
-
-    // Get the date time at which the edge can be taken next
-    final LocalTime timeOfConnection = LocalTime.ofSecondOfDay(connectionTime % SECONDS_OF_DAY);
-    LocalDateTime nextConnectionDateTime = timeOfConnection.atDate(relaxDateTime.toLocalDate());
-    // TODO Respect connection schedule according to GTFS
-    // Wait to the next day
-    if (nextConnectionDateTime.isBefore(relaxDateTime)) {
-      nextConnectionDateTime = nextConnectionDateTime.plusDays(1);
-    }
-
-    // Compute duration between both date times in seconds
-    return RoutingUtil.millisToSeconds(Duration.between(relaxDateTime, nextConnectionDateTime).toMillis());
-  }
-
-  /**
-   * The departure time in milliseconds since epoch, i.e. the time when routing
-   * starts at the source node.
+   * The local time of the day of the departure time, in nanoseconds since
+   * midnight.
    */
-  private final long mDepTime;
+  private final long mDepNanoOfDay;
 
   /**
    * Creates a transit module instance which respects the given departure time.
@@ -89,7 +64,8 @@ public final class TransitModule<N extends INode, E extends IEdge<N>> implements
    *                time when routing starts at the source node
    */
   public TransitModule(final long depTime) {
-    mDepTime = depTime;
+    final LocalDateTime departure = LocalDateTime.ofInstant(Instant.ofEpochMilli(depTime), ZoneId.systemDefault());
+    mDepNanoOfDay = departure.toLocalTime().toNanoOfDay();
   }
 
   /**
@@ -102,14 +78,64 @@ public final class TransitModule<N extends INode, E extends IEdge<N>> implements
    */
   @Override
   public OptionalDouble provideEdgeCost(final E edge, final double tentativeDistance) {
+    final double cost = computeEdgeCost(edge, tentativeDistance);
+    if (cost == ModulePipeline.NO_VALUE) {
+      return OptionalDouble.empty();
+    }
+    return OptionalDouble.of(cost);
+  }
+
+  /**
+   * Computes the cost of {@link LinkEdge}s that have a destination node of type
+   * {@link ITransitNode}, i.e. the time needed to wait until the connection is
+   * available again. The method does not allocate.
+   *
+   * @param edge              The edge in question
+   * @param tentativeDistance The current tentative distance when relaxing the
+   *                          edge, in seconds interpreted as travel time
+   * @return The time needed to wait in seconds or
+   *         {@link ModulePipeline#NO_VALUE} if the edge does not enter the
+   *         transit network
+   */
+  double computeEdgeCost(final E edge, final double tentativeDistance) {
     // Only interested in link edges entering the transit graph
     if (!(edge instanceof LinkEdge && edge.getDestination() instanceof ITransitNode)) {
-      return OptionalDouble.empty();
+      return ModulePipeline.NO_VALUE;
     }
 
     final ITransitNode destination = (ITransitNode) edge.getDestination();
-    final int connectionTime = destination.getTime();
-    return OptionalDouble.of(TransitModule.computeWaitTime(mDepTime, tentativeDistance, connectionTime));
+    return computeWaitTime(tentativeDistance, destination.getTime());
+  }
+
+  /**
+   * Computes the time in seconds when the given connection is available again
+   * with respect to the departure and travel time.<br>
+   * <br>
+   * Works on the local time of the day, like a clock, without allocating date
+   * time objects.
+   *
+   * @param travelTime     The travel time in seconds, i.e. offset to the
+   *                       departure time
+   * @param connectionTime The time of the day when this connection is
+   *                       available, in seconds since midnight. Is allowed to
+   *                       overflow a day as this is irrelevant for the
+   *                       connection at the given day.
+   * @return The time in seconds when the given connection is available again
+   */
+  private double computeWaitTime(final double travelTime, final int connectionTime) {
+    // Get the time of the day at which the edge is relaxed
+    final long relaxNanoOfDay = Math.floorMod(mDepNanoOfDay + RoutingUtil.secondsToNanos(travelTime), NANOS_OF_DAY);
+
+    // Get the time of the day at which the edge can be taken next
+    long nextConnectionNanoOfDay = connectionTime % SECONDS_OF_DAY * NANOS_OF_SECOND;
+    // TODO Respect connection schedule according to GTFS
+    // Wait to the next day
+    if (nextConnectionNanoOfDay < relaxNanoOfDay) {
+      nextConnectionNanoOfDay += NANOS_OF_DAY;
+    }
+
+    // Compute duration between both times in seconds
+    return RoutingUtil.millisToSeconds(TimeUnit.NANOSECONDS.toMillis(nextConnectionNanoOfDay - relaxNanoOfDay));
   }
 
 }
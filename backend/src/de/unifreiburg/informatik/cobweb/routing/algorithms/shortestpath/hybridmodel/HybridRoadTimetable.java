@@ -3,28 +3,40 @@ package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridm
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import de.unifreiburg.informatik.cobweb.routing.algorithms.nearestneighbor.INearestNeighborComputation;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.AShortestPathComputation;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IShortestPathComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ITransitComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.QueryDeadline;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.TripletonPath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScanProfile;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ProfileConnectionScan;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ProfileEntry;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitNode;
 import de.unifreiburg.informatik.cobweb.util.RoutingUtil;
-import de.unifreiburg.informatik.cobweb.util.collections.NestedMap;
 
 /**
  * Shortest path computation algorithm which combines a given algorithm for a
@@ -33,13 +45,47 @@ import de.unifreiburg.informatik.cobweb.util.collections.NestedMap;
  * Therefore the algorithm, given source and destination in the road graph,
  * first determines access nodes from where it transitions into the transit
  * network. It then computes shortest paths from the sources and destinations to
- * their corresponding access nodes using the road algorithm and then from all
- * source to destination access nodes using the transit algorithm. Afterwards it
- * combines the shortest paths and computes the shortest of them.
+ * their corresponding access nodes using one bounded one-to-many search on the
+ * road for each side and then from all source to all destination access nodes
+ * using a single scan of the transit algorithm. Afterwards it combines the
+ * shortest paths and chooses the shortest of them.<br>
+ * <br>
+ * If a {@link StopReachTable} is given, the paths to and from the access nodes
+ * are taken from the table instead. All stops within its travel time then act
+ * as access nodes and no road search is needed for them.<br>
+ * <br>
+ * The road only path, the paths to the access nodes and the paths from the
+ * access nodes are independent. If an executor is given, they are computed
+ * concurrently as phases on it and the query takes as long as its slowest
+ * phase instead of the sum of all phases.<br>
+ * <br>
+ * Additionally,
+ * {@link #computeShortestPathsInRange(ICoreNode, ICoreNode, long)} determines
+ * the paths of all good departure times of a range, using a single profile
+ * search on the transit data.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
 public final class HybridRoadTimetable extends AShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> {
+  /**
+   * Waits for the given phase of a query to complete and returns its result.
+   *
+   * @param       <T> The type of the result
+   * @param phase The phase to wait for
+   * @return The result of the phase
+   */
+  private static <T> T joinPhase(final CompletableFuture<T> phase) {
+    try {
+      return phase.join();
+    } catch (final CompletionException e) {
+      // Propagate the exception the phase failed with
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
   /**
    * Converts the given time in milliseconds since epoch to seconds since
    * midnight at the given date.
@@ -52,6 +98,40 @@ public final class HybridRoadTimetable extends AShortestPathComputation<ICoreNod
     return dateTimeAt.toLocalTime().toSecondOfDay();
   }
 
+  /**
+   * Connects the given access nodes to the paths of their road
+   * representatives. Access nodes whose representative has no path are not
+   * included.
+   *
+   * @param accessToRoadRepresentative Map connecting access nodes to their road
+   *                                   representative
+   * @param roadRepresentativeToPath   Map connecting road representatives to
+   *                                   their path
+   * @return A map connecting access nodes to their path
+   */
+  private static Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> toAccessPaths(
+      final Map<ICoreNode, ICoreNode> accessToRoadRepresentative,
+      final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> roadRepresentativeToPath) {
+    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> accessToPath = new HashMap<>();
+    for (final Entry<ICoreNode, ICoreNode> entry : accessToRoadRepresentative.entrySet()) {
+      final IPath<ICoreNode, ICoreEdge<ICoreNode>> path = roadRepresentativeToPath.get(entry.getValue());
+      if (path != null) {
+        accessToPath.put(entry.getKey(), path);
+      }
+    }
+    return accessToPath;
+  }
+
+  /**
+   * Converts the given duration in seconds to whole seconds, rounding up.
+   *
+   * @param seconds The duration to convert, in seconds
+   * @return The duration in whole seconds
+   */
+  private static int toWholeSeconds(final double seconds) {
+    return (int) Math.ceil(seconds);
+  }
+
   /**
    * Object used to compute access nodes.
    */
@@ -60,6 +140,25 @@ public final class HybridRoadTimetable extends AShortestPathComputation<ICoreNod
    * Departure time to start routing at, in seconds since midnight.
    */
   private final long mDepTime;
+  /**
+   * The executor to run independent phases of a query on concurrently, or
+   * <code>null</code> if they are run sequentially.
+   */
+  private final Executor mPhaseExecutor;
+  /**
+   * The algorithm to compute departure time profiles on transit data.
+   */
+  private final ProfileConnectionScan mProfileComputation;
+  /**
+   * The precomputed paths between road nodes and nearby stops, or
+   * <code>null</code> if they are computed by road searches.
+   */
+  private final StopReachTable mReachTable;
+  /**
+   * The algorithm to compute shortest paths on road data backwards, used for
+   * small distances from the access nodes to the destination
+   */
+  private final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> mRoadComputationFromAccessNodes;
   /**
    * The algorithm to compute shortest paths on road data, used as fallback if
    * no hybrid route was found
@@ -67,7 +166,7 @@ public final class HybridRoadTimetable extends AShortestPathComputation<ICoreNod
   private final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> mRoadComputationFallback;
   /**
    * The algorithm to compute shortest paths on road data, used for small
-   * distances from source and destination to their access nodes
+   * distances from the source to its access nodes
    */
   private final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> mRoadComputationToAccessNodes;
   /**
@@ -77,7 +176,7 @@ public final class HybridRoadTimetable extends AShortestPathComputation<ICoreNod
   /**
    * The algorithm to compute shortest paths on transit data.
    */
-  private final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> mTransitComputation;
+  private final ITransitComputation mTransitComputation;
 
   /**
    * Whether the algorithm should only route on the road network. Can be used to
@@ -88,35 +187,58 @@ public final class HybridRoadTimetable extends AShortestPathComputation<ICoreNod
   /**
    * Creates a new hybrid road timetable algorithm.
    *
-   * @param roadComputationFallback      The algorithm to compute shortest paths
-   *                                     on road data, used as fallback if no
-   *                                     hybrid route was found
-   * @param roadComputationToAccessNodes The algorithm to compute shortest paths
-   *                                     on road data, used for small distances
-   *                                     from source and destination to their
-   *                                     access nodes
-   * @param transitComputation           The algorithm to compute shortest paths
-   *                                     on transit data
-   * @param accessNodeComputation        Object used to compute access nodes
-   * @param stopToNearestRoadNode        Object to use for retrieving the
-   *                                     nearest road node to a given stop
-   * @param modes                        The allowed transportation modes
-   * @param depTime                      Departure time to start routing at, in
-   *                                     seconds since midnight
+   * @param roadComputationFallback        The algorithm to compute shortest
+   *                                       paths on road data, used as fallback
+   *                                       if no hybrid route was found
+   * @param roadComputationToAccessNodes   The algorithm to compute shortest
+   *                                       paths on road data, used for small
+   *                                       distances from the source to its
+   *                                       access nodes
+   * @param roadComputationFromAccessNodes The algorithm to compute shortest
+   *                                       paths on road data backwards, used
+   *                                       for small distances from the access
+   *                                       nodes to the destination
+   * @param transitComputation             The algorithm to compute shortest
+   *                                       paths on transit data, from all
+   *                                       source to all destination access
+   *                                       nodes at once
+   * @param profileComputation             The algorithm to compute departure
+   *                                       time profiles on transit data
+   * @param accessNodeComputation          Object used to compute access nodes
+   * @param stopToNearestRoadNode          Object to use for retrieving the
+   *                                       nearest road node to a given stop
+   * @param reachTable                     The precomputed paths between road
+   *                                       nodes and nearby stops for the
+   *                                       allowed transportation modes, or
+   *                                       <code>null</code> if they should be
+   *                                       computed by road searches
+   * @param modes                          The allowed transportation modes
+   * @param depTime                        Departure time to start routing at,
+   *                                       in seconds since midnight
+   * @param phaseExecutor                  The executor to run independent
+   *                                       phases of a query on concurrently,
+   *                                       e.g. a shared work-stealing pool, or
+   *                                       <code>null</code> if they should run
+   *                                       sequentially
    */
   public HybridRoadTimetable(final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> roadComputationFallback,
       final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> roadComputationToAccessNodes,
-      final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> transitComputation,
+      final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> roadComputationFromAccessNodes,
+      final ITransitComputation transitComputation, final ProfileConnectionScan profileComputation,
       final IAccessNodeComputation<ICoreNode, ICoreNode> accessNodeComputation,
-      final INearestNeighborComputation<ICoreNode> stopToNearestRoadNode, final Set<ETransportationMode> modes,
-      final long depTime) {
+      final INearestNeighborComputation<ICoreNode> stopToNearestRoadNode, final StopReachTable reachTable,
+      final Set<ETransportationMode> modes, final long depTime, final Executor phaseExecutor) {
     mRoadComputationFallback = roadComputationFallback;
     mRoadComputationToAccessNodes = roadComputationToAccessNodes;
+    mRoadComputationFromAccessNodes = roadComputationFromAccessNodes;
     mTransitComputation = transitComputation;
+    mProfileComputation = profileComputation;
     mAccessNodeComputation = accessNodeComputation;
     mStopToNearestRoadNode = stopToNearestRoadNode;
+    mReachTable = reachTable;
     mUseRoadOnly = !modes.contains(ETransportationMode.TRAM);
     mDepTime = depTime;
+    mPhaseExecutor = phaseExecutor;
   }
 
   @Override
@@ -127,126 +249,290 @@ public final class HybridRoadTimetable extends AShortestPathComputation<ICoreNod
   @Override
   public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
       final ICoreNode destination) {
-    final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> roadOnlyPath =
-        mRoadComputationFallback.computeShortestPath(sources, destination);
     if (mUseRoadOnly) {
-      return roadOnlyPath;
+      return mRoadComputationFallback.computeShortestPath(sources, destination);
     }
 
-    final Map<ICoreNode, Collection<ICoreNode>> sourceToAccessNodes =
-        sources.stream().collect(Collectors.toMap(Function.identity(), mAccessNodeComputation::computeAccessNodes));
-    final Collection<ICoreNode> destinationAccessNodes = mAccessNodeComputation.computeAccessNodes(destination);
+    // The road only path and the paths to and from the access nodes are
+    // independent, the road only path is only needed at the end
+    final CompletableFuture<Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>>> roadOnlyPhase =
+        runPhase(() -> mRoadComputationFallback.computeShortestPath(sources, destination));
+    final CompletableFuture<Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>>> sourceAccessPhase =
+        runPhase(() -> computeSourceAccessPaths(sources));
+    final CompletableFuture<Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>>> destinationAccessPhase =
+        runPhase(() -> computeDestinationAccessPaths(destination));
 
-    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> shortestPathToSourceAccess = new HashMap<>();
-    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> destinationAccessPaths = new HashMap<>();
-    final Set<ICoreNode> reachableSourceAccessNodes = new HashSet<>();
-    final Set<ICoreNode> reachableDestinationAccessNodes = new HashSet<>();
+    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> shortestPathToSourceAccess =
+        HybridRoadTimetable.joinPhase(sourceAccessPhase);
+    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> destinationAccessPaths =
+        HybridRoadTimetable.joinPhase(destinationAccessPhase);
+    if (shortestPathToSourceAccess.isEmpty() || destinationAccessPaths.isEmpty()) {
+      return HybridRoadTimetable.joinPhase(roadOnlyPhase);
+    }
 
-    // Paths from source to access nodes
-    for (final Entry<ICoreNode, Collection<ICoreNode>> sourceWithAccessNodes : sourceToAccessNodes.entrySet()) {
-      final ICoreNode source = sourceWithAccessNodes.getKey();
-      for (final ICoreNode accessNode : sourceWithAccessNodes.getValue()) {
-        final Optional<ICoreNode> roadRepresentative = mStopToNearestRoadNode.getNearestNeighbor(accessNode);
-        if (!roadRepresentative.isPresent()) {
-          continue;
-        }
-        final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> path =
-            mRoadComputationToAccessNodes.computeShortestPath(source, roadRepresentative.get());
-        if (!path.isPresent()) {
-          continue;
-        }
+    // Create transit query nodes from the source access nodes, each departing
+    // after its road path. The earliest departure comes first.
+    final List<Entry<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>>> sourceAccessEntries =
+        new ArrayList<>(shortestPathToSourceAccess.entrySet());
+    sourceAccessEntries.sort(Comparator.comparingDouble(entry -> entry.getValue().getTotalCost()));
+    final List<ICoreNode> sourceAccessQueries = new ArrayList<>(sourceAccessEntries.size());
+    final Map<Integer, IPath<ICoreNode, ICoreEdge<ICoreNode>>> stopToSourceAccessPath = new HashMap<>();
+    for (final Entry<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> entry : sourceAccessEntries) {
+      final ICoreNode sourceAccess = entry.getKey();
+      final long duration = (long) Math.ceil(RoutingUtil.secondsToMillis(entry.getValue().getTotalCost()));
+      final long depTimeAtAccess = mDepTime + duration;
+      sourceAccessQueries.add(new TransitNode(sourceAccess.getId(), sourceAccess.getLatitude(),
+          sourceAccess.getLongitude(), HybridRoadTimetable.millisSinceEpochToSecondsSinceMidnight(depTimeAtAccess)));
+      stopToSourceAccessPath.put(sourceAccess.getId(), entry.getValue());
+    }
 
-        reachableSourceAccessNodes.add(accessNode);
-        final IPath<ICoreNode, ICoreEdge<ICoreNode>> currentShortestPathToAccess =
-            shortestPathToSourceAccess.get(accessNode);
-        if (currentShortestPathToAccess == null
-            || path.get().getTotalCost() < currentShortestPathToAccess.getTotalCost()) {
-          shortestPathToSourceAccess.put(accessNode, path.get());
-        }
-      }
+    // Destination access nodes finish after their road path
+    final Map<ICoreNode, Integer> destinationAccessToEgressDuration = new HashMap<>();
+    final Map<Integer, IPath<ICoreNode, ICoreEdge<ICoreNode>>> stopToDestinationAccessPath = new HashMap<>();
+    for (final Entry<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> entry : destinationAccessPaths.entrySet()) {
+      destinationAccessToEgressDuration.put(entry.getKey(),
+          HybridRoadTimetable.toWholeSeconds(entry.getValue().getTotalCost()));
+      stopToDestinationAccessPath.put(entry.getKey().getId(), entry.getValue());
     }
 
-    if (reachableSourceAccessNodes.isEmpty()) {
+    // Route from all source access nodes to all destination access nodes in a
+    // single scan
+    final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> transitPath =
+        mTransitComputation.computeShortestPath(sourceAccessQueries, destinationAccessToEgressDuration);
+    final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> roadOnlyPath =
+        HybridRoadTimetable.joinPhase(roadOnlyPhase);
+    if (!transitPath.isPresent()) {
       return roadOnlyPath;
     }
 
-    // Paths from destination access nodes to destination
-    for (final ICoreNode destinationAccess : destinationAccessNodes) {
-      final Optional<ICoreNode> roadRepresentative = mStopToNearestRoadNode.getNearestNeighbor(destinationAccess);
-      if (!roadRepresentative.isPresent()) {
-        continue;
-      }
-      final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> path =
-          mRoadComputationToAccessNodes.computeShortestPath(roadRepresentative.get(), destination);
-      if (!path.isPresent()) {
-        continue;
-      }
-      reachableDestinationAccessNodes.add(destinationAccess);
-      destinationAccessPaths.put(destinationAccess, path.get());
+    // Construct the path and compare it to the road only path
+    final IPath<ICoreNode, ICoreEdge<ICoreNode>> sourceToAccess =
+        stopToSourceAccessPath.get(transitPath.get().getSource().getId());
+    final IPath<ICoreNode, ICoreEdge<ICoreNode>> accessToDestination =
+        stopToDestinationAccessPath.get(transitPath.get().getDestination().getId());
+    final IPath<ICoreNode, ICoreEdge<ICoreNode>> path =
+        new TripletonPath<>(sourceToAccess, transitPath.get(), accessToDestination);
+    if (roadOnlyPath.isPresent() && roadOnlyPath.get().getTotalCost() <= path.getTotalCost()) {
+      return roadOnlyPath;
     }
+    return Optional.of(path);
+  }
 
-    if (reachableDestinationAccessNodes.isEmpty()) {
-      return roadOnlyPath;
+  @Override
+  public Optional<Double> computeShortestPathCost(final Collection<ICoreNode> sources, final ICoreNode destination) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Map<ICoreNode, ? extends IHasPathCost> computeShortestPathCostsReachable(final Collection<ICoreNode> sources) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Computes shortest paths from the given source to the given destination for
+   * all good departure times, starting at the departure time of this algorithm
+   * and ending after the given range.<br>
+   * <br>
+   * A departure time is good if no other departure time of the range departs
+   * later but arrives not later. Departure times that do not improve over
+   * routing only on the road are not included. All paths are determined by a
+   * single profile search from all source to all destination access nodes,
+   * which only scans the connections of the range. The paths are built from
+   * its journey pointers, instead of one search per departure time.
+   *
+   * @param source       The source to depart at
+   * @param destination  The destination to arrive at
+   * @param depTimeRange The range of departure times, in milliseconds
+   * @return A map connecting the good departure times in milliseconds since
+   *         epoch to their shortest path, ordered ascending. Empty if there
+   *         are no good departure times.
+   */
+  public Map<Long, IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPathsInRange(final ICoreNode source,
+      final ICoreNode destination, final long depTimeRange) {
+    final Map<Long, IPath<ICoreNode, ICoreEdge<ICoreNode>>> depTimeToPath = new LinkedHashMap<>();
+    if (mUseRoadOnly) {
+      return depTimeToPath;
+    }
+    final CompletableFuture<Optional<Double>> roadOnlyPhase =
+        runPhase(() -> mRoadComputationFallback.computeShortestPathCost(source, destination));
+    final CompletableFuture<Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>>> sourceAccessPhase =
+        runPhase(() -> computeSourceAccessPaths(Collections.singleton(source)));
+    final CompletableFuture<Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>>> destinationAccessPhase =
+        runPhase(() -> computeDestinationAccessPaths(destination));
+    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> sourceAccessPaths =
+        HybridRoadTimetable.joinPhase(sourceAccessPhase);
+    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> destinationAccessPaths =
+        HybridRoadTimetable.joinPhase(destinationAccessPhase);
+    if (sourceAccessPaths.isEmpty() || destinationAccessPaths.isEmpty()) {
+      return depTimeToPath;
     }
 
-    // Search space from source access nodes to destination access nodes
-    boolean isThereATransitPath = false;
-    final NestedMap<ICoreNode, ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> transitPaths = new NestedMap<>();
-    for (final ICoreNode sourceAccess : reachableSourceAccessNodes) {
-      // Create transit query nodes from the access nodes
-      final long duration =
-          (long) Math.ceil(RoutingUtil.secondsToMillis(shortestPathToSourceAccess.get(sourceAccess).getTotalCost()));
-      final long depTimeAtAccess = mDepTime + duration;
-      final TransitNode sourceAccessQuery = new TransitNode(sourceAccess.getId(), sourceAccess.getLatitude(),
-          sourceAccess.getLongitude(), HybridRoadTimetable.millisSinceEpochToSecondsSinceMidnight(depTimeAtAccess));
+    // Departures at source access nodes are delayed by the path to them
+    final int rangeStart = HybridRoadTimetable.millisSinceEpochToSecondsSinceMidnight(mDepTime);
+    final int rangeEnd = rangeStart + (int) TimeUnit.MILLISECONDS.toSeconds(depTimeRange);
+    int greatestAccessDuration = 0;
+    for (final IPath<ICoreNode, ICoreEdge<ICoreNode>> path : sourceAccessPaths.values()) {
+      greatestAccessDuration =
+          Math.max(greatestAccessDuration, HybridRoadTimetable.toWholeSeconds(path.getTotalCost()));
+    }
 
-      for (final ICoreNode destinationAccess : reachableDestinationAccessNodes) {
-        final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> path =
-            mTransitComputation.computeShortestPath(sourceAccessQuery, destinationAccess);
-        if (!path.isPresent()) {
+    // Destination access nodes finish after their road path
+    final Map<ICoreNode, Integer> destinationAccessToEgressDuration = new HashMap<>();
+    final Map<Integer, IPath<ICoreNode, ICoreEdge<ICoreNode>>> stopToDestinationAccessPath = new HashMap<>();
+    for (final Entry<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> entry : destinationAccessPaths.entrySet()) {
+      destinationAccessToEgressDuration.put(entry.getKey(),
+          HybridRoadTimetable.toWholeSeconds(entry.getValue().getTotalCost()));
+      stopToDestinationAccessPath.put(entry.getKey().getId(), entry.getValue());
+    }
+
+    // Journeys not faster than the road only path are not needed, the scan
+    // thus ends at the latest arrival of a faster journey
+    final double roadOnlyDuration =
+        HybridRoadTimetable.joinPhase(roadOnlyPhase).orElse(Double.POSITIVE_INFINITY).doubleValue();
+    int latestArrTime = Integer.MAX_VALUE;
+    if (roadOnlyDuration != Double.POSITIVE_INFINITY) {
+      latestArrTime = rangeEnd + HybridRoadTimetable.toWholeSeconds(roadOnlyDuration);
+    }
+    final ConnectionScanProfile profile = mProfileComputation.computeProfile(destinationAccessToEgressDuration,
+        rangeStart, rangeEnd + greatestAccessDuration, latestArrTime);
+
+    // Combine the profiles of the source access nodes with the paths to them
+    final Map<ProfileEntry, ICoreNode> candidateToSourceAccess = new HashMap<>();
+    for (final Entry<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> sourceAccess : sourceAccessPaths.entrySet()) {
+      final int accessDuration = HybridRoadTimetable.toWholeSeconds(sourceAccess.getValue().getTotalCost());
+      for (final ProfileEntry entry : profile.getProfile(sourceAccess.getKey().getId())) {
+        final int depTime = entry.getDepTime() - accessDuration;
+        if (depTime < rangeStart || depTime > rangeEnd) {
           continue;
         }
-        isThereATransitPath = true;
-        transitPaths.put(sourceAccess, destinationAccess, path.get());
+        candidateToSourceAccess.putIfAbsent(new ProfileEntry(depTime, entry.getArrTime()), sourceAccess.getKey());
       }
     }
 
-    if (!isThereATransitPath) {
-      return roadOnlyPath;
+    // Keep the Pareto-optimal candidates which are faster than the road and
+    // build their paths
+    final List<ProfileEntry> candidates = new ArrayList<>(candidateToSourceAccess.keySet());
+    candidates.sort(Comparator.comparingInt(ProfileEntry::getDepTime).reversed()
+        .thenComparingInt(ProfileEntry::getArrTime));
+    final List<ProfileEntry> goodCandidates = new ArrayList<>();
+    int earliestArrTime = Integer.MAX_VALUE;
+    for (final ProfileEntry candidate : candidates) {
+      if (candidate.getArrTime() >= earliestArrTime
+          || candidate.getArrTime() - candidate.getDepTime() >= roadOnlyDuration) {
+        continue;
+      }
+      earliestArrTime = candidate.getArrTime();
+      goodCandidates.add(candidate);
     }
+    Collections.reverse(goodCandidates);
+    for (final ProfileEntry candidate : goodCandidates) {
+      final ICoreNode sourceAccess = candidateToSourceAccess.get(candidate);
+      final IPath<ICoreNode, ICoreEdge<ICoreNode>> sourceToAccess = sourceAccessPaths.get(sourceAccess);
+      final int depTimeAtAccess =
+          candidate.getDepTime() + HybridRoadTimetable.toWholeSeconds(sourceToAccess.getTotalCost());
+      final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> transitPath =
+          mProfileComputation.extractPath(profile, sourceAccess.getId(), depTimeAtAccess);
+      if (!transitPath.isPresent()) {
+        continue;
+      }
+      final IPath<ICoreNode, ICoreEdge<ICoreNode>> accessToDestination =
+          stopToDestinationAccessPath.get(transitPath.get().getDestination().getId());
+      depTimeToPath.put(mDepTime + TimeUnit.SECONDS.toMillis(candidate.getDepTime() - rangeStart),
+          new TripletonPath<>(sourceToAccess, transitPath.get(), accessToDestination));
+    }
+    return depTimeToPath;
+  }
 
-    // Construct paths and choose shortest
-    IPath<ICoreNode, ICoreEdge<ICoreNode>> shortestPath = roadOnlyPath.orElseGet(() -> null);
-    for (final ICoreNode sourceAccess : transitPaths.keySet()) {
-      final IPath<ICoreNode, ICoreEdge<ICoreNode>> sourceToAccess = shortestPathToSourceAccess.get(sourceAccess);
-
-      final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> destinationAccessToPath =
-          transitPaths.get(sourceAccess);
-      for (final ICoreNode destinationAccess : destinationAccessToPath.keySet()) {
-        final IPath<ICoreNode, ICoreEdge<ICoreNode>> sourceAccessToDestinationAccess =
-            destinationAccessToPath.get(destinationAccess);
-        final IPath<ICoreNode, ICoreEdge<ICoreNode>> accessToDestination =
-            destinationAccessPaths.get(destinationAccess);
+  /**
+   * Computes the shortest paths from the given destination access nodes to the
+   * given destination.<br>
+   * <br>
+   * All access nodes are settled by a single bounded search from the
+   * destination, following the edges of the road graph backwards. If there is
+   * a reach table, the paths are looked up instead.
+   *
+   * @param destination The destination to compute paths to
+   * @return A map connecting reachable destination access nodes to their path
+   *         to the destination
+   */
+  private Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>>
+      computeDestinationAccessPaths(final ICoreNode destination) {
+    if (mReachTable != null) {
+      return mReachTable.getEgressPaths(destination);
+    }
+    final Map<ICoreNode, ICoreNode> accessToRoadRepresentative =
+        computeRoadRepresentatives(Collections.singletonList(destination));
+    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> roadRepresentativeToPath =
+        mRoadComputationFromAccessNodes.computeShortestPaths(Collections.singletonList(destination),
+            accessToRoadRepresentative.values());
+    return HybridRoadTimetable.toAccessPaths(accessToRoadRepresentative, roadRepresentativeToPath);
+  }
 
-        final IPath<ICoreNode, ICoreEdge<ICoreNode>> path =
-            new TripletonPath<>(sourceToAccess, sourceAccessToDestinationAccess, accessToDestination);
-        if (shortestPath == null || path.getTotalCost() < shortestPath.getTotalCost()) {
-          shortestPath = path;
+  /**
+   * Computes the access nodes of the given nodes together with their nearest
+   * road node. Access nodes without a nearest road node are not included.
+   *
+   * @param nodes The nodes to compute access nodes for
+   * @return A map connecting the access nodes to their nearest road node
+   */
+  private Map<ICoreNode, ICoreNode> computeRoadRepresentatives(final Collection<ICoreNode> nodes) {
+    final Map<ICoreNode, ICoreNode> accessToRoadRepresentative = new HashMap<>();
+    for (final ICoreNode node : nodes) {
+      for (final ICoreNode accessNode : mAccessNodeComputation.computeAccessNodes(node)) {
+        if (accessToRoadRepresentative.containsKey(accessNode)) {
+          continue;
+        }
+        final Optional<ICoreNode> roadRepresentative = mStopToNearestRoadNode.getNearestNeighbor(accessNode);
+        if (roadRepresentative.isPresent()) {
+          accessToRoadRepresentative.put(accessNode, roadRepresentative.get());
         }
       }
     }
-
-    return Optional.ofNullable(shortestPath);
+    return accessToRoadRepresentative;
   }
 
-  @Override
-  public Optional<Double> computeShortestPathCost(final Collection<ICoreNode> sources, final ICoreNode destination) {
-    throw new UnsupportedOperationException();
+  /**
+   * Computes the shortest paths from the given sources to their access
+   * nodes.<br>
+   * <br>
+   * All access nodes are settled by a single bounded search from the sources.
+   * If there is a reach table, the paths are looked up instead.
+   *
+   * @param sources The sources to compute paths from
+   * @return A map connecting reachable source access nodes to the shortest of
+   *         the paths to them
+   */
+  private Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>>
+      computeSourceAccessPaths(final Collection<ICoreNode> sources) {
+    if (mReachTable != null) {
+      return mReachTable.getAccessPaths(sources);
+    }
+    final Map<ICoreNode, ICoreNode> accessToRoadRepresentative = computeRoadRepresentatives(sources);
+    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> roadRepresentativeToPath =
+        mRoadComputationToAccessNodes.computeShortestPaths(sources, accessToRoadRepresentative.values());
+    return HybridRoadTimetable.toAccessPaths(accessToRoadRepresentative, roadRepresentativeToPath);
   }
 
-  @Override
-  public Map<ICoreNode, ? extends IHasPathCost> computeShortestPathCostsReachable(final Collection<ICoreNode> sources) {
-    throw new UnsupportedOperationException();
+  /**
+   * Starts the given independent phase of a query. The phase is executed by
+   * the executor of this algorithm, or directly if there is none or it was
+   * already shut down. The {@link QueryDeadline} of the current thread also
+   * applies to the phase.
+   *
+   * @param       <T> The type of the result of the phase
+   * @param phase The phase to start
+   * @return A future holding the result of the phase
+   */
+  private <T> CompletableFuture<T> runPhase(final Supplier<T> phase) {
+    if (mPhaseExecutor != null) {
+      try {
+        return CompletableFuture.supplyAsync(QueryDeadline.bind(phase), mPhaseExecutor);
+      } catch (final RejectedExecutionException e) {
+        // Queries still running while the application shuts down finish
+        // sequentially
+      }
+    }
+    return CompletableFuture.completedFuture(phase.get());
   }
 
 }
@@ -0,0 +1,554 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import org.eclipse.collections.impl.list.mutable.primitive.FloatArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.nearestneighbor.INearestNeighborComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EmptyPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+import de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap;
+
+/**
+ * Precomputed table of the road nodes from which the stops of a timetable can
+ * be reached, and which can be reached from them, within a given travel time
+ * using a single road transportation mode.<br>
+ * <br>
+ * For every stop, a bounded search is run forward and backward from its
+ * nearest road node. The settled nodes are stored as compact lists of stop,
+ * cost and tree edge, inverted to be indexed by road node. The stops reachable
+ * from a road node, or from which it can be reached, together with their
+ * shortest paths are thus obtained by a table lookup, without running a search
+ * at query time.<br>
+ * <br>
+ * The searches are computed in parallel. The table is immutable after creation
+ * and can be queried concurrently.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class StopReachTable {
+  /**
+   * Edge index used to encode that a node is the root of a search, i.e. the
+   * nearest road node of the stop.
+   */
+  private static final int NO_EDGE = -1;
+  /**
+   * Index used to encode that a node is not contained in the graph.
+   */
+  private static final int NO_INDEX = -1;
+
+  /**
+   * Searches the entry of the given stop in the given list of a node.
+   *
+   * @param offsets The offsets of the lists, indexed by node index
+   * @param stops   The stop IDs of the entries, ascending within each list
+   * @param node    The index of the node
+   * @param stopId  The ID of the stop
+   * @return The position of the entry or <code>-1</code> if the list of the
+   *         node has no entry for the stop
+   */
+  private static int findEntry(final int[] offsets, final IntArrayList stops, final int node, final int stopId) {
+    int low = offsets[node];
+    int high = offsets[node + 1] - 1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final int middleStopId = stops.get(middle);
+      if (middleStopId < stopId) {
+        low = middle + 1;
+      } else if (middleStopId > stopId) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Inverts the given search results of the stops into lists indexed by road
+   * node.
+   *
+   * @param stops       The stops, ascending in their ID
+   * @param stopToNodes The indices of the settled nodes, indexed like the stops
+   * @param stopToCosts The costs of the settled nodes, indexed like the stops
+   * @param stopToEdges The tree edges of the settled nodes, indexed like the
+   *                    stops
+   * @param offsets     The offsets of the lists to fill, indexed by node index
+   * @param entryStops  The stop IDs of the entries to fill
+   * @param entryCosts  The costs of the entries to fill
+   * @param entryEdges  The tree edges of the entries to fill
+   */
+  private static void invert(final Stop[] stops, final int[][] stopToNodes, final float[][] stopToCosts,
+      final int[][] stopToEdges, final int[] offsets, final IntArrayList entryStops, final FloatArrayList entryCosts,
+      final IntArrayList entryEdges) {
+    // Count the entries of each node, then compute the offsets
+    for (final int[] nodes : stopToNodes) {
+      for (final int node : nodes) {
+        offsets[node + 1]++;
+      }
+    }
+    for (int node = 0; node + 1 < offsets.length; node++) {
+      offsets[node + 1] += offsets[node];
+    }
+    final int amountOfEntries = offsets[offsets.length - 1];
+    final int[] stopIds = new int[amountOfEntries];
+    final float[] costs = new float[amountOfEntries];
+    final int[] edges = new int[amountOfEntries];
+
+    // Stops are processed ascending in their ID, so are the entries of a node
+    final int[] nextPositions = Arrays.copyOf(offsets, offsets.length - 1);
+    for (int i = 0; i < stops.length; i++) {
+      final int[] nodes = stopToNodes[i];
+      for (int j = 0; j < nodes.length; j++) {
+        final int position = nextPositions[nodes[j]];
+        nextPositions[nodes[j]]++;
+        stopIds[position] = stops[i].getId();
+        costs[position] = stopToCosts[i][j];
+        edges[position] = stopToEdges[i][j];
+      }
+    }
+    entryStops.addAll(stopIds);
+    entryCosts.addAll(costs);
+    entryEdges.addAll(edges);
+  }
+
+  /**
+   * Creates the table for the stops of the given timetable.
+   *
+   * @param graph                 The graph containing the road nodes
+   * @param table                 The timetable containing the stops
+   * @param stopToNearestRoadNode Object to use for retrieving the nearest road
+   *                              node to a given stop
+   * @param mode                  The road transportation mode to use
+   * @param maxCost               The travel time in seconds after which to
+   *                              abort the searches
+   * @return The created table
+   */
+  public static StopReachTable of(final StaticRoadGraph graph, final Timetable table,
+      final INearestNeighborComputation<ICoreNode> stopToNearestRoadNode, final ETransportationMode mode,
+      final double maxCost) {
+    final Stop[] stops = table.getStops().stream().sorted(Comparator.comparingInt(Stop::getId)).toArray(Stop[]::new);
+    final int[][] stopToAccessNodes = new int[stops.length][];
+    final float[][] stopToAccessCosts = new float[stops.length][];
+    final int[][] stopToAccessEdges = new int[stops.length][];
+    final int[][] stopToEgressNodes = new int[stops.length][];
+    final float[][] stopToEgressCosts = new float[stops.length][];
+    final int[][] stopToEgressEdges = new int[stops.length][];
+
+    // Searches of different stops are independent, every thread uses its own
+    // search space. Each stop writes its own slots, the join of the stream
+    // publishes them.
+    final ThreadLocal<ReachSearch> searches = ThreadLocal.withInitial(() -> new ReachSearch(graph, mode, maxCost));
+    IntStream.range(0, stops.length).parallel().forEach(i -> {
+      final Optional<ICoreNode> roadNode = stopToNearestRoadNode.getNearestNeighbor(stops[i]);
+      final int root;
+      if (roadNode.isPresent()) {
+        root = graph.getIndexOfNode(roadNode.get());
+      } else {
+        root = NO_INDEX;
+      }
+      final ReachSearch search = searches.get();
+      // Road nodes reaching the stop are found by following edges backwards
+      search.search(root, true);
+      stopToAccessNodes[i] = search.getSettledNodes();
+      stopToAccessCosts[i] = search.getSettledCosts();
+      stopToAccessEdges[i] = search.getSettledEdges();
+      search.search(root, false);
+      stopToEgressNodes[i] = search.getSettledNodes();
+      stopToEgressCosts[i] = search.getSettledCosts();
+      stopToEgressEdges[i] = search.getSettledEdges();
+    });
+
+    final StopReachTable reachTable = new StopReachTable(graph, table, mode, graph.size());
+    StopReachTable.invert(stops, stopToAccessNodes, stopToAccessCosts, stopToAccessEdges, reachTable.mAccessOffsets,
+        reachTable.mAccessStops, reachTable.mAccessCosts, reachTable.mAccessEdges);
+    StopReachTable.invert(stops, stopToEgressNodes, stopToEgressCosts, stopToEgressEdges, reachTable.mEgressOffsets,
+        reachTable.mEgressStops, reachTable.mEgressCosts, reachTable.mEgressEdges);
+    return reachTable;
+  }
+
+  /**
+   * The costs of the entries of the access lists, in seconds. An entry of a
+   * node is the cost of the shortest path from the node to the stop.
+   */
+  private final FloatArrayList mAccessCosts;
+  /**
+   * The tree edges of the entries of the access lists. That is the first edge
+   * of the shortest path from the node to the stop, or {@link #NO_EDGE}.
+   */
+  private final IntArrayList mAccessEdges;
+  /**
+   * The offsets of the access lists, indexed by node index. The list of a node
+   * contains the stops which can be reached from it.
+   */
+  private final int[] mAccessOffsets;
+  /**
+   * The stop IDs of the entries of the access lists, ascending within each
+   * list.
+   */
+  private final IntArrayList mAccessStops;
+  /**
+   * The costs of the entries of the egress lists, in seconds. An entry of a
+   * node is the cost of the shortest path from the stop to the node.
+   */
+  private final FloatArrayList mEgressCosts;
+  /**
+   * The tree edges of the entries of the egress lists. That is the last edge of
+   * the shortest path from the stop to the node, or {@link #NO_EDGE}.
+   */
+  private final IntArrayList mEgressEdges;
+  /**
+   * The offsets of the egress lists, indexed by node index. The list of a node
+   * contains the stops from which it can be reached.
+   */
+  private final int[] mEgressOffsets;
+  /**
+   * The stop IDs of the entries of the egress lists, ascending within each
+   * list.
+   */
+  private final IntArrayList mEgressStops;
+  /**
+   * The graph containing the road nodes.
+   */
+  private final StaticRoadGraph mGraph;
+  /**
+   * The road transportation mode used by the searches.
+   */
+  private final ETransportationMode mMode;
+  /**
+   * The timetable containing the stops.
+   */
+  private final Timetable mTable;
+
+  /**
+   * Creates a new initially empty table.
+   *
+   * @param graph         The graph containing the road nodes
+   * @param table         The timetable containing the stops
+   * @param mode          The road transportation mode used by the searches
+   * @param amountOfNodes The amount of nodes of the graph
+   */
+  private StopReachTable(final StaticRoadGraph graph, final Timetable table, final ETransportationMode mode,
+      final int amountOfNodes) {
+    mGraph = graph;
+    mTable = table;
+    mMode = mode;
+    mAccessOffsets = new int[amountOfNodes + 1];
+    mAccessStops = new IntArrayList();
+    mAccessCosts = new FloatArrayList();
+    mAccessEdges = new IntArrayList();
+    mEgressOffsets = new int[amountOfNodes + 1];
+    mEgressStops = new IntArrayList();
+    mEgressCosts = new FloatArrayList();
+    mEgressEdges = new IntArrayList();
+  }
+
+  /**
+   * Gets the amount of entries of this table, summed over both directions.
+   *
+   * @return The amount of entries
+   */
+  public int getAmountOfEntries() {
+    return mAccessStops.size() + mEgressStops.size();
+  }
+
+  /**
+   * Computes the shortest paths from the given sources to all stops which can
+   * be reached from them. A path ends at the nearest road node of its stop.
+   *
+   * @param sources The road nodes to compute paths from
+   * @return A map connecting the reachable stops to the shortest of the paths
+   *         to them
+   */
+  public Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> getAccessPaths(final Collection<ICoreNode> sources) {
+    // Select the closest source for every stop
+    final Map<Integer, ICoreNode> stopToSource = new HashMap<>();
+    final Map<Integer, Integer> stopToPosition = new HashMap<>();
+    for (final ICoreNode source : sources) {
+      final int sourceIndex = mGraph.getIndexOfNode(source);
+      if (sourceIndex == NO_INDEX) {
+        continue;
+      }
+      for (int position = mAccessOffsets[sourceIndex]; position < mAccessOffsets[sourceIndex + 1]; position++) {
+        final int stopId = mAccessStops.get(position);
+        final Integer previousPosition = stopToPosition.get(stopId);
+        if (previousPosition == null || mAccessCosts.get(position) < mAccessCosts.get(previousPosition)) {
+          stopToSource.put(stopId, source);
+          stopToPosition.put(stopId, position);
+        }
+      }
+    }
+
+    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> stopToPath = new HashMap<>();
+    for (final Entry<Integer, Integer> entry : stopToPosition.entrySet()) {
+      final int stopId = entry.getKey();
+      stopToPath.put(mTable.getStop(stopId), extractAccessPath(stopToSource.get(stopId), entry.getValue(), stopId));
+    }
+    return stopToPath;
+  }
+
+  /**
+   * Computes the shortest paths to the given destination from all stops from
+   * which it can be reached. A path starts at the nearest road node of its
+   * stop.
+   *
+   * @param destination The road node to compute paths to
+   * @return A map connecting the stops to their path to the destination
+   */
+  public Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> getEgressPaths(final ICoreNode destination) {
+    final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> stopToPath = new HashMap<>();
+    final int destinationIndex = mGraph.getIndexOfNode(destination);
+    if (destinationIndex == NO_INDEX) {
+      return stopToPath;
+    }
+    for (int position = mEgressOffsets[destinationIndex]; position < mEgressOffsets[destinationIndex + 1];
+        position++) {
+      final int stopId = mEgressStops.get(position);
+      stopToPath.put(mTable.getStop(stopId), extractEgressPath(destination, position, stopId));
+    }
+    return stopToPath;
+  }
+
+  /**
+   * Extracts the shortest path from the node of the given entry of the access
+   * lists to the given stop, by following the tree edges.
+   *
+   * @param source   The node of the entry
+   * @param position The position of the entry
+   * @param stopId   The ID of the stop of the entry
+   * @return The path to the nearest road node of the stop
+   */
+  private IPath<ICoreNode, ICoreEdge<ICoreNode>> extractAccessPath(final ICoreNode source, final int position,
+      final int stopId) {
+    int edge = mAccessEdges.get(position);
+    if (edge == NO_EDGE) {
+      return new EmptyPath<>(source);
+    }
+    final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path = new EdgePath<>();
+    while (edge != NO_EDGE) {
+      path.addEdge(mGraph.getEdge(edge), mGraph.getEdgeCost(edge, mMode));
+      final int nextPosition =
+          StopReachTable.findEntry(mAccessOffsets, mAccessStops, mGraph.getEdgeDestination(edge), stopId);
+      edge = mAccessEdges.get(nextPosition);
+    }
+    return path;
+  }
+
+  /**
+   * Extracts the shortest path from the given stop to the node of the given
+   * entry of the egress lists, by following the tree edges backwards.
+   *
+   * @param destination The node of the entry
+   * @param position    The position of the entry
+   * @param stopId      The ID of the stop of the entry
+   * @return The path from the nearest road node of the stop
+   */
+  private IPath<ICoreNode, ICoreEdge<ICoreNode>> extractEgressPath(final ICoreNode destination, final int position,
+      final int stopId) {
+    int edge = mEgressEdges.get(position);
+    if (edge == NO_EDGE) {
+      return new EmptyPath<>(destination);
+    }
+    // The path is found from its end, build it reversely
+    final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path = new EdgePath<>(true);
+    while (edge != NO_EDGE) {
+      path.addEdge(mGraph.getEdge(edge), mGraph.getEdgeCost(edge, mMode));
+      final int nextPosition =
+          StopReachTable.findEntry(mEgressOffsets, mEgressStops, mGraph.getEdgeSource(edge), stopId);
+      edge = mEgressEdges.get(nextPosition);
+    }
+    return path;
+  }
+
+  /**
+   * Reusable bounded search on a static road graph using a single road
+   * transportation mode. Every thread must use its own instance.
+   *
+   * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+   */
+  private static final class ReachSearch {
+    /**
+     * The heap of active nodes, keyed by tentative distance.
+     */
+    private final IndexedMinHeap mActiveNodes;
+    /**
+     * The current timestamp, entries with this timestamp are valid.
+     */
+    private int mCurrentStamp;
+    /**
+     * The tentative distance of each node, indexed by node index.
+     */
+    private final double[] mDistances;
+    /**
+     * The graph to search on.
+     */
+    private final StaticRoadGraph mGraph;
+    /**
+     * The travel time in seconds after which to abort the search.
+     */
+    private final double mMaxCost;
+    /**
+     * The road transportation mode to use.
+     */
+    private final ETransportationMode mMode;
+    /**
+     * The edge that lead to each node, indexed by node index.
+     */
+    private final int[] mParentEdges;
+    /**
+     * The costs of the nodes settled by the last search.
+     */
+    private final FloatArrayList mSettledCosts;
+    /**
+     * The tree edges of the nodes settled by the last search.
+     */
+    private final IntArrayList mSettledEdges;
+    /**
+     * The indices of the nodes settled by the last search.
+     */
+    private final IntArrayList mSettledNodes;
+    /**
+     * The timestamp of each node, indexed by node index.
+     */
+    private final int[] mStamps;
+
+    /**
+     * Creates a new search on the given graph.
+     *
+     * @param graph   The graph to search on
+     * @param mode    The road transportation mode to use
+     * @param maxCost The travel time in seconds after which to abort the
+     *                search
+     */
+    ReachSearch(final StaticRoadGraph graph, final ETransportationMode mode, final double maxCost) {
+      mGraph = graph;
+      mMode = mode;
+      mMaxCost = maxCost;
+      mActiveNodes = new IndexedMinHeap(graph.size());
+      mDistances = new double[graph.size()];
+      mParentEdges = new int[graph.size()];
+      mStamps = new int[graph.size()];
+      mSettledNodes = new IntArrayList();
+      mSettledCosts = new FloatArrayList();
+      mSettledEdges = new IntArrayList();
+    }
+
+    /**
+     * Gets the costs of the nodes settled by the last search.
+     *
+     * @return The costs, in seconds
+     */
+    float[] getSettledCosts() {
+      return mSettledCosts.toArray();
+    }
+
+    /**
+     * Gets the tree edges of the nodes settled by the last search. That is the
+     * edge over which a node was settled or {@link StopReachTable#NO_EDGE} for
+     * the root.
+     *
+     * @return The tree edges
+     */
+    int[] getSettledEdges() {
+      return mSettledEdges.toArray();
+    }
+
+    /**
+     * Gets the indices of the nodes settled by the last search.
+     *
+     * @return The node indices
+     */
+    int[] getSettledNodes() {
+      return mSettledNodes.toArray();
+    }
+
+    /**
+     * Settles all nodes within the maximal cost of the given root.
+     *
+     * @param root     The index of the node to start at or
+     *                 {@link StopReachTable#NO_INDEX} for an empty search
+     * @param backward Whether edges should be followed backwards, i.e. the
+     *                 costs are the costs from the nodes to the root
+     */
+    void search(final int root, final boolean backward) {
+      mSettledNodes.clear();
+      mSettledCosts.clear();
+      mSettledEdges.clear();
+      if (root == NO_INDEX) {
+        return;
+      }
+      mCurrentStamp++;
+      if (mCurrentStamp == Integer.MAX_VALUE) {
+        Arrays.fill(mStamps, 0);
+        mCurrentStamp = 1;
+      }
+      mActiveNodes.clear();
+
+      mStamps[root] = mCurrentStamp;
+      mDistances[root] = 0.0;
+      mParentEdges[root] = NO_EDGE;
+      mActiveNodes.add(root, 0.0);
+      while (!mActiveNodes.isEmpty()) {
+        final int node = mActiveNodes.poll();
+        final double distance = mDistances[node];
+        if (distance > mMaxCost) {
+          break;
+        }
+        mSettledNodes.add(node);
+        mSettledCosts.add((float) distance);
+        mSettledEdges.add(mParentEdges[node]);
+
+        final int begin;
+        final int end;
+        if (backward) {
+          begin = mGraph.getIncomingBegin(node);
+          end = mGraph.getIncomingEnd(node);
+        } else {
+          begin = mGraph.getOutgoingBegin(node);
+          end = mGraph.getOutgoingEnd(node);
+        }
+        for (int position = begin; position < end; position++) {
+          final int edge;
+          final int neighbor;
+          if (backward) {
+            edge = mGraph.getIncomingEdgeAt(position);
+            neighbor = mGraph.getEdgeSource(edge);
+          } else {
+            edge = mGraph.getOutgoingEdgeAt(position);
+            neighbor = mGraph.getEdgeDestination(edge);
+          }
+          final double cost = mGraph.getEdgeCost(edge, mMode);
+          if (cost == Double.POSITIVE_INFINITY) {
+            continue;
+          }
+          final double tentativeDistance = distance + cost;
+          if (mStamps[neighbor] != mCurrentStamp) {
+            mStamps[neighbor] = mCurrentStamp;
+            mDistances[neighbor] = tentativeDistance;
+            mParentEdges[neighbor] = edge;
+            mActiveNodes.add(neighbor, tentativeDistance);
+          } else if (mActiveNodes.contains(neighbor) && tentativeDistance < mDistances[neighbor]) {
+            mDistances[neighbor] = tentativeDistance;
+            mParentEdges[neighbor] = edge;
+            mActiveNodes.decreaseKey(neighbor, tentativeDistance);
+          }
+        }
+      }
+    }
+  }
+}
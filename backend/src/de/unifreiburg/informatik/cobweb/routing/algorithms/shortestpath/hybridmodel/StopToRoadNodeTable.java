@@ -0,0 +1,324 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.nearestneighbor.INearestNeighborComputation;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+
+/**
+ * Nearest neighbor computation that answers queries for the stops of a
+ * timetable by a precomputed table, mapping stops by their ID to the index of
+ * their nearest road node in a {@link StaticRoadGraph}.<br>
+ * <br>
+ * Stops of the timetable are looked up in constant time without any
+ * synchronization. All other queries are delegated to a given nearest neighbor
+ * computation. The table is computed once, querying the delegate for all stops
+ * in parallel, and is immutable afterwards.<br>
+ * <br>
+ * The table can be persisted to a versioned binary file. The file is bound to
+ * a fingerprint of the graph and the stops, it is recomputed if either of them
+ * changed.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class StopToRoadNodeTable implements INearestNeighborComputation<ICoreNode> {
+  /**
+   * The amount of bytes of the file header. Magic number, version, fingerprint
+   * and amount of stops.
+   */
+  private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+  /**
+   * Logger to use for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(StopToRoadNodeTable.class);
+  /**
+   * The magic number identifying stop to road node table files.
+   */
+  private static final int MAGIC = 0x53545244;
+  /**
+   * Index used to encode that a stop has no nearest road node.
+   */
+  private static final int NO_INDEX = -1;
+  /**
+   * The version of the file format. Increase on incompatible changes.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Computes a fingerprint of the given timetable and graph. It covers the
+   * fingerprint of the graph and the IDs and coordinates of all stops.
+   *
+   * @param table The timetable containing the stops
+   * @param graph The graph containing the road nodes
+   * @return The fingerprint
+   */
+  public static long computeFingerprint(final Timetable table, final StaticRoadGraph graph) {
+    long fingerprint = graph.getFingerprint();
+    final int greatestStopId = StopToRoadNodeTable.getGreatestStopId(table);
+    fingerprint = 31L * fingerprint + greatestStopId;
+    // Iterate ascending in the ID to not depend on the order of the stops
+    for (int stopId = 0; stopId <= greatestStopId; stopId++) {
+      final Stop stop = table.getStop(stopId);
+      if (stop == null) {
+        fingerprint = 31L * fingerprint;
+        continue;
+      }
+      fingerprint = 31L * fingerprint + stopId;
+      fingerprint = 31L * fingerprint + Float.floatToIntBits(stop.getLatitude());
+      fingerprint = 31L * fingerprint + Float.floatToIntBits(stop.getLongitude());
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Creates a table for the stops of the given timetable. If the given file
+   * contains a table for the same stops and graph, it is used. Otherwise, the
+   * table is computed and written to the file.
+   *
+   * @param table           The timetable containing the stops
+   * @param graph           The graph containing the road nodes
+   * @param nearestRoadNode The computation to use for computing the nearest
+   *                        road nodes and for answering queries not covered by
+   *                        the table
+   * @param cache           The file to persist the table to, or
+   *                        <code>null</code> if it should not be persisted
+   * @return The created table
+   */
+  public static StopToRoadNodeTable of(final Timetable table, final StaticRoadGraph graph,
+      final INearestNeighborComputation<ICoreNode> nearestRoadNode, final Path cache) {
+    if (cache == null) {
+      return new StopToRoadNodeTable(graph, nearestRoadNode,
+          StopToRoadNodeTable.computeTable(table, graph, nearestRoadNode));
+    }
+
+    final long fingerprint = StopToRoadNodeTable.computeFingerprint(table, graph);
+    final Optional<int[]> cachedTable = StopToRoadNodeTable.readTable(cache, fingerprint);
+    if (cachedTable.isPresent()) {
+      LOGGER.info("Using stop to road node cache: {}", cache);
+      return new StopToRoadNodeTable(graph, nearestRoadNode, cachedTable.get());
+    }
+
+    final int[] stopToRoadNode = StopToRoadNodeTable.computeTable(table, graph, nearestRoadNode);
+    StopToRoadNodeTable.writeTable(stopToRoadNode, cache, fingerprint);
+    return new StopToRoadNodeTable(graph, nearestRoadNode, stopToRoadNode);
+  }
+
+  /**
+   * Reads a table from the given file written by
+   * {@link #write(int[], Path, long)}.
+   *
+   * @param path        The file to read from
+   * @param fingerprint The fingerprint of the stops and graph the table must
+   *                    belong to
+   * @return The table or an empty optional if the file does not belong to the
+   *         given fingerprint or has an unknown format
+   * @throws IOException If an I/O exception occurred while reading the file
+   */
+  static Optional<int[]> read(final Path path, final long fingerprint) throws IOException {
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES) {
+        return Optional.empty();
+      }
+      buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != fingerprint) {
+      return Optional.empty();
+    }
+    final int amountOfStops = buffer.getInt();
+    if (amountOfStops < 0 || buffer.capacity() != HEADER_BYTES + (long) amountOfStops * Integer.BYTES) {
+      return Optional.empty();
+    }
+
+    // The table is small, copy it to the heap for faster access
+    final int[] stopToRoadNode = new int[amountOfStops];
+    buffer.asIntBuffer().get(stopToRoadNode);
+    return Optional.of(stopToRoadNode);
+  }
+
+  /**
+   * Writes the given table to the given file in a versioned binary format,
+   * replacing the file if it exists. Use {@link #read(Path, long)} to read it.
+   *
+   * @param stopToRoadNode The table to write
+   * @param path           The file to write to
+   * @param fingerprint    The fingerprint of the stops and graph the table
+   *                       belongs to
+   * @throws IOException If an I/O exception occurred while writing the file
+   */
+  static void write(final int[] stopToRoadNode, final Path path, final long fingerprint) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + stopToRoadNode.length * Integer.BYTES);
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+    buffer.putLong(fingerprint);
+    buffer.putInt(stopToRoadNode.length);
+    buffer.asIntBuffer().put(stopToRoadNode);
+    buffer.position(buffer.capacity());
+    buffer.flip();
+
+    // Write to a temporary file first to not leave a partially written file
+    final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Computes the index of the nearest road node for all stops of the given
+   * timetable. The stops are processed in parallel.
+   *
+   * @param table           The timetable containing the stops
+   * @param graph           The graph containing the road nodes
+   * @param nearestRoadNode The computation to use for computing the nearest
+   *                        road nodes, must support concurrent queries
+   * @return An array mapping stops by their ID to the index of their nearest
+   *         road node, or {@link #NO_INDEX} if there is none
+   */
+  private static int[] computeTable(final Timetable table, final StaticRoadGraph graph,
+      final INearestNeighborComputation<ICoreNode> nearestRoadNode) {
+    LOGGER.info("Computing nearest road nodes of stops");
+    final int[] stopToRoadNode = new int[StopToRoadNodeTable.getGreatestStopId(table) + 1];
+    Arrays.fill(stopToRoadNode, NO_INDEX);
+    // Each stop writes its own slot, the join of the stream publishes them
+    table.getStops().parallelStream().forEach(stop -> {
+      final Optional<ICoreNode> roadNode = nearestRoadNode.getNearestNeighbor(stop);
+      if (roadNode.isPresent()) {
+        stopToRoadNode[stop.getId()] = graph.getIndexOfNode(roadNode.get());
+      }
+    });
+    return stopToRoadNode;
+  }
+
+  /**
+   * Gets the greatest ID of the stops contained in the given timetable. Stops
+   * may be added with IDs that were not generated by the timetable.
+   *
+   * @param table The timetable containing the stops
+   * @return The greatest ID of the stops or <code>-1</code> if there are none
+   */
+  private static int getGreatestStopId(final Timetable table) {
+    final int greatestAddedStopId = table.getStops().stream().mapToInt(Stop::getId).max().orElse(-1);
+    return Math.max(table.getGreatestStopId(), greatestAddedStopId);
+  }
+
+  /**
+   * Attempts to read a table from the given file.
+   *
+   * @param cache       The file to read from
+   * @param fingerprint The fingerprint of the stops and graph the table must
+   *                    belong to
+   * @return The table or an empty optional if the file does not exist, could
+   *         not be read or belongs to different stops or a different graph
+   */
+  private static Optional<int[]> readTable(final Path cache, final long fingerprint) {
+    if (!Files.isRegularFile(cache)) {
+      return Optional.empty();
+    }
+    try {
+      final Optional<int[]> table = StopToRoadNodeTable.read(cache, fingerprint);
+      if (!table.isPresent()) {
+        LOGGER.info("Stop to road node cache is outdated, recomputing: {}", cache);
+      }
+      return table;
+    } catch (final IOException e) {
+      LOGGER.error("Error while reading stop to road node cache, recomputing", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Attempts to write the given table to the given file. Errors are logged, the
+   * table stays usable.
+   *
+   * @param stopToRoadNode The table to write
+   * @param cache          The file to write to
+   * @param fingerprint    The fingerprint of the stops and graph the table
+   *                       belongs to
+   */
+  private static void writeTable(final int[] stopToRoadNode, final Path cache, final long fingerprint) {
+    LOGGER.info("Writing stop to road node cache: {}", cache);
+    try {
+      final Path parent = cache.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      StopToRoadNodeTable.write(stopToRoadNode, cache, fingerprint);
+    } catch (final IOException e) {
+      LOGGER.error("Error while writing stop to road node cache", e);
+    }
+  }
+
+  /**
+   * The graph containing the road nodes.
+   */
+  private final StaticRoadGraph mGraph;
+  /**
+   * The computation to use for queries not covered by the table.
+   */
+  private final INearestNeighborComputation<ICoreNode> mNearestRoadNode;
+  /**
+   * An array mapping stops by their ID to the index of their nearest road node
+   * in {@link #mGraph}, or {@link #NO_INDEX} if there is none.
+   */
+  private final int[] mStopToRoadNode;
+
+  /**
+   * Creates a new table using the given data.
+   *
+   * @param graph           The graph containing the road nodes
+   * @param nearestRoadNode The computation to use for queries not covered by
+   *                        the table
+   * @param stopToRoadNode  An array mapping stops by their ID to the index of
+   *                        their nearest road node, or {@link #NO_INDEX} if
+   *                        there is none
+   */
+  private StopToRoadNodeTable(final StaticRoadGraph graph, final INearestNeighborComputation<ICoreNode> nearestRoadNode,
+      final int[] stopToRoadNode) {
+    mGraph = graph;
+    mNearestRoadNode = nearestRoadNode;
+    mStopToRoadNode = stopToRoadNode;
+  }
+
+  @Override
+  public Collection<ICoreNode> getKNearestNeighbors(final ICoreNode point, final int k) {
+    return mNearestRoadNode.getKNearestNeighbors(point, k);
+  }
+
+  @Override
+  public Optional<ICoreNode> getNearestNeighbor(final ICoreNode point) {
+    if (point instanceof Stop) {
+      final int stopId = point.getId();
+      if (stopId >= 0 && stopId < mStopToRoadNode.length && mStopToRoadNode[stopId] != NO_INDEX) {
+        return Optional.of(mGraph.getNode(mStopToRoadNode[stopId]));
+      }
+    }
+    return mNearestRoadNode.getNearestNeighbor(point);
+  }
+
+  @Override
+  public Collection<ICoreNode> getNeighborhood(final ICoreNode point, final double range) {
+    return mNearestRoadNode.getNeighborhood(point, range);
+  }
+}
@@ -0,0 +1,585 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.AShortestPathComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ITransitComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.PathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.FootpathTransitEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.IHasTime;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitNode;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+
+/**
+ * Implementation of the Round-Based Public Transit Routing algorithm (RAPTOR)
+ * that is able to compute shortest paths on a {@link RaptorTimetable}.<br>
+ * <br>
+ * The algorithm operates in rounds, round <code>k</code> computes the earliest
+ * arrival at every stop using at most <code>k</code> trips. A round only scans
+ * the routes serving stops which were improved in the previous round, each
+ * route once from the earliest such stop on. The amount of rounds is bounded,
+ * which bounds the amount of transfers of the journeys and the cost of a
+ * query.<br>
+ * <br>
+ * Like the Connection-Scan algorithm, the label of a stop is the earliest time
+ * at which a trip can be boarded at it, footpaths are relaxed directly after
+ * arriving. If a date is given, only trips whose service runs at that date
+ * are considered, trips departing before the starting time use the services
+ * of the following day.<br>
+ * <br>
+ * For details refer to:
+ * <ul>
+ * <li><code>Round-Based Public Transit Routing</code> - Delling D., Pajor T. and
+ * Werneck R. - 2015 -
+ * <a href="https://doi.org/10.1287/trsc.2014.0534">doi.org/10.1287/trsc.2014.0534</a></li>
+ * </ul>
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class Raptor extends AShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>>
+    implements ITransitComputation {
+  /**
+   * The default maximal amount of rounds, i.e. of trips used by a journey.
+   */
+  public static final int DEFAULT_MAX_ROUNDS = 16;
+  /**
+   * The index indicating that there is no route, position or footpath.
+   */
+  private static final int NO_INDEX = -1;
+
+  /**
+   * Creates and adds an edge from the given source to destination to the given
+   * path. The cost of the edge is determined by the time difference of both
+   * nodes.
+   *
+   * @param path        The path to add the edge to
+   * @param source      The source node of the edge
+   * @param destination The destination node of the edge
+   * @param walkByFoot  <code>True</code> if the transportation mode of the edge is
+   *                    by foot, <code>false</code> if by tram.
+   */
+  private static void addEdgeToPath(final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path, final TransitNode source,
+      final TransitNode destination, final boolean walkByFoot) {
+    final double cost = destination.getTime() - source.getTime();
+    final ICoreEdge<ICoreNode> edge;
+    if (walkByFoot) {
+      edge = new FootpathTransitEdge<>(0, source, destination, cost);
+    } else {
+      edge = new TransitEdge<>(0, source, destination, cost);
+    }
+    path.addEdge(edge, cost);
+  }
+
+  /**
+   * Extracts the starting time of the given sources. That is the time of the
+   * first source, the times of further sources are interpreted to be not
+   * before it.
+   *
+   * @param sources The sources to extract the time from, must not be empty
+   * @return The extracted time
+   * @throws IllegalArgumentException If the first source has no time
+   */
+  private static int extractStartingTime(final Collection<ICoreNode> sources) throws IllegalArgumentException {
+    return Raptor.extractTime(sources.iterator().next());
+  }
+
+  /**
+   * Extracts the time from the given node.
+   *
+   * @param node The node to extract the time from
+   * @return The extracted time
+   * @throws IllegalArgumentException If the given node has no time
+   */
+  private static int extractTime(final ICoreNode node) throws IllegalArgumentException {
+    if (!(node instanceof IHasTime)) {
+      throw new IllegalArgumentException();
+    }
+    return ((IHasTime) node).getTime();
+  }
+
+  /**
+   * The date to route at or <code>null</code> if all trips should be
+   * considered running every day.
+   */
+  private final LocalDate mDate;
+  /**
+   * The frozen view of the timetable, providing footpaths and services.
+   */
+  private final FrozenTimetable mFrozenTable;
+  /**
+   * The maximal amount of rounds, i.e. of trips used by a journey.
+   */
+  private final int mMaxRounds;
+  /**
+   * The route based layout of the timetable to route on.
+   */
+  private final RaptorTimetable mRaptorTable;
+  /**
+   * The timetable data the layout was created of, providing the stops.
+   */
+  private final Timetable mTable;
+
+  /**
+   * Creates a new RAPTOR algorithm which considers all trips running every
+   * day and allows {@link #DEFAULT_MAX_ROUNDS} rounds.
+   *
+   * @param table       The timetable data the layout was created of
+   * @param raptorTable The route based layout of the timetable to route on
+   */
+  public Raptor(final Timetable table, final RaptorTimetable raptorTable) {
+    this(table, raptorTable, null, DEFAULT_MAX_ROUNDS);
+  }
+
+  /**
+   * Creates a new RAPTOR algorithm which only considers trips running at the
+   * given date.
+   *
+   * @param table       The timetable data the layout was created of
+   * @param raptorTable The route based layout of the timetable to route on
+   * @param date        The date to route at, i.e. the date of the departure
+   *                    times of the queries, or <code>null</code> if all trips
+   *                    should be considered running every day
+   * @param maxRounds   The maximal amount of rounds, i.e. of trips used by a
+   *                    journey. Must be positive.
+   */
+  public Raptor(final Timetable table, final RaptorTimetable raptorTable, final LocalDate date,
+      final int maxRounds) {
+    mTable = table;
+    mRaptorTable = raptorTable;
+    mDate = date;
+    mMaxRounds = maxRounds;
+    mFrozenTable = raptorTable.getTimetable();
+  }
+
+  @Override
+  public Collection<ICoreNode> computeSearchSpace(final Collection<ICoreNode> sources, final ICoreNode destination) {
+    final int startingTime = Raptor.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
+
+    // Collect all visited stops
+    final Collection<ICoreNode> searchSpace = new ArrayList<>();
+    for (int i = 0; i < labels.mStopToArrTime.length; i++) {
+      final int arrTime = labels.mStopToArrTime[i];
+      // Skip if not visited
+      if (arrTime == Integer.MAX_VALUE) {
+        continue;
+      }
+      searchSpace.add(createNodeForStop(i, arrTime));
+    }
+
+    return searchSpace;
+  }
+
+  @Override
+  public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
+      final ICoreNode destination) {
+    final int startingTime = Raptor.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
+    // Not reachable
+    if (labels.mStopToArrTime[destination.getId()] == Integer.MAX_VALUE) {
+      return Optional.empty();
+    }
+
+    return extractPath(labels, destination.getId(), startingTime);
+  }
+
+  @Override
+  public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
+      final Map<ICoreNode, Integer> destinationToEgressDuration) {
+    final int[] stopToEgressDuration = new int[mRaptorTable.getAmountOfStops()];
+    Arrays.fill(stopToEgressDuration, Integer.MAX_VALUE);
+    for (final Entry<ICoreNode, Integer> destination : destinationToEgressDuration.entrySet()) {
+      final int stopId = destination.getKey().getId();
+      stopToEgressDuration[stopId] = Math.min(stopToEgressDuration[stopId], destination.getValue().intValue());
+    }
+
+    final int startingTime = Raptor.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, stopToEgressDuration, startingTime);
+
+    // Choose the best reachable destination
+    int bestDestinationStop = NO_INDEX;
+    long bestTargetTime = Long.MAX_VALUE;
+    for (final ICoreNode destination : destinationToEgressDuration.keySet()) {
+      final int stopId = destination.getId();
+      if (labels.mStopToArrTime[stopId] == Integer.MAX_VALUE) {
+        continue;
+      }
+      final long targetTime = (long) labels.mStopToArrTime[stopId] + stopToEgressDuration[stopId];
+      if (targetTime < bestTargetTime) {
+        bestTargetTime = targetTime;
+        bestDestinationStop = stopId;
+      }
+    }
+
+    // Not reachable
+    if (bestDestinationStop == NO_INDEX) {
+      return Optional.empty();
+    }
+
+    return extractPath(labels, bestDestinationStop, startingTime);
+  }
+
+  @Override
+  public Optional<Double> computeShortestPathCost(final Collection<ICoreNode> sources, final ICoreNode destination) {
+    final int startingTime = Raptor.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
+
+    final int arrTime = labels.mStopToArrTime[destination.getId()];
+    // Not reachable
+    if (arrTime == Integer.MAX_VALUE) {
+      return Optional.empty();
+    }
+
+    return Optional.of((double) arrTime - startingTime);
+  }
+
+  @Override
+  public Map<ICoreNode, ? extends IHasPathCost> computeShortestPathCostsReachable(final Collection<ICoreNode> sources) {
+    final int startingTime = Raptor.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, null, startingTime);
+
+    // Collect all reachable stops
+    final Map<ICoreNode, PathCost> stopToCost = new HashMap<>();
+    for (int i = 0; i < labels.mStopToArrTime.length; i++) {
+      final int arrTime = labels.mStopToArrTime[i];
+      // Skip if not reachable
+      if (arrTime == Integer.MAX_VALUE) {
+        continue;
+      }
+      stopToCost.put(createNodeForStop(i, arrTime), new PathCost((double) arrTime - startingTime));
+    }
+
+    return stopToCost;
+  }
+
+  /**
+   * Helper method to compute shortest paths from the given sources to a
+   * possible destination.
+   *
+   * @param sources              The sources to start computation from, must
+   *                             not be empty. Each source starts at its own
+   *                             time.
+   * @param stopToEgressDuration An array mapping the destination stops to the
+   *                             duration needed after arriving at them and
+   *                             all other stops to {@link Integer#MAX_VALUE},
+   *                             or <code>null</code> if routing to all
+   *                             reachable stops is desired
+   * @param startingTime         The time to start routing at in seconds since
+   *                             midnight, the times of all sources must not
+   *                             be before it
+   * @return The labels computed by the algorithm
+   */
+  private Labels computeShortestPathHelper(final Collection<ICoreNode> sources, final int[] stopToEgressDuration,
+      final int startingTime) {
+    // Earliest time at which any destination is finished, including its egress
+    long targetTime = Long.MAX_VALUE;
+
+    final int amountOfStops = mRaptorTable.getAmountOfStops();
+    final Labels labels = new Labels(amountOfStops);
+    // Labels of the previous round, trips may only be boarded using them
+    final int[] stopToPreviousArrTime = new int[amountOfStops];
+    Arrays.fill(stopToPreviousArrTime, Integer.MAX_VALUE);
+    // Earliest arrival by a trip, footpaths of later arrivals can not improve
+    final int[] stopToTripArrTime = new int[amountOfStops];
+    Arrays.fill(stopToTripArrTime, Integer.MAX_VALUE);
+    IntArrayList markedStops = new IntArrayList();
+    IntArrayList nextMarkedStops = new IntArrayList();
+    final boolean[] isStopMarked = new boolean[amountOfStops];
+
+    // Relax all initial footpaths, each source at its own time
+    for (final ICoreNode source : sources) {
+      int sourceTime = Raptor.extractTime(source);
+      if (sourceTime < startingTime) {
+        sourceTime += 24 * 60 * 60;
+      }
+      final int footpathEnd = mFrozenTable.getFootpathEnd(source.getId());
+      for (int footpath = mFrozenTable.getFootpathBegin(source.getId()); footpath < footpathEnd; footpath++) {
+        final int footpathArrStopId = mFrozenTable.getFootpathArrStopId(footpath);
+        final int footpathTime = sourceTime + mFrozenTable.getFootpathDuration(footpath);
+        if (footpathTime >= labels.mStopToArrTime[footpathArrStopId]) {
+          continue;
+        }
+        labels.set(footpathArrStopId, footpathTime, NO_INDEX, RaptorTimetable.NO_TRIP, NO_INDEX, NO_INDEX, footpath);
+        if (!isStopMarked[footpathArrStopId]) {
+          isStopMarked[footpathArrStopId] = true;
+          markedStops.add(footpathArrStopId);
+        }
+        if (stopToEgressDuration != null && stopToEgressDuration[footpathArrStopId] != Integer.MAX_VALUE) {
+          targetTime = Math.min(targetTime, (long) footpathTime + stopToEgressDuration[footpathArrStopId]);
+        }
+      }
+    }
+
+    // Resolve the services running at the date and the day after
+    final boolean[] activeServices = mFrozenTable.getActiveServices(mDate);
+    final boolean[] nextDayActiveServices;
+    if (mDate == null) {
+      nextDayActiveServices = activeServices;
+    } else {
+      nextDayActiveServices = mFrozenTable.getActiveServices(mDate.plusDays(1));
+    }
+
+    final int[] routeToFirstPosition = new int[mRaptorTable.getAmountOfRoutes()];
+    Arrays.fill(routeToFirstPosition, NO_INDEX);
+    final IntArrayList queuedRoutes = new IntArrayList();
+    for (int round = 1; round <= mMaxRounds && !markedStops.isEmpty(); round++) {
+      // Queue the routes serving marked stops, from the earliest marked stop on
+      for (int i = 0; i < markedStops.size(); i++) {
+        final int stopId = markedStops.get(i);
+        isStopMarked[stopId] = false;
+        stopToPreviousArrTime[stopId] = labels.mStopToArrTime[stopId];
+        final int routeEnd = mRaptorTable.getStopRouteEnd(stopId);
+        for (int index = mRaptorTable.getStopRouteBegin(stopId); index < routeEnd; index++) {
+          final int route = mRaptorTable.getStopRoute(index);
+          final int position = mRaptorTable.getStopRoutePosition(index);
+          if (routeToFirstPosition[route] == NO_INDEX) {
+            queuedRoutes.add(route);
+            routeToFirstPosition[route] = position;
+          } else if (position < routeToFirstPosition[route]) {
+            routeToFirstPosition[route] = position;
+          }
+        }
+      }
+      markedStops.clear();
+
+      // Scan the queued routes
+      for (int i = 0; i < queuedRoutes.size(); i++) {
+        final int route = queuedRoutes.get(i);
+        final int length = mRaptorTable.getRouteLength(route);
+        int trip = RaptorTimetable.NO_TRIP;
+        int shift = 0;
+        int boardPosition = NO_INDEX;
+        for (int position = routeToFirstPosition[route]; position < length; position++) {
+          final int stopId = mRaptorTable.getRouteStopId(route, position);
+
+          // Arrive by the current trip and relax all outgoing footpaths
+          if (trip != RaptorTimetable.NO_TRIP) {
+            final int arrTime = mRaptorTable.getArrTime(trip, position) + shift;
+            if (arrTime < stopToTripArrTime[stopId] && arrTime < targetTime) {
+              stopToTripArrTime[stopId] = arrTime;
+              final int footpathEnd = mFrozenTable.getFootpathEnd(stopId);
+              for (int footpath = mFrozenTable.getFootpathBegin(stopId); footpath < footpathEnd; footpath++) {
+                final int footpathArrStopId = mFrozenTable.getFootpathArrStopId(footpath);
+                final int footpathTime = arrTime + mFrozenTable.getFootpathDuration(footpath);
+                if (footpathTime >= labels.mStopToArrTime[footpathArrStopId]) {
+                  continue;
+                }
+                labels.set(footpathArrStopId, footpathTime, route, trip, boardPosition, position, footpath);
+                if (!isStopMarked[footpathArrStopId]) {
+                  isStopMarked[footpathArrStopId] = true;
+                  nextMarkedStops.add(footpathArrStopId);
+                }
+                if (stopToEgressDuration != null && stopToEgressDuration[footpathArrStopId] != Integer.MAX_VALUE) {
+                  targetTime = Math.min(targetTime, (long) footpathTime + stopToEgressDuration[footpathArrStopId]);
+                }
+              }
+            }
+          }
+
+          // Switch to an earlier trip if the stop was reached in time for it
+          final int previousArrTime = stopToPreviousArrTime[stopId];
+          if (previousArrTime == Integer.MAX_VALUE || position == length - 1 || trip != RaptorTimetable.NO_TRIP
+              && previousArrTime > mRaptorTable.getDepTime(trip, position) + shift) {
+            continue;
+          }
+          final int earlierTrip = mRaptorTable.getEarliestTrip(route, position, previousArrTime, startingTime,
+              activeServices, nextDayActiveServices);
+          if (earlierTrip == RaptorTimetable.NO_TRIP) {
+            continue;
+          }
+          final int earlierShift = mRaptorTable.getShift(earlierTrip, position, startingTime);
+          if (trip == RaptorTimetable.NO_TRIP || mRaptorTable.getDepTime(earlierTrip, position)
+              + earlierShift < mRaptorTable.getDepTime(trip, position) + shift) {
+            trip = earlierTrip;
+            shift = earlierShift;
+            boardPosition = position;
+          }
+        }
+        routeToFirstPosition[route] = NO_INDEX;
+      }
+      queuedRoutes.clear();
+
+      final IntArrayList swap = markedStops;
+      markedStops = nextMarkedStops;
+      nextMarkedStops = swap;
+    }
+
+    return labels;
+  }
+
+  /**
+   * Creates an array mapping stops to their egress duration, for routing to
+   * the given destination only.
+   *
+   * @param destination The destination to route to
+   * @return An array mapping the destination to an egress duration of
+   *         <code>0</code> and all other stops to {@link Integer#MAX_VALUE}
+   */
+  private int[] createEgressDurations(final ICoreNode destination) {
+    final int[] stopToEgressDuration = new int[mRaptorTable.getAmountOfStops()];
+    Arrays.fill(stopToEgressDuration, Integer.MAX_VALUE);
+    stopToEgressDuration[destination.getId()] = 0;
+    return stopToEgressDuration;
+  }
+
+  /**
+   * Creates and returns a node for the given stop at the given time.
+   *
+   * @param stopId The ID of the stop to create a node for
+   * @param time   The time at the stop to create a node for
+   * @return The created node
+   */
+  private TransitNode createNodeForStop(final int stopId, final int time) {
+    final Stop stop = mTable.getStop(stopId);
+    return new TransitNode(stopId, stop.getLatitude(), stop.getLongitude(), time);
+  }
+
+  /**
+   * Extracts the shortest path to the given destination from the given labels
+   * by backtracking their journey pointers.
+   *
+   * @param labels          The labels to extract the path from
+   * @param destinationStop The ID of the destination stop, must be reachable
+   * @param startingTime    The time the computation started at in seconds
+   *                        since midnight
+   * @return The extracted path or an empty optional if the journey pointers
+   *         are inconsistent
+   */
+  private Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> extractPath(final Labels labels,
+      final int destinationStop, final int startingTime) {
+    final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path = new EdgePath<>(true);
+    int currentStopId = destinationStop;
+    TransitNode currentDestination = createNodeForStop(currentStopId, labels.mStopToArrTime[currentStopId]);
+
+    // Backtrack the journey pointers until reaching a stop labeled by an
+    // initial footpath. Pointers of a stop may be replaced by later rounds,
+    // every stop is thus visited at most once.
+    int amountOfTrips = 0;
+    while (labels.mStopToTrip[currentStopId] != RaptorTimetable.NO_TRIP) {
+      amountOfTrips++;
+      if (amountOfTrips > labels.mStopToArrTime.length) {
+        return Optional.empty();
+      }
+      final int route = labels.mStopToRoute[currentStopId];
+      final int trip = labels.mStopToTrip[currentStopId];
+      final int boardPosition = labels.mStopToBoardPosition[currentStopId];
+      final int shift = mRaptorTable.getShift(trip, boardPosition, startingTime);
+
+      // Footpath from the arrival of the trip, waiting is included in it
+      final int alightPosition = labels.mStopToAlightPosition[currentStopId];
+      final TransitNode tripArr = createNodeForStop(mRaptorTable.getRouteStopId(route, alightPosition),
+          mRaptorTable.getArrTime(trip, alightPosition) + shift);
+      Raptor.addEdgeToPath(path, tripArr, currentDestination, true);
+
+      // The used part of the trip, traversed reversely
+      TransitNode currentArr = tripArr;
+      for (int position = alightPosition - 1; position >= boardPosition; position--) {
+        final TransitNode dep = createNodeForStop(mRaptorTable.getRouteStopId(route, position),
+            mRaptorTable.getDepTime(trip, position) + shift);
+        Raptor.addEdgeToPath(path, dep, currentArr, false);
+        currentArr = dep;
+      }
+
+      currentStopId = mRaptorTable.getRouteStopId(route, boardPosition);
+      currentDestination = currentArr;
+    }
+
+    // Add the initial footpath from the source. Sources may start at different
+    // times, the time of this source is thus derived from the initial footpath.
+    final int initialFootpath = labels.mStopToFootpath[currentStopId];
+    final TransitNode sourceNode = createNodeForStop(mFrozenTable.getFootpathDepStopId(initialFootpath),
+        labels.mStopToArrTime[currentStopId] - mFrozenTable.getFootpathDuration(initialFootpath));
+    Raptor.addEdgeToPath(path, sourceNode, currentDestination, true);
+
+    return Optional.of(path);
+  }
+
+  /**
+   * The labels and journey pointers of a single query, indexed by stop ID.
+   *
+   * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+   */
+  private static final class Labels {
+    /**
+     * The position in the route at which the trip used to reach each stop is
+     * left.
+     */
+    private final int[] mStopToAlightPosition;
+    /**
+     * The earliest time at which a trip can be boarded at each stop, or
+     * {@link Integer#MAX_VALUE} if not reached.
+     */
+    private final int[] mStopToArrTime;
+    /**
+     * The position in the route at which the trip used to reach each stop is
+     * boarded.
+     */
+    private final int[] mStopToBoardPosition;
+    /**
+     * The footpath used to reach each stop.
+     */
+    private final int[] mStopToFootpath;
+    /**
+     * The route of the trip used to reach each stop.
+     */
+    private final int[] mStopToRoute;
+    /**
+     * The trip used to reach each stop, or {@link RaptorTimetable#NO_TRIP} if
+     * reached by an initial footpath.
+     */
+    private final int[] mStopToTrip;
+
+    /**
+     * Creates new labels of which no stop is reached.
+     *
+     * @param amountOfStops The amount of stops
+     */
+    Labels(final int amountOfStops) {
+      mStopToArrTime = new int[amountOfStops];
+      Arrays.fill(mStopToArrTime, Integer.MAX_VALUE);
+      mStopToRoute = new int[amountOfStops];
+      mStopToTrip = new int[amountOfStops];
+      mStopToBoardPosition = new int[amountOfStops];
+      mStopToAlightPosition = new int[amountOfStops];
+      mStopToFootpath = new int[amountOfStops];
+    }
+
+    /**
+     * Sets the label and journey pointer of the given stop.
+     *
+     * @param stopId         The ID of the stop
+     * @param time           The time at which a trip can be boarded at the stop
+     * @param route          The route of the used trip
+     * @param trip           The used trip or {@link RaptorTimetable#NO_TRIP}
+     * @param boardPosition  The position at which the trip is boarded
+     * @param alightPosition The position at which the trip is left
+     * @param footpath       The footpath used to reach the stop
+     */
+    void set(final int stopId, final int time, final int route, final int trip, final int boardPosition,
+        final int alightPosition, final int footpath) {
+      mStopToArrTime[stopId] = time;
+      mStopToRoute[stopId] = route;
+      mStopToTrip[stopId] = trip;
+      mStopToBoardPosition[stopId] = boardPosition;
+      mStopToAlightPosition[stopId] = alightPosition;
+      mStopToFootpath[stopId] = footpath;
+    }
+  }
+}
@@ -0,0 +1,605 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenFrequencies;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable;
+
+/**
+ * Route based layout of a timetable, intended to be used by {@link Raptor}.<br>
+ * <br>
+ * Trips serving the same sequence of stops are grouped into routes. Trips of a
+ * route do not overtake each other, they are sorted ascending by their
+ * departure at every stop of the route. The earliest trip of a route departing
+ * at a stop is thus found by binary search. Runs of frequency based trips are
+ * expanded into trips.<br>
+ * <br>
+ * All data is stored in flat primitive arrays. The stops of a route occupy
+ * consecutive positions, as do its trips. The times of a trip are stored at
+ * consecutive positions, one per stop of its route. Every stop knows the
+ * routes serving it, together with its position in them, in compressed sparse
+ * row (CSR) layout. Footpaths and services are taken from the
+ * {@link FrozenTimetable} the timetable was created of. Use
+ * {@link #of(FrozenTimetable)} to create instances.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class RaptorTimetable {
+  /**
+   * The trip index indicating that there is no trip.
+   */
+  public static final int NO_TRIP = -1;
+  /**
+   * Amount of seconds of a day.
+   */
+  private static final int SECONDS_OF_DAY = 24 * 60 * 60;
+
+  /**
+   * Creates the route based layout of the given timetable.
+   *
+   * @param table The timetable to create the layout of
+   * @return The created layout
+   */
+  public static RaptorTimetable of(final FrozenTimetable table) {
+    // Collect the connections and all runs of frequencies as legs of trips.
+    // Runs are identified after the trips of the timetable.
+    final FrozenFrequencies frequencies = table.getFrequencies();
+    final int amountOfTripIds = table.getAmountOfTrips() + frequencies.getAmountOfRuns();
+    int amountOfLegs = table.getAmountOfConnections();
+    for (int connection = 0; connection < frequencies.getAmountOfConnections(); connection++) {
+      amountOfLegs += frequencies.getEndPosition(connection, 0);
+    }
+    final int[] legTripIds = new int[amountOfLegs];
+    final int[] legSequenceIndices = new int[amountOfLegs];
+    final int[] legDepStopIds = new int[amountOfLegs];
+    final int[] legArrStopIds = new int[amountOfLegs];
+    final int[] legDepTimes = new int[amountOfLegs];
+    final int[] legArrTimes = new int[amountOfLegs];
+    final int[] tripIdToService = new int[amountOfTripIds];
+    int leg = 0;
+    for (int connection = 0; connection < table.getAmountOfConnections(); connection++) {
+      legTripIds[leg] = table.getTripId(connection);
+      legSequenceIndices[leg] = table.getSequenceIndex(connection);
+      legDepStopIds[leg] = table.getDepStopId(connection);
+      legArrStopIds[leg] = table.getArrStopId(connection);
+      legDepTimes[leg] = table.getDepTime(connection);
+      legArrTimes[leg] = table.getArrTime(connection);
+      tripIdToService[legTripIds[leg]] = table.getServiceIndex(connection);
+      leg++;
+    }
+    for (int connection = 0; connection < frequencies.getAmountOfConnections(); connection++) {
+      final int endPosition = frequencies.getEndPosition(connection, 0);
+      for (int position = 0; position < endPosition; position++) {
+        final int shift = frequencies.getShift(connection, position);
+        legTripIds[leg] = table.getAmountOfTrips() + frequencies.getRunIndex(connection, position);
+        legSequenceIndices[leg] = frequencies.getSequenceIndex(connection);
+        legDepStopIds[leg] = frequencies.getDepStopId(connection);
+        legArrStopIds[leg] = frequencies.getArrStopId(connection);
+        legDepTimes[leg] = frequencies.getDepTime(connection) + shift;
+        legArrTimes[leg] = frequencies.getArrTime(connection) + shift;
+        tripIdToService[legTripIds[leg]] = frequencies.getServiceIndex(connection);
+        leg++;
+      }
+    }
+
+    // Order the legs by their trip and then by their sequence index
+    final long[] sequenceAndLeg = new long[amountOfLegs];
+    for (int i = 0; i < amountOfLegs; i++) {
+      sequenceAndLeg[i] = (long) legSequenceIndices[i] << Integer.SIZE | i;
+    }
+    Arrays.sort(sequenceAndLeg);
+    final int[] legsBySequence = new int[amountOfLegs];
+    for (int i = 0; i < amountOfLegs; i++) {
+      legsBySequence[i] = (int) sequenceAndLeg[i];
+    }
+    final int[] tripIdToLegOffset = new int[amountOfTripIds + 1];
+    for (final int tripId : legTripIds) {
+      tripIdToLegOffset[tripId + 1]++;
+    }
+    for (int tripId = 0; tripId < amountOfTripIds; tripId++) {
+      tripIdToLegOffset[tripId + 1] += tripIdToLegOffset[tripId];
+    }
+    final int[] legsByTrip = new int[amountOfLegs];
+    final int[] tripIdToNextLeg = Arrays.copyOf(tripIdToLegOffset, amountOfTripIds);
+    for (final int sortedLeg : legsBySequence) {
+      legsByTrip[tripIdToNextLeg[legTripIds[sortedLeg]]] = sortedLeg;
+      tripIdToNextLeg[legTripIds[sortedLeg]]++;
+    }
+
+    // Resolve the stops and times of every trip, a trip with n legs visits
+    // n + 1 stops. Trips are grouped by their stops.
+    final int[] tripIdToTimeOffset = new int[amountOfTripIds];
+    final int[] tripDepTimes = new int[amountOfLegs + amountOfTripIds];
+    final int[] tripArrTimes = new int[amountOfLegs + amountOfTripIds];
+    final Map<IntArrayList, IntArrayList> stopsToTripIds = new LinkedHashMap<>();
+    for (int tripId = 0; tripId < amountOfTripIds; tripId++) {
+      final int legBegin = tripIdToLegOffset[tripId];
+      final int legEnd = tripIdToLegOffset[tripId + 1];
+      if (legBegin == legEnd) {
+        continue;
+      }
+      final int timeOffset = legBegin + tripId;
+      tripIdToTimeOffset[tripId] = timeOffset;
+      final IntArrayList stops = new IntArrayList(legEnd - legBegin + 1);
+      for (int i = legBegin; i < legEnd; i++) {
+        final int currentLeg = legsByTrip[i];
+        stops.add(legDepStopIds[currentLeg]);
+        tripDepTimes[timeOffset + i - legBegin] = legDepTimes[currentLeg];
+        tripArrTimes[timeOffset + i - legBegin + 1] = legArrTimes[currentLeg];
+      }
+      final int firstLeg = legsByTrip[legBegin];
+      final int lastLeg = legsByTrip[legEnd - 1];
+      stops.add(legArrStopIds[lastLeg]);
+      tripArrTimes[timeOffset] = legDepTimes[firstLeg];
+      tripDepTimes[timeOffset + legEnd - legBegin] = legArrTimes[lastLeg];
+      stopsToTripIds.computeIfAbsent(stops, key -> new IntArrayList()).add(tripId);
+    }
+
+    // Split the groups into routes whose trips do not overtake each other
+    final List<IntArrayList> routeToStops = new ArrayList<>();
+    final List<IntArrayList> routeToTripIds = new ArrayList<>();
+    for (final Entry<IntArrayList, IntArrayList> group : stopsToTripIds.entrySet()) {
+      final int length = group.getKey().size();
+      final IntArrayList tripIds = group.getValue();
+      final long[] depTimeAndTripId = new long[tripIds.size()];
+      for (int i = 0; i < tripIds.size(); i++) {
+        final int tripId = tripIds.get(i);
+        depTimeAndTripId[i] = (long) tripDepTimes[tripIdToTimeOffset[tripId]] << Integer.SIZE | tripId;
+      }
+      Arrays.sort(depTimeAndTripId);
+
+      final List<IntArrayList> groupRoutes = new ArrayList<>();
+      for (final long value : depTimeAndTripId) {
+        final int tripId = (int) value;
+        IntArrayList chosenRoute = null;
+        for (final IntArrayList route : groupRoutes) {
+          final int lastTripId = route.getLast();
+          if (!RaptorTimetable.overtakes(tripDepTimes, tripArrTimes, tripIdToTimeOffset[tripId],
+              tripIdToTimeOffset[lastTripId], length)) {
+            chosenRoute = route;
+            break;
+          }
+        }
+        if (chosenRoute == null) {
+          chosenRoute = new IntArrayList();
+          groupRoutes.add(chosenRoute);
+        }
+        chosenRoute.add(tripId);
+      }
+      for (final IntArrayList route : groupRoutes) {
+        routeToStops.add(group.getKey());
+        routeToTripIds.add(route);
+      }
+    }
+
+    // Lay out the routes and their trips
+    final int amountOfRoutes = routeToStops.size();
+    final int[] routeStopOffsets = new int[amountOfRoutes + 1];
+    final int[] routeTripOffsets = new int[amountOfRoutes + 1];
+    for (int route = 0; route < amountOfRoutes; route++) {
+      routeStopOffsets[route + 1] = routeStopOffsets[route] + routeToStops.get(route).size();
+      routeTripOffsets[route + 1] = routeTripOffsets[route] + routeToTripIds.get(route).size();
+    }
+    final int[] routeStops = new int[routeStopOffsets[amountOfRoutes]];
+    final int amountOfTrips = routeTripOffsets[amountOfRoutes];
+    final int[] tripTimeOffsets = new int[amountOfTrips];
+    final int[] tripServiceIndices = new int[amountOfTrips];
+    final int[] depTimes = new int[amountOfLegs + amountOfTrips];
+    final int[] arrTimes = new int[amountOfLegs + amountOfTrips];
+    int trip = 0;
+    int timeOffset = 0;
+    for (int route = 0; route < amountOfRoutes; route++) {
+      final IntArrayList stops = routeToStops.get(route);
+      final int length = stops.size();
+      for (int position = 0; position < length; position++) {
+        routeStops[routeStopOffsets[route] + position] = stops.get(position);
+      }
+      final IntArrayList tripIds = routeToTripIds.get(route);
+      for (int i = 0; i < tripIds.size(); i++) {
+        final int tripId = tripIds.get(i);
+        tripTimeOffsets[trip] = timeOffset;
+        tripServiceIndices[trip] = tripIdToService[tripId];
+        System.arraycopy(tripDepTimes, tripIdToTimeOffset[tripId], depTimes, timeOffset, length);
+        System.arraycopy(tripArrTimes, tripIdToTimeOffset[tripId], arrTimes, timeOffset, length);
+        timeOffset += length;
+        trip++;
+      }
+    }
+
+    // Index the routes serving each stop
+    final int amountOfStops = table.getAmountOfStops();
+    final int[] stopRouteOffsets = new int[amountOfStops + 1];
+    for (final int stop : routeStops) {
+      stopRouteOffsets[stop + 1]++;
+    }
+    for (int stop = 0; stop < amountOfStops; stop++) {
+      stopRouteOffsets[stop + 1] += stopRouteOffsets[stop];
+    }
+    final int[] stopRoutes = new int[routeStops.length];
+    final int[] stopRoutePositions = new int[routeStops.length];
+    final int[] stopToNextRoute = Arrays.copyOf(stopRouteOffsets, amountOfStops);
+    for (int route = 0; route < amountOfRoutes; route++) {
+      for (int position = 0; position < routeStopOffsets[route + 1] - routeStopOffsets[route]; position++) {
+        final int stop = routeStops[routeStopOffsets[route] + position];
+        stopRoutes[stopToNextRoute[stop]] = route;
+        stopRoutePositions[stopToNextRoute[stop]] = position;
+        stopToNextRoute[stop]++;
+      }
+    }
+
+    return new RaptorTimetable(table, routeStopOffsets, routeStops, routeTripOffsets, tripTimeOffsets,
+        tripServiceIndices, depTimes, arrTimes, stopRouteOffsets, stopRoutes, stopRoutePositions);
+  }
+
+  /**
+   * Whether the given trip overtakes the given other trip, i.e. is not after
+   * it at any stop. Both trips must serve the same stops.
+   *
+   * @param depTimes    The departure times of the trips
+   * @param arrTimes    The arrival times of the trips
+   * @param timeOffset  The offset of the times of the trip
+   * @param otherOffset The offset of the times of the other trip
+   * @param length      The amount of stops served by the trips
+   * @return <code>True</code> if the trip overtakes the other trip,
+   *         <code>false</code> otherwise
+   */
+  private static boolean overtakes(final int[] depTimes, final int[] arrTimes, final int timeOffset,
+      final int otherOffset, final int length) {
+    for (int position = 0; position < length; position++) {
+      if (depTimes[timeOffset + position] < depTimes[otherOffset + position]
+          || arrTimes[timeOffset + position] < arrTimes[otherOffset + position]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Arrival time of each trip at each stop of its route, in seconds since
+   * midnight.
+   */
+  private final int[] mArrTimes;
+  /**
+   * Departure time of each trip at each stop of its route, in seconds since
+   * midnight.
+   */
+  private final int[] mDepTimes;
+  /**
+   * CSR offsets of the stops of the routes, indexed by route.
+   */
+  private final int[] mRouteStopOffsets;
+  /**
+   * The IDs of the stops of all routes, in order of their position.
+   */
+  private final int[] mRouteStops;
+  /**
+   * CSR offsets of the trips of the routes, indexed by route.
+   */
+  private final int[] mRouteTripOffsets;
+  /**
+   * CSR offsets of the routes serving the stops, indexed by stop ID.
+   */
+  private final int[] mStopRouteOffsets;
+  /**
+   * The position of the stop in each route serving it.
+   */
+  private final int[] mStopRoutePositions;
+  /**
+   * The routes serving the stops.
+   */
+  private final int[] mStopRoutes;
+  /**
+   * The timetable the layout was created of.
+   */
+  private final FrozenTimetable mTable;
+  /**
+   * Index of the service of each trip.
+   */
+  private final int[] mTripServiceIndices;
+  /**
+   * Offset of the times of each trip.
+   */
+  private final int[] mTripTimeOffsets;
+
+  /**
+   * Creates a new route based layout with the given data.
+   *
+   * @param table              The timetable the layout was created of
+   * @param routeStopOffsets   CSR offsets of the stops of the routes
+   * @param routeStops         The IDs of the stops of all routes
+   * @param routeTripOffsets   CSR offsets of the trips of the routes
+   * @param tripTimeOffsets    Offset of the times of each trip
+   * @param tripServiceIndices Index of the service of each trip
+   * @param depTimes           Departure time of each trip at each stop
+   * @param arrTimes           Arrival time of each trip at each stop
+   * @param stopRouteOffsets   CSR offsets of the routes serving the stops
+   * @param stopRoutes         The routes serving the stops
+   * @param stopRoutePositions The position of the stop in each route serving
+   *                           it
+   */
+  private RaptorTimetable(final FrozenTimetable table, final int[] routeStopOffsets, final int[] routeStops,
+      final int[] routeTripOffsets, final int[] tripTimeOffsets, final int[] tripServiceIndices, final int[] depTimes,
+      final int[] arrTimes, final int[] stopRouteOffsets, final int[] stopRoutes, final int[] stopRoutePositions) {
+    mTable = table;
+    mRouteStopOffsets = routeStopOffsets;
+    mRouteStops = routeStops;
+    mRouteTripOffsets = routeTripOffsets;
+    mTripTimeOffsets = tripTimeOffsets;
+    mTripServiceIndices = tripServiceIndices;
+    mDepTimes = depTimes;
+    mArrTimes = arrTimes;
+    mStopRouteOffsets = stopRouteOffsets;
+    mStopRoutes = stopRoutes;
+    mStopRoutePositions = stopRoutePositions;
+  }
+
+  /**
+   * Gets the amount of routes.
+   *
+   * @return The amount of routes
+   */
+  public int getAmountOfRoutes() {
+    return mRouteTripOffsets.length - 1;
+  }
+
+  /**
+   * Gets the amount of stop IDs, i.e. the greatest ID in use for a stop plus
+   * one.
+   *
+   * @return The amount of stop IDs
+   */
+  public int getAmountOfStops() {
+    return mStopRouteOffsets.length - 1;
+  }
+
+  /**
+   * Gets the amount of trips of all routes.
+   *
+   * @return The amount of trips
+   */
+  public int getAmountOfTrips() {
+    return mTripTimeOffsets.length;
+  }
+
+  /**
+   * Gets the arrival time of the given trip at the stop at the given position
+   * of its route.
+   *
+   * @param trip     The index of the trip
+   * @param position The position of the stop in the route
+   * @return The arrival time in seconds since midnight, not shifted
+   * @see #getShift(int, int, int)
+   */
+  public int getArrTime(final int trip, final int position) {
+    return mArrTimes[mTripTimeOffsets[trip] + position];
+  }
+
+  /**
+   * Gets the departure time of the given trip at the stop at the given
+   * position of its route.
+   *
+   * @param trip     The index of the trip
+   * @param position The position of the stop in the route
+   * @return The departure time in seconds since midnight, not shifted
+   * @see #getShift(int, int, int)
+   */
+  public int getDepTime(final int trip, final int position) {
+    return mDepTimes[mTripTimeOffsets[trip] + position];
+  }
+
+  /**
+   * Gets the trip of the given route departing earliest at the stop at the
+   * given position, after or exactly at the given time.<br>
+   * <br>
+   * Trips departing at the stop before the starting time of the query run at
+   * the day after, shifted by one day. Trips whose service does not run at
+   * their day are skipped.
+   *
+   * @param route                 The index of the route
+   * @param position              The position of the stop in the route
+   * @param time                  The time to board at in seconds since
+   *                              midnight, not before the starting time
+   * @param startingTime          The starting time of the query in seconds
+   *                              since midnight
+   * @param activeServices        Array mapping service indices to whether they
+   *                              run at the date of the query
+   * @param nextDayActiveServices Array mapping service indices to whether they
+   *                              run at the day after
+   * @return The index of the earliest trip or {@link #NO_TRIP} if there is
+   *         none
+   */
+  public int getEarliestTrip(final int route, final int position, final int time, final int startingTime,
+      final boolean[] activeServices, final boolean[] nextDayActiveServices) {
+    final int begin = mRouteTripOffsets[route];
+    final int end = mRouteTripOffsets[route + 1];
+    final int firstAtDay = getFirstTripDepartingSince(begin, end, position, startingTime);
+
+    // Trips at the day of the query
+    int tripAtDay = NO_TRIP;
+    for (int trip = getFirstTripDepartingSince(firstAtDay, end, position, time); trip < end; trip++) {
+      if (activeServices[mTripServiceIndices[trip]]) {
+        tripAtDay = trip;
+        break;
+      }
+    }
+    // Trips at the day after, they may only depart earlier if times of the
+    // day of the query exceed midnight
+    for (int trip = getFirstTripDepartingSince(begin, firstAtDay, position, time - SECONDS_OF_DAY);
+        trip < firstAtDay; trip++) {
+      if (nextDayActiveServices[mTripServiceIndices[trip]]) {
+        if (tripAtDay == NO_TRIP || getDepTime(trip, position) + SECONDS_OF_DAY < getDepTime(tripAtDay, position)) {
+          return trip;
+        }
+        break;
+      }
+    }
+    return tripAtDay;
+  }
+
+  /**
+   * Gets the amount of stops served by the given route.
+   *
+   * @param route The index of the route
+   * @return The amount of stops
+   */
+  public int getRouteLength(final int route) {
+    return mRouteStopOffsets[route + 1] - mRouteStopOffsets[route];
+  }
+
+  /**
+   * Gets the ID of the stop at the given position of the given route.
+   *
+   * @param route    The index of the route
+   * @param position The position of the stop in the route
+   * @return The ID of the stop
+   */
+  public int getRouteStopId(final int route, final int position) {
+    return mRouteStops[mRouteStopOffsets[route] + position];
+  }
+
+  /**
+   * Gets the index of the first trip of the given route. The trips of a route
+   * have consecutive indices and are sorted ascending by their departure.
+   *
+   * @param route The index of the route
+   * @return The index of the first trip of the route, inclusive
+   */
+  public int getRouteTripBegin(final int route) {
+    return mRouteTripOffsets[route];
+  }
+
+  /**
+   * Gets the index after the last trip of the given route.
+   *
+   * @param route The index of the route
+   * @return The index of the last trip of the route, exclusive
+   */
+  public int getRouteTripEnd(final int route) {
+    return mRouteTripOffsets[route + 1];
+  }
+
+  /**
+   * Gets the shift of the given trip when boarded at the stop at the given
+   * position, for a query starting at the given time. Trips departing at the
+   * stop before the starting time run at the day after.
+   *
+   * @param trip         The index of the trip
+   * @param position     The position of the boarding stop in the route
+   * @param startingTime The starting time of the query in seconds since
+   *                     midnight
+   * @return The shift in seconds, either <code>0</code> or one day
+   */
+  public int getShift(final int trip, final int position, final int startingTime) {
+    if (getDepTime(trip, position) < startingTime) {
+      return SECONDS_OF_DAY;
+    }
+    return 0;
+  }
+
+  /**
+   * Gets the route at the given index of the routes serving a stop.
+   *
+   * @param index The index, between {@link #getStopRouteBegin(int)} and
+   *              {@link #getStopRouteEnd(int)}
+   * @return The index of the route
+   */
+  public int getStopRoute(final int index) {
+    return mStopRoutes[index];
+  }
+
+  /**
+   * Gets the index of the first route serving the given stop.
+   *
+   * @param stopId The ID of the stop
+   * @return The index of the first route serving the stop, inclusive
+   */
+  public int getStopRouteBegin(final int stopId) {
+    return mStopRouteOffsets[stopId];
+  }
+
+  /**
+   * Gets the index after the last route serving the given stop.
+   *
+   * @param stopId The ID of the stop
+   * @return The index of the last route serving the stop, exclusive
+   */
+  public int getStopRouteEnd(final int stopId) {
+    return mStopRouteOffsets[stopId + 1];
+  }
+
+  /**
+   * Gets the position of the stop in the route at the given index of the
+   * routes serving the stop.
+   *
+   * @param index The index, between {@link #getStopRouteBegin(int)} and
+   *              {@link #getStopRouteEnd(int)}
+   * @return The position of the stop in the route
+   */
+  public int getStopRoutePosition(final int index) {
+    return mStopRoutePositions[index];
+  }
+
+  /**
+   * Gets the timetable the layout was created of. It provides the footpaths
+   * and services of the transit network.
+   *
+   * @return The timetable
+   */
+  public FrozenTimetable getTimetable() {
+    return mTable;
+  }
+
+  /**
+   * Gets the index of the service of the given trip.
+   *
+   * @param trip The index of the trip
+   * @return The index of the service, as used by
+   *         {@link FrozenTimetable#getActiveServices(java.time.LocalDate)}
+   */
+  public int getTripServiceIndex(final int trip) {
+    return mTripServiceIndices[trip];
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("RaptorTimetable [routes=");
+    builder.append(getAmountOfRoutes());
+    builder.append(", trips=");
+    builder.append(getAmountOfTrips());
+    builder.append("]");
+    return builder.toString();
+  }
+
+  /**
+   * Gets the first trip in the given range departing at the stop at the given
+   * position after, or exactly at, the given time, by binary search.
+   *
+   * @param begin    The first trip of the range, inclusive
+   * @param end      The last trip of the range, exclusive
+   * @param position The position of the stop in the route of the trips
+   * @param time     The time in seconds since midnight
+   * @return The first trip departing not before the given time, or the end of
+   *         the range if there is none
+   */
+  private int getFirstTripDepartingSince(final int begin, final int end, final int position, final int time) {
+    int low = begin;
+    int high = end;
+    while (low < high) {
+      final int middle = low + high >>> 1;
+      if (getDepTime(middle, position) < time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,7 @@
+/**
+ * Contains the round-based public transit routing algorithm RAPTOR for
+ * answering queries on timetable models.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor;
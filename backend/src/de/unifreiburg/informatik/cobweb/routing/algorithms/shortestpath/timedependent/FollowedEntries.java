@@ -0,0 +1,75 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.timedependent;
+
+import java.util.Arrays;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TimeDependentGraph;
+
+/**
+ * Reusable set of the entries of a {@link TimeDependentGraph} which were
+ * followed by a single {@link TimeDependentDijkstra} computation.<br>
+ * <br>
+ * Instead of clearing the set between computations, every computation uses a
+ * new timestamp, an entry is only contained if its timestamp matches the
+ * current one.<br>
+ * <br>
+ * The set is not thread-safe and is intended to be reused by a single thread
+ * for many computations.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+final class FollowedEntries {
+  /**
+   * The current timestamp, entries with this timestamp are contained.
+   */
+  private int mCurrentStamp;
+  /**
+   * The timestamp of each entry, indexed by entry.
+   */
+  private int[] mStamps;
+
+  /**
+   * Creates a new initially empty set.
+   */
+  FollowedEntries() {
+    mStamps = new int[0];
+  }
+
+  /**
+   * Begins a new computation. Removes all entries of the previous computation.
+   *
+   * @param amountOfEntries The amount of entries of the graph of the
+   *                        computation
+   */
+  void begin(final int amountOfEntries) {
+    if (mStamps.length < amountOfEntries) {
+      mStamps = Arrays.copyOf(mStamps, amountOfEntries);
+    }
+
+    mCurrentStamp++;
+    if (mCurrentStamp == Integer.MAX_VALUE) {
+      // Timestamps overflow, reset them once
+      Arrays.fill(mStamps, 0);
+      mCurrentStamp = 1;
+    }
+  }
+
+  /**
+   * Adds the given entry to the set.
+   *
+   * @param entry The entry to add
+   */
+  void follow(final int entry) {
+    mStamps[entry] = mCurrentStamp;
+  }
+
+  /**
+   * Whether or not the given entry was followed in the current computation.
+   *
+   * @param entry The entry in question
+   * @return <code>True</code> if the entry is contained, <code>false</code>
+   *         otherwise
+   */
+  boolean isFollowed(final int entry) {
+    return mStamps[entry] == mCurrentStamp;
+  }
+}
@@ -0,0 +1,554 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.timedependent;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.AShortestPathComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ITransitComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.PathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.FootpathTransitEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.IHasTime;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TimeDependentGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitNode;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+import de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap;
+
+/**
+ * Implementation of a time-dependent Dijkstra algorithm that is able to compute
+ * shortest paths on a {@link TimeDependentGraph}.<br>
+ * <br>
+ * The label of a stop is the earliest time at which a trip can be boarded at
+ * it, like the arrival times of the Connection-Scan algorithm. It includes the
+ * transfer delay, given by the self-loop footpath of the stop. Settling a stop
+ * evaluates the travel time functions of its outgoing edges at its label. A
+ * boarded trip is followed along its next entries, relaxing the footpaths at
+ * every stop it arrives at. Staying seated is thus not charged a transfer
+ * delay, only boarding a trip from a label is.<br>
+ * <br>
+ * Every entry is followed at most once per query, since all boardings of a
+ * trip arrive at the same times after it. Of an edge, only entries departing
+ * before the current label of its arrival stop are boarded. Later entries can
+ * also be boarded at the arrival stop, when settling it. Since the graph has
+ * only one node per stop the search settles each stop at most once,
+ * independent of the amount of connections. The followed entries are kept in
+ * a set reused by each thread, which is reset by timestamps instead of
+ * clearing.<br>
+ * <br>
+ * If a date is given, only connections whose service runs at that date are
+ * considered, connections after midnight use the services of the following
+ * day.<br>
+ * <br>
+ * For details refer to:
+ * <ul>
+ * <li><code>Time-Dependent Route Planning</code> - Delling D. and Wagner D. -
+ * 2009</li>
+ * </ul>
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class TimeDependentDijkstra extends AShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>>
+    implements ITransitComputation {
+  /**
+   * The followed entries of each thread, reused for all computations of the
+   * thread.
+   */
+  private static final ThreadLocal<FollowedEntries> FOLLOWED_ENTRIES = ThreadLocal.withInitial(FollowedEntries::new);
+  /**
+   * The index indicating that there is no stop, entry or footpath.
+   */
+  private static final int NO_INDEX = -1;
+  /**
+   * Amount of seconds of a day.
+   */
+  private static final int SECONDS_OF_DAY = 24 * 60 * 60;
+
+  /**
+   * Creates and adds an edge from the given source to destination to the given
+   * path. The cost of the edge is determined by the time difference of both
+   * nodes.
+   *
+   * @param path        The path to add the edge to
+   * @param source      The source node of the edge
+   * @param destination The destination node of the edge
+   * @param walkByFoot  <code>True</code> if the transportation mode of the edge is
+   *                    by foot, <code>false</code> if by tram.
+   */
+  private static void addEdgeToPath(final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path, final TransitNode source,
+      final TransitNode destination, final boolean walkByFoot) {
+    final double cost = destination.getTime() - source.getTime();
+    final ICoreEdge<ICoreNode> edge;
+    if (walkByFoot) {
+      edge = new FootpathTransitEdge<>(0, source, destination, cost);
+    } else {
+      edge = new TransitEdge<>(0, source, destination, cost);
+    }
+    path.addEdge(edge, cost);
+  }
+
+  /**
+   * Extracts the starting time of the given sources. That is the time of the
+   * first source, the times of further sources are interpreted to be not
+   * before it.
+   *
+   * @param sources The sources to extract the time from, must not be empty
+   * @return The extracted time
+   * @throws IllegalArgumentException If the first source has no time
+   */
+  private static int extractStartingTime(final Collection<ICoreNode> sources) throws IllegalArgumentException {
+    return TimeDependentDijkstra.extractTime(sources.iterator().next());
+  }
+
+  /**
+   * Extracts the time from the given node.
+   *
+   * @param node The node to extract the time from
+   * @return The extracted time
+   * @throws IllegalArgumentException If the given node has no time
+   */
+  private static int extractTime(final ICoreNode node) throws IllegalArgumentException {
+    if (!(node instanceof IHasTime)) {
+      throw new IllegalArgumentException();
+    }
+    return ((IHasTime) node).getTime();
+  }
+
+  /**
+   * The date to route at or <code>null</code> if all connections should be
+   * considered running every day.
+   */
+  private final LocalDate mDate;
+  /**
+   * The frozen view of the timetable, providing footpaths and services.
+   */
+  private final FrozenTimetable mFrozenTable;
+  /**
+   * The time-dependent graph to route on.
+   */
+  private final TimeDependentGraph mGraph;
+  /**
+   * The timetable data the graph was created of, providing the stops.
+   */
+  private final Timetable mTable;
+
+  /**
+   * Creates a new time-dependent Dijkstra which considers all connections
+   * running every day.
+   *
+   * @param table The timetable data the graph was created of
+   * @param graph The time-dependent graph to route on
+   */
+  public TimeDependentDijkstra(final Timetable table, final TimeDependentGraph graph) {
+    this(table, graph, null);
+  }
+
+  /**
+   * Creates a new time-dependent Dijkstra which only considers connections
+   * running at the given date.
+   *
+   * @param table The timetable data the graph was created of
+   * @param graph The time-dependent graph to route on
+   * @param date  The date to route at, i.e. the date of the departure times of
+   *              the queries, or <code>null</code> if all connections should
+   *              be considered running every day
+   */
+  public TimeDependentDijkstra(final Timetable table, final TimeDependentGraph graph, final LocalDate date) {
+    mTable = table;
+    mGraph = graph;
+    mDate = date;
+    mFrozenTable = graph.getTimetable();
+  }
+
+  @Override
+  public Collection<ICoreNode> computeSearchSpace(final Collection<ICoreNode> sources, final ICoreNode destination) {
+    final int startingTime = TimeDependentDijkstra.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
+
+    // Collect all visited stops
+    final Collection<ICoreNode> searchSpace = new ArrayList<>();
+    for (int i = 0; i < labels.mStopToArrTime.length; i++) {
+      final int arrTime = labels.mStopToArrTime[i];
+      // Skip if not visited
+      if (arrTime == Integer.MAX_VALUE) {
+        continue;
+      }
+      searchSpace.add(createNodeForStop(i, arrTime));
+    }
+
+    return searchSpace;
+  }
+
+  @Override
+  public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
+      final ICoreNode destination) {
+    final int startingTime = TimeDependentDijkstra.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
+    // Not reachable
+    if (labels.mStopToArrTime[destination.getId()] == Integer.MAX_VALUE) {
+      return Optional.empty();
+    }
+
+    return Optional.of(extractPath(labels, destination.getId(), startingTime));
+  }
+
+  @Override
+  public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
+      final Map<ICoreNode, Integer> destinationToEgressDuration) {
+    final int[] stopToEgressDuration = new int[mGraph.getAmountOfStops()];
+    Arrays.fill(stopToEgressDuration, Integer.MAX_VALUE);
+    for (final Entry<ICoreNode, Integer> destination : destinationToEgressDuration.entrySet()) {
+      final int stopId = destination.getKey().getId();
+      stopToEgressDuration[stopId] = Math.min(stopToEgressDuration[stopId], destination.getValue().intValue());
+    }
+
+    final int startingTime = TimeDependentDijkstra.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, stopToEgressDuration, startingTime);
+
+    // Choose the best reachable destination
+    int bestDestinationStop = NO_INDEX;
+    long bestTargetTime = Long.MAX_VALUE;
+    for (final ICoreNode destination : destinationToEgressDuration.keySet()) {
+      final int stopId = destination.getId();
+      if (labels.mStopToArrTime[stopId] == Integer.MAX_VALUE) {
+        continue;
+      }
+      final long targetTime = (long) labels.mStopToArrTime[stopId] + stopToEgressDuration[stopId];
+      if (targetTime < bestTargetTime) {
+        bestTargetTime = targetTime;
+        bestDestinationStop = stopId;
+      }
+    }
+
+    // Not reachable
+    if (bestDestinationStop == NO_INDEX) {
+      return Optional.empty();
+    }
+
+    return Optional.of(extractPath(labels, bestDestinationStop, startingTime));
+  }
+
+  @Override
+  public Optional<Double> computeShortestPathCost(final Collection<ICoreNode> sources, final ICoreNode destination) {
+    final int startingTime = TimeDependentDijkstra.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
+
+    final int arrTime = labels.mStopToArrTime[destination.getId()];
+    // Not reachable
+    if (arrTime == Integer.MAX_VALUE) {
+      return Optional.empty();
+    }
+
+    return Optional.of((double) arrTime - startingTime);
+  }
+
+  @Override
+  public Map<ICoreNode, ? extends IHasPathCost> computeShortestPathCostsReachable(final Collection<ICoreNode> sources) {
+    final int startingTime = TimeDependentDijkstra.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, null, startingTime);
+
+    // Collect all reachable stops
+    final Map<ICoreNode, PathCost> stopToCost = new HashMap<>();
+    for (int i = 0; i < labels.mStopToArrTime.length; i++) {
+      final int arrTime = labels.mStopToArrTime[i];
+      // Skip if not reachable
+      if (arrTime == Integer.MAX_VALUE) {
+        continue;
+      }
+      stopToCost.put(createNodeForStop(i, arrTime), new PathCost((double) arrTime - startingTime));
+    }
+
+    return stopToCost;
+  }
+
+  /**
+   * Helper method to compute shortest paths from the given sources to a
+   * possible destination.
+   *
+   * @param sources              The sources to start computation from, must
+   *                             not be empty. Each source starts at its own
+   *                             time.
+   * @param stopToEgressDuration An array mapping the destination stops to the
+   *                             duration needed after arriving at them and
+   *                             all other stops to {@link Integer#MAX_VALUE},
+   *                             or <code>null</code> if routing to all
+   *                             reachable stops is desired
+   * @param startingTime         The time to start routing at in seconds since
+   *                             midnight, the times of all sources must not
+   *                             be before it
+   * @return The labels computed by the algorithm
+   */
+  private Labels computeShortestPathHelper(final Collection<ICoreNode> sources, final int[] stopToEgressDuration,
+      final int startingTime) {
+    // Earliest time at which any destination is finished, including its egress
+    long targetTime = Long.MAX_VALUE;
+
+    final Labels labels = new Labels(mGraph.getAmountOfStops());
+    final IndexedMinHeap activeStops = new IndexedMinHeap(mGraph.getAmountOfStops());
+
+    // Relax all initial footpaths, each source at its own time
+    for (final ICoreNode source : sources) {
+      int sourceTime = TimeDependentDijkstra.extractTime(source);
+      if (sourceTime < startingTime) {
+        sourceTime += SECONDS_OF_DAY;
+      }
+      final int footpathEnd = mFrozenTable.getFootpathEnd(source.getId());
+      for (int footpath = mFrozenTable.getFootpathBegin(source.getId()); footpath < footpathEnd; footpath++) {
+        final int footpathArrStopId = mFrozenTable.getFootpathArrStopId(footpath);
+        final int footpathTime = sourceTime + mFrozenTable.getFootpathDuration(footpath);
+        if (labels.relax(activeStops, footpathArrStopId, footpathTime, NO_INDEX, NO_INDEX, NO_INDEX, footpath)
+            && stopToEgressDuration != null && stopToEgressDuration[footpathArrStopId] != Integer.MAX_VALUE) {
+          targetTime = Math.min(targetTime, (long) footpathTime + stopToEgressDuration[footpathArrStopId]);
+        }
+      }
+    }
+
+    // Resolve the services running at the date and the day after
+    final boolean[] activeServices = mFrozenTable.getActiveServices(mDate);
+    final boolean[] nextDayActiveServices;
+    if (mDate == null) {
+      nextDayActiveServices = activeServices;
+    } else {
+      nextDayActiveServices = mFrozenTable.getActiveServices(mDate.plusDays(1));
+    }
+
+    // Entries which have already been followed in this query
+    final FollowedEntries followedEntries = FOLLOWED_ENTRIES.get();
+    followedEntries.begin(mGraph.getAmountOfEntries());
+
+    while (!activeStops.isEmpty()) {
+      final int stopId = activeStops.poll();
+      final int time = labels.mStopToArrTime[stopId];
+      // Labels are settled ordered, no destination can be improved anymore
+      if (targetTime <= time) {
+        break;
+      }
+
+      final int edgeEnd = mGraph.getEdgeEnd(stopId);
+      for (int edge = mGraph.getEdgeBegin(stopId); edge < edgeEnd; edge++) {
+        final int edgeArrStopId = mGraph.getEdgeArrStopId(edge);
+        for (int entry = mGraph.getFirstEntry(edge, time, startingTime); entry != TimeDependentGraph.NO_ENTRY;
+            entry = mGraph.getFollowingEntry(edge, entry, startingTime)) {
+          final int shift = mGraph.getShift(entry, startingTime);
+          // The trips of all further entries can also be boarded at the
+          // arrival stop of the edge
+          if (mGraph.getDepTime(entry) + shift >= labels.mStopToArrTime[edgeArrStopId]) {
+            break;
+          }
+          if (followedEntries.isFollowed(entry)
+              || !mGraph.isRunning(entry, startingTime, activeServices, nextDayActiveServices)) {
+            continue;
+          }
+
+          // Follow the trip, relaxing all outgoing footpaths of the reached
+          // stops
+          for (int exitEntry = entry; exitEntry != TimeDependentGraph.NO_ENTRY
+              && !followedEntries.isFollowed(exitEntry); exitEntry = mGraph.getNextEntry(exitEntry)) {
+            followedEntries.follow(exitEntry);
+            final int arrTime = mGraph.getArrTime(exitEntry) + shift;
+            if (targetTime <= arrTime) {
+              break;
+            }
+
+            final int arrStopId = mGraph.getArrStopId(exitEntry);
+            final int footpathEnd = mFrozenTable.getFootpathEnd(arrStopId);
+            for (int footpath = mFrozenTable.getFootpathBegin(arrStopId); footpath < footpathEnd; footpath++) {
+              final int footpathArrStopId = mFrozenTable.getFootpathArrStopId(footpath);
+              final int footpathTime = arrTime + mFrozenTable.getFootpathDuration(footpath);
+              if (labels.relax(activeStops, footpathArrStopId, footpathTime, stopId, entry, exitEntry, footpath)
+                  && stopToEgressDuration != null && stopToEgressDuration[footpathArrStopId] != Integer.MAX_VALUE) {
+                targetTime = Math.min(targetTime, (long) footpathTime + stopToEgressDuration[footpathArrStopId]);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    return labels;
+  }
+
+  /**
+   * Creates an array mapping stops to their egress duration, for routing to
+   * the given destination only.
+   *
+   * @param destination The destination to route to
+   * @return An array mapping the destination to an egress duration of
+   *         <code>0</code> and all other stops to {@link Integer#MAX_VALUE}
+   */
+  private int[] createEgressDurations(final ICoreNode destination) {
+    final int[] stopToEgressDuration = new int[mGraph.getAmountOfStops()];
+    Arrays.fill(stopToEgressDuration, Integer.MAX_VALUE);
+    stopToEgressDuration[destination.getId()] = 0;
+    return stopToEgressDuration;
+  }
+
+  /**
+   * Creates and returns a node for the given stop at the given time.
+   *
+   * @param stopId The ID of the stop to create a node for
+   * @param time   The time at the stop to create a node for
+   * @return The created node
+   */
+  private TransitNode createNodeForStop(final int stopId, final int time) {
+    final Stop stop = mTable.getStop(stopId);
+    return new TransitNode(stopId, stop.getLatitude(), stop.getLongitude(), time);
+  }
+
+  /**
+   * Extracts the shortest path to the given destination from the given labels
+   * by backtracking their parent pointers.
+   *
+   * @param labels          The labels to extract the path from
+   * @param destinationStop The ID of the destination stop, must be reachable
+   * @param startingTime    The time the computation started at in seconds
+   *                        since midnight
+   * @return The extracted path
+   */
+  private IPath<ICoreNode, ICoreEdge<ICoreNode>> extractPath(final Labels labels, final int destinationStop,
+      final int startingTime) {
+    final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path = new EdgePath<>(true);
+    int currentStopId = destinationStop;
+    TransitNode currentDestination = createNodeForStop(currentStopId, labels.mStopToArrTime[currentStopId]);
+
+    // Backtrack the parents until reaching a stop labeled by an initial
+    // footpath
+    while (labels.mStopToParentStop[currentStopId] != NO_INDEX) {
+      final int enterEntry = labels.mStopToEnterEntry[currentStopId];
+      final int exitEntry = labels.mStopToExitEntry[currentStopId];
+      final int shift = mGraph.getShift(enterEntry, startingTime);
+      final int footpath = labels.mStopToFootpath[currentStopId];
+
+      // Footpath from the exit of the trip, waiting is included in it
+      final TransitNode tripPartArr =
+          createNodeForStop(mFrozenTable.getFootpathDepStopId(footpath), mGraph.getArrTime(exitEntry) + shift);
+      TimeDependentDijkstra.addEdgeToPath(path, tripPartArr, currentDestination, true);
+
+      // The used part of the trip, traversed reversely
+      final IntArrayList tripPart = new IntArrayList();
+      for (int entry = enterEntry; entry != exitEntry; entry = mGraph.getNextEntry(entry)) {
+        tripPart.add(entry);
+      }
+      tripPart.add(exitEntry);
+      TransitNode currentEntryArr = tripPartArr;
+      for (int i = tripPart.size() - 1; i >= 0; i--) {
+        final int entry = tripPart.get(i);
+        final int depStopId;
+        if (i == 0) {
+          depStopId = labels.mStopToParentStop[currentStopId];
+        } else {
+          depStopId = mGraph.getArrStopId(tripPart.get(i - 1));
+        }
+        final TransitNode entryDep = createNodeForStop(depStopId, mGraph.getDepTime(entry) + shift);
+        TimeDependentDijkstra.addEdgeToPath(path, entryDep, currentEntryArr, false);
+        currentEntryArr = entryDep;
+      }
+
+      currentStopId = labels.mStopToParentStop[currentStopId];
+      currentDestination = currentEntryArr;
+    }
+
+    // Add the initial footpath from the source. Sources may start at different
+    // times, the time of this source is thus derived from the initial footpath.
+    final int initialFootpath = labels.mStopToFootpath[currentStopId];
+    final TransitNode sourceNode = createNodeForStop(mFrozenTable.getFootpathDepStopId(initialFootpath),
+        labels.mStopToArrTime[currentStopId] - mFrozenTable.getFootpathDuration(initialFootpath));
+    TimeDependentDijkstra.addEdgeToPath(path, sourceNode, currentDestination, true);
+
+    return path;
+  }
+
+  /**
+   * The labels of a single search, indexed by stop ID.
+   *
+   * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+   */
+  private static final class Labels {
+    /**
+     * The earliest time at which a trip can be boarded at each stop, or
+     * {@link Integer#MAX_VALUE} if not reached.
+     */
+    private final int[] mStopToArrTime;
+    /**
+     * The entry at which the trip used to reach each stop was boarded, or
+     * {@link #NO_INDEX} if reached by an initial footpath.
+     */
+    private final int[] mStopToEnterEntry;
+    /**
+     * The entry at which the trip used to reach each stop was left, or
+     * {@link #NO_INDEX} if reached by an initial footpath.
+     */
+    private final int[] mStopToExitEntry;
+    /**
+     * The footpath used to reach each stop.
+     */
+    private final int[] mStopToFootpath;
+    /**
+     * The stop at which the trip used to reach each stop was boarded, or
+     * {@link #NO_INDEX} if reached by an initial footpath.
+     */
+    private final int[] mStopToParentStop;
+
+    /**
+     * Creates new labels of which no stop is reached.
+     *
+     * @param amountOfStops The amount of stops
+     */
+    Labels(final int amountOfStops) {
+      mStopToArrTime = new int[amountOfStops];
+      Arrays.fill(mStopToArrTime, Integer.MAX_VALUE);
+      mStopToEnterEntry = new int[amountOfStops];
+      mStopToExitEntry = new int[amountOfStops];
+      mStopToFootpath = new int[amountOfStops];
+      mStopToParentStop = new int[amountOfStops];
+    }
+
+    /**
+     * Relaxes the given stop, if the given time improves its label.
+     *
+     * @param activeStops The heap of active stops, keyed by their label
+     * @param stopId      The ID of the stop to relax
+     * @param time        The time at which a trip can be boarded at the stop
+     * @param parentStop  The stop the used trip was boarded at or
+     *                    {@link #NO_INDEX}
+     * @param enterEntry  The entry the used trip was boarded at or
+     *                    {@link #NO_INDEX}
+     * @param exitEntry   The entry the used trip was left at or
+     *                    {@link #NO_INDEX}
+     * @param footpath    The footpath used to reach the stop
+     * @return <code>True</code> if the label was improved, <code>false</code>
+     *         otherwise
+     */
+    boolean relax(final IndexedMinHeap activeStops, final int stopId, final int time, final int parentStop,
+        final int enterEntry, final int exitEntry, final int footpath) {
+      if (time >= mStopToArrTime[stopId]) {
+        return false;
+      }
+      mStopToArrTime[stopId] = time;
+      mStopToParentStop[stopId] = parentStop;
+      mStopToEnterEntry[stopId] = enterEntry;
+      mStopToExitEntry[stopId] = exitEntry;
+      mStopToFootpath[stopId] = footpath;
+      if (activeStops.contains(stopId)) {
+        activeStops.decreaseKey(stopId, time);
+      } else {
+        activeStops.add(stopId, time);
+      }
+      return true;
+    }
+  }
+}
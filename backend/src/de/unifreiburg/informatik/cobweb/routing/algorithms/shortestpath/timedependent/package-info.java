@@ -0,0 +1,7 @@
+/**
+ * Contains the time-dependent Dijkstra algorithm for answering queries on
+ * time-dependent transit models.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.timedependent;
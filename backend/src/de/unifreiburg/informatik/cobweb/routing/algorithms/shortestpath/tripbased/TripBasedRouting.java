@@ -0,0 +1,656 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.AShortestPathComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ITransitComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.PathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.FootpathTransitEdge;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor.RaptorTimetable;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.IHasTime;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitNode;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+
+/**
+ * Implementation of the Trip-Based Public Transit Routing algorithm that is
+ * able to compute shortest paths using precomputed {@link TripTransfers}.<br>
+ * <br>
+ * The algorithm performs a breadth first search over trip segments. A segment
+ * is a part of a trip between the stop it is boarded at and the first stop
+ * from which the trip, or an earlier trip of its route, was already reached.
+ * Segments of the first round are boarded at the stops reachable from the
+ * sources by foot, further segments are reached over the transfers of the
+ * arrivals of the previous round. A query thus only touches trip segments
+ * instead of scanning connections.<br>
+ * <br>
+ * Like the Connection-Scan algorithm, the label of a stop is the earliest time
+ * at which a trip can be boarded at it, footpaths are relaxed directly after
+ * arriving. If a date is given, only trips whose service runs at that date are
+ * considered, trips departing before the starting time use the services of
+ * the following day.<br>
+ * <br>
+ * For details refer to:
+ * <ul>
+ * <li><code>Trip-Based Public Transit Routing</code> - Witt S. - 2015 -
+ * <a href="https://arxiv.org/abs/1504.07149">arxiv.org/abs/1504.07149</a></li>
+ * </ul>
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class TripBasedRouting extends AShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>>
+    implements ITransitComputation {
+  /**
+   * The index indicating that there is no segment or footpath.
+   */
+  private static final int NO_INDEX = -1;
+
+  /**
+   * Creates and adds an edge from the given source to destination to the given
+   * path. The cost of the edge is determined by the time difference of both
+   * nodes.
+   *
+   * @param path        The path to add the edge to
+   * @param source      The source node of the edge
+   * @param destination The destination node of the edge
+   * @param walkByFoot  <code>True</code> if the transportation mode of the edge is
+   *                    by foot, <code>false</code> if by tram.
+   */
+  private static void addEdgeToPath(final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path, final TransitNode source,
+      final TransitNode destination, final boolean walkByFoot) {
+    final double cost = destination.getTime() - source.getTime();
+    final ICoreEdge<ICoreNode> edge;
+    if (walkByFoot) {
+      edge = new FootpathTransitEdge<>(0, source, destination, cost);
+    } else {
+      edge = new TransitEdge<>(0, source, destination, cost);
+    }
+    path.addEdge(edge, cost);
+  }
+
+  /**
+   * Extracts the starting time of the given sources. That is the time of the
+   * first source, the times of further sources are interpreted to be not
+   * before it.
+   *
+   * @param sources The sources to extract the time from, must not be empty
+   * @return The extracted time
+   * @throws IllegalArgumentException If the first source has no time
+   */
+  private static int extractStartingTime(final Collection<ICoreNode> sources) throws IllegalArgumentException {
+    return TripBasedRouting.extractTime(sources.iterator().next());
+  }
+
+  /**
+   * Extracts the time from the given node.
+   *
+   * @param node The node to extract the time from
+   * @return The extracted time
+   * @throws IllegalArgumentException If the given node has no time
+   */
+  private static int extractTime(final ICoreNode node) throws IllegalArgumentException {
+    if (!(node instanceof IHasTime)) {
+      throw new IllegalArgumentException();
+    }
+    return ((IHasTime) node).getTime();
+  }
+
+  /**
+   * The date to route at or <code>null</code> if all trips should be
+   * considered running every day.
+   */
+  private final LocalDate mDate;
+  /**
+   * The frozen view of the timetable, providing footpaths and services.
+   */
+  private final FrozenTimetable mFrozenTable;
+  /**
+   * The route based layout of the timetable to route on.
+   */
+  private final RaptorTimetable mRaptorTable;
+  /**
+   * The timetable data the layout was created of, providing the stops.
+   */
+  private final Timetable mTable;
+  /**
+   * The precomputed transfers between the trips.
+   */
+  private final TripTransfers mTransfers;
+
+  /**
+   * Creates a new trip-based routing algorithm which considers all trips
+   * running every day.
+   *
+   * @param table     The timetable data the transfers were created of
+   * @param transfers The precomputed transfers between the trips
+   */
+  public TripBasedRouting(final Timetable table, final TripTransfers transfers) {
+    this(table, transfers, null);
+  }
+
+  /**
+   * Creates a new trip-based routing algorithm which only considers trips
+   * running at the given date.
+   *
+   * @param table     The timetable data the transfers were created of
+   * @param transfers The precomputed transfers between the trips
+   * @param date      The date to route at, i.e. the date of the departure
+   *                  times of the queries, or <code>null</code> if all trips
+   *                  should be considered running every day
+   */
+  public TripBasedRouting(final Timetable table, final TripTransfers transfers, final LocalDate date) {
+    mTable = table;
+    mTransfers = transfers;
+    mDate = date;
+    mRaptorTable = transfers.getRaptorTimetable();
+    mFrozenTable = mRaptorTable.getTimetable();
+  }
+
+  @Override
+  public Collection<ICoreNode> computeSearchSpace(final Collection<ICoreNode> sources, final ICoreNode destination) {
+    final int startingTime = TripBasedRouting.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
+
+    // Collect all visited stops
+    final Collection<ICoreNode> searchSpace = new ArrayList<>();
+    for (int i = 0; i < labels.mStopToArrTime.length; i++) {
+      final int arrTime = labels.mStopToArrTime[i];
+      // Skip if not visited
+      if (arrTime == Integer.MAX_VALUE) {
+        continue;
+      }
+      searchSpace.add(createNodeForStop(i, arrTime));
+    }
+
+    return searchSpace;
+  }
+
+  @Override
+  public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
+      final ICoreNode destination) {
+    final int startingTime = TripBasedRouting.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
+    // Not reachable
+    if (labels.mStopToArrTime[destination.getId()] == Integer.MAX_VALUE) {
+      return Optional.empty();
+    }
+
+    return Optional.of(extractPath(labels, destination.getId()));
+  }
+
+  @Override
+  public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
+      final Map<ICoreNode, Integer> destinationToEgressDuration) {
+    final int[] stopToEgressDuration = new int[mRaptorTable.getAmountOfStops()];
+    Arrays.fill(stopToEgressDuration, Integer.MAX_VALUE);
+    for (final Entry<ICoreNode, Integer> destination : destinationToEgressDuration.entrySet()) {
+      final int stopId = destination.getKey().getId();
+      stopToEgressDuration[stopId] = Math.min(stopToEgressDuration[stopId], destination.getValue().intValue());
+    }
+
+    final int startingTime = TripBasedRouting.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, stopToEgressDuration, startingTime);
+
+    // Choose the best reachable destination
+    int bestDestinationStop = NO_INDEX;
+    long bestTargetTime = Long.MAX_VALUE;
+    for (final ICoreNode destination : destinationToEgressDuration.keySet()) {
+      final int stopId = destination.getId();
+      if (labels.mStopToArrTime[stopId] == Integer.MAX_VALUE) {
+        continue;
+      }
+      final long targetTime = (long) labels.mStopToArrTime[stopId] + stopToEgressDuration[stopId];
+      if (targetTime < bestTargetTime) {
+        bestTargetTime = targetTime;
+        bestDestinationStop = stopId;
+      }
+    }
+
+    // Not reachable
+    if (bestDestinationStop == NO_INDEX) {
+      return Optional.empty();
+    }
+
+    return Optional.of(extractPath(labels, bestDestinationStop));
+  }
+
+  @Override
+  public Optional<Double> computeShortestPathCost(final Collection<ICoreNode> sources, final ICoreNode destination) {
+    final int startingTime = TripBasedRouting.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, createEgressDurations(destination), startingTime);
+
+    final int arrTime = labels.mStopToArrTime[destination.getId()];
+    // Not reachable
+    if (arrTime == Integer.MAX_VALUE) {
+      return Optional.empty();
+    }
+
+    return Optional.of((double) arrTime - startingTime);
+  }
+
+  @Override
+  public Map<ICoreNode, ? extends IHasPathCost> computeShortestPathCostsReachable(final Collection<ICoreNode> sources) {
+    final int startingTime = TripBasedRouting.extractStartingTime(sources);
+    final Labels labels = computeShortestPathHelper(sources, null, startingTime);
+
+    // Collect all reachable stops
+    final Map<ICoreNode, PathCost> stopToCost = new HashMap<>();
+    for (int i = 0; i < labels.mStopToArrTime.length; i++) {
+      final int arrTime = labels.mStopToArrTime[i];
+      // Skip if not reachable
+      if (arrTime == Integer.MAX_VALUE) {
+        continue;
+      }
+      stopToCost.put(createNodeForStop(i, arrTime), new PathCost((double) arrTime - startingTime));
+    }
+
+    return stopToCost;
+  }
+
+  /**
+   * Helper method to compute shortest paths from the given sources to a
+   * possible destination.
+   *
+   * @param sources              The sources to start computation from, must
+   *                             not be empty. Each source starts at its own
+   *                             time.
+   * @param stopToEgressDuration An array mapping the destination stops to the
+   *                             duration needed after arriving at them and
+   *                             all other stops to {@link Integer#MAX_VALUE},
+   *                             or <code>null</code> if routing to all
+   *                             reachable stops is desired
+   * @param startingTime         The time to start routing at in seconds since
+   *                             midnight, the times of all sources must not
+   *                             be before it
+   * @return The labels computed by the algorithm
+   */
+  private Labels computeShortestPathHelper(final Collection<ICoreNode> sources, final int[] stopToEgressDuration,
+      final int startingTime) {
+    // Earliest time at which any destination is finished, including its egress
+    long targetTime = Long.MAX_VALUE;
+
+    final Labels labels = new Labels(mRaptorTable.getAmountOfStops(), mRaptorTable.getAmountOfTrips());
+    // Relax all initial footpaths, each source at its own time
+    final IntArrayList initialStops = new IntArrayList();
+    for (final ICoreNode source : sources) {
+      int sourceTime = TripBasedRouting.extractTime(source);
+      if (sourceTime < startingTime) {
+        sourceTime += 24 * 60 * 60;
+      }
+      final int footpathEnd = mFrozenTable.getFootpathEnd(source.getId());
+      for (int footpath = mFrozenTable.getFootpathBegin(source.getId()); footpath < footpathEnd; footpath++) {
+        final int footpathArrStopId = mFrozenTable.getFootpathArrStopId(footpath);
+        final int footpathTime = sourceTime + mFrozenTable.getFootpathDuration(footpath);
+        if (footpathTime >= labels.mStopToArrTime[footpathArrStopId]) {
+          continue;
+        }
+        if (labels.mStopToArrTime[footpathArrStopId] == Integer.MAX_VALUE) {
+          initialStops.add(footpathArrStopId);
+        }
+        labels.set(footpathArrStopId, footpathTime, NO_INDEX, NO_INDEX, footpath);
+        if (stopToEgressDuration != null && stopToEgressDuration[footpathArrStopId] != Integer.MAX_VALUE) {
+          targetTime = Math.min(targetTime, (long) footpathTime + stopToEgressDuration[footpathArrStopId]);
+        }
+      }
+    }
+
+    // Resolve the services running at the date and the day after
+    final boolean[] activeServices = mFrozenTable.getActiveServices(mDate);
+    final boolean[] nextDayActiveServices;
+    if (mDate == null) {
+      nextDayActiveServices = activeServices;
+    } else {
+      nextDayActiveServices = mFrozenTable.getActiveServices(mDate.plusDays(1));
+    }
+
+    // Board the trips departing at the stops reachable by foot
+    for (int i = 0; i < initialStops.size(); i++) {
+      final int stopId = initialStops.get(i);
+      final int time = labels.mStopToArrTime[stopId];
+      final int footpath = labels.mStopToFootpath[stopId];
+      final int originTime = time - mFrozenTable.getFootpathDuration(footpath);
+      final int routeEnd = mRaptorTable.getStopRouteEnd(stopId);
+      for (int index = mRaptorTable.getStopRouteBegin(stopId); index < routeEnd; index++) {
+        final int route = mRaptorTable.getStopRoute(index);
+        final int position = mRaptorTable.getStopRoutePosition(index);
+        if (position == mRaptorTable.getRouteLength(route) - 1) {
+          continue;
+        }
+        final int trip = mRaptorTable.getEarliestTrip(route, position, time, startingTime, activeServices,
+            nextDayActiveServices);
+        if (trip != RaptorTimetable.NO_TRIP) {
+          enqueue(labels, route, trip, position, startingTime, NO_INDEX, NO_INDEX, footpath, originTime);
+        }
+      }
+    }
+
+    // Scan the segments in the order they were reached, i.e. round by round
+    for (int segment = 0; segment < labels.mSegmentTrips.size(); segment++) {
+      final int trip = labels.mSegmentTrips.get(segment);
+      final int route = mTransfers.getTripRoute(trip);
+      final int shift = labels.mSegmentShifts.get(segment);
+      final int end = labels.mSegmentEnds.get(segment);
+      for (int position = labels.mSegmentBegins.get(segment) + 1; position <= end; position++) {
+        final int arrTime = mRaptorTable.getArrTime(trip, position) + shift;
+        // Later arrivals of the segment can not improve either
+        if (arrTime >= targetTime) {
+          break;
+        }
+
+        // Arrive and relax all outgoing footpaths
+        final int stopId = mRaptorTable.getRouteStopId(route, position);
+        final int footpathEnd = mFrozenTable.getFootpathEnd(stopId);
+        for (int footpath = mFrozenTable.getFootpathBegin(stopId); footpath < footpathEnd; footpath++) {
+          final int footpathArrStopId = mFrozenTable.getFootpathArrStopId(footpath);
+          final int footpathTime = arrTime + mFrozenTable.getFootpathDuration(footpath);
+          if (footpathTime >= labels.mStopToArrTime[footpathArrStopId]) {
+            continue;
+          }
+          labels.set(footpathArrStopId, footpathTime, segment, position, footpath);
+          if (stopToEgressDuration != null && stopToEgressDuration[footpathArrStopId] != Integer.MAX_VALUE) {
+            targetTime = Math.min(targetTime, (long) footpathTime + stopToEgressDuration[footpathArrStopId]);
+          }
+        }
+
+        // Follow the transfers, they are reached in the next round
+        final int transferEnd = mTransfers.getTransferEnd(trip, position);
+        for (int transfer = mTransfers.getTransferBegin(trip, position); transfer < transferEnd; transfer++) {
+          final int footpath = mTransfers.getTransferFootpath(transfer);
+          final int transferTime = arrTime + mFrozenTable.getFootpathDuration(footpath);
+          if (transferTime >= targetTime) {
+            continue;
+          }
+          final int transferRoute = mTransfers.getTransferRoute(transfer);
+          final int transferPosition = mTransfers.getTransferPosition(transfer);
+          final int transferTrip = mRaptorTable.getEarliestTrip(transferRoute, transferPosition, transferTime,
+              startingTime, activeServices, nextDayActiveServices);
+          if (transferTrip != RaptorTimetable.NO_TRIP) {
+            enqueue(labels, transferRoute, transferTrip, transferPosition, startingTime, segment, position,
+                footpath, arrTime);
+          }
+        }
+      }
+    }
+
+    return labels;
+  }
+
+  /**
+   * Creates an array mapping stops to their egress duration, for routing to
+   * the given destination only.
+   *
+   * @param destination The destination to route to
+   * @return An array mapping the destination to an egress duration of
+   *         <code>0</code> and all other stops to {@link Integer#MAX_VALUE}
+   */
+  private int[] createEgressDurations(final ICoreNode destination) {
+    final int[] stopToEgressDuration = new int[mRaptorTable.getAmountOfStops()];
+    Arrays.fill(stopToEgressDuration, Integer.MAX_VALUE);
+    stopToEgressDuration[destination.getId()] = 0;
+    return stopToEgressDuration;
+  }
+
+  /**
+   * Creates and returns a node for the given stop at the given time.
+   *
+   * @param stopId The ID of the stop to create a node for
+   * @param time   The time at the stop to create a node for
+   * @return The created node
+   */
+  private TransitNode createNodeForStop(final int stopId, final int time) {
+    final Stop stop = mTable.getStop(stopId);
+    return new TransitNode(stopId, stop.getLatitude(), stop.getLongitude(), time);
+  }
+
+  /**
+   * Enqueues the segment of the given trip boarded at the given position, if
+   * the trip was not already reached at or before it. Later trips of the same
+   * route and day are marked as reached at the position, since they can not
+   * arrive earlier than the trip.
+   *
+   * @param labels         The labels of the query
+   * @param route          The index of the route of the trip
+   * @param trip           The index of the trip
+   * @param position       The position of the boarding stop in the route
+   * @param startingTime   The starting time of the query in seconds since
+   *                       midnight
+   * @param parent         The segment the trip was reached from, or
+   *                       {@link #NO_INDEX} if reached from a source
+   * @param parentPosition The position at which the parent segment is left,
+   *                       or {@link #NO_INDEX} if reached from a source
+   * @param footpath       The footpath leading to the boarding stop
+   * @param originTime     The time at which the footpath starts
+   */
+  private void enqueue(final Labels labels, final int route, final int trip, final int position,
+      final int startingTime, final int parent, final int parentPosition, final int footpath, final int originTime) {
+    final int shift = mRaptorTable.getShift(trip, position, startingTime);
+    final int day;
+    if (shift == 0) {
+      day = 0;
+    } else {
+      day = 1;
+    }
+    final int[] tripToFirstPosition = labels.mDayToTripToFirstPosition[day];
+    final int firstPosition = tripToFirstPosition[trip];
+    if (position >= firstPosition) {
+      return;
+    }
+
+    labels.addSegment(trip, shift, position, Math.min(firstPosition, mRaptorTable.getRouteLength(route) - 1),
+        parent, parentPosition, footpath, originTime);
+    final int tripEnd = mRaptorTable.getRouteTripEnd(route);
+    for (int laterTrip = trip; laterTrip < tripEnd && tripToFirstPosition[laterTrip] > position; laterTrip++) {
+      tripToFirstPosition[laterTrip] = position;
+    }
+  }
+
+  /**
+   * Extracts the shortest path to the given destination from the given labels
+   * by backtracking the segments.
+   *
+   * @param labels          The labels to extract the path from
+   * @param destinationStop The ID of the destination stop, must be reachable
+   * @return The extracted path
+   */
+  private IPath<ICoreNode, ICoreEdge<ICoreNode>> extractPath(final Labels labels, final int destinationStop) {
+    final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path = new EdgePath<>(true);
+    final TransitNode destination = createNodeForStop(destinationStop, labels.mStopToArrTime[destinationStop]);
+    final int footpath = labels.mStopToFootpath[destinationStop];
+    int segment = labels.mStopToSegment[destinationStop];
+    // Reached by foot from a source
+    if (segment == NO_INDEX) {
+      final TransitNode sourceNode = createNodeForStop(mFrozenTable.getFootpathDepStopId(footpath),
+          labels.mStopToArrTime[destinationStop] - mFrozenTable.getFootpathDuration(footpath));
+      TripBasedRouting.addEdgeToPath(path, sourceNode, destination, true);
+      return path;
+    }
+
+    // Footpath from the arrival of the last segment, waiting is included in it
+    int alightPosition = labels.mStopToAlightPosition[destinationStop];
+    TransitNode currentDestination = destination;
+    // Segments are always reached from segments with a smaller index
+    while (segment != NO_INDEX) {
+      final int trip = labels.mSegmentTrips.get(segment);
+      final int route = mTransfers.getTripRoute(trip);
+      final int shift = labels.mSegmentShifts.get(segment);
+      final TransitNode tripArr = createNodeForStop(mRaptorTable.getRouteStopId(route, alightPosition),
+          mRaptorTable.getArrTime(trip, alightPosition) + shift);
+      TripBasedRouting.addEdgeToPath(path, tripArr, currentDestination, true);
+
+      // The used part of the trip, traversed reversely
+      TransitNode currentArr = tripArr;
+      for (int position = alightPosition - 1; position >= labels.mSegmentBegins.get(segment); position--) {
+        final TransitNode dep = createNodeForStop(mRaptorTable.getRouteStopId(route, position),
+            mRaptorTable.getDepTime(trip, position) + shift);
+        TripBasedRouting.addEdgeToPath(path, dep, currentArr, false);
+        currentArr = dep;
+      }
+
+      alightPosition = labels.mSegmentParentPositions.get(segment);
+      currentDestination = currentArr;
+      final int parent = labels.mSegmentParents.get(segment);
+      if (parent == NO_INDEX) {
+        // Add the initial footpath from the source
+        final int initialFootpath = labels.mSegmentFootpaths.get(segment);
+        final TransitNode sourceNode = createNodeForStop(mFrozenTable.getFootpathDepStopId(initialFootpath),
+            labels.mSegmentOriginTimes.get(segment));
+        TripBasedRouting.addEdgeToPath(path, sourceNode, currentDestination, true);
+      }
+      segment = parent;
+    }
+
+    return path;
+  }
+
+  /**
+   * The labels of the stops and the reached trip segments of a single query.
+   *
+   * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+   */
+  private static final class Labels {
+    /**
+     * The first position at which each trip is reached, indexed by the day of
+     * the trip, <code>0</code> for the day of the query and <code>1</code> for
+     * the day after, and the trip.
+     */
+    private final int[][] mDayToTripToFirstPosition;
+    /**
+     * The position in the route at which each segment is boarded.
+     */
+    private final IntArrayList mSegmentBegins;
+    /**
+     * The position in the route of each segment up to which it is scanned,
+     * inclusive.
+     */
+    private final IntArrayList mSegmentEnds;
+    /**
+     * The footpath leading to the boarding stop of each segment.
+     */
+    private final IntArrayList mSegmentFootpaths;
+    /**
+     * The time at which the footpath leading to each segment starts.
+     */
+    private final IntArrayList mSegmentOriginTimes;
+    /**
+     * The position in the route of the parent segment at which it is left for
+     * each segment.
+     */
+    private final IntArrayList mSegmentParentPositions;
+    /**
+     * The segment each segment was reached from, or {@link #NO_INDEX}.
+     */
+    private final IntArrayList mSegmentParents;
+    /**
+     * The shift of the trip of each segment.
+     */
+    private final IntArrayList mSegmentShifts;
+    /**
+     * The trip of each segment.
+     */
+    private final IntArrayList mSegmentTrips;
+    /**
+     * The position in the route at which the segment used to reach each stop is
+     * left.
+     */
+    private final int[] mStopToAlightPosition;
+    /**
+     * The earliest time at which a trip can be boarded at each stop, or
+     * {@link Integer#MAX_VALUE} if not reached.
+     */
+    private final int[] mStopToArrTime;
+    /**
+     * The footpath used to reach each stop.
+     */
+    private final int[] mStopToFootpath;
+    /**
+     * The segment used to reach each stop, or {@link #NO_INDEX} if reached by
+     * an initial footpath.
+     */
+    private final int[] mStopToSegment;
+
+    /**
+     * Creates new labels of which no stop and no trip is reached.
+     *
+     * @param amountOfStops The amount of stops
+     * @param amountOfTrips The amount of trips
+     */
+    Labels(final int amountOfStops, final int amountOfTrips) {
+      mStopToArrTime = new int[amountOfStops];
+      Arrays.fill(mStopToArrTime, Integer.MAX_VALUE);
+      mStopToSegment = new int[amountOfStops];
+      mStopToAlightPosition = new int[amountOfStops];
+      mStopToFootpath = new int[amountOfStops];
+      mDayToTripToFirstPosition = new int[2][amountOfTrips];
+      for (final int[] tripToFirstPosition : mDayToTripToFirstPosition) {
+        Arrays.fill(tripToFirstPosition, Integer.MAX_VALUE);
+      }
+      mSegmentTrips = new IntArrayList();
+      mSegmentShifts = new IntArrayList();
+      mSegmentBegins = new IntArrayList();
+      mSegmentEnds = new IntArrayList();
+      mSegmentParents = new IntArrayList();
+      mSegmentParentPositions = new IntArrayList();
+      mSegmentFootpaths = new IntArrayList();
+      mSegmentOriginTimes = new IntArrayList();
+    }
+
+    /**
+     * Adds a segment.
+     *
+     * @param trip           The trip of the segment
+     * @param shift          The shift of the trip
+     * @param begin          The position at which the segment is boarded
+     * @param end            The position up to which the segment is scanned,
+     *                       inclusive
+     * @param parent         The segment it was reached from, or
+     *                       {@link #NO_INDEX}
+     * @param parentPosition The position at which the parent segment is left,
+     *                       or {@link #NO_INDEX}
+     * @param footpath       The footpath leading to the boarding stop
+     * @param originTime     The time at which the footpath starts
+     */
+    void addSegment(final int trip, final int shift, final int begin, final int end, final int parent,
+        final int parentPosition, final int footpath, final int originTime) {
+      mSegmentTrips.add(trip);
+      mSegmentShifts.add(shift);
+      mSegmentBegins.add(begin);
+      mSegmentEnds.add(end);
+      mSegmentParents.add(parent);
+      mSegmentParentPositions.add(parentPosition);
+      mSegmentFootpaths.add(footpath);
+      mSegmentOriginTimes.add(originTime);
+    }
+
+    /**
+     * Sets the label and pointer of the given stop.
+     *
+     * @param stopId         The ID of the stop
+     * @param time           The time at which a trip can be boarded at the stop
+     * @param segment        The used segment or {@link #NO_INDEX}
+     * @param alightPosition The position at which the segment is left
+     * @param footpath       The footpath used to reach the stop
+     */
+    void set(final int stopId, final int time, final int segment, final int alightPosition, final int footpath) {
+      mStopToArrTime[stopId] = time;
+      mStopToSegment[stopId] = segment;
+      mStopToAlightPosition[stopId] = alightPosition;
+      mStopToFootpath[stopId] = footpath;
+    }
+  }
+}
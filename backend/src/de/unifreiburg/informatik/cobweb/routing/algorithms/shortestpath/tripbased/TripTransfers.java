@@ -0,0 +1,677 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor.RaptorTimetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable;
+
+/**
+ * Precomputed transfers between the trips of a {@link RaptorTimetable},
+ * intended to be used by {@link TripBasedRouting}.<br>
+ * <br>
+ * For every stop at which a trip arrives, transfers lead over a footpath of
+ * the timetable, including the transfer delay at the same stop, to the routes
+ * serving the destination of the footpath. A transfer only stores the route and
+ * the position of its destination, the trip to board is resolved at query time
+ * such that services and the day of the query are respected. Transfers which
+ * can not improve the arrival at any stop compared to staying seated or to
+ * other transfers of the trip are removed, assuming all trips run every day.
+ * Transfers of a trip are only considered to dominate others if their
+ * destination trip shares its service.<br>
+ * <br>
+ * The transfers are computed for all trips in parallel and stored in compressed
+ * sparse row (CSR) layout, indexed by the arrival events of the trips. They can
+ * be persisted to a versioned binary file which is bound to a fingerprint of
+ * the timetable and recomputed if it changed. Use
+ * {@link #of(RaptorTimetable, Path)} to create instances.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class TripTransfers {
+  /**
+   * The amount of bytes of the file header. Magic number, version,
+   * fingerprint, amount of events and amount of transfers.
+   */
+  private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+  /**
+   * Logger to use for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(TripTransfers.class);
+  /**
+   * The magic number identifying trip transfer files.
+   */
+  private static final int MAGIC = 0x54525446;
+  /**
+   * Amount of seconds of a day.
+   */
+  private static final int SECONDS_OF_DAY = 24 * 60 * 60;
+  /**
+   * The amount of values stored per transfer while computing them. The
+   * position of its origin, the route and position of its destination and the
+   * footpath.
+   */
+  private static final int TRANSFER_VALUES = 4;
+  /**
+   * The version of the file format. Increase on incompatible changes.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Computes a fingerprint of the given timetable. It covers the stops and
+   * trips of all routes, their times and services, and all footpaths.
+   *
+   * @param raptorTable The timetable to compute the fingerprint of
+   * @return The fingerprint
+   */
+  public static long computeFingerprint(final RaptorTimetable raptorTable) {
+    long fingerprint = 17L;
+    fingerprint = 31L * fingerprint + raptorTable.getAmountOfStops();
+    fingerprint = 31L * fingerprint + raptorTable.getAmountOfRoutes();
+    fingerprint = 31L * fingerprint + raptorTable.getAmountOfTrips();
+    for (int route = 0; route < raptorTable.getAmountOfRoutes(); route++) {
+      final int length = raptorTable.getRouteLength(route);
+      fingerprint = 31L * fingerprint + length;
+      for (int position = 0; position < length; position++) {
+        fingerprint = 31L * fingerprint + raptorTable.getRouteStopId(route, position);
+      }
+      final int tripEnd = raptorTable.getRouteTripEnd(route);
+      for (int trip = raptorTable.getRouteTripBegin(route); trip < tripEnd; trip++) {
+        fingerprint = 31L * fingerprint + raptorTable.getTripServiceIndex(trip);
+        for (int position = 0; position < length; position++) {
+          fingerprint = 31L * fingerprint + raptorTable.getDepTime(trip, position);
+          fingerprint = 31L * fingerprint + raptorTable.getArrTime(trip, position);
+        }
+      }
+    }
+
+    final FrozenTimetable table = raptorTable.getTimetable();
+    for (int stopId = 0; stopId < table.getAmountOfStops(); stopId++) {
+      final int footpathEnd = table.getFootpathEnd(stopId);
+      for (int footpath = table.getFootpathBegin(stopId); footpath < footpathEnd; footpath++) {
+        fingerprint = 31L * fingerprint + table.getFootpathArrStopId(footpath);
+        fingerprint = 31L * fingerprint + table.getFootpathDuration(footpath);
+      }
+      fingerprint = 31L * fingerprint + footpathEnd;
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Creates the transfers of the given timetable. If the given file contains
+   * transfers for the same timetable, they are used. Otherwise, the transfers
+   * are computed and written to the file.
+   *
+   * @param raptorTable The timetable to create the transfers of
+   * @param cache       The file to persist the transfers to, or
+   *                    <code>null</code> if they should not be persisted
+   * @return The created transfers
+   */
+  public static TripTransfers of(final RaptorTimetable raptorTable, final Path cache) {
+    if (cache == null) {
+      return TripTransfers.compute(raptorTable);
+    }
+
+    final long fingerprint = TripTransfers.computeFingerprint(raptorTable);
+    final Optional<TripTransfers> cachedTransfers = TripTransfers.readTransfers(raptorTable, cache, fingerprint);
+    if (cachedTransfers.isPresent()) {
+      LOGGER.info("Using trip transfer cache: {}", cache);
+      return cachedTransfers.get();
+    }
+
+    final TripTransfers transfers = TripTransfers.compute(raptorTable);
+    TripTransfers.writeTransfers(transfers, cache, fingerprint);
+    return transfers;
+  }
+
+  /**
+   * Reads transfers from the given file written by {@link #write(Path, long)}.
+   *
+   * @param raptorTable The timetable the transfers belong to
+   * @param path        The file to read from
+   * @param fingerprint The fingerprint of the timetable the transfers must
+   *                    belong to
+   * @return The transfers or an empty optional if the file does not belong to
+   *         the given fingerprint or has an unknown format
+   * @throws IOException If an I/O exception occurred while reading the file
+   */
+  static Optional<TripTransfers> read(final RaptorTimetable raptorTable, final Path path, final long fingerprint)
+      throws IOException {
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES) {
+        return Optional.empty();
+      }
+      buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != fingerprint) {
+      return Optional.empty();
+    }
+    final int amountOfEvents = buffer.getInt();
+    final int amountOfTransfers = buffer.getInt();
+    final long expectedBytes = HEADER_BYTES + (amountOfEvents + 1L + 3L * amountOfTransfers) * Integer.BYTES;
+    if (amountOfEvents < 0 || amountOfTransfers < 0 || buffer.capacity() != expectedBytes) {
+      return Optional.empty();
+    }
+
+    final int[] tripToRoute = TripTransfers.computeTripToRoute(raptorTable);
+    final int[] tripEventOffsets = TripTransfers.computeTripEventOffsets(raptorTable, tripToRoute);
+    if (tripEventOffsets[tripEventOffsets.length - 1] != amountOfEvents) {
+      return Optional.empty();
+    }
+    // Copy the transfers to the heap, they are accessed randomly
+    final IntBuffer values = buffer.asIntBuffer();
+    final int[] transferOffsets = new int[amountOfEvents + 1];
+    values.get(transferOffsets);
+    final int[] transferRoutes = new int[amountOfTransfers];
+    values.get(transferRoutes);
+    final int[] transferPositions = new int[amountOfTransfers];
+    values.get(transferPositions);
+    final int[] transferFootpaths = new int[amountOfTransfers];
+    values.get(transferFootpaths);
+    return Optional.of(new TripTransfers(raptorTable, tripToRoute, tripEventOffsets, transferOffsets,
+        transferRoutes, transferPositions, transferFootpaths));
+  }
+
+  /**
+   * Computes the transfers of the given timetable. The trips are processed in
+   * parallel.
+   *
+   * @param raptorTable The timetable to compute the transfers of
+   * @return The computed transfers
+   */
+  private static TripTransfers compute(final RaptorTimetable raptorTable) {
+    LOGGER.info("Computing trip transfers");
+    final int[] tripToRoute = TripTransfers.computeTripToRoute(raptorTable);
+    final int[] tripEventOffsets = TripTransfers.computeTripEventOffsets(raptorTable, tripToRoute);
+    final boolean[] allServices = raptorTable.getTimetable().getActiveServices(null);
+    final ThreadLocal<ArrivalLabels> labels =
+        ThreadLocal.withInitial(() -> new ArrivalLabels(raptorTable.getAmountOfStops()));
+
+    // Each trip writes its own slot, the join of the stream publishes them
+    final int[][] tripToTransfers = new int[raptorTable.getAmountOfTrips()][];
+    IntStream.range(0, tripToTransfers.length).parallel().forEach(trip -> {
+      tripToTransfers[trip] =
+          TripTransfers.computeTransfers(raptorTable, tripToRoute[trip], trip, labels.get(), allServices);
+    });
+
+    // Lay out the transfers by their origin event
+    final int amountOfEvents = tripEventOffsets[tripEventOffsets.length - 1];
+    final int[] transferOffsets = new int[amountOfEvents + 1];
+    for (int trip = 0; trip < tripToTransfers.length; trip++) {
+      final int[] transfers = tripToTransfers[trip];
+      for (int i = 0; i < transfers.length; i += TRANSFER_VALUES) {
+        transferOffsets[tripEventOffsets[trip] + transfers[i] + 1]++;
+      }
+    }
+    for (int event = 0; event < amountOfEvents; event++) {
+      transferOffsets[event + 1] += transferOffsets[event];
+    }
+    final int amountOfTransfers = transferOffsets[amountOfEvents];
+    final int[] transferRoutes = new int[amountOfTransfers];
+    final int[] transferPositions = new int[amountOfTransfers];
+    final int[] transferFootpaths = new int[amountOfTransfers];
+    final int[] nextTransfer = Arrays.copyOf(transferOffsets, amountOfEvents);
+    for (int trip = 0; trip < tripToTransfers.length; trip++) {
+      final int[] transfers = tripToTransfers[trip];
+      for (int i = 0; i < transfers.length; i += TRANSFER_VALUES) {
+        final int transfer = nextTransfer[tripEventOffsets[trip] + transfers[i]]++;
+        transferRoutes[transfer] = transfers[i + 1];
+        transferPositions[transfer] = transfers[i + 2];
+        transferFootpaths[transfer] = transfers[i + 3];
+      }
+    }
+
+    return new TripTransfers(raptorTable, tripToRoute, tripEventOffsets, transferOffsets, transferRoutes,
+        transferPositions, transferFootpaths);
+  }
+
+  /**
+   * Computes the transfers of the given trip. The stops of the trip are
+   * processed from the last to the first, a transfer is kept if it improves the
+   * arrival at any stop compared to all later arrivals of the trip and all
+   * transfers kept so far.
+   *
+   * @param raptorTable The timetable to compute the transfers of
+   * @param route       The index of the route of the trip
+   * @param trip        The index of the trip
+   * @param labels      The labels to use for the computation, they are reset
+   *                    first
+   * @param allServices An array with all services being active
+   * @return The transfers of the trip, each consisting of the values described
+   *         by {@link #TRANSFER_VALUES}
+   */
+  private static int[] computeTransfers(final RaptorTimetable raptorTable, final int route, final int trip,
+      final ArrivalLabels labels, final boolean[] allServices) {
+    final FrozenTimetable table = raptorTable.getTimetable();
+    final int service = raptorTable.getTripServiceIndex(trip);
+    labels.reset();
+    final IntArrayList transfers = new IntArrayList();
+    for (int position = raptorTable.getRouteLength(route) - 1; position >= 1; position--) {
+      final int arrTime = raptorTable.getArrTime(trip, position);
+      final int stopId = raptorTable.getRouteStopId(route, position);
+      // Staying seated is always possible
+      TripTransfers.relaxFootpaths(table, labels, stopId, arrTime, true);
+
+      final int footpathEnd = table.getFootpathEnd(stopId);
+      for (int footpath = table.getFootpathBegin(stopId); footpath < footpathEnd; footpath++) {
+        final int transferStopId = table.getFootpathArrStopId(footpath);
+        final int transferTime = arrTime + table.getFootpathDuration(footpath);
+        final int routeEnd = raptorTable.getStopRouteEnd(transferStopId);
+        for (int index = raptorTable.getStopRouteBegin(transferStopId); index < routeEnd; index++) {
+          final int transferRoute = raptorTable.getStopRoute(index);
+          final int transferPosition = raptorTable.getStopRoutePosition(index);
+          final int transferRouteLength = raptorTable.getRouteLength(transferRoute);
+          if (transferPosition == transferRouteLength - 1) {
+            continue;
+          }
+          // The earliest trip of the same day, or of the day after if there is none
+          int shift = 0;
+          int transferTrip = raptorTable.getEarliestTrip(transferRoute, transferPosition, transferTime, 0,
+              allServices, allServices);
+          if (transferTrip == RaptorTimetable.NO_TRIP) {
+            shift = SECONDS_OF_DAY;
+            transferTrip = raptorTable.getEarliestTrip(transferRoute, transferPosition, transferTime - shift, 0,
+                allServices, allServices);
+            if (transferTrip == RaptorTimetable.NO_TRIP) {
+              continue;
+            }
+          }
+          // Staying seated dominates boarding the same or a later trip of the route
+          if (transferRoute == route && shift == 0 && transferTrip >= trip && transferPosition >= position) {
+            continue;
+          }
+
+          // Only trips which run whenever this trip runs may dominate other transfers
+          final boolean isRunning = shift == 0 && raptorTable.getTripServiceIndex(transferTrip) == service;
+          boolean isImproving = false;
+          for (int transferArrPosition = transferPosition + 1; transferArrPosition < transferRouteLength;
+              transferArrPosition++) {
+            final int transferArrTime = raptorTable.getArrTime(transferTrip, transferArrPosition) + shift;
+            final int transferArrStopId = raptorTable.getRouteStopId(transferRoute, transferArrPosition);
+            if (TripTransfers.relaxFootpaths(table, labels, transferArrStopId, transferArrTime, isRunning)) {
+              isImproving = true;
+            }
+          }
+          if (isImproving) {
+            transfers.add(position);
+            transfers.add(transferRoute);
+            transfers.add(transferPosition);
+            transfers.add(footpath);
+          }
+        }
+      }
+    }
+    return transfers.toArray();
+  }
+
+  /**
+   * Computes the offset of the arrival events of each trip. A trip has one
+   * event per stop of its route.
+   *
+   * @param raptorTable The timetable containing the trips
+   * @param tripToRoute An array mapping trips to their route
+   * @return An array mapping trips to the index of their first event, with an
+   *         additional entry containing the amount of events
+   */
+  private static int[] computeTripEventOffsets(final RaptorTimetable raptorTable, final int[] tripToRoute) {
+    final int[] tripEventOffsets = new int[tripToRoute.length + 1];
+    for (int trip = 0; trip < tripToRoute.length; trip++) {
+      tripEventOffsets[trip + 1] = tripEventOffsets[trip] + raptorTable.getRouteLength(tripToRoute[trip]);
+    }
+    return tripEventOffsets;
+  }
+
+  /**
+   * Computes the route of each trip.
+   *
+   * @param raptorTable The timetable containing the trips
+   * @return An array mapping trips to their route
+   */
+  private static int[] computeTripToRoute(final RaptorTimetable raptorTable) {
+    final int[] tripToRoute = new int[raptorTable.getAmountOfTrips()];
+    for (int route = 0; route < raptorTable.getAmountOfRoutes(); route++) {
+      Arrays.fill(tripToRoute, raptorTable.getRouteTripBegin(route), raptorTable.getRouteTripEnd(route), route);
+    }
+    return tripToRoute;
+  }
+
+  /**
+   * Attempts to read transfers from the given file.
+   *
+   * @param raptorTable The timetable the transfers belong to
+   * @param cache       The file to read from
+   * @param fingerprint The fingerprint of the timetable the transfers must
+   *                    belong to
+   * @return The transfers or an empty optional if the file does not exist,
+   *         could not be read or belongs to a different timetable
+   */
+  private static Optional<TripTransfers> readTransfers(final RaptorTimetable raptorTable, final Path cache,
+      final long fingerprint) {
+    if (!Files.isRegularFile(cache)) {
+      return Optional.empty();
+    }
+    try {
+      final Optional<TripTransfers> transfers = TripTransfers.read(raptorTable, cache, fingerprint);
+      if (!transfers.isPresent()) {
+        LOGGER.info("Trip transfer cache is outdated, recomputing: {}", cache);
+      }
+      return transfers;
+    } catch (final IOException e) {
+      LOGGER.error("Error while reading trip transfer cache, recomputing", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Relaxes the footpaths of the given stop when arriving at it at the given
+   * time.
+   *
+   * @param table   The timetable containing the footpaths
+   * @param labels  The labels to relax
+   * @param stopId  The ID of the stop arrived at
+   * @param arrTime The time of arrival at the stop
+   * @param update  Whether or not improved labels should be updated
+   * @return <code>True</code> if the label of any stop is improved,
+   *         <code>false</code> otherwise
+   */
+  private static boolean relaxFootpaths(final FrozenTimetable table, final ArrivalLabels labels, final int stopId,
+      final int arrTime, final boolean update) {
+    boolean isImproving = false;
+    final int footpathEnd = table.getFootpathEnd(stopId);
+    for (int footpath = table.getFootpathBegin(stopId); footpath < footpathEnd; footpath++) {
+      final int footpathArrStopId = table.getFootpathArrStopId(footpath);
+      final int footpathTime = arrTime + table.getFootpathDuration(footpath);
+      if (footpathTime >= labels.get(footpathArrStopId)) {
+        continue;
+      }
+      isImproving = true;
+      if (update) {
+        labels.set(footpathArrStopId, footpathTime);
+      }
+    }
+    return isImproving;
+  }
+
+  /**
+   * Attempts to write the given transfers to the given file. Errors are
+   * logged, the transfers stay usable.
+   *
+   * @param transfers   The transfers to write
+   * @param cache       The file to write to
+   * @param fingerprint The fingerprint of the timetable the transfers belong to
+   */
+  private static void writeTransfers(final TripTransfers transfers, final Path cache, final long fingerprint) {
+    LOGGER.info("Writing trip transfer cache: {}", cache);
+    try {
+      final Path parent = cache.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      transfers.write(cache, fingerprint);
+    } catch (final IOException e) {
+      LOGGER.error("Error while writing trip transfer cache", e);
+    }
+  }
+
+  /**
+   * The timetable the transfers belong to.
+   */
+  private final RaptorTimetable mRaptorTable;
+  /**
+   * The footpath of each transfer.
+   */
+  private final int[] mTransferFootpaths;
+  /**
+   * CSR offsets of the transfers, indexed by the arrival events of the trips.
+   */
+  private final int[] mTransferOffsets;
+  /**
+   * The position of the destination of each transfer in its route.
+   */
+  private final int[] mTransferPositions;
+  /**
+   * The route of the destination of each transfer.
+   */
+  private final int[] mTransferRoutes;
+  /**
+   * The index of the first arrival event of each trip.
+   */
+  private final int[] mTripEventOffsets;
+  /**
+   * The route of each trip.
+   */
+  private final int[] mTripToRoute;
+
+  /**
+   * Creates new transfers using the given data.
+   *
+   * @param raptorTable       The timetable the transfers belong to
+   * @param tripToRoute       The route of each trip
+   * @param tripEventOffsets  The index of the first arrival event of each trip
+   * @param transferOffsets   CSR offsets of the transfers, indexed by the
+   *                          arrival events of the trips
+   * @param transferRoutes    The route of the destination of each transfer
+   * @param transferPositions The position of the destination of each transfer
+   *                          in its route
+   * @param transferFootpaths The footpath of each transfer
+   */
+  private TripTransfers(final RaptorTimetable raptorTable, final int[] tripToRoute, final int[] tripEventOffsets,
+      final int[] transferOffsets, final int[] transferRoutes, final int[] transferPositions,
+      final int[] transferFootpaths) {
+    mRaptorTable = raptorTable;
+    mTripToRoute = tripToRoute;
+    mTripEventOffsets = tripEventOffsets;
+    mTransferOffsets = transferOffsets;
+    mTransferRoutes = transferRoutes;
+    mTransferPositions = transferPositions;
+    mTransferFootpaths = transferFootpaths;
+  }
+
+  /**
+   * Gets the amount of transfers.
+   *
+   * @return The amount of transfers
+   */
+  public int getAmountOfTransfers() {
+    return mTransferRoutes.length;
+  }
+
+  /**
+   * Gets the timetable the transfers belong to.
+   *
+   * @return The timetable
+   */
+  public RaptorTimetable getRaptorTimetable() {
+    return mRaptorTable;
+  }
+
+  /**
+   * Gets the index of the first transfer when arriving by the given trip at
+   * the stop at the given position of its route.
+   *
+   * @param trip     The index of the trip
+   * @param position The position of the stop in the route of the trip
+   * @return The index of the first transfer, inclusive
+   */
+  public int getTransferBegin(final int trip, final int position) {
+    return mTransferOffsets[mTripEventOffsets[trip] + position];
+  }
+
+  /**
+   * Gets the index after the last transfer when arriving by the given trip at
+   * the stop at the given position of its route.
+   *
+   * @param trip     The index of the trip
+   * @param position The position of the stop in the route of the trip
+   * @return The index of the last transfer, exclusive
+   */
+  public int getTransferEnd(final int trip, final int position) {
+    return mTransferOffsets[mTripEventOffsets[trip] + position + 1];
+  }
+
+  /**
+   * Gets the footpath of the given transfer, leading to the stop of its
+   * destination.
+   *
+   * @param transfer The index of the transfer
+   * @return The index of the footpath in the timetable
+   */
+  public int getTransferFootpath(final int transfer) {
+    return mTransferFootpaths[transfer];
+  }
+
+  /**
+   * Gets the position of the destination of the given transfer in its route.
+   *
+   * @param transfer The index of the transfer
+   * @return The position of the stop in the route
+   */
+  public int getTransferPosition(final int transfer) {
+    return mTransferPositions[transfer];
+  }
+
+  /**
+   * Gets the route of the destination of the given transfer.
+   *
+   * @param transfer The index of the transfer
+   * @return The index of the route
+   */
+  public int getTransferRoute(final int transfer) {
+    return mTransferRoutes[transfer];
+  }
+
+  /**
+   * Gets the route of the given trip.
+   *
+   * @param trip The index of the trip
+   * @return The index of the route
+   */
+  public int getTripRoute(final int trip) {
+    return mTripToRoute[trip];
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("TripTransfers [trips=");
+    builder.append(mTripToRoute.length);
+    builder.append(", transfers=");
+    builder.append(mTransferRoutes.length);
+    builder.append("]");
+    return builder.toString();
+  }
+
+  /**
+   * Writes these transfers to the given file in a versioned binary format,
+   * replacing the file if it exists. Use
+   * {@link #read(RaptorTimetable, Path, long)} to read it.
+   *
+   * @param path        The file to write to
+   * @param fingerprint The fingerprint of the timetable the transfers belong to
+   * @throws IOException If an I/O exception occurred while writing the file
+   */
+  void write(final Path path, final long fingerprint) throws IOException {
+    final int amountOfValues = mTransferOffsets.length + 3 * mTransferRoutes.length;
+    final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + amountOfValues * Integer.BYTES);
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+    buffer.putLong(fingerprint);
+    buffer.putInt(mTransferOffsets.length - 1);
+    buffer.putInt(mTransferRoutes.length);
+    final IntBuffer values = buffer.asIntBuffer();
+    values.put(mTransferOffsets);
+    values.put(mTransferRoutes);
+    values.put(mTransferPositions);
+    values.put(mTransferFootpaths);
+    buffer.position(buffer.capacity());
+    buffer.flip();
+
+    // Write to a temporary file first to not leave a partially written file
+    final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Earliest arrival labels of the stops, reset in time proportional to the
+   * amount of changed labels. Used by a single thread at a time.
+   *
+   * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+   */
+  private static final class ArrivalLabels {
+    /**
+     * The stops whose label was changed since the last reset.
+     */
+    private final IntArrayList mChangedStops;
+    /**
+     * The label of each stop, {@link Integer#MAX_VALUE} if not reached.
+     */
+    private final int[] mStopToTime;
+
+    /**
+     * Creates new labels of which no stop is reached.
+     *
+     * @param amountOfStops The amount of stops
+     */
+    ArrivalLabels(final int amountOfStops) {
+      mStopToTime = new int[amountOfStops];
+      Arrays.fill(mStopToTime, Integer.MAX_VALUE);
+      mChangedStops = new IntArrayList();
+    }
+
+    /**
+     * Gets the label of the given stop.
+     *
+     * @param stopId The ID of the stop
+     * @return The label or {@link Integer#MAX_VALUE} if not reached
+     */
+    int get(final int stopId) {
+      return mStopToTime[stopId];
+    }
+
+    /**
+     * Resets the labels such that no stop is reached.
+     */
+    void reset() {
+      for (int i = 0; i < mChangedStops.size(); i++) {
+        mStopToTime[mChangedStops.get(i)] = Integer.MAX_VALUE;
+      }
+      mChangedStops.clear();
+    }
+
+    /**
+     * Sets the label of the given stop.
+     *
+     * @param stopId The ID of the stop
+     * @param time   The label
+     */
+    void set(final int stopId, final int time) {
+      if (mStopToTime[stopId] == Integer.MAX_VALUE) {
+        mChangedStops.add(stopId);
+      }
+      mStopToTime[stopId] = time;
+    }
+  }
+}
@@ -0,0 +1,8 @@
+/**
+ * Contains the trip-based public transit routing algorithm, answering queries
+ * on timetable models by a search over trip segments using precomputed
+ * transfers between trips.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased;
@@ -17,5 +17,12 @@ public enum ERoutingModelMode {
    * transit graph together. Using a graph-based algorithm for the whole network
    * at once.
    */
-  LINK_GRAPH
+  LINK_GRAPH,
+  /**
+   * Mode representing the usage of a road graph together with a time-dependent
+   * transit graph that has only one node per stop. Using a graph-based
+   * algorithm for the road network and a time-dependent Dijkstra for the
+   * transit network.
+   */
+  TIME_DEPENDENT_GRAPH
 }
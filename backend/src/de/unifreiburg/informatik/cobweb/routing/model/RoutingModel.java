@@ -24,6 +24,7 @@ import de.unifreiburg.informatik.cobweb.routing.algorithms.nearestneighbor.INear
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ShortestPathComputationFactory;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.IAccessNodeComputation;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.RoadToKNearestTransitAccess;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.StopToRoadNodeTable;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IGetNodeById;
@@ -31,6 +32,7 @@ import de.unifreiburg.informatik.cobweb.routing.model.graph.IGraph;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.link.LinkGraph;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadGraph;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitGraph;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitStop;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
@@ -82,9 +84,15 @@ public final class RoutingModel {
    */
   private INearestNeighborComputation<ICoreNode> mNearestRoadNodeComputation;
   /**
-   * Road graph to route on.
+   * Road graph to route on. Released once the model was frozen into
+   * {@link #mStaticRoadGraph}.
    */
   private RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> mRoadGraph;
+  /**
+   * Immutable snapshot of the road graph used at query time or
+   * <code>null</code> if not created yet or not used according to the mode.
+   */
+  private StaticRoadGraph mStaticRoadGraph;
   /**
    * The timetable to route on or <code>null</code> if not used according to the
    * mode.
@@ -121,6 +129,7 @@ public final class RoutingModel {
   public Iterable<IGtfsFileHandler> createGtfsHandler() throws ParseException {
     switch (mMode) {
       case GRAPH_WITH_TIMETABLE:
+      case TIME_DEPENDENT_GRAPH:
         final IGtfsFileHandler timetableHandler = new GtfsTimetableHandler(mTimetable, mTimetable);
         return Collections.singletonList(timetableHandler);
       case LINK_GRAPH:
@@ -168,17 +177,37 @@ public final class RoutingModel {
   public ShortestPathComputationFactory createShortestPathComputationFactory() {
     final Instant preCompTimeStart = Instant.now();
     final ShortestPathComputationFactory factory;
+    final Path landmarkCache;
+    final Path stopToRoadNodeCache;
+    final Path tripTransfersCache;
+    if (mConfig.useGraphCache()) {
+      landmarkCache = mConfig.getLandmarkCache();
+      stopToRoadNodeCache = mConfig.getStopToRoadNodeCache();
+      tripTransfersCache = mConfig.getTripTransfersCache();
+    } else {
+      landmarkCache = null;
+      stopToRoadNodeCache = null;
+      tripTransfersCache = null;
+    }
     switch (mMode) {
       case GRAPH_WITH_TIMETABLE:
+      case TIME_DEPENDENT_GRAPH:
         final IAccessNodeComputation<ICoreNode, ICoreNode> accessNodeComputation =
             new RoadToKNearestTransitAccess(mTimetable, mConfig.getAccessNodesMaximum());
-        factory = new ShortestPathComputationFactory(mRoadGraph, mTimetable, accessNodeComputation,
-            mNearestRoadNodeComputation, mMode, mConfig.getAbortTravelTimeToAccessNodes(),
-            mConfig.getAmountOfLandmarks());
+        final StaticRoadGraph staticRoadGraph = getStaticRoadGraph();
+        // Stops are snapped to road nodes once instead of on every query
+        final INearestNeighborComputation<ICoreNode> stopToNearestRoadNode = StopToRoadNodeTable.of(mTimetable,
+            staticRoadGraph, mNearestRoadNodeComputation, stopToRoadNodeCache);
+        factory = new ShortestPathComputationFactory(staticRoadGraph, mTimetable, accessNodeComputation,
+            stopToNearestRoadNode, mMode, mConfig.getAbortTravelTimeToAccessNodes(),
+            mConfig.getAmountOfLandmarks(), mConfig.getAmountOfActiveLandmarks(), landmarkCache, tripTransfersCache,
+            mConfig.useContractionHierarchies(), mConfig.useParallelHybridQueries(), mConfig.useStopReachTables());
         break;
       case LINK_GRAPH:
         factory = new ShortestPathComputationFactory(mLinkGraph, null, null, null, mMode,
-            mConfig.getAbortTravelTimeToAccessNodes(), mConfig.getAmountOfLandmarks());
+            mConfig.getAbortTravelTimeToAccessNodes(), mConfig.getAmountOfLandmarks(),
+            mConfig.getAmountOfActiveLandmarks(), landmarkCache, null, mConfig.useContractionHierarchies(),
+            mConfig.useParallelHybridQueries(), mConfig.useStopReachTables());
         break;
       default:
         throw new AssertionError();
@@ -192,7 +221,10 @@ public final class RoutingModel {
   }
 
   /**
-   * Finishes the preparation of the model. This may serialize the model.
+   * Finishes the preparation of the model. This may serialize the model. Must
+   * be called before the model is queried, i.e. before
+   * {@link #getNodeProvider()}, {@link #getQueryGraph()} or
+   * {@link #createShortestPathComputationFactory()}.
    *
    * @throws ParseException If an exception occurred while parsing data like
    *                        configuration files or if an exception at
@@ -202,6 +234,7 @@ public final class RoutingModel {
     final int currentGraphSize;
     switch (mMode) {
       case GRAPH_WITH_TIMETABLE:
+      case TIME_DEPENDENT_GRAPH:
         currentGraphSize = mRoadGraph.size();
         break;
       case LINK_GRAPH:
@@ -221,6 +254,7 @@ public final class RoutingModel {
     try {
       switch (mMode) {
         case GRAPH_WITH_TIMETABLE:
+        case TIME_DEPENDENT_GRAPH:
           final SerializationUtil<RoadGraph<ICoreNode, ICoreEdge<ICoreNode>>> serializationUtilRoad =
               new SerializationUtil<>();
           serializationUtilRoad.serialize(mRoadGraph, graphCache);
@@ -266,7 +300,8 @@ public final class RoutingModel {
   public IGetNodeById<ICoreNode> getNodeProvider() {
     switch (mMode) {
       case GRAPH_WITH_TIMETABLE:
-        return mRoadGraph;
+      case TIME_DEPENDENT_GRAPH:
+        return getStaticRoadGraph();
       case LINK_GRAPH:
         return mLinkGraph;
       default:
@@ -281,7 +316,15 @@ public final class RoutingModel {
    * @return The query graph used by this model
    */
   public IGraph<ICoreNode, ICoreEdge<ICoreNode>> getQueryGraph() {
-    return mRoadGraph;
+    switch (mMode) {
+      case GRAPH_WITH_TIMETABLE:
+      case TIME_DEPENDENT_GRAPH:
+        return getStaticRoadGraph();
+      case LINK_GRAPH:
+        return mRoadGraph;
+      default:
+        throw new AssertionError();
+    }
   }
 
   /**
@@ -301,10 +344,13 @@ public final class RoutingModel {
     initializeNearestRoadNodeComputation();
     switch (mMode) {
       case GRAPH_WITH_TIMETABLE:
+      case TIME_DEPENDENT_GRAPH:
         // Road graph is implicitly linked by access node computation which is
         // done on-the-fly
         // Correct the footpath model of the timetable
         mTimetable.correctFootpaths(mConfig.getTransferDelay(), mConfig.getFootpathReachability());
+        // Create the view used by queries upfront
+        mTimetable.freeze();
         break;
       case LINK_GRAPH:
         linkGraphs();
@@ -324,7 +370,7 @@ public final class RoutingModel {
   public void prepareModelBeforeData() {
     LOGGER.info("Initializing model");
 
-    if (mMode == ERoutingModelMode.GRAPH_WITH_TIMETABLE) {
+    if (mMode != ERoutingModelMode.LINK_GRAPH) {
       // TODO Timetable may be cached too
       mTimetable = new Timetable();
     }
@@ -345,6 +391,7 @@ public final class RoutingModel {
     try {
       switch (mMode) {
         case GRAPH_WITH_TIMETABLE:
+        case TIME_DEPENDENT_GRAPH:
           final SerializationUtil<RoadGraph<ICoreNode, ICoreEdge<ICoreNode>>> serializationUtilRoad =
               new SerializationUtil<>();
           mRoadGraph = serializationUtilRoad.deserialize(graphCache);
@@ -367,6 +414,7 @@ public final class RoutingModel {
 
     switch (mMode) {
       case GRAPH_WITH_TIMETABLE:
+      case TIME_DEPENDENT_GRAPH:
         mGraphSizeBeforeData = mRoadGraph.size();
         break;
       case LINK_GRAPH:
@@ -384,7 +432,14 @@ public final class RoutingModel {
   public String toString() {
     switch (mMode) {
       case GRAPH_WITH_TIMETABLE:
-        return mRoadGraph.getSizeInformation() + ", " + mTimetable.getSizeInformation();
+      case TIME_DEPENDENT_GRAPH:
+        final String graphInformation;
+        if (mStaticRoadGraph != null) {
+          graphInformation = mStaticRoadGraph.toString();
+        } else {
+          graphInformation = mRoadGraph.getSizeInformation();
+        }
+        return graphInformation + ", " + mTimetable.getSizeInformation();
       case LINK_GRAPH:
         return mLinkGraph.getSizeInformation();
       default:
@@ -392,6 +447,29 @@ public final class RoutingModel {
     }
   }
 
+  /**
+   * Gets the immutable snapshot of the road graph used at query time. The
+   * snapshot is created on first access, the mutable road graph is released
+   * afterwards. Must only be called if the routing model mode is
+   * {@link ERoutingModelMode#GRAPH_WITH_TIMETABLE} or
+   * {@link ERoutingModelMode#TIME_DEPENDENT_GRAPH}.
+   *
+   * @return The immutable snapshot of the road graph
+   */
+  private StaticRoadGraph getStaticRoadGraph() {
+    if (mStaticRoadGraph == null) {
+      LOGGER.info("Freezing road graph");
+      final Instant freezeStartTime = Instant.now();
+
+      mStaticRoadGraph = StaticRoadGraph.of(mRoadGraph);
+      mRoadGraph = null;
+
+      final Instant freezeEndTime = Instant.now();
+      LOGGER.info("Freezing took: {}", Duration.between(freezeStartTime, freezeEndTime));
+    }
+    return mStaticRoadGraph;
+  }
+
   /**
    * Initializes the nearest road node computation.
    */
@@ -0,0 +1,148 @@
+package de.unifreiburg.informatik.cobweb.routing.model.graph;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * Read-only view on a graph with all edges reversed.<br>
+ * <br>
+ * The view exchanges incoming and outgoing edges of the underlying graph, it
+ * does not modify the underlying graph nor does it depend on its
+ * {@link IGraph#reverse()} state. Hence it can be used concurrently with other
+ * readers of the underlying graph.<br>
+ * <br>
+ * The edges are those of the underlying graph and are not reversed
+ * themselves. Following an outgoing edge of the view thus leads to the
+ * <b>source</b> of the edge. Algorithms must be aware of the view, like
+ * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra
+ * Dijkstra}, in order to operate on it. All mutating methods throw an
+ * {@link UnsupportedOperationException}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ * @param <N> The type of nodes
+ * @param <E> The type of edges
+ */
+public final class ReversedGraph<N extends INode, E extends IEdge<N>> implements IGraph<N, E> {
+  /**
+   * The underlying graph.
+   */
+  private final IGraph<N, E> mGraph;
+
+  /**
+   * Creates a new reversed view on the given graph.
+   *
+   * @param graph The underlying graph
+   */
+  public ReversedGraph(final IGraph<N, E> graph) {
+    mGraph = graph;
+  }
+
+  /**
+   * Not supported, the view is read-only.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public boolean addEdge(final E edge) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, the view is read-only.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public boolean addNode(final N node) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean containsEdge(final E edge) {
+    return mGraph.containsEdge(edge);
+  }
+
+  @Override
+  public int getAmountOfEdges() {
+    return mGraph.getAmountOfEdges();
+  }
+
+  @Override
+  public Stream<E> getEdges() {
+    return mGraph.getEdges();
+  }
+
+  /**
+   * Gets the underlying graph.
+   *
+   * @return The underlying graph
+   */
+  public IGraph<N, E> getGraph() {
+    return mGraph;
+  }
+
+  /**
+   * Gets the outgoing edges of the given node in the underlying graph.
+   */
+  @Override
+  public Stream<E> getIncomingEdges(final N destination) {
+    return mGraph.getOutgoingEdges(destination);
+  }
+
+  @Override
+  public Collection<N> getNodes() {
+    return mGraph.getNodes();
+  }
+
+  /**
+   * Gets the incoming edges of the given node in the underlying graph.
+   */
+  @Override
+  public Stream<E> getOutgoingEdges(final N source) {
+    return mGraph.getIncomingEdges(source);
+  }
+
+  /**
+   * Not supported, the view is read-only.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public boolean removeEdge(final E edge) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, the view is read-only.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public boolean removeNode(final N node) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, the view is read-only. Use the underlying graph instead.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public void reverse() throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int size() {
+    return mGraph.size();
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return "ReversedGraph[" + mGraph + "]";
+  }
+}
@@ -0,0 +1,160 @@
+package de.unifreiburg.informatik.cobweb.routing.model.graph.road;
+
+import java.util.Set;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IReversedProvider;
+
+/**
+ * Lightweight flyweight view on an edge of a {@link StaticRoadGraph}.<br>
+ * <br>
+ * The edge only consists of a reference to the graph and the index of the edge,
+ * all data is read from the arrays of the graph. Two views are equal if they
+ * refer to the same edge of the same graph. The edge follows the orientation of
+ * the graph, setting a different {@link IReversedProvider} is not supported.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class StaticRoadEdge implements ICoreEdge<ICoreNode>, IRoadEdge {
+  /**
+   * The serial version UID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The graph the edge belongs to.
+   */
+  private final StaticRoadGraph mGraph;
+  /**
+   * The index of the edge in the graph.
+   */
+  private final int mIndex;
+
+  /**
+   * Creates a new view on the edge with the given index.
+   *
+   * @param graph The graph the edge belongs to
+   * @param index The index of the edge in the graph
+   */
+  StaticRoadEdge(final StaticRoadGraph graph, final int index) {
+    mGraph = graph;
+    mIndex = index;
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#equals(java.lang.Object)
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof StaticRoadEdge)) {
+      return false;
+    }
+    final StaticRoadEdge other = (StaticRoadEdge) obj;
+    return mGraph == other.mGraph && mIndex == other.mIndex;
+  }
+
+  /**
+   * The cost of this edge if transportation mode does not matter. That is the
+   * cost of the fastest allowed mode. Measured in seconds.
+   */
+  @Override
+  public double getCost() {
+    return mGraph.getEdgeCost(mIndex);
+  }
+
+  @Override
+  public double getCost(final ETransportationMode mode) {
+    return mGraph.getEdgeCost(mIndex, mode);
+  }
+
+  @Override
+  public ICoreNode getDestination() {
+    return mGraph.getNode(mGraph.getEdgeDestination(mIndex));
+  }
+
+  /**
+   * Gets the graph the edge belongs to.
+   *
+   * @return The graph of the edge
+   */
+  public StaticRoadGraph getGraph() {
+    return mGraph;
+  }
+
+  /**
+   * Gets the ID of this edge which is unique to the way it belongs to. A way
+   * can consist of several edges.
+   */
+  @Override
+  public int getId() {
+    return mGraph.getEdgeId(mIndex);
+  }
+
+  /**
+   * Gets the index of this edge in its graph.
+   *
+   * @return The index of the edge
+   */
+  public int getIndex() {
+    return mIndex;
+  }
+
+  @Override
+  public ICoreNode getSource() {
+    return mGraph.getNode(mGraph.getEdgeSource(mIndex));
+  }
+
+  @Override
+  public Set<ETransportationMode> getTransportationModes() {
+    return mGraph.getEdgeModes(mIndex);
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    return mIndex;
+  }
+
+  @Override
+  public boolean hasTransportationMode(final ETransportationMode mode) {
+    return mGraph.hasEdgeMode(mIndex, mode);
+  }
+
+  /**
+   * Not supported, the edge follows the orientation of its graph.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public void setReversedProvider(final IReversedProvider provider) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("StaticRoadEdge [id=");
+    builder.append(getId());
+    builder.append(", ");
+    builder.append(getSource().getId());
+    builder.append(" -(");
+    builder.append(getCost());
+    builder.append(")-> ");
+    builder.append(getDestination().getId());
+    builder.append("]");
+    return builder.toString();
+  }
+
+}
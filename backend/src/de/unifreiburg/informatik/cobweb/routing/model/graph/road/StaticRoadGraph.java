@@ -0,0 +1,693 @@
+package de.unifreiburg.informatik.cobweb.routing.model.graph.road;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IGetNodeById;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IReversedProvider;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.SpeedTransportationModeComparator;
+
+/**
+ * Immutable snapshot of a {@link RoadGraph} in compressed sparse row (CSR)
+ * layout, intended to be used at query time.<br>
+ * <br>
+ * Nodes are assigned dense indices. The outgoing edges of the node with index
+ * <code>i</code> occupy the edge indices from
+ * {@link #getOutgoingBegin(int)} to {@link #getOutgoingEnd(int)}, exclusive.
+ * Edge data, like destination, way ID, allowed transportation modes and the
+ * cost per mode, is stored in parallel primitive arrays indexed by the edge
+ * index. Incoming edges are stored as an additional CSR index into the same
+ * edge arrays.<br>
+ * <br>
+ * The methods of {@link IGraph} are supported by creating lightweight
+ * {@link StaticRoadEdge} flyweights on demand. Algorithms aware of this class
+ * should prefer the index based accessors instead, they are allocation-free.
+ * The graph can not be modified, all mutating methods throw an
+ * {@link UnsupportedOperationException}, including {@link #reverse()}. Use a
+ * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph
+ * ReversedGraph} view to traverse it backwards. The class is fully
+ * serializable.<br>
+ * <br>
+ * Use {@link #of(IGraph)} to create instances.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class StaticRoadGraph
+    implements IGraph<ICoreNode, ICoreEdge<ICoreNode>>, IGetNodeById<ICoreNode>, IReversedProvider {
+  /**
+   * Value used in the ID to index table to encode that no node has the ID.
+   */
+  private static final int NO_INDEX = -1;
+  /**
+   * The amount of different transportation modes.
+   */
+  private static final int AMOUNT_OF_MODES = ETransportationMode.values().length;
+  /**
+   * Table connecting a mode mask to the ordinal of the fastest mode contained
+   * in the mask or <code>-1</code> if the mask is empty. The fastest mode
+   * determines the default cost of an edge.
+   */
+  private static final byte[] FASTEST_MODE_BY_MASK;
+  /**
+   * Table connecting a mode mask to an unmodifiable set of the modes contained
+   * in the mask.
+   */
+  private static final List<Set<ETransportationMode>> MODES_BY_MASK;
+  /**
+   * The serial version UID.
+   */
+  private static final long serialVersionUID = 1L;
+
+  static {
+    final ETransportationMode[] modes = ETransportationMode.values();
+    final int amountOfMasks = 1 << AMOUNT_OF_MODES;
+    FASTEST_MODE_BY_MASK = new byte[amountOfMasks];
+    final Set<ETransportationMode>[] modesByMask = createSetArray(amountOfMasks);
+    final Comparator<ETransportationMode> speedComparator = new SpeedTransportationModeComparator();
+    for (int mask = 0; mask < amountOfMasks; mask++) {
+      final EnumSet<ETransportationMode> modesOfMask = EnumSet.noneOf(ETransportationMode.class);
+      ETransportationMode fastestMode = null;
+      for (final ETransportationMode mode : modes) {
+        if ((mask & 1 << mode.ordinal()) == 0) {
+          continue;
+        }
+        modesOfMask.add(mode);
+        // The comparator does only know about real modes
+        if (mode == ETransportationMode.IRRELEVANT) {
+          continue;
+        }
+        if (fastestMode == null || speedComparator.compare(mode, fastestMode) > 0) {
+          fastestMode = mode;
+        }
+      }
+      FASTEST_MODE_BY_MASK[mask] = fastestMode == null ? -1 : (byte) fastestMode.ordinal();
+      modesByMask[mask] = Collections.unmodifiableSet(modesOfMask);
+    }
+    MODES_BY_MASK = Collections.unmodifiableList(Arrays.asList(modesByMask));
+  }
+
+  /**
+   * Creates an immutable snapshot of the given graph. The snapshot reflects the
+   * current orientation of the graph, i.e. if the graph is currently reversed
+   * the snapshot contains the reversed edges.<br>
+   * <br>
+   * The graph is not changed, it can be discarded after the snapshot was
+   * created. Edges which implement {@link IRoadEdge} store their cost per
+   * transportation mode, other edges use their default cost for all of their
+   * modes.
+   *
+   * @param graph The graph to create a snapshot of, node IDs must be
+   *              non-negative and should be close to each other
+   * @return The immutable snapshot of the graph
+   */
+  public static StaticRoadGraph of(final IGraph<ICoreNode, ICoreEdge<ICoreNode>> graph) {
+    // Assign dense indices, ordered by ID for a deterministic layout
+    final ICoreNode[] nodes = graph.getNodes().toArray(new ICoreNode[graph.size()]);
+    Arrays.sort(nodes, Comparator.comparingInt(ICoreNode::getId));
+    final int maxId = nodes.length == 0 ? -1 : nodes[nodes.length - 1].getId();
+    if (nodes.length != 0 && nodes[0].getId() < 0) {
+      throw new IllegalArgumentException("Node IDs must be non-negative, got: " + nodes[0].getId());
+    }
+    final int[] idToIndex = new int[maxId + 1];
+    Arrays.fill(idToIndex, NO_INDEX);
+    for (int i = 0; i < nodes.length; i++) {
+      idToIndex[nodes[i].getId()] = i;
+    }
+
+    // Forward CSR
+    final int amountOfEdges = graph.getAmountOfEdges();
+    final int[] outOffsets = new int[nodes.length + 1];
+    final int[] edgeSources = new int[amountOfEdges];
+    final int[] edgeDestinations = new int[amountOfEdges];
+    final int[] edgeIds = new int[amountOfEdges];
+    final byte[] edgeModes = new byte[amountOfEdges];
+    final float[][] modeCosts = new float[AMOUNT_OF_MODES][];
+    final int[] inDegrees = new int[nodes.length];
+
+    int edgeIndex = 0;
+    for (int nodeIndex = 0; nodeIndex < nodes.length; nodeIndex++) {
+      outOffsets[nodeIndex] = edgeIndex;
+      final ICoreEdge<ICoreNode>[] outgoingEdges = graph.getOutgoingEdges(nodes[nodeIndex])
+          .toArray(StaticRoadGraph::createEdgeArray);
+      for (final ICoreEdge<ICoreNode> edge : outgoingEdges) {
+        final int destinationIndex = idToIndex[edge.getDestination().getId()];
+        edgeSources[edgeIndex] = nodeIndex;
+        edgeDestinations[edgeIndex] = destinationIndex;
+        edgeIds[edgeIndex] = edge.getId();
+        inDegrees[destinationIndex]++;
+
+        int mask = 0;
+        for (final ETransportationMode mode : edge.getTransportationModes()) {
+          mask |= 1 << mode.ordinal();
+          final double cost;
+          if (edge instanceof IRoadEdge) {
+            cost = ((IRoadEdge) edge).getCost(mode);
+          } else {
+            cost = edge.getCost();
+          }
+          float[] costs = modeCosts[mode.ordinal()];
+          if (costs == null) {
+            costs = new float[amountOfEdges];
+            modeCosts[mode.ordinal()] = costs;
+          }
+          costs[edgeIndex] = (float) cost;
+        }
+        edgeModes[edgeIndex] = (byte) mask;
+        edgeIndex++;
+      }
+    }
+    outOffsets[nodes.length] = edgeIndex;
+
+    // Backward CSR, referencing the forward edge indices
+    final int[] inOffsets = new int[nodes.length + 1];
+    for (int nodeIndex = 0; nodeIndex < nodes.length; nodeIndex++) {
+      inOffsets[nodeIndex + 1] = inOffsets[nodeIndex] + inDegrees[nodeIndex];
+    }
+    final int[] inEdges = new int[edgeIndex];
+    final int[] inFill = Arrays.copyOf(inOffsets, nodes.length);
+    for (int edge = 0; edge < edgeIndex; edge++) {
+      inEdges[inFill[edgeDestinations[edge]]++] = edge;
+    }
+
+    return new StaticRoadGraph(nodes, idToIndex, outOffsets, edgeSources, edgeDestinations, edgeIds, edgeModes,
+        modeCosts, inOffsets, inEdges);
+  }
+
+  /**
+   * Creates a generic edge array of the given size.
+   *
+   * @param size The size of the array
+   * @return The created array
+   */
+  @SuppressWarnings("unchecked")
+  private static ICoreEdge<ICoreNode>[] createEdgeArray(final int size) {
+    return (ICoreEdge<ICoreNode>[]) new ICoreEdge<?>[size];
+  }
+
+  /**
+   * Creates a generic array of mode sets of the given size.
+   *
+   * @param size The size of the array
+   * @return The created array
+   */
+  @SuppressWarnings("unchecked")
+  private static Set<ETransportationMode>[] createSetArray(final int size) {
+    return (Set<ETransportationMode>[]) new Set<?>[size];
+  }
+
+  /**
+   * The destination node index of each edge, indexed by edge index.
+   */
+  private final int[] mEdgeDestinations;
+  /**
+   * The way ID of each edge, indexed by edge index.
+   */
+  private final int[] mEdgeIds;
+  /**
+   * The mask of allowed transportation modes of each edge, indexed by edge
+   * index. Bit <code>i</code> is set if the mode with ordinal <code>i</code> is
+   * allowed.
+   */
+  private final byte[] mEdgeModes;
+  /**
+   * The source node index of each edge, indexed by edge index.
+   */
+  private final int[] mEdgeSources;
+  /**
+   * Table connecting node IDs to node indices, {@link #NO_INDEX} encodes that
+   * no node has the ID.
+   */
+  private final int[] mIdToIndex;
+  /**
+   * The forward edge indices of all incoming edges, grouped by destination node
+   * in the order given by {@link #mInOffsets}.
+   */
+  private final int[] mInEdges;
+  /**
+   * The offsets into {@link #mInEdges} per node index. The incoming edges of
+   * node <code>i</code> are at the positions <code>mInOffsets[i]</code> to
+   * <code>mInOffsets[i + 1]</code>, exclusive.
+   */
+  private final int[] mInOffsets;
+  /**
+   * The cost of each edge per transportation mode, indexed by the ordinal of the
+   * mode and then by edge index. Measured in seconds. Modes that no edge allows
+   * are <code>null</code>.
+   */
+  private final float[][] mModeCosts;
+  /**
+   * The nodes of the graph, indexed by node index.
+   */
+  private final ICoreNode[] mNodes;
+  /**
+   * The offsets into the edge arrays per node index. The outgoing edges of node
+   * <code>i</code> have the edge indices <code>mOutOffsets[i]</code> to
+   * <code>mOutOffsets[i + 1]</code>, exclusive.
+   */
+  private final int[] mOutOffsets;
+
+  /**
+   * Creates a new static road graph using the given data. Use
+   * {@link #of(IGraph)} to create instances.
+   *
+   * @param nodes            The nodes indexed by node index
+   * @param idToIndex        Table connecting node IDs to node indices
+   * @param outOffsets       The forward CSR offsets
+   * @param edgeSources      The source node index per edge
+   * @param edgeDestinations The destination node index per edge
+   * @param edgeIds          The way ID per edge
+   * @param edgeModes        The transportation mode mask per edge
+   * @param modeCosts        The cost per mode ordinal and edge
+   * @param inOffsets        The backward CSR offsets
+   * @param inEdges          The forward edge indices in backward CSR order
+   */
+  private StaticRoadGraph(final ICoreNode[] nodes, final int[] idToIndex, final int[] outOffsets,
+      final int[] edgeSources, final int[] edgeDestinations, final int[] edgeIds, final byte[] edgeModes,
+      final float[][] modeCosts, final int[] inOffsets, final int[] inEdges) {
+    mNodes = nodes;
+    mIdToIndex = idToIndex;
+    mOutOffsets = outOffsets;
+    mEdgeSources = edgeSources;
+    mEdgeDestinations = edgeDestinations;
+    mEdgeIds = edgeIds;
+    mEdgeModes = edgeModes;
+    mModeCosts = modeCosts;
+    mInOffsets = inOffsets;
+    mInEdges = inEdges;
+  }
+
+  /**
+   * Not supported, the graph is immutable.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public boolean addEdge(final ICoreEdge<ICoreNode> edge) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, the graph is immutable.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public boolean addNode(final ICoreNode node) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean containsEdge(final ICoreEdge<ICoreNode> edge) {
+    if (edge instanceof StaticRoadEdge) {
+      return ((StaticRoadEdge) edge).getGraph() == this;
+    }
+    final int sourceIndex = getIndexOfNode(edge.getSource());
+    final int destinationIndex = getIndexOfNode(edge.getDestination());
+    if (sourceIndex == NO_INDEX || destinationIndex == NO_INDEX) {
+      return false;
+    }
+    final int end = getOutgoingEnd(sourceIndex);
+    for (int edgeIndex = getOutgoingBegin(sourceIndex); edgeIndex < end; edgeIndex++) {
+      if (getEdgeDestination(edgeIndex) == destinationIndex && mEdgeIds[edgeIndex] == edge.getId()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean containsNodeWithId(final int id) {
+    return getIndexOfNodeId(id) != NO_INDEX;
+  }
+
+  @Override
+  public int getAmountOfEdges() {
+    return mEdgeDestinations.length;
+  }
+
+  /**
+   * Gets the flyweight edge for the given edge index.
+   *
+   * @param edgeIndex The index of the edge
+   * @return The edge
+   */
+  public StaticRoadEdge getEdge(final int edgeIndex) {
+    return new StaticRoadEdge(this, edgeIndex);
+  }
+
+  /**
+   * Gets the cost of the given edge if transportation mode does not matter. That
+   * is the cost of the fastest mode allowed on the edge. Measured in seconds.
+   *
+   * @param edgeIndex The index of the edge
+   * @return The cost of the edge
+   */
+  public double getEdgeCost(final int edgeIndex) {
+    final byte fastestMode = FASTEST_MODE_BY_MASK[mEdgeModes[edgeIndex] & 0xFF];
+    if (fastestMode == -1) {
+      return 0.0;
+    }
+    return mModeCosts[fastestMode][edgeIndex];
+  }
+
+  /**
+   * Gets the cost of the given edge when using the given transportation mode.
+   * Measured in seconds.
+   *
+   * @param edgeIndex The index of the edge
+   * @param mode      The transportation mode to use
+   * @return The cost of the edge or {@link Double#POSITIVE_INFINITY} if the
+   *         edge does not allow the mode
+   */
+  public double getEdgeCost(final int edgeIndex, final ETransportationMode mode) {
+    if (!hasEdgeMode(edgeIndex, mode)) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return mModeCosts[mode.ordinal()][edgeIndex];
+  }
+
+  /**
+   * Gets the index of the destination node of the given edge.
+   *
+   * @param edgeIndex The index of the edge
+   * @return The index of the destination node
+   */
+  public int getEdgeDestination(final int edgeIndex) {
+    return mEdgeDestinations[edgeIndex];
+  }
+
+  /**
+   * Gets the way ID of the given edge.
+   *
+   * @param edgeIndex The index of the edge
+   * @return The way ID of the edge
+   */
+  public int getEdgeId(final int edgeIndex) {
+    return mEdgeIds[edgeIndex];
+  }
+
+  /**
+   * Gets the transportation modes allowed on the given edge.
+   *
+   * @param edgeIndex The index of the edge
+   * @return An unmodifiable set of the allowed modes
+   */
+  public Set<ETransportationMode> getEdgeModes(final int edgeIndex) {
+    return MODES_BY_MASK.get(mEdgeModes[edgeIndex] & 0xFF);
+  }
+
+  @Override
+  public Stream<ICoreEdge<ICoreNode>> getEdges() {
+    return IntStream.range(0, getAmountOfEdges()).mapToObj(this::getEdge);
+  }
+
+  /**
+   * Gets the index of the source node of the given edge.
+   *
+   * @param edgeIndex The index of the edge
+   * @return The index of the source node
+   */
+  public int getEdgeSource(final int edgeIndex) {
+    return mEdgeSources[edgeIndex];
+  }
+
+  /**
+   * Gets a fingerprint of the structure of this graph. It covers node IDs, edge
+   * endpoints, way IDs, allowed transportation modes and costs.<br>
+   * <br>
+   * Data derived from the graph, like persisted precomputations addressed by
+   * node index, can use the fingerprint to detect whether it still belongs to
+   * the graph. Equal graphs have equal fingerprints, different graphs have
+   * different fingerprints with high probability. The fingerprint is computed
+   * on each call in time linear to the size of the graph.
+   *
+   * @return The fingerprint of this graph
+   */
+  public long getFingerprint() {
+    long fingerprint = 17L;
+    fingerprint = 31L * fingerprint + mNodes.length;
+    fingerprint = 31L * fingerprint + mEdgeDestinations.length;
+    for (final ICoreNode node : mNodes) {
+      fingerprint = 31L * fingerprint + node.getId();
+    }
+    for (int edgeIndex = 0; edgeIndex < mEdgeDestinations.length; edgeIndex++) {
+      fingerprint = 31L * fingerprint + mEdgeSources[edgeIndex];
+      fingerprint = 31L * fingerprint + mEdgeDestinations[edgeIndex];
+      fingerprint = 31L * fingerprint + mEdgeIds[edgeIndex];
+      fingerprint = 31L * fingerprint + mEdgeModes[edgeIndex];
+    }
+    for (final float[] costs : mModeCosts) {
+      if (costs == null) {
+        fingerprint = 31L * fingerprint;
+        continue;
+      }
+      for (final float cost : costs) {
+        fingerprint = 31L * fingerprint + Float.floatToIntBits(cost);
+      }
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Gets the first position of the incoming edges of the given node. The edge
+   * index at a position is obtained by {@link #getIncomingEdgeAt(int)}.
+   *
+   * @param nodeIndex The index of the node
+   * @return The first position, inclusive
+   */
+  public int getIncomingBegin(final int nodeIndex) {
+    return mInOffsets[nodeIndex];
+  }
+
+  /**
+   * Gets the edge index at the given position of the incoming edge ranges.
+   *
+   * @param position The position, between {@link #getIncomingBegin(int)} and
+   *                 {@link #getIncomingEnd(int)} of a node
+   * @return The index of the edge
+   */
+  public int getIncomingEdgeAt(final int position) {
+    return mInEdges[position];
+  }
+
+  @Override
+  public Stream<ICoreEdge<ICoreNode>> getIncomingEdges(final ICoreNode destination) {
+    final int index = getIndexOfNode(destination);
+    if (index == NO_INDEX) {
+      return Stream.empty();
+    }
+    return getEdgeStream(index, true);
+  }
+
+  /**
+   * Gets the last position of the incoming edges of the given node.
+   *
+   * @param nodeIndex The index of the node
+   * @return The last position, exclusive
+   * @see #getIncomingBegin(int)
+   */
+  public int getIncomingEnd(final int nodeIndex) {
+    return mInOffsets[nodeIndex + 1];
+  }
+
+  /**
+   * Gets the index of the given node.
+   *
+   * @param node The node in question
+   * @return The index of the node or <code>-1</code> if the graph does not
+   *         contain the node
+   */
+  public int getIndexOfNode(final ICoreNode node) {
+    final int index = getIndexOfNodeId(node.getId());
+    if (index == NO_INDEX || !mNodes[index].equals(node)) {
+      return NO_INDEX;
+    }
+    return index;
+  }
+
+  /**
+   * Gets the index of the node with the given ID.
+   *
+   * @param id The ID of the node in question
+   * @return The index of the node or <code>-1</code> if the graph does not
+   *         contain a node with the given ID
+   */
+  public int getIndexOfNodeId(final int id) {
+    if (id < 0 || id >= mIdToIndex.length) {
+      return NO_INDEX;
+    }
+    return mIdToIndex[id];
+  }
+
+  /**
+   * Gets the node with the given index.
+   *
+   * @param index The index of the node
+   * @return The node
+   */
+  public ICoreNode getNode(final int index) {
+    return mNodes[index];
+  }
+
+  @Override
+  public Optional<ICoreNode> getNodeById(final int id) {
+    final int index = getIndexOfNodeId(id);
+    if (index == NO_INDEX) {
+      return Optional.empty();
+    }
+    return Optional.of(mNodes[index]);
+  }
+
+  /**
+   * Gets an unmodifiable list of all nodes, ordered by node index.
+   */
+  @Override
+  public Collection<ICoreNode> getNodes() {
+    return Collections.unmodifiableList(Arrays.asList(mNodes));
+  }
+
+  /**
+   * Gets the first position of the outgoing edges of the given node. The edge
+   * index at a position is obtained by {@link #getOutgoingEdgeAt(int)}.
+   *
+   * @param nodeIndex The index of the node
+   * @return The first position, inclusive
+   */
+  public int getOutgoingBegin(final int nodeIndex) {
+    return mOutOffsets[nodeIndex];
+  }
+
+  /**
+   * Gets the edge index at the given position of the outgoing edge ranges.
+   *
+   * @param position The position, between {@link #getOutgoingBegin(int)} and
+   *                 {@link #getOutgoingEnd(int)} of a node
+   * @return The index of the edge
+   */
+  public int getOutgoingEdgeAt(final int position) {
+    return position;
+  }
+
+  @Override
+  public Stream<ICoreEdge<ICoreNode>> getOutgoingEdges(final ICoreNode source) {
+    final int index = getIndexOfNode(source);
+    if (index == NO_INDEX) {
+      return Stream.empty();
+    }
+    return getEdgeStream(index, false);
+  }
+
+  /**
+   * Gets the last position of the outgoing edges of the given node.
+   *
+   * @param nodeIndex The index of the node
+   * @return The last position, exclusive
+   * @see #getOutgoingBegin(int)
+   */
+  public int getOutgoingEnd(final int nodeIndex) {
+    return mOutOffsets[nodeIndex + 1];
+  }
+
+  /**
+   * Whether or not the given edge allows the given transportation mode.
+   *
+   * @param edgeIndex The index of the edge
+   * @param mode      The transportation mode in question
+   * @return <code>True</code> if the edge allows the mode, <code>false</code>
+   *         otherwise
+   */
+  public boolean hasEdgeMode(final int edgeIndex, final ETransportationMode mode) {
+    return (mEdgeModes[edgeIndex] & 1 << mode.ordinal()) != 0;
+  }
+
+  /**
+   * Whether or not the graph is reversed. The graph can not be reversed, use a
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph
+   * ReversedGraph} view instead.
+   *
+   * @return Always <code>false</code>
+   */
+  @Override
+  public boolean isReversed() {
+    return false;
+  }
+
+  /**
+   * Not supported, the graph is immutable.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public boolean removeEdge(final ICoreEdge<ICoreNode> edge) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, the graph is immutable.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public boolean removeNode(final ICoreNode node) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Not supported, the graph is immutable and shared by all query threads. Use
+   * a {@link de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph
+   * ReversedGraph} view to traverse it backwards.
+   *
+   * @throws UnsupportedOperationException Always
+   */
+  @Override
+  public void reverse() throws UnsupportedOperationException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int size() {
+    return mNodes.length;
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    final StringJoiner sj = new StringJoiner(", ", getClass().getSimpleName() + "[", "]");
+    sj.add("nodes=" + size());
+    sj.add("edges=" + getAmountOfEdges());
+    return sj.toString();
+  }
+
+  /**
+   * Streams the edges stored in one of the CSR structures of the given node.
+   *
+   * @param nodeIndex The index of the node
+   * @param incoming  Whether the incoming or the outgoing edges of the
+   *                  underlying, non-reversed, structure should be streamed
+   * @return A stream of flyweight edges
+   */
+  private Stream<ICoreEdge<ICoreNode>> getEdgeStream(final int nodeIndex, final boolean incoming) {
+    if (incoming) {
+      return IntStream.range(mInOffsets[nodeIndex], mInOffsets[nodeIndex + 1])
+          .mapToObj(position -> getEdge(mInEdges[position]));
+    }
+    return IntStream.range(mOutOffsets[nodeIndex], mOutOffsets[nodeIndex + 1]).mapToObj(this::getEdge);
+  }
+
+}
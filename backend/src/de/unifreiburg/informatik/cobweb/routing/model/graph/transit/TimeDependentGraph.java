@@ -0,0 +1,494 @@
+package de.unifreiburg.informatik.cobweb.routing.model.graph.transit;
+
+import java.util.Arrays;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenFrequencies;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable;
+
+/**
+ * Time-dependent model of a transit network. In contrast to the time-expanded
+ * {@link TransitGraph} it only has one node per stop, identified by the ID of
+ * the stop, and one edge per pair of stops which are connected directly by any
+ * trip.<br>
+ * <br>
+ * The travel time of an edge depends on the time it is entered at. It is given
+ * by a piecewise function, represented by the departure and arrival times of
+ * all connections along the edge, sorted ascending by their departure. The
+ * first entry departing after a given time is found by binary search. Runs of
+ * frequency based trips are expanded into the functions.<br>
+ * <br>
+ * Every entry links to the entry of the next connection of its trip, see
+ * {@link #getNextEntry(int)}. Algorithms can thus follow a boarded trip
+ * without transferring at the stops it passes.<br>
+ * <br>
+ * The model is stored in compressed sparse row (CSR) layout. The outgoing
+ * edges of the stop with ID <code>i</code> occupy the edge indices from
+ * {@link #getEdgeBegin(int)} to {@link #getEdgeEnd(int)}, exclusive. The
+ * function entries of all edges are stored in parallel primitive arrays.
+ * Footpaths and services are taken from the {@link FrozenTimetable} the graph
+ * was created of. Use {@link #of(FrozenTimetable)} to create instances.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class TimeDependentGraph {
+  /**
+   * The entry index indicating that there is no entry.
+   */
+  public static final int NO_ENTRY = -1;
+  /**
+   * Amount of seconds of a day.
+   */
+  private static final int SECONDS_OF_DAY = 24 * 60 * 60;
+
+  /**
+   * Creates the time-dependent graph of the given timetable.
+   *
+   * @param table The timetable to create the graph of
+   * @return The created graph
+   */
+  public static TimeDependentGraph of(final FrozenTimetable table) {
+    // Collect the connections and all runs of frequencies as entries
+    final FrozenFrequencies frequencies = table.getFrequencies();
+    int amountOfEntries = table.getAmountOfConnections();
+    for (int connection = 0; connection < frequencies.getAmountOfConnections(); connection++) {
+      amountOfEntries += frequencies.getEndPosition(connection, 0);
+    }
+    final int[] depStopIds = new int[amountOfEntries];
+    final int[] arrStopIds = new int[amountOfEntries];
+    final int[] depTimes = new int[amountOfEntries];
+    final int[] arrTimes = new int[amountOfEntries];
+    final int[] serviceIndices = new int[amountOfEntries];
+    // Runs are identified like trips, after the trips of the timetable
+    final int[] tripKeys = new int[amountOfEntries];
+    final int[] sequenceIndices = new int[amountOfEntries];
+    int greatestSequenceIndex = 0;
+    int entry = 0;
+    for (int connection = 0; connection < table.getAmountOfConnections(); connection++) {
+      depStopIds[entry] = table.getDepStopId(connection);
+      arrStopIds[entry] = table.getArrStopId(connection);
+      depTimes[entry] = table.getDepTime(connection);
+      arrTimes[entry] = table.getArrTime(connection);
+      serviceIndices[entry] = table.getServiceIndex(connection);
+      tripKeys[entry] = table.getTripId(connection);
+      sequenceIndices[entry] = table.getSequenceIndex(connection);
+      greatestSequenceIndex = Math.max(greatestSequenceIndex, sequenceIndices[entry]);
+      entry++;
+    }
+    for (int connection = 0; connection < frequencies.getAmountOfConnections(); connection++) {
+      final int endPosition = frequencies.getEndPosition(connection, 0);
+      for (int position = 0; position < endPosition; position++) {
+        final int shift = frequencies.getShift(connection, position);
+        depStopIds[entry] = frequencies.getDepStopId(connection);
+        arrStopIds[entry] = frequencies.getArrStopId(connection);
+        depTimes[entry] = frequencies.getDepTime(connection) + shift;
+        arrTimes[entry] = frequencies.getArrTime(connection) + shift;
+        serviceIndices[entry] = frequencies.getServiceIndex(connection);
+        tripKeys[entry] = table.getAmountOfTrips() + frequencies.getRunIndex(connection, position);
+        sequenceIndices[entry] = frequencies.getSequenceIndex(connection);
+        greatestSequenceIndex = Math.max(greatestSequenceIndex, sequenceIndices[entry]);
+        entry++;
+      }
+    }
+
+    // Order the entries by their departure, packing time and index into one
+    // value, then group them stable by their edge
+    final long[] timeAndEntry = new long[amountOfEntries];
+    for (int i = 0; i < amountOfEntries; i++) {
+      timeAndEntry[i] = (long) depTimes[i] << Integer.SIZE | i;
+    }
+    Arrays.sort(timeAndEntry);
+    final int[] entriesByTime = new int[amountOfEntries];
+    for (int i = 0; i < amountOfEntries; i++) {
+      entriesByTime[i] = (int) timeAndEntry[i];
+    }
+    final int amountOfStops = table.getAmountOfStops();
+    final int[] entriesByEdge = TimeDependentGraph.sortStable(
+        TimeDependentGraph.sortStable(entriesByTime, arrStopIds, amountOfStops), depStopIds, amountOfStops);
+
+    // Create an edge for every group of entries sharing their stops
+    final int[] edgeOffsets = new int[amountOfStops + 1];
+    final IntArrayList edgeArrStopIds = new IntArrayList();
+    final IntArrayList functionOffsets = new IntArrayList();
+    final int[] sortedDepTimes = new int[amountOfEntries];
+    final int[] sortedArrTimes = new int[amountOfEntries];
+    final int[] sortedServiceIndices = new int[amountOfEntries];
+    final int[] sortedArrStopIds = new int[amountOfEntries];
+    final int[] entryToSortedEntry = new int[amountOfEntries];
+    for (int i = 0; i < amountOfEntries; i++) {
+      final int current = entriesByEdge[i];
+      if (i == 0 || depStopIds[current] != depStopIds[entriesByEdge[i - 1]]
+          || arrStopIds[current] != arrStopIds[entriesByEdge[i - 1]]) {
+        edgeOffsets[depStopIds[current] + 1]++;
+        edgeArrStopIds.add(arrStopIds[current]);
+        functionOffsets.add(i);
+      }
+      sortedDepTimes[i] = depTimes[current];
+      sortedArrTimes[i] = arrTimes[current];
+      sortedServiceIndices[i] = serviceIndices[current];
+      sortedArrStopIds[i] = arrStopIds[current];
+      entryToSortedEntry[current] = i;
+    }
+    functionOffsets.add(amountOfEntries);
+    for (int stop = 0; stop < amountOfStops; stop++) {
+      edgeOffsets[stop + 1] += edgeOffsets[stop];
+    }
+
+    // Link the entries of every trip along its connection sequence
+    final int[] entriesByTrip = TimeDependentGraph.sortStable(
+        TimeDependentGraph.sortStable(entriesByTime, sequenceIndices, greatestSequenceIndex + 1), tripKeys,
+        table.getAmountOfTrips() + frequencies.getAmountOfRuns());
+    final int[] sortedNextEntries = new int[amountOfEntries];
+    for (int i = 0; i < amountOfEntries; i++) {
+      final int current = entriesByTrip[i];
+      if (i + 1 < amountOfEntries && tripKeys[entriesByTrip[i + 1]] == tripKeys[current]) {
+        sortedNextEntries[entryToSortedEntry[current]] = entryToSortedEntry[entriesByTrip[i + 1]];
+      } else {
+        sortedNextEntries[entryToSortedEntry[current]] = NO_ENTRY;
+      }
+    }
+
+    return new TimeDependentGraph(table, edgeOffsets, edgeArrStopIds.toArray(), functionOffsets.toArray(),
+        sortedDepTimes, sortedArrTimes, sortedServiceIndices, sortedArrStopIds, sortedNextEntries);
+  }
+
+  /**
+   * Sorts the given entries stable by the given keys, using counting sort.
+   *
+   * @param entries      The entries to sort
+   * @param keys         Array mapping entries to their key
+   * @param amountOfKeys The amount of different keys, all keys must be smaller
+   * @return The sorted entries
+   */
+  private static int[] sortStable(final int[] entries, final int[] keys, final int amountOfKeys) {
+    final int[] keyToPosition = new int[amountOfKeys + 1];
+    for (final int entry : entries) {
+      keyToPosition[keys[entry] + 1]++;
+    }
+    for (int key = 0; key < amountOfKeys; key++) {
+      keyToPosition[key + 1] += keyToPosition[key];
+    }
+    final int[] sortedEntries = new int[entries.length];
+    for (final int entry : entries) {
+      sortedEntries[keyToPosition[keys[entry]]] = entry;
+      keyToPosition[keys[entry]]++;
+    }
+    return sortedEntries;
+  }
+
+  /**
+   * The ID of the arrival stop of each entry.
+   */
+  private final int[] mArrStopIds;
+  /**
+   * Arrival time of each entry in seconds since midnight.
+   */
+  private final int[] mArrTimes;
+  /**
+   * Departure time of each entry in seconds since midnight. The entries of an
+   * edge are sorted ascending by it.
+   */
+  private final int[] mDepTimes;
+  /**
+   * The ID of the arrival stop of each edge.
+   */
+  private final int[] mEdgeArrStopIds;
+  /**
+   * CSR offsets of the outgoing edges, indexed by stop ID.
+   */
+  private final int[] mEdgeOffsets;
+  /**
+   * CSR offsets of the function entries, indexed by edge.
+   */
+  private final int[] mFunctionOffsets;
+  /**
+   * The entry of the next connection of the trip of each entry, or
+   * {@link #NO_ENTRY} if it is the last connection of its trip.
+   */
+  private final int[] mNextEntries;
+  /**
+   * Index of the service of each entry.
+   */
+  private final int[] mServiceIndices;
+  /**
+   * The timetable the graph was created of.
+   */
+  private final FrozenTimetable mTable;
+
+  /**
+   * Creates a new time-dependent graph with the given data.
+   *
+   * @param table           The timetable the graph was created of
+   * @param edgeOffsets     CSR offsets of the outgoing edges, indexed by stop ID
+   * @param edgeArrStopIds  The ID of the arrival stop of each edge
+   * @param functionOffsets CSR offsets of the function entries, indexed by edge
+   * @param depTimes        Departure time of each entry
+   * @param arrTimes        Arrival time of each entry
+   * @param serviceIndices  Index of the service of each entry
+   * @param arrStopIds      The ID of the arrival stop of each entry
+   * @param nextEntries     The entry of the next connection of the trip of
+   *                        each entry
+   */
+  private TimeDependentGraph(final FrozenTimetable table, final int[] edgeOffsets, final int[] edgeArrStopIds,
+      final int[] functionOffsets, final int[] depTimes, final int[] arrTimes, final int[] serviceIndices,
+      final int[] arrStopIds, final int[] nextEntries) {
+    mTable = table;
+    mEdgeOffsets = edgeOffsets;
+    mEdgeArrStopIds = edgeArrStopIds;
+    mFunctionOffsets = functionOffsets;
+    mDepTimes = depTimes;
+    mArrTimes = arrTimes;
+    mServiceIndices = serviceIndices;
+    mArrStopIds = arrStopIds;
+    mNextEntries = nextEntries;
+  }
+
+  /**
+   * Gets the amount of edges.
+   *
+   * @return The amount of edges
+   */
+  public int getAmountOfEdges() {
+    return mEdgeArrStopIds.length;
+  }
+
+  /**
+   * Gets the amount of function entries of all edges.
+   *
+   * @return The amount of entries
+   */
+  public int getAmountOfEntries() {
+    return mDepTimes.length;
+  }
+
+  /**
+   * Gets the amount of nodes, that is the greatest stop ID plus one.
+   *
+   * @return The amount of nodes
+   */
+  public int getAmountOfStops() {
+    return mEdgeOffsets.length - 1;
+  }
+
+  /**
+   * Gets the ID of the arrival stop of the given entry.
+   *
+   * @param entry The index of the entry
+   * @return The ID of the arrival stop
+   */
+  public int getArrStopId(final int entry) {
+    return mArrStopIds[entry];
+  }
+
+  /**
+   * Gets the arrival time of the given entry.
+   *
+   * @param entry The index of the entry
+   * @return The arrival time in seconds since midnight, not shifted
+   * @see #getShift(int, int)
+   */
+  public int getArrTime(final int entry) {
+    return mArrTimes[entry];
+  }
+
+  /**
+   * Gets the departure time of the given entry.
+   *
+   * @param entry The index of the entry
+   * @return The departure time in seconds since midnight, not shifted
+   * @see #getShift(int, int)
+   */
+  public int getDepTime(final int entry) {
+    return mDepTimes[entry];
+  }
+
+  /**
+   * Gets the ID of the arrival stop of the given edge.
+   *
+   * @param edge The index of the edge
+   * @return The ID of the arrival stop
+   */
+  public int getEdgeArrStopId(final int edge) {
+    return mEdgeArrStopIds[edge];
+  }
+
+  /**
+   * Gets the index of the first outgoing edge of the given stop.
+   *
+   * @param stopId The ID of the stop
+   * @return The index of the first outgoing edge, inclusive
+   */
+  public int getEdgeBegin(final int stopId) {
+    return mEdgeOffsets[stopId];
+  }
+
+  /**
+   * Gets the index after the last outgoing edge of the given stop.
+   *
+   * @param stopId The ID of the stop
+   * @return The index of the last outgoing edge, exclusive
+   */
+  public int getEdgeEnd(final int stopId) {
+    return mEdgeOffsets[stopId + 1];
+  }
+
+  /**
+   * Gets the first entry of the given edge departing after, or exactly at, the
+   * given time. Entries departing before the starting time of the query run at
+   * the day after, shifted by one day, and thus follow all other entries.
+   *
+   * @param edge         The index of the edge
+   * @param time         The time to enter the edge at in seconds since
+   *                     midnight, not before the starting time
+   * @param startingTime The starting time of the query in seconds since
+   *                     midnight
+   * @return The index of the first entry or {@link #NO_ENTRY} if there is none
+   * @see #getFollowingEntry(int, int, int)
+   */
+  public int getFirstEntry(final int edge, final int time, final int startingTime) {
+    final int begin = mFunctionOffsets[edge];
+    final int end = mFunctionOffsets[edge + 1];
+    // Entries at the day of the query
+    final int entry = getFirstEntryStartingSince(begin, end, time);
+    if (entry < end) {
+      return entry;
+    }
+    // Entries at the day after
+    final int entryAtDayAfter = getFirstEntryStartingSince(begin, end, time - SECONDS_OF_DAY);
+    if (entryAtDayAfter < end && mDepTimes[entryAtDayAfter] < startingTime) {
+      return entryAtDayAfter;
+    }
+    return NO_ENTRY;
+  }
+
+  /**
+   * Gets the entry of the given edge departing after the given entry, in the
+   * order of {@link #getFirstEntry(int, int, int)}. Entries at the day of the
+   * query are followed by the entries at the day after.
+   *
+   * @param edge         The index of the edge
+   * @param entry        The index of the current entry of the edge
+   * @param startingTime The starting time of the query in seconds since
+   *                     midnight
+   * @return The index of the following entry or {@link #NO_ENTRY} if there is
+   *         none
+   */
+  public int getFollowingEntry(final int edge, final int entry, final int startingTime) {
+    final int nextEntry = entry + 1;
+    if (mDepTimes[entry] < startingTime) {
+      // Already at the day after, which ends before the starting time
+      if (nextEntry < mFunctionOffsets[edge + 1] && mDepTimes[nextEntry] < startingTime) {
+        return nextEntry;
+      }
+      return NO_ENTRY;
+    }
+    if (nextEntry < mFunctionOffsets[edge + 1]) {
+      return nextEntry;
+    }
+    // Continue with the day after
+    final int begin = mFunctionOffsets[edge];
+    if (mDepTimes[begin] < startingTime) {
+      return begin;
+    }
+    return NO_ENTRY;
+  }
+
+  /**
+   * Gets the entry of the next connection of the trip of the given entry. All
+   * entries of a trip run at the same day, a followed trip thus keeps the
+   * shift of the entry it was boarded at.
+   *
+   * @param entry The index of the entry
+   * @return The index of the next entry or {@link #NO_ENTRY} if the given entry
+   *         is the last connection of its trip
+   */
+  public int getNextEntry(final int entry) {
+    return mNextEntries[entry];
+  }
+
+  /**
+   * Gets the shift of the given entry for a query starting at the given time.
+   * Entries departing before the starting time run at the day after.
+   *
+   * @param entry        The index of the entry
+   * @param startingTime The starting time of the query in seconds since
+   *                     midnight
+   * @return The shift in seconds, either <code>0</code> or one day
+   */
+  public int getShift(final int entry, final int startingTime) {
+    if (mDepTimes[entry] < startingTime) {
+      return SECONDS_OF_DAY;
+    }
+    return 0;
+  }
+
+  /**
+   * Gets the timetable the graph was created of. It provides the footpaths and
+   * services of the transit network.
+   *
+   * @return The timetable
+   */
+  public FrozenTimetable getTimetable() {
+    return mTable;
+  }
+
+  /**
+   * Whether or not the service of the given entry runs at the day the entry
+   * is used at by a query starting at the given time.
+   *
+   * @param entry                 The index of the entry
+   * @param startingTime          The starting time of the query in seconds
+   *                              since midnight
+   * @param activeServices        Array mapping service indices to whether they
+   *                              run at the date of the query
+   * @param nextDayActiveServices Array mapping service indices to whether they
+   *                              run at the day after
+   * @return <code>True</code> if the entry runs, <code>false</code> otherwise
+   * @see #getShift(int, int)
+   */
+  public boolean isRunning(final int entry, final int startingTime, final boolean[] activeServices,
+      final boolean[] nextDayActiveServices) {
+    if (mDepTimes[entry] < startingTime) {
+      return nextDayActiveServices[mServiceIndices[entry]];
+    }
+    return activeServices[mServiceIndices[entry]];
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("TimeDependentGraph [nodes=");
+    builder.append(getAmountOfStops());
+    builder.append(", edges=");
+    builder.append(getAmountOfEdges());
+    builder.append(", entries=");
+    builder.append(getAmountOfEntries());
+    builder.append("]");
+    return builder.toString();
+  }
+
+  /**
+   * Gets the first entry in the given range departing after, or exactly at,
+   * the given time, by binary search.
+   *
+   * @param begin The first entry of the range, inclusive
+   * @param end   The last entry of the range, exclusive
+   * @param time  The time in seconds since midnight
+   * @return The first entry departing not before the given time, or the end of
+   *         the range if there is none
+   */
+  private int getFirstEntryStartingSince(final int begin, final int end, final int time) {
+    int low = begin;
+    int high = end;
+    while (low < high) {
+      final int middle = low + high >>> 1;
+      if (mDepTimes[middle] < time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,363 @@
+package de.unifreiburg.informatik.cobweb.routing.model.timetable;
+
+import java.util.List;
+
+import org.eclipse.collections.api.map.primitive.IntObjectMap;
+
+/**
+ * Immutable struct-of-arrays snapshot of the {@link TripFrequency frequencies}
+ * of a {@link Timetable}, part of its {@link FrozenTimetable}.<br>
+ * <br>
+ * Runs of frequency based trips are not expanded into connections. Instead,
+ * every connection of the template trip is stored once per frequency, as a
+ * frequency connection. A run of a frequency is identified by its position,
+ * the departure of a frequency connection at a position is its template
+ * departure shifted by {@link #getShift(int, int)}.<br>
+ * <br>
+ * Positions cover the runs of two days. The positions from <code>0</code> to
+ * the amount of runs, exclusive, are the runs at the day of a scan, the
+ * following positions are the runs at the day after. For any time of the day,
+ * the frequency connection departs ascending over the positions starting at
+ * {@link #getFirstPosition(int, int)}, until all runs have been enumerated.
+ * Scans can thus enumerate the runs lazily, in the order of their departure.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class FrozenFrequencies {
+  /**
+   * Amount of seconds of a day.
+   */
+  private static final int SECONDS_OF_DAY = 24 * 60 * 60;
+
+  /**
+   * Creates a snapshot of the given frequencies.
+   *
+   * @param frequencies        The frequencies to snapshot
+   * @param trips              Data-structure mapping trip IDs to their trips,
+   *                           containing the templates of the frequencies
+   * @param tripToServiceIndex An array mapping trip IDs to the index of their
+   *                           service in the frozen timetable
+   * @return The created snapshot
+   */
+  static FrozenFrequencies of(final List<TripFrequency> frequencies, final IntObjectMap<Trip> trips,
+      final int[] tripToServiceIndex) {
+    final int amountOfFrequencies = frequencies.size();
+    final int[] firstShifts = new int[amountOfFrequencies];
+    final int[] headways = new int[amountOfFrequencies];
+    final int[] amountOfRuns = new int[amountOfFrequencies];
+    final int[] runOffsets = new int[amountOfFrequencies + 1];
+    int amountOfConnections = 0;
+    for (int frequency = 0; frequency < amountOfFrequencies; frequency++) {
+      final TripFrequency tripFrequency = frequencies.get(frequency);
+      final List<Connection> template = trips.get(tripFrequency.getTripId()).getSequence();
+      // The first run departs at the start of the window
+      if (!template.isEmpty()) {
+        firstShifts[frequency] = tripFrequency.getStartTime() - template.get(0).getDepTime();
+        amountOfRuns[frequency] = tripFrequency.getAmountOfRuns();
+      }
+      headways[frequency] = tripFrequency.getHeadway();
+      // Runs are identified for two days
+      runOffsets[frequency + 1] = runOffsets[frequency] + 2 * amountOfRuns[frequency];
+      amountOfConnections += template.size();
+    }
+
+    final int[] connectionFrequencies = new int[amountOfConnections];
+    final int[] depTimes = new int[amountOfConnections];
+    final int[] arrTimes = new int[amountOfConnections];
+    final int[] depStopIds = new int[amountOfConnections];
+    final int[] arrStopIds = new int[amountOfConnections];
+    final int[] tripIds = new int[amountOfConnections];
+    final int[] sequenceIndices = new int[amountOfConnections];
+    final int[] serviceIndices = new int[amountOfConnections];
+    int index = 0;
+    for (int frequency = 0; frequency < amountOfFrequencies; frequency++) {
+      final int tripId = frequencies.get(frequency).getTripId();
+      for (final Connection connection : trips.get(tripId).getSequence()) {
+        connectionFrequencies[index] = frequency;
+        depTimes[index] = connection.getDepTime();
+        arrTimes[index] = connection.getArrTime();
+        depStopIds[index] = connection.getDepStopId();
+        arrStopIds[index] = connection.getArrStopId();
+        tripIds[index] = tripId;
+        sequenceIndices[index] = connection.getSequenceIndex();
+        serviceIndices[index] = tripToServiceIndex[tripId];
+        index++;
+      }
+    }
+
+    return new FrozenFrequencies(firstShifts, headways, amountOfRuns, runOffsets, connectionFrequencies, depTimes,
+        arrTimes, depStopIds, arrStopIds, tripIds, sequenceIndices, serviceIndices);
+  }
+
+  /**
+   * The amount of runs of the frequencies at one day, indexed by frequency
+   * index.
+   */
+  private final int[] mAmountOfRuns;
+  /**
+   * The unique IDs of the arrival stops, indexed by frequency connection
+   * index.
+   */
+  private final int[] mArrStopIds;
+  /**
+   * The template arrival times in seconds since midnight, indexed by frequency
+   * connection index.
+   */
+  private final int[] mArrTimes;
+  /**
+   * The frequency indices, indexed by frequency connection index.
+   */
+  private final int[] mConnectionFrequencies;
+  /**
+   * The unique IDs of the departure stops, indexed by frequency connection
+   * index.
+   */
+  private final int[] mDepStopIds;
+  /**
+   * The template departure times in seconds since midnight, indexed by
+   * frequency connection index.
+   */
+  private final int[] mDepTimes;
+  /**
+   * The shifts of the template times for the first run, in seconds, indexed by
+   * frequency index.
+   */
+  private final int[] mFirstShifts;
+  /**
+   * The headways in seconds, indexed by frequency index.
+   */
+  private final int[] mHeadways;
+  /**
+   * The first run index of each frequency, indexed by frequency index. Has one
+   * additional entry at the end marking the amount of runs.
+   */
+  private final int[] mRunOffsets;
+  /**
+   * The indices of the template connections in the connection sequences of
+   * their trips, indexed by frequency connection index.
+   */
+  private final int[] mSequenceIndices;
+  /**
+   * The indices of the services, indexed by frequency connection index.
+   */
+  private final int[] mServiceIndices;
+  /**
+   * The unique IDs of the template trips, indexed by frequency connection
+   * index.
+   */
+  private final int[] mTripIds;
+
+  /**
+   * Creates a new snapshot using the given data. Use
+   * {@link #of(List, IntObjectMap, int[])} to create instances.
+   *
+   * @param firstShifts           The shifts for the first run, indexed by
+   *                              frequency index
+   * @param headways              The headways, indexed by frequency index
+   * @param amountOfRuns          The amount of runs at one day, indexed by
+   *                              frequency index
+   * @param runOffsets            The first run index of each frequency
+   * @param connectionFrequencies The frequencies, indexed by frequency
+   *                              connection index
+   * @param depTimes              The template departure times, indexed by
+   *                              frequency connection index
+   * @param arrTimes              The template arrival times, indexed by
+   *                              frequency connection index
+   * @param depStopIds            The departure stops, indexed by frequency
+   *                              connection index
+   * @param arrStopIds            The arrival stops, indexed by frequency
+   *                              connection index
+   * @param tripIds               The template trips, indexed by frequency
+   *                              connection index
+   * @param sequenceIndices       The sequence indices, indexed by frequency
+   *                              connection index
+   * @param serviceIndices        The service indices, indexed by frequency
+   *                              connection index
+   */
+  private FrozenFrequencies(final int[] firstShifts, final int[] headways, final int[] amountOfRuns,
+      final int[] runOffsets, final int[] connectionFrequencies, final int[] depTimes, final int[] arrTimes,
+      final int[] depStopIds, final int[] arrStopIds, final int[] tripIds, final int[] sequenceIndices,
+      final int[] serviceIndices) {
+    mFirstShifts = firstShifts;
+    mHeadways = headways;
+    mAmountOfRuns = amountOfRuns;
+    mRunOffsets = runOffsets;
+    mConnectionFrequencies = connectionFrequencies;
+    mDepTimes = depTimes;
+    mArrTimes = arrTimes;
+    mDepStopIds = depStopIds;
+    mArrStopIds = arrStopIds;
+    mTripIds = tripIds;
+    mSequenceIndices = sequenceIndices;
+    mServiceIndices = serviceIndices;
+  }
+
+  /**
+   * Gets the amount of frequency connections.
+   *
+   * @return The amount of frequency connections
+   */
+  public int getAmountOfConnections() {
+    return mDepTimes.length;
+  }
+
+  /**
+   * Gets the amount of runs of all frequencies, at the day of a scan and the
+   * day after. Can be used as size of arrays indexed by run index.
+   *
+   * @return The amount of runs
+   * @see #getRunIndex(int, int)
+   */
+  public int getAmountOfRuns() {
+    return mRunOffsets[mRunOffsets.length - 1];
+  }
+
+  /**
+   * Gets the unique ID of the arrival stop of the given frequency connection.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @return The ID of the arrival stop
+   */
+  public int getArrStopId(final int connectionIndex) {
+    return mArrStopIds[connectionIndex];
+  }
+
+  /**
+   * Gets the template arrival time of the given frequency connection.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @return The template arrival time in seconds since midnight
+   */
+  public int getArrTime(final int connectionIndex) {
+    return mArrTimes[connectionIndex];
+  }
+
+  /**
+   * Gets the unique ID of the departure stop of the given frequency connection.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @return The ID of the departure stop
+   */
+  public int getDepStopId(final int connectionIndex) {
+    return mDepStopIds[connectionIndex];
+  }
+
+  /**
+   * Gets the template departure time of the given frequency connection.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @return The template departure time in seconds since midnight
+   */
+  public int getDepTime(final int connectionIndex) {
+    return mDepTimes[connectionIndex];
+  }
+
+  /**
+   * Gets the position after the last run of the given frequency connection
+   * which is enumerated when starting at the given position.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @param firstPosition   The position the enumeration starts at
+   * @return The last position, exclusive
+   * @see #getFirstPosition(int, int)
+   */
+  public int getEndPosition(final int connectionIndex, final int firstPosition) {
+    return firstPosition + mAmountOfRuns[mConnectionFrequencies[connectionIndex]];
+  }
+
+  /**
+   * Gets the position of the first run of the given frequency connection
+   * departing after, or exactly at, the given time. Runs departing before are
+   * enumerated at the day after.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @param time            The time in seconds since midnight
+   * @return The position of the first run departing not before the given time
+   */
+  public int getFirstPosition(final int connectionIndex, final int time) {
+    final int frequency = mConnectionFrequencies[connectionIndex];
+    final int firstDepTime = mDepTimes[connectionIndex] + mFirstShifts[frequency];
+    if (firstDepTime >= time) {
+      return 0;
+    }
+    final int headway = mHeadways[frequency];
+    final int position = (time - firstDepTime + headway - 1) / headway;
+    return Math.min(position, mAmountOfRuns[frequency]);
+  }
+
+  /**
+   * Gets the index of the run of the given frequency connection at the given
+   * position. All connections of a run share the same index, it can be used
+   * like a trip ID.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @param position        The position of the run
+   * @return The index of the run
+   */
+  public int getRunIndex(final int connectionIndex, final int position) {
+    return mRunOffsets[mConnectionFrequencies[connectionIndex]] + position;
+  }
+
+  /**
+   * Gets the index of the given frequency connection in the connection
+   * sequence of its template trip.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @return The sequence index of the connection
+   */
+  public int getSequenceIndex(final int connectionIndex) {
+    return mSequenceIndices[connectionIndex];
+  }
+
+  /**
+   * Gets the index of the service of the given frequency connection.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @return The service index
+   * @see FrozenTimetable#getActiveServices(java.time.LocalDate)
+   */
+  public int getServiceIndex(final int connectionIndex) {
+    return mServiceIndices[connectionIndex];
+  }
+
+  /**
+   * Gets the amount of seconds the template times of the given frequency
+   * connection are shifted by at the run of the given position. Runs at the
+   * day after are shifted by an additional day.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @param position        The position of the run
+   * @return The shift in seconds
+   */
+  public int getShift(final int connectionIndex, final int position) {
+    final int frequency = mConnectionFrequencies[connectionIndex];
+    final int amountOfRuns = mAmountOfRuns[frequency];
+    if (position >= amountOfRuns) {
+      return mFirstShifts[frequency] + (position - amountOfRuns) * mHeadways[frequency] + SECONDS_OF_DAY;
+    }
+    return mFirstShifts[frequency] + position * mHeadways[frequency];
+  }
+
+  /**
+   * Gets the unique ID of the template trip of the given frequency connection.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @return The ID of the trip
+   */
+  public int getTripId(final int connectionIndex) {
+    return mTripIds[connectionIndex];
+  }
+
+  /**
+   * Whether or not the run of the given position is at the day after the day
+   * of a scan.
+   *
+   * @param connectionIndex The index of the frequency connection
+   * @param position        The position of the run
+   * @return <code>True</code> if the run is at the day after,
+   *         <code>false</code> otherwise
+   */
+  public boolean isAtDayAfter(final int connectionIndex, final int position) {
+    return position >= mAmountOfRuns[mConnectionFrequencies[connectionIndex]];
+  }
+}
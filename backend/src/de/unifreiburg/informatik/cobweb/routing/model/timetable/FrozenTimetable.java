@@ -0,0 +1,524 @@
+package de.unifreiburg.informatik.cobweb.routing.model.timetable;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.collections.api.map.primitive.IntObjectMap;
+
+/**
+ * Immutable struct-of-arrays snapshot of the connections and footpaths of a
+ * {@link Timetable}, intended to be used at query time.<br>
+ * <br>
+ * Connections are assigned indices in ascending order of their departure time,
+ * following their natural order. Connection data, like departure and arrival
+ * time, stops and the trip, is stored in parallel primitive arrays indexed by
+ * the connection index. A scan over the connections thus reads memory
+ * sequentially.<br>
+ * <br>
+ * Footpaths are stored in compressed sparse row (CSR) layout. The outgoing
+ * footpaths of the stop with ID <code>i</code> occupy the footpath indices
+ * from {@link #getFootpathBegin(int)} to {@link #getFootpathEnd(int)},
+ * exclusive. Incoming footpaths are stored as an additional CSR index into
+ * the same footpath arrays.<br>
+ * <br>
+ * Connections are grouped by the {@link Service} of their trip, every
+ * connection stores the index of its service. Index {@link #EVERY_DAY} marks
+ * trips running every day. A scan resolves the services running at its date
+ * once by {@link #getActiveServices(LocalDate)} and skips the connections of
+ * all other services by a single array lookup. All accessors except the
+ * resolution of services are allocation-free. Use {@link Timetable#freeze()}
+ * to create instances.<br>
+ * <br>
+ * Runs of frequency based trips are not expanded into connections, they are
+ * provided separately by {@link #getFrequencies()}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class FrozenTimetable {
+  /**
+   * The service index of connections whose trip runs every day.
+   */
+  public static final int EVERY_DAY = 0;
+
+  /**
+   * Creates a snapshot of the given data.
+   *
+   * @param connections    All connections, sorted ascending in departure time
+   * @param footpaths      Data-structure mapping stop IDs to all outgoing
+   *                       footpaths
+   * @param trips          Data-structure mapping trip IDs to their trips
+   * @param frequencies    All frequencies of trips
+   * @param services       Data-structure mapping service IDs to their
+   *                       services
+   * @param greatestStopId The greatest ID in use for a stop, stops and
+   *                       footpaths may only use IDs up to it
+   * @param greatestTripId The greatest ID in use for a trip, connections may
+   *                       only use IDs up to it
+   * @return The created snapshot
+   */
+  static FrozenTimetable of(final List<Connection> connections,
+      final IntObjectMap<? extends Collection<Footpath>> footpaths, final IntObjectMap<Trip> trips,
+      final List<TripFrequency> frequencies, final IntObjectMap<Service> services, final int greatestStopId,
+      final int greatestTripId) {
+    // Services get dense indices, following the index for every day
+    final Service[] indexToService = new Service[services.size() + 1];
+    final int[] serviceIds = services.keySet().toSortedArray();
+    for (int i = 0; i < serviceIds.length; i++) {
+      indexToService[i + 1] = services.get(serviceIds[i]);
+    }
+    final int[] tripToServiceIndex = new int[greatestTripId + 1];
+    trips.forEachValue(trip -> {
+      final int serviceIndex = Arrays.binarySearch(serviceIds, trip.getServiceId());
+      // Trips without a known service run every day
+      if (serviceIndex >= 0) {
+        tripToServiceIndex[trip.getId()] = serviceIndex + 1;
+      }
+    });
+
+    final int amountOfConnections = connections.size();
+    final int[] depTimes = new int[amountOfConnections];
+    final int[] arrTimes = new int[amountOfConnections];
+    final int[] depStopIds = new int[amountOfConnections];
+    final int[] arrStopIds = new int[amountOfConnections];
+    final int[] tripIds = new int[amountOfConnections];
+    final int[] sequenceIndices = new int[amountOfConnections];
+    final int[] serviceIndices = new int[amountOfConnections];
+    int index = 0;
+    for (final Connection connection : connections) {
+      depTimes[index] = connection.getDepTime();
+      arrTimes[index] = connection.getArrTime();
+      depStopIds[index] = connection.getDepStopId();
+      arrStopIds[index] = connection.getArrStopId();
+      tripIds[index] = connection.getTripId();
+      sequenceIndices[index] = connection.getSequenceIndex();
+      serviceIndices[index] = tripToServiceIndex[connection.getTripId()];
+      index++;
+    }
+
+    // Count the footpaths per stop, then place them by a prefix sum
+    final int amountOfStops = greatestStopId + 1;
+    final int[] footpathOffsets = new int[amountOfStops + 1];
+    footpaths.forEachKeyValue((stopId, outgoingFootpaths) -> {
+      footpathOffsets[stopId + 1] += outgoingFootpaths.size();
+    });
+    for (int stopId = 0; stopId < amountOfStops; stopId++) {
+      footpathOffsets[stopId + 1] += footpathOffsets[stopId];
+    }
+    final int amountOfFootpaths = footpathOffsets[amountOfStops];
+    final int[] footpathDepStopIds = new int[amountOfFootpaths];
+    final int[] footpathArrStopIds = new int[amountOfFootpaths];
+    final int[] footpathDurations = new int[amountOfFootpaths];
+    footpaths.forEachKeyValue((stopId, outgoingFootpaths) -> {
+      int position = footpathOffsets[stopId];
+      for (final Footpath footpath : outgoingFootpaths) {
+        footpathDepStopIds[position] = footpath.getDepStopId();
+        footpathArrStopIds[position] = footpath.getArrStopId();
+        footpathDurations[position] = footpath.getDuration();
+        position++;
+      }
+    });
+
+    // Index the footpaths by their arrival stop
+    final int[] incomingFootpathOffsets = new int[amountOfStops + 1];
+    for (int footpath = 0; footpath < amountOfFootpaths; footpath++) {
+      incomingFootpathOffsets[footpathArrStopIds[footpath] + 1]++;
+    }
+    for (int stopId = 0; stopId < amountOfStops; stopId++) {
+      incomingFootpathOffsets[stopId + 1] += incomingFootpathOffsets[stopId];
+    }
+    final int[] incomingFootpaths = new int[amountOfFootpaths];
+    final int[] incomingPositions = Arrays.copyOf(incomingFootpathOffsets, amountOfStops);
+    for (int footpath = 0; footpath < amountOfFootpaths; footpath++) {
+      final int arrStopId = footpathArrStopIds[footpath];
+      incomingFootpaths[incomingPositions[arrStopId]] = footpath;
+      incomingPositions[arrStopId]++;
+    }
+
+    final FrozenFrequencies frozenFrequencies = FrozenFrequencies.of(frequencies, trips, tripToServiceIndex);
+
+    return new FrozenTimetable(depTimes, arrTimes, depStopIds, arrStopIds, tripIds, sequenceIndices,
+        serviceIndices, indexToService, frozenFrequencies, footpathOffsets, footpathDepStopIds, footpathArrStopIds,
+        footpathDurations, incomingFootpathOffsets, incomingFootpaths, greatestTripId + 1);
+  }
+
+  /**
+   * The amount of trip IDs, i.e. the greatest ID in use for a trip plus one.
+   */
+  private final int mAmountOfTrips;
+  /**
+   * The unique IDs of the arrival stops, indexed by connection index.
+   */
+  private final int[] mArrStopIds;
+  /**
+   * The arrival times in seconds since midnight, indexed by connection index.
+   */
+  private final int[] mArrTimes;
+  /**
+   * The unique IDs of the departure stops, indexed by connection index.
+   */
+  private final int[] mDepStopIds;
+  /**
+   * The departure times in seconds since midnight, indexed by connection
+   * index. Sorted ascending.
+   */
+  private final int[] mDepTimes;
+  /**
+   * The unique IDs of the arrival stops of footpaths, indexed by footpath
+   * index.
+   */
+  private final int[] mFootpathArrStopIds;
+  /**
+   * The unique IDs of the departure stops of footpaths, indexed by footpath
+   * index.
+   */
+  private final int[] mFootpathDepStopIds;
+  /**
+   * The durations of footpaths in seconds, indexed by footpath index.
+   */
+  private final int[] mFootpathDurations;
+  /**
+   * The first footpath index of each stop, indexed by stop ID. Has one
+   * additional entry at the end marking the end of the last stop.
+   */
+  private final int[] mFootpathOffsets;
+  /**
+   * The snapshot of the frequencies of trips.
+   */
+  private final FrozenFrequencies mFrequencies;
+  /**
+   * The first position of the incoming footpaths of each stop in
+   * {@link #mIncomingFootpaths}, indexed by stop ID. Has one additional entry
+   * at the end marking the end of the last stop.
+   */
+  private final int[] mIncomingFootpathOffsets;
+  /**
+   * The indices of footpaths, grouped by their arrival stop.
+   */
+  private final int[] mIncomingFootpaths;
+  /**
+   * The indices of connections in the connection sequences of their trips,
+   * indexed by connection index.
+   */
+  private final int[] mSequenceIndices;
+  /**
+   * The indices of the services of the connections, indexed by connection
+   * index.
+   */
+  private final int[] mServiceIndices;
+  /**
+   * The services, indexed by service index. The entry at {@link #EVERY_DAY} is
+   * <code>null</code>.
+   */
+  private final Service[] mServices;
+  /**
+   * The unique IDs of the trips, indexed by connection index.
+   */
+  private final int[] mTripIds;
+
+  /**
+   * Creates a new snapshot using the given data. Use
+   * {@link #of(List, IntObjectMap, IntObjectMap, List, IntObjectMap, int, int)}
+   * to create instances.
+   *
+   * @param depTimes                The departure times, indexed by connection
+   *                                index
+   * @param arrTimes                The arrival times, indexed by connection
+   *                                index
+   * @param depStopIds              The departure stops, indexed by connection
+   *                                index
+   * @param arrStopIds              The arrival stops, indexed by connection
+   *                                index
+   * @param tripIds                 The trips, indexed by connection index
+   * @param sequenceIndices         The sequence indices, indexed by connection
+   *                                index
+   * @param serviceIndices          The service indices, indexed by connection
+   *                                index
+   * @param services                The services, indexed by service index
+   * @param frequencies             The snapshot of the frequencies of trips
+   * @param footpathOffsets         The first footpath index of each stop
+   * @param footpathDepStopIds      The departure stops, indexed by footpath
+   *                                index
+   * @param footpathArrStopIds      The arrival stops, indexed by footpath
+   *                                index
+   * @param footpathDurations       The durations, indexed by footpath index
+   * @param incomingFootpathOffsets The first position of the incoming
+   *                                footpaths of each stop
+   * @param incomingFootpaths       The indices of footpaths, grouped by their
+   *                                arrival stop
+   * @param amountOfTrips           The amount of trip IDs
+   */
+  private FrozenTimetable(final int[] depTimes, final int[] arrTimes, final int[] depStopIds,
+      final int[] arrStopIds, final int[] tripIds, final int[] sequenceIndices, final int[] serviceIndices,
+      final Service[] services, final FrozenFrequencies frequencies, final int[] footpathOffsets,
+      final int[] footpathDepStopIds, final int[] footpathArrStopIds, final int[] footpathDurations,
+      final int[] incomingFootpathOffsets, final int[] incomingFootpaths, final int amountOfTrips) {
+    mDepTimes = depTimes;
+    mArrTimes = arrTimes;
+    mDepStopIds = depStopIds;
+    mArrStopIds = arrStopIds;
+    mTripIds = tripIds;
+    mSequenceIndices = sequenceIndices;
+    mServiceIndices = serviceIndices;
+    mServices = services;
+    mFrequencies = frequencies;
+    mFootpathOffsets = footpathOffsets;
+    mFootpathDepStopIds = footpathDepStopIds;
+    mFootpathArrStopIds = footpathArrStopIds;
+    mFootpathDurations = footpathDurations;
+    mIncomingFootpathOffsets = incomingFootpathOffsets;
+    mIncomingFootpaths = incomingFootpaths;
+    mAmountOfTrips = amountOfTrips;
+  }
+
+  /**
+   * Resolves the services running at the given date.
+   *
+   * @param date The date to resolve services for or <code>null</code> if all
+   *             services should be considered running
+   * @return An array indexed by service index, containing <code>true</code>
+   *         for all services running at the given date. The entry at
+   *         {@link #EVERY_DAY} is always <code>true</code>.
+   * @see #getServiceIndex(int)
+   */
+  public boolean[] getActiveServices(final LocalDate date) {
+    final boolean[] activeServices = new boolean[mServices.length];
+    activeServices[EVERY_DAY] = true;
+    for (int serviceIndex = EVERY_DAY + 1; serviceIndex < mServices.length; serviceIndex++) {
+      activeServices[serviceIndex] = date == null || mServices[serviceIndex].isActive(date);
+    }
+    return activeServices;
+  }
+
+  /**
+   * Gets the amount of connections.
+   *
+   * @return The amount of connections
+   */
+  public int getAmountOfConnections() {
+    return mDepTimes.length;
+  }
+
+  /**
+   * Gets the amount of stop IDs, i.e. the greatest ID in use for a stop plus
+   * one. Can be used as size of arrays indexed by stop ID.
+   *
+   * @return The amount of stop IDs
+   */
+  public int getAmountOfStops() {
+    return mFootpathOffsets.length - 1;
+  }
+
+  /**
+   * Gets the amount of trip IDs, i.e. the greatest ID in use for a trip plus
+   * one. Can be used as size of arrays indexed by trip ID.
+   *
+   * @return The amount of trip IDs
+   */
+  public int getAmountOfTrips() {
+    return mAmountOfTrips;
+  }
+
+  /**
+   * Gets the unique ID of the arrival stop of the given connection.
+   *
+   * @param connectionIndex The index of the connection
+   * @return The ID of the arrival stop
+   */
+  public int getArrStopId(final int connectionIndex) {
+    return mArrStopIds[connectionIndex];
+  }
+
+  /**
+   * Gets the arrival time of the given connection.
+   *
+   * @param connectionIndex The index of the connection
+   * @return The arrival time in seconds since midnight
+   */
+  public int getArrTime(final int connectionIndex) {
+    return mArrTimes[connectionIndex];
+  }
+
+  /**
+   * Gets the index of the first connection departing after, or exactly at, the
+   * given time. If all connections depart before the given time, the first
+   * connection of the next day, i.e. <code>0</code>, is returned.<br>
+   * <br>
+   * Scanning from the index to the last connection and then continuing with the
+   * first connection, traverses the connections in the same order as
+   * {@link Timetable#getConnectionsStartingSince(int)}.
+   *
+   * @param time The time in seconds since midnight
+   * @return The index of the first connection departing not before the given
+   *         time
+   */
+  public int getConnectionIndexStartingSince(final int time) {
+    // Lower bound binary search
+    int low = 0;
+    int high = mDepTimes.length;
+    while (low < high) {
+      final int middle = low + high >>> 1;
+      if (mDepTimes[middle] < time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    if (low == mDepTimes.length) {
+      return 0;
+    }
+    return low;
+  }
+
+  /**
+   * Gets the unique ID of the departure stop of the given connection.
+   *
+   * @param connectionIndex The index of the connection
+   * @return The ID of the departure stop
+   */
+  public int getDepStopId(final int connectionIndex) {
+    return mDepStopIds[connectionIndex];
+  }
+
+  /**
+   * Gets the departure time of the given connection.
+   *
+   * @param connectionIndex The index of the connection
+   * @return The departure time in seconds since midnight
+   */
+  public int getDepTime(final int connectionIndex) {
+    return mDepTimes[connectionIndex];
+  }
+
+  /**
+   * Gets the snapshot of the frequencies of trips. Their runs are not contained
+   * in the connections of this snapshot.
+   *
+   * @return The snapshot of the frequencies
+   */
+  public FrozenFrequencies getFrequencies() {
+    return mFrequencies;
+  }
+
+  /**
+   * Gets the unique ID of the arrival stop of the given footpath.
+   *
+   * @param footpathIndex The index of the footpath
+   * @return The ID of the arrival stop
+   */
+  public int getFootpathArrStopId(final int footpathIndex) {
+    return mFootpathArrStopIds[footpathIndex];
+  }
+
+  /**
+   * Gets the first footpath index of the outgoing footpaths of the given stop.
+   *
+   * @param stopId The unique ID of the stop
+   * @return The first footpath index, inclusive
+   */
+  public int getFootpathBegin(final int stopId) {
+    return mFootpathOffsets[stopId];
+  }
+
+  /**
+   * Gets the unique ID of the departure stop of the given footpath.
+   *
+   * @param footpathIndex The index of the footpath
+   * @return The ID of the departure stop
+   */
+  public int getFootpathDepStopId(final int footpathIndex) {
+    return mFootpathDepStopIds[footpathIndex];
+  }
+
+  /**
+   * Gets the duration of the given footpath.
+   *
+   * @param footpathIndex The index of the footpath
+   * @return The duration in seconds
+   */
+  public int getFootpathDuration(final int footpathIndex) {
+    return mFootpathDurations[footpathIndex];
+  }
+
+  /**
+   * Gets the last footpath index of the outgoing footpaths of the given stop.
+   *
+   * @param stopId The unique ID of the stop
+   * @return The last footpath index, exclusive
+   * @see #getFootpathBegin(int)
+   */
+  public int getFootpathEnd(final int stopId) {
+    return mFootpathOffsets[stopId + 1];
+  }
+
+  /**
+   * Gets the footpath index at the given position of the incoming footpath
+   * ranges.
+   *
+   * @param position The position, between
+   *                 {@link #getIncomingFootpathBegin(int)} and
+   *                 {@link #getIncomingFootpathEnd(int)} of a stop
+   * @return The index of the footpath
+   */
+  public int getIncomingFootpathAt(final int position) {
+    return mIncomingFootpaths[position];
+  }
+
+  /**
+   * Gets the first position of the incoming footpaths of the given stop. The
+   * footpath index at a position is obtained by
+   * {@link #getIncomingFootpathAt(int)}.
+   *
+   * @param stopId The unique ID of the stop
+   * @return The first position, inclusive
+   */
+  public int getIncomingFootpathBegin(final int stopId) {
+    return mIncomingFootpathOffsets[stopId];
+  }
+
+  /**
+   * Gets the last position of the incoming footpaths of the given stop.
+   *
+   * @param stopId The unique ID of the stop
+   * @return The last position, exclusive
+   * @see #getIncomingFootpathBegin(int)
+   */
+  public int getIncomingFootpathEnd(final int stopId) {
+    return mIncomingFootpathOffsets[stopId + 1];
+  }
+
+  /**
+   * Gets the index of the given connection in the connection sequence of its
+   * trip.
+   *
+   * @param connectionIndex The index of the connection
+   * @return The sequence index of the connection
+   */
+  public int getSequenceIndex(final int connectionIndex) {
+    return mSequenceIndices[connectionIndex];
+  }
+
+  /**
+   * Gets the index of the service of the given connection.
+   *
+   * @param connectionIndex The index of the connection
+   * @return The service index, {@link #EVERY_DAY} if the connection runs every
+   *         day
+   * @see #getActiveServices(LocalDate)
+   */
+  public int getServiceIndex(final int connectionIndex) {
+    return mServiceIndices[connectionIndex];
+  }
+
+  /**
+   * Gets the unique ID of the trip of the given connection.
+   *
+   * @param connectionIndex The index of the connection
+   * @return The ID of the trip
+   */
+  public int getTripId(final int connectionIndex) {
+    return mTripIds[connectionIndex];
+  }
+}
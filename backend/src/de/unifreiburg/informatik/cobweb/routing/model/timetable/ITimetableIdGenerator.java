@@ -4,11 +4,20 @@ import java.util.NoSuchElementException;
 
 /**
  * Interface for classes that can generate unique IDs for timetable elements
- * like stops and trips.
+ * like stops, trips and services.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
 public interface ITimetableIdGenerator {
+  /**
+   * Generates and returns an unique ID for services.
+   *
+   * @return The generated unique ID
+   * @throws NoSuchElementException If the generator is out of unique IDs to
+   *                                generate
+   */
+  int generateUniqueServiceId() throws NoSuchElementException;
+
   /**
    * Generates and returns an unique ID for stops.
    *
@@ -0,0 +1,169 @@
+package de.unifreiburg.informatik.cobweb.routing.model.timetable;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IHasId;
+
+/**
+ * The service of a transit network, i.e. the set of dates on which the trips
+ * using it run.<br>
+ * <br>
+ * A service runs regularly on certain days of the week within a range of
+ * dates. Additionally, single dates can be added or removed as exceptions,
+ * which take precedence over the regular days.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class Service implements IHasId, Serializable {
+  /**
+   * The serial version UID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The dates on which the service runs additionally.
+   */
+  private final Set<LocalDate> mAddedDates;
+  /**
+   * The days of the week on which the service runs regularly.
+   */
+  private final Set<DayOfWeek> mDaysOfWeek;
+  /**
+   * The last date on which the service runs regularly, inclusive, or
+   * <code>null</code> if it does not run regularly.
+   */
+  private LocalDate mEndDate;
+  /**
+   * The unique ID of the service.
+   */
+  private final int mId;
+  /**
+   * The dates on which the service does not run, although it would regularly.
+   */
+  private final Set<LocalDate> mRemovedDates;
+  /**
+   * The first date on which the service runs regularly, inclusive, or
+   * <code>null</code> if it does not run regularly.
+   */
+  private LocalDate mStartDate;
+
+  /**
+   * Creates a new service which initially runs on no date.
+   *
+   * @param id The unique ID of the service
+   */
+  public Service(final int id) {
+    mId = id;
+    mDaysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+    mAddedDates = new HashSet<>();
+    mRemovedDates = new HashSet<>();
+  }
+
+  /**
+   * Adds the given date as exception on which the service runs.
+   *
+   * @param date The date to add
+   */
+  public void addDate(final LocalDate date) {
+    mRemovedDates.remove(date);
+    mAddedDates.add(date);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (!(obj instanceof Service)) {
+      return false;
+    }
+    final Service other = (Service) obj;
+    if (this.mId != other.mId) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int getId() {
+    return mId;
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + this.mId;
+    return result;
+  }
+
+  /**
+   * Whether or not the service runs on the given date.
+   *
+   * @param date The date to check
+   * @return <code>True</code> if the service runs on the given date,
+   *         <code>false</code> otherwise
+   */
+  public boolean isActive(final LocalDate date) {
+    if (mAddedDates.contains(date)) {
+      return true;
+    }
+    if (mRemovedDates.contains(date)) {
+      return false;
+    }
+    if (mStartDate == null || date.isBefore(mStartDate) || date.isAfter(mEndDate)) {
+      return false;
+    }
+    return mDaysOfWeek.contains(date.getDayOfWeek());
+  }
+
+  /**
+   * Removes the given date as exception on which the service does not run.
+   *
+   * @param date The date to remove
+   */
+  public void removeDate(final LocalDate date) {
+    mAddedDates.remove(date);
+    mRemovedDates.add(date);
+  }
+
+  /**
+   * Sets the days on which the service runs regularly.
+   *
+   * @param startDate  The first date on which the service runs, inclusive
+   * @param endDate    The last date on which the service runs, inclusive
+   * @param daysOfWeek The days of the week on which the service runs
+   */
+  public void setRegularDays(final LocalDate startDate, final LocalDate endDate, final Set<DayOfWeek> daysOfWeek) {
+    mStartDate = startDate;
+    mEndDate = endDate;
+    mDaysOfWeek.clear();
+    mDaysOfWeek.addAll(daysOfWeek);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("Service [id=");
+    builder.append(mId);
+    builder.append(", days=");
+    builder.append(mDaysOfWeek);
+    builder.append(", from=");
+    builder.append(mStartDate);
+    builder.append(", to=");
+    builder.append(mEndDate);
+    builder.append(", added=");
+    builder.append(mAddedDates.size());
+    builder.append(", removed=");
+    builder.append(mRemovedDates.size());
+    builder.append("]");
+    return builder.toString();
+  }
+}
@@ -27,14 +27,20 @@ import de.unifreiburg.informatik.cobweb.util.collections.RangedOverflowListItera
 
 /**
  * A timetable for representing a transit network consisting of stops, trips,
- * connections and footpaths.<br>
+ * connections, footpaths and services.<br>
  * <br>
  * Use methods like {@link #addConnections(Collection)}, {@link #addStop(Stop)},
- * {@link #addTrip(Trip)} and {@link #addFootpath(Footpath)} to modify the
- * table. After finishing modifying use {@link #correctFootpaths(int, int)} to
- * correct the footpath model. Methods like
- * {@link #getConnectionsStartingSince(int)} and other getters can be used to
- * retrieve data.
+ * {@link #addTrip(Trip)}, {@link #addFootpath(Footpath)} and
+ * {@link #addService(Service)} to modify the table. Trips run on the dates of
+ * their service, trips without a service run every day. Trips which run
+ * repeatedly are added once, as template, together with their frequencies by
+ * {@link #addFrequency(TripFrequency)}. After finishing modifying use
+ * {@link #correctFootpaths(int, int)} to correct the footpath model. Methods
+ * like {@link #getConnectionsStartingSince(int)} and other getters can be used
+ * to retrieve data.<br>
+ * <br>
+ * Algorithms which scan the connections should use {@link #freeze()} instead,
+ * which provides the data in a compact and allocation-free layout.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
@@ -55,6 +61,15 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
    * The list of all connections, sorted ascending in departure time.
    */
   private final List<Connection> mConnections;
+  /**
+   * The frozen view of the current content of the table or <code>null</code>
+   * if not created yet or the table was modified since.
+   */
+  private transient volatile FrozenTimetable mFrozenTimetable;
+  /**
+   * The list of all frequencies of trips.
+   */
+  private final List<TripFrequency> mFrequencies;
   /**
    * Data-structure mapping stop IDs to all IDs of stops that can be reached
    * from them by foot.
@@ -68,6 +83,10 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
    * The greatest ID currently in use for a trip in this table.
    */
   private int mGreatestTripId;
+  /**
+   * Data-structure mapping IDs to their corresponding services.
+   */
+  private final MutableIntObjectMap<Service> mIdToService;
   /**
    * Data-structure mapping IDs to their corresponding stops.
    */
@@ -76,6 +95,10 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
    * Data-structure mapping IDs to their corresponding trips.
    */
   private final MutableIntObjectMap<Trip> mIdToTrip;
+  /**
+   * The unique ID generator used for services.
+   */
+  private final UniqueIdGenerator mServiceIdGenerator;
   /**
    * The unique ID generator used for stops.
    */
@@ -93,9 +116,12 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
    * Creates a new initially empty timetable.
    */
   public Timetable() {
+    mServiceIdGenerator = new UniqueIdGenerator();
     mStopIdGenerator = new UniqueIdGenerator();
     mTripIdGenerator = new UniqueIdGenerator();
     mConnections = new ArrayList<>();
+    mFrequencies = new ArrayList<>();
+    mIdToService = IntObjectMaps.mutable.empty();
     mIdToStop = IntObjectMaps.mutable.empty();
     mIdToTrip = IntObjectMaps.mutable.empty();
     mStopIdToOutgoingFootpaths = IntObjectMaps.mutable.empty();
@@ -114,6 +140,7 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
     final boolean hasChanged = mConnections.addAll(connections);
     if (hasChanged) {
       Collections.sort(mConnections);
+      mFrozenTimetable = null;
     }
   }
 
@@ -126,6 +153,30 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
     mStopIdToOutgoingFootpaths.getIfAbsentPut(footpath.getDepStopId(), FastList::new).add(footpath);
     mFootpathReachability.getIfAbsentPut(footpath.getDepStopId(), IntSets.mutable.empty()).add(footpath.getArrStopId());
     mAmountOfFootpaths++;
+    mFrozenTimetable = null;
+  }
+
+  /**
+   * Adds the given frequency of a trip to the table. The trip is run
+   * repeatedly, its connections serve as template and must not be added by
+   * {@link #addConnections(Collection)}. A trip may have multiple frequencies.
+   *
+   * @param frequency The frequency to add
+   */
+  public void addFrequency(final TripFrequency frequency) {
+    mFrequencies.add(frequency);
+    mFrozenTimetable = null;
+  }
+
+  /**
+   * Adds the given service to the table. The dates of a service must not be
+   * changed after the table was frozen.
+   *
+   * @param service The service to add
+   */
+  public void addService(final Service service) {
+    mIdToService.put(service.getId(), service);
+    mFrozenTimetable = null;
   }
 
   /**
@@ -135,6 +186,7 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
    */
   public void addStop(final Stop stop) {
     mIdToStop.put(stop.getId(), stop);
+    mFrozenTimetable = null;
   }
 
   /**
@@ -144,6 +196,7 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
    */
   public void addTrip(final Trip trip) {
     mIdToTrip.put(trip.getId(), trip);
+    mFrozenTimetable = null;
   }
 
   /**
@@ -170,6 +223,7 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
           incorrectFootpathCounter.incrementAndGet();
         });
     LOGGER.debug("Corrected durations of {} footpaths", incorrectFootpathCounter.get());
+    mFrozenTimetable = null;
 
     // Add missing self-loops
     LOGGER.debug("Computing missing self-loops");
@@ -261,6 +315,53 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
     LOGGER.debug("Adding {} footpaths for transitive closure", transitiveClosureToAdd.size());
   }
 
+  /**
+   * Gets a frozen view of the current content of the table. The view provides
+   * connections and footpaths in a struct-of-arrays layout, suited for
+   * allocation-free scans.<br>
+   * <br>
+   * The view is created on the first call and cached until the table is
+   * modified. Thus, the method should be called after the table was built
+   * completely, it is cheap afterwards.
+   *
+   * @return The frozen view of the table
+   */
+  public FrozenTimetable freeze() {
+    FrozenTimetable frozenTimetable = mFrozenTimetable;
+    if (frozenTimetable != null) {
+      return frozenTimetable;
+    }
+    synchronized (this) {
+      frozenTimetable = mFrozenTimetable;
+      if (frozenTimetable == null) {
+        // Stops and trips may be added with IDs that were not generated
+        int greatestStopId = Math.max(mGreatestStopId, mIdToStop.keysView().maxIfEmpty(0));
+        greatestStopId = Math.max(greatestStopId, mStopIdToOutgoingFootpaths.keysView().maxIfEmpty(0));
+        int greatestTripId = Math.max(mGreatestTripId, mIdToTrip.keysView().maxIfEmpty(0));
+        for (final Connection connection : mConnections) {
+          greatestStopId = Math.max(greatestStopId, Math.max(connection.getDepStopId(), connection.getArrStopId()));
+          greatestTripId = Math.max(greatestTripId, connection.getTripId());
+        }
+        for (final TripFrequency frequency : mFrequencies) {
+          for (final Connection connection : mIdToTrip.get(frequency.getTripId()).getSequence()) {
+            greatestStopId =
+                Math.max(greatestStopId, Math.max(connection.getDepStopId(), connection.getArrStopId()));
+          }
+        }
+
+        frozenTimetable = FrozenTimetable.of(mConnections, mStopIdToOutgoingFootpaths, mIdToTrip, mFrequencies,
+            mIdToService, greatestStopId, greatestTripId);
+        mFrozenTimetable = frozenTimetable;
+      }
+      return frozenTimetable;
+    }
+  }
+
+  @Override
+  public int generateUniqueServiceId() throws NoSuchElementException {
+    return mServiceIdGenerator.generateUniqueId();
+  }
+
   @Override
   public int generateUniqueStopId() throws NoSuchElementException {
     final int id = mStopIdGenerator.generateUniqueId();
@@ -333,6 +434,16 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
     return mStopIdToOutgoingFootpaths.get(stopId).stream();
   }
 
+  /**
+   * Gets the service with the given ID.
+   *
+   * @param id The unique ID of the service to get
+   * @return The service with the given ID
+   */
+  public Service getService(final int id) {
+    return mIdToService.get(id);
+  }
+
   /**
    * Gets a human readable string that contains size information of the table,
    * i.e. the amount of stops, trips and connections.
@@ -382,7 +493,9 @@ public final class Timetable implements ITimetableIdGenerator, Serializable {
     sj.add("stops=" + mIdToStop.size());
     sj.add("trips=" + mIdToTrip.size());
     sj.add("connections=" + mConnections.size());
+    sj.add("frequencies=" + mFrequencies.size());
     sj.add("footpaths=" + mAmountOfFootpaths);
+    sj.add("services=" + mIdToService.size());
     return sj.toString();
   }
 }
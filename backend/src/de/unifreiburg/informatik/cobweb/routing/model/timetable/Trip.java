@@ -8,7 +8,8 @@ import org.eclipse.collections.impl.list.mutable.FastList;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IHasId;
 
 /**
- * A trip of a transit network. Has an ID and a sequence of connections.
+ * A trip of a transit network. Has an ID, a sequence of connections and the
+ * {@link Service} defining the dates it runs on.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
@@ -17,6 +18,10 @@ public final class Trip implements IHasId, Serializable {
    * The serial version UID.
    */
   private static final long serialVersionUID = 1L;
+  /**
+   * Constant for the service ID of trips which run every day.
+   */
+  public static final int NO_SERVICE = -1;
   /**
    * The unique ID of the trip.
    */
@@ -25,14 +30,32 @@ public final class Trip implements IHasId, Serializable {
    * The sequence of the connections represented by this trip.
    */
   private final List<Connection> mSequence;
+  /**
+   * The unique ID of the service of the trip or {@link #NO_SERVICE} if it runs
+   * every day.
+   */
+  private final int mServiceId;
 
   /**
-   * Creates a new initially empty trip.
+   * Creates a new initially empty trip which runs every day.
    *
    * @param id The unique ID of the trip
    */
   public Trip(final int id) {
+    this(id, NO_SERVICE);
+  }
+
+  /**
+   * Creates a new initially empty trip which runs on the dates of the given
+   * service.
+   *
+   * @param id        The unique ID of the trip
+   * @param serviceId The unique ID of the service of the trip or
+   *                  {@link #NO_SERVICE} if it runs every day
+   */
+  public Trip(final int id, final int serviceId) {
     mId = id;
+    mServiceId = serviceId;
     mSequence = FastList.newList();
   }
 
@@ -84,6 +107,16 @@ public final class Trip implements IHasId, Serializable {
     return mId;
   }
 
+  /**
+   * Gets the unique ID of the service of the trip.
+   *
+   * @return The ID of the service or {@link #NO_SERVICE} if the trip runs
+   *         every day
+   */
+  public int getServiceId() {
+    return mServiceId;
+  }
+
   /**
    * Gets the sequence of connections represented by this trip.
    *
@@ -0,0 +1,119 @@
+package de.unifreiburg.informatik.cobweb.routing.model.timetable;
+
+import java.io.Serializable;
+
+/**
+ * POJO representing the frequency of a trip. The trip is not run once but
+ * repeatedly, departing every headway in a time window.<br>
+ * <br>
+ * The connections of the trip serve as template for all of its runs, their
+ * times only define the offsets between the connections. The first run departs
+ * at the start of the window.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class TripFrequency implements Serializable {
+  /**
+   * The serial version UID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The end of the window in seconds since midnight, exclusive. No run departs
+   * at or after it.
+   */
+  private final int mEndTime;
+  /**
+   * The time between the departures of two consecutive runs, in seconds.
+   */
+  private final int mHeadway;
+  /**
+   * The start of the window in seconds since midnight, inclusive. The first
+   * run departs at it.
+   */
+  private final int mStartTime;
+  /**
+   * The unique ID of the trip which is run.
+   */
+  private final int mTripId;
+
+  /**
+   * Creates a new trip frequency.
+   *
+   * @param tripId    The unique ID of the trip which is run
+   * @param startTime The start of the window in seconds since midnight,
+   *                  inclusive
+   * @param endTime   The end of the window in seconds since midnight,
+   *                  exclusive
+   * @param headway   The time between the departures of two consecutive runs,
+   *                  in seconds. Must be positive.
+   */
+  public TripFrequency(final int tripId, final int startTime, final int endTime, final int headway) {
+    mTripId = tripId;
+    mStartTime = startTime;
+    mEndTime = endTime;
+    mHeadway = headway;
+  }
+
+  /**
+   * Gets the amount of runs departing in the window.
+   *
+   * @return The amount of runs
+   */
+  public int getAmountOfRuns() {
+    if (mEndTime <= mStartTime) {
+      return 0;
+    }
+    return (mEndTime - mStartTime + mHeadway - 1) / mHeadway;
+  }
+
+  /**
+   * Gets the end of the window, exclusive.
+   *
+   * @return The end of the window in seconds since midnight
+   */
+  public int getEndTime() {
+    return mEndTime;
+  }
+
+  /**
+   * Gets the time between the departures of two consecutive runs.
+   *
+   * @return The headway in seconds
+   */
+  public int getHeadway() {
+    return mHeadway;
+  }
+
+  /**
+   * Gets the start of the window, inclusive.
+   *
+   * @return The start of the window in seconds since midnight
+   */
+  public int getStartTime() {
+    return mStartTime;
+  }
+
+  /**
+   * Gets the unique ID of the trip which is run.
+   *
+   * @return The ID of the trip
+   */
+  public int getTripId() {
+    return mTripId;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("TripFrequency [trip=");
+    builder.append(mTripId);
+    builder.append(", from=");
+    builder.append(mStartTime);
+    builder.append(", to=");
+    builder.append(mEndTime);
+    builder.append(", headway=");
+    builder.append(mHeadway);
+    builder.append("]");
+    return builder.toString();
+  }
+}
@@ -2,9 +2,14 @@ package de.unifreiburg.informatik.cobweb.routing.parsing.gtfs;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.collections.api.map.MutableMap;
 import org.eclipse.collections.impl.factory.Maps;
@@ -22,6 +27,7 @@ import org.onebusaway.gtfs.model.ServiceCalendarDate;
 import org.onebusaway.gtfs.model.ShapePoint;
 import org.onebusaway.gtfs.model.StopTime;
 import org.onebusaway.gtfs.model.Transfer;
+import org.onebusaway.gtfs.model.calendar.ServiceDate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,16 +37,25 @@ import de.unifreiburg.informatik.cobweb.routing.model.timetable.Connection;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Footpath;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.ITimetableIdGenerator;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.SequenceStopTime;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Service;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
 import de.unifreiburg.informatik.cobweb.routing.model.timetable.Trip;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.TripFrequency;
 import de.unifreiburg.informatik.cobweb.util.RoutingUtil;
 import de.unifreiburg.informatik.cobweb.util.collections.CollectionUtil;
 
 /**
  * Implementation of an {@link IGtfsFileHandler} which constructs a timetable
- * for transit data that consists of stops, trips, connections and footpaths out
- * of the given GTFS data.
+ * for transit data that consists of stops, trips, connections, footpaths and
+ * services out of the given GTFS data.<br>
+ * <br>
+ * Services are constructed out of the regular days of {@link ServiceCalendar}
+ * entities and the exceptions of {@link ServiceCalendarDate} entities.<br>
+ * <br>
+ * Trips with {@link Frequency} entities are not expanded into one trip per
+ * run. Their connections are only added to the trip, serving as template for
+ * the {@link TripFrequency frequencies} added to the table.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
@@ -49,6 +64,29 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
    * Logger used for logging.
    */
   private static final Logger LOGGER = LoggerFactory.getLogger(GtfsTimetableHandler.class);
+  /**
+   * The exception type of a service calendar date which adds the date.
+   */
+  private static final int EXCEPTION_TYPE_ADDED = 1;
+  /**
+   * The exception type of a service calendar date which removes the date.
+   */
+  private static final int EXCEPTION_TYPE_REMOVED = 2;
+
+  /**
+   * Converts the given GTFS service date to a date.
+   *
+   * @param serviceDate The service date to convert
+   * @return The date represented by the service date
+   */
+  private static LocalDate toLocalDate(final ServiceDate serviceDate) {
+    return LocalDate.of(serviceDate.getYear(), serviceDate.getMonth(), serviceDate.getDay());
+  }
+
+  /**
+   * Map connecting external service IDs to their corresponding object.
+   */
+  private final MutableMap<AgencyAndId, Service> mExtIdToService;
   /**
    * Map connecting external stop IDs to their corresponding object.
    */
@@ -57,6 +95,10 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
    * Map connecting trip IDs to their corresponding object.
    */
   private final MutableMap<AgencyAndId, Trip> mExtIdToTrip;
+  /**
+   * A collection of all frequencies to add.
+   */
+  private final Collection<Frequency> mFrequencies;
   /**
    * The generator to use for ID generation.
    */
@@ -83,10 +125,12 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
   public GtfsTimetableHandler(final Timetable table, final ITimetableIdGenerator idGenerator) {
     mTable = table;
     mIdGenerator = idGenerator;
+    mExtIdToService = Maps.mutable.empty();
     mExtIdToStop = Maps.mutable.empty();
     mExtIdToTrip = Maps.mutable.empty();
     mTripToSequence = Maps.mutable.empty();
     mTransfers = FastList.newList();
+    mFrequencies = FastList.newList();
   }
 
   @Override
@@ -94,10 +138,14 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
     // Approximate amount of connections
     final int amountOfConnections = mTripToSequence.stream().mapToInt(list -> list.size() - 1).sum();
     final Collection<Connection> connections = FastList.newList(amountOfConnections);
+    // Connections of trips with frequencies are templates only
+    final Set<AgencyAndId> extTripIdsWithFrequencies = new HashSet<>();
+    mFrequencies.forEach(frequency -> extTripIdsWithFrequencies.add(frequency.getTrip().getId()));
 
     // Process the sequences and create connections
     mTripToSequence.forEachKeyValue((extTripId, sequence) -> {
       final Trip trip = mExtIdToTrip.get(extTripId);
+      final boolean isTemplate = extTripIdsWithFrequencies.contains(extTripId);
 
       final Iterator<SequenceStopTime> sequenceIter = sequence.iterator();
       // Some faulty feeds do not start with a fixed sequence index. In that
@@ -127,7 +175,9 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
         final Connection connection =
             new Connection(trip.getId(), sequenceIndex, lastDepStopId, arrStopId, lastDepTime, arrTime);
         sequenceIndex++;
-        connections.add(connection);
+        if (!isTemplate) {
+          connections.add(connection);
+        }
         trip.addConnectionToSequence(connection);
 
         // Prepare next round
@@ -136,8 +186,16 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
       }
     });
 
-    // Add all connections to the table
+    // Add all connections and frequencies to the table
     mTable.addConnections(connections);
+    mFrequencies.forEach(frequency -> {
+      final Trip trip = mExtIdToTrip.get(frequency.getTrip().getId());
+      if (trip == null) {
+        return;
+      }
+      mTable.addFrequency(new TripFrequency(trip.getId(), frequency.getStartTime(), frequency.getEndTime(),
+          frequency.getHeadwaySecs()));
+    });
 
     // Construct and add footpaths out of transfers
     mTransfers.forEach(transfer -> {
@@ -156,6 +214,8 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
 
     // Prepare for possible next round
     mTransfers.clear();
+    mFrequencies.clear();
+    mExtIdToService.clear();
     mExtIdToStop.clear();
     mExtIdToTrip.clear();
     mTripToSequence.clear();
@@ -183,7 +243,12 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
 
   @Override
   public void handle(final Frequency frequency) {
-    // Ignore, not interested in
+    // Used for frequency construction, runs are not expanded. Exact times are
+    // scheduled like the headway based runs.
+    if (frequency.getHeadwaySecs() <= 0) {
+      return;
+    }
+    mFrequencies.add(frequency);
   }
 
   @Override
@@ -207,7 +272,7 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
       return;
     }
 
-    final Trip trip = new Trip(mIdGenerator.generateUniqueTripId());
+    final Trip trip = new Trip(mIdGenerator.generateUniqueTripId(), getService(tripEntity.getServiceId()).getId());
     mExtIdToTrip.put(tripEntity.getId(), trip);
 
     mTable.addTrip(trip);
@@ -225,12 +290,29 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
 
   @Override
   public void handle(final ServiceCalendar serviceCalendar) {
-    // Ignore, not interested in
+    final Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+    final int[] runsAtDay = { serviceCalendar.getMonday(), serviceCalendar.getTuesday(),
+        serviceCalendar.getWednesday(), serviceCalendar.getThursday(), serviceCalendar.getFriday(),
+        serviceCalendar.getSaturday(), serviceCalendar.getSunday() };
+    for (int i = 0; i < runsAtDay.length; i++) {
+      if (runsAtDay[i] == 1) {
+        daysOfWeek.add(DayOfWeek.of(i + 1));
+      }
+    }
+    getService(serviceCalendar.getServiceId()).setRegularDays(
+        GtfsTimetableHandler.toLocalDate(serviceCalendar.getStartDate()),
+        GtfsTimetableHandler.toLocalDate(serviceCalendar.getEndDate()), daysOfWeek);
   }
 
   @Override
   public void handle(final ServiceCalendarDate serviceCalendarDate) {
-    // Ignore, not interested in
+    final Service service = getService(serviceCalendarDate.getServiceId());
+    final LocalDate date = GtfsTimetableHandler.toLocalDate(serviceCalendarDate.getDate());
+    if (serviceCalendarDate.getExceptionType() == EXCEPTION_TYPE_ADDED) {
+      service.addDate(date);
+    } else if (serviceCalendarDate.getExceptionType() == EXCEPTION_TYPE_REMOVED) {
+      service.removeDate(date);
+    }
   }
 
   @Override
@@ -272,4 +354,19 @@ public final class GtfsTimetableHandler extends GtfsEntityForwarder implements I
     return true;
   }
 
+  /**
+   * Gets the service with the given external ID. If there is no such service
+   * yet, it is created and added to the table.
+   *
+   * @param extServiceId The external ID of the service
+   * @return The service with the given ID
+   */
+  private Service getService(final AgencyAndId extServiceId) {
+    return mExtIdToService.getIfAbsentPut(extServiceId, () -> {
+      final Service service = new Service(mIdGenerator.generateUniqueServiceId());
+      mTable.addService(service);
+      return service;
+    });
+  }
+
 }
@@ -0,0 +1,234 @@
+package de.unifreiburg.informatik.cobweb.routing.server;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+
+import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequest;
+import de.unifreiburg.informatik.cobweb.util.http.EHttpContentType;
+import de.unifreiburg.informatik.cobweb.util.http.EHttpStatus;
+import de.unifreiburg.informatik.cobweb.util.http.HttpRequest;
+import de.unifreiburg.informatik.cobweb.util.http.HttpResponse;
+import de.unifreiburg.informatik.cobweb.util.http.HttpResponseBuilder;
+import de.unifreiburg.informatik.cobweb.util.http.HttpUtil;
+import de.unifreiburg.informatik.cobweb.util.http.IHttpHandler;
+import de.unifreiburg.informatik.cobweb.util.http.PooledContentBuffer;
+
+/**
+ * Class that handles the HTTP requests of routing clients which submit a batch
+ * of routing requests at once. It is designed to be registered at a
+ * {@link de.unifreiburg.informatik.cobweb.util.http.HttpServer HttpServer}.<br>
+ * <br>
+ * A batch is a JSON array of routing requests. The requests are answered in
+ * parallel on the given executor, which should be the executor of the lane
+ * the handler runs on. Requests exceeding the capacity of the executor, or
+ * still waiting in its queue, are answered by the thread handling the batch
+ * itself. Thus, a batch never occupies more threads than its lane offers and
+ * does not wait for requests queued behind it.<br>
+ * <br>
+ * The response is a JSON array containing the routing response of each request
+ * at its position, or <code>null</code> if the request could not be answered,
+ * for example because the batch exceeded its deadline.<br>
+ * <br>
+ * The handler is thread-safe and answers requests of all clients. It does not
+ * communicate with the clients itself, the server sends the responses.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class BatchClientHandler implements IHttpHandler {
+  /**
+   * Logger used for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchClientHandler.class);
+  /**
+   * Encoded JSON content of requests that could not be answered.
+   */
+  private static final byte[] NULL_CONTENT = "null".getBytes(StandardCharsets.UTF_8);
+
+  /**
+   * Waits for the answer of the given task until the given deadline. Tasks
+   * that did not finish in time are cancelled.
+   *
+   * @param task     The task answering a request of a batch
+   * @param deadline The deadline of the batch in nanoseconds as given by
+   *                 {@link System#nanoTime()}
+   * @return The HTTP response to the request or <code>null</code> if it could
+   *         not be answered in time
+   */
+  private static HttpResponse awaitAnswer(final FutureTask<HttpResponse> task, final long deadline) {
+    try {
+      return task.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (final TimeoutException e) {
+      // Do not start it anymore, a running computation stops at its own
+      // deadline
+      task.cancel(false);
+      return null;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      task.cancel(false);
+      return null;
+    } catch (final ExecutionException e) {
+      LOGGER.error("Unknown error while answering a request of a batch", e.getCause());
+      return null;
+    }
+  }
+
+  /**
+   * The time in milliseconds a batch may take before its unanswered requests
+   * are given up.
+   */
+  private final long mDeadline;
+  /**
+   * The executor to answer the requests of a batch on.
+   */
+  private final Executor mExecutor;
+  /**
+   * The GSON object used to parse JSON requests.
+   */
+  private final Gson mGson;
+  /**
+   * The handler to use for answering routing requests.
+   */
+  private final Function<RoutingRequest, HttpResponse> mHandler;
+  /**
+   * The maximal amount of requests in a batch.
+   */
+  private final int mLimit;
+
+  /**
+   * Creates a new handler which handles routing clients submitting batches
+   * using the given handler.
+   *
+   * @param handler  The handler to use for answering routing requests, it must
+   *                 be thread-safe
+   * @param gson     The GSON object used to parse JSON requests
+   * @param executor The executor to answer the requests of a batch on, usually
+   *                 the executor of the lane the handler runs on
+   * @param limit    The maximal amount of requests in a batch, larger batches
+   *                 are rejected
+   * @param deadline The time in milliseconds a batch may take before its
+   *                 unanswered requests are given up
+   */
+  BatchClientHandler(final Function<RoutingRequest, HttpResponse> handler, final Gson gson, final Executor executor,
+      final int limit, final long deadline) {
+    mHandler = handler;
+    mGson = gson;
+    mExecutor = executor;
+    mLimit = limit;
+    mDeadline = deadline;
+  }
+
+  @Override
+  public HttpResponse handle(final HttpRequest request) {
+    // Method not allowed
+    final String type = request.getType().toUpperCase();
+    if (!type.equals("OPTIONS") && !type.equals("POST")) {
+      return new HttpResponseBuilder().setStatus(EHttpStatus.METHOD_NOT_ALLOWED).putHeader("Allow", "OPTIONS, POST")
+          .build();
+    }
+
+    if (type.equals("OPTIONS")) {
+      return serveOptionsRequest();
+    }
+
+    // Type is a post request
+    return servePost(request);
+  }
+
+  /**
+   * Serves a HTTP request of type <code>OPTIONS</code>.
+   *
+   * @return The response to the request
+   */
+  private HttpResponse serveOptionsRequest() {
+    // Send back the supported methods
+    return new HttpResponseBuilder().setStatus(EHttpStatus.OK).putHeader("Access-Control-Allow-Methods", "POST")
+        .putHeader("Access-Control-Allow-Headers", "Content-Type")
+        .putHeader("Access-Control-Max-Age", String.valueOf(86400)).build();
+  }
+
+  /**
+   * Serves a HTTP request of type <code>POST</code>.
+   *
+   * @param request The request to serve
+   * @return The response to the request
+   */
+  private HttpResponse servePost(final HttpRequest request) {
+    final EHttpContentType contentType = HttpUtil.parseContentType(request.getHeaders().get("Content-Type"));
+    if (contentType == null || contentType != EHttpContentType.JSON) {
+      return new HttpResponseBuilder().setStatus(EHttpStatus.BAD_REQUEST).build();
+    }
+
+    // Parse the JSON batch
+    final RoutingRequest[] routingRequests;
+    try {
+      routingRequests = mGson.fromJson(request.getContent(), RoutingRequest[].class);
+    } catch (final JsonSyntaxException e) {
+      return new HttpResponseBuilder().setStatus(EHttpStatus.BAD_REQUEST).build();
+    }
+    if (routingRequests == null || routingRequests.length > mLimit) {
+      return new HttpResponseBuilder().setStatus(EHttpStatus.BAD_REQUEST).build();
+    }
+    // Every item must be a request, the adapter is not asked for null items
+    for (final RoutingRequest routingRequest : routingRequests) {
+      if (routingRequest == null) {
+        return new HttpResponseBuilder().setStatus(EHttpStatus.BAD_REQUEST).build();
+      }
+    }
+
+    // Hand the requests to the executor until it is full
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(mDeadline);
+    final List<FutureTask<HttpResponse>> tasks = new ArrayList<>(routingRequests.length);
+    boolean isExecutorFull = false;
+    for (final RoutingRequest routingRequest : routingRequests) {
+      final FutureTask<HttpResponse> task = new FutureTask<>(() -> mHandler.apply(routingRequest));
+      tasks.add(task);
+      if (!isExecutorFull) {
+        try {
+          mExecutor.execute(task);
+        } catch (final RejectedExecutionException e) {
+          isExecutorFull = true;
+        }
+      }
+    }
+
+    // Answer all requests that did not start yet on this thread instead of
+    // waiting for them, a task runs only once
+    for (final FutureTask<HttpResponse> task : tasks) {
+      if (System.nanoTime() - deadline >= 0) {
+        break;
+      }
+      task.run();
+    }
+
+    // Join the already encoded responses in order of the requests
+    final PooledContentBuffer content = PooledContentBuffer.acquire();
+    content.write('[');
+    for (int i = 0; i < tasks.size(); i++) {
+      if (i != 0) {
+        content.write(',');
+      }
+      final HttpResponse answer = BatchClientHandler.awaitAnswer(tasks.get(i), deadline);
+      if (answer == null || answer.getStatus() != EHttpStatus.OK) {
+        content.write(NULL_CONTENT, 0, NULL_CONTENT.length);
+      } else {
+        content.writeContent(answer);
+      }
+    }
+    content.write(']');
+    return new HttpResponseBuilder().setContentType(EHttpContentType.JSON).setContent(content).build();
+  }
+}
@@ -0,0 +1,89 @@
+package de.unifreiburg.informatik.cobweb.routing.server;
+
+import com.google.gson.Gson;
+
+import de.unifreiburg.informatik.cobweb.db.IRoutingDatabase;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ShortestPathComputationFactory;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IGetNodeById;
+import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequest;
+import de.unifreiburg.informatik.cobweb.util.collections.CoalescingCache;
+import de.unifreiburg.informatik.cobweb.util.http.HttpResponse;
+
+/**
+ * Class that handles routing requests by taking their responses from a cache
+ * or computing them with a {@link RequestHandler}.<br>
+ * <br>
+ * Requests departing in the same bucket of departure times share their
+ * response, which is computed for the start of the bucket. Identical
+ * concurrent requests are computed only once. The handler is thread-safe.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+final class CachingRequestHandler {
+  /**
+   * The cache of responses to routing requests.
+   */
+  private final CoalescingCache<RoutingCacheKey, HttpResponse> mCache;
+  /**
+   * The size of the departure time buckets of the cache, in milliseconds.
+   */
+  private final long mCacheBucket;
+  /**
+   * The factory to use for generating algorithms for shortest path computation.
+   */
+  private final ShortestPathComputationFactory mComputationFactory;
+  /**
+   * The database to use for fetching meta data for nodes and edges.
+   */
+  private final IRoutingDatabase mDatabase;
+  /**
+   * The time in milliseconds the computation of a request may take before it
+   * is stopped.
+   */
+  private final long mDeadline;
+  /**
+   * The object that provides nodes by their ID.
+   */
+  private final IGetNodeById<ICoreNode> mNodeProvider;
+
+  /**
+   * Creates a new handler which handles requests using the given tools.
+   *
+   * @param nodeProvider       The object that provides nodes by their ID
+   * @param computationFactory The factory to use for generating algorithms for
+   *                           shortest path computation
+   * @param database           The database to use for fetching meta data for
+   *                           nodes and edges
+   * @param deadline           The time in milliseconds the computation of a
+   *                           request may take before it is stopped
+   * @param cache              The cache of responses to routing requests
+   * @param cacheBucket        The size of the departure time buckets of the
+   *                           cache in milliseconds, must be positive
+   */
+  CachingRequestHandler(final IGetNodeById<ICoreNode> nodeProvider,
+      final ShortestPathComputationFactory computationFactory, final IRoutingDatabase database, final long deadline,
+      final CoalescingCache<RoutingCacheKey, HttpResponse> cache, final long cacheBucket) {
+    mNodeProvider = nodeProvider;
+    mComputationFactory = computationFactory;
+    mDatabase = database;
+    mDeadline = deadline;
+    mCache = cache;
+    mCacheBucket = cacheBucket;
+  }
+
+  /**
+   * Handles the given routing request.
+   *
+   * @param gson    The GSON object used to format JSON responses
+   * @param request The request to handle
+   * @return The HTTP response to send back to the client
+   */
+  HttpResponse handleRequest(final Gson gson, final RoutingRequest request) {
+    return mCache.get(new RoutingCacheKey(request, mCacheBucket), key -> {
+      final RequestHandler handler =
+          new RequestHandler(gson, mNodeProvider, mComputationFactory, mDatabase, mDeadline);
+      return handler.handleRequest(key.toRequest());
+    });
+  }
+}
@@ -1,11 +1,12 @@
 package de.unifreiburg.informatik.cobweb.routing.server;
 
-import java.io.IOException;
-import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
@@ -18,7 +19,9 @@ import com.google.gson.Gson;
 import de.unifreiburg.informatik.cobweb.db.IRoutingDatabase;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IShortestPathComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.QueryDeadline;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ShortestPathComputationFactory;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.HybridRoadTimetable;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.EdgeCost;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
@@ -35,12 +38,14 @@ import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequest;
 import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingResponse;
 import de.unifreiburg.informatik.cobweb.util.RoutingUtil;
 import de.unifreiburg.informatik.cobweb.util.http.EHttpContentType;
+import de.unifreiburg.informatik.cobweb.util.http.EHttpStatus;
+import de.unifreiburg.informatik.cobweb.util.http.HttpResponse;
 import de.unifreiburg.informatik.cobweb.util.http.HttpResponseBuilder;
-import de.unifreiburg.informatik.cobweb.util.http.HttpUtil;
+import de.unifreiburg.informatik.cobweb.util.http.PooledContentBuffer;
 
 /**
  * Class that handles a routing request. It parses the request, computes
- * corresponding shortest paths and builds and sends a proper response.<br>
+ * corresponding shortest paths and builds a proper response.<br>
  * <br>
  * To handle a request call {@link #handleRequest(RoutingRequest)}.
  *
@@ -51,10 +56,6 @@ public final class RequestHandler {
    * Logger used for logging
    */
   private static final Logger LOGGER = LoggerFactory.getLogger(RequestHandler.class);
-  /**
-   * The client whose request to handle.
-   */
-  private final Socket mClient;
   /**
    * The factory to use for generating algorithms for shortest path computation.
    */
@@ -63,6 +64,11 @@ public final class RequestHandler {
    * The database to use for fetching meta data for nodes and edges.
    */
   private final IRoutingDatabase mDatabase;
+  /**
+   * The time in milliseconds the computation of a request may take before it
+   * is stopped.
+   */
+  private final long mDeadline;
   /**
    * The GSON object used to format JSON responses.
    */
@@ -77,37 +83,44 @@ public final class RequestHandler {
   private final SpeedTransportationModeComparator mSpeedComparator;
 
   /**
-   * Creates a new handler which handles requests of the given client using the
-   * given tools.<br>
+   * Creates a new handler which handles requests using the given tools.<br>
    * <br>
    * To handle a request call {@link #handleRequest(RoutingRequest)}.
    *
-   * @param client             The client whose request to handle
    * @param gson               The GSON object used to format JSON responses
    * @param nodeProvider       The object that provides nodes by their ID
    * @param computationFactory The factory to use for generating algorithms for
    *                           shortest path computation
    * @param database           The database to use for fetching meta data for
    *                           nodes and edges
+   * @param deadline           The time in milliseconds the computation of a
+   *                           request may take before it is stopped
    */
-  public RequestHandler(final Socket client, final Gson gson, final IGetNodeById<ICoreNode> nodeProvider,
-      final ShortestPathComputationFactory computationFactory, final IRoutingDatabase database) {
-    mClient = client;
+  public RequestHandler(final Gson gson, final IGetNodeById<ICoreNode> nodeProvider,
+      final ShortestPathComputationFactory computationFactory, final IRoutingDatabase database,
+      final long deadline) {
     mGson = gson;
     mNodeProvider = nodeProvider;
     mComputationFactory = computationFactory;
     mDatabase = database;
+    mDeadline = deadline;
     mSpeedComparator = new SpeedTransportationModeComparator();
   }
 
   /**
    * Handles the given routing request. It computes shortest paths and
-   * constructs and sends a proper response.
+   * constructs a proper response.<br>
+   * <br>
+   * If the request has a range of departure times, a journey is computed for
+   * every good departure time of the range, all by a single profile search.<br>
+   * <br>
+   * If the computation takes longer than the deadline of this handler, it is
+   * stopped and the request is answered with <code>SERVICE UNAVAILABLE</code>.
    *
    * @param request The request to handle
-   * @throws IOException If an I/O exception occurred while sending a response
+   * @return The HTTP response to send back to the client
    */
-  public void handleRequest(final RoutingRequest request) throws IOException {
+  public HttpResponse handleRequest(final RoutingRequest request) {
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Handling request: {}", request);
     }
@@ -117,43 +130,47 @@ public final class RequestHandler {
     final Optional<ICoreNode> sourceOptional =
         mDatabase.getInternalNodeByOsm(request.getFrom()).flatMap(id -> mNodeProvider.getNodeById(id));
     if (!sourceOptional.isPresent()) {
-      sendEmptyResponse(request, startTime);
-      return;
+      return createEmptyResponse(request, startTime);
     }
     final Optional<ICoreNode> destinationOptional =
         mDatabase.getInternalNodeByOsm(request.getTo()).flatMap(id -> mNodeProvider.getNodeById(id));
     if (!destinationOptional.isPresent()) {
-      sendEmptyResponse(request, startTime);
-      return;
+      return createEmptyResponse(request, startTime);
     }
 
     // Nodes are known, compute the path
     final ICoreNode source = sourceOptional.get();
     final ICoreNode destination = destinationOptional.get();
 
-    final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> computation =
-        mComputationFactory.createAlgorithm(request.getDepTime(), request.getModes());
-
     final long startCompTime = System.nanoTime();
-    final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> pathOptional =
-        computation.computeShortestPath(source, destination);
+    final Map<Long, IPath<ICoreNode, ICoreEdge<ICoreNode>>> depTimeToPath;
+    QueryDeadline.start(mDeadline);
+    try {
+      depTimeToPath = computeShortestPaths(request, source, destination);
+      if (QueryDeadline.isExpired()) {
+        // The computations were stopped early, their results are incomplete
+        return createTimeoutResponse(request);
+      }
+    } finally {
+      QueryDeadline.clear();
+    }
     final long endCompTime = System.nanoTime();
-    if (!pathOptional.isPresent()) {
-      sendNotReachableResponse(request, startTime, startCompTime);
-      return;
+    if (depTimeToPath.isEmpty()) {
+      return createNotReachableResponse(request, startTime, startCompTime);
     }
 
-    // Path is present, build the resulting journey
-    final IPath<ICoreNode, ICoreEdge<ICoreNode>> path = pathOptional.get();
-    final Journey journey = buildJourney(request, path);
+    // Paths are present, build the resulting journeys
+    final List<Journey> journeys = new ArrayList<>(depTimeToPath.size());
+    for (final Entry<Long, IPath<ICoreNode, ICoreEdge<ICoreNode>>> depTimeWithPath : depTimeToPath.entrySet()) {
+      journeys.add(buildJourney(request, depTimeWithPath.getKey().longValue(), depTimeWithPath.getValue()));
+    }
 
     final long endTime = System.nanoTime();
 
-    // Build and send response
+    // Build response
     final RoutingResponse response = new RoutingResponse(RoutingUtil.nanosToMillis(endTime - startTime),
-        RoutingUtil.nanosToMillis(endCompTime - startCompTime), request.getFrom(), request.getTo(),
-        Collections.singletonList(journey));
-    sendResponse(response);
+        RoutingUtil.nanosToMillis(endCompTime - startCompTime), request.getFrom(), request.getTo(), journeys);
+    return createResponse(response);
   }
 
   /**
@@ -174,11 +191,13 @@ public final class RequestHandler {
    * Builds a journey object which represents the given path.
    *
    * @param request The request the journey belongs to
+   * @param depTime The departure time of the journey, in milliseconds since
+   *                epoch
    * @param path    The path the journey represents
    * @return The resulting journey
    */
-  private Journey buildJourney(final RoutingRequest request, final IPath<ICoreNode, ICoreEdge<ICoreNode>> path) {
-    final long depTime = request.getDepTime();
+  private Journey buildJourney(final RoutingRequest request, final long depTime,
+      final IPath<ICoreNode, ICoreEdge<ICoreNode>> path) {
     final long duration = (long) Math.ceil(RoutingUtil.secondsToMillis(path.getTotalCost()));
     final long arrTime = depTime + duration;
 
@@ -261,43 +280,54 @@ public final class RequestHandler {
   }
 
   /**
-   * Decides for the transportation mode to use for the given edge based on the
-   * modes it offers and the given restrictions.<br>
-   * <br>
-   * The method will choose the fastest available transportation mode.
+   * Computes the shortest paths to build journeys for. That is the path at the
+   * departure time of the request or, if the request has a range of departure
+   * times, the paths of all good departure times of the range.
    *
-   * @param modeRestrictions The transportation modes allowed to use
-   * @param edge             The edge to travel along
-   * @return The transportation mode to use for the given edge
+   * @param request     The request to compute paths for
+   * @param source      The source of the paths
+   * @param destination The destination of the paths
+   * @return A map connecting departure times in milliseconds since epoch to
+   *         their path, ordered ascending. Empty if the destination is not
+   *         reachable.
    */
-  private ETransportationMode getModeOfEdge(final Set<ETransportationMode> modeRestrictions,
-      final ICoreEdge<ICoreNode> edge) {
-    final Set<ETransportationMode> edgeModes = ((IHasTransportationMode) edge).getTransportationModes();
+  private Map<Long, IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPaths(final RoutingRequest request,
+      final ICoreNode source, final ICoreNode destination) {
+    final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> computation =
+        mComputationFactory.createAlgorithm(request.getDepTime(), request.getModes());
+    // Only the hybrid model supports profiles
+    if (request.getDepTimeRange() > 0 && computation instanceof HybridRoadTimetable) {
+      final Map<Long, IPath<ICoreNode, ICoreEdge<ICoreNode>>> depTimeToPath = ((HybridRoadTimetable) computation)
+          .computeShortestPathsInRange(source, destination, request.getDepTimeRange());
+      if (!depTimeToPath.isEmpty()) {
+        return depTimeToPath;
+      }
+    }
 
-    // Pick the fastest mode that is available after applying the restrictions
-    final Set<ETransportationMode> availableModes = EnumSet.copyOf(edgeModes);
-    availableModes.retainAll(modeRestrictions);
-    return Collections.max(availableModes, mSpeedComparator);
+    final Map<Long, IPath<ICoreNode, ICoreEdge<ICoreNode>>> depTimeToPath = new LinkedHashMap<>();
+    computation.computeShortestPath(source, destination)
+        .ifPresent(path -> depTimeToPath.put(request.getDepTime(), path));
+    return depTimeToPath;
   }
 
   /**
-   * Sends an empty routing response. This is usually used if no shortest path
+   * Creates an empty routing response. This is usually used if no shortest path
    * could be found.
    *
    * @param request   The request to respond to
    * @param startTime The time the computation started, in nanoseconds. Must be
    *                  compatible with {@link System#nanoTime()}.
-   * @throws IOException If an I/O exception occurred while sending the response
+   * @return The resulting HTTP response
    */
-  private void sendEmptyResponse(final RoutingRequest request, final long startTime) throws IOException {
+  private HttpResponse createEmptyResponse(final RoutingRequest request, final long startTime) {
     final long endTime = System.nanoTime();
     final RoutingResponse response = new RoutingResponse(RoutingUtil.nanosToMillis(endTime - startTime), 0L,
         request.getFrom(), request.getTo(), Collections.emptyList());
-    sendResponse(response);
+    return createResponse(response);
   }
 
   /**
-   * Sends a not reachable response. This is usually used if no shortest path
+   * Creates a not reachable response. This is usually used if no shortest path
    * could be found.
    *
    * @param request       The request to respond to
@@ -306,29 +336,61 @@ public final class RequestHandler {
    * @param startCompTime The time the computation of the shortest path started,
    *                      in nanoseconds. Must be compatible with
    *                      {@link System#nanoTime()}.
-   * @throws IOException If an I/O exception occurred while sending the response
+   * @return The resulting HTTP response
    */
-  private void sendNotReachableResponse(final RoutingRequest request, final long startTime, final long startCompTime)
-      throws IOException {
+  private HttpResponse createNotReachableResponse(final RoutingRequest request, final long startTime,
+      final long startCompTime) {
     final long endTime = System.nanoTime();
     final RoutingResponse response = new RoutingResponse(RoutingUtil.nanosToMillis(endTime - startTime),
         RoutingUtil.nanosToMillis(endTime - startCompTime), request.getFrom(), request.getTo(),
         Collections.emptyList());
-    sendResponse(response);
+    return createResponse(response);
   }
 
   /**
-   * Sends the given routing response.
+   * Creates the HTTP response for the given routing response.
    *
    * @param response The response to send
-   * @throws IOException If an I/O exception occurred while sending the response
+   * @return The resulting HTTP response
    */
-  private void sendResponse(final RoutingResponse response) throws IOException {
+  private HttpResponse createResponse(final RoutingResponse response) {
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Sending response: {}", response);
     }
-    final String content = mGson.toJson(response);
-    HttpUtil.sendHttpResponse(
-        new HttpResponseBuilder().setContentType(EHttpContentType.JSON).setContent(content).build(), mClient);
+    final PooledContentBuffer content = PooledContentBuffer.acquire();
+    content.writeJson(mGson, response, RoutingResponse.class);
+    return new HttpResponseBuilder().setContentType(EHttpContentType.JSON).setContent(content).build();
+  }
+
+  /**
+   * Creates the HTTP response for a request whose computation exceeded the
+   * deadline.
+   *
+   * @param request The request to respond to
+   * @return The resulting HTTP response
+   */
+  private HttpResponse createTimeoutResponse(final RoutingRequest request) {
+    LOGGER.warn("Computation exceeded the deadline of {} ms: {}", mDeadline, request);
+    return new HttpResponseBuilder().setStatus(EHttpStatus.SERVICE_UNAVAILABLE).build();
+  }
+
+  /**
+   * Decides for the transportation mode to use for the given edge based on the
+   * modes it offers and the given restrictions.<br>
+   * <br>
+   * The method will choose the fastest available transportation mode.
+   *
+   * @param modeRestrictions The transportation modes allowed to use
+   * @param edge             The edge to travel along
+   * @return The transportation mode to use for the given edge
+   */
+  private ETransportationMode getModeOfEdge(final Set<ETransportationMode> modeRestrictions,
+      final ICoreEdge<ICoreNode> edge) {
+    final Set<ETransportationMode> edgeModes = ((IHasTransportationMode) edge).getTransportationModes();
+
+    // Pick the fastest mode that is available after applying the restrictions
+    final Set<ETransportationMode> availableModes = EnumSet.copyOf(edgeModes);
+    availableModes.retainAll(modeRestrictions);
+    return Collections.max(availableModes, mSpeedComparator);
   }
 }
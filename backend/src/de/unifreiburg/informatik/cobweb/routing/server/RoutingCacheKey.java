@@ -0,0 +1,118 @@
+package de.unifreiburg.informatik.cobweb.routing.server;
+
+import java.util.Set;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequest;
+
+/**
+ * Key of a routing request in the cache of routing responses.<br>
+ * <br>
+ * Requests with the same source, destination, transportation modes and range
+ * of departure times whose departure time lies in the same bucket share the
+ * key. All of them are answered by the request given by
+ * {@link #toRequest()}, which departs at the start of the bucket.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+final class RoutingCacheKey {
+  /**
+   * The start of the departure time bucket, in milliseconds since epoch.
+   */
+  private final long mDepTime;
+  /**
+   * The range of departure times, in milliseconds.
+   */
+  private final long mDepTimeRange;
+  /**
+   * The unique ID of the node to start the journey from.
+   */
+  private final long mFrom;
+  /**
+   * The allowed transportation modes.
+   */
+  private final Set<ETransportationMode> mModes;
+  /**
+   * The unique ID of the node to end the journey at.
+   */
+  private final long mTo;
+
+  /**
+   * Creates a new key for the given request.
+   *
+   * @param request The request to create the key for
+   * @param bucket  The size of the departure time buckets in milliseconds, must
+   *                be positive
+   */
+  RoutingCacheKey(final RoutingRequest request, final long bucket) {
+    mFrom = request.getFrom();
+    mTo = request.getTo();
+    mDepTime = request.getDepTime() - Math.floorMod(request.getDepTime(), bucket);
+    mDepTimeRange = request.getDepTimeRange();
+    mModes = request.getModes();
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#equals(java.lang.Object)
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof RoutingCacheKey)) {
+      return false;
+    }
+    final RoutingCacheKey other = (RoutingCacheKey) obj;
+    return mFrom == other.mFrom && mTo == other.mTo && mDepTime == other.mDepTime
+        && mDepTimeRange == other.mDepTimeRange && mModes.equals(other.mModes);
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + Long.hashCode(mFrom);
+    result = prime * result + Long.hashCode(mTo);
+    result = prime * result + Long.hashCode(mDepTime);
+    result = prime * result + Long.hashCode(mDepTimeRange);
+    result = prime * result + mModes.hashCode();
+    return result;
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("RoutingCacheKey [from=");
+    builder.append(mFrom);
+    builder.append(", to=");
+    builder.append(mTo);
+    builder.append(", depTime=");
+    builder.append(mDepTime);
+    builder.append(", depTimeRange=");
+    builder.append(mDepTimeRange);
+    builder.append(", modes=");
+    builder.append(mModes);
+    builder.append("]");
+    return builder.toString();
+  }
+
+  /**
+   * Creates the request which answers all requests of this key. It departs at
+   * the start of the departure time bucket.
+   *
+   * @return The request answering this key
+   */
+  RoutingRequest toRequest() {
+    return new RoutingRequest(mFrom, mTo, mDepTime, mDepTimeRange, mModes);
+  }
+}
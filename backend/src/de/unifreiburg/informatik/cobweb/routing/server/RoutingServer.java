@@ -1,32 +1,30 @@
 package de.unifreiburg.informatik.cobweb.routing.server;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketTimeoutException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import de.unifreiburg.informatik.cobweb.config.IRoutingConfigProvider;
+import de.unifreiburg.informatik.cobweb.config.IServerConfigProvider;
 import de.unifreiburg.informatik.cobweb.db.IRoutingDatabase;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ShortestPathComputationFactory;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IGetNodeById;
 import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequest;
+import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequestAdapter;
 import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingResponse;
+import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingResponseAdapter;
+import de.unifreiburg.informatik.cobweb.util.collections.CoalescingCache;
+import de.unifreiburg.informatik.cobweb.util.http.EHttpStatus;
+import de.unifreiburg.informatik.cobweb.util.http.HttpResponse;
+import de.unifreiburg.informatik.cobweb.util.http.HttpServer;
 
 /**
  * A server which offers a REST API that is able to answer routing requests.<br>
  * <br>
- * After construction the {@link #initialize()} method should be called.
- * Afterwards it can be started by using {@link #start()}. Request the server to
- * shutdown by using {@link #shutdown()}, the current status can be checked with
- * {@link #isRunning()}. Once a server was shutdown it should not be used
- * anymore, instead create a new one.<br>
+ * After construction the API should be registered at a {@link HttpServer} by
+ * using {@link #register(HttpServer, String)}. The HTTP server then serves it
+ * under the resource {@link #API_RESOURCE}, together with the APIs of other
+ * services. Batches of requests are served under {@link #BATCH_API_RESOURCE}
+ * and answered in parallel on the threads of the same lane.<br>
  * <br>
  * A request may consist of departure time, source and destination nodes and
  * meta-data like desired transportation modes. A response consists of departure
@@ -39,167 +37,133 @@ import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingResponse;
  * <code>OPTIONS</code>. The server will send <code>BAD REQUEST</code> to invalid
  * requests.<br>
  * <br>
- * The server itself handles clients in parallel using a cached thread pool. For
- * construction it wants a configuration, a graph to route on, an algorithm to
- * compute shortest paths with and a database for retrieving meta-data.
+ * Computations of a request are stopped once they exceed the configured
+ * deadline, the request is then answered with <code>SERVICE
+ * UNAVAILABLE</code>.<br>
+ * <br>
+ * Successful responses are cached for requests with the same source,
+ * destination and transportation modes, departing in the same configured
+ * bucket of departure times. Identical concurrent requests are computed only
+ * once. The effectiveness of the cache can be monitored by
+ * {@link #getCacheHitRate()}.<br>
+ * <br>
+ * For construction it wants a graph to route on, an algorithm to compute
+ * shortest paths with and a database for retrieving meta-data.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
-public final class RoutingServer implements Runnable {
-  /**
-   * Logger used for logging.
-   */
-  private static final Logger LOGGER = LoggerFactory.getLogger(RoutingServer.class);
+public final class RoutingServer {
   /**
-   * The timeout used when waiting for a client to connect, in milliseconds. The
-   * server status is checked after each timeout.
+   * Resource that is to be requested from a client if he submits a routing
+   * query.
    */
-  private static final int SOCKET_TIMEOUT = 2_000;
+  public static final String API_RESOURCE = "/route";
   /**
-   * The factory to use for generating algorithms for shortest path computation.
+   * Resource that is to be requested from a client if he submits a batch of
+   * routing queries.
    */
-  private final ShortestPathComputationFactory mComputationFactory;
+  public static final String BATCH_API_RESOURCE = "/route/batch";
   /**
-   * Configuration provider which provides the port that should be used by the
-   * server.
+   * The time in milliseconds a batch may take before its unanswered requests
+   * are given up.
    */
-  private final IRoutingConfigProvider mConfig;
+  private final long mBatchDeadline;
   /**
-   * Database used for retrieving meta-data about graph objects like nodes and
-   * edges.
+   * The maximal amount of requests in a batch.
    */
-  private final IRoutingDatabase mDatabase;
+  private final int mBatchLimit;
   /**
-   * The object that provides nodes by their ID.
+   * The cache of responses to routing requests.
    */
-  private final IGetNodeById<ICoreNode> mNodeProvider;
+  private final CoalescingCache<RoutingCacheKey, HttpResponse> mCache;
   /**
-   * The server socket to use for communication.
+   * The GSON object used to parse JSON requests and format JSON responses,
+   * shared by all handlers.
    */
-  private ServerSocket mServerSocket;
+  private final Gson mGson;
   /**
-   * The thread to run this server on.
+   * The handler to use for answering routing requests.
    */
-  private Thread mServerThread;
-  /**
-   * Whether or not the server thread should run.
-   */
-  private volatile boolean mShouldRun;
+  private final CachingRequestHandler mHandler;
 
   /**
-   * Creates a new routing server with the given configuration that works with
-   * the given tools.<br>
+   * Creates a new routing server that works with the given tools.<br>
    * <br>
-   * After construction the {@link #initialize()} method should be called.
-   * Afterwards it can be started by using {@link #start()}. Request the server
-   * to shutdown by using {@link #shutdown()}, the current status can be checked
-   * with {@link #isRunning()}. Once a server was shutdown it should not be used
-   * anymore, instead create a new one.
+   * After construction the API should be registered at a {@link HttpServer} by
+   * using {@link #register(HttpServer, String)}.
    *
-   * @param config             Configuration provider which provides the port
-   *                           that should be used by the server
    * @param nodeProvider       The object that provides nodes by their ID
    * @param computationFactory The factory to use for generating algorithms for
    *                           shortest path computation
    * @param database           Database used for retrieving meta-data about
    *                           graph objects like nodes and edges
+   * @param config             Configuration provider which provides the
+   *                           deadline of routing requests and the settings of
+   *                           the cache and batches
    */
-  public RoutingServer(final IRoutingConfigProvider config, final IGetNodeById<ICoreNode> nodeProvider,
-      final ShortestPathComputationFactory computationFactory, final IRoutingDatabase database) {
-    mConfig = config;
-    mNodeProvider = nodeProvider;
-    mComputationFactory = computationFactory;
-    mDatabase = database;
+  public RoutingServer(final IGetNodeById<ICoreNode> nodeProvider,
+      final ShortestPathComputationFactory computationFactory, final IRoutingDatabase database,
+      final IServerConfigProvider config) {
+    mCache = new CoalescingCache<>(config.getRouteCacheSize(), config.getRouteCacheTimeToLive(),
+        response -> response.getStatus() == EHttpStatus.OK);
+    mHandler = new CachingRequestHandler(nodeProvider, computationFactory, database, config.getRoutingDeadline(),
+        mCache, config.getRouteCacheBucket());
+    mBatchDeadline = config.getRouteBatchDeadline();
+    mBatchLimit = config.getRouteBatchLimit();
+    mGson = new GsonBuilder().registerTypeAdapter(RoutingRequest.class, new RoutingRequestAdapter())
+        .registerTypeAdapter(RoutingResponse.class, new RoutingResponseAdapter()).create();
   }
 
   /**
-   * Initializes the server. Call this method prior to starting the server with
-   * {@link #start()}. Do not call it again afterwards.
+   * Gets the amount of requests that were answered from the cache, including
+   * requests that waited for an identical request computed concurrently.
    *
-   * @throws UncheckedIOException If an I/O exception occurred while creating
-   *                              the server socket.
+   * @return The amount of cache hits
    */
-  public void initialize() throws UncheckedIOException {
-    mServerThread = new Thread(this);
-    try {
-      mServerSocket = new ServerSocket(mConfig.getRoutingServerPort());
-      mServerSocket.setSoTimeout(SOCKET_TIMEOUT);
-    } catch (final IOException e) {
-      throw new UncheckedIOException(e);
-    }
+  public long getAmountOfCacheHits() {
+    return mCache.getAmountOfHits();
   }
 
   /**
-   * Whether or not the server is currently running.<br>
-   * <br>
-   * A request to shutdown can be send using {@link #shutdown()}.
+   * Gets the amount of requests that needed to be computed.
    *
-   * @return <code>True</code> if the server is running, <code>false</code> otherwise
+   * @return The amount of cache misses
    */
-  public boolean isRunning() {
-    return mServerThread.isAlive();
+  public long getAmountOfCacheMisses() {
+    return mCache.getAmountOfMisses();
   }
 
-  /*
-   * (non-Javadoc)
-   * @see java.lang.Runnable#run()
+  /**
+   * Gets the amount of requests that waited for an identical request computed
+   * concurrently instead of computing themselves.
+   *
+   * @return The amount of coalesced requests
    */
-  @Override
-  public void run() {
-    final ExecutorService executor = Executors.newCachedThreadPool();
-    int requestId = -1;
-
-    LOGGER.info("Server ready and waiting for clients");
-    while (mShouldRun) {
-      try {
-        // Accept a client, the handler will close it
-        @SuppressWarnings("resource")
-        final Socket client = mServerSocket.accept();
-
-        // Handle the client
-        requestId++;
-        final ClientHandler handler =
-            new ClientHandler(requestId, client, mNodeProvider, mComputationFactory, mDatabase);
-        executor.execute(handler);
-      } catch (final SocketTimeoutException e) {
-        // Ignore the exception. The timeout is used to repeatedly check if the
-        // server should continue running.
-      } catch (final Exception e) {
-        // TODO Implement some limit of repeated exceptions
-        // Log every exception and try to stay alive
-        LOGGER.error("Unknown exception in routing server routine", e);
-      }
-    }
-
-    LOGGER.info("Routing server is shutting down");
+  public long getAmountOfCoalescedRequests() {
+    return mCache.getAmountOfCoalesced();
   }
 
   /**
-   * Requests the server to shutdown.<br>
-   * <br>
-   * The current status can be checked with {@link #isRunning()}. Once a server
-   * was shutdown it should not be used anymore, instead create a new one.
+   * Gets the ratio of requests that were answered without an own computation.
+   *
+   * @return The hit rate between <code>0.0</code> and <code>1.0</code>
    */
-  public void shutdown() {
-    mShouldRun = false;
-    LOGGER.info("Set shutdown request to routing server");
+  public double getCacheHitRate() {
+    return mCache.getHitRate();
   }
 
   /**
-   * Starts the server.<br>
-   * <br>
-   * Make sure {@link #initialize()} is called before. Request the server to
-   * shutdown by using {@link #shutdown()}, the current status can be checked
-   * with {@link #isRunning()}. Once a server was shutdown it should not be used
-   * anymore, instead create a new one.
+   * Registers the REST API at the given HTTP server. Must be called before the
+   * HTTP server is started.
+   *
+   * @param server The HTTP server to serve the API on
+   * @param lane   The lane of the HTTP server to answer the requests on
    */
-  public void start() {
-    if (isRunning()) {
-      return;
-    }
-    LOGGER.info("Starting routing server");
-    mShouldRun = true;
-    mServerThread.start();
+  public void register(final HttpServer server, final String lane) {
+    server.addHandler(API_RESOURCE, new ClientHandler(mHandler, mGson), lane);
+    final BatchClientHandler batchHandler = new BatchClientHandler(request -> mHandler.handleRequest(mGson, request),
+        mGson, server.getLaneExecutor(lane), mBatchLimit, mBatchDeadline);
+    server.addHandler(BATCH_API_RESOURCE, batchHandler, lane);
   }
 
 }
@@ -0,0 +1,101 @@
+package de.unifreiburg.informatik.cobweb.routing.server.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Type adapter which streams {@link Journey}s from and to JSON.<br>
+ * <br>
+ * The format matches the one produced by reflection with a
+ * {@link de.unifreiburg.informatik.cobweb.util.MemberFieldNamingStrategy
+ * MemberFieldNamingStrategy}. The route elements are streamed using a
+ * {@link RouteElementAdapter}. The adapter is stateless and thus thread-safe.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class JourneyAdapter extends TypeAdapter<Journey> {
+  /**
+   * Name of the arrival time property.
+   */
+  private static final String ARR_TIME = "arrTime";
+  /**
+   * Name of the departure time property.
+   */
+  private static final String DEP_TIME = "depTime";
+  /**
+   * Name of the route property.
+   */
+  private static final String ROUTE = "route";
+  /**
+   * The adapter used for the route elements of the journeys.
+   */
+  private final RouteElementAdapter mElementAdapter;
+
+  /**
+   * Creates a new journey adapter.
+   */
+  public JourneyAdapter() {
+    mElementAdapter = new RouteElementAdapter();
+  }
+
+  @Override
+  public Journey read(final JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+
+    long depTime = 0L;
+    long arrTime = 0L;
+    List<RouteElement> route = null;
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case ARR_TIME:
+          arrTime = in.nextLong();
+          break;
+        case DEP_TIME:
+          depTime = in.nextLong();
+          break;
+        case ROUTE:
+          route = new ArrayList<>();
+          in.beginArray();
+          while (in.hasNext()) {
+            route.add(mElementAdapter.read(in));
+          }
+          in.endArray();
+          break;
+        default:
+          in.skipValue();
+          break;
+      }
+    }
+    in.endObject();
+    return new Journey(depTime, arrTime, route);
+  }
+
+  @Override
+  public void write(final JsonWriter out, final Journey journey) throws IOException {
+    if (journey == null) {
+      out.nullValue();
+      return;
+    }
+
+    out.beginObject();
+    out.name(ARR_TIME).value(journey.getArrTime());
+    out.name(DEP_TIME).value(journey.getDepTime());
+    out.name(ROUTE);
+    out.beginArray();
+    for (final RouteElement element : journey.getRoute()) {
+      mElementAdapter.write(out, element);
+    }
+    out.endArray();
+    out.endObject();
+  }
+}
@@ -0,0 +1,126 @@
+package de.unifreiburg.informatik.cobweb.routing.server.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+
+/**
+ * Type adapter which streams {@link RouteElement}s from and to JSON.<br>
+ * <br>
+ * The format matches the one produced by reflection with a
+ * {@link de.unifreiburg.informatik.cobweb.util.MemberFieldNamingStrategy
+ * MemberFieldNamingStrategy}. The coordinates are written without boxing them.
+ * The adapter is stateless and thus thread-safe.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class RouteElementAdapter extends TypeAdapter<RouteElement> {
+  /**
+   * Name of the coordinates property.
+   */
+  private static final String GEOM = "geom";
+  /**
+   * Name of the transportation mode property.
+   */
+  private static final String MODE = "mode";
+  /**
+   * Name of the name property.
+   */
+  private static final String NAME = "name";
+  /**
+   * Name of the type property.
+   */
+  private static final String TYPE = "type";
+
+  /**
+   * Reads a latitude and longitude coordinate.
+   *
+   * @param in The reader to read from
+   * @return The coordinate as array of size <code>2</code>
+   * @throws IOException If an I/O exception occurred while reading
+   */
+  private static float[] readCoordinate(final JsonReader in) throws IOException {
+    final float[] coordinate = new float[2];
+    in.beginArray();
+    coordinate[0] = (float) in.nextDouble();
+    coordinate[1] = (float) in.nextDouble();
+    in.endArray();
+    return coordinate;
+  }
+
+  @Override
+  public RouteElement read(final JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+
+    ERouteElementType type = null;
+    ETransportationMode mode = null;
+    String name = null;
+    List<float[]> geom = null;
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case TYPE:
+          type = ERouteElementType.fromValue(in.nextInt());
+          break;
+        case MODE:
+          mode = ETransportationMode.fromValue(in.nextInt());
+          break;
+        case NAME:
+          name = in.nextString();
+          break;
+        case GEOM:
+          geom = new ArrayList<>();
+          in.beginArray();
+          while (in.hasNext()) {
+            geom.add(RouteElementAdapter.readCoordinate(in));
+          }
+          in.endArray();
+          break;
+        default:
+          in.skipValue();
+          break;
+      }
+    }
+    in.endObject();
+
+    if (type == null || mode == null) {
+      throw new JsonSyntaxException("Route element has an unknown type or transportation mode");
+    }
+    return new RouteElement(type, mode, name, geom);
+  }
+
+  @Override
+  public void write(final JsonWriter out, final RouteElement element) throws IOException {
+    if (element == null) {
+      out.nullValue();
+      return;
+    }
+
+    out.beginObject();
+    out.name(GEOM);
+    out.beginArray();
+    for (final float[] coordinate : element.getGeom()) {
+      out.beginArray();
+      // Floats are written in their shortest form, like Gson does for boxed floats
+      out.jsonValue(Float.toString(coordinate[0]));
+      out.jsonValue(Float.toString(coordinate[1]));
+      out.endArray();
+    }
+    out.endArray();
+    out.name(MODE).value(element.getMode().getValue());
+    out.name(NAME).value(element.getName());
+    out.name(TYPE).value(element.getType().getValue());
+    out.endObject();
+  }
+}
@@ -11,7 +11,9 @@ import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
  * POJO that models a routing request.<br>
  * <br>
  * A request consists of departure time, source and destination nodes and
- * meta-data like desired transportation modes.<br>
+ * meta-data like desired transportation modes. Optionally, a range of
+ * departure times can be given, requesting all good journeys departing within
+ * the range.<br>
  * <br>
  * It has the exact structure that is expected as request format for the REST
  * API. It is primarily used to be constructed from the clients JSON request.
@@ -23,6 +25,12 @@ public final class RoutingRequest {
    * The departure time to start journeys with, in milliseconds since epoch.
    */
   private long mDepTime;
+  /**
+   * The range of departure times, in milliseconds. Journeys may depart between
+   * the departure time and the departure time plus the range. <code>0</code>
+   * if only the departure time itself is requested.
+   */
+  private long mDepTimeRange;
   /**
    * The unique ID of the node to start the journey from.
    */
@@ -49,9 +57,28 @@ public final class RoutingRequest {
    *                be empty
    */
   public RoutingRequest(final long from, final long to, final long depTime, final Set<ETransportationMode> modes) {
+    this(from, to, depTime, 0L, modes);
+  }
+
+  /**
+   * Creates a new routing request for a range of departure times.
+   *
+   * @param from         The unique ID of the node to start the journey from
+   * @param to           The unique ID of the node to end the journey at
+   * @param depTime      The departure time to start journeys with, in
+   *                     milliseconds since epoch
+   * @param depTimeRange The range of departure times, in milliseconds.
+   *                     <code>0</code> if only the departure time itself is
+   *                     requested.
+   * @param modes        A set containing all allowed transportation modes, must
+   *                     not be empty
+   */
+  public RoutingRequest(final long from, final long to, final long depTime, final long depTimeRange,
+      final Set<ETransportationMode> modes) {
     mFrom = from;
     mTo = to;
     mDepTime = depTime;
+    mDepTimeRange = depTimeRange;
     setTransportationModes(modes);
   }
 
@@ -74,6 +101,17 @@ public final class RoutingRequest {
     return mDepTime;
   }
 
+  /**
+   * Gets the range of departure times. Journeys may depart between the
+   * departure time and the departure time plus the range.
+   *
+   * @return The range of departure times in milliseconds, <code>0</code> if
+   *         only the departure time itself is requested
+   */
+  public long getDepTimeRange() {
+    return mDepTimeRange;
+  }
+
   /**
    * Gets the unique ID of the node to start the journey from.
    *
@@ -114,6 +152,8 @@ public final class RoutingRequest {
     builder.append(mTo);
     builder.append(", depTime=");
     builder.append(mDepTime);
+    builder.append(", depTimeRange=");
+    builder.append(mDepTimeRange);
     builder.append(", modes=");
     builder.append(Arrays.toString(mModes));
     builder.append("]");
@@ -0,0 +1,119 @@
+package de.unifreiburg.informatik.cobweb.routing.server.model;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+
+/**
+ * Type adapter which streams {@link RoutingRequest}s from and to JSON.<br>
+ * <br>
+ * The format matches the one produced by reflection with a
+ * {@link de.unifreiburg.informatik.cobweb.util.MemberFieldNamingStrategy
+ * MemberFieldNamingStrategy}. Requests without or with unknown transportation
+ * modes are rejected while reading. The adapter is stateless and thus
+ * thread-safe.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class RoutingRequestAdapter extends TypeAdapter<RoutingRequest> {
+  /**
+   * Name of the departure time property.
+   */
+  private static final String DEP_TIME = "depTime";
+  /**
+   * Name of the departure time range property.
+   */
+  private static final String DEP_TIME_RANGE = "depTimeRange";
+  /**
+   * Name of the source node property.
+   */
+  private static final String FROM = "from";
+  /**
+   * Name of the transportation modes property.
+   */
+  private static final String MODES = "modes";
+  /**
+   * Name of the destination node property.
+   */
+  private static final String TO = "to";
+
+  @Override
+  public RoutingRequest read(final JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+
+    long from = 0L;
+    long to = 0L;
+    long depTime = 0L;
+    long depTimeRange = 0L;
+    final Set<ETransportationMode> modes = EnumSet.noneOf(ETransportationMode.class);
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case DEP_TIME:
+          depTime = in.nextLong();
+          break;
+        case DEP_TIME_RANGE:
+          depTimeRange = in.nextLong();
+          break;
+        case FROM:
+          from = in.nextLong();
+          break;
+        case MODES:
+          in.beginArray();
+          while (in.hasNext()) {
+            final ETransportationMode mode = ETransportationMode.fromValue(in.nextInt());
+            if (mode == null) {
+              throw new JsonSyntaxException("Routing request has an unknown transportation mode");
+            }
+            modes.add(mode);
+          }
+          in.endArray();
+          break;
+        case TO:
+          to = in.nextLong();
+          break;
+        default:
+          in.skipValue();
+          break;
+      }
+    }
+    in.endObject();
+
+    if (modes.isEmpty()) {
+      throw new JsonSyntaxException("Routing request has no transportation modes");
+    }
+    return new RoutingRequest(from, to, depTime, depTimeRange, modes);
+  }
+
+  @Override
+  public void write(final JsonWriter out, final RoutingRequest request) throws IOException {
+    if (request == null) {
+      out.nullValue();
+      return;
+    }
+
+    out.beginObject();
+    out.name(DEP_TIME).value(request.getDepTime());
+    out.name(DEP_TIME_RANGE).value(request.getDepTimeRange());
+    out.name(FROM).value(request.getFrom());
+    out.name(MODES);
+    out.beginArray();
+    for (final ETransportationMode mode : request.getModes()) {
+      out.value(mode.getValue());
+    }
+    out.endArray();
+    out.name(TO).value(request.getTo());
+    out.endObject();
+  }
+}
@@ -0,0 +1,119 @@
+package de.unifreiburg.informatik.cobweb.routing.server.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Type adapter which streams {@link RoutingResponse}s from and to JSON.<br>
+ * <br>
+ * The format matches the one produced by reflection with a
+ * {@link de.unifreiburg.informatik.cobweb.util.MemberFieldNamingStrategy
+ * MemberFieldNamingStrategy}. The journeys are streamed using a
+ * {@link JourneyAdapter}. The adapter is stateless and thus thread-safe.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class RoutingResponseAdapter extends TypeAdapter<RoutingResponse> {
+  /**
+   * Name of the computation time property.
+   */
+  private static final String COMP_TIME = "compTime";
+  /**
+   * Name of the source node property.
+   */
+  private static final String FROM = "from";
+  /**
+   * Name of the journeys property.
+   */
+  private static final String JOURNEYS = "journeys";
+  /**
+   * Name of the departure time property.
+   */
+  private static final String TIME = "time";
+  /**
+   * Name of the destination node property.
+   */
+  private static final String TO = "to";
+  /**
+   * The adapter used for the journeys of the responses.
+   */
+  private final JourneyAdapter mJourneyAdapter;
+
+  /**
+   * Creates a new routing response adapter.
+   */
+  public RoutingResponseAdapter() {
+    mJourneyAdapter = new JourneyAdapter();
+  }
+
+  @Override
+  public RoutingResponse read(final JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+
+    long time = 0L;
+    long compTime = 0L;
+    long from = 0L;
+    long to = 0L;
+    List<Journey> journeys = null;
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case COMP_TIME:
+          compTime = in.nextLong();
+          break;
+        case FROM:
+          from = in.nextLong();
+          break;
+        case JOURNEYS:
+          journeys = new ArrayList<>();
+          in.beginArray();
+          while (in.hasNext()) {
+            journeys.add(mJourneyAdapter.read(in));
+          }
+          in.endArray();
+          break;
+        case TIME:
+          time = in.nextLong();
+          break;
+        case TO:
+          to = in.nextLong();
+          break;
+        default:
+          in.skipValue();
+          break;
+      }
+    }
+    in.endObject();
+    return new RoutingResponse(time, compTime, from, to, journeys);
+  }
+
+  @Override
+  public void write(final JsonWriter out, final RoutingResponse response) throws IOException {
+    if (response == null) {
+      out.nullValue();
+      return;
+    }
+
+    out.beginObject();
+    out.name(COMP_TIME).value(response.getCompTime());
+    out.name(FROM).value(response.getFrom());
+    out.name(JOURNEYS);
+    out.beginArray();
+    for (final Journey journey : response.getJourneys()) {
+      mJourneyAdapter.write(out, journey);
+    }
+    out.endArray();
+    out.name(TIME).value(response.getTime());
+    out.name(TO).value(response.getTo());
+    out.endObject();
+  }
+}
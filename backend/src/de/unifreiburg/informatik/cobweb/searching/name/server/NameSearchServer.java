@@ -1,14 +1,7 @@
 package de.unifreiburg.informatik.cobweb.searching.name.server;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketTimeoutException;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +11,7 @@ import de.unifreiburg.informatik.cobweb.db.INameSearchDatabase;
 import de.unifreiburg.informatik.cobweb.searching.name.model.NodeNameSet;
 import de.unifreiburg.informatik.cobweb.searching.name.server.model.NameSearchRequest;
 import de.unifreiburg.informatik.cobweb.searching.name.server.model.NameSearchResponse;
+import de.unifreiburg.informatik.cobweb.util.http.HttpServer;
 import de.zabuza.lexisearch.indexing.IKeyRecord;
 import de.zabuza.lexisearch.indexing.qgram.QGramProvider;
 import de.zabuza.lexisearch.queries.FuzzyPrefixQuery;
@@ -28,10 +22,10 @@ import de.zabuza.lexisearch.ranking.PostingBeforeRecordRanking;
  * requests.<br>
  * <br>
  * After construction the {@link #initialize()} method should be called.
- * Afterwards it can be started by using {@link #start()}. Request the server to
- * shutdown by using {@link #shutdown()}, the current status can be checked with
- * {@link #isRunning()}. Once a server was shutdown it should not be used
- * anymore, instead create a new one.<br>
+ * Afterwards the API should be registered at a {@link HttpServer} by using
+ * {@link #register(HttpServer, String)}. The HTTP server then serves it under
+ * the resource {@link #API_RESOURCE}, together with the APIs of other
+ * services.<br>
  * <br>
  * A request consists of a name, which can be a prefix and fuzzy, and a maximal
  * amount of matches interested in. A response consists of a list of matches,
@@ -46,13 +40,17 @@ import de.zabuza.lexisearch.ranking.PostingBeforeRecordRanking;
  * <code>OPTIONS</code>. The server will send <code>BAD REQUEST</code> to invalid
  * requests.<br>
  * <br>
- * The server itself handles clients in parallel using a cached thread pool. For
- * construction it wants a configuration and a database for retrieving the name
- * data-set.
+ * For construction it wants a configuration and a database for retrieving the
+ * name data-set.
  *
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
-public final class NameSearchServer implements Runnable {
+public final class NameSearchServer {
+  /**
+   * Resource that is to be requested from a client if he submits a name search
+   * query.
+   */
+  public static final String API_RESOURCE = "/namesearch";
   /**
    * Logger used for logging.
    */
@@ -62,13 +60,8 @@ public final class NameSearchServer implements Runnable {
    */
   private static final int Q_GRAM_VALUE = 3;
   /**
-   * The timeout used when waiting for a client to connect, in milliseconds. The
-   * server status is checked after each timeout.
-   */
-  private static final int SOCKET_TIMEOUT = 2_000;
-  /**
-   * Configuration provider which provides the port that should be used by the
-   * server.
+   * Configuration provider which provides the maximal amount of matches to
+   * send.
    */
   private final INameSearchConfigProvider mConfig;
   /**
@@ -87,31 +80,17 @@ public final class NameSearchServer implements Runnable {
    * The data-set of node names to query on.
    */
   private NodeNameSet mNodeNames;
-  /**
-   * The server socket to use for communication.
-   */
-  private ServerSocket mServerSocket;
-  /**
-   * The thread to run this server on.
-   */
-  private Thread mServerThread;
-  /**
-   * Whether or not the server thread should run.
-   */
-  private volatile boolean mShouldRun;
 
   /**
    * Creates a new name search server with the given configuration that works
    * with the given tools.<br>
    * <br>
    * After construction the {@link #initialize()} method should be called.
-   * Afterwards it can be started by using {@link #start()}. Request the server
-   * to shutdown by using {@link #shutdown()}, the current status can be checked
-   * with {@link #isRunning()}. Once a server was shutdown it should not be used
-   * anymore, instead create a new one.
+   * Afterwards the API should be registered at a {@link HttpServer} by using
+   * {@link #register(HttpServer, String)}.
    *
-   * @param config   Configuration provider which provides the port that should
-   *                 be used by the server
+   * @param config   Configuration provider which provides the maximal amount of
+   *                 matches to send
    * @param database Database used for retrieving the name data-set
    */
   public NameSearchServer(final INameSearchConfigProvider config, final INameSearchDatabase database) {
@@ -120,94 +99,23 @@ public final class NameSearchServer implements Runnable {
   }
 
   /**
-   * Initializes the server. Call this method prior to starting the server with
-   * {@link #start()}. Do not call it again afterwards.
-   *
-   * @throws UncheckedIOException If an I/O exception occurred while creating
-   *                              the server socket.
+   * Initializes the server. Call this method prior to registering the API with
+   * {@link #register(HttpServer, String)}. Do not call it again afterwards.
    */
-  public void initialize() throws UncheckedIOException {
+  public void initialize() {
     initializeFuzzyPrefixQuery();
     mMatchLimit = mConfig.getMatchLimit();
-    mServerThread = new Thread(this);
-    try {
-      mServerSocket = new ServerSocket(mConfig.getNameSearchServerPort());
-      mServerSocket.setSoTimeout(SOCKET_TIMEOUT);
-    } catch (final IOException e) {
-      throw new UncheckedIOException(e);
-    }
   }
 
   /**
-   * Whether or not the server is currently running.<br>
-   * <br>
-   * A request to shutdown can be send using {@link #shutdown()}.
+   * Registers the REST API at the given HTTP server. Must be called after
+   * {@link #initialize()} and before the HTTP server is started.
    *
-   * @return <code>True</code> if the server is running, <code>false</code> otherwise
-   */
-  public boolean isRunning() {
-    return mServerThread.isAlive();
-  }
-
-  /*
-   * (non-Javadoc)
-   * @see java.lang.Runnable#run()
-   */
-  @Override
-  public void run() {
-    final ExecutorService executor = Executors.newCachedThreadPool();
-    int requestId = -1;
-
-    LOGGER.info("Server ready and waiting for clients");
-    while (mShouldRun) {
-      try {
-        // Accept a client, the handler will close it
-        @SuppressWarnings("resource")
-        final Socket client = mServerSocket.accept();
-
-        // Handle the client
-        requestId++;
-        final ClientHandler handler = new ClientHandler(requestId, client, mFuzzyQuery, mNodeNames, mMatchLimit);
-        executor.execute(handler);
-      } catch (final SocketTimeoutException e) {
-        // Ignore the exception. The timeout is used to repeatedly check if the
-        // server should continue running.
-      } catch (final Exception e) {
-        // TODO Implement some limit of repeated exceptions
-        // Log every exception and try to stay alive
-        LOGGER.error("Unknown exception in name search server routine", e);
-      }
-    }
-
-    LOGGER.info("Name search server is shutting down");
-  }
-
-  /**
-   * Requests the server to shutdown.<br>
-   * <br>
-   * The current status can be checked with {@link #isRunning()}. Once a server
-   * was shutdown it should not be used anymore, instead create a new one.
-   */
-  public void shutdown() {
-    mShouldRun = false;
-    LOGGER.info("Set shutdown request to name search server");
-  }
-
-  /**
-   * Starts the server.<br>
-   * <br>
-   * Make sure {@link #initialize()} is called before. Request the server to
-   * shutdown by using {@link #shutdown()}, the current status can be checked
-   * with {@link #isRunning()}. Once a server was shutdown it should not be used
-   * anymore, instead create a new one.
+   * @param server The HTTP server to serve the API on
+   * @param lane   The lane of the HTTP server to answer the requests on
    */
-  public void start() {
-    if (isRunning()) {
-      return;
-    }
-    LOGGER.info("Starting name search server");
-    mShouldRun = true;
-    mServerThread.start();
+  public void register(final HttpServer server, final String lane) {
+    server.addHandler(API_RESOURCE, new ClientHandler(mFuzzyQuery, mNodeNames, mMatchLimit), lane);
   }
 
   /**
@@ -1,7 +1,5 @@
 package de.unifreiburg.informatik.cobweb.searching.nearest.server;
 
-import java.io.IOException;
-import java.net.Socket;
 import java.util.Optional;
 
 import org.slf4j.Logger;
@@ -17,12 +15,13 @@ import de.unifreiburg.informatik.cobweb.searching.nearest.server.model.NearestSe
 import de.unifreiburg.informatik.cobweb.searching.nearest.server.model.NearestSearchResponse;
 import de.unifreiburg.informatik.cobweb.util.RoutingUtil;
 import de.unifreiburg.informatik.cobweb.util.http.EHttpContentType;
+import de.unifreiburg.informatik.cobweb.util.http.HttpResponse;
 import de.unifreiburg.informatik.cobweb.util.http.HttpResponseBuilder;
-import de.unifreiburg.informatik.cobweb.util.http.HttpUtil;
+import de.unifreiburg.informatik.cobweb.util.http.PooledContentBuffer;
 
 /**
  * Class that handles a nearest search request. It parses the request, computes
- * corresponding matches and builds and sends a proper response.<br>
+ * corresponding matches and builds a proper response.<br>
  * <br>
  * To handle a request call {@link #handleRequest(NearestSearchRequest)}.
  *
@@ -33,10 +32,6 @@ public final class RequestHandler {
    * Logger used for logging
    */
   private static final Logger LOGGER = LoggerFactory.getLogger(RequestHandler.class);
-  /**
-   * The client whose request to handle.
-   */
-  private final Socket mClient;
   /**
    * The database to use for retrieving node data.
    */
@@ -51,12 +46,10 @@ public final class RequestHandler {
   private final INearestNeighborComputation<ICoreNode> mNearestNeighborComputation;
 
   /**
-   * Creates a new handler which handles requests of the given client using the
-   * given algorithm.<br>
+   * Creates a new handler which handles requests using the given algorithm.<br>
    * <br>
    * To handle a request call {@link #handleRequest(NearestSearchRequest)}.
    *
-   * @param client                     The client whose request to handle
    * @param gson                       The GSON object used to format JSON
    *                                   responses
    * @param nearestNeighborComputation Nearest neighbor computation algorithm to
@@ -64,9 +57,8 @@ public final class RequestHandler {
    * @param database                   The database to use for retrieving node
    *                                   data
    */
-  public RequestHandler(final Socket client, final Gson gson,
-      final INearestNeighborComputation<ICoreNode> nearestNeighborComputation, final INearestSearchDatabase database) {
-    mClient = client;
+  public RequestHandler(final Gson gson, final INearestNeighborComputation<ICoreNode> nearestNeighborComputation,
+      final INearestSearchDatabase database) {
     mGson = gson;
     mNearestNeighborComputation = nearestNeighborComputation;
     mDatabase = database;
@@ -74,12 +66,12 @@ public final class RequestHandler {
 
   /**
    * Handles the given nearest search request. It computes the nearest node and
-   * constructs and sends a proper response.
+   * constructs a proper response.
    *
    * @param request The request to handle
-   * @throws IOException If an I/O exception occurred while sending a response
+   * @return The HTTP response to send back to the client
    */
-  public void handleRequest(final NearestSearchRequest request) throws IOException {
+  public HttpResponse handleRequest(final NearestSearchRequest request) {
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Handling request: {}", request);
     }
@@ -88,52 +80,50 @@ public final class RequestHandler {
     final RoadNode wrapperRequestNode = new RoadNode(-1, request.getLatitude(), request.getLongitude());
     final Optional<ICoreNode> possibleNearestNode = mNearestNeighborComputation.getNearestNeighbor(wrapperRequestNode);
     if (!possibleNearestNode.isPresent()) {
-      sendEmptyResponse(startTime);
-      return;
+      return createEmptyResponse(startTime);
     }
     final ICoreNode nearestNode = possibleNearestNode.get();
     final Optional<Long> possibleId = mDatabase.getOsmNodeByInternal(nearestNode.getId());
     if (!possibleId.isPresent()) {
-      sendEmptyResponse(startTime);
-      return;
+      return createEmptyResponse(startTime);
     }
     final long id = possibleId.get();
 
     final long endTime = System.nanoTime();
 
-    // Build and send response
+    // Build response
     final NearestSearchResponse response = new NearestSearchResponse(RoutingUtil.nanosToMillis(endTime - startTime), id,
         nearestNode.getLatitude(), nearestNode.getLongitude());
-    sendResponse(response);
+    return createResponse(response);
   }
 
   /**
-   * Sends an empty nearest search response. This is usually used if no nearest
-   * node could be found.
+   * Creates an empty nearest search response. This is usually used if no
+   * nearest node could be found.
    *
    * @param startTime The time the computation started, in nanoseconds. Must be
    *                  compatible with {@link System#nanoTime()}.
-   * @throws IOException If an I/O exception occurred while sending the response
+   * @return The resulting HTTP response
    */
-  private void sendEmptyResponse(final long startTime) throws IOException {
+  private HttpResponse createEmptyResponse(final long startTime) {
     final long endTime = System.nanoTime();
     final NearestSearchResponse response =
         new NearestSearchResponse(RoutingUtil.nanosToMillis(endTime - startTime), -1L, 0.0f, 0.0f);
-    sendResponse(response);
+    return createResponse(response);
   }
 
   /**
-   * Sends the given nearest search response.
+   * Creates the HTTP response for the given nearest search response.
    *
    * @param response The response to send
-   * @throws IOException If an I/O exception occurred while sending the response
+   * @return The resulting HTTP response
    */
-  private void sendResponse(final NearestSearchResponse response) throws IOException {
+  private HttpResponse createResponse(final NearestSearchResponse response) {
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Sending response: {}", response);
     }
-    final String content = mGson.toJson(response);
-    HttpUtil.sendHttpResponse(
-        new HttpResponseBuilder().setContentType(EHttpContentType.JSON).setContent(content).build(), mClient);
+    final PooledContentBuffer content = PooledContentBuffer.acquire();
+    content.writeJson(mGson, response, NearestSearchResponse.class);
+    return new HttpResponseBuilder().setContentType(EHttpContentType.JSON).setContent(content).build();
   }
 }
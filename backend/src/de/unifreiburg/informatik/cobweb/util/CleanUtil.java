@@ -72,7 +72,8 @@ public final class CleanUtil {
   /**
    * Cleans the graph cache provided by the given configuration.<br>
    * <br>
-   * This includes the graph cache and its info file, if the flag
+   * This includes the graph cache, its info file, the landmark cache, the stop
+   * to road node cache and the trip transfer cache, if the flag
    * {@link IRoutingConfigProvider#useGraphCache()} is set.
    *
    * @param routingConfig The routing configuration providing paths to the graph
@@ -85,6 +86,9 @@ public final class CleanUtil {
 
     CleanUtil.deleteIfPossible(routingConfig.getGraphCache());
     CleanUtil.deleteIfPossible(routingConfig.getGraphCacheInfo());
+    CleanUtil.deleteIfPossible(routingConfig.getLandmarkCache());
+    CleanUtil.deleteIfPossible(routingConfig.getStopToRoadNodeCache());
+    CleanUtil.deleteIfPossible(routingConfig.getTripTransfersCache());
   }
 
   /**
@@ -0,0 +1,264 @@
+package de.unifreiburg.informatik.cobweb.util.collections;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe cache which computes missing values on demand and coalesces
+ * concurrent computations of the same key.<br>
+ * <br>
+ * The cache holds at most a given amount of values and evicts the least
+ * recently used value once it is full. Values expire after a given time to
+ * live. If multiple threads request the same missing key at the same time,
+ * only the first one computes the value while the others wait for it.<br>
+ * <br>
+ * The amount of hits and misses is counted, a request that waited for the
+ * computation of another thread counts as hit.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ * @param <K> Type of the key
+ * @param <V> Type of the value
+ */
+public final class CoalescingCache<K, V> {
+  /**
+   * Waits for the given computation to complete and returns its value.
+   *
+   * @param       <V> Type of the value
+   * @param computation The computation to wait for
+   * @return The value of the computation
+   */
+  private static <V> V join(final CompletableFuture<V> computation) {
+    try {
+      return computation.join();
+    } catch (final CompletionException e) {
+      // Propagate the exception the computation failed with
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * The amount of requests that waited for the computation of another thread.
+   */
+  private final AtomicLong mCoalesced;
+  /**
+   * Map connecting keys to their cached value and its expiration time. Ordered
+   * by access, starting with the least recently used entry. Access must be
+   * synchronized on the map.
+   */
+  private final Map<K, Pair<V, Long>> mEntries;
+  /**
+   * The amount of requests answered without an own computation.
+   */
+  private final AtomicLong mHits;
+  /**
+   * Map connecting keys to the computations currently running for them.
+   */
+  private final Map<K, CompletableFuture<V>> mInFlight;
+  /**
+   * Predicate which decides whether a computed value is cached.
+   */
+  private final Predicate<? super V> mIsCacheable;
+  /**
+   * The maximal amount of values held by the cache.
+   */
+  private final int mMaximumSize;
+  /**
+   * The amount of requests that computed their value.
+   */
+  private final AtomicLong mMisses;
+  /**
+   * The time a value stays in the cache, in nanoseconds.
+   */
+  private final long mTimeToLive;
+
+  /**
+   * Creates a new initially empty cache.
+   *
+   * @param maximumSize The maximal amount of values held by the cache,
+   *                    <code>0</code> disables caching but still coalesces
+   *                    concurrent computations
+   * @param timeToLive  The time a value stays in the cache, in milliseconds
+   * @param isCacheable Predicate which decides whether a computed value is
+   *                    cached, values it rejects are only passed to the
+   *                    requests that waited for them
+   */
+  public CoalescingCache(final int maximumSize, final long timeToLive, final Predicate<? super V> isCacheable) {
+    mMaximumSize = maximumSize;
+    mTimeToLive = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+    mIsCacheable = isCacheable;
+    mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    mInFlight = new ConcurrentHashMap<>();
+    mHits = new AtomicLong();
+    mMisses = new AtomicLong();
+    mCoalesced = new AtomicLong();
+  }
+
+  /**
+   * Removes all values from the cache.
+   */
+  public void clear() {
+    synchronized (mEntries) {
+      mEntries.clear();
+    }
+  }
+
+  /**
+   * Gets the value of the given key. If it is not cached, it is computed by
+   * the given computation and cached afterwards. If another thread already
+   * computes the value, the current thread waits for it instead.
+   *
+   * @param key         The key to get the value of
+   * @param computation The computation to use if the value is not cached, it
+   *                    is executed by the current thread
+   * @return The value of the key
+   */
+  public V get(final K key, final Function<? super K, ? extends V> computation) {
+    final V cachedValue = getCached(key);
+    if (cachedValue != null) {
+      mHits.incrementAndGet();
+      return cachedValue;
+    }
+
+    final CompletableFuture<V> ownComputation = new CompletableFuture<>();
+    final CompletableFuture<V> runningComputation = mInFlight.putIfAbsent(key, ownComputation);
+    if (runningComputation != null) {
+      mHits.incrementAndGet();
+      mCoalesced.incrementAndGet();
+      return CoalescingCache.join(runningComputation);
+    }
+
+    try {
+      // The value may have been cached while registering the computation
+      V value = getCached(key);
+      if (value != null) {
+        mHits.incrementAndGet();
+      } else {
+        mMisses.incrementAndGet();
+        value = computation.apply(key);
+        if (mIsCacheable.test(value)) {
+          put(key, value);
+        }
+      }
+      ownComputation.complete(value);
+      return value;
+    } catch (final RuntimeException | Error e) {
+      ownComputation.completeExceptionally(e);
+      throw e;
+    } finally {
+      mInFlight.remove(key, ownComputation);
+    }
+  }
+
+  /**
+   * Gets the amount of requests that waited for the computation of another
+   * thread.
+   *
+   * @return The amount of coalesced requests
+   */
+  public long getAmountOfCoalesced() {
+    return mCoalesced.get();
+  }
+
+  /**
+   * Gets the amount of requests that were answered without an own
+   * computation, including coalesced requests.
+   *
+   * @return The amount of hits
+   */
+  public long getAmountOfHits() {
+    return mHits.get();
+  }
+
+  /**
+   * Gets the amount of requests that computed their value.
+   *
+   * @return The amount of misses
+   */
+  public long getAmountOfMisses() {
+    return mMisses.get();
+  }
+
+  /**
+   * Gets the ratio of requests that were answered without an own computation.
+   *
+   * @return The hit rate between <code>0.0</code> and <code>1.0</code>,
+   *         <code>0.0</code> if there were no requests yet
+   */
+  public double getHitRate() {
+    final long hits = mHits.get();
+    final long requests = hits + mMisses.get();
+    if (requests == 0) {
+      return 0.0;
+    }
+    return (double) hits / requests;
+  }
+
+  /**
+   * Gets the amount of values currently held by the cache, including expired
+   * values that were not removed yet.
+   *
+   * @return The amount of values
+   */
+  public int size() {
+    synchronized (mEntries) {
+      return mEntries.size();
+    }
+  }
+
+  /**
+   * Gets the cached value of the given key. Removes the value if it has
+   * expired.
+   *
+   * @param key The key to get the value of
+   * @return The value of the key or <code>null</code> if it is not cached
+   */
+  private V getCached(final K key) {
+    synchronized (mEntries) {
+      final Pair<V, Long> entry = mEntries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (System.nanoTime() - entry.getSecond().longValue() >= 0) {
+        mEntries.remove(key);
+        return null;
+      }
+      return entry.getFirst();
+    }
+  }
+
+  /**
+   * Caches the given value for the given key. Evicts the least recently used
+   * value if the cache is full.
+   *
+   * @param key   The key of the value
+   * @param value The value to cache
+   */
+  private void put(final K key, final V value) {
+    if (mMaximumSize <= 0) {
+      return;
+    }
+    final Long expiration = Long.valueOf(System.nanoTime() + mTimeToLive);
+    synchronized (mEntries) {
+      mEntries.put(key, new Pair<>(value, expiration));
+      if (mEntries.size() > mMaximumSize) {
+        final Iterator<K> keyIter = mEntries.keySet().iterator();
+        keyIter.next();
+        keyIter.remove();
+      }
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package de.unifreiburg.informatik.cobweb.util.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap over non-negative <code>int</code> elements with
+ * <code>double</code> keys which supports decreasing the key of a contained
+ * element.<br>
+ * <br>
+ * The elements are interpreted as indices, the heap maintains an array which
+ * connects every element to its position in the heap. As such, elements should
+ * be dense, the memory footprint is linear in the greatest element. Apart from
+ * growing, the heap does not allocate memory, it is intended to be reused for
+ * many computations by using {@link #clear()} in between. Clearing only takes
+ * time linear in the amount of contained elements.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class IndexedMinHeap {
+  /**
+   * Value used in {@link #mPositions} to encode that an element is not
+   * contained.
+   */
+  private static final int NOT_CONTAINED = -1;
+
+  /**
+   * The elements of the heap, ordered by the heap property on their keys.
+   */
+  private int[] mHeap;
+  /**
+   * The key of each element, indexed by the element.
+   */
+  private double[] mKeys;
+  /**
+   * The position of each element in {@link #mHeap}, indexed by the element.
+   * {@link #NOT_CONTAINED} encodes that the element is not contained.
+   */
+  private int[] mPositions;
+  /**
+   * The amount of elements contained in the heap.
+   */
+  private int mSize;
+
+  /**
+   * Creates a new initially empty heap.
+   *
+   * @param capacity The initial capacity, i.e. the greatest element that can be
+   *                 contained without growing plus one
+   */
+  public IndexedMinHeap(final int capacity) {
+    mHeap = new int[capacity];
+    mKeys = new double[capacity];
+    mPositions = new int[capacity];
+    Arrays.fill(mPositions, NOT_CONTAINED);
+  }
+
+  /**
+   * Adds the given element with the given key to the heap. The element must
+   * not be contained already.
+   *
+   * @param element The element to add, non-negative
+   * @param key     The key of the element
+   */
+  public void add(final int element, final double key) {
+    ensureCapacity(element + 1);
+    mKeys[element] = key;
+    mHeap[mSize] = element;
+    mPositions[element] = mSize;
+    mSize++;
+    siftUp(mSize - 1);
+  }
+
+  /**
+   * Removes all elements from the heap. Runs in time linear to the amount of
+   * contained elements.
+   */
+  public void clear() {
+    for (int i = 0; i < mSize; i++) {
+      mPositions[mHeap[i]] = NOT_CONTAINED;
+    }
+    mSize = 0;
+  }
+
+  /**
+   * Whether or not the given element is contained in the heap.
+   *
+   * @param element The element in question
+   * @return <code>True</code> if the element is contained, <code>false</code>
+   *         otherwise
+   */
+  public boolean contains(final int element) {
+    return element >= 0 && element < mPositions.length && mPositions[element] != NOT_CONTAINED;
+  }
+
+  /**
+   * Decreases the key of the given contained element to the given value.
+   *
+   * @param element The contained element
+   * @param key     The new key, must not be greater than the current key
+   */
+  public void decreaseKey(final int element, final double key) {
+    mKeys[element] = key;
+    siftUp(mPositions[element]);
+  }
+
+  /**
+   * Ensures that the heap is able to contain all elements less than the given
+   * capacity without growing.
+   *
+   * @param capacity The capacity to ensure
+   */
+  public void ensureCapacity(final int capacity) {
+    final int currentCapacity = mPositions.length;
+    if (capacity <= currentCapacity) {
+      return;
+    }
+    final int newCapacity = Math.max(capacity, currentCapacity + (currentCapacity >> 1));
+    mHeap = Arrays.copyOf(mHeap, newCapacity);
+    mKeys = Arrays.copyOf(mKeys, newCapacity);
+    mPositions = Arrays.copyOf(mPositions, newCapacity);
+    Arrays.fill(mPositions, currentCapacity, newCapacity, NOT_CONTAINED);
+  }
+
+  /**
+   * Gets the key of the given element. The value is only meaningful if the
+   * element is, or was, contained in the heap.
+   *
+   * @param element The element in question
+   * @return The key of the element
+   */
+  public double getKey(final int element) {
+    return mKeys[element];
+  }
+
+  /**
+   * Whether or not the heap is empty.
+   *
+   * @return <code>True</code> if the heap is empty, <code>false</code>
+   *         otherwise
+   */
+  public boolean isEmpty() {
+    return mSize == 0;
+  }
+
+  /**
+   * Gets the element with the smallest key without removing it.
+   *
+   * @return The element with the smallest key
+   * @throws NoSuchElementException If the heap is empty
+   */
+  public int peek() throws NoSuchElementException {
+    if (mSize == 0) {
+      throw new NoSuchElementException();
+    }
+    return mHeap[0];
+  }
+
+  /**
+   * Removes and returns the element with the smallest key.
+   *
+   * @return The element with the smallest key
+   * @throws NoSuchElementException If the heap is empty
+   */
+  public int poll() throws NoSuchElementException {
+    if (mSize == 0) {
+      throw new NoSuchElementException();
+    }
+    final int min = mHeap[0];
+    mPositions[min] = NOT_CONTAINED;
+    mSize--;
+    if (mSize > 0) {
+      final int last = mHeap[mSize];
+      mHeap[0] = last;
+      mPositions[last] = 0;
+      siftDown(0);
+    }
+    return min;
+  }
+
+  /**
+   * Gets the amount of elements contained in the heap.
+   *
+   * @return The amount of elements
+   */
+  public int size() {
+    return mSize;
+  }
+
+  /**
+   * Moves the element at the given position down until the heap property is
+   * restored.
+   *
+   * @param position The position of the element to move
+   */
+  private void siftDown(final int position) {
+    final int element = mHeap[position];
+    final double key = mKeys[element];
+    int current = position;
+    final int half = mSize >>> 1;
+    while (current < half) {
+      int child = 2 * current + 1;
+      final int right = child + 1;
+      if (right < mSize && mKeys[mHeap[right]] < mKeys[mHeap[child]]) {
+        child = right;
+      }
+      final int childElement = mHeap[child];
+      if (key <= mKeys[childElement]) {
+        break;
+      }
+      mHeap[current] = childElement;
+      mPositions[childElement] = current;
+      current = child;
+    }
+    mHeap[current] = element;
+    mPositions[element] = current;
+  }
+
+  /**
+   * Moves the element at the given position up until the heap property is
+   * restored.
+   *
+   * @param position The position of the element to move
+   */
+  private void siftUp(final int position) {
+    final int element = mHeap[position];
+    final double key = mKeys[element];
+    int current = position;
+    while (current > 0) {
+      final int parent = (current - 1) >>> 1;
+      final int parentElement = mHeap[parent];
+      if (mKeys[parentElement] <= key) {
+        break;
+      }
+      mHeap[current] = parentElement;
+      mPositions[parentElement] = current;
+      current = parent;
+    }
+    mHeap[current] = element;
+    mPositions[element] = current;
+  }
+}
@@ -39,7 +39,12 @@ public enum EHttpStatus {
   /**
    * If everything was valid and went okay.
    */
-  OK(200);
+  OK(200),
+  /**
+   * The server is currently unable to handle the request, for example because
+   * it is overloaded.
+   */
+  SERVICE_UNAVAILABLE(503);
 
   /**
    * The status code of the HTTP status.
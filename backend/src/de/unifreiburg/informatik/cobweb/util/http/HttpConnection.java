@@ -0,0 +1,265 @@
+package de.unifreiburg.informatik.cobweb.util.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.Queue;
+
+/**
+ * State of a client connection of a {@link HttpServer}.<br>
+ * <br>
+ * The connection buffers received data and parses requests out of it, one at a
+ * time. Pipelined requests stay in the buffer until the previous request was
+ * answered, which keeps the responses in order. Responses are queued and
+ * written whenever the channel accepts data.<br>
+ * <br>
+ * The class is not thread-safe, it must only be used by the selector thread of
+ * the server.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+final class HttpConnection {
+  /**
+   * The initial size of the input buffer, in bytes.
+   */
+  private static final int INITIAL_INPUT_SIZE = 4_096;
+  /**
+   * The maximal size of a single request including its content, in bytes.
+   */
+  private static final int MAX_REQUEST_SIZE = 1 << 20;
+
+  /**
+   * Whether any of the given buffers has remaining data.
+   *
+   * @param buffers The buffers to check
+   * @return <code>True</code> if data remains, <code>false</code> otherwise
+   */
+  private static boolean hasRemaining(final ByteBuffer[] buffers) {
+    for (final ByteBuffer buffer : buffers) {
+      if (buffer.hasRemaining()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The channel of the client.
+   */
+  private final SocketChannel mChannel;
+  /**
+   * Buffer containing the received data that was not parsed yet, ready for
+   * writing into it.
+   */
+  private ByteBuffer mInput;
+  /**
+   * Whether a request of this connection is currently being handled.
+   */
+  private boolean mIsBusy;
+  /**
+   * Whether the connection is kept alive after the request currently being
+   * handled.
+   */
+  private boolean mKeepAlive;
+  /**
+   * The time of the last activity on this connection, in milliseconds. Must be
+   * compatible with {@link System#currentTimeMillis()}.
+   */
+  private long mLastActivity;
+  /**
+   * Queue of encoded responses that are not fully written yet, each given by
+   * buffers ready for reading.
+   */
+  private final Queue<ByteBuffer[]> mOutput;
+  /**
+   * Whether the connection should be closed once all responses are written.
+   */
+  private boolean mShouldClose;
+
+  /**
+   * Creates a new connection for the given channel.
+   *
+   * @param channel The non-blocking channel of the client
+   * @param now     The current time in milliseconds, compatible with
+   *                {@link System#currentTimeMillis()}
+   */
+  HttpConnection(final SocketChannel channel, final long now) {
+    mChannel = channel;
+    mInput = ByteBuffer.allocate(INITIAL_INPUT_SIZE);
+    mOutput = new ArrayDeque<>();
+    mLastActivity = now;
+  }
+
+  /**
+   * Marks the current request as answered and queues its response.
+   *
+   * @param response The buffers of the encoded response, ready for reading
+   * @param now      The current time in milliseconds, compatible with
+   *                 {@link System#currentTimeMillis()}
+   */
+  void finishRequest(final ByteBuffer[] response, final long now) {
+    mIsBusy = false;
+    mOutput.add(response);
+    mShouldClose |= !mKeepAlive;
+    mLastActivity = now;
+  }
+
+  /**
+   * Gets the channel of the client.
+   *
+   * @return The channel of the client
+   */
+  SocketChannel getChannel() {
+    return mChannel;
+  }
+
+  /**
+   * Gets the time of the last activity on this connection.
+   *
+   * @return The time in milliseconds, compatible with
+   *         {@link System#currentTimeMillis()}
+   */
+  long getLastActivity() {
+    return mLastActivity;
+  }
+
+  /**
+   * Whether there are queued responses that are not fully written yet.
+   *
+   * @return <code>True</code> if there is pending output, <code>false</code>
+   *         otherwise
+   */
+  boolean hasPendingOutput() {
+    return !mOutput.isEmpty();
+  }
+
+  /**
+   * Whether a request of this connection is currently being handled.
+   *
+   * @return <code>True</code> if a request is being handled,
+   *         <code>false</code> otherwise
+   */
+  boolean isBusy() {
+    return mIsBusy;
+  }
+
+  /**
+   * Whether the connection was requested to be closed. Such a connection does
+   * not handle further requests.
+   *
+   * @return <code>True</code> if the connection is closing,
+   *         <code>false</code> otherwise
+   */
+  boolean isClosing() {
+    return mShouldClose;
+  }
+
+  /**
+   * Whether the connection should be closed since it is done. That is, if it
+   * should not be kept alive and all responses are written.
+   *
+   * @return <code>True</code> if the connection should be closed,
+   *         <code>false</code> otherwise
+   */
+  boolean isDone() {
+    return mShouldClose && !mIsBusy && mOutput.isEmpty();
+  }
+
+  /**
+   * Parses the next buffered request and marks it as being handled. Must not
+   * be called while a request is being handled.
+   *
+   * @return The next request or an empty optional if no complete request was
+   *         received yet
+   * @throws IllegalArgumentException If the received data is not a valid HTTP
+   *                                  request or exceeds the maximal request
+   *                                  size
+   */
+  Optional<HttpRequest> nextRequest() throws IllegalArgumentException {
+    if (mShouldClose) {
+      return Optional.empty();
+    }
+    mInput.flip();
+    final Optional<HttpRequest> request;
+    try {
+      request = HttpUtil.parseRequest(mInput);
+    } finally {
+      mInput.compact();
+    }
+
+    if (request.isPresent()) {
+      mIsBusy = true;
+      mKeepAlive = HttpUtil.isKeepAlive(request.get());
+    } else if (!mInput.hasRemaining() && mInput.capacity() >= MAX_REQUEST_SIZE) {
+      throw new IllegalArgumentException("Request exceeds the maximal size of " + MAX_REQUEST_SIZE + " bytes");
+    }
+    return request;
+  }
+
+  /**
+   * Reads available data from the channel into the input buffer, growing it
+   * if needed.
+   *
+   * @param now The current time in milliseconds, compatible with
+   *            {@link System#currentTimeMillis()}
+   * @return The amount of bytes read or <code>-1</code> if the client closed
+   *         the connection
+   * @throws IOException If an I/O exception occurred while reading
+   */
+  int read(final long now) throws IOException {
+    if (!mInput.hasRemaining() && mInput.capacity() < MAX_REQUEST_SIZE) {
+      final ByteBuffer grownInput = ByteBuffer.allocate(Math.min(2 * mInput.capacity(), MAX_REQUEST_SIZE));
+      mInput.flip();
+      grownInput.put(mInput);
+      mInput = grownInput;
+    }
+    final int amountRead = mChannel.read(mInput);
+    if (amountRead > 0) {
+      mLastActivity = now;
+    }
+    return amountRead;
+  }
+
+  /**
+   * Requests the connection to be closed once all queued responses are
+   * written.
+   *
+   * @param response The buffers of the encoded response to send before
+   *                 closing, ready for reading
+   */
+  void reject(final ByteBuffer[] response) {
+    mOutput.add(response);
+    mShouldClose = true;
+  }
+
+  /**
+   * Requests the connection to be closed once the request currently being
+   * handled was answered and all queued responses are written.
+   */
+  void requestClose() {
+    mShouldClose = true;
+  }
+
+  /**
+   * Writes as much of the queued responses to the channel as it accepts.
+   *
+   * @param now The current time in milliseconds, compatible with
+   *            {@link System#currentTimeMillis()}
+   * @throws IOException If an I/O exception occurred while writing
+   */
+  void write(final long now) throws IOException {
+    while (!mOutput.isEmpty()) {
+      final ByteBuffer[] response = mOutput.peek();
+      // Head and content are written together with a single gathering write
+      mChannel.write(response);
+      if (HttpConnection.hasRemaining(response)) {
+        // The channel does not accept more data currently
+        return;
+      }
+      mOutput.poll();
+      mLastActivity = now;
+    }
+  }
+}
@@ -12,9 +12,10 @@ import java.util.Map;
  */
 public final class HttpResponse {
   /**
-   * The content of the response, interpreted as string.
+   * The content of the response, encoded with the charset of
+   * {@link HttpUtil#STANDARD_CHARSET}.
    */
-  private final String mContent;
+  private final byte[] mContent;
   /**
    * The type of the content.
    */
@@ -38,6 +39,21 @@ public final class HttpResponse {
    */
   public HttpResponse(final String content, final EHttpContentType contentType, final EHttpStatus status,
       final Map<String, String> headers) {
+    this(content.getBytes(HttpUtil.STANDARD_CHARSET), contentType, status, headers);
+  }
+
+  /**
+   * Creates a new HTTP response with the given already encoded content.
+   *
+   * @param content     The content of the response, encoded with the charset
+   *                    of {@link HttpUtil#STANDARD_CHARSET}. The array is not
+   *                    copied and must not be modified afterwards.
+   * @param contentType The type of the content
+   * @param status      The HTTP status of the response
+   * @param headers     A map connecting HTTP headers to their values
+   */
+  HttpResponse(final byte[] content, final EHttpContentType contentType, final EHttpStatus status,
+      final Map<String, String> headers) {
     mContent = content;
     mContentType = contentType;
     mStatus = status;
@@ -50,7 +66,7 @@ public final class HttpResponse {
    * @return The content of the response
    */
   public String getContent() {
-    return mContent;
+    return new String(mContent, HttpUtil.STANDARD_CHARSET);
   }
 
   /**
@@ -94,8 +110,18 @@ public final class HttpResponse {
     builder.append(", headers=");
     builder.append(mHeaders);
     builder.append(", content=");
-    builder.append(mContent);
+    builder.append(getContent());
     builder.append("]");
     return builder.toString();
   }
+
+  /**
+   * Gets the encoded content of the response. The array must not be modified.
+   *
+   * @return The content of the response, encoded with the charset of
+   *         {@link HttpUtil#STANDARD_CHARSET}
+   */
+  byte[] getRawContent() {
+    return mContent;
+  }
 }
@@ -17,9 +17,13 @@ import java.util.Map;
  */
 public final class HttpResponseBuilder {
   /**
-   * The content of the HTTP response to build.
+   * Empty content of a HTTP response.
    */
-  private String mContent;
+  private static final byte[] EMPTY_CONTENT = new byte[0];
+  /**
+   * The encoded content of the HTTP response to build.
+   */
+  private byte[] mContent;
   /**
    * The content type of the response to build.
    */
@@ -41,12 +45,11 @@ public final class HttpResponseBuilder {
    * instance using {@link #build()}.
    */
   public HttpResponseBuilder() {
-    mContent = "";
+    mContent = EMPTY_CONTENT;
     mStatus = EHttpStatus.OK;
     mContentType = EHttpContentType.TEXT;
     mHeaders = new HashMap<>();
     mHeaders.put("Access-Control-Allow-Origin", "*");
-    mHeaders.put("Connection", "close");
   }
 
   /**
@@ -78,7 +81,19 @@ public final class HttpResponseBuilder {
    * @return The builder instance
    */
   public HttpResponseBuilder setContent(final String content) {
-    mContent = content;
+    mContent = content.getBytes(HttpUtil.STANDARD_CHARSET);
+    return this;
+  }
+
+  /**
+   * Sets the content of the response to build to the content currently
+   * written to the given buffer. The buffer can be reused afterwards.
+   *
+   * @param content The buffer containing the content to set
+   * @return The builder instance
+   */
+  public HttpResponseBuilder setContent(final PooledContentBuffer content) {
+    mContent = content.toByteArray();
     return this;
   }
 
@@ -0,0 +1,598 @@
+package de.unifreiburg.informatik.cobweb.util.http;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.unifreiburg.informatik.cobweb.util.collections.Pair;
+
+/**
+ * A non-blocking HTTP/1.1 server which dispatches requests to handlers
+ * registered for their resource.<br>
+ * <br>
+ * Register handlers with {@link #addHandler(String, IHttpHandler)}, then call
+ * the {@link #initialize()} method. Afterwards it can be started by using
+ * {@link #start()}. Request the server to shutdown by using
+ * {@link #shutdown()}, the current status can be checked with
+ * {@link #isRunning()}. Once a server was shutdown it should not be used
+ * anymore, instead create a new one.<br>
+ * <br>
+ * A single selector thread accepts clients, reads and parses their requests
+ * and writes the responses. Connections are kept alive according to the HTTP
+ * version and the <code>Connection</code> header, idle connections are closed
+ * after {@link #KEEP_ALIVE_TIMEOUT}. Clients may pipeline requests, they are
+ * answered one after another in order. Only the handlers run on worker
+ * threads, such that a connection does not occupy a thread while it is
+ * idle.<br>
+ * <br>
+ * The worker threads are organized in lanes, each with a fixed amount of
+ * threads and a bounded queue of waiting requests. Lanes are added with
+ * {@link #addLane(String, int, int)} and handlers are assigned to them with
+ * {@link #addHandler(String, IHttpHandler, String)}, such that cheap requests
+ * do not queue behind expensive ones. If the queue of a lane is full, further
+ * requests are answered right away with <code>SERVICE UNAVAILABLE</code>
+ * instead of piling up.<br>
+ * <br>
+ * Requests for resources without a handler are answered with <code>NOT
+ * IMPLEMENTED</code>, malformed requests with <code>BAD REQUEST</code>.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class HttpServer implements Runnable {
+  /**
+   * The lane handlers are assigned to if no other lane is given. Consists of
+   * one thread per available processor by default.
+   */
+  public static final String DEFAULT_LANE = "default";
+  /**
+   * The capacity of the queue of the default lane.
+   */
+  private static final int DEFAULT_LANE_CAPACITY = 256;
+  /**
+   * The time after which idle connections are closed, in milliseconds.
+   */
+  private static final long KEEP_ALIVE_TIMEOUT = 5_000;
+  /**
+   * Logger used for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(HttpServer.class);
+  /**
+   * The time in seconds after which clients are advised to retry requests that
+   * were rejected due to a full lane.
+   */
+  private static final String RETRY_AFTER = "1";
+  /**
+   * The timeout used when waiting for events of the selector, in milliseconds.
+   * Idle connections are checked after each timeout.
+   */
+  private static final long SELECT_TIMEOUT = 1_000;
+
+  /**
+   * Creates a factory for the threads of the lane with the given name. The
+   * threads are daemons, named after the lane and numbered consecutively.
+   *
+   * @param lane The name of the lane
+   * @return The factory for the threads of the lane
+   */
+  private static ThreadFactory createLaneThreadFactory(final String lane) {
+    final AtomicInteger threadCounter = new AtomicInteger();
+    return runnable -> {
+      final Thread thread = new Thread(runnable, "http-" + lane + "-" + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Gets the resource path of the given request, that is its resource without
+   * the query.
+   *
+   * @param request The request to get the path of
+   * @return The resource path of the request
+   */
+  private static String getResourcePath(final HttpRequest request) {
+    final String resource = request.getResource();
+    final int queryStart = resource.indexOf('?');
+    if (queryStart == -1) {
+      return resource;
+    }
+    return resource.substring(0, queryStart);
+  }
+
+  /**
+   * Handles the given request by the given handler registered for its
+   * resource. Called by the worker threads.
+   *
+   * @param handler The handler to handle the request with
+   * @param request The request to handle
+   * @return The response to the request
+   */
+  private static HttpResponse handleRequest(final IHttpHandler handler, final HttpRequest request) {
+    try {
+      return handler.handle(request);
+    } catch (final Throwable e) {
+      // Log every error
+      LOGGER.error("Unknown error while handling the request: {}", request.getResource(), e);
+      return new HttpResponseBuilder().setStatus(EHttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
+  /**
+   * Queue of answered requests, given by the key of their connection and the
+   * encoded response. Filled by the worker threads and emptied by the selector
+   * thread.
+   */
+  private final Queue<Pair<SelectionKey, ByteBuffer[]>> mAnsweredRequests;
+  /**
+   * The time of the last check for idle connections, in milliseconds.
+   * Compatible with {@link System#currentTimeMillis()}.
+   */
+  private long mLastIdleCheck;
+  /**
+   * Map connecting the names of lanes to the executors running their
+   * requests.
+   */
+  private final Map<String, ExecutorService> mLaneToExecutor;
+  /**
+   * The port to bind the server to.
+   */
+  private final int mPort;
+  /**
+   * Map connecting resource paths to the handlers that serve them and the
+   * executors of the lanes they run on.
+   */
+  private final Map<String, Pair<IHttpHandler, ExecutorService>> mResourceToHandler;
+  /**
+   * The selector to use for multiplexing the connections.
+   */
+  private Selector mSelector;
+  /**
+   * The server channel to accept clients from.
+   */
+  private ServerSocketChannel mServerChannel;
+  /**
+   * The thread to run this server on.
+   */
+  private Thread mServerThread;
+  /**
+   * Whether or not the server thread should run.
+   */
+  private volatile boolean mShouldRun;
+
+  /**
+   * Creates a new HTTP server which binds to the given port.<br>
+   * <br>
+   * Register handlers with {@link #addHandler(String, IHttpHandler)}, then call
+   * the {@link #initialize()} method. Afterwards it can be started by using
+   * {@link #start()}.
+   *
+   * @param port The port to bind the server to, <code>0</code> binds to any
+   *             free port
+   */
+  public HttpServer(final int port) {
+    mPort = port;
+    mResourceToHandler = new HashMap<>();
+    mLaneToExecutor = new HashMap<>();
+    mAnsweredRequests = new ConcurrentLinkedQueue<>();
+    addLane(DEFAULT_LANE, Runtime.getRuntime().availableProcessors(), DEFAULT_LANE_CAPACITY);
+  }
+
+  /**
+   * Registers the given handler for the given resource on the
+   * {@link #DEFAULT_LANE}. Requests to the resource, ignoring the query, are
+   * served by the handler. Must be called before the server is started.
+   *
+   * @param resource The resource path to serve, like <code>/route</code>
+   * @param handler  The handler that serves the resource
+   */
+  public void addHandler(final String resource, final IHttpHandler handler) {
+    addHandler(resource, handler, DEFAULT_LANE);
+  }
+
+  /**
+   * Registers the given handler for the given resource on the given lane.
+   * Requests to the resource, ignoring the query, are served by the handler.
+   * Must be called before the server is started.
+   *
+   * @param resource The resource path to serve, like <code>/route</code>
+   * @param handler  The handler that serves the resource
+   * @param lane     The name of the lane to run the handler on, it must have
+   *                 been added before using {@link #addLane(String, int, int)}
+   */
+  public void addHandler(final String resource, final IHttpHandler handler, final String lane) {
+    final ExecutorService executor = mLaneToExecutor.get(lane);
+    if (executor == null) {
+      throw new IllegalArgumentException("The lane was not added: " + lane);
+    }
+    mResourceToHandler.put(resource, new Pair<>(handler, executor));
+  }
+
+  /**
+   * Adds a lane with the given name which runs handlers assigned to it on the
+   * given amount of threads. Requests that arrive while all threads are busy
+   * wait in a queue of the given capacity, requests exceeding it are rejected.
+   * Adding a lane with the name of an existing lane replaces it. Must be called
+   * before handlers are assigned to the lane.
+   *
+   * @param lane     The name of the lane
+   * @param threads  The amount of threads of the lane, must be positive
+   * @param capacity The capacity of the queue of the lane, must be positive
+   */
+  public void addLane(final String lane, final int threads, final int capacity) {
+    final ExecutorService executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(capacity), createLaneThreadFactory(lane));
+    final ExecutorService previousExecutor = mLaneToExecutor.put(lane, executor);
+    if (previousExecutor != null) {
+      previousExecutor.shutdown();
+    }
+  }
+
+  /**
+   * Gets the executor of the given lane. Tasks executed on it share the threads
+   * and the bounded queue with the requests of the lane, tasks exceeding the
+   * capacity of the queue are rejected with a
+   * {@link RejectedExecutionException}. Handlers can use it to split their work
+   * without exceeding the threads of their lane.
+   *
+   * @param lane The name of the lane, it must have been added before using
+   *             {@link #addLane(String, int, int)}
+   * @return The executor of the lane
+   */
+  public Executor getLaneExecutor(final String lane) {
+    final ExecutorService executor = mLaneToExecutor.get(lane);
+    if (executor == null) {
+      throw new IllegalArgumentException("The lane was not added: " + lane);
+    }
+    return executor;
+  }
+
+  /**
+   * Gets the port the server is bound to. Must be called after
+   * {@link #initialize()}.
+   *
+   * @return The port the server is bound to
+   */
+  public int getPort() {
+    return mServerChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Initializes the server. Call this method prior to starting the server with
+   * {@link #start()}. Do not call it again afterwards.
+   *
+   * @throws UncheckedIOException If an I/O exception occurred while creating
+   *                              the server channel.
+   */
+  public void initialize() throws UncheckedIOException {
+    mServerThread = new Thread(this);
+    try {
+      mSelector = Selector.open();
+      mServerChannel = ServerSocketChannel.open();
+      mServerChannel.bind(new InetSocketAddress(mPort));
+      mServerChannel.configureBlocking(false);
+      mServerChannel.register(mSelector, SelectionKey.OP_ACCEPT);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Whether or not the server is currently running.<br>
+   * <br>
+   * A request to shutdown can be send using {@link #shutdown()}.
+   *
+   * @return <code>True</code> if the server is running, <code>false</code>
+   *         otherwise
+   */
+  public boolean isRunning() {
+    return mServerThread.isAlive();
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Runnable#run()
+   */
+  @Override
+  public void run() {
+    LOGGER.info("Server ready and waiting for clients on port {}", getPort());
+    try {
+      while (mShouldRun) {
+        try {
+          mSelector.select(SELECT_TIMEOUT);
+          final long now = System.currentTimeMillis();
+          finishAnsweredRequests(now);
+
+          final Iterator<SelectionKey> keyIter = mSelector.selectedKeys().iterator();
+          while (keyIter.hasNext()) {
+            final SelectionKey key = keyIter.next();
+            keyIter.remove();
+            handleKey(key, now);
+          }
+
+          if (now - mLastIdleCheck >= SELECT_TIMEOUT) {
+            closeIdleConnections(now);
+            mLastIdleCheck = now;
+          }
+        } catch (final Exception e) {
+          // TODO Implement some limit of repeated exceptions
+          // Log every exception and try to stay alive
+          LOGGER.error("Unknown exception in HTTP server routine", e);
+        }
+      }
+    } finally {
+      closeAll();
+    }
+
+    LOGGER.info("HTTP server is shutting down");
+  }
+
+  /**
+   * Requests the server to shutdown.<br>
+   * <br>
+   * The current status can be checked with {@link #isRunning()}. Once a server
+   * was shutdown it should not be used anymore, instead create a new one.
+   */
+  public void shutdown() {
+    mShouldRun = false;
+    mSelector.wakeup();
+    LOGGER.info("Set shutdown request to HTTP server");
+  }
+
+  /**
+   * Starts the server.<br>
+   * <br>
+   * Make sure {@link #initialize()} is called before. Request the server to
+   * shutdown by using {@link #shutdown()}, the current status can be checked
+   * with {@link #isRunning()}. Once a server was shutdown it should not be used
+   * anymore, instead create a new one.
+   */
+  public void start() {
+    if (isRunning()) {
+      return;
+    }
+    LOGGER.info("Starting HTTP server");
+    mShouldRun = true;
+    mServerThread.start();
+  }
+
+  /**
+   * Accepts a pending client and registers its connection for reading.
+   *
+   * @param now The current time in milliseconds, compatible with
+   *            {@link System#currentTimeMillis()}
+   * @throws IOException If an I/O exception occurred while accepting the
+   *                     client
+   */
+  private void accept(final long now) throws IOException {
+    final SocketChannel channel = mServerChannel.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    channel.socket().setTcpNoDelay(true);
+    channel.register(mSelector, SelectionKey.OP_READ, new HttpConnection(channel, now));
+  }
+
+  /**
+   * Closes the server channel, all connections, the selector and the executors
+   * of all lanes.
+   */
+  private void closeAll() {
+    for (final SelectionKey key : mSelector.keys()) {
+      closeConnection(key);
+    }
+    try {
+      mServerChannel.close();
+      mSelector.close();
+    } catch (final IOException e) {
+      LOGGER.error("Exception while closing the server channel", e);
+    }
+    for (final ExecutorService executor : mLaneToExecutor.values()) {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Closes the connection of the given key.
+   *
+   * @param key The key of the connection to close
+   */
+  private void closeConnection(final SelectionKey key) {
+    key.cancel();
+    try {
+      key.channel().close();
+    } catch (final IOException e) {
+      LOGGER.error("Exception while closing the client channel", e);
+    }
+  }
+
+  /**
+   * Closes all connections that were idle for longer than
+   * {@link #KEEP_ALIVE_TIMEOUT}.
+   *
+   * @param now The current time in milliseconds, compatible with
+   *            {@link System#currentTimeMillis()}
+   */
+  private void closeIdleConnections(final long now) {
+    for (final SelectionKey key : mSelector.keys()) {
+      final Object attachment = key.attachment();
+      if (!(attachment instanceof HttpConnection)) {
+        continue;
+      }
+      final HttpConnection connection = (HttpConnection) attachment;
+      if (!connection.isBusy() && !connection.hasPendingOutput()
+          && now - connection.getLastActivity() >= KEEP_ALIVE_TIMEOUT) {
+        closeConnection(key);
+      }
+    }
+  }
+
+  /**
+   * Parses the next buffered request of the given connection and hands it to
+   * the lane of its handler, if the connection is not busy with another
+   * request. Malformed requests are rejected. Requests without a handler or
+   * exceeding the capacity of their lane are answered right away.
+   *
+   * @param key The key of the connection
+   * @param now The current time in milliseconds, compatible with
+   *            {@link System#currentTimeMillis()}
+   */
+  private void dispatchNextRequest(final SelectionKey key, final long now) {
+    final HttpConnection connection = (HttpConnection) key.attachment();
+    if (connection.isBusy()) {
+      return;
+    }
+
+    final Optional<HttpRequest> possibleRequest;
+    try {
+      possibleRequest = connection.nextRequest();
+    } catch (final IllegalArgumentException e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Rejecting malformed request", e);
+      }
+      connection.reject(
+          HttpUtil.encodeResponse(new HttpResponseBuilder().setStatus(EHttpStatus.BAD_REQUEST).build(), false));
+      return;
+    }
+    if (!possibleRequest.isPresent()) {
+      return;
+    }
+
+    final HttpRequest request = possibleRequest.get();
+    final boolean keepAlive = HttpUtil.isKeepAlive(request);
+    final Pair<IHttpHandler, ExecutorService> handlerAndLane =
+        mResourceToHandler.get(HttpServer.getResourcePath(request));
+    if (handlerAndLane == null) {
+      connection.finishRequest(HttpUtil.encodeResponse(
+          new HttpResponseBuilder().setStatus(EHttpStatus.NOT_IMPLEMENTED).build(), keepAlive), now);
+      return;
+    }
+
+    try {
+      handlerAndLane.getSecond().execute(() -> {
+        final ByteBuffer[] response =
+            HttpUtil.encodeResponse(HttpServer.handleRequest(handlerAndLane.getFirst(), request), keepAlive);
+        mAnsweredRequests.add(new Pair<>(key, response));
+        mSelector.wakeup();
+      });
+    } catch (final RejectedExecutionException e) {
+      // The lane is full, shed the load instead of queuing it
+      LOGGER.debug("Rejecting request due to a full lane: {}", request.getResource());
+      connection.finishRequest(HttpUtil.encodeResponse(new HttpResponseBuilder()
+          .setStatus(EHttpStatus.SERVICE_UNAVAILABLE).putHeader("Retry-After", RETRY_AFTER).build(), keepAlive), now);
+    }
+  }
+
+  /**
+   * Queues the responses of all requests answered by the workers since the
+   * last call and continues with pipelined requests.
+   *
+   * @param now The current time in milliseconds, compatible with
+   *            {@link System#currentTimeMillis()}
+   */
+  private void finishAnsweredRequests(final long now) {
+    while (true) {
+      final Pair<SelectionKey, ByteBuffer[]> answeredRequest = mAnsweredRequests.poll();
+      if (answeredRequest == null) {
+        return;
+      }
+      final SelectionKey key = answeredRequest.getFirst();
+      if (!key.isValid()) {
+        // The connection was closed in the meantime
+        continue;
+      }
+      final HttpConnection connection = (HttpConnection) key.attachment();
+      connection.finishRequest(answeredRequest.getSecond(), now);
+      try {
+        // Try to send the response right away instead of waiting for the
+        // next selection
+        connection.write(now);
+        dispatchNextRequest(key, now);
+        updateConnection(key);
+      } catch (final IOException e) {
+        closeConnection(key);
+      }
+    }
+  }
+
+  /**
+   * Handles the selected events of the given key.
+   *
+   * @param key The selected key
+   * @param now The current time in milliseconds, compatible with
+   *            {@link System#currentTimeMillis()}
+   */
+  private void handleKey(final SelectionKey key, final long now) {
+    if (!key.isValid()) {
+      return;
+    }
+    try {
+      if (key.isAcceptable()) {
+        accept(now);
+        return;
+      }
+
+      final HttpConnection connection = (HttpConnection) key.attachment();
+      if (key.isReadable()) {
+        final int amountRead = connection.read(now);
+        dispatchNextRequest(key, now);
+        if (amountRead == -1) {
+          // The client will not send further requests
+          connection.requestClose();
+        }
+      }
+      if (key.isValid() && key.isWritable()) {
+        connection.write(now);
+        dispatchNextRequest(key, now);
+      }
+      updateConnection(key);
+    } catch (final IOException e) {
+      closeConnection(key);
+    }
+  }
+
+  /**
+   * Closes the connection of the given key if it is done, otherwise updates
+   * the events the key is interested in. A connection is only read from while
+   * it is neither busy with a request nor closing.
+   *
+   * @param key The key of the connection
+   */
+  private void updateConnection(final SelectionKey key) {
+    final HttpConnection connection = (HttpConnection) key.attachment();
+    if (connection.isDone()) {
+      closeConnection(key);
+      return;
+    }
+    int interestOps = 0;
+    if (!connection.isBusy() && !connection.isClosing()) {
+      interestOps |= SelectionKey.OP_READ;
+    }
+    if (connection.hasPendingOutput()) {
+      interestOps |= SelectionKey.OP_WRITE;
+    }
+    key.interestOps(interestOps);
+  }
+}
@@ -1,16 +1,15 @@
 package de.unifreiburg.informatik.cobweb.util.http;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * Utility class which provides methods related to HTTP communication.
@@ -18,15 +17,84 @@ import java.util.Map.Entry;
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
 public final class HttpUtil {
+  /**
+   * The header used to negotiate whether a connection is kept alive.
+   */
+  private static final String CONNECTION_HEADER = "Connection";
   /**
    * Symbol used for new lines in the HTTP standard.
    */
   private static final String HTTP_NEW_LINE = "\r\n";
-
+  /**
+   * The protocol version that keeps connections alive by default.
+   */
+  private static final String HTTP_VERSION_1_1 = "HTTP/1.1";
+  /**
+   * The initial size of the buffer used when reading a request from a stream,
+   * in bytes.
+   */
+  private static final int INITIAL_READ_BUFFER_SIZE = 1_024;
   /**
    * Standard charset to use for encoding and decoding of content.
    */
-  private static final Charset STANDARD_CHARSET = StandardCharsets.UTF_8;
+  static final Charset STANDARD_CHARSET = StandardCharsets.UTF_8;
+
+  /**
+   * Encodes the given response by using the HTTP/1.1 protocol.<br>
+   * <br>
+   * The <code>Connection</code> header is set according to the given flag, a
+   * corresponding header of the response is ignored. The content of the
+   * response is not copied, the returned buffers are meant to be sent with a
+   * single gathering write.
+   *
+   * @param response  The response to encode
+   * @param keepAlive Whether the connection is kept alive after the response
+   * @return Two buffers, containing the encoded head and the content of the
+   *         response, ready for reading
+   */
+  public static ByteBuffer[] encodeResponse(final HttpResponse response, final boolean keepAlive) {
+    final String charset = STANDARD_CHARSET.displayName().toLowerCase();
+    final byte[] contentRaw = response.getRawContent();
+
+    // Build response type and headers
+    final StringBuilder head = new StringBuilder();
+    head.append(HTTP_VERSION_1_1).append(' ').append(response.getStatus().getStatusCode()).append(' ')
+        .append(response.getStatus()).append(HTTP_NEW_LINE);
+    head.append("Content-Length: ").append(contentRaw.length).append(HTTP_NEW_LINE);
+    head.append("Content-Type: ").append(response.getContentType().getTextValue()).append("; charset=")
+        .append(charset).append(HTTP_NEW_LINE);
+    head.append(CONNECTION_HEADER).append(": ").append(keepAlive ? "keep-alive" : "close").append(HTTP_NEW_LINE);
+
+    // Set all given headers
+    for (final Entry<String, String> entry : response.getHeaders().entrySet()) {
+      if (entry.getKey().equalsIgnoreCase(CONNECTION_HEADER)) {
+        continue;
+      }
+      head.append(entry.getKey()).append(": ").append(entry.getValue()).append(HTTP_NEW_LINE);
+    }
+    head.append(HTTP_NEW_LINE);
+
+    return new ByteBuffer[] { ByteBuffer.wrap(head.toString().getBytes(STANDARD_CHARSET)),
+        ByteBuffer.wrap(contentRaw) };
+  }
+
+  /**
+   * Whether the connection the given request was received on should be kept
+   * alive after answering it. HTTP/1.1 connections are persistent unless the
+   * client asks to close them, older protocols only if the client explicitly
+   * asks to keep them alive.
+   *
+   * @param request The request to check
+   * @return <code>True</code> if the connection should be kept alive,
+   *         <code>false</code> otherwise
+   */
+  public static boolean isKeepAlive(final HttpRequest request) {
+    final String connection = request.getHeaders().get(CONNECTION_HEADER);
+    if (HTTP_VERSION_1_1.equalsIgnoreCase(request.getProtocol())) {
+      return connection == null || !connection.equalsIgnoreCase("close");
+    }
+    return connection != null && connection.equalsIgnoreCase("keep-alive");
+  }
 
   /**
    * Parses the content type out of the header value.
@@ -43,149 +111,148 @@ public final class HttpUtil {
   }
 
   /**
-   * Parses a HTTP request from the given input stream.
+   * Parses a HTTP request from the given buffer.<br>
+   * <br>
+   * The buffer contains the data received so far, starting at its position. If
+   * it holds a complete request, the request is returned and the position is
+   * advanced behind it, such that pipelined requests can be parsed by repeated
+   * calls. Otherwise the buffer is left unchanged. Header names are matched
+   * case-insensitive.
    *
-   * @param input The stream that contains the HTTP request
-   * @return The parsed HTTP request
-   * @throws IOException If an I/O exception occurred while reading from the stream
+   * @param buffer The buffer to parse from, ready for reading
+   * @return The parsed HTTP request or an empty optional if the buffer does not
+   *         contain a complete request yet
+   * @throws IllegalArgumentException If the buffer does not contain a valid
+   *                                  HTTP request
    */
-  public static HttpRequest parseRequest(final InputStream input) throws IOException {
-    // Read the request
-    String request;
-    while (true) {
-      final String line = HttpUtil.readHttpLine(input);
-      // According to the specification empty lines that appear before any
-      // content need to be rejected
-      if (line.isEmpty()) {
-        continue;
-      }
+  public static Optional<HttpRequest> parseRequest(final ByteBuffer buffer) throws IllegalArgumentException {
+    final int limit = buffer.limit();
+    // According to the specification empty lines that appear before the
+    // request line need to be ignored
+    int start = buffer.position();
+    while (start + 1 < limit && buffer.get(start) == '\r' && buffer.get(start + 1) == '\n') {
+      start += 2;
+    }
+    final int headEnd = HttpUtil.indexOfHeadEnd(buffer, start, limit);
+    if (headEnd == -1) {
+      return Optional.empty();
+    }
 
-      request = line;
-      break;
+    // Parse the request line
+    final String[] lines = HttpUtil.decode(buffer, start, headEnd - 2 * HTTP_NEW_LINE.length()).split(HTTP_NEW_LINE);
+    final String[] requestData = lines[0].trim().split(" ");
+    if (requestData.length != 3) {
+      throw new IllegalArgumentException("Malformed request line: " + lines[0]);
     }
-    // Parse the request
-    final String[] requestData = request.trim()
-            .split(" ");
     final String type = requestData[0];
     final String resource = requestData[1];
     final String protocol = requestData[2];
 
-    // Read and parse the headers
-    final Map<String, String> headers = new HashMap<>();
-    while (true) {
-      final String line = HttpUtil.readHttpLine(input);
-      // Break if content starts
-      if (line.isEmpty()) {
-        break;
+    // Parse the headers
+    final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (int i = 1; i < lines.length; i++) {
+      final String[] data = lines[i].split(":", 2);
+      if (data.length != 2) {
+        throw new IllegalArgumentException("Malformed header: " + lines[i]);
       }
-
-      final String[] data = line.split(": ", 2);
-      headers.put(data[0], data[1]);
+      headers.put(data[0].trim(), data[1].trim());
     }
 
-    // Read and parse the content
+    // Parse the content, if already fully received
     final String contentLengthText = headers.get("Content-Length");
-    String content = "";
-    if (contentLengthText != null && !contentLengthText.isEmpty() && contentLengthText != "0") {
-      final int contentLength = Integer.parseInt(contentLengthText);
-      content = HttpUtil.readHttpContent(contentLength, input);
+    final int contentLength =
+        contentLengthText == null || contentLengthText.isEmpty() ? 0 : Integer.parseInt(contentLengthText);
+    if (contentLength < 0) {
+      throw new IllegalArgumentException("Negative content length: " + contentLength);
     }
+    if (contentLength > limit - headEnd) {
+      return Optional.empty();
+    }
+    final String content = HttpUtil.decode(buffer, headEnd, headEnd + contentLength);
 
-    return new HttpRequest(type, resource, protocol, headers, content);
+    buffer.position(headEnd + contentLength);
+    return Optional.of(new HttpRequest(type, resource, protocol, headers, content));
   }
 
   /**
-   * Sends the given response to the given client by using the HTTP/1.0 protocol.
+   * Parses a HTTP request from the given input stream.<br>
+   * <br>
+   * The stream is read in chunks until a complete request was received. Data
+   * following the request in the same chunk is discarded, the method is thus
+   * not suited for connections with pipelined requests. Use
+   * {@link #parseRequest(ByteBuffer)} for them instead.
    *
-   * @param response The response to send
-   * @param client   Client to send to
-   * @throws IOException If an I/O-Exception occurred.
+   * @param input The stream that contains the HTTP request
+   * @return The parsed HTTP request
+   * @throws IOException              If an I/O exception occurred while
+   *                                  reading from the stream or if the stream
+   *                                  ended before the request was complete
+   * @throws IllegalArgumentException If the stream does not contain a valid
+   *                                  HTTP request
    */
-  public static void sendHttpResponse(final HttpResponse response, final Socket client) throws IOException {
-    final String charset = STANDARD_CHARSET.displayName()
-            .toLowerCase();
-    final byte[] contentRaw = response.getContent()
-            .getBytes(STANDARD_CHARSET);
-
-    // Build response type
-    final String responseType = "HTTP/1.0 " + response.getStatus()
-            .getStatusCode() + " " + response.getStatus() + HTTP_NEW_LINE;
-
-    // Build response headers
-    final StringBuilder responseHeaders = new StringBuilder();
-    responseHeaders.append("Content-Length: " + contentRaw.length + HTTP_NEW_LINE);
-    responseHeaders.append("Content-Type: " + response.getContentType()
-            .getTextValue() + "; charset=" + charset + HTTP_NEW_LINE);
+  public static HttpRequest parseRequest(final InputStream input) throws IOException, IllegalArgumentException {
+    ByteBuffer buffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+    while (true) {
+      if (!buffer.hasRemaining()) {
+        final ByteBuffer grownBuffer = ByteBuffer.allocate(2 * buffer.capacity());
+        buffer.flip();
+        grownBuffer.put(buffer);
+        buffer = grownBuffer;
+      }
 
-    // Set all given headers
-    for (final Entry<String, String> entry : response.getHeaders()
-            .entrySet()) {
-      responseHeaders.append(entry.getKey() + ": " + entry.getValue() + HTTP_NEW_LINE);
-    }
+      final int amountRead = input.read(buffer.array(), buffer.position(), buffer.remaining());
+      if (amountRead == -1) {
+        throw new EOFException("Stream ended before the request was complete");
+      }
+      buffer.position(buffer.position() + amountRead);
 
-    // Write headers and content
-    try (final DataOutputStream output = new DataOutputStream(client.getOutputStream())) {
-      output.write(responseType.getBytes(STANDARD_CHARSET));
-      output.write(responseHeaders.toString()
-              .getBytes(STANDARD_CHARSET));
-      output.write(HTTP_NEW_LINE.getBytes(STANDARD_CHARSET));
-      output.write(contentRaw);
+      final ByteBuffer receivedData = buffer.duplicate();
+      receivedData.flip();
+      final Optional<HttpRequest> request = HttpUtil.parseRequest(receivedData);
+      if (request.isPresent()) {
+        return request.get();
+      }
     }
   }
 
   /**
-   * Reads the content of the given input stream.<br>
-   * <br>
-   * The stream must already be advanced to the point where the content begins. The method will make sure that only
-   * the given amount of bytes is read from the stream. In particular, it will not read more than desired for
-   * buffering purpose.
+   * Decodes the given range of the buffer using the standard charset
+   * represented by {@link #STANDARD_CHARSET}.
    *
-   * @param contentLength The length of the content in amount of bytes
-   * @param input         The input stream from which to read. The stream must already be advanced to the point where
-   *                      the content begins.
-   * @return The read content, interpreted as string in the standard charset represented by {@link #STANDARD_CHARSET}
-   * @throws IOException If an I/O exception occurred while reading from the stream
+   * @param buffer The buffer to decode
+   * @param from   The index to start decoding at, inclusive
+   * @param to     The index to stop decoding at, exclusive
+   * @return The decoded text
    */
-  private static String readHttpContent(final int contentLength, final InputStream input) throws IOException {
-    final byte[] contentRawBuffer = new byte[contentLength];
-    final int amountRead = input.read(contentRawBuffer);
-    if (amountRead == contentRawBuffer.length) {
-      return new String(contentRawBuffer, STANDARD_CHARSET);
+  private static String decode(final ByteBuffer buffer, final int from, final int to) {
+    if (buffer.hasArray()) {
+      return new String(buffer.array(), buffer.arrayOffset() + from, to - from, STANDARD_CHARSET);
     }
-    final byte[] contentRaw = Arrays.copyOf(contentRawBuffer, amountRead);
-    return new String(contentRaw, STANDARD_CHARSET);
+    final byte[] raw = new byte[to - from];
+    for (int i = 0; i < raw.length; i++) {
+      raw[i] = buffer.get(from + i);
+    }
+    return new String(raw, STANDARD_CHARSET);
   }
 
   /**
-   * Reads one line of the given HTTP stream.<br>
-   * <br>
-   * The method only reads exactly one line. In particular, it does not read more than desired for buffering purpose.
+   * Searches the end of the request line and headers, that is the first empty
+   * line, in the given range of the buffer.
    *
-   * @param input The input stream to read from
-   * @return The read line, interpreted as string in the standard charset represented by {@link #STANDARD_CHARSET}
-   * @throws IOException If an I/O exception occurred while reading from the stream
+   * @param buffer The buffer to search in
+   * @param from   The index to start searching at, inclusive
+   * @param to     The index to stop searching at, exclusive
+   * @return The index directly after the empty line or <code>-1</code> if the
+   *         range does not contain it
    */
-  private static String readHttpLine(final InputStream input) throws IOException {
-    final ByteArrayOutputStream byteArrayOutput = new ByteArrayOutputStream();
-
-    int valueBefore = 0;
-    int value = 0;
-    while (value != -1 && !(valueBefore == '\r' && value == '\n')) {
-      valueBefore = value;
-      value = input.read();
-
-      if (value == '\r' || value == '\n') {
-        continue;
+  private static int indexOfHeadEnd(final ByteBuffer buffer, final int from, final int to) {
+    for (int i = from; i + 3 < to; i++) {
+      if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n' && buffer.get(i + 2) == '\r'
+          && buffer.get(i + 3) == '\n') {
+        return i + 4;
       }
-
-      byteArrayOutput.write(value);
     }
-
-    if (value == -1 && byteArrayOutput.size() == 0) {
-      return null;
-    }
-
-    return byteArrayOutput.toString(STANDARD_CHARSET.name());
+    return -1;
   }
 
   /**
@@ -0,0 +1,23 @@
+package de.unifreiburg.informatik.cobweb.util.http;
+
+/**
+ * Interface for classes that answer HTTP requests of a resource served by a
+ * {@link HttpServer}.<br>
+ * <br>
+ * Handlers are called from worker threads of the server, possibly
+ * concurrently. Implementations must thus be thread-safe. They do not
+ * communicate with the client on their own, the server sends the returned
+ * response and decides whether the connection is kept alive.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+@FunctionalInterface
+public interface IHttpHandler {
+  /**
+   * Handles the given HTTP request.
+   *
+   * @param request The request to handle
+   * @return The response to send back to the client
+   */
+  HttpResponse handle(HttpRequest request);
+}
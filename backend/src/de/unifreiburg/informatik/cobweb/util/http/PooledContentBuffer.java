@@ -0,0 +1,98 @@
+package de.unifreiburg.informatik.cobweb.util.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+
+/**
+ * Growable buffer used to encode the content of HTTP responses.<br>
+ * <br>
+ * Each thread owns one buffer which is reused for all responses it builds, see
+ * {@link #acquire()}. Content is written directly into the buffer, for example
+ * by streaming JSON with {@link #writeJson(Gson, Object, Type)}, and then
+ * taken over by {@link HttpResponseBuilder#setContent(PooledContentBuffer)}.
+ * This avoids building intermediate texts and growing a fresh buffer per
+ * response.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class PooledContentBuffer extends ByteArrayOutputStream {
+  /**
+   * The initial capacity of a buffer, in bytes.
+   */
+  private static final int INITIAL_CAPACITY = 8_192;
+  /**
+   * The maximal capacity of a buffer that is kept for reuse, in bytes. Larger
+   * buffers are replaced on their next acquisition in order to not keep
+   * memory of exceptionally large responses.
+   */
+  private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+  /**
+   * The buffer owned by each thread.
+   */
+  private static final ThreadLocal<PooledContentBuffer> POOL = ThreadLocal.withInitial(PooledContentBuffer::new);
+
+  /**
+   * Acquires the buffer of the current thread. The buffer is empty and valid
+   * until the current thread acquires it the next time.
+   *
+   * @return The empty buffer of the current thread
+   */
+  public static PooledContentBuffer acquire() {
+    PooledContentBuffer buffer = PooledContentBuffer.POOL.get();
+    if (buffer.buf.length > MAX_RETAINED_CAPACITY) {
+      buffer = new PooledContentBuffer();
+      PooledContentBuffer.POOL.set(buffer);
+    }
+    buffer.reset();
+    return buffer;
+  }
+
+  /**
+   * Writer that encodes characters into this buffer.
+   */
+  private final Writer mWriter;
+
+  /**
+   * Creates a new empty buffer.
+   */
+  private PooledContentBuffer() {
+    super(INITIAL_CAPACITY);
+    mWriter = new OutputStreamWriter(this, HttpUtil.STANDARD_CHARSET);
+  }
+
+  /**
+   * Writes the encoded content of the given response into this buffer, without
+   * decoding it.
+   *
+   * @param response The response whose content to write
+   */
+  public void writeContent(final HttpResponse response) {
+    final byte[] content = response.getRawContent();
+    write(content, 0, content.length);
+  }
+
+  /**
+   * Writes the given object as JSON into this buffer. The JSON is streamed
+   * directly into the buffer.
+   *
+   * @param gson The GSON object used to format the object
+   * @param src  The object to write
+   * @param type The type of the object, used to select its type adapter
+   * @throws JsonIOException If the object could not be written
+   */
+  public void writeJson(final Gson gson, final Object src, final Type type) throws JsonIOException {
+    gson.toJson(src, type, mWriter);
+    try {
+      mWriter.flush();
+    } catch (final IOException e) {
+      // Can not happen since the buffer does not throw
+      throw new JsonIOException(e);
+    }
+  }
+}
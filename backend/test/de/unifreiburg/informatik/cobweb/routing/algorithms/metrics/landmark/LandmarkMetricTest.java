@@ -0,0 +1,221 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.unifreiburg.informatik.cobweb.parsing.osm.EHighwayType;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.AStarModule;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.ModuleDijkstra;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.BasicEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.BasicGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.BasicNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+
+/**
+ * Test for the class {@link LandmarkMetric}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class LandmarkMetricTest {
+  /**
+   * The width and height of the grid graph used for testing.
+   */
+  private static final int GRID_SIZE = 5;
+
+  /**
+   * Creates a static road graph in form of a grid with the given cost
+   * difference between both directions of horizontal roads.
+   *
+   * @param slowSpeed The maximal speed of horizontal roads running back
+   * @return The created graph
+   */
+  private static StaticRoadGraph createGrid(final int slowSpeed) {
+    final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> roadGraph = new RoadGraph<>();
+    final RoadNode[] nodes = new RoadNode[GRID_SIZE * GRID_SIZE];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = new RoadNode(i, 48.0F + i / GRID_SIZE * 0.001F, 7.8F + i % GRID_SIZE * 0.0015F);
+      roadGraph.addNode(nodes[i]);
+    }
+    int edgeId = 0;
+    for (int i = 0; i < nodes.length; i++) {
+      if (i % GRID_SIZE + 1 < GRID_SIZE) {
+        roadGraph.addEdge(new RoadEdge<>(edgeId, nodes[i], nodes[i + 1], EHighwayType.PRIMARY, 70,
+            EnumSet.of(ETransportationMode.CAR)));
+        edgeId++;
+        roadGraph.addEdge(new RoadEdge<>(edgeId, nodes[i + 1], nodes[i], EHighwayType.RESIDENTIAL, slowSpeed,
+            EnumSet.of(ETransportationMode.CAR)));
+        edgeId++;
+      }
+      if (i + GRID_SIZE < nodes.length) {
+        roadGraph.addEdge(new RoadEdge<>(edgeId, nodes[i], nodes[i + GRID_SIZE], EHighwayType.SECONDARY, 50,
+            EnumSet.of(ETransportationMode.CAR)));
+        edgeId++;
+      }
+    }
+    return StaticRoadGraph.of(roadGraph);
+  }
+
+  /**
+   * The basic graph used for testing.
+   */
+  private BasicGraph mGraph;
+  /**
+   * Temporary folder used for landmark cache files.
+   */
+  @Rule
+  public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+  /**
+   * Setups a graph for testing.
+   */
+  @Before
+  public void setUp() {
+    mGraph = new BasicGraph();
+    final BasicNode firstNode = new BasicNode(1);
+    final BasicNode secondNode = new BasicNode(2);
+    final BasicNode thirdNode = new BasicNode(3);
+    final BasicNode fourthNode = new BasicNode(4);
+    final BasicNode fifthNode = new BasicNode(5);
+
+    mGraph.addNode(firstNode);
+    mGraph.addNode(secondNode);
+    mGraph.addNode(thirdNode);
+    mGraph.addNode(fourthNode);
+    mGraph.addNode(fifthNode);
+
+    mGraph.addEdge(new BasicEdge<>(1, firstNode, secondNode, 1.0));
+    mGraph.addEdge(new BasicEdge<>(2, secondNode, thirdNode, 2.0));
+    mGraph.addEdge(new BasicEdge<>(3, thirdNode, firstNode, 3.0));
+    mGraph.addEdge(new BasicEdge<>(4, thirdNode, fourthNode, 1.0));
+    mGraph.addEdge(new BasicEdge<>(5, fourthNode, secondNode, 5.0));
+    // The fifth node can only be left
+    mGraph.addEdge(new BasicEdge<>(6, fifthNode, firstNode, 2.0));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark.LandmarkMetric#distance(de.unifreiburg.informatik.cobweb.routing.model.graph.INode, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}.
+   */
+  @Test
+  public void testDistance() {
+    final LandmarkMetric<BasicNode, BasicEdge<BasicNode>, BasicGraph> metric =
+        new LandmarkMetric<>(mGraph.size(), mGraph, new RandomLandmarks<>(mGraph));
+    final Dijkstra<BasicNode, BasicEdge<BasicNode>> dijkstra = new Dijkstra<>(mGraph);
+    for (final BasicNode source : mGraph.getNodes()) {
+      Assert.assertEquals(0.0, metric.distance(source, source), 0.0001);
+      for (final BasicNode destination : mGraph.getNodes()) {
+        final Optional<Double> cost = dijkstra.computeShortestPathCost(source, destination);
+        if (cost.isPresent()) {
+          Assert.assertTrue(metric.distance(source, destination) <= cost.get().doubleValue() + 0.0001);
+        }
+      }
+    }
+
+    // All nodes are landmarks, the bound is exact for reachable nodes
+    Assert.assertEquals(3.0, metric.distance(mGraph.getNodeById(2).get(), mGraph.getNodeById(4).get()), 0.0001);
+    Assert.assertEquals(0.0, metric.distance(mGraph.getNodeById(1).get(), new BasicNode(6)), 0.0001);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark.LandmarkMetric#LandmarkMetric(int, de.unifreiburg.informatik.cobweb.routing.model.graph.IGraph, ILandmarkProvider, java.nio.file.Path)}.
+   *
+   * @throws IOException If an I/O exception occurred while creating the cache
+   *                     file
+   */
+  @Test
+  public void testLandmarkMetricCache() throws IOException {
+    final Path landmarkCache = mTemporaryFolder.getRoot().toPath().resolve("landmarks.bin");
+    final StaticRoadGraph graph = LandmarkMetricTest.createGrid(30);
+
+    final LandmarkMetric<ICoreNode, ICoreEdge<ICoreNode>, StaticRoadGraph> computedMetric =
+        new LandmarkMetric<>(4, graph, new RandomLandmarks<>(graph), landmarkCache);
+    Assert.assertTrue(Files.isRegularFile(landmarkCache));
+
+    // The cache must be used, the provider not
+    final LandmarkMetric<ICoreNode, ICoreEdge<ICoreNode>, StaticRoadGraph> cachedMetric =
+        new LandmarkMetric<>(4, graph, amount -> {
+          throw new AssertionError();
+        }, landmarkCache);
+    for (final ICoreNode first : graph.getNodes()) {
+      for (final ICoreNode second : graph.getNodes()) {
+        Assert.assertEquals(computedMetric.distance(first, second), cachedMetric.distance(first, second), 0.0);
+      }
+    }
+
+    // A different amount of landmarks or a different graph must not use the
+    // cache
+    final boolean[] wasProviderUsed = new boolean[1];
+    new LandmarkMetric<>(3, graph, amount -> {
+      wasProviderUsed[0] = true;
+      return new RandomLandmarks<>(graph).getLandmarks(amount);
+    }, landmarkCache);
+    Assert.assertTrue(wasProviderUsed[0]);
+
+    final StaticRoadGraph otherGraph = LandmarkMetricTest.createGrid(40);
+    wasProviderUsed[0] = false;
+    new LandmarkMetric<>(3, otherGraph, amount -> {
+      wasProviderUsed[0] = true;
+      return new RandomLandmarks<>(otherGraph).getLandmarks(amount);
+    }, landmarkCache);
+    Assert.assertTrue(wasProviderUsed[0]);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark.LandmarkMetric#selectActiveLandmarks(java.util.Collection, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}.
+   */
+  @Test
+  public void testSelectActiveLandmarks() {
+    final StaticRoadGraph graph = LandmarkMetricTest.createGrid(30);
+    final LandmarkMetric<ICoreNode, ICoreEdge<ICoreNode>, StaticRoadGraph> metric =
+        new LandmarkMetric<>(8, graph, new RandomLandmarks<>(graph));
+    metric.setAmountOfActiveLandmarks(2);
+
+    final ICoreNode source = graph.getNode(0);
+    final ICoreNode destination = graph.getNode(graph.size() - 1);
+    final double[] allLandmarksDistances = new double[graph.size()];
+    for (int i = 0; i < graph.size(); i++) {
+      allLandmarksDistances[i] = metric.distance(graph.getNode(i), destination);
+    }
+    metric.selectActiveLandmarks(Collections.singleton(source), destination);
+    // The best landmarks for the query are selected, other nodes get weaker
+    // bounds
+    Assert.assertEquals(allLandmarksDistances[0], metric.distance(source, destination), 0.0);
+    for (int i = 0; i < graph.size(); i++) {
+      Assert.assertTrue(metric.distance(graph.getNode(i), destination) <= allLandmarksDistances[i]);
+    }
+
+    // Queries using active landmarks stay exact
+    final Dijkstra<ICoreNode, ICoreEdge<ICoreNode>> dijkstra = new Dijkstra<>(graph);
+    final ModuleDijkstra<ICoreNode, ICoreEdge<ICoreNode>> astar = ModuleDijkstra.of(graph, AStarModule.of(metric));
+    for (final ICoreNode first : graph.getNodes()) {
+      for (final ICoreNode second : graph.getNodes()) {
+        final Optional<Double> expected = dijkstra.computeShortestPathCost(first, second);
+        final Optional<Double> actual = astar.computeShortestPathCost(first, second);
+        Assert.assertEquals(expected.isPresent(), actual.isPresent());
+        if (expected.isPresent()) {
+          Assert.assertEquals(expected.get().doubleValue(), actual.get().doubleValue(), 0.001);
+          Assert.assertTrue(metric.distance(first, second) <= expected.get().doubleValue() + 0.001);
+        }
+      }
+    }
+  }
+}
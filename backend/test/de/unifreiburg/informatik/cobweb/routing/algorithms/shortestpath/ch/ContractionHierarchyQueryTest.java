@@ -0,0 +1,194 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.parsing.osm.EHighwayType;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IShortestPathComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.ModuleDijkstra;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.MultiModalModule;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.EdgeCost;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+
+/**
+ * Test for the class {@link ContractionHierarchyQuery}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ContractionHierarchyQueryTest {
+  /**
+   * The width and height of the grid used for testing.
+   */
+  private static final int GRID_SIZE = 5;
+  /**
+   * The modes to test hierarchies for.
+   */
+  private static final ETransportationMode[] MODES =
+      { ETransportationMode.CAR, ETransportationMode.BIKE, ETransportationMode.FOOT };
+
+  /**
+   * Counter used for generating unique edge IDs.
+   */
+  private int mEdgeIdCounter;
+  /**
+   * The graph used for testing.
+   */
+  private StaticRoadGraph mGraph;
+  /**
+   * The nodes of the graph used for testing.
+   */
+  private RoadNode[] mNodes;
+
+  /**
+   * Setups a grid shaped road graph with mixed transportation modes and one-way
+   * streets for testing.
+   */
+  @Before
+  public void setUp() {
+    final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> roadGraph = new RoadGraph<>();
+    mNodes = new RoadNode[GRID_SIZE * GRID_SIZE];
+    for (int row = 0; row < GRID_SIZE; row++) {
+      for (int column = 0; column < GRID_SIZE; column++) {
+        final int id = row * GRID_SIZE + column;
+        mNodes[id] = new RoadNode(id, 48.0F + row * 0.001F, 7.8F + column * 0.0015F);
+        roadGraph.addNode(mNodes[id]);
+      }
+    }
+
+    final Set<ETransportationMode> allModes =
+        EnumSet.of(ETransportationMode.CAR, ETransportationMode.BIKE, ETransportationMode.FOOT);
+    final Set<ETransportationMode> slowModes = EnumSet.of(ETransportationMode.BIKE, ETransportationMode.FOOT);
+    for (int row = 0; row < GRID_SIZE; row++) {
+      for (int column = 0; column < GRID_SIZE; column++) {
+        final RoadNode node = mNodes[row * GRID_SIZE + column];
+        if (column + 1 < GRID_SIZE) {
+          final RoadNode right = mNodes[row * GRID_SIZE + column + 1];
+          if (row % 2 == 0) {
+            // One-way street for cars, the other direction only for slow modes
+            addEdge(roadGraph, node, right, EHighwayType.PRIMARY, 70, allModes);
+            addEdge(roadGraph, right, node, EHighwayType.LIVING_STREET, 10, slowModes);
+          } else {
+            addEdge(roadGraph, node, right, EHighwayType.RESIDENTIAL, 30, allModes);
+            addEdge(roadGraph, right, node, EHighwayType.RESIDENTIAL, 30, allModes);
+          }
+        }
+        if (row + 1 < GRID_SIZE) {
+          final RoadNode below = mNodes[(row + 1) * GRID_SIZE + column];
+          final EHighwayType type = column % 2 == 0 ? EHighwayType.SECONDARY : EHighwayType.CYCLEWAY;
+          final Set<ETransportationMode> modes = column % 2 == 0 ? allModes : slowModes;
+          addEdge(roadGraph, node, below, type, 50, modes);
+          addEdge(roadGraph, below, node, type, 50, modes);
+        }
+      }
+    }
+    mGraph = StaticRoadGraph.of(roadGraph);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch.ContractionHierarchyQuery#computeShortestPath(java.util.Collection, de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode)}.
+   */
+  @Test
+  public void testComputeShortestPath() {
+    for (final ETransportationMode mode : MODES) {
+      final ContractionHierarchyQuery query =
+          new ContractionHierarchyQuery(mGraph, ContractionHierarchy.of(mGraph, mode));
+      for (final RoadNode source : mNodes) {
+        for (final RoadNode destination : mNodes) {
+          final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> path = query.computeShortestPath(source, destination);
+          final Optional<Double> cost = query.computeShortestPathCost(source, destination);
+          Assert.assertEquals(cost.isPresent(), path.isPresent());
+          if (!path.isPresent()) {
+            continue;
+          }
+          Assert.assertEquals(cost.get().doubleValue(), path.get().getTotalCost(), 0.001);
+          if (source == destination) {
+            Assert.assertEquals(0, path.get().length());
+            continue;
+          }
+
+          Assert.assertEquals(source, path.get().getSource());
+          Assert.assertEquals(destination, path.get().getDestination());
+          ICoreNode previous = source;
+          for (final EdgeCost<ICoreNode, ICoreEdge<ICoreNode>> edgeCost : path.get()) {
+            final ICoreEdge<ICoreNode> edge = edgeCost.getEdge();
+            Assert.assertEquals(previous, edge.getSource());
+            Assert.assertEquals(mGraph.getEdgeCost(((StaticRoadEdge) edge).getIndex(), mode), edgeCost.getCost(),
+                0.001);
+            previous = edge.getDestination();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch.ContractionHierarchyQuery#computeShortestPathCost(java.util.Collection, de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode)}.
+   */
+  @Test
+  public void testComputeShortestPathCost() {
+    for (final ETransportationMode mode : MODES) {
+      final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> expectedComputation =
+          ModuleDijkstra.of(mGraph, MultiModalModule.of(EnumSet.of(mode)));
+      final ContractionHierarchyQuery query =
+          new ContractionHierarchyQuery(mGraph, ContractionHierarchy.of(mGraph, mode));
+      for (final RoadNode source : mNodes) {
+        for (final RoadNode destination : mNodes) {
+          final Optional<Double> expected = expectedComputation.computeShortestPathCost(source, destination);
+          final Optional<Double> actual = query.computeShortestPathCost(source, destination);
+          Assert.assertEquals(expected.isPresent(), actual.isPresent());
+          if (expected.isPresent()) {
+            Assert.assertEquals(expected.get().doubleValue(), actual.get().doubleValue(), 0.001);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ch.ContractionHierarchyQuery#computeShortestPathCostsReachable(java.util.Collection)}.
+   */
+  @Test
+  public void testComputeShortestPathCostsReachable() {
+    final ContractionHierarchyQuery query =
+        new ContractionHierarchyQuery(mGraph, ContractionHierarchy.of(mGraph, ETransportationMode.CAR));
+    try {
+      query.computeShortestPathCostsReachable(Collections.singleton(mNodes[0]));
+      Assert.fail();
+    } catch (final UnsupportedOperationException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Adds an edge to the given graph.
+   *
+   * @param graph       The graph to add the edge to
+   * @param source      The source of the edge
+   * @param destination The destination of the edge
+   * @param type        The highway type of the edge
+   * @param maxSpeed    The maximal allowed speed on the edge
+   * @param modes       The transportation modes allowed on the edge
+   */
+  private void addEdge(final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> graph, final RoadNode source,
+      final RoadNode destination, final EHighwayType type, final int maxSpeed, final Set<ETransportationMode> modes) {
+    graph.addEdge(new RoadEdge<>(mEdgeIdCounter, source, destination, type, maxSpeed, EnumSet.copyOf(modes)));
+    mEdgeIdCounter++;
+  }
+}
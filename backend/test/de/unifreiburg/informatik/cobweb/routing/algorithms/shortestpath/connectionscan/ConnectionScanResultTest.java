@@ -1,14 +1,9 @@
 package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan;
 
-import java.util.ArrayList;
-
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
-import de.unifreiburg.informatik.cobweb.routing.model.timetable.Connection;
-import de.unifreiburg.informatik.cobweb.routing.model.timetable.Footpath;
-
 /**
  * Test for the class {@link ConnectionScanResult}.
  *
@@ -25,31 +20,38 @@ public final class ConnectionScanResultTest {
    */
   @Before
   public void setUp() {
-    final ArrayList<JourneyPointer> journeys = new ArrayList<>();
-    journeys.add(new JourneyPointer(new Connection(1, 0, 1, 2, 100, 120), new Connection(1, 4, 5, 6, 200, 220),
-        new Footpath(6, 7, 50)));
-    journeys.add(new JourneyPointer(new Connection(1, 0, 1, 2, 100, 120), new Connection(1, 4, 5, 6, 200, 220),
-        new Footpath(6, 7, 50)));
-    journeys.add(new JourneyPointer(new Connection(1, 0, 1, 2, 100, 120), new Connection(1, 4, 5, 6, 200, 220),
-        new Footpath(6, 7, 50)));
-
-    mResult = new ConnectionScanResult(new int[] { 100, 120, 140 }, journeys.toArray(new JourneyPointer[0]));
+    mResult = new ConnectionScanResult(new int[] { 100, 120, 140 },
+        new int[] { ConnectionScanResult.NO_INDEX, 0, 0 }, new int[] { ConnectionScanResult.NO_INDEX, 2, 4 },
+        new int[] { 3, 5, 7 });
   }
 
   /**
    * Test method for
-   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScanResult#ConnectionScanResult(int[], de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.JourneyPointer[])}.
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScanResult#ConnectionScanResult(int[], int[], int[], int[])}.
    */
   @SuppressWarnings({ "unused", "static-method" })
   @Test
   public void testConnectionScanResult() {
     try {
-      new ConnectionScanResult(new int[] { 100, 120, 140 }, new JourneyPointer[] { null, null, null });
+      new ConnectionScanResult(new int[] { 100, 120, 140 }, new int[3], new int[3], new int[3]);
     } catch (final Exception e) {
       Assert.fail();
     }
   }
 
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScanResult#getFrequencyRunToShift()}.
+   */
+  @SuppressWarnings("static-method")
+  @Test
+  public void testGetFrequencyRunToShift() {
+    final ConnectionScanResult result = new ConnectionScanResult(new int[1], new int[1], new int[1], new int[1],
+        new int[] { 4, 2 }, new int[] { 600, 1_200 });
+    Assert.assertArrayEquals(new int[] { 4, 2 }, result.getFrequencyRunToConnection());
+    Assert.assertArrayEquals(new int[] { 600, 1_200 }, result.getFrequencyRunToShift());
+  }
+
   /**
    * Test method for
    * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScanResult#getStopToArrTime()}.
@@ -62,13 +64,45 @@ public final class ConnectionScanResultTest {
 
   /**
    * Test method for
-   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScanResult#getStopToJourney()}.
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScanResult#getStopToEnterConnection()}.
+   */
+  @Test
+  public void testGetStopToEnterConnection() {
+    Assert.assertArrayEquals(new int[] { ConnectionScanResult.NO_INDEX, 0, 0 }, mResult.getStopToEnterConnection());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScanResult#getStopToExitConnection()}.
+   */
+  @Test
+  public void testGetStopToExitConnection() {
+    Assert.assertArrayEquals(new int[] { ConnectionScanResult.NO_INDEX, 2, 4 }, mResult.getStopToExitConnection());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScanResult#getStopToFootpath()}.
    */
   @Test
-  public void testGetStopToJourney() {
-    final JourneyPointer[] stopToJourney = mResult.getStopToJourney();
-    Assert.assertEquals(3, stopToJourney.length);
-    Assert.assertEquals(1, stopToJourney[0].getEnterConnection().getTripId());
+  public void testGetStopToFootpath() {
+    Assert.assertArrayEquals(new int[] { 3, 5, 7 }, mResult.getStopToFootpath());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScanResult#toFrequencyRun(int)}.
+   */
+  @SuppressWarnings("static-method")
+  @Test
+  public void testToFrequencyRun() {
+    for (int frequencyRun = 0; frequencyRun < 5; frequencyRun++) {
+      final int connection = ConnectionScanResult.toConnection(frequencyRun);
+      Assert.assertTrue(ConnectionScanResult.isFrequencyRun(connection));
+      Assert.assertEquals(frequencyRun, ConnectionScanResult.toFrequencyRun(connection));
+    }
+    Assert.assertFalse(ConnectionScanResult.isFrequencyRun(ConnectionScanResult.NO_INDEX));
+    Assert.assertFalse(ConnectionScanResult.isFrequencyRun(0));
   }
 
 }
@@ -0,0 +1,270 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.IHasTime;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitNode;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Connection;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Footpath;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Service;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Trip;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.TripFrequency;
+
+/**
+ * Test for the class {@link ConnectionScan}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ConnectionScanTest {
+  /**
+   * The amount of stops of the timetable used for testing.
+   */
+  private static final int AMOUNT_OF_STOPS = 8;
+  /**
+   * The amount of trips of the timetable used for testing.
+   */
+  private static final int AMOUNT_OF_TRIPS = 40;
+  /**
+   * The delay of transfers at the same stop, in seconds.
+   */
+  private static final int TRANSFER_DELAY = 30;
+
+  /**
+   * The algorithm used for testing.
+   */
+  private ConnectionScan mScan;
+
+  /**
+   * Setups a connection scan on a timetable with random trips for testing.
+   */
+  @Before
+  public void setUp() {
+    final Timetable table = new Timetable();
+    for (int i = 0; i < AMOUNT_OF_STOPS; i++) {
+      table.addStop(new Stop(i, 48.0F + i, 7.8F));
+    }
+    // A walkable pair of stops
+    table.addFootpath(new Footpath(2, 3, 240));
+
+    final Random random = new Random(0);
+    final Collection<Connection> connections = new ArrayList<>();
+    for (int tripId = 0; tripId < AMOUNT_OF_TRIPS; tripId++) {
+      final Trip trip = new Trip(tripId);
+      int time = 3_600 + random.nextInt(7_200);
+      int stop = random.nextInt(AMOUNT_OF_STOPS);
+      final int length = 1 + random.nextInt(4);
+      for (int sequenceIndex = 0; sequenceIndex < length; sequenceIndex++) {
+        final int nextStop = (stop + 1 + random.nextInt(AMOUNT_OF_STOPS - 1)) % AMOUNT_OF_STOPS;
+        final int nextTime = time + 60 + random.nextInt(600);
+        final Connection connection = new Connection(tripId, sequenceIndex, stop, nextStop, time, nextTime);
+        trip.addConnectionToSequence(connection);
+        connections.add(connection);
+        stop = nextStop;
+        time = nextTime;
+      }
+      table.addTrip(trip);
+    }
+    table.addConnections(connections);
+    table.correctFootpaths(TRANSFER_DELAY, 0);
+    mScan = new ConnectionScan(table);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScan#computeShortestPath(java.util.Collection, ICoreNode)}.
+   */
+  @SuppressWarnings("static-method")
+  @Test
+  public void testComputeShortestPathCollectionICoreNode() {
+    // The same frequency based trips, once compact and once expanded
+    final Timetable compactTable = new Timetable();
+    final Timetable expandedTable = new Timetable();
+    for (int i = 0; i < AMOUNT_OF_STOPS; i++) {
+      compactTable.addStop(new Stop(i, 48.0F + i, 7.8F));
+      expandedTable.addStop(new Stop(i, 48.0F + i, 7.8F));
+    }
+
+    final Random random = new Random(2);
+    final Collection<Connection> expandedConnections = new ArrayList<>();
+    int expandedTripId = 0;
+    for (int tripId = 0; tripId < 6; tripId++) {
+      final Trip template = new Trip(tripId);
+      int time = random.nextInt(600);
+      int stop = random.nextInt(AMOUNT_OF_STOPS);
+      final int length = 1 + random.nextInt(3);
+      for (int sequenceIndex = 0; sequenceIndex < length; sequenceIndex++) {
+        final int nextStop = (stop + 1 + random.nextInt(AMOUNT_OF_STOPS - 1)) % AMOUNT_OF_STOPS;
+        final int nextTime = time + 60 + random.nextInt(600);
+        template.addConnectionToSequence(new Connection(tripId, sequenceIndex, stop, nextStop, time, nextTime));
+        stop = nextStop;
+        time = nextTime;
+      }
+      compactTable.addTrip(template);
+
+      // Runs until shortly before midnight
+      final TripFrequency frequency =
+          new TripFrequency(tripId, 3_600 + random.nextInt(3_600), 80_000 + random.nextInt(6_000), 1_200);
+      compactTable.addFrequency(frequency);
+      final int firstShift = frequency.getStartTime() - template.getConnectionAtSequenceIndex(0).getDepTime();
+      for (int run = 0; run < frequency.getAmountOfRuns(); run++) {
+        final int shift = firstShift + run * frequency.getHeadway();
+        final Trip trip = new Trip(expandedTripId);
+        for (final Connection connection : template.getSequence()) {
+          final Connection shiftedConnection = new Connection(expandedTripId, connection.getSequenceIndex(),
+              connection.getDepStopId(), connection.getArrStopId(), connection.getDepTime() + shift,
+              connection.getArrTime() + shift);
+          trip.addConnectionToSequence(shiftedConnection);
+          expandedConnections.add(shiftedConnection);
+        }
+        expandedTable.addTrip(trip);
+        expandedTripId++;
+      }
+    }
+    expandedTable.addConnections(expandedConnections);
+    compactTable.correctFootpaths(TRANSFER_DELAY, 0);
+    expandedTable.correctFootpaths(TRANSFER_DELAY, 0);
+
+    final ConnectionScan compactScan = new ConnectionScan(compactTable);
+    final ConnectionScan expandedScan = new ConnectionScan(expandedTable);
+    int amountOfPaths = 0;
+    for (int query = 0; query < 200; query++) {
+      // Also depart close to midnight, using the runs of the day after
+      final ICoreNode source =
+          new TransitNode(random.nextInt(AMOUNT_OF_STOPS), 0.0F, 0.0F, random.nextInt(24 * 60 * 60));
+      final ICoreNode destination = new TransitNode(random.nextInt(AMOUNT_OF_STOPS), 0.0F, 0.0F, 0);
+      final Optional<Double> expectedCost = expandedScan.computeShortestPathCost(source, destination);
+      Assert.assertEquals(expectedCost, compactScan.computeShortestPathCost(source, destination));
+
+      final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> path =
+          compactScan.computeShortestPath(Arrays.asList(source), destination);
+      Assert.assertEquals(expectedCost.isPresent(), path.isPresent());
+      if (path.isPresent()) {
+        Assert.assertEquals(expectedCost.get().doubleValue(), path.get().getTotalCost(), 0.0);
+        Assert.assertEquals(destination.getId(), path.get().getDestination().getId());
+        amountOfPaths++;
+      }
+    }
+    Assert.assertTrue(amountOfPaths > 0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScan#computeShortestPath(java.util.Collection, java.util.Map)}.
+   */
+  @Test
+  public void testComputeShortestPathCollectionMap() {
+    final int[] sourceTimes = { 4_000, 4_300, 4_450 };
+    final int[] egressDurations = { 120, 0, 600 };
+    final Random random = new Random(1);
+
+    for (int query = 0; query < 50; query++) {
+      final List<ICoreNode> sources = new ArrayList<>();
+      for (final int sourceTime : sourceTimes) {
+        sources.add(new TransitNode(random.nextInt(AMOUNT_OF_STOPS), 0.0F, 0.0F, sourceTime));
+      }
+      final Map<ICoreNode, Integer> destinationToEgressDuration = new HashMap<>();
+      for (final int egressDuration : egressDurations) {
+        destinationToEgressDuration.put(new TransitNode(random.nextInt(AMOUNT_OF_STOPS), 0.0F, 0.0F, 0),
+            egressDuration);
+      }
+
+      // The best combination of all pairwise queries
+      long expectedTargetTime = Long.MAX_VALUE;
+      for (final ICoreNode source : sources) {
+        for (final Map.Entry<ICoreNode, Integer> destination : destinationToEgressDuration.entrySet()) {
+          final Optional<Double> duration =
+              mScan.computeShortestPathCost(Arrays.asList(source), destination.getKey());
+          if (duration.isPresent()) {
+            expectedTargetTime = Math.min(expectedTargetTime, ((IHasTime) source).getTime()
+                + duration.get().longValue() + destination.getValue().intValue());
+          }
+        }
+      }
+
+      final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> path =
+          mScan.computeShortestPath(sources, destinationToEgressDuration);
+      if (expectedTargetTime == Long.MAX_VALUE) {
+        Assert.assertFalse(path.isPresent());
+        continue;
+      }
+      Assert.assertTrue(path.isPresent());
+
+      int egressDuration = Integer.MAX_VALUE;
+      for (final Map.Entry<ICoreNode, Integer> destination : destinationToEgressDuration.entrySet()) {
+        if (destination.getKey().getId() == path.get().getDestination().getId()) {
+          egressDuration = Math.min(egressDuration, destination.getValue().intValue());
+        }
+      }
+      final long targetTime = ((IHasTime) path.get().getSource()).getTime() + (long) path.get().getTotalCost()
+          + egressDuration;
+      Assert.assertEquals(expectedTargetTime, targetTime);
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScan#ConnectionScan(Timetable, LocalDate)}.
+   */
+  @SuppressWarnings("static-method")
+  @Test
+  public void testConnectionScanTimetableLocalDate() {
+    final Timetable table = new Timetable();
+    table.addStop(new Stop(0, 48.0F, 7.8F));
+    table.addStop(new Stop(1, 49.0F, 7.8F));
+    final Service weekdays = new Service(0);
+    weekdays.setRegularDays(LocalDate.of(2018, 10, 1), LocalDate.of(2018, 10, 31),
+        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+    table.addService(weekdays);
+
+    // A fast trip on weekdays and a slow trip every day
+    final Trip fastTrip = new Trip(0, weekdays.getId());
+    final Connection fastConnection = new Connection(0, 0, 0, 1, 1_000, 1_100);
+    fastTrip.addConnectionToSequence(fastConnection);
+    table.addTrip(fastTrip);
+    final Trip slowTrip = new Trip(1);
+    final Connection slowConnection = new Connection(1, 0, 0, 1, 1_000, 1_500);
+    slowTrip.addConnectionToSequence(slowConnection);
+    table.addTrip(slowTrip);
+    table.addConnections(Arrays.asList(fastConnection, slowConnection));
+    table.correctFootpaths(TRANSFER_DELAY, 0);
+
+    final TransitNode source = new TransitNode(0, 0.0F, 0.0F, 900);
+    final TransitNode destination = new TransitNode(1, 0.0F, 0.0F, 0);
+    // Wednesday, Saturday and without a date. Arriving includes the transfer
+    // delay.
+    Assert.assertEquals(230.0, new ConnectionScan(table, LocalDate.of(2018, 10, 10))
+        .computeShortestPathCost(source, destination).get().doubleValue(), 0.0);
+    Assert.assertEquals(630.0, new ConnectionScan(table, LocalDate.of(2018, 10, 13))
+        .computeShortestPathCost(source, destination).get().doubleValue(), 0.0);
+    Assert.assertEquals(230.0, new ConnectionScan(table).computeShortestPathCost(source, destination).get()
+        .doubleValue(), 0.0);
+
+    // Departing after the connections, only the day after is considered. The
+    // Friday is followed by a Saturday.
+    final TransitNode lateSource = new TransitNode(0, 0.0F, 0.0F, 2_000);
+    final int secondsOfDay = 24 * 60 * 60;
+    Assert.assertEquals(secondsOfDay - 2_000 + 1_530.0, new ConnectionScan(table, LocalDate.of(2018, 10, 12))
+        .computeShortestPathCost(lateSource, destination).get().doubleValue(), 0.0);
+    Assert.assertEquals(secondsOfDay - 2_000 + 1_130.0, new ConnectionScan(table, LocalDate.of(2018, 10, 11))
+        .computeShortestPathCost(lateSource, destination).get().doubleValue(), 0.0);
+  }
+}
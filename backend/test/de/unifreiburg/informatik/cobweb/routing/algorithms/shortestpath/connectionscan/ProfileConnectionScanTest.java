@@ -0,0 +1,251 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.EdgeCost;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitNode;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Connection;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Footpath;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Trip;
+
+/**
+ * Test for the class {@link ProfileConnectionScan}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ProfileConnectionScanTest {
+  /**
+   * The amount of stops of the timetable used for testing.
+   */
+  private static final int AMOUNT_OF_STOPS = 6;
+  /**
+   * The amount of trips of the timetable used for testing.
+   */
+  private static final int AMOUNT_OF_TRIPS = 30;
+  /**
+   * Amount of seconds of a day.
+   */
+  private static final int SECONDS_OF_DAY = 24 * 60 * 60;
+  /**
+   * The delay of transfers at the same stop, in seconds.
+   */
+  private static final int TRANSFER_DELAY = 30;
+
+  /**
+   * Gets the egress duration of the destination the given path ends at.
+   *
+   * @param destinationToEgressDuration Map connecting the destinations to
+   *                                    their egress duration
+   * @param path                        The path to get the egress duration of
+   * @return The egress duration in seconds
+   */
+  private static int getEgressDuration(final Map<ICoreNode, Integer> destinationToEgressDuration,
+      final IPath<ICoreNode, ICoreEdge<ICoreNode>> path) {
+    for (final Entry<ICoreNode, Integer> destination : destinationToEgressDuration.entrySet()) {
+      if (destination.getKey().getId() == path.getDestination().getId()) {
+        return destination.getValue().intValue();
+      }
+    }
+    throw new AssertionError();
+  }
+
+  /**
+   * The timetable used for testing.
+   */
+  private Timetable mTable;
+
+  /**
+   * Setups a timetable with random trips for testing.
+   */
+  @Before
+  public void setUp() {
+    mTable = new Timetable();
+    for (int i = 0; i < AMOUNT_OF_STOPS; i++) {
+      mTable.addStop(new Stop(i, 48.0F + i, 7.8F));
+    }
+    // A walkable pair of stops
+    mTable.addFootpath(new Footpath(1, 2, 300));
+
+    final Random random = new Random(0);
+    final Collection<Connection> connections = new ArrayList<>();
+    for (int tripId = 0; tripId < AMOUNT_OF_TRIPS; tripId++) {
+      final Trip trip = new Trip(tripId);
+      int time = 3_600 + random.nextInt(7_200);
+      int stop = random.nextInt(AMOUNT_OF_STOPS);
+      final int length = 1 + random.nextInt(4);
+      for (int sequenceIndex = 0; sequenceIndex < length; sequenceIndex++) {
+        final int nextStop = (stop + 1 + random.nextInt(AMOUNT_OF_STOPS - 1)) % AMOUNT_OF_STOPS;
+        final int nextTime = time + 60 + random.nextInt(600);
+        final Connection connection = new Connection(tripId, sequenceIndex, stop, nextStop, time, nextTime);
+        trip.addConnectionToSequence(connection);
+        connections.add(connection);
+        stop = nextStop;
+        time = nextTime;
+      }
+      mTable.addTrip(trip);
+    }
+    mTable.addConnections(connections);
+    mTable.correctFootpaths(TRANSFER_DELAY, 0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ProfileConnectionScan#computeProfile(de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode, int, int)}.
+   */
+  @Test
+  public void testComputeProfile() {
+    final int rangeStart = 3_000;
+    final int rangeEnd = 9_000;
+    final ProfileConnectionScan profileScan = new ProfileConnectionScan(mTable);
+    final ConnectionScan scan = new ConnectionScan(mTable);
+    int amountOfEntries = 0;
+
+    for (int destination = 0; destination < AMOUNT_OF_STOPS; destination++) {
+      final TransitNode destinationNode = new TransitNode(destination, 0.0F, 0.0F, 0);
+      final ConnectionScanProfile profile = profileScan.computeProfile(destinationNode, rangeStart, rangeEnd);
+
+      for (int source = 0; source < AMOUNT_OF_STOPS; source++) {
+        // The profile agrees with a forward scan for every departure time
+        for (int depTime = rangeStart; depTime <= rangeEnd; depTime += 150) {
+          final Optional<Double> duration =
+              scan.computeShortestPathCost(new TransitNode(source, 0.0F, 0.0F, depTime), destinationNode);
+          int expectedArrTime = Integer.MAX_VALUE;
+          // Connections departing a day after the range start are not part of
+          // the profile
+          if (duration.isPresent() && depTime + duration.get().intValue() < rangeStart + SECONDS_OF_DAY) {
+            expectedArrTime = depTime + duration.get().intValue();
+          }
+
+          int arrTime = profile.getEarliestArrTime(source, depTime);
+          final int walkingDuration = profile.getWalkingDuration(source);
+          if (walkingDuration != Integer.MAX_VALUE) {
+            arrTime = Math.min(arrTime, depTime + walkingDuration);
+          }
+          Assert.assertEquals(expectedArrTime, arrTime);
+        }
+
+        // Entries are Pareto-optimal and within the range
+        final List<ProfileEntry> entries = profile.getProfile(source);
+        amountOfEntries += entries.size();
+        for (int i = 0; i < entries.size(); i++) {
+          final ProfileEntry entry = entries.get(i);
+          Assert.assertTrue(entry.getDepTime() >= rangeStart && entry.getDepTime() <= rangeEnd);
+          Assert.assertEquals(profile.getEarliestArrTime(source, entry.getDepTime()), entry.getArrTime());
+          if (i > 0) {
+            Assert.assertTrue(entries.get(i - 1).getDepTime() < entry.getDepTime());
+            Assert.assertTrue(entries.get(i - 1).getArrTime() < entry.getArrTime());
+          }
+        }
+      }
+    }
+    Assert.assertTrue(amountOfEntries > 0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ProfileConnectionScan#computeProfile(java.util.Map, int, int, int)}.
+   */
+  @Test
+  public void testComputeProfileMultipleDestinations() {
+    final int rangeStart = 3_000;
+    final int rangeEnd = 9_000;
+    final int latestArrTime = 10_000;
+    final ProfileConnectionScan profileScan = new ProfileConnectionScan(mTable);
+    final ConnectionScan scan = new ConnectionScan(mTable);
+
+    for (int destination = 0; destination < AMOUNT_OF_STOPS; destination++) {
+      final Map<ICoreNode, Integer> destinationToEgressDuration = new HashMap<>();
+      destinationToEgressDuration.put(new TransitNode(destination, 0.0F, 0.0F, 0), 0);
+      destinationToEgressDuration.put(new TransitNode((destination + 1) % AMOUNT_OF_STOPS, 0.0F, 0.0F, 0), 900);
+      final ConnectionScanProfile profile =
+          profileScan.computeProfile(destinationToEgressDuration, rangeStart, rangeEnd, latestArrTime);
+
+      for (int source = 0; source < AMOUNT_OF_STOPS; source++) {
+        // The profile agrees with a forward scan to all destinations for every
+        // departure time arriving before the latest arrival time
+        for (int depTime = rangeStart; depTime <= rangeEnd; depTime += 150) {
+          final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> path = scan.computeShortestPath(
+              Collections.singletonList(new TransitNode(source, 0.0F, 0.0F, depTime)), destinationToEgressDuration);
+          int expectedArrTime = Integer.MAX_VALUE;
+          if (path.isPresent()) {
+            expectedArrTime = depTime + (int) path.get().getTotalCost()
+                + ProfileConnectionScanTest.getEgressDuration(destinationToEgressDuration, path.get());
+          }
+
+          int arrTime = profile.getEarliestArrTime(source, depTime);
+          final int walkingDuration = profile.getWalkingDuration(source);
+          if (walkingDuration != Integer.MAX_VALUE) {
+            arrTime = Math.min(arrTime, depTime + walkingDuration);
+          }
+          if (expectedArrTime < latestArrTime) {
+            Assert.assertEquals(expectedArrTime, arrTime);
+          } else {
+            Assert.assertTrue(arrTime >= latestArrTime);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ProfileConnectionScan#extractPath(ConnectionScanProfile, int, int)}.
+   */
+  @Test
+  public void testExtractPath() {
+    final int rangeStart = 3_000;
+    final int rangeEnd = 9_000;
+    final ProfileConnectionScan profileScan = new ProfileConnectionScan(mTable);
+    int amountOfPaths = 0;
+
+    for (int destination = 0; destination < AMOUNT_OF_STOPS; destination++) {
+      final Map<ICoreNode, Integer> destinationToEgressDuration = new HashMap<>();
+      destinationToEgressDuration.put(new TransitNode(destination, 0.0F, 0.0F, 0), 0);
+      destinationToEgressDuration.put(new TransitNode((destination + 3) % AMOUNT_OF_STOPS, 0.0F, 0.0F, 0), 600);
+      final ConnectionScanProfile profile =
+          profileScan.computeProfile(destinationToEgressDuration, rangeStart, rangeEnd, Integer.MAX_VALUE);
+
+      for (int source = 0; source < AMOUNT_OF_STOPS; source++) {
+        // The path of every entry departs at its time and arrives at its time
+        for (final ProfileEntry entry : profile.getProfile(source)) {
+          final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> path =
+              profileScan.extractPath(profile, source, entry.getDepTime());
+          Assert.assertTrue(path.isPresent());
+          amountOfPaths++;
+
+          Assert.assertEquals(source, path.get().getSource().getId());
+          Assert.assertEquals(entry.getDepTime(), ((TransitNode) path.get().getSource()).getTime());
+          Assert.assertEquals(entry.getArrTime() - entry.getDepTime(), (int) path.get().getTotalCost()
+              + ProfileConnectionScanTest.getEgressDuration(destinationToEgressDuration, path.get()));
+
+          // The edges of the path are connected
+          ICoreNode previousDestination = path.get().getSource();
+          for (final EdgeCost<ICoreNode, ICoreEdge<ICoreNode>> edgeCost : path.get()) {
+            Assert.assertEquals(previousDestination.getId(), edgeCost.getEdge().getSource().getId());
+            Assert.assertTrue(edgeCost.getCost() >= 0.0);
+            previousDestination = edgeCost.getEdge().getDestination();
+          }
+          Assert.assertEquals(previousDestination.getId(), path.get().getDestination().getId());
+        }
+      }
+    }
+    Assert.assertTrue(amountOfPaths > 0);
+  }
+}
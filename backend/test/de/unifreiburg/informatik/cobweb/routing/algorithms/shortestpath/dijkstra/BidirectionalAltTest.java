@@ -0,0 +1,213 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.parsing.osm.EHighwayType;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark.LandmarkMetric;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.landmark.RandomLandmarks;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.BasicEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.BasicGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.BasicNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.EdgeCost;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+
+/**
+ * Test for the class {@link BidirectionalAlt}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class BidirectionalAltTest {
+  /**
+   * The bidirectional ALT used for testing.
+   */
+  private BidirectionalAlt<BasicNode, BasicEdge<BasicNode>> mAlt;
+  /**
+   * Counter used for generating unique edge IDs.
+   */
+  private int mEdgeIdCounter;
+  /**
+   * The graph used for testing.
+   */
+  private BasicGraph mGraph;
+
+  /**
+   * Setups a bidirectional ALT instance for testing.
+   */
+  @Before
+  public void setUp() {
+    mGraph = new BasicGraph();
+    final BasicNode firstNode = new BasicNode(1);
+    final BasicNode secondNode = new BasicNode(2);
+    final BasicNode thirdNode = new BasicNode(3);
+    final BasicNode fourthNode = new BasicNode(4);
+    final BasicNode fifthNode = new BasicNode(5);
+    final BasicNode sixthNode = new BasicNode(6);
+    final BasicNode seventhNode = new BasicNode(7);
+
+    mGraph.addNode(firstNode);
+    mGraph.addNode(secondNode);
+    mGraph.addNode(thirdNode);
+    mGraph.addNode(fourthNode);
+    mGraph.addNode(fifthNode);
+    mGraph.addNode(sixthNode);
+    mGraph.addNode(seventhNode);
+
+    addEdge(firstNode, secondNode, 1);
+    addEdge(secondNode, firstNode, 1);
+    addEdge(secondNode, thirdNode, 1);
+    addEdge(thirdNode, secondNode, 1);
+    addEdge(firstNode, thirdNode, 3);
+    addEdge(thirdNode, fourthNode, 1);
+    addEdge(fourthNode, thirdNode, 1);
+    addEdge(firstNode, fourthNode, 10);
+    addEdge(firstNode, fifthNode, 4);
+    addEdge(fifthNode, firstNode, 4);
+    addEdge(fifthNode, secondNode, 5);
+    addEdge(fifthNode, sixthNode, 3);
+    addEdge(sixthNode, fourthNode, 1);
+    addEdge(fourthNode, sixthNode, 2);
+    // The seventh node can only be left
+    addEdge(seventhNode, firstNode, 2);
+
+    mAlt = new BidirectionalAlt<>(mGraph, new LandmarkMetric<>(2, mGraph, new RandomLandmarks<>(mGraph)));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.BidirectionalAlt#computeShortestPath(java.util.Collection, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}.
+   */
+  @Test
+  public void testComputeShortestPath() {
+    final Optional<IPath<BasicNode, BasicEdge<BasicNode>>> possiblePath =
+        mAlt.computeShortestPath(mGraph.getNodeById(7).get(), mGraph.getNodeById(4).get());
+    Assert.assertTrue(possiblePath.isPresent());
+    final IPath<BasicNode, BasicEdge<BasicNode>> path = possiblePath.get();
+
+    Assert.assertEquals(5.0, path.getTotalCost(), 0.0001);
+    Assert.assertEquals(7, path.getSource().getId());
+    Assert.assertEquals(4, path.getDestination().getId());
+    Assert.assertEquals(4, path.length());
+
+    final Iterator<EdgeCost<BasicNode, BasicEdge<BasicNode>>> edgeIter = path.iterator();
+    Assert.assertEquals(1, edgeIter.next().getEdge().getDestination().getId());
+    Assert.assertEquals(2, edgeIter.next().getEdge().getDestination().getId());
+    Assert.assertEquals(3, edgeIter.next().getEdge().getDestination().getId());
+    Assert.assertEquals(4, edgeIter.next().getEdge().getDestination().getId());
+    Assert.assertFalse(edgeIter.hasNext());
+
+    final BasicNode first = mGraph.getNodeById(1).get();
+    Assert.assertEquals(0, mAlt.computeShortestPath(first, first).get().length());
+    Assert.assertFalse(mAlt.computeShortestPath(first, mGraph.getNodeById(7).get()).isPresent());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.BidirectionalAlt#computeShortestPathCost(java.util.Collection, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}.
+   */
+  @Test
+  public void testComputeShortestPathCost() {
+    final Dijkstra<BasicNode, BasicEdge<BasicNode>> dijkstra = new Dijkstra<>(mGraph);
+    for (final BasicNode source : mGraph.getNodes()) {
+      for (final BasicNode destination : mGraph.getNodes()) {
+        final Optional<Double> expected = dijkstra.computeShortestPathCost(source, destination);
+        final Optional<Double> actual = mAlt.computeShortestPathCost(source, destination);
+        Assert.assertEquals(expected.isPresent(), actual.isPresent());
+        if (expected.isPresent()) {
+          Assert.assertEquals(expected.get().doubleValue(), actual.get().doubleValue(), 0.0001);
+        }
+      }
+    }
+
+    final BasicNode fifth = mGraph.getNodeById(5).get();
+    final BasicNode seventh = mGraph.getNodeById(7).get();
+    Assert.assertEquals(4.0,
+        mAlt.computeShortestPathCost(Arrays.asList(fifth, seventh), mGraph.getNodeById(3).get()).get(), 0.0001);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.BidirectionalAlt#computeShortestPathCost(java.util.Collection, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}
+   * on a {@link StaticRoadGraph}.
+   */
+  @Test
+  public void testComputeShortestPathCostStaticRoadGraph() {
+    final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> roadGraph = new RoadGraph<>();
+    final int size = 6;
+    final RoadNode[] nodes = new RoadNode[size * size];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = new RoadNode(i, 48.0F + i / size * 0.001F, 7.8F + i % size * 0.0015F);
+      roadGraph.addNode(nodes[i]);
+    }
+    int edgeId = 0;
+    for (int i = 0; i < nodes.length; i++) {
+      if (i % size + 1 < size) {
+        roadGraph.addEdge(new RoadEdge<>(edgeId, nodes[i], nodes[i + 1], EHighwayType.PRIMARY, 70,
+            EnumSet.of(ETransportationMode.CAR)));
+        edgeId++;
+        roadGraph.addEdge(new RoadEdge<>(edgeId, nodes[i + 1], nodes[i], EHighwayType.RESIDENTIAL, 30,
+            EnumSet.of(ETransportationMode.CAR)));
+        edgeId++;
+      }
+      if (i + size < nodes.length) {
+        roadGraph.addEdge(new RoadEdge<>(edgeId, nodes[i], nodes[i + size], EHighwayType.SECONDARY, 50,
+            EnumSet.of(ETransportationMode.CAR)));
+        edgeId++;
+        roadGraph.addEdge(new RoadEdge<>(edgeId, nodes[i + size], nodes[i], EHighwayType.SECONDARY, 50,
+            EnumSet.of(ETransportationMode.CAR)));
+        edgeId++;
+      }
+    }
+    final StaticRoadGraph graph = StaticRoadGraph.of(roadGraph);
+
+    final Dijkstra<ICoreNode, ICoreEdge<ICoreNode>> dijkstra = new Dijkstra<>(graph);
+    final BidirectionalAlt<ICoreNode, ICoreEdge<ICoreNode>> alt =
+        new BidirectionalAlt<>(graph, new LandmarkMetric<>(4, graph, new RandomLandmarks<>(graph)));
+    for (final RoadNode source : nodes) {
+      for (final RoadNode destination : nodes) {
+        final double expected = dijkstra.computeShortestPathCost(source, destination).get();
+        Assert.assertEquals(expected, alt.computeShortestPathCost(source, destination).get(), 0.001);
+        Assert.assertEquals(expected, alt.computeShortestPath(source, destination).get().getTotalCost(), 0.001);
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.BidirectionalAlt#computeShortestPathCostsReachable(java.util.Collection)}.
+   */
+  @Test
+  public void testComputeShortestPathCostsReachable() {
+    try {
+      mAlt.computeShortestPathCostsReachable(mGraph.getNodeById(1).get());
+      Assert.fail();
+    } catch (final UnsupportedOperationException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Adds an edge to the graph used for testing.
+   *
+   * @param source      The source of the edge
+   * @param destination The destination of the edge
+   * @param cost        The cost of the edge
+   */
+  private void addEdge(final BasicNode source, final BasicNode destination, final double cost) {
+    mGraph.addEdge(new BasicEdge<>(mEdgeIdCounter, source, destination, cost));
+    mEdgeIdCounter++;
+  }
+}
@@ -3,6 +3,7 @@ package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstr
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -13,13 +14,23 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import de.unifreiburg.informatik.cobweb.parsing.osm.EHighwayType;
 import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.QueryDeadline;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.BasicEdge;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.BasicGraph;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.BasicNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.EdgeCost;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IHasId;
 import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
 
 /**
  * Test for the class {@link Dijkstra}.
@@ -39,6 +50,10 @@ public final class DijkstraTest {
    * The graph used for testing.
    */
   private BasicGraph mGraph;
+  /**
+   * The nodes of the road graphs used for testing.
+   */
+  private RoadNode[] mRoadNodes;
 
   /**
    * Setups a Dijkstra instance for testing.
@@ -71,6 +86,9 @@ public final class DijkstraTest {
     addEdgeInBothDirections(mGraph, sixthNode, fourthNode, 1);
 
     mDijkstra = new Dijkstra<>(mGraph);
+
+    mRoadNodes = new RoadNode[] { new RoadNode(0, 1.0F, 1.0F), new RoadNode(1, 1.0F, 1.01F),
+        new RoadNode(2, 1.01F, 1.01F), new RoadNode(3, 1.01F, 1.0F) };
   }
 
   /**
@@ -169,6 +187,195 @@ public final class DijkstraTest {
     Assert.assertEquals(4.0, nodeToDistance.get(mGraph.getNodeById(6).get()).getPathCost(), 0.0001);
   }
 
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra#computeShortestPathCost(java.util.Collection, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}
+   * on a {@link StaticRoadGraph}, which provides dense node indices.
+   */
+  @Test
+  public void testComputeShortestPathCostStaticRoadGraph() {
+    final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> roadGraph =
+        createRoadGraph(new int[][] { { 0, 1 }, { 1, 2 }, { 2, 3 }, { 3, 0 }, { 0, 2 }, { 2, 0 } });
+    final StaticRoadGraph staticGraph = StaticRoadGraph.of(roadGraph);
+
+    final Dijkstra<ICoreNode, ICoreEdge<ICoreNode>> expectedDijkstra = new Dijkstra<>(roadGraph);
+    final Dijkstra<ICoreNode, ICoreEdge<ICoreNode>> actualDijkstra = new Dijkstra<>(staticGraph);
+    for (final RoadNode source : mRoadNodes) {
+      for (final RoadNode destination : mRoadNodes) {
+        final double expected = expectedDijkstra.computeShortestPathCost(source, destination).get();
+        final double actual = actualDijkstra.computeShortestPathCost(source, destination).get();
+        Assert.assertEquals(expected, actual, 0.001);
+        Assert.assertEquals(actual,
+            actualDijkstra.computeShortestPath(source, destination).get().getTotalCost(), 0.001);
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra#computeShortestPath(java.util.Collection, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}
+   * on a {@link StaticRoadGraph} with a subclass that overrides the hooks
+   * taking edge objects and tentative distance containers.
+   */
+  @Test
+  public void testComputeShortestPathStaticRoadGraphHooks() {
+    final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> roadGraph =
+        createRoadGraph(new int[][] { { 0, 1 }, { 1, 2 }, { 0, 2 }, { 2, 3 } });
+    final StaticRoadGraph staticGraph = StaticRoadGraph.of(roadGraph);
+
+    // Ignores the shortcut, doubles all costs and aborts once the third node
+    // was settled
+    final Dijkstra<ICoreNode, ICoreEdge<ICoreNode>> dijkstra = new Dijkstra<ICoreNode, ICoreEdge<ICoreNode>>(
+        staticGraph) {
+      @Override
+      protected boolean considerEdgeForRelaxation(final ICoreEdge<ICoreNode> edge, final ICoreNode pathDestination) {
+        return edge.getId() != 2;
+      }
+
+      @Override
+      protected double provideEdgeCost(final ICoreEdge<ICoreNode> edge, final double tentativeDistance) {
+        return 2 * edge.getCost();
+      }
+
+      @Override
+      protected boolean shouldAbort(final TentativeDistance<ICoreNode, ICoreEdge<ICoreNode>> tentativeDistance) {
+        return tentativeDistance.getNode().getId() == 2;
+      }
+    };
+    final IPath<ICoreNode, ICoreEdge<ICoreNode>> path =
+        dijkstra.computeShortestPath(mRoadNodes[0], mRoadNodes[2]).get();
+    Assert.assertEquals(2, path.length());
+    final Iterator<EdgeCost<ICoreNode, ICoreEdge<ICoreNode>>> pathIter = path.iterator();
+    final ICoreEdge<ICoreNode> firstEdge = pathIter.next().getEdge();
+    final ICoreEdge<ICoreNode> secondEdge = pathIter.next().getEdge();
+    Assert.assertEquals(0, firstEdge.getId());
+    Assert.assertEquals(1, secondEdge.getId());
+    Assert.assertEquals(2 * (firstEdge.getCost() + secondEdge.getCost()), path.getTotalCost(), 0.001);
+    Assert.assertFalse(dijkstra.computeShortestPath(mRoadNodes[0], mRoadNodes[3]).isPresent());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra#computeShortestPathCostsReachable(java.util.Collection)}
+   * on a {@link ReversedGraph}, which computes distances to the sources.
+   */
+  @Test
+  public void testComputeShortestPathCostsReachableReversedGraph() {
+    final BasicNode first = mGraph.getNodeById(1).get();
+    final BasicNode fourth = mGraph.getNodeById(4).get();
+    mGraph.addEdge(new BasicEdge<>(mEdgeIdCounter, fourth, first, 1));
+    mEdgeIdCounter++;
+
+    final Dijkstra<BasicNode, BasicEdge<BasicNode>> backwardDijkstra = new Dijkstra<>(new ReversedGraph<>(mGraph));
+    final Map<BasicNode, ? extends IHasPathCost> nodeToDistance =
+        backwardDijkstra.computeShortestPathCostsReachable(first);
+    for (final BasicNode node : mGraph.getNodes()) {
+      Assert.assertEquals(mDijkstra.computeShortestPathCost(node, first).get().doubleValue(),
+          nodeToDistance.get(node).getPathCost(), 0.0001);
+    }
+    Assert.assertEquals(1.0, nodeToDistance.get(fourth).getPathCost(), 0.0001);
+    Assert.assertEquals(3.0, mDijkstra.computeShortestPathCost(first, fourth).get().doubleValue(), 0.0001);
+
+    final Optional<IPath<BasicNode, BasicEdge<BasicNode>>> path = backwardDijkstra.computeShortestPath(first, fourth);
+    Assert.assertTrue(path.isPresent());
+    Assert.assertEquals(fourth, path.get().getSource());
+    Assert.assertEquals(first, path.get().getDestination());
+    Assert.assertEquals(1, path.get().length());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra#computeShortestPathCost(java.util.Collection, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}
+   * on a {@link ReversedGraph} of a {@link StaticRoadGraph}.
+   */
+  @Test
+  public void testComputeShortestPathCostReversedStaticRoadGraph() {
+    final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> roadGraph =
+        createRoadGraph(new int[][] { { 0, 1 }, { 1, 2 }, { 2, 3 }, { 3, 0 }, { 0, 2 } });
+    final StaticRoadGraph staticGraph = StaticRoadGraph.of(roadGraph);
+
+    final Dijkstra<ICoreNode, ICoreEdge<ICoreNode>> forwardDijkstra = new Dijkstra<>(staticGraph);
+    final Dijkstra<ICoreNode, ICoreEdge<ICoreNode>> backwardDijkstra =
+        new Dijkstra<>(new ReversedGraph<>(staticGraph));
+    for (final RoadNode source : mRoadNodes) {
+      for (final RoadNode destination : mRoadNodes) {
+        Assert.assertEquals(forwardDijkstra.computeShortestPathCost(source, destination).get().doubleValue(),
+            backwardDijkstra.computeShortestPathCost(destination, source).get().doubleValue(), 0.001);
+      }
+    }
+    Assert.assertFalse(staticGraph.isReversed());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra#computeShortestPath(java.util.Collection, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}
+   * with an expired {@link QueryDeadline}.
+   */
+  @Test
+  public void testComputeShortestPathDeadline() {
+    // A line of nodes, long enough for the deadline to be checked
+    final BasicGraph graph = new BasicGraph();
+    final int amountOfNodes = 2 * QueryDeadline.CHECK_INTERVAL;
+    BasicNode previousNode = new BasicNode(0);
+    graph.addNode(previousNode);
+    for (int i = 1; i < amountOfNodes; i++) {
+      final BasicNode node = new BasicNode(i);
+      graph.addNode(node);
+      addEdgeInOneDirection(graph, previousNode, node, 1);
+      previousNode = node;
+    }
+    final Dijkstra<BasicNode, BasicEdge<BasicNode>> dijkstra = new Dijkstra<>(graph);
+    final BasicNode source = graph.getNodeById(0).get();
+    final BasicNode destination = graph.getNodeById(amountOfNodes - 1).get();
+
+    QueryDeadline.setDeadline(System.nanoTime());
+    try {
+      Assert.assertTrue(QueryDeadline.isExpired());
+      Assert.assertFalse(dijkstra.computeShortestPath(source, destination).isPresent());
+    } finally {
+      QueryDeadline.clear();
+    }
+    Assert.assertFalse(QueryDeadline.isExpired());
+    Assert.assertEquals(amountOfNodes - 1, dijkstra.computeShortestPathCost(source, destination).get().doubleValue(),
+        0.0001);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra#computeShortestPaths(java.util.Collection, java.util.Collection)}.
+   */
+  @Test
+  public void testComputeShortestPaths() {
+    final BasicNode first = mGraph.getNodeById(1).get();
+    final BasicNode fourth = mGraph.getNodeById(4).get();
+    final BasicNode fifth = mGraph.getNodeById(5).get();
+    final BasicNode sixth = mGraph.getNodeById(6).get();
+
+    final Map<BasicNode, IPath<BasicNode, BasicEdge<BasicNode>>> destinationToPath =
+        mDijkstra.computeShortestPaths(Collections.singletonList(first), Arrays.asList(fourth, sixth, first));
+    Assert.assertEquals(3, destinationToPath.size());
+    Assert.assertEquals(3.0, destinationToPath.get(fourth).getTotalCost(), 0.0001);
+    Assert.assertEquals(3, destinationToPath.get(fourth).length());
+    Assert.assertEquals(1, destinationToPath.get(fourth).getSource().getId());
+    Assert.assertEquals(4.0, destinationToPath.get(sixth).getTotalCost(), 0.0001);
+    Assert.assertEquals(6, destinationToPath.get(sixth).getDestination().getId());
+    Assert.assertEquals(0, destinationToPath.get(first).length());
+
+    // Paths into a destination, extracted in the direction of the graph
+    final Dijkstra<BasicNode, BasicEdge<BasicNode>> backwardDijkstra = new Dijkstra<>(new ReversedGraph<>(mGraph));
+    final Map<BasicNode, IPath<BasicNode, BasicEdge<BasicNode>>> sourceToPath =
+        backwardDijkstra.computeShortestPaths(Collections.singletonList(fourth), Arrays.asList(first, fifth));
+    Assert.assertEquals(2, sourceToPath.size());
+    Assert.assertEquals(3.0, sourceToPath.get(first).getTotalCost(), 0.0001);
+    Assert.assertEquals(1, sourceToPath.get(first).getSource().getId());
+    Assert.assertEquals(4, sourceToPath.get(first).getDestination().getId());
+    Assert.assertEquals(4.0, sourceToPath.get(fifth).getTotalCost(), 0.0001);
+    Assert.assertEquals(5, sourceToPath.get(fifth).getSource().getId());
+
+    Assert.assertTrue(mDijkstra.computeShortestPaths(Collections.singletonList(first), Collections.emptyList())
+        .isEmpty());
+  }
+
   /**
    * Test method for
    * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra#Dijkstra(de.unifreiburg.informatik.cobweb.routing.model.graph.IGraph)}.
@@ -213,4 +420,26 @@ public final class DijkstraTest {
     mEdgeIdCounter++;
   }
 
+  /**
+   * Creates a road graph consisting of the road nodes used for testing and the
+   * given edges.
+   *
+   * @param edges The edges to add, each given by the indices of its source and
+   *              destination node. The index of an edge is used as its ID.
+   * @return The created road graph
+   */
+  private RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> createRoadGraph(final int[][] edges) {
+    final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> roadGraph = new RoadGraph<>();
+    for (final RoadNode node : mRoadNodes) {
+      roadGraph.addNode(node);
+    }
+    int edgeId = 0;
+    for (final int[] edge : edges) {
+      roadGraph.addEdge(new RoadEdge<>(edgeId, mRoadNodes[edge[0]], mRoadNodes[edge[1]], EHighwayType.RESIDENTIAL,
+          50, EnumSet.of(ETransportationMode.CAR)));
+      edgeId++;
+    }
+    return roadGraph;
+  }
+
 }
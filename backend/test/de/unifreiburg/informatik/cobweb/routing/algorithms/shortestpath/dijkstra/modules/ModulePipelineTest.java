@@ -0,0 +1,204 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.OptionalDouble;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.parsing.osm.EHighwayType;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.TentativeDistance;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+
+/**
+ * Test for the class {@link ModulePipeline}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ModulePipelineTest {
+  /**
+   * A road edge allowing car and foot used for testing.
+   */
+  private RoadEdge<ICoreNode> mEdge;
+  /**
+   * The destination of the edge used for testing.
+   */
+  private RoadNode mDestination;
+  /**
+   * The source of the edge used for testing.
+   */
+  private RoadNode mSource;
+
+  /**
+   * Setups an edge for testing.
+   */
+  @Before
+  public void setUp() {
+    mSource = new RoadNode(1, 48.0F, 7.8F);
+    mDestination = new RoadNode(2, 48.001F, 7.8F);
+    mEdge = new RoadEdge<>(1, mSource, mDestination, EHighwayType.RESIDENTIAL, 30,
+        EnumSet.of(ETransportationMode.CAR, ETransportationMode.FOOT));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.ModulePipeline#considerEdgeForRelaxation(de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}.
+   */
+  @Test
+  public void testConsiderEdgeForRelaxation() {
+    Assert.assertTrue(ModulePipeline.<ICoreNode, ICoreEdge<ICoreNode>>compile(Collections.emptyList())
+        .considerEdgeForRelaxation(mEdge, null));
+    Assert.assertTrue(ModulePipeline.compile(
+        Collections.<IModule<ICoreNode, ICoreEdge<ICoreNode>>>singletonList(
+            MultiModalModule.of(EnumSet.of(ETransportationMode.FOOT))))
+        .considerEdgeForRelaxation(mEdge, null));
+    Assert.assertFalse(ModulePipeline.compile(
+        Collections.<IModule<ICoreNode, ICoreEdge<ICoreNode>>>singletonList(
+            MultiModalModule.of(EnumSet.of(ETransportationMode.BIKE))))
+        .considerEdgeForRelaxation(mEdge, null));
+
+    final IModule<ICoreNode, ICoreEdge<ICoreNode>> rejectAll = new IModule<ICoreNode, ICoreEdge<ICoreNode>>() {
+      @Override
+      public boolean considerEdgeForRelaxation(final ICoreEdge<ICoreNode> edge, final ICoreNode pathDestination) {
+        return false;
+      }
+    };
+    Assert.assertFalse(ModulePipeline
+        .compile(Arrays.asList(MultiModalModule.of(EnumSet.of(ETransportationMode.FOOT)), rejectAll))
+        .considerEdgeForRelaxation(mEdge, null));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.ModulePipeline#getEstimatedDistance(de.unifreiburg.informatik.cobweb.routing.model.graph.INode, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}.
+   */
+  @Test
+  public void testGetEstimatedDistance() {
+    Assert.assertEquals(ModulePipeline.NO_VALUE, ModulePipeline
+        .<ICoreNode, ICoreEdge<ICoreNode>>compile(Collections.emptyList()).getEstimatedDistance(mSource, mDestination),
+        0.0);
+
+    final AStarModule<ICoreNode, ICoreEdge<ICoreNode>> firstModule = AStarModule.of((first, second) -> 2.0);
+    final AStarModule<ICoreNode, ICoreEdge<ICoreNode>> secondModule = AStarModule.of((first, second) -> 5.0);
+    Assert.assertEquals(2.0, ModulePipeline.compile(Collections.singletonList(firstModule))
+        .getEstimatedDistance(mSource, mDestination), 0.0);
+    // The greatest estimate is chosen
+    Assert.assertEquals(5.0, ModulePipeline.compile(Arrays.asList(firstModule, secondModule))
+        .getEstimatedDistance(mSource, mDestination), 0.0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.ModulePipeline#provideEdgeCost(de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge, double)}.
+   */
+  @Test
+  public void testProvideEdgeCost() {
+    final MultiModalModule<ICoreNode, ICoreEdge<ICoreNode>> footModule =
+        MultiModalModule.of(EnumSet.of(ETransportationMode.FOOT));
+    final ModulePipeline<ICoreNode, ICoreEdge<ICoreNode>> footPipeline =
+        ModulePipeline.compile(Collections.singletonList(footModule));
+    Assert.assertEquals(mEdge.getCost(ETransportationMode.FOOT), footPipeline.provideEdgeCost(mEdge, 0.0), 0.0001);
+    Assert.assertEquals(footModule.provideEdgeCost(mEdge, 0.0).getAsDouble(), footPipeline.provideEdgeCost(mEdge, 0.0),
+        0.0001);
+
+    // Car is the fastest mode, the cost is not adjusted
+    Assert.assertEquals(ModulePipeline.NO_VALUE, ModulePipeline
+        .compile(Collections.<IModule<ICoreNode, ICoreEdge<ICoreNode>>>singletonList(
+            MultiModalModule.of(EnumSet.of(ETransportationMode.FOOT, ETransportationMode.CAR))))
+        .provideEdgeCost(mEdge, 0.0), 0.0);
+
+    // The greatest cost is chosen
+    final IModule<ICoreNode, ICoreEdge<ICoreNode>> constantCost = new IModule<ICoreNode, ICoreEdge<ICoreNode>>() {
+      @Override
+      public OptionalDouble provideEdgeCost(final ICoreEdge<ICoreNode> edge, final double tentativeDistance) {
+        return OptionalDouble.of(1_000_000.0);
+      }
+    };
+    Assert.assertEquals(1_000_000.0,
+        ModulePipeline.compile(Arrays.asList(footModule, constantCost)).provideEdgeCost(mEdge, 0.0), 0.0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.ModulePipeline#shouldAbort(de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.TentativeDistance)}.
+   */
+  @Test
+  public void testShouldAbort() {
+    final ModulePipeline<ICoreNode, ICoreEdge<ICoreNode>> pipeline =
+        ModulePipeline.compile(Collections.singletonList(AbortAfterModule.of(10.0)));
+    Assert.assertFalse(pipeline.shouldAbort(new TentativeDistance<>(mSource, null, 5.0)));
+    Assert.assertTrue(pipeline.shouldAbort(new TentativeDistance<>(mSource, null, 15.0)));
+    Assert.assertFalse(ModulePipeline.<ICoreNode, ICoreEdge<ICoreNode>>compile(Collections.emptyList())
+        .shouldAbort(new TentativeDistance<>(mSource, null, 15.0)));
+
+    // The abort range is checked without tentative distance containers
+    Assert.assertFalse(pipeline.shouldAbort(5.0));
+    Assert.assertTrue(pipeline.shouldAbort(15.0));
+    Assert.assertFalse(pipeline.hasAbortModules());
+
+    final IModule<ICoreNode, ICoreEdge<ICoreNode>> abortAll = new IModule<ICoreNode, ICoreEdge<ICoreNode>>() {
+      @Override
+      public boolean shouldAbort(final TentativeDistance<ICoreNode, ICoreEdge<ICoreNode>> tentativeDistance) {
+        return true;
+      }
+    };
+    final ModulePipeline<ICoreNode, ICoreEdge<ICoreNode>> abortAllPipeline =
+        ModulePipeline.compile(Collections.singletonList(abortAll));
+    Assert.assertTrue(abortAllPipeline.hasAbortModules());
+    Assert.assertFalse(abortAllPipeline.shouldAbort(15.0));
+    Assert.assertTrue(abortAllPipeline.shouldAbort(new TentativeDistance<>(mSource, null, 5.0)));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.ModulePipeline#considerEdgeForRelaxation(StaticRoadGraph, int, de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}
+   * and
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.ModulePipeline#provideEdgeCost(StaticRoadGraph, int, double)}.
+   */
+  @Test
+  public void testStaticRoadGraph() {
+    final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> roadGraph = new RoadGraph<>();
+    roadGraph.addNode(mSource);
+    roadGraph.addNode(mDestination);
+    roadGraph.addEdge(mEdge);
+    final StaticRoadGraph graph = StaticRoadGraph.of(roadGraph);
+
+    final IModule<ICoreNode, ICoreEdge<ICoreNode>> rejectAll = new IModule<ICoreNode, ICoreEdge<ICoreNode>>() {
+      @Override
+      public boolean considerEdgeForRelaxation(final ICoreEdge<ICoreNode> edge, final ICoreNode pathDestination) {
+        return false;
+      }
+    };
+    final IModule<ICoreNode, ICoreEdge<ICoreNode>> constantCost = new IModule<ICoreNode, ICoreEdge<ICoreNode>>() {
+      @Override
+      public OptionalDouble provideEdgeCost(final ICoreEdge<ICoreNode> edge, final double tentativeDistance) {
+        return OptionalDouble.of(1_000_000.0);
+      }
+    };
+    final List<List<IModule<ICoreNode, ICoreEdge<ICoreNode>>>> moduleCombinations = Arrays.asList(
+        Collections.emptyList(), Collections.singletonList(MultiModalModule.of(EnumSet.of(ETransportationMode.FOOT))),
+        Collections.singletonList(MultiModalModule.of(EnumSet.of(ETransportationMode.BIKE))),
+        Collections.singletonList(MultiModalModule.of(EnumSet.of(ETransportationMode.FOOT, ETransportationMode.CAR))),
+        Arrays.asList(MultiModalModule.of(EnumSet.of(ETransportationMode.FOOT)), rejectAll),
+        Arrays.asList(MultiModalModule.of(EnumSet.of(ETransportationMode.FOOT)), constantCost));
+
+    // Results by edge index must match the results for the edge object
+    for (final List<IModule<ICoreNode, ICoreEdge<ICoreNode>>> modules : moduleCombinations) {
+      final ModulePipeline<ICoreNode, ICoreEdge<ICoreNode>> pipeline = ModulePipeline.compile(modules);
+      Assert.assertEquals(pipeline.considerEdgeForRelaxation(graph.getEdge(0), null),
+          pipeline.considerEdgeForRelaxation(graph, 0, null));
+      Assert.assertEquals(pipeline.provideEdgeCost(graph.getEdge(0), 0.0), pipeline.provideEdgeCost(graph, 0, 0.0),
+          0.0001);
+    }
+  }
+}
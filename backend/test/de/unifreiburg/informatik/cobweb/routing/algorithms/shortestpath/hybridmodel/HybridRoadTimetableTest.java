@@ -0,0 +1,375 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.parsing.osm.EHighwayType;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.nearestneighbor.INearestNeighborComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.AShortestPathComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.EdgePath;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IHasPathCost;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.ITransitComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.QueryDeadline;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.Dijkstra;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.EdgeCost;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadNode;
+
+/**
+ * Test for the class {@link HybridRoadTimetable}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class HybridRoadTimetableTest {
+  /**
+   * The cost of the transit ride used for testing, in seconds.
+   */
+  private static final double TRANSIT_COST = 60.0;
+
+  /**
+   * Gets the edges of the given path.
+   *
+   * @param path The path to get the edges of
+   * @return The edges of the path, in order
+   */
+  private static List<ICoreEdge<ICoreNode>> getEdges(final IPath<ICoreNode, ICoreEdge<ICoreNode>> path) {
+    final List<ICoreEdge<ICoreNode>> edges = new ArrayList<>();
+    final Iterator<EdgeCost<ICoreNode, ICoreEdge<ICoreNode>>> edgeIter = path.iterator();
+    while (edgeIter.hasNext()) {
+      edges.add(edgeIter.next().getEdge());
+    }
+    return edges;
+  }
+
+  /**
+   * The destination of the queries used for testing.
+   */
+  private RoadNode mDestination;
+  /**
+   * The stop near the destination.
+   */
+  private RoadNode mDestinationStop;
+  /**
+   * The road graph used for testing.
+   */
+  private RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> mGraph;
+  /**
+   * The source of the queries used for testing.
+   */
+  private RoadNode mSource;
+  /**
+   * The stop near the source.
+   */
+  private RoadNode mSourceStop;
+  /**
+   * The road node of each stop.
+   */
+  private Map<ICoreNode, ICoreNode> mStopToRoadNode;
+
+  /**
+   * Setups a road with a long walk between source and destination, which is
+   * shortcut by a transit ride between stops near both ends.
+   */
+  @Before
+  public void setUp() {
+    mGraph = new RoadGraph<>();
+    mSource = new RoadNode(0, 48.0F, 7.8F);
+    final RoadNode sourceStopRoadNode = new RoadNode(1, 48.0F, 7.801F);
+    final RoadNode destinationStopRoadNode = new RoadNode(2, 48.0F, 7.83F);
+    mDestination = new RoadNode(3, 48.0F, 7.831F);
+    final RoadNode[] nodes = { mSource, sourceStopRoadNode, destinationStopRoadNode, mDestination };
+    for (final RoadNode node : nodes) {
+      mGraph.addNode(node);
+    }
+    for (int i = 0; i + 1 < nodes.length; i++) {
+      mGraph.addEdge(new RoadEdge<>(i, nodes[i], nodes[i + 1], EHighwayType.RESIDENTIAL, 30,
+          EnumSet.of(ETransportationMode.FOOT)));
+    }
+
+    mSourceStop = new RoadNode(10, 48.0F, 7.801F);
+    mDestinationStop = new RoadNode(11, 48.0F, 7.83F);
+    mStopToRoadNode = new HashMap<>();
+    mStopToRoadNode.put(mSourceStop, sourceStopRoadNode);
+    mStopToRoadNode.put(mDestinationStop, destinationStopRoadNode);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.HybridRoadTimetable#computeShortestPath(java.util.Collection, ICoreNode)}
+   * which runs its phases concurrently and sequentially.
+   */
+  @Test
+  public void testComputeShortestPath() {
+    final IPath<ICoreNode, ICoreEdge<ICoreNode>> sequentialPath =
+        createAlgorithm(new RecordingNearestNeighbor(mStopToRoadNode, false), null)
+            .computeShortestPath(mSource, mDestination).get();
+    final ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      final IPath<ICoreNode, ICoreEdge<ICoreNode>> parallelPath =
+          createAlgorithm(new RecordingNearestNeighbor(mStopToRoadNode, false), pool)
+              .computeShortestPath(mSource, mDestination).get();
+      Assert.assertEquals(HybridRoadTimetableTest.getEdges(sequentialPath),
+          HybridRoadTimetableTest.getEdges(parallelPath));
+      Assert.assertEquals(sequentialPath.getTotalCost(), parallelPath.getTotalCost(), 0.0);
+    } finally {
+      pool.shutdown();
+    }
+
+    // The journey takes the transit ride instead of walking
+    Assert.assertEquals(3, sequentialPath.length());
+    final double walkingCost = new Dijkstra<>(mGraph).computeShortestPathCost(mSource, mDestination).get();
+    Assert.assertTrue(sequentialPath.getTotalCost() < walkingCost);
+    Assert.assertTrue(sequentialPath.getTotalCost() > TRANSIT_COST);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.HybridRoadTimetable#computeShortestPath(java.util.Collection, ICoreNode)}
+   * whose phases are bound to the {@link QueryDeadline} of the calling thread.
+   *
+   * @throws ExecutionException   If the deadline of a pool thread could not be
+   *                              retrieved
+   * @throws InterruptedException If the thread was interrupted while waiting
+   *                              for the deadline of a pool thread
+   */
+  @Test
+  public void testComputeShortestPathDeadline() throws InterruptedException, ExecutionException {
+    final ForkJoinPool pool = new ForkJoinPool(1);
+    try {
+      final RecordingNearestNeighbor nearestNeighbor = new RecordingNearestNeighbor(mStopToRoadNode, false);
+      final long deadline = System.nanoTime() + TimeUnit.HOURS.toNanos(1);
+      QueryDeadline.setDeadline(deadline);
+      try {
+        Assert.assertTrue(createAlgorithm(nearestNeighbor, pool).computeShortestPath(mSource, mDestination)
+            .isPresent());
+      } finally {
+        QueryDeadline.clear();
+      }
+
+      // The phases run with the deadline of the query, which is removed from
+      // the pool thread afterwards
+      Assert.assertEquals(2, nearestNeighbor.getDeadlines().size());
+      for (final Long phaseDeadline : nearestNeighbor.getDeadlines()) {
+        Assert.assertEquals(deadline, phaseDeadline.longValue());
+      }
+      Assert.assertEquals(QueryDeadline.NO_DEADLINE, pool.submit(QueryDeadline::getDeadline).get().longValue());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.HybridRoadTimetable#computeShortestPath(java.util.Collection, ICoreNode)}
+   * with a phase that fails.
+   */
+  @Test
+  public void testComputeShortestPathPhaseException() {
+    final ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      for (final Executor executor : new Executor[] { null, pool }) {
+        final HybridRoadTimetable algorithm =
+            createAlgorithm(new RecordingNearestNeighbor(mStopToRoadNode, true), executor);
+        // The exception of the phase is propagated, not wrapped
+        boolean wasExceptionThrown = false;
+        try {
+          algorithm.computeShortestPath(mSource, mDestination);
+        } catch (final IllegalStateException e) {
+          wasExceptionThrown = true;
+        }
+        Assert.assertTrue(wasExceptionThrown);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.HybridRoadTimetable#computeShortestPath(java.util.Collection, ICoreNode)}
+   * whose executor was shut down.
+   */
+  @Test
+  public void testComputeShortestPathShutdownExecutor() {
+    final ForkJoinPool pool = new ForkJoinPool(2);
+    pool.shutdown();
+    final IPath<ICoreNode, ICoreEdge<ICoreNode>> path =
+        createAlgorithm(new RecordingNearestNeighbor(mStopToRoadNode, false), pool)
+            .computeShortestPath(mSource, mDestination).get();
+    // The phases are computed sequentially instead
+    Assert.assertEquals(3, path.length());
+  }
+
+  /**
+   * Creates a hybrid algorithm on the graph used for testing.
+   *
+   * @param nearestNeighbor The nearest neighbor computation resolving stops to
+   *                        road nodes
+   * @param executor        The executor to run phases on or <code>null</code>
+   *                        if they should run sequentially
+   * @return The created algorithm
+   */
+  private HybridRoadTimetable createAlgorithm(final RecordingNearestNeighbor nearestNeighbor,
+      final Executor executor) {
+    final Set<ETransportationMode> modes = EnumSet.of(ETransportationMode.FOOT, ETransportationMode.TRAM);
+    final IAccessNodeComputation<ICoreNode, ICoreNode> accessNodeComputation = node -> {
+      if (node.equals(mSource)) {
+        return Collections.singletonList(mSourceStop);
+      }
+      return Collections.singletonList(mDestinationStop);
+    };
+    return new HybridRoadTimetable(new Dijkstra<>(mGraph), new Dijkstra<>(mGraph),
+        new Dijkstra<>(new ReversedGraph<>(mGraph)), new FixedTransitComputation(mDestinationStop, TRANSIT_COST),
+        null, accessNodeComputation, nearestNeighbor, null, modes, 0L, executor);
+  }
+
+  /**
+   * Transit computation that always rides from the first source to a fixed
+   * stop with a fixed cost.
+   *
+   * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+   */
+  private static final class FixedTransitComputation extends AShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>>
+      implements ITransitComputation {
+    /**
+     * The cost of the ride, in seconds.
+     */
+    private final double mCost;
+    /**
+     * The stop the ride ends at.
+     */
+    private final ICoreNode mDestination;
+
+    /**
+     * Creates a new transit computation.
+     *
+     * @param destination The stop the ride ends at
+     * @param cost        The cost of the ride, in seconds
+     */
+    FixedTransitComputation(final ICoreNode destination, final double cost) {
+      mDestination = destination;
+      mCost = cost;
+    }
+
+    @Override
+    public Collection<ICoreNode> computeSearchSpace(final Collection<ICoreNode> sources, final ICoreNode destination) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
+        final ICoreNode destination) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> computeShortestPath(final Collection<ICoreNode> sources,
+        final Map<ICoreNode, Integer> destinationToEgressDuration) {
+      if (sources.isEmpty() || !destinationToEgressDuration.containsKey(mDestination)) {
+        return Optional.empty();
+      }
+      final EdgePath<ICoreNode, ICoreEdge<ICoreNode>> path = new EdgePath<>();
+      path.addEdge(new RoadEdge<>(-1, sources.iterator().next(), mDestination, EHighwayType.RESIDENTIAL, 50,
+          EnumSet.of(ETransportationMode.TRAM)), mCost);
+      return Optional.of(path);
+    }
+
+    @Override
+    public Optional<Double> computeShortestPathCost(final Collection<ICoreNode> sources,
+        final ICoreNode destination) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<ICoreNode, ? extends IHasPathCost>
+        computeShortestPathCostsReachable(final Collection<ICoreNode> sources) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Nearest neighbor computation that resolves stops to fixed road nodes and
+   * records the query deadline of the threads it is called on.
+   *
+   * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+   */
+  private static final class RecordingNearestNeighbor implements INearestNeighborComputation<ICoreNode> {
+    /**
+     * The deadlines of the threads the computation was called on.
+     */
+    private final Queue<Long> mDeadlines;
+    /**
+     * Whether or not the computation fails with an exception.
+     */
+    private final boolean mIsFailing;
+    /**
+     * The road node of each stop.
+     */
+    private final Map<ICoreNode, ICoreNode> mStopToRoadNode;
+
+    /**
+     * Creates a new nearest neighbor computation.
+     *
+     * @param stopToRoadNode The road node of each stop
+     * @param isFailing      Whether or not the computation fails with an
+     *                       {@link IllegalStateException}
+     */
+    RecordingNearestNeighbor(final Map<ICoreNode, ICoreNode> stopToRoadNode, final boolean isFailing) {
+      mStopToRoadNode = stopToRoadNode;
+      mIsFailing = isFailing;
+      mDeadlines = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public Collection<ICoreNode> getKNearestNeighbors(final ICoreNode point, final int k) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Optional<ICoreNode> getNearestNeighbor(final ICoreNode point) {
+      mDeadlines.add(QueryDeadline.getDeadline());
+      if (mIsFailing) {
+        throw new IllegalStateException();
+      }
+      return Optional.ofNullable(mStopToRoadNode.get(point));
+    }
+
+    @Override
+    public Collection<ICoreNode> getNeighborhood(final ICoreNode point, final double range) {
+      throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets the deadlines of the threads the computation was called on.
+     *
+     * @return The recorded deadlines
+     */
+    Queue<Long> getDeadlines() {
+      return mDeadlines;
+    }
+  }
+}
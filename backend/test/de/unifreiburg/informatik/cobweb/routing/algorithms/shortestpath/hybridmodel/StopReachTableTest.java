@@ -0,0 +1,166 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.parsing.osm.EHighwayType;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.AsTheCrowFliesMetric;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.nearestneighbor.CoverTree;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.IShortestPathComputation;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.AbortAfterModule;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.ModuleDijkstra;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.dijkstra.modules.MultiModalModule;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+
+/**
+ * Test for the class {@link StopReachTable}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class StopReachTableTest {
+  /**
+   * The amount of stops of the timetable used for testing.
+   */
+  private static final int AMOUNT_OF_STOPS = 6;
+  /**
+   * The size of the grid graph used for testing, in nodes per side.
+   */
+  private static final int GRID_SIZE = 8;
+  /**
+   * The travel time in seconds after which to abort the searches.
+   */
+  private static final double MAX_COST = 200.0;
+
+  /**
+   * The static road graph used for testing.
+   */
+  private StaticRoadGraph mGraph;
+  /**
+   * The nearest neighbor computation over the road nodes used for testing.
+   */
+  private CoverTree<ICoreNode> mNearestRoadNode;
+  /**
+   * The timetable used for testing.
+   */
+  private Timetable mTable;
+
+  /**
+   * Setups a walkable grid graph, a timetable and a nearest neighbor
+   * computation for testing. Horizontal streets are one-way.
+   */
+  @Before
+  public void setUp() {
+    final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> roadGraph = new RoadGraph<>();
+    mNearestRoadNode = new CoverTree<>(new AsTheCrowFliesMetric<>());
+    final RoadNode[] nodes = new RoadNode[GRID_SIZE * GRID_SIZE];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = new RoadNode(i, 48.0F + i / GRID_SIZE * 0.001F, 7.8F + i % GRID_SIZE * 0.0015F);
+      roadGraph.addNode(nodes[i]);
+      mNearestRoadNode.insert(nodes[i]);
+    }
+    int edgeId = 0;
+    for (int i = 0; i < nodes.length; i++) {
+      if (i % GRID_SIZE + 1 < GRID_SIZE) {
+        roadGraph.addEdge(new RoadEdge<>(edgeId, nodes[i], nodes[i + 1], EHighwayType.RESIDENTIAL, 30,
+            EnumSet.of(ETransportationMode.FOOT)));
+        edgeId++;
+      }
+      if (i + GRID_SIZE < nodes.length) {
+        roadGraph.addEdge(new RoadEdge<>(edgeId, nodes[i], nodes[i + GRID_SIZE], EHighwayType.RESIDENTIAL, 30,
+            EnumSet.of(ETransportationMode.FOOT)));
+        edgeId++;
+        roadGraph.addEdge(new RoadEdge<>(edgeId, nodes[i + GRID_SIZE], nodes[i], EHighwayType.RESIDENTIAL, 30,
+            EnumSet.of(ETransportationMode.FOOT)));
+        edgeId++;
+      }
+    }
+    mGraph = StaticRoadGraph.of(roadGraph);
+
+    mTable = new Timetable();
+    for (int i = 0; i < AMOUNT_OF_STOPS; i++) {
+      mTable.addStop(new Stop(i, 48.0001F + i % 3 * 0.0029F, 7.8002F + i / 3 * 0.0061F));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.StopReachTable#getAccessPaths(java.util.Collection)}.
+   */
+  @Test
+  public void testGetAccessPaths() {
+    final StopReachTable reachTable =
+        StopReachTable.of(mGraph, mTable, mNearestRoadNode, ETransportationMode.FOOT, MAX_COST);
+    final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> dijkstra = ModuleDijkstra.of(mGraph,
+        AbortAfterModule.of(MAX_COST), MultiModalModule.of(EnumSet.of(ETransportationMode.FOOT)));
+
+    int amountOfPaths = 0;
+    for (final ICoreNode source : mGraph.getNodes()) {
+      final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> stopToPath =
+          reachTable.getAccessPaths(Collections.singletonList(source));
+      for (final Stop stop : mTable.getStops()) {
+        final ICoreNode stopNode = mNearestRoadNode.getNearestNeighbor(stop).get();
+        final Optional<Double> expectedCost = dijkstra.computeShortestPathCost(source, stopNode);
+        final IPath<ICoreNode, ICoreEdge<ICoreNode>> path = stopToPath.get(stop);
+        if (!expectedCost.isPresent() || expectedCost.get() > MAX_COST) {
+          Assert.assertNull(path);
+          continue;
+        }
+        Assert.assertNotNull(path);
+        Assert.assertEquals(source, path.getSource());
+        Assert.assertEquals(stopNode, path.getDestination());
+        Assert.assertEquals(expectedCost.get(), path.getTotalCost(), 0.01);
+        amountOfPaths++;
+      }
+    }
+    Assert.assertTrue(amountOfPaths > 0);
+    Assert.assertTrue(reachTable.getAccessPaths(Collections.emptyList()).isEmpty());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.StopReachTable#getEgressPaths(ICoreNode)}.
+   */
+  @Test
+  public void testGetEgressPaths() {
+    final StopReachTable reachTable =
+        StopReachTable.of(mGraph, mTable, mNearestRoadNode, ETransportationMode.FOOT, MAX_COST);
+    final IShortestPathComputation<ICoreNode, ICoreEdge<ICoreNode>> dijkstra = ModuleDijkstra.of(mGraph,
+        AbortAfterModule.of(MAX_COST), MultiModalModule.of(EnumSet.of(ETransportationMode.FOOT)));
+
+    int amountOfPaths = 0;
+    for (final ICoreNode destination : mGraph.getNodes()) {
+      final Map<ICoreNode, IPath<ICoreNode, ICoreEdge<ICoreNode>>> stopToPath =
+          reachTable.getEgressPaths(destination);
+      for (final Stop stop : mTable.getStops()) {
+        final ICoreNode stopNode = mNearestRoadNode.getNearestNeighbor(stop).get();
+        final Optional<Double> expectedCost = dijkstra.computeShortestPathCost(stopNode, destination);
+        final IPath<ICoreNode, ICoreEdge<ICoreNode>> path = stopToPath.get(stop);
+        if (!expectedCost.isPresent() || expectedCost.get() > MAX_COST) {
+          Assert.assertNull(path);
+          continue;
+        }
+        Assert.assertNotNull(path);
+        Assert.assertEquals(stopNode, path.getSource());
+        Assert.assertEquals(destination, path.getDestination());
+        Assert.assertEquals(expectedCost.get(), path.getTotalCost(), 0.01);
+        amountOfPaths++;
+      }
+    }
+    Assert.assertTrue(amountOfPaths > 0);
+  }
+}
@@ -0,0 +1,137 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.metrics.AsTheCrowFliesMetric;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.nearestneighbor.CoverTree;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.RoadNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+
+/**
+ * Test for the class {@link StopToRoadNodeTable}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class StopToRoadNodeTableTest {
+  /**
+   * The amount of road nodes of the graph used for testing.
+   */
+  private static final int AMOUNT_OF_ROAD_NODES = 20;
+  /**
+   * The amount of stops of the timetable used for testing.
+   */
+  private static final int AMOUNT_OF_STOPS = 8;
+
+  /**
+   * The static road graph used for testing.
+   */
+  private StaticRoadGraph mGraph;
+  /**
+   * The nearest neighbor computation over the road nodes used for testing.
+   */
+  private CoverTree<ICoreNode> mNearestRoadNode;
+  /**
+   * The timetable used for testing.
+   */
+  private Timetable mTable;
+  /**
+   * Temporary folder used for cache files.
+   */
+  @Rule
+  public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+  /**
+   * Setups a graph, a timetable and a nearest neighbor computation for testing.
+   */
+  @Before
+  public void setUp() {
+    final RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> roadGraph = new RoadGraph<>();
+    mNearestRoadNode = new CoverTree<>(new AsTheCrowFliesMetric<>());
+    for (int i = 0; i < AMOUNT_OF_ROAD_NODES; i++) {
+      final RoadNode node = new RoadNode(i, 48.0F + i % 5 * 0.002F, 7.8F + i / 5 * 0.003F);
+      roadGraph.addNode(node);
+      mNearestRoadNode.insert(node);
+    }
+    mGraph = StaticRoadGraph.of(roadGraph);
+
+    mTable = new Timetable();
+    for (int i = 0; i < AMOUNT_OF_STOPS; i++) {
+      mTable.addStop(new Stop(i, 48.0005F + i % 4 * 0.0021F, 7.8007F + i / 4 * 0.0052F));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.StopToRoadNodeTable#computeFingerprint(Timetable, StaticRoadGraph)}.
+   */
+  @Test
+  public void testComputeFingerprint() {
+    final long fingerprint = StopToRoadNodeTable.computeFingerprint(mTable, mGraph);
+    Assert.assertEquals(fingerprint, StopToRoadNodeTable.computeFingerprint(mTable, mGraph));
+
+    mTable.addStop(new Stop(AMOUNT_OF_STOPS, 48.0F, 7.8F));
+    Assert.assertNotEquals(fingerprint, StopToRoadNodeTable.computeFingerprint(mTable, mGraph));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.StopToRoadNodeTable#getNearestNeighbor(ICoreNode)}.
+   */
+  @Test
+  public void testGetNearestNeighbor() {
+    final StopToRoadNodeTable table = StopToRoadNodeTable.of(mTable, mGraph, mNearestRoadNode, null);
+    for (final Stop stop : mTable.getStops()) {
+      Assert.assertEquals(mNearestRoadNode.getNearestNeighbor(stop), table.getNearestNeighbor(stop));
+    }
+
+    // Nodes which are not stops of the table are delegated
+    final RoadNode roadNode = new RoadNode(AMOUNT_OF_ROAD_NODES, 48.0071F, 7.8081F);
+    Assert.assertEquals(mNearestRoadNode.getNearestNeighbor(roadNode), table.getNearestNeighbor(roadNode));
+    final Stop unknownStop = new Stop(AMOUNT_OF_STOPS, 48.0071F, 7.8081F);
+    Assert.assertEquals(mNearestRoadNode.getNearestNeighbor(unknownStop), table.getNearestNeighbor(unknownStop));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.hybridmodel.StopToRoadNodeTable#of(Timetable, StaticRoadGraph, de.unifreiburg.informatik.cobweb.routing.algorithms.nearestneighbor.INearestNeighborComputation, Path)}.
+   *
+   * @throws IOException If an I/O exception occurred while reading the cache
+   */
+  @Test
+  public void testOf() throws IOException {
+    final Path cache = mTemporaryFolder.getRoot().toPath().resolve("stopToRoadNode.bin");
+    final StopToRoadNodeTable computedTable = StopToRoadNodeTable.of(mTable, mGraph, mNearestRoadNode, cache);
+    Assert.assertTrue(Files.isRegularFile(cache));
+    final long fingerprint = StopToRoadNodeTable.computeFingerprint(mTable, mGraph);
+    Assert.assertTrue(StopToRoadNodeTable.read(cache, fingerprint).isPresent());
+    Assert.assertFalse(StopToRoadNodeTable.read(cache, fingerprint + 1).isPresent());
+
+    // The cached table gives the same answers
+    final StopToRoadNodeTable cachedTable = StopToRoadNodeTable.of(mTable, mGraph, mNearestRoadNode, cache);
+    for (final Stop stop : mTable.getStops()) {
+      final Optional<ICoreNode> roadNode = computedTable.getNearestNeighbor(stop);
+      Assert.assertTrue(roadNode.isPresent());
+      Assert.assertEquals(roadNode, cachedTable.getNearestNeighbor(stop));
+    }
+
+    // Outdated caches are replaced
+    mTable.addStop(new Stop(AMOUNT_OF_STOPS, 48.0071F, 7.8081F));
+    StopToRoadNodeTable.of(mTable, mGraph, mNearestRoadNode, cache);
+    Assert.assertTrue(
+        StopToRoadNodeTable.read(cache, StopToRoadNodeTable.computeFingerprint(mTable, mGraph)).isPresent());
+  }
+}
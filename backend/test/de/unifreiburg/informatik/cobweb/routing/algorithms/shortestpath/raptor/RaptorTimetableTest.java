@@ -0,0 +1,156 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Connection;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Service;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Trip;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.TripFrequency;
+
+/**
+ * Test for the class {@link RaptorTimetable}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class RaptorTimetableTest {
+  /**
+   * Amount of seconds of a day.
+   */
+  private static final int SECONDS_OF_DAY = 24 * 60 * 60;
+
+  /**
+   * The layout used for testing.
+   */
+  private RaptorTimetable mRaptorTable;
+  /**
+   * The frozen timetable the layout used for testing was created of.
+   */
+  private FrozenTimetable mTable;
+
+  /**
+   * Setups a layout of three stops for testing. Three trips run from stop
+   * <code>0</code> over <code>1</code> to <code>2</code>, one of them only on
+   * weekdays and overtaking another. A frequency based trip runs from stop
+   * <code>1</code> to <code>2</code>.
+   */
+  @Before
+  public void setUp() {
+    final Timetable table = new Timetable();
+    for (int i = 0; i < 3; i++) {
+      table.addStop(new Stop(i, 48.0F + i, 7.8F));
+    }
+    final Service weekdays = new Service(0);
+    weekdays.setRegularDays(LocalDate.of(2018, 10, 1), LocalDate.of(2018, 10, 31),
+        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+    table.addService(weekdays);
+
+    final Trip fastTrip = new Trip(0, weekdays.getId());
+    final Connection fastFirst = new Connection(0, 0, 0, 1, 1_000, 1_100);
+    final Connection fastSecond = new Connection(0, 1, 1, 2, 1_120, 1_300);
+    fastTrip.addConnectionToSequence(fastFirst);
+    fastTrip.addConnectionToSequence(fastSecond);
+    table.addTrip(fastTrip);
+    final Trip slowTrip = new Trip(1);
+    final Connection slowFirst = new Connection(1, 0, 0, 1, 900, 1_500);
+    final Connection slowSecond = new Connection(1, 1, 1, 2, 1_500, 1_700);
+    slowTrip.addConnectionToSequence(slowFirst);
+    slowTrip.addConnectionToSequence(slowSecond);
+    table.addTrip(slowTrip);
+    final Trip lateTrip = new Trip(2);
+    final Connection lateFirst = new Connection(2, 0, 0, 1, 2_000, 2_100);
+    final Connection lateSecond = new Connection(2, 1, 1, 2, 2_100, 2_300);
+    lateTrip.addConnectionToSequence(lateFirst);
+    lateTrip.addConnectionToSequence(lateSecond);
+    table.addTrip(lateTrip);
+    table.addConnections(Arrays.asList(fastSecond, lateFirst, slowFirst, fastFirst, lateSecond, slowSecond));
+
+    final Trip frequentTrip = new Trip(3);
+    frequentTrip.addConnectionToSequence(new Connection(3, 0, 1, 2, 0, 300));
+    table.addTrip(frequentTrip);
+    table.addFrequency(new TripFrequency(3, 3_600, 7_200, 600));
+
+    mTable = table.freeze();
+    mRaptorTable = RaptorTimetable.of(mTable);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor.RaptorTimetable#getEarliestTrip(int, int, int, int, boolean[], boolean[])}.
+   */
+  @Test
+  public void testGetEarliestTrip() {
+    final boolean[] allActive = mTable.getActiveServices(null);
+    final boolean[] sunday = mTable.getActiveServices(LocalDate.of(2018, 10, 14));
+
+    // Boarding the routes of stop 0 at the start of the line
+    int earliestDepTime = Integer.MAX_VALUE;
+    int earliestDepTimeSunday = Integer.MAX_VALUE;
+    for (int index = mRaptorTable.getStopRouteBegin(0); index < mRaptorTable.getStopRouteEnd(0); index++) {
+      final int route = mRaptorTable.getStopRoute(index);
+      final int position = mRaptorTable.getStopRoutePosition(index);
+      final int trip = mRaptorTable.getEarliestTrip(route, position, 950, 0, allActive, allActive);
+      if (trip != RaptorTimetable.NO_TRIP) {
+        earliestDepTime = Math.min(earliestDepTime, mRaptorTable.getDepTime(trip, position));
+      }
+      final int tripSunday = mRaptorTable.getEarliestTrip(route, position, 950, 0, sunday, sunday);
+      if (tripSunday != RaptorTimetable.NO_TRIP) {
+        earliestDepTimeSunday = Math.min(earliestDepTimeSunday, mRaptorTable.getDepTime(tripSunday, position));
+      }
+    }
+    Assert.assertEquals(1_000, earliestDepTime);
+    Assert.assertEquals(2_000, earliestDepTimeSunday);
+
+    // Boarding the frequency based trip
+    int frequentRoute = -1;
+    for (int index = mRaptorTable.getStopRouteBegin(1); index < mRaptorTable.getStopRouteEnd(1); index++) {
+      final int route = mRaptorTable.getStopRoute(index);
+      if (mRaptorTable.getRouteLength(route) == 2 && mRaptorTable.getStopRoutePosition(index) == 0) {
+        frequentRoute = route;
+      }
+    }
+    Assert.assertNotEquals(-1, frequentRoute);
+    int trip = mRaptorTable.getEarliestTrip(frequentRoute, 0, 3_700, 3_000, allActive, allActive);
+    Assert.assertEquals(4_200, mRaptorTable.getDepTime(trip, 0));
+    Assert.assertEquals(4_500, mRaptorTable.getArrTime(trip, 1));
+    Assert.assertEquals(0, mRaptorTable.getShift(trip, 0, 3_000));
+    Assert.assertEquals(RaptorTimetable.NO_TRIP,
+        mRaptorTable.getEarliestTrip(frequentRoute, 0, 7_000, 3_000, allActive, allActive));
+
+    // Runs departing before the starting time run at the day after
+    trip = mRaptorTable.getEarliestTrip(frequentRoute, 0, 7_000, 5_000, allActive, allActive);
+    Assert.assertEquals(3_600, mRaptorTable.getDepTime(trip, 0));
+    Assert.assertEquals(SECONDS_OF_DAY, mRaptorTable.getShift(trip, 0, 5_000));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor.RaptorTimetable#of(FrozenTimetable)}.
+   */
+  @Test
+  public void testOf() {
+    // The overtaking trip forms its own route
+    Assert.assertEquals(3, mRaptorTable.getAmountOfRoutes());
+    Assert.assertEquals(3 + 6, mRaptorTable.getAmountOfTrips());
+    Assert.assertEquals(3, mRaptorTable.getAmountOfStops());
+    Assert.assertEquals(2, mRaptorTable.getStopRouteEnd(0) - mRaptorTable.getStopRouteBegin(0));
+    Assert.assertEquals(3, mRaptorTable.getStopRouteEnd(1) - mRaptorTable.getStopRouteBegin(1));
+    Assert.assertEquals(3, mRaptorTable.getStopRouteEnd(2) - mRaptorTable.getStopRouteBegin(2));
+
+    for (int index = mRaptorTable.getStopRouteBegin(1); index < mRaptorTable.getStopRouteEnd(1); index++) {
+      final int route = mRaptorTable.getStopRoute(index);
+      final int position = mRaptorTable.getStopRoutePosition(index);
+      Assert.assertEquals(1, mRaptorTable.getRouteStopId(route, position));
+      Assert.assertEquals(2, mRaptorTable.getRouteStopId(route, mRaptorTable.getRouteLength(route) - 1));
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.connectionscan.ConnectionScan;
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor.RaptorTimetable;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IPath;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.IHasTime;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TransitNode;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Connection;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Footpath;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Service;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Trip;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.TripFrequency;
+
+/**
+ * Test for the class {@link TripBasedRouting}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class TripBasedRoutingTest {
+  /**
+   * The amount of stops of the timetable used for testing.
+   */
+  private static final int AMOUNT_OF_STOPS = 10;
+  /**
+   * The amount of trips of the timetable used for testing.
+   */
+  private static final int AMOUNT_OF_TRIPS = 150;
+  /**
+   * The dates to route at, <code>null</code> for all connections running every
+   * day. A Wednesday, a Friday followed by a Saturday and a Sunday.
+   */
+  private static final LocalDate[] DATES =
+      { null, LocalDate.of(2018, 10, 10), LocalDate.of(2018, 10, 12), LocalDate.of(2018, 10, 14) };
+  /**
+   * The delay of transfers at the same stop, in seconds.
+   */
+  private static final int TRANSFER_DELAY = 30;
+
+  /**
+   * Computes the time at which the given path is finished at its destination,
+   * including the egress duration.
+   *
+   * @param path                        The path to compute the time of
+   * @param destinationToEgressDuration Map connecting the destinations to the
+   *                                    duration needed after arriving at them
+   * @return The time at which the path is finished
+   */
+  private static long computeTargetTime(final IPath<ICoreNode, ICoreEdge<ICoreNode>> path,
+      final Map<ICoreNode, Integer> destinationToEgressDuration) {
+    int egressDuration = Integer.MAX_VALUE;
+    for (final Map.Entry<ICoreNode, Integer> destination : destinationToEgressDuration.entrySet()) {
+      if (destination.getKey().getId() == path.getDestination().getId()) {
+        egressDuration = Math.min(egressDuration, destination.getValue().intValue());
+      }
+    }
+    return ((IHasTime) path.getSource()).getTime() + (long) path.getTotalCost() + egressDuration;
+  }
+
+  /**
+   * The generator used to create random queries.
+   */
+  private Random mRandom;
+  /**
+   * The timetable used for testing.
+   */
+  private Timetable mTable;
+
+  /**
+   * Setups a timetable with random trips for testing. Trips consist of up to
+   * four connections, some only run on weekdays and some single connection
+   * trips are frequency based.
+   */
+  @Before
+  public void setUp() {
+    mTable = new Timetable();
+    for (int i = 0; i < AMOUNT_OF_STOPS; i++) {
+      mTable.addStop(new Stop(i, 48.0F + i, 7.8F));
+    }
+    // A walkable pair of stops
+    mTable.addFootpath(new Footpath(2, 3, 240));
+    final Service weekdays = new Service(0);
+    weekdays.setRegularDays(LocalDate.of(2018, 10, 1), LocalDate.of(2018, 10, 31),
+        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+    mTable.addService(weekdays);
+
+    mRandom = new Random(0);
+    final Collection<Connection> connections = new ArrayList<>();
+    for (int tripId = 0; tripId < AMOUNT_OF_TRIPS; tripId++) {
+      final Trip trip;
+      if (tripId % 3 == 0) {
+        trip = new Trip(tripId, weekdays.getId());
+      } else {
+        trip = new Trip(tripId);
+      }
+      final boolean isFrequencyBased = tripId % 10 == 1;
+      final int amountOfConnections;
+      if (isFrequencyBased) {
+        amountOfConnections = 1;
+      } else {
+        amountOfConnections = 1 + mRandom.nextInt(4);
+      }
+      // Trips run in the morning and in the afternoon, or frequently all day
+      int depTime = 3_600 + mRandom.nextInt(16_000);
+      if (tripId % 2 == 0) {
+        depTime += 40_000;
+      }
+      int depStop = mRandom.nextInt(AMOUNT_OF_STOPS);
+      for (int sequenceIndex = 0; sequenceIndex < amountOfConnections; sequenceIndex++) {
+        final int arrStop = (depStop + 1 + mRandom.nextInt(AMOUNT_OF_STOPS - 1)) % AMOUNT_OF_STOPS;
+        final int arrTime = depTime + 60 + mRandom.nextInt(540);
+        final Connection connection = new Connection(tripId, sequenceIndex, depStop, arrStop, depTime, arrTime);
+        trip.addConnectionToSequence(connection);
+        if (!isFrequencyBased) {
+          connections.add(connection);
+        }
+        depStop = arrStop;
+        depTime = arrTime + mRandom.nextInt(60);
+      }
+      mTable.addTrip(trip);
+      if (isFrequencyBased) {
+        mTable.addFrequency(new TripFrequency(tripId, mRandom.nextInt(3_600), 80_000 + mRandom.nextInt(6_000),
+            1_800 + mRandom.nextInt(3_600)));
+      }
+    }
+    mTable.addConnections(connections);
+    mTable.correctFootpaths(TRANSFER_DELAY, 0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased.TripBasedRouting#computeShortestPath(java.util.Collection, ICoreNode)}.
+   */
+  @Test
+  public void testComputeShortestPathCollectionICoreNode() {
+    final TripTransfers transfers = TripTransfers.of(RaptorTimetable.of(mTable.freeze()), null);
+    int amountOfPaths = 0;
+    for (final LocalDate date : DATES) {
+      final ConnectionScan scan = new ConnectionScan(mTable, date);
+      final TripBasedRouting tripBased = new TripBasedRouting(mTable, transfers, date);
+      for (int query = 0; query < 100; query++) {
+        final ICoreNode source = new TransitNode(mRandom.nextInt(AMOUNT_OF_STOPS), 0.0F, 0.0F, createQueryTime());
+        final ICoreNode destination = new TransitNode(mRandom.nextInt(AMOUNT_OF_STOPS), 0.0F, 0.0F, 0);
+        final Optional<Double> expectedCost = scan.computeShortestPathCost(source, destination);
+        Assert.assertEquals(expectedCost, tripBased.computeShortestPathCost(source, destination));
+
+        final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> path =
+            tripBased.computeShortestPath(Arrays.asList(source), destination);
+        Assert.assertEquals(expectedCost.isPresent(), path.isPresent());
+        if (path.isPresent()) {
+          Assert.assertEquals(expectedCost.get().doubleValue(), path.get().getTotalCost(), 0.0);
+          Assert.assertEquals(source.getId(), path.get().getSource().getId());
+          Assert.assertEquals(destination.getId(), path.get().getDestination().getId());
+          amountOfPaths++;
+        }
+      }
+    }
+    Assert.assertTrue(amountOfPaths > 0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased.TripBasedRouting#computeShortestPath(java.util.Collection, java.util.Map)}.
+   */
+  @Test
+  public void testComputeShortestPathCollectionMap() {
+    final ConnectionScan scan = new ConnectionScan(mTable);
+    final TripBasedRouting tripBased =
+        new TripBasedRouting(mTable, TripTransfers.of(RaptorTimetable.of(mTable.freeze()), null));
+    final int[] egressDurations = { 120, 0, 600 };
+
+    for (int query = 0; query < 50; query++) {
+      final int startingTime = createQueryTime();
+      final List<ICoreNode> sources = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        sources.add(new TransitNode(mRandom.nextInt(AMOUNT_OF_STOPS), 0.0F, 0.0F, startingTime + i * 200));
+      }
+      final Map<ICoreNode, Integer> destinationToEgressDuration = new HashMap<>();
+      for (final int egressDuration : egressDurations) {
+        destinationToEgressDuration.put(new TransitNode(mRandom.nextInt(AMOUNT_OF_STOPS), 0.0F, 0.0F, 0),
+            egressDuration);
+      }
+
+      final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> expectedPath =
+          scan.computeShortestPath(sources, destinationToEgressDuration);
+      final Optional<IPath<ICoreNode, ICoreEdge<ICoreNode>>> path =
+          tripBased.computeShortestPath(sources, destinationToEgressDuration);
+      Assert.assertEquals(expectedPath.isPresent(), path.isPresent());
+      if (path.isPresent()) {
+        Assert.assertEquals(computeTargetTime(expectedPath.get(), destinationToEgressDuration),
+            computeTargetTime(path.get(), destinationToEgressDuration));
+      }
+    }
+  }
+
+  /**
+   * Creates a random departure time for a query. Connections which are not
+   * frequency based do not depart around it, such that no trip is split
+   * between the day of the query and the day after.
+   *
+   * @return The departure time in seconds since midnight
+   */
+  private int createQueryTime() {
+    if (mRandom.nextBoolean()) {
+      return 22_300 + mRandom.nextInt(17_700);
+    }
+    return 62_300 + mRandom.nextInt(23_700);
+  }
+}
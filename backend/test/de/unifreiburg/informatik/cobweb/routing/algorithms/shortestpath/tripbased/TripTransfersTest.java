@@ -0,0 +1,163 @@
+package de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.raptor.RaptorTimetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Connection;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Trip;
+
+/**
+ * Test for the class {@link TripTransfers}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class TripTransfersTest {
+  /**
+   * The amount of stops of the timetable used for testing.
+   */
+  private static final int AMOUNT_OF_STOPS = 4;
+
+  /**
+   * Creates and adds a trip with the given stops and times to the given
+   * timetable.
+   *
+   * @param table  The timetable to add the trip to
+   * @param tripId The ID of the trip
+   * @param stops  The IDs of the stops of the trip
+   * @param times  The times of the trip, departure and arrival of each stop
+   *               alternating, starting with the departure at the first stop
+   */
+  private static void addTrip(final Timetable table, final int tripId, final int[] stops, final int[] times) {
+    final Trip trip = new Trip(tripId);
+    final Connection[] connections = new Connection[stops.length - 1];
+    for (int i = 0; i < connections.length; i++) {
+      connections[i] = new Connection(tripId, i, stops[i], stops[i + 1], times[2 * i], times[2 * i + 1]);
+      trip.addConnectionToSequence(connections[i]);
+    }
+    table.addTrip(trip);
+    table.addConnections(Arrays.asList(connections));
+  }
+
+  /**
+   * The timetable used for testing.
+   */
+  private Timetable mTable;
+  /**
+   * Temporary folder used for cache files.
+   */
+  @Rule
+  public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+  /**
+   * Setups a timetable with three trips for testing. A trip runs from stop
+   * <code>0</code> over <code>1</code> to <code>2</code>. At stop
+   * <code>1</code>, a slower trip to stop <code>2</code> and a trip to stop
+   * <code>3</code> depart after it arrived.
+   */
+  @Before
+  public void setUp() {
+    mTable = new Timetable();
+    for (int i = 0; i < AMOUNT_OF_STOPS; i++) {
+      mTable.addStop(new Stop(i, 48.0F + i, 7.8F));
+    }
+    TripTransfersTest.addTrip(mTable, 0, new int[] { 0, 1, 2 }, new int[] { 1_000, 1_100, 1_100, 1_200 });
+    TripTransfersTest.addTrip(mTable, 1, new int[] { 1, 2 }, new int[] { 1_140, 1_300 });
+    TripTransfersTest.addTrip(mTable, 2, new int[] { 1, 3 }, new int[] { 1_140, 1_250 });
+    mTable.correctFootpaths(30, 0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased.TripTransfers#computeFingerprint(RaptorTimetable)}.
+   */
+  @Test
+  public void testComputeFingerprint() {
+    final long fingerprint = TripTransfers.computeFingerprint(RaptorTimetable.of(mTable.freeze()));
+    Assert.assertEquals(fingerprint, TripTransfers.computeFingerprint(RaptorTimetable.of(mTable.freeze())));
+
+    TripTransfersTest.addTrip(mTable, 3, new int[] { 3, 0 }, new int[] { 1_300, 1_400 });
+    Assert.assertNotEquals(fingerprint, TripTransfers.computeFingerprint(RaptorTimetable.of(mTable.freeze())));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased.TripTransfers#getTransferBegin(int, int)}.
+   */
+  @Test
+  public void testGetTransferBegin() {
+    final RaptorTimetable raptorTable = RaptorTimetable.of(mTable.freeze());
+    final TripTransfers transfers = TripTransfers.of(raptorTable, null);
+    // Only the transfer to the trip to stop 3 improves any arrival
+    Assert.assertEquals(1, transfers.getAmountOfTransfers());
+
+    final int route = raptorTable.getStopRoute(raptorTable.getStopRouteBegin(0));
+    final int trip = raptorTable.getRouteTripBegin(route);
+    Assert.assertEquals(route, transfers.getTripRoute(trip));
+    Assert.assertEquals(transfers.getTransferBegin(trip, 0), transfers.getTransferEnd(trip, 0));
+    Assert.assertEquals(transfers.getTransferBegin(trip, 2), transfers.getTransferEnd(trip, 2));
+    final int transfer = transfers.getTransferBegin(trip, 1);
+    Assert.assertEquals(transfer + 1, transfers.getTransferEnd(trip, 1));
+
+    final int transferRoute = transfers.getTransferRoute(transfer);
+    Assert.assertEquals(0, transfers.getTransferPosition(transfer));
+    Assert.assertEquals(3, raptorTable.getRouteStopId(transferRoute, 1));
+    final int footpath = transfers.getTransferFootpath(transfer);
+    Assert.assertEquals(1, raptorTable.getTimetable().getFootpathDepStopId(footpath));
+    Assert.assertEquals(1, raptorTable.getTimetable().getFootpathArrStopId(footpath));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.algorithms.shortestpath.tripbased.TripTransfers#of(RaptorTimetable, Path)}.
+   *
+   * @throws IOException If an I/O exception occurred while reading the cache
+   */
+  @Test
+  public void testOf() throws IOException {
+    final Path cache = mTemporaryFolder.getRoot().toPath().resolve("tripTransfers.bin");
+    RaptorTimetable raptorTable = RaptorTimetable.of(mTable.freeze());
+    final TripTransfers computedTransfers = TripTransfers.of(raptorTable, cache);
+    Assert.assertTrue(Files.isRegularFile(cache));
+    final long fingerprint = TripTransfers.computeFingerprint(raptorTable);
+    Assert.assertTrue(TripTransfers.read(raptorTable, cache, fingerprint).isPresent());
+    Assert.assertFalse(TripTransfers.read(raptorTable, cache, fingerprint + 1).isPresent());
+
+    // The cached transfers are the same
+    final TripTransfers cachedTransfers = TripTransfers.of(raptorTable, cache);
+    Assert.assertEquals(computedTransfers.getAmountOfTransfers(), cachedTransfers.getAmountOfTransfers());
+    for (int trip = 0; trip < raptorTable.getAmountOfTrips(); trip++) {
+      final int length = raptorTable.getRouteLength(computedTransfers.getTripRoute(trip));
+      for (int position = 0; position < length; position++) {
+        final int transferBegin = computedTransfers.getTransferBegin(trip, position);
+        Assert.assertEquals(transferBegin, cachedTransfers.getTransferBegin(trip, position));
+        Assert.assertEquals(computedTransfers.getTransferEnd(trip, position),
+            cachedTransfers.getTransferEnd(trip, position));
+      }
+    }
+    for (int transfer = 0; transfer < computedTransfers.getAmountOfTransfers(); transfer++) {
+      Assert.assertEquals(computedTransfers.getTransferRoute(transfer), cachedTransfers.getTransferRoute(transfer));
+      Assert.assertEquals(computedTransfers.getTransferPosition(transfer),
+          cachedTransfers.getTransferPosition(transfer));
+      Assert.assertEquals(computedTransfers.getTransferFootpath(transfer),
+          cachedTransfers.getTransferFootpath(transfer));
+    }
+
+    // Outdated caches are replaced
+    TripTransfersTest.addTrip(mTable, 3, new int[] { 3, 0 }, new int[] { 1_300, 1_400 });
+    raptorTable = RaptorTimetable.of(mTable.freeze());
+    TripTransfers.of(raptorTable, cache);
+    Assert.assertTrue(
+        TripTransfers.read(raptorTable, cache, TripTransfers.computeFingerprint(raptorTable)).isPresent());
+  }
+}
@@ -0,0 +1,112 @@
+package de.unifreiburg.informatik.cobweb.routing.model.graph;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the class {@link ReversedGraph}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ReversedGraphTest {
+  /**
+   * The underlying graph used for testing.
+   */
+  private BasicGraph mGraph;
+  /**
+   * The reversed view used for testing.
+   */
+  private ReversedGraph<BasicNode, BasicEdge<BasicNode>> mReversedGraph;
+
+  /**
+   * Setups a reversed view instance for testing.
+   */
+  @Before
+  public void setUp() {
+    mGraph = new BasicGraph();
+    final BasicNode firstNode = new BasicNode(1);
+    final BasicNode secondNode = new BasicNode(2);
+    final BasicNode thirdNode = new BasicNode(3);
+
+    mGraph.addNode(firstNode);
+    mGraph.addNode(secondNode);
+    mGraph.addNode(thirdNode);
+
+    mGraph.addEdge(new BasicEdge<>(1, firstNode, secondNode, 1.0));
+    mGraph.addEdge(new BasicEdge<>(2, firstNode, thirdNode, 2.0));
+    mGraph.addEdge(new BasicEdge<>(3, secondNode, thirdNode, 3.0));
+
+    mReversedGraph = new ReversedGraph<>(mGraph);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph#addEdge(de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge)}.
+   */
+  @Test
+  public void testAddEdge() {
+    try {
+      mReversedGraph.addEdge(new BasicEdge<>(4, new BasicNode(3), new BasicNode(1), 1.0));
+      Assert.fail();
+    } catch (final UnsupportedOperationException e) {
+      // Expected
+    }
+    Assert.assertEquals(3, mGraph.getAmountOfEdges());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph#getIncomingEdges(de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}.
+   */
+  @Test
+  public void testGetIncomingEdges() {
+    final Set<Integer> incomingIds =
+        mReversedGraph.getIncomingEdges(new BasicNode(1)).map(BasicEdge::getId).collect(Collectors.toSet());
+    Assert.assertEquals(2, incomingIds.size());
+    Assert.assertTrue(incomingIds.contains(1));
+    Assert.assertTrue(incomingIds.contains(2));
+    Assert.assertEquals(0L, mReversedGraph.getIncomingEdges(new BasicNode(3)).count());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph#getOutgoingEdges(de.unifreiburg.informatik.cobweb.routing.model.graph.INode)}.
+   */
+  @Test
+  public void testGetOutgoingEdges() {
+    final Set<Integer> outgoingIds =
+        mReversedGraph.getOutgoingEdges(new BasicNode(3)).map(BasicEdge::getId).collect(Collectors.toSet());
+    Assert.assertEquals(2, outgoingIds.size());
+    Assert.assertTrue(outgoingIds.contains(2));
+    Assert.assertTrue(outgoingIds.contains(3));
+    Assert.assertEquals(0L, mReversedGraph.getOutgoingEdges(new BasicNode(1)).count());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph#reverse()}.
+   */
+  @Test
+  public void testReverse() {
+    try {
+      mReversedGraph.reverse();
+      Assert.fail();
+    } catch (final UnsupportedOperationException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.ReversedGraph#size()}.
+   */
+  @Test
+  public void testSize() {
+    Assert.assertEquals(mGraph.size(), mReversedGraph.size());
+    Assert.assertEquals(mGraph.getAmountOfEdges(), mReversedGraph.getAmountOfEdges());
+  }
+}
@@ -0,0 +1,164 @@
+package de.unifreiburg.informatik.cobweb.routing.model.graph.road;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.parsing.osm.EHighwayType;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ICoreNode;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IEdge;
+import de.unifreiburg.informatik.cobweb.routing.model.graph.IHasId;
+
+/**
+ * Test for the class {@link StaticRoadGraph}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class StaticRoadGraphTest {
+  /**
+   * The graph used for testing.
+   */
+  private StaticRoadGraph mGraph;
+  /**
+   * The road graph the graph used for testing is created from.
+   */
+  private RoadGraph<ICoreNode, ICoreEdge<ICoreNode>> mRoadGraph;
+
+  /**
+   * Setups a graph instance for testing.
+   */
+  @Before
+  public void setUp() {
+    mRoadGraph = new RoadGraph<>();
+    final RoadNode firstNode = new RoadNode(1, 1.0F, 1.0F);
+    final RoadNode secondNode = new RoadNode(2, 1.0F, 1.1F);
+    final RoadNode thirdNode = new RoadNode(4, 1.1F, 1.1F);
+    mRoadGraph.addNode(firstNode);
+    mRoadGraph.addNode(secondNode);
+    mRoadGraph.addNode(thirdNode);
+
+    mRoadGraph.addEdge(new RoadEdge<>(1, firstNode, secondNode, EHighwayType.MOTORWAY, 100,
+        EnumSet.of(ETransportationMode.CAR)));
+    mRoadGraph.addEdge(new RoadEdge<>(2, secondNode, thirdNode, EHighwayType.RESIDENTIAL, 30,
+        EnumSet.of(ETransportationMode.CAR, ETransportationMode.FOOT)));
+    mRoadGraph.addEdge(new RoadEdge<>(3, thirdNode, firstNode, EHighwayType.LIVING_STREET, 5,
+        EnumSet.of(ETransportationMode.FOOT)));
+
+    mGraph = StaticRoadGraph.of(mRoadGraph);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph#addNode(ICoreNode)}.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testAddNode() {
+    mGraph.addNode(new RoadNode(10, 10.0F, 10.0F));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph#containsEdge(ICoreEdge)}.
+   */
+  @Test
+  public void testContainsEdge() {
+    mRoadGraph.getEdges().forEach(edge -> Assert.assertTrue(mGraph.containsEdge(edge)));
+    mGraph.getEdges().forEach(edge -> Assert.assertTrue(mGraph.containsEdge(edge)));
+
+    final RoadEdge<ICoreNode> unknownEdge = new RoadEdge<>(4, new RoadNode(1, 1.0F, 1.0F),
+        new RoadNode(4, 1.1F, 1.1F), EHighwayType.MOTORWAY, 100, EnumSet.of(ETransportationMode.CAR));
+    Assert.assertFalse(mGraph.containsEdge(unknownEdge));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph#getEdges()}.
+   */
+  @Test
+  public void testGetEdges() {
+    Assert.assertEquals(3, mGraph.getAmountOfEdges());
+    Assert.assertEquals(3, mGraph.getEdges().count());
+
+    for (final ICoreEdge<ICoreNode> expected : mRoadGraph.getEdges().collect(Collectors.toList())) {
+      final ICoreEdge<ICoreNode> actual = mGraph.getOutgoingEdges(expected.getSource()).findAny().get();
+      Assert.assertEquals(expected.getId(), actual.getId());
+      Assert.assertEquals(expected.getDestination(), actual.getDestination());
+      Assert.assertEquals(expected.getTransportationModes(), actual.getTransportationModes());
+      Assert.assertEquals(expected.getCost(), actual.getCost(), 0.001);
+      for (final ETransportationMode mode : expected.getTransportationModes()) {
+        Assert.assertEquals(((IRoadEdge) expected).getCost(mode), ((IRoadEdge) actual).getCost(mode), 0.001);
+      }
+    }
+
+    final StaticRoadEdge edge = mGraph.getEdge(0);
+    Assert.assertEquals(Double.POSITIVE_INFINITY, edge.getCost(ETransportationMode.BIKE), 0.0);
+    Assert.assertFalse(edge.hasTransportationMode(ETransportationMode.BIKE));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph#getIncomingEdges(ICoreNode)}.
+   */
+  @Test
+  public void testGetIncomingEdges() {
+    final ICoreNode firstNode = mGraph.getNodeById(1).get();
+    final Set<Integer> sourceIds =
+        mGraph.getIncomingEdges(firstNode).map(IEdge::getSource).map(IHasId::getId).collect(Collectors.toSet());
+    Assert.assertEquals(1, sourceIds.size());
+    Assert.assertTrue(sourceIds.contains(4));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph#getNodeById(int)}.
+   */
+  @Test
+  public void testGetNodeById() {
+    Assert.assertEquals(3, mGraph.size());
+    Assert.assertTrue(mGraph.containsNodeWithId(1));
+    Assert.assertTrue(mGraph.containsNodeWithId(4));
+    Assert.assertFalse(mGraph.containsNodeWithId(3));
+    Assert.assertFalse(mGraph.containsNodeWithId(-2));
+    Assert.assertFalse(mGraph.containsNodeWithId(100));
+
+    Assert.assertEquals(4, mGraph.getNodeById(4).get().getId());
+    Assert.assertFalse(mGraph.getNodeById(3).isPresent());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph#getOutgoingBegin(int)}.
+   */
+  @Test
+  public void testGetOutgoingBegin() {
+    final int firstIndex = mGraph.getIndexOfNodeId(1);
+    final int begin = mGraph.getOutgoingBegin(firstIndex);
+    Assert.assertEquals(begin + 1, mGraph.getOutgoingEnd(firstIndex));
+    final int edge = mGraph.getOutgoingEdgeAt(begin);
+    Assert.assertEquals(firstIndex, mGraph.getEdgeSource(edge));
+    Assert.assertEquals(2, mGraph.getNode(mGraph.getEdgeDestination(edge)).getId());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.road.StaticRoadGraph#reverse()}.
+   */
+  @Test
+  public void testReverse() {
+    Assert.assertFalse(mGraph.isReversed());
+    boolean wasExceptionThrown = false;
+    try {
+      mGraph.reverse();
+    } catch (final UnsupportedOperationException e) {
+      wasExceptionThrown = true;
+    }
+    Assert.assertTrue(wasExceptionThrown);
+    Assert.assertFalse(mGraph.isReversed());
+  }
+}
@@ -0,0 +1,192 @@
+package de.unifreiburg.informatik.cobweb.routing.model.graph.transit;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Connection;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Service;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.Trip;
+import de.unifreiburg.informatik.cobweb.routing.model.timetable.TripFrequency;
+
+/**
+ * Test for the class {@link TimeDependentGraph}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class TimeDependentGraphTest {
+  /**
+   * Amount of seconds of a day.
+   */
+  private static final int SECONDS_OF_DAY = 24 * 60 * 60;
+
+  /**
+   * The graph used for testing.
+   */
+  private TimeDependentGraph mGraph;
+  /**
+   * The frozen timetable the graph used for testing was created of.
+   */
+  private FrozenTimetable mTable;
+
+  /**
+   * Setups a graph of three stops for testing. Two trips run from stop
+   * <code>0</code> to <code>1</code>, one of them only on weekdays, and a
+   * frequency based trip runs from stop <code>1</code> to <code>2</code>. A
+   * further trip runs from stop <code>1</code> over <code>2</code> to
+   * <code>0</code>.
+   */
+  @Before
+  public void setUp() {
+    final Timetable table = new Timetable();
+    for (int i = 0; i < 3; i++) {
+      table.addStop(new Stop(i, 48.0F + i, 7.8F));
+    }
+    final Service weekdays = new Service(0);
+    weekdays.setRegularDays(LocalDate.of(2018, 10, 1), LocalDate.of(2018, 10, 31),
+        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+    table.addService(weekdays);
+
+    final Trip fastTrip = new Trip(0, weekdays.getId());
+    final Connection fastConnection = new Connection(0, 0, 0, 1, 1_000, 1_100);
+    fastTrip.addConnectionToSequence(fastConnection);
+    table.addTrip(fastTrip);
+    final Trip slowTrip = new Trip(1);
+    final Connection slowConnection = new Connection(1, 0, 0, 1, 900, 1_500);
+    slowTrip.addConnectionToSequence(slowConnection);
+    table.addTrip(slowTrip);
+    final Trip roundTrip = new Trip(3);
+    final Connection firstRoundConnection = new Connection(3, 0, 1, 2, 2_000, 2_100);
+    final Connection secondRoundConnection = new Connection(3, 1, 2, 0, 2_130, 2_400);
+    roundTrip.addConnectionToSequence(firstRoundConnection);
+    roundTrip.addConnectionToSequence(secondRoundConnection);
+    table.addTrip(roundTrip);
+    table.addConnections(Arrays.asList(fastConnection, slowConnection, firstRoundConnection, secondRoundConnection));
+
+    final Trip frequentTrip = new Trip(2);
+    frequentTrip.addConnectionToSequence(new Connection(2, 0, 1, 2, 0, 300));
+    table.addTrip(frequentTrip);
+    table.addFrequency(new TripFrequency(2, 3_600, 7_200, 600));
+
+    mTable = table.freeze();
+    mGraph = TimeDependentGraph.of(mTable);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TimeDependentGraph#getFirstEntry(int, int, int)}.
+   */
+  @Test
+  public void testGetFirstEntry() {
+    final int edge = mGraph.getEdgeBegin(0);
+    int entry = mGraph.getFirstEntry(edge, 800, 800);
+    Assert.assertEquals(900, mGraph.getDepTime(entry));
+    entry = mGraph.getFirstEntry(edge, 950, 800);
+    Assert.assertEquals(1_000, mGraph.getDepTime(entry));
+
+    // After the departures only the day after is left
+    entry = mGraph.getFirstEntry(edge, 2_000, 2_000);
+    Assert.assertEquals(900, mGraph.getDepTime(entry));
+    Assert.assertEquals(SECONDS_OF_DAY, mGraph.getShift(entry, 2_000));
+    Assert.assertEquals(0, mGraph.getShift(entry, 800));
+
+    // Runs of the frequency based trip
+    final int frequentEdge = mGraph.getEdgeBegin(1);
+    entry = mGraph.getFirstEntry(frequentEdge, 4_000, 0);
+    Assert.assertEquals(4_200, mGraph.getDepTime(entry));
+    Assert.assertEquals(4_500, mGraph.getArrTime(entry));
+    entry = mGraph.getFirstEntry(frequentEdge, 7_000, 0);
+    Assert.assertEquals(TimeDependentGraph.NO_ENTRY, entry);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TimeDependentGraph#getFollowingEntry(int, int, int)}.
+   */
+  @Test
+  public void testGetFollowingEntry() {
+    final int edge = mGraph.getEdgeBegin(0);
+    int entry = mGraph.getFirstEntry(edge, 800, 800);
+    entry = mGraph.getFollowingEntry(edge, entry, 800);
+    Assert.assertEquals(1_000, mGraph.getDepTime(entry));
+    Assert.assertEquals(TimeDependentGraph.NO_ENTRY, mGraph.getFollowingEntry(edge, entry, 800));
+
+    // Entries of the day of the query are followed by the day after
+    entry = mGraph.getFirstEntry(edge, 950, 950);
+    entry = mGraph.getFollowingEntry(edge, entry, 950);
+    Assert.assertEquals(900, mGraph.getDepTime(entry));
+    Assert.assertEquals(SECONDS_OF_DAY, mGraph.getShift(entry, 950));
+    Assert.assertEquals(TimeDependentGraph.NO_ENTRY, mGraph.getFollowingEntry(edge, entry, 950));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TimeDependentGraph#getNextEntry(int)}.
+   */
+  @Test
+  public void testGetNextEntry() {
+    final int frequentEdge = mGraph.getEdgeBegin(1);
+    final int firstEntry = mGraph.getFirstEntry(frequentEdge, 1_500, 0);
+    Assert.assertEquals(2_000, mGraph.getDepTime(firstEntry));
+    Assert.assertEquals(2, mGraph.getArrStopId(firstEntry));
+
+    // The trip continues to stop 0
+    final int secondEntry = mGraph.getNextEntry(firstEntry);
+    Assert.assertEquals(2_130, mGraph.getDepTime(secondEntry));
+    Assert.assertEquals(2_400, mGraph.getArrTime(secondEntry));
+    Assert.assertEquals(0, mGraph.getArrStopId(secondEntry));
+    Assert.assertEquals(TimeDependentGraph.NO_ENTRY, mGraph.getNextEntry(secondEntry));
+
+    // Runs of the frequency based trip consist of a single connection
+    final int frequentEntry = mGraph.getFirstEntry(frequentEdge, 4_000, 0);
+    Assert.assertEquals(TimeDependentGraph.NO_ENTRY, mGraph.getNextEntry(frequentEntry));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TimeDependentGraph#isRunning(int, int, boolean[], boolean[])}.
+   */
+  @Test
+  public void testIsRunning() {
+    final int edge = mGraph.getEdgeBegin(0);
+    final boolean[] wednesday = mTable.getActiveServices(LocalDate.of(2018, 10, 10));
+    final boolean[] saturday = mTable.getActiveServices(LocalDate.of(2018, 10, 13));
+
+    // The fast trip only runs on weekdays
+    final int fastEntry = mGraph.getFirstEntry(edge, 950, 800);
+    Assert.assertTrue(mGraph.isRunning(fastEntry, 800, wednesday, saturday));
+    Assert.assertFalse(mGraph.isRunning(fastEntry, 800, saturday, wednesday));
+    // Departing before the starting time it runs at the day after
+    Assert.assertFalse(mGraph.isRunning(fastEntry, 2_000, wednesday, saturday));
+    Assert.assertTrue(mGraph.isRunning(fastEntry, 2_000, saturday, wednesday));
+
+    final int slowEntry = mGraph.getFirstEntry(edge, 800, 800);
+    Assert.assertTrue(mGraph.isRunning(slowEntry, 800, saturday, saturday));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.graph.transit.TimeDependentGraph#of(FrozenTimetable)}.
+   */
+  @Test
+  public void testOf() {
+    Assert.assertEquals(3, mGraph.getAmountOfStops());
+    Assert.assertEquals(3, mGraph.getAmountOfEdges());
+    // Four connections and six runs
+    Assert.assertEquals(10, mGraph.getAmountOfEntries());
+
+    Assert.assertEquals(1, mGraph.getEdgeEnd(0) - mGraph.getEdgeBegin(0));
+    Assert.assertEquals(1, mGraph.getEdgeArrStopId(mGraph.getEdgeBegin(0)));
+    Assert.assertEquals(1, mGraph.getEdgeEnd(1) - mGraph.getEdgeBegin(1));
+    Assert.assertEquals(2, mGraph.getEdgeArrStopId(mGraph.getEdgeBegin(1)));
+    Assert.assertEquals(0, mGraph.getEdgeArrStopId(mGraph.getEdgeBegin(2)));
+  }
+}
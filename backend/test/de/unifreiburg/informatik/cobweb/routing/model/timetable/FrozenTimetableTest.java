@@ -0,0 +1,133 @@
+package de.unifreiburg.informatik.cobweb.routing.model.timetable;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the class {@link FrozenTimetable}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class FrozenTimetableTest {
+  /**
+   * The frozen timetable used for testing.
+   */
+  private FrozenTimetable mFrozenTable;
+
+  /**
+   * Setups a frozen timetable instance for testing.
+   */
+  @Before
+  public void setUp() {
+    final Timetable table = new Timetable();
+    table.addStop(new Stop(1, 1.1f, 2.2f));
+    table.addStop(new Stop(2, 3.3f, 4.4f));
+    table.addStop(new Stop(3, 5.5f, 6.6f));
+    table.addTrip(new Trip(1));
+    // Runs on Mondays of October 2018 only
+    final Service service = new Service(7);
+    service.setRegularDays(LocalDate.of(2018, 10, 1), LocalDate.of(2018, 10, 31), EnumSet.of(DayOfWeek.MONDAY));
+    table.addService(service);
+    table.addTrip(new Trip(2, service.getId()));
+
+    final Collection<Connection> connections = new ArrayList<>();
+    connections.add(new Connection(1, 1, 2, 3, 120, 140));
+    connections.add(new Connection(2, 0, 3, 1, 140, 160));
+    connections.add(new Connection(1, 0, 1, 2, 100, 120));
+    table.addConnections(connections);
+
+    table.addFootpath(new Footpath(1, 1, 5));
+    table.addFootpath(new Footpath(1, 2, 60));
+    table.addFootpath(new Footpath(3, 3, 5));
+
+    mFrozenTable = table.freeze();
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable#getActiveServices(LocalDate)}.
+   */
+  @Test
+  public void testGetActiveServices() {
+    // Trip 1 runs every day
+    Assert.assertEquals(FrozenTimetable.EVERY_DAY, mFrozenTable.getServiceIndex(0));
+    Assert.assertEquals(FrozenTimetable.EVERY_DAY, mFrozenTable.getServiceIndex(1));
+    final int serviceIndex = mFrozenTable.getServiceIndex(2);
+    Assert.assertNotEquals(FrozenTimetable.EVERY_DAY, serviceIndex);
+
+    final boolean[] mondayServices = mFrozenTable.getActiveServices(LocalDate.of(2018, 10, 8));
+    Assert.assertTrue(mondayServices[FrozenTimetable.EVERY_DAY]);
+    Assert.assertTrue(mondayServices[serviceIndex]);
+
+    final boolean[] tuesdayServices = mFrozenTable.getActiveServices(LocalDate.of(2018, 10, 9));
+    Assert.assertTrue(tuesdayServices[FrozenTimetable.EVERY_DAY]);
+    Assert.assertFalse(tuesdayServices[serviceIndex]);
+
+    // Without a date every service runs
+    Assert.assertTrue(mFrozenTable.getActiveServices(null)[serviceIndex]);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable#getConnectionIndexStartingSince(int)}.
+   */
+  @Test
+  public void testGetConnectionIndexStartingSince() {
+    Assert.assertEquals(0, mFrozenTable.getConnectionIndexStartingSince(0));
+    Assert.assertEquals(0, mFrozenTable.getConnectionIndexStartingSince(100));
+    Assert.assertEquals(1, mFrozenTable.getConnectionIndexStartingSince(101));
+    Assert.assertEquals(2, mFrozenTable.getConnectionIndexStartingSince(140));
+    // All connections depart before, continue with the next day
+    Assert.assertEquals(0, mFrozenTable.getConnectionIndexStartingSince(141));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable#getDepTime(int)}.
+   */
+  @Test
+  public void testGetConnectionData() {
+    Assert.assertEquals(3, mFrozenTable.getAmountOfConnections());
+    Assert.assertEquals(100, mFrozenTable.getDepTime(0));
+    Assert.assertEquals(120, mFrozenTable.getDepTime(1));
+    Assert.assertEquals(140, mFrozenTable.getDepTime(2));
+
+    Assert.assertEquals(1, mFrozenTable.getTripId(1));
+    Assert.assertEquals(1, mFrozenTable.getSequenceIndex(1));
+    Assert.assertEquals(2, mFrozenTable.getDepStopId(1));
+    Assert.assertEquals(3, mFrozenTable.getArrStopId(1));
+    Assert.assertEquals(140, mFrozenTable.getArrTime(1));
+
+    Assert.assertEquals(4, mFrozenTable.getAmountOfStops());
+    Assert.assertEquals(3, mFrozenTable.getAmountOfTrips());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.FrozenTimetable#getFootpathBegin(int)}.
+   */
+  @Test
+  public void testGetFootpathBegin() {
+    Assert.assertEquals(2, mFrozenTable.getFootpathEnd(1) - mFrozenTable.getFootpathBegin(1));
+    Assert.assertEquals(0, mFrozenTable.getFootpathEnd(2) - mFrozenTable.getFootpathBegin(2));
+    Assert.assertEquals(1, mFrozenTable.getFootpathEnd(3) - mFrozenTable.getFootpathBegin(3));
+
+    int durationSum = 0;
+    for (int footpath = mFrozenTable.getFootpathBegin(1); footpath < mFrozenTable.getFootpathEnd(1); footpath++) {
+      Assert.assertEquals(1, mFrozenTable.getFootpathDepStopId(footpath));
+      durationSum += mFrozenTable.getFootpathDuration(footpath);
+    }
+    Assert.assertEquals(65, durationSum);
+
+    final int selfLoop = mFrozenTable.getFootpathBegin(3);
+    Assert.assertEquals(3, mFrozenTable.getFootpathDepStopId(selfLoop));
+    Assert.assertEquals(3, mFrozenTable.getFootpathArrStopId(selfLoop));
+  }
+}
@@ -0,0 +1,94 @@
+package de.unifreiburg.informatik.cobweb.routing.model.timetable;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the class {@link Service}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class ServiceTest {
+  /**
+   * The service used for testing.
+   */
+  private Service mService;
+
+  /**
+   * Setups a service running on weekdays of October 2018 for testing.
+   */
+  @Before
+  public void setUp() {
+    mService = new Service(3);
+    mService.setRegularDays(LocalDate.of(2018, 10, 1), LocalDate.of(2018, 10, 31),
+        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.Service#addDate(java.time.LocalDate)}.
+   */
+  @Test
+  public void testAddDate() {
+    final LocalDate saturday = LocalDate.of(2018, 10, 13);
+    Assert.assertFalse(mService.isActive(saturday));
+    mService.addDate(saturday);
+    Assert.assertTrue(mService.isActive(saturday));
+
+    // Dates outside of the regular range can be added too
+    final LocalDate outside = LocalDate.of(2019, 1, 1);
+    mService.addDate(outside);
+    Assert.assertTrue(mService.isActive(outside));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.Service#getId()}.
+   */
+  @Test
+  public void testGetId() {
+    Assert.assertEquals(3, mService.getId());
+    Assert.assertEquals(0, new Service(0).getId());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.Service#isActive(java.time.LocalDate)}.
+   */
+  @Test
+  public void testIsActive() {
+    // Wednesday and Sunday
+    Assert.assertTrue(mService.isActive(LocalDate.of(2018, 10, 10)));
+    Assert.assertFalse(mService.isActive(LocalDate.of(2018, 10, 14)));
+
+    // Bounds of the range are inclusive
+    Assert.assertTrue(mService.isActive(LocalDate.of(2018, 10, 1)));
+    Assert.assertTrue(mService.isActive(LocalDate.of(2018, 10, 31)));
+    Assert.assertFalse(mService.isActive(LocalDate.of(2018, 9, 28)));
+    Assert.assertFalse(mService.isActive(LocalDate.of(2018, 11, 1)));
+
+    // Services without regular days only run at added dates
+    Assert.assertFalse(new Service(0).isActive(LocalDate.of(2018, 10, 10)));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.Service#removeDate(java.time.LocalDate)}.
+   */
+  @Test
+  public void testRemoveDate() {
+    final LocalDate wednesday = LocalDate.of(2018, 10, 3);
+    Assert.assertTrue(mService.isActive(wednesday));
+    mService.removeDate(wednesday);
+    Assert.assertFalse(mService.isActive(wednesday));
+
+    // Adding the date again reverts the removal
+    mService.addDate(wednesday);
+    Assert.assertTrue(mService.isActive(wednesday));
+  }
+}
@@ -58,6 +58,34 @@ public final class TimetableTest {
     Assert.assertFalse(connectionIter.hasNext());
   }
 
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable#addFrequency(de.unifreiburg.informatik.cobweb.routing.model.timetable.TripFrequency)}.
+   */
+  @Test
+  public void testAddFrequency() {
+    final Trip template = new Trip(2);
+    template.addConnectionToSequence(new Connection(2, 0, 3, 4, 0, 60));
+    mTable.addTrip(template);
+    mTable.addFrequency(new TripFrequency(2, 600, 1_200, 300));
+
+    // Runs are not expanded into connections
+    final FrozenTimetable frozenTable = mTable.freeze();
+    Assert.assertEquals(2, frozenTable.getAmountOfConnections());
+    Assert.assertEquals(5, frozenTable.getAmountOfStops());
+    final FrozenFrequencies frequencies = frozenTable.getFrequencies();
+    Assert.assertEquals(1, frequencies.getAmountOfConnections());
+    Assert.assertEquals(4, frequencies.getAmountOfRuns());
+
+    // Runs depart at 600 and 900, runs before the time are at the day after
+    Assert.assertEquals(1, frequencies.getFirstPosition(0, 700));
+    Assert.assertEquals(3, frequencies.getEndPosition(0, 1));
+    Assert.assertEquals(900, frequencies.getDepTime(0) + frequencies.getShift(0, 1));
+    Assert.assertFalse(frequencies.isAtDayAfter(0, 1));
+    Assert.assertEquals(24 * 60 * 60 + 600, frequencies.getDepTime(0) + frequencies.getShift(0, 2));
+    Assert.assertTrue(frequencies.isAtDayAfter(0, 2));
+  }
+
   /**
    * Test method for
    * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable#addStop(de.unifreiburg.informatik.cobweb.routing.model.timetable.Stop)}.
@@ -79,6 +107,22 @@ public final class TimetableTest {
     Assert.assertEquals(2, mTable.getTrip(2).getId());
   }
 
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable#freeze()}.
+   */
+  @Test
+  public void testFreeze() {
+    final FrozenTimetable frozenTable = mTable.freeze();
+    Assert.assertEquals(2, frozenTable.getAmountOfConnections());
+    Assert.assertSame(frozenTable, mTable.freeze());
+
+    // Modifications must not be visible in the old view
+    mTable.addConnections(Collections.singletonList(new Connection(1, 2, 3, 1, 140, 160)));
+    Assert.assertEquals(2, frozenTable.getAmountOfConnections());
+    Assert.assertEquals(3, mTable.freeze().getAmountOfConnections());
+  }
+
   /**
    * Test method for
    * {@link de.unifreiburg.informatik.cobweb.routing.model.timetable.Timetable#generateUniqueStopId()}.
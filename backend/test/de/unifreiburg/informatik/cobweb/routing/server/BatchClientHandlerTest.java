@@ -0,0 +1,241 @@
+package de.unifreiburg.informatik.cobweb.routing.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequest;
+import de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequestAdapter;
+import de.unifreiburg.informatik.cobweb.util.http.EHttpContentType;
+import de.unifreiburg.informatik.cobweb.util.http.EHttpStatus;
+import de.unifreiburg.informatik.cobweb.util.http.HttpRequest;
+import de.unifreiburg.informatik.cobweb.util.http.HttpResponse;
+import de.unifreiburg.informatik.cobweb.util.http.HttpResponseBuilder;
+
+/**
+ * Test for the class {@link BatchClientHandler}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class BatchClientHandlerTest {
+  /**
+   * The deadline of batches used for testing, in milliseconds.
+   */
+  private static final long DEADLINE = 5_000;
+  /**
+   * The maximal amount of requests in batches used for testing.
+   */
+  private static final int LIMIT = 4;
+
+  /**
+   * Answers the given routing request with a response containing its source.
+   *
+   * @param request The request to answer
+   * @return The response to the request
+   */
+  private static HttpResponse answer(final RoutingRequest request) {
+    return new HttpResponseBuilder().setContentType(EHttpContentType.JSON).setContent(String.valueOf(request.getFrom()))
+        .build();
+  }
+
+  /**
+   * Builds a HTTP <code>POST</code> request submitting a batch of routing
+   * requests with the given sources.
+   *
+   * @param sources The sources of the routing requests
+   * @return The HTTP request
+   */
+  private static HttpRequest buildBatch(final long... sources) {
+    final StringBuilder sb = new StringBuilder();
+    sb.append('[');
+    for (int i = 0; i < sources.length; i++) {
+      if (i != 0) {
+        sb.append(',');
+      }
+      sb.append("{\"from\":").append(sources[i]).append(",\"to\":0,\"depTime\":0,\"modes\":[0]}");
+    }
+    sb.append(']');
+    return BatchClientHandlerTest.buildPost("application/json", sb.toString());
+  }
+
+  /**
+   * Builds a HTTP <code>POST</code> request with the given content.
+   *
+   * @param contentType The value of the content type header
+   * @param content     The content of the request
+   * @return The HTTP request
+   */
+  private static HttpRequest buildPost(final String contentType, final String content) {
+    return new HttpRequest("POST", RoutingServer.BATCH_API_RESOURCE, "HTTP/1.1",
+        Collections.singletonMap("Content-Type", contentType), content);
+  }
+
+  /**
+   * The executor used for testing.
+   */
+  private ExecutorService mExecutor;
+  /**
+   * The GSON object used for testing.
+   */
+  private Gson mGson;
+
+  /**
+   * Setups an executor and a GSON object for testing.
+   */
+  @Before
+  public void setUp() {
+    mExecutor = Executors.newFixedThreadPool(LIMIT);
+    mGson = new GsonBuilder().registerTypeAdapter(RoutingRequest.class, new RoutingRequestAdapter()).create();
+  }
+
+  /**
+   * Shuts the executor down.
+   */
+  @After
+  public void tearDown() {
+    mExecutor.shutdownNow();
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.server.BatchClientHandler#handle(HttpRequest)}.
+   */
+  @Test
+  public void testHandle() {
+    final BatchClientHandler handler =
+        new BatchClientHandler(BatchClientHandlerTest::answer, mGson, mExecutor, LIMIT, DEADLINE);
+
+    final HttpResponse response = handler.handle(BatchClientHandlerTest.buildBatch(1L, 2L));
+    Assert.assertEquals(EHttpStatus.OK, response.getStatus());
+    Assert.assertEquals(EHttpContentType.JSON, response.getContentType());
+    Assert.assertEquals("[1,2]", response.getContent());
+    Assert.assertEquals("[]", handler.handle(BatchClientHandlerTest.buildBatch()).getContent());
+
+    // Invalid requests
+    Assert.assertEquals(EHttpStatus.BAD_REQUEST,
+        handler.handle(BatchClientHandlerTest.buildBatch(1L, 2L, 3L, 4L, 5L)).getStatus());
+    Assert.assertEquals(EHttpStatus.BAD_REQUEST,
+        handler.handle(BatchClientHandlerTest.buildPost("text/plain", "[]")).getStatus());
+    Assert.assertEquals(EHttpStatus.BAD_REQUEST,
+        handler.handle(BatchClientHandlerTest.buildPost("application/json", "[{")).getStatus());
+    Assert.assertEquals(EHttpStatus.BAD_REQUEST,
+        handler.handle(BatchClientHandlerTest.buildPost("application/json", "[null]")).getStatus());
+    Assert.assertEquals(EHttpStatus.BAD_REQUEST, handler.handle(BatchClientHandlerTest.buildPost("application/json",
+        "[{\"from\":1,\"to\":0,\"depTime\":0,\"modes\":[0]},null]")).getStatus());
+    Assert.assertEquals(EHttpStatus.METHOD_NOT_ALLOWED, handler.handle(new HttpRequest("GET",
+        RoutingServer.BATCH_API_RESOURCE, "HTTP/1.1", Collections.emptyMap(), "")).getStatus());
+    Assert.assertEquals(EHttpStatus.OK, handler.handle(new HttpRequest("OPTIONS", RoutingServer.BATCH_API_RESOURCE,
+        "HTTP/1.1", Collections.emptyMap(), "")).getStatus());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.server.BatchClientHandler#handle(HttpRequest)}
+   * with requests exceeding the deadline of the batch.
+   */
+  @Test
+  public void testHandleDeadline() {
+    // The executor never runs the requests, like a lane that is stuck
+    final List<Runnable> stuckTasks = new ArrayList<>();
+    final AtomicInteger amountOfAnswers = new AtomicInteger();
+    final Function<RoutingRequest, HttpResponse> slowHandler = request -> {
+      amountOfAnswers.incrementAndGet();
+      try {
+        Thread.sleep(200);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return BatchClientHandlerTest.answer(request);
+    };
+    final BatchClientHandler handler = new BatchClientHandler(slowHandler, mGson, stuckTasks::add, LIMIT, 100);
+
+    // The first request is answered by the handling thread, which then exceeds
+    // the deadline
+    Assert.assertEquals("[1,null,null]", handler.handle(BatchClientHandlerTest.buildBatch(1L, 2L, 3L)).getContent());
+
+    // The remaining requests were given up
+    Assert.assertEquals(3, stuckTasks.size());
+    for (final Runnable task : stuckTasks) {
+      task.run();
+    }
+    Assert.assertEquals(1, amountOfAnswers.get());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.server.BatchClientHandler#handle(HttpRequest)}
+   * with requests that can not be answered.
+   */
+  @Test
+  public void testHandleFailure() {
+    final Function<RoutingRequest, HttpResponse> failingHandler = request -> {
+      if (request.getFrom() == 2L) {
+        throw new IllegalStateException();
+      }
+      if (request.getFrom() == 3L) {
+        return new HttpResponseBuilder().setStatus(EHttpStatus.SERVICE_UNAVAILABLE).build();
+      }
+      return BatchClientHandlerTest.answer(request);
+    };
+    final BatchClientHandler handler = new BatchClientHandler(failingHandler, mGson, mExecutor, LIMIT, DEADLINE);
+
+    final HttpResponse response = handler.handle(BatchClientHandlerTest.buildBatch(1L, 2L, 3L, 4L));
+    Assert.assertEquals(EHttpStatus.OK, response.getStatus());
+    Assert.assertEquals("[1,null,null,4]", response.getContent());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.server.BatchClientHandler#handle(HttpRequest)}
+   * with requests finishing in reverse order.
+   */
+  @Test
+  public void testHandleOrder() {
+    final Function<RoutingRequest, HttpResponse> reversingHandler = request -> {
+      try {
+        Thread.sleep(20L * (LIMIT - request.getFrom()));
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return BatchClientHandlerTest.answer(request);
+    };
+    final BatchClientHandler handler = new BatchClientHandler(reversingHandler, mGson, mExecutor, LIMIT, DEADLINE);
+
+    Assert.assertEquals("[0,1,2,3]", handler.handle(BatchClientHandlerTest.buildBatch(0L, 1L, 2L, 3L)).getContent());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.server.BatchClientHandler#handle(HttpRequest)}
+   * with an executor rejecting all requests.
+   */
+  @Test
+  public void testHandleRejected() {
+    final Thread handlingThread = Thread.currentThread();
+    final Function<RoutingRequest, HttpResponse> recordingHandler = request -> {
+      Assert.assertSame(handlingThread, Thread.currentThread());
+      return BatchClientHandlerTest.answer(request);
+    };
+    final BatchClientHandler handler = new BatchClientHandler(recordingHandler, mGson, task -> {
+      throw new RejectedExecutionException();
+    }, LIMIT, DEADLINE);
+
+    // All requests are answered by the handling thread
+    final HttpResponse response = handler.handle(BatchClientHandlerTest.buildBatch(1L, 2L, 3L));
+    Assert.assertEquals(EHttpStatus.OK, response.getStatus());
+    Assert.assertEquals("[1,2,3]", response.getContent());
+  }
+}
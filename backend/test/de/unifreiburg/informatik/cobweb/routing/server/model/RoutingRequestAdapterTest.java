@@ -0,0 +1,82 @@
+package de.unifreiburg.informatik.cobweb.routing.server.model;
+
+import java.io.IOException;
+import java.util.EnumSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.util.MemberFieldNamingStrategy;
+
+/**
+ * Test for the class {@link RoutingRequestAdapter}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class RoutingRequestAdapterTest {
+  /**
+   * The adapter used for testing.
+   */
+  private RoutingRequestAdapter mAdapter;
+
+  /**
+   * Setups an adapter instance for testing.
+   */
+  @Before
+  public void setUp() {
+    mAdapter = new RoutingRequestAdapter();
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequestAdapter#read(com.google.gson.stream.JsonReader)}.
+   *
+   * @throws IOException If an I/O exception occurred while reading
+   */
+  @Test
+  public void testRead() throws IOException {
+    final RoutingRequest request =
+        mAdapter.fromJson("{\"from\":1,\"to\":2,\"depTime\":3,\"modes\":[0,2],\"unknown\":[4]}");
+    Assert.assertEquals(1L, request.getFrom());
+    Assert.assertEquals(2L, request.getTo());
+    Assert.assertEquals(3L, request.getDepTime());
+    Assert.assertEquals(0L, request.getDepTimeRange());
+    Assert.assertEquals(EnumSet.of(ETransportationMode.CAR, ETransportationMode.FOOT), request.getModes());
+
+    Assert.assertNull(mAdapter.fromJson("null"));
+
+    boolean wasExceptionThrown = false;
+    try {
+      mAdapter.fromJson("{\"from\":1,\"to\":2,\"depTime\":3,\"modes\":[42]}");
+    } catch (final JsonSyntaxException e) {
+      wasExceptionThrown = true;
+    }
+    Assert.assertTrue(wasExceptionThrown);
+
+    wasExceptionThrown = false;
+    try {
+      mAdapter.fromJson("{\"from\":1,\"to\":2,\"depTime\":3}");
+    } catch (final JsonSyntaxException e) {
+      wasExceptionThrown = true;
+    }
+    Assert.assertTrue(wasExceptionThrown);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequestAdapter#write(com.google.gson.stream.JsonWriter, RoutingRequest)}.
+   */
+  @Test
+  public void testWrite() {
+    final RoutingRequest request =
+        new RoutingRequest(1L, 2L, 3L, 4L, EnumSet.of(ETransportationMode.CAR, ETransportationMode.TRAM));
+    final String expected =
+        new GsonBuilder().setFieldNamingStrategy(new MemberFieldNamingStrategy()).create().toJson(request);
+    Assert.assertEquals(expected, mAdapter.toJson(request));
+  }
+}
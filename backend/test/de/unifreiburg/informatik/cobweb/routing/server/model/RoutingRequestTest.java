@@ -40,6 +40,18 @@ public final class RoutingRequestTest {
     Assert.assertEquals(100L, mRequest.getDepTime());
   }
 
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequest#getDepTimeRange()}.
+   */
+  @Test
+  public void testGetDepTimeRange() {
+    Assert.assertEquals(0L, mRequest.getDepTimeRange());
+    final RoutingRequest rangeRequest =
+        new RoutingRequest(5L, 10L, 100L, 3_600_000L, Collections.singleton(ETransportationMode.CAR));
+    Assert.assertEquals(3_600_000L, rangeRequest.getDepTimeRange());
+  }
+
   /**
    * Test method for
    * {@link de.unifreiburg.informatik.cobweb.routing.server.model.RoutingRequest#getFrom()}.
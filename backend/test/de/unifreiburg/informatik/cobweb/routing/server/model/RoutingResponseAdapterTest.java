@@ -0,0 +1,90 @@
+package de.unifreiburg.informatik.cobweb.routing.server.model;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.GsonBuilder;
+
+import de.unifreiburg.informatik.cobweb.routing.model.graph.ETransportationMode;
+import de.unifreiburg.informatik.cobweb.util.MemberFieldNamingStrategy;
+
+/**
+ * Test for the class {@link RoutingResponseAdapter}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class RoutingResponseAdapterTest {
+  /**
+   * The adapter used for testing.
+   */
+  private RoutingResponseAdapter mAdapter;
+  /**
+   * The response used for testing.
+   */
+  private RoutingResponse mResponse;
+
+  /**
+   * Setups an adapter and a response instance for testing.
+   */
+  @Before
+  public void setUp() {
+    mAdapter = new RoutingResponseAdapter();
+
+    final RouteElement first =
+        new RouteElement(ERouteElementType.NODE, "", Arrays.asList(new float[] { 48.0012F, 7.8499F }));
+    final RouteElement second = new RouteElement(ERouteElementType.PATH, ETransportationMode.BIKE, "Main street",
+        Arrays.asList(new float[] { 48.0012F, 7.8499F }, new float[] { -2.5F, 1.0E-5F }));
+    final Journey journey = new Journey(100L, 200L, Arrays.asList(first, second));
+    mResponse = new RoutingResponse(10L, 8L, 5L, 10L, Arrays.asList(journey, journey));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.server.model.RoutingResponseAdapter#read(com.google.gson.stream.JsonReader)}.
+   *
+   * @throws IOException If an I/O exception occurred while reading
+   */
+  @Test
+  public void testRead() throws IOException {
+    final RoutingResponse response = mAdapter.fromJson(mAdapter.toJson(mResponse));
+    Assert.assertEquals(10L, response.getTime());
+    Assert.assertEquals(8L, response.getCompTime());
+    Assert.assertEquals(5L, response.getFrom());
+    Assert.assertEquals(10L, response.getTo());
+    Assert.assertEquals(2, response.getJourneys().size());
+
+    final Journey journey = response.getJourneys().get(1);
+    Assert.assertEquals(100L, journey.getDepTime());
+    Assert.assertEquals(200L, journey.getArrTime());
+    Assert.assertEquals(2, journey.getRoute().size());
+
+    final RouteElement element = journey.getRoute().get(1);
+    Assert.assertEquals(ERouteElementType.PATH, element.getType());
+    Assert.assertEquals(ETransportationMode.BIKE, element.getMode());
+    Assert.assertEquals("Main street", element.getName());
+    Assert.assertArrayEquals(new float[] { -2.5F, 1.0E-5F }, element.getGeom().get(1), 0.0F);
+
+    Assert.assertNull(mAdapter.fromJson("null"));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.routing.server.model.RoutingResponseAdapter#write(com.google.gson.stream.JsonWriter, RoutingResponse)}.
+   */
+  @Test
+  public void testWrite() {
+    // The format must match the one produced by reflection
+    final String expected =
+        new GsonBuilder().setFieldNamingStrategy(new MemberFieldNamingStrategy()).create().toJson(mResponse);
+    Assert.assertEquals(expected, mAdapter.toJson(mResponse));
+
+    final RoutingResponse emptyResponse = new RoutingResponse(1L, 2L, 3L, 4L, Collections.emptyList());
+    Assert.assertEquals("{\"compTime\":2,\"from\":3,\"journeys\":[],\"time\":1,\"to\":4}",
+        mAdapter.toJson(emptyResponse));
+  }
+}
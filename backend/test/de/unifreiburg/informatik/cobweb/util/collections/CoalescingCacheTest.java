@@ -0,0 +1,160 @@
+package de.unifreiburg.informatik.cobweb.util.collections;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the class {@link CoalescingCache}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class CoalescingCacheTest {
+  /**
+   * The cache used for testing, holds two values which do not expire during
+   * the test. Negative values are not cached.
+   */
+  private CoalescingCache<Integer, Integer> mCache;
+  /**
+   * Counter of the computations executed for the cache.
+   */
+  private AtomicInteger mComputations;
+
+  /**
+   * Setups a cache instance for testing.
+   */
+  @Before
+  public void setUp() {
+    mCache = new CoalescingCache<>(2, 60_000, value -> value.intValue() >= 0);
+    mComputations = new AtomicInteger();
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.collections.CoalescingCache#clear()}.
+   */
+  @Test
+  public void testClear() {
+    mCache.get(1, this::compute);
+    Assert.assertEquals(1, mCache.size());
+    mCache.clear();
+    Assert.assertEquals(0, mCache.size());
+    mCache.get(1, this::compute);
+    Assert.assertEquals(2, mComputations.get());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.collections.CoalescingCache#get(Object, java.util.function.Function)}.
+   */
+  @Test
+  public void testGet() {
+    Assert.assertEquals(2, mCache.get(1, this::compute).intValue());
+    Assert.assertEquals(2, mCache.get(1, this::compute).intValue());
+    Assert.assertEquals(1, mComputations.get());
+
+    // Values rejected by the predicate are not cached
+    Assert.assertEquals(-2, mCache.get(-1, this::compute).intValue());
+    Assert.assertEquals(-2, mCache.get(-1, this::compute).intValue());
+    Assert.assertEquals(3, mComputations.get());
+
+    // The least recently used value is evicted
+    mCache.get(2, this::compute);
+    mCache.get(1, this::compute);
+    mCache.get(3, this::compute);
+    Assert.assertEquals(2, mCache.size());
+    Assert.assertEquals(5, mComputations.get());
+    mCache.get(1, this::compute);
+    Assert.assertEquals(5, mComputations.get());
+    mCache.get(2, this::compute);
+    Assert.assertEquals(6, mComputations.get());
+
+    // Values expire after the time to live
+    final CoalescingCache<Integer, Integer> expiringCache = new CoalescingCache<>(2, 0, value -> true);
+    expiringCache.get(1, this::compute);
+    expiringCache.get(1, this::compute);
+    Assert.assertEquals(8, mComputations.get());
+
+    // Exceptions are propagated and not cached
+    boolean wasExceptionThrown = false;
+    try {
+      mCache.get(4, key -> {
+        throw new IllegalStateException();
+      });
+    } catch (final IllegalStateException e) {
+      wasExceptionThrown = true;
+    }
+    Assert.assertTrue(wasExceptionThrown);
+    Assert.assertEquals(8, mCache.get(4, this::compute).intValue());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.collections.CoalescingCache#get(Object, java.util.function.Function)}
+   * with concurrent requests of the same key.
+   *
+   * @throws InterruptedException If interrupted while waiting for the threads
+   */
+  @Test
+  public void testGetCoalesced() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Thread computingThread = new Thread(() -> mCache.get(1, key -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return compute(key);
+    }));
+    computingThread.start();
+    started.await();
+
+    final AtomicInteger waitingResult = new AtomicInteger();
+    final Thread waitingThread = new Thread(() -> waitingResult.set(mCache.get(1, this::compute).intValue()));
+    waitingThread.start();
+    while (mCache.getAmountOfCoalesced() == 0) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+    computingThread.join();
+    waitingThread.join();
+
+    Assert.assertEquals(2, waitingResult.get());
+    Assert.assertEquals(1, mComputations.get());
+    Assert.assertEquals(1, mCache.getAmountOfHits());
+    Assert.assertEquals(1, mCache.getAmountOfMisses());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.collections.CoalescingCache#getHitRate()}.
+   */
+  @Test
+  public void testGetHitRate() {
+    Assert.assertEquals(0.0, mCache.getHitRate(), 0.0001);
+    mCache.get(1, this::compute);
+    mCache.get(1, this::compute);
+    mCache.get(1, this::compute);
+    mCache.get(2, this::compute);
+    Assert.assertEquals(2, mCache.getAmountOfHits());
+    Assert.assertEquals(2, mCache.getAmountOfMisses());
+    Assert.assertEquals(0, mCache.getAmountOfCoalesced());
+    Assert.assertEquals(0.5, mCache.getHitRate(), 0.0001);
+  }
+
+  /**
+   * Computation used for the cache. Doubles the given key.
+   *
+   * @param key The key to compute the value of
+   * @return The doubled key
+   */
+  private Integer compute(final Integer key) {
+    mComputations.incrementAndGet();
+    return Integer.valueOf(2 * key.intValue());
+  }
+}
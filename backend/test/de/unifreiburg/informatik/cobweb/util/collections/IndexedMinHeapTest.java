@@ -0,0 +1,101 @@
+package de.unifreiburg.informatik.cobweb.util.collections;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the class {@link IndexedMinHeap}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class IndexedMinHeapTest {
+  /**
+   * The heap used for testing.
+   */
+  private IndexedMinHeap mHeap;
+
+  /**
+   * Setups a heap instance for testing.
+   */
+  @Before
+  public void setUp() {
+    mHeap = new IndexedMinHeap(2);
+    mHeap.add(3, 5.0);
+    mHeap.add(0, 2.0);
+    mHeap.add(7, 9.0);
+    mHeap.add(1, 4.0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap#clear()}.
+   */
+  @Test
+  public void testClear() {
+    mHeap.clear();
+    Assert.assertTrue(mHeap.isEmpty());
+    Assert.assertFalse(mHeap.contains(3));
+    Assert.assertFalse(mHeap.contains(7));
+
+    mHeap.add(7, 1.0);
+    Assert.assertEquals(1, mHeap.size());
+    Assert.assertEquals(7, mHeap.poll());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap#contains(int)}.
+   */
+  @Test
+  public void testContains() {
+    Assert.assertTrue(mHeap.contains(0));
+    Assert.assertTrue(mHeap.contains(7));
+    Assert.assertFalse(mHeap.contains(2));
+    Assert.assertFalse(mHeap.contains(-1));
+    Assert.assertFalse(mHeap.contains(100));
+
+    mHeap.poll();
+    Assert.assertFalse(mHeap.contains(0));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap#decreaseKey(int, double)}.
+   */
+  @Test
+  public void testDecreaseKey() {
+    mHeap.decreaseKey(7, 1.0);
+    Assert.assertEquals(1.0, mHeap.getKey(7), 0.0);
+    Assert.assertEquals(7, mHeap.peek());
+
+    mHeap.decreaseKey(1, 3.0);
+    Assert.assertEquals(7, mHeap.poll());
+    Assert.assertEquals(0, mHeap.poll());
+    Assert.assertEquals(1, mHeap.poll());
+    Assert.assertEquals(3, mHeap.poll());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.collections.IndexedMinHeap#poll()}.
+   */
+  @Test
+  public void testPoll() {
+    Assert.assertEquals(4, mHeap.size());
+    Assert.assertEquals(0, mHeap.poll());
+    Assert.assertEquals(1, mHeap.poll());
+    Assert.assertEquals(3, mHeap.poll());
+    Assert.assertEquals(7, mHeap.poll());
+    Assert.assertTrue(mHeap.isEmpty());
+
+    try {
+      mHeap.poll();
+      Assert.fail();
+    } catch (final NoSuchElementException e) {
+      // Expected
+    }
+  }
+}
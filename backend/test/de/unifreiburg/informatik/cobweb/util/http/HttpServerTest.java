@@ -0,0 +1,261 @@
+package de.unifreiburg.informatik.cobweb.util.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the class {@link HttpServer}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class HttpServerTest {
+  /**
+   * Timeout used when waiting for the server, in milliseconds.
+   */
+  private static final int TIMEOUT = 5_000;
+
+  /**
+   * Builds a raw <code>POST</code> request for the given resource.
+   *
+   * @param resource The resource to request
+   * @param content  The content of the request
+   * @param close    Whether the request asks to close the connection
+   * @return The raw request
+   */
+  private static String buildPost(final String resource, final String content, final boolean close) {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("POST ").append(resource).append(" HTTP/1.1\r\n");
+    sb.append("Content-Length: ").append(content.getBytes(StandardCharsets.UTF_8).length).append("\r\n");
+    if (close) {
+      sb.append("Connection: close\r\n");
+    }
+    sb.append("\r\n").append(content);
+    return sb.toString();
+  }
+
+  /**
+   * Reads from the given client until the server closes the connection.
+   *
+   * @param client The client to read from
+   * @return The received data
+   * @throws IOException If an I/O exception occurred while reading
+   */
+  private static String readAll(final Socket client) throws IOException {
+    final ByteArrayOutputStream received = new ByteArrayOutputStream();
+    final InputStream input = client.getInputStream();
+    final byte[] buffer = new byte[1_024];
+    int amountRead = input.read(buffer);
+    while (amountRead != -1) {
+      received.write(buffer, 0, amountRead);
+      amountRead = input.read(buffer);
+    }
+    return new String(received.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Latch released by the test to let requests to <code>/block</code> finish.
+   */
+  private CountDownLatch mRelease;
+  /**
+   * The server used for testing.
+   */
+  private HttpServer mServer;
+  /**
+   * Latch released once a request to <code>/block</code> started.
+   */
+  private CountDownLatch mStarted;
+
+  /**
+   * Setups a server which echoes the content of requests to
+   * <code>/echo</code> and blocks requests to <code>/block</code> on a lane
+   * with a single thread and queue slot until released.
+   */
+  @Before
+  public void setUp() {
+    mRelease = new CountDownLatch(1);
+    mStarted = new CountDownLatch(1);
+    mServer = new HttpServer(0);
+    mServer.addHandler("/echo", request -> new HttpResponseBuilder().setContent(request.getContent()).build());
+    mServer.addLane("blocking", 1, 1);
+    mServer.addHandler("/block", request -> {
+      mStarted.countDown();
+      try {
+        mRelease.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return new HttpResponseBuilder().build();
+    }, "blocking");
+    mServer.initialize();
+    mServer.start();
+  }
+
+  /**
+   * Shuts the server down.
+   *
+   * @throws InterruptedException If interrupted while waiting for the server
+   */
+  @After
+  public void tearDown() throws InterruptedException {
+    mRelease.countDown();
+    mServer.shutdown();
+    final long deadline = System.currentTimeMillis() + TIMEOUT;
+    while (mServer.isRunning() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.http.HttpServer#addLane(String, int, int)}.
+   *
+   * @throws IOException          If an I/O exception occurred while
+   *                              communicating with the server
+   * @throws InterruptedException If interrupted while waiting for the server
+   */
+  @Test
+  public void testAddLane() throws IOException, InterruptedException {
+    final String request = HttpServerTest.buildPost("/block", "", true);
+    try (Socket running = send(request)) {
+      mStarted.await();
+      // One of the following requests occupies the only queue slot, the other
+      // is rejected right away
+      try (Socket first = send(request); Socket second = send(request)) {
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (first.getInputStream().available() == 0 && second.getInputStream().available() == 0
+            && System.currentTimeMillis() < deadline) {
+          Thread.sleep(10);
+        }
+        final boolean isFirstRejected = first.getInputStream().available() != 0;
+        final String rejected = HttpServerTest.readAll(isFirstRejected ? first : second);
+        Assert.assertTrue(rejected.startsWith("HTTP/1.1 503 SERVICE_UNAVAILABLE"));
+        Assert.assertTrue(rejected.contains("Retry-After: 1"));
+
+        mRelease.countDown();
+        Assert.assertTrue(HttpServerTest.readAll(isFirstRejected ? second : first).startsWith("HTTP/1.1 200 OK"));
+        Assert.assertTrue(HttpServerTest.readAll(running).startsWith("HTTP/1.1 200 OK"));
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.http.HttpServer#getLaneExecutor(String)}.
+   *
+   * @throws InterruptedException If interrupted while waiting for the lane
+   */
+  @Test
+  public void testGetLaneExecutor() throws InterruptedException {
+    final Executor executor = mServer.getLaneExecutor("blocking");
+    executor.execute(() -> {
+      mStarted.countDown();
+      try {
+        mRelease.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    mStarted.await();
+
+    // Tasks share the only queue slot of the lane
+    final CountDownLatch queued = new CountDownLatch(1);
+    executor.execute(queued::countDown);
+    boolean wasExceptionThrown = false;
+    try {
+      executor.execute(() -> {
+        // Rejected
+      });
+    } catch (final RejectedExecutionException e) {
+      wasExceptionThrown = true;
+    }
+    Assert.assertTrue(wasExceptionThrown);
+
+    mRelease.countDown();
+    Assert.assertTrue(queued.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+    wasExceptionThrown = false;
+    try {
+      mServer.getLaneExecutor("unknown");
+    } catch (final IllegalArgumentException e) {
+      wasExceptionThrown = true;
+    }
+    Assert.assertTrue(wasExceptionThrown);
+  }
+
+  /**
+   * Test method for {@link de.unifreiburg.informatik.cobweb.util.http.HttpServer#run()}.
+   *
+   * @throws IOException If an I/O exception occurred while communicating with
+   *                     the server
+   */
+  @Test
+  public void testRun() throws IOException {
+    // Pipeline requests over a single connection, the last one closes it
+    final String requests = HttpServerTest.buildPost("/echo", "first", false)
+        + HttpServerTest.buildPost("/unknown", "", false) + HttpServerTest.buildPost("/echo?q=1", "third", true);
+
+    final String responses;
+    try (Socket client = send(requests)) {
+      responses = HttpServerTest.readAll(client);
+    }
+
+    final int firstIndex = responses.indexOf("HTTP/1.1 200 OK");
+    final int secondIndex = responses.indexOf("HTTP/1.1 501 NOT_IMPLEMENTED");
+    final int thirdIndex = responses.lastIndexOf("HTTP/1.1 200 OK");
+    Assert.assertTrue(firstIndex != -1);
+    Assert.assertTrue(firstIndex < secondIndex);
+    Assert.assertTrue(secondIndex < thirdIndex);
+
+    Assert.assertTrue(responses.substring(firstIndex, secondIndex).contains("Connection: keep-alive"));
+    Assert.assertTrue(responses.substring(firstIndex, secondIndex).endsWith("\r\n\r\nfirst"));
+    Assert.assertTrue(responses.substring(thirdIndex).contains("Connection: close"));
+    Assert.assertTrue(responses.endsWith("\r\n\r\nthird"));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.http.HttpServer#shutdown()}.
+   *
+   * @throws InterruptedException If interrupted while waiting for the server
+   */
+  @Test
+  public void testShutdown() throws InterruptedException {
+    Assert.assertTrue(mServer.isRunning());
+    mServer.shutdown();
+    final long deadline = System.currentTimeMillis() + TIMEOUT;
+    while (mServer.isRunning() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertFalse(mServer.isRunning());
+  }
+
+  /**
+   * Sends the given request over a new connection to the server.
+   *
+   * @param request The raw request to send
+   * @return The client of the connection
+   * @throws IOException If an I/O exception occurred while sending
+   */
+  private Socket send(final String request) throws IOException {
+    final Socket client = new Socket(InetAddress.getLoopbackAddress(), mServer.getPort());
+    client.setSoTimeout(TIMEOUT);
+    final OutputStream output = client.getOutputStream();
+    output.write(request.getBytes(StandardCharsets.UTF_8));
+    output.flush();
+    return client;
+  }
+}
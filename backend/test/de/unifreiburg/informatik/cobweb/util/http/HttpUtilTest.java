@@ -3,8 +3,11 @@ package de.unifreiburg.informatik.cobweb.util.http;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -16,6 +19,51 @@ import org.junit.Test;
  */
 public final class HttpUtilTest {
 
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.http.HttpUtil#encodeResponse(HttpResponse, boolean)}.
+   */
+  @SuppressWarnings("static-method")
+  @Test
+  public void testEncodeResponse() {
+    final HttpResponse response = new HttpResponseBuilder().setContent("Hällo").putHeader("Connection", "foo").build();
+    final ByteBuffer[] buffers = HttpUtil.encodeResponse(response, true);
+    Assert.assertEquals(2, buffers.length);
+    final String head = new String(buffers[0].array(), 0, buffers[0].limit(), StandardCharsets.UTF_8);
+    Assert.assertTrue(head.startsWith("HTTP/1.1 200 OK\r\n"));
+    Assert.assertTrue(head.contains("Content-Length: 6\r\n"));
+    Assert.assertTrue(head.contains("Connection: keep-alive\r\n"));
+    Assert.assertFalse(head.contains("Connection: foo"));
+    Assert.assertTrue(head.endsWith("\r\n\r\n"));
+
+    // The content is not copied
+    Assert.assertSame(response.getRawContent(), buffers[1].array());
+    Assert.assertEquals("Hällo", new String(buffers[1].array(), 0, buffers[1].limit(), StandardCharsets.UTF_8));
+
+    final String closingHead =
+        new String(HttpUtil.encodeResponse(response, false)[0].array(), StandardCharsets.UTF_8);
+    Assert.assertTrue(closingHead.contains("Connection: close\r\n"));
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.http.HttpUtil#isKeepAlive(HttpRequest)}.
+   */
+  @SuppressWarnings("static-method")
+  @Test
+  public void testIsKeepAlive() {
+    final Map<String, String> noHeaders = new HashMap<>();
+    final Map<String, String> closeHeaders = new HashMap<>();
+    closeHeaders.put("Connection", "close");
+    final Map<String, String> keepAliveHeaders = new HashMap<>();
+    keepAliveHeaders.put("Connection", "Keep-Alive");
+
+    Assert.assertTrue(HttpUtil.isKeepAlive(new HttpRequest("GET", "/", "HTTP/1.1", noHeaders, "")));
+    Assert.assertFalse(HttpUtil.isKeepAlive(new HttpRequest("GET", "/", "HTTP/1.1", closeHeaders, "")));
+    Assert.assertFalse(HttpUtil.isKeepAlive(new HttpRequest("GET", "/", "HTTP/1.0", noHeaders, "")));
+    Assert.assertTrue(HttpUtil.isKeepAlive(new HttpRequest("GET", "/", "HTTP/1.0", keepAliveHeaders, "")));
+  }
+
   /**
    * Test method for
    * {@link de.unifreiburg.informatik.cobweb.util.http.HttpUtil#parseContentType(java.lang.String)}.
@@ -74,4 +122,49 @@ public final class HttpUtilTest {
     }
   }
 
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.http.HttpUtil#parseRequest(java.nio.ByteBuffer)}.
+   */
+  @SuppressWarnings("static-method")
+  @Test
+  public void testParseRequestBuffer() {
+    final String first = "POST /route HTTP/1.1\r\ncontent-length: 5\r\n\r\nHello";
+    final String second = "GET /namesearch HTTP/1.1\r\nHost: localhost\r\n\r\n";
+    final byte[] raw = (first + second).getBytes(StandardCharsets.UTF_8);
+
+    // Incomplete requests leave the buffer unchanged
+    final ByteBuffer partialBuffer = ByteBuffer.wrap(raw, 0, first.length() - 1);
+    Assert.assertFalse(HttpUtil.parseRequest(partialBuffer).isPresent());
+    Assert.assertEquals(0, partialBuffer.position());
+
+    // Pipelined requests are parsed one after another
+    final ByteBuffer buffer = ByteBuffer.wrap(raw);
+    final Optional<HttpRequest> firstRequest = HttpUtil.parseRequest(buffer);
+    Assert.assertTrue(firstRequest.isPresent());
+    Assert.assertEquals("POST", firstRequest.get().getType());
+    Assert.assertEquals("/route", firstRequest.get().getResource());
+    Assert.assertEquals("5", firstRequest.get().getHeaders().get("Content-Length"));
+    Assert.assertEquals("Hello", firstRequest.get().getContent());
+    Assert.assertEquals(first.length(), buffer.position());
+
+    final Optional<HttpRequest> secondRequest = HttpUtil.parseRequest(buffer);
+    Assert.assertTrue(secondRequest.isPresent());
+    Assert.assertEquals("/namesearch", secondRequest.get().getResource());
+    Assert.assertEquals("localhost", secondRequest.get().getHeaders().get("host"));
+    Assert.assertEquals("", secondRequest.get().getContent());
+    Assert.assertFalse(buffer.hasRemaining());
+
+    Assert.assertFalse(HttpUtil.parseRequest(buffer).isPresent());
+
+    // Malformed requests are rejected
+    boolean wasExceptionThrown = false;
+    try {
+      HttpUtil.parseRequest(ByteBuffer.wrap("GARBAGE\r\n\r\n".getBytes(StandardCharsets.UTF_8)));
+    } catch (final IllegalArgumentException e) {
+      wasExceptionThrown = true;
+    }
+    Assert.assertTrue(wasExceptionThrown);
+  }
+
 }
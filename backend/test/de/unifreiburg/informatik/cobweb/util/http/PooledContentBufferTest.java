@@ -0,0 +1,60 @@
+package de.unifreiburg.informatik.cobweb.util.http;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+/**
+ * Test for the class {@link PooledContentBuffer}.
+ *
+ * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
+ */
+public final class PooledContentBufferTest {
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.http.PooledContentBuffer#acquire()}.
+   */
+  @SuppressWarnings("static-method")
+  @Test
+  public void testAcquire() {
+    final PooledContentBuffer buffer = PooledContentBuffer.acquire();
+    buffer.write('a');
+    Assert.assertEquals(1, buffer.size());
+
+    final PooledContentBuffer reusedBuffer = PooledContentBuffer.acquire();
+    Assert.assertSame(buffer, reusedBuffer);
+    Assert.assertEquals(0, reusedBuffer.size());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.http.PooledContentBuffer#writeContent(HttpResponse)}.
+   */
+  @SuppressWarnings("static-method")
+  @Test
+  public void testWriteContent() {
+    final PooledContentBuffer buffer = PooledContentBuffer.acquire();
+    buffer.writeContent(new HttpResponseBuilder().setContent("Hällo").build());
+    buffer.writeContent(new HttpResponseBuilder().build());
+    Assert.assertArrayEquals("Hällo".getBytes(StandardCharsets.UTF_8), buffer.toByteArray());
+
+    final HttpResponse response = new HttpResponseBuilder().setContent(buffer).build();
+    Assert.assertEquals("Hällo", response.getContent());
+  }
+
+  /**
+   * Test method for
+   * {@link de.unifreiburg.informatik.cobweb.util.http.PooledContentBuffer#writeJson(Gson, Object, java.lang.reflect.Type)}.
+   */
+  @SuppressWarnings("static-method")
+  @Test
+  public void testWriteJson() {
+    final Gson gson = new Gson();
+    final PooledContentBuffer buffer = PooledContentBuffer.acquire();
+    buffer.writeJson(gson, new String[] { "ä", "b" }, String[].class);
+    Assert.assertEquals("[\"ä\",\"b\"]", new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+  }
+}
@@ -9,9 +9,9 @@
 /** The URL of the routing server which offers a REST API. */
 var routeRequestServer = 'http://localhost:2845/route';
 /** The URL of the name search server which offers a REST API. */
-var nameSearchRequestServer = 'http://localhost:2846/namesearch';
+var nameSearchRequestServer = 'http://localhost:2845/namesearch';
 /** The URL of the nearest search server which offers a REST API. */
-var nearestSearchRequestServer = 'http://localhost:2847/nearestsearch';
+var nearestSearchRequestServer = 'http://localhost:2845/nearestsearch';
 /**The access-token of the Mapbox API to use. */
 var mapboxToken = 'pk.eyJ1IjoiemFidXphcmQiLCJhIjoiY2txMjNxOXVlMDl0YzJ1bG5hN2l4endvNyJ9.JQtSjLMS2eLlvxqIEpEGlQ';
 /** The URL of the Mapbox server. */